@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.transport;
+
+import cn.hutool.core.io.IORuntimeException;
+import cn.hutool.core.io.resource.Resource;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 多个文件打包为一个 zip，上传时边读取文件边压缩写入请求体，不生成临时文件
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class FileBundleResource implements Resource {
+
+    /**
+     * 单个文件在压缩包中除内容外的额外开销（本地文件头、数据描述符、中央目录），不包含文件名
+     */
+    private static final int ENTRY_OVERHEAD = 128;
+    /**
+     * 压缩包结尾的目录记录
+     */
+    private static final int END_OVERHEAD = 64;
+
+    private final Map<String, File> files;
+    private final String name;
+    private long fileSize;
+
+    /**
+     * @param files 压缩包中的路径（使用 / 分隔） -> 文件
+     * @param name  包名称
+     */
+    public FileBundleResource(Map<String, File> files, String name) {
+        this.files = files;
+        this.name = name;
+    }
+
+    /**
+     * 按照压缩包的最大大小拆分为多个包，按未压缩计算（无法压缩的文件 deflate 后会略大于原文件，已经计入额外开销）
+     * <p>
+     * 单个文件超过最大大小时单独成为一个包
+     *
+     * @param files   压缩包中的路径（使用 / 分隔） -> 文件
+     * @param name    包名称
+     * @param maxSize 单个压缩包最大字节数
+     * @return 压缩包
+     */
+    public static List<FileBundleResource> split(Map<String, File> files, String name, long maxSize) {
+        List<FileBundleResource> list = new ArrayList<>();
+        Map<String, File> group = new LinkedHashMap<>();
+        long groupSize = END_OVERHEAD;
+        for (Map.Entry<String, File> entry : files.entrySet()) {
+            long size = estimateSize(entry.getKey(), entry.getValue());
+            if (!group.isEmpty() && groupSize + size > maxSize) {
+                list.add(new FileBundleResource(group, name));
+                group = new LinkedHashMap<>();
+                groupSize = END_OVERHEAD;
+            }
+            group.put(entry.getKey(), entry.getValue());
+            groupSize += size;
+        }
+        if (!group.isEmpty()) {
+            list.add(new FileBundleResource(group, name));
+        }
+        return list;
+    }
+
+    /**
+     * 文件在压缩包中占用的最大字节数
+     *
+     * @param path 压缩包中的路径
+     * @param file 文件
+     * @return 字节数
+     */
+    public static long estimateSize(String path, File file) {
+        long length = file.length();
+        // deflate 对无法压缩的数据每 16K 左右增加 5 字节的块头
+        long deflateOverhead = (length >> 14) * 5 + 5;
+        // 文件名在本地文件头和中央目录中各出现一次
+        return length + deflateOverhead + ENTRY_OVERHEAD + 2L * path.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * 包中所有文件的原始大小
+     *
+     * @return 字节数
+     */
+    public long getTotalSize() {
+        return files.values().stream().mapToLong(File::length).sum();
+    }
+
+    public Map<String, File> getFiles() {
+        return files;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public URL getUrl() {
+        return null;
+    }
+
+    /**
+     * 已经写入的文件原始大小
+     *
+     * @return 字节数
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public int getFileCount() {
+        return files.size();
+    }
+
+    /**
+     * 仅兼容用途，会在内存中生成完整的压缩包
+     *
+     * @return 输入流
+     */
+    @Override
+    public InputStream getStream() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        this.writeTo(outputStream);
+        return new ByteArrayInputStream(outputStream.toByteArray());
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IORuntimeException {
+        long size = 0;
+        try {
+            // 不关闭外部的输出流
+            ZipOutputStream zipOutputStream = new ZipOutputStream(new FilterOutputStream(out) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    out.flush();
+                }
+            });
+            // 小文件为主，优先压缩速度
+            zipOutputStream.setLevel(Deflater.BEST_SPEED);
+            byte[] buffer = new byte[64 * 1024];
+            for (Map.Entry<String, File> entry : files.entrySet()) {
+                File file = entry.getValue();
+                ZipEntry zipEntry = new ZipEntry(entry.getKey());
+                zipEntry.setTime(file.lastModified());
+                zipOutputStream.putNextEntry(zipEntry);
+                try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+                    int read;
+                    while ((read = inputStream.read(buffer)) != -1) {
+                        zipOutputStream.write(buffer, 0, read);
+                        size += read;
+                    }
+                }
+                zipOutputStream.closeEntry();
+            }
+            zipOutputStream.close();
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        } finally {
+            this.fileSize = size;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.transport;
+
+import cn.hutool.core.io.IORuntimeException;
+import cn.hutool.core.io.resource.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 文件中的一段区域，上传时直接从共享的文件通道写入请求体，不在内存中缓存整个分片
+ * <p>
+ * 使用按位置读取，多个线程可以共用同一个文件通道
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class FileRegionResource implements Resource {
+
+    private final FileChannel channel;
+    private final long position;
+    private final long size;
+    private final String name;
+
+    public FileRegionResource(FileChannel channel, long position, long size, String name) {
+        this.channel = channel;
+        this.position = position;
+        this.size = size;
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public URL getUrl() {
+        return null;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public InputStream getStream() {
+        return new RegionInputStream();
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IORuntimeException {
+        WritableByteChannel target = Channels.newChannel(out);
+        long written = 0;
+        try {
+            while (written < size) {
+                long count = channel.transferTo(position + written, size - written, target);
+                if (count <= 0) {
+                    throw new IOException("unexpected end of file " + name);
+                }
+                written += count;
+            }
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    /**
+     * 按位置读取的输入流，不改变通道的当前位置
+     */
+    private class RegionInputStream extends InputStream {
+
+        private long offset;
+
+        @Override
+        public int read() throws IOException {
+            byte[] bytes = new byte[1];
+            int read = this.read(bytes, 0, 1);
+            return read < 0 ? -1 : bytes[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long remaining = size - offset;
+            if (remaining <= 0) {
+                return -1;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, (int) Math.min(len, remaining));
+            int read = channel.read(buffer, position + offset);
+            if (read > 0) {
+                offset += read;
+            }
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(size - offset, Integer.MAX_VALUE);
+        }
+    }
+}
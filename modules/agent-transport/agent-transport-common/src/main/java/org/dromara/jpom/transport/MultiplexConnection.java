@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.transport;
+
+import com.alibaba.fastjson2.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.transport.i18n.TransportI18nMessageUtil;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 服务端和插件端之间的多路复用 websocket 连接
+ * <p>
+ * 一个节点只建立一个连接，控制台、脚本、日志等会话在连接中打开各自的逻辑通道。
+ * 消息帧格式为：类型 + 通道id + 换行 + 内容，类型有：打开、数据、关闭、窗口（流控额度）
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class MultiplexConnection implements Closeable {
+
+    /**
+     * 插件端多路复用连接地址
+     */
+    public static final String PATH = "/multiplex";
+    /**
+     * 每个通道的流控窗口（字符数）
+     */
+    public static final int WINDOW_SIZE = 1024 * 1024;
+    /**
+     * 等待对端归还额度的超时时间，超时后关闭通道
+     */
+    public static final long SEND_TIMEOUT = 60 * 1000;
+
+    static final char OPEN = 'O';
+    static final char DATA = 'D';
+    static final char CLOSE = 'C';
+    static final char WINDOW = 'W';
+
+    /**
+     * 发送原始消息帧
+     */
+    @FunctionalInterface
+    public interface FrameSender {
+        void send(String frame) throws IOException;
+    }
+
+    /**
+     * 对端打开通道
+     */
+    @FunctionalInterface
+    public interface StreamAcceptor {
+        void accept(MultiplexStream stream, String path, Map<String, String> parameters);
+    }
+
+    private final String name;
+    private final FrameSender sender;
+    private final Executor executor;
+    private final StreamAcceptor acceptor;
+    private final Map<Long, MultiplexStream> streams = new ConcurrentHashMap<>();
+    private final AtomicLong streamId = new AtomicLong();
+    private volatile boolean closed;
+    private volatile long lastActive = System.currentTimeMillis();
+
+    /**
+     * @param name     名称，用于日志
+     * @param sender   消息帧发送，需要线程安全
+     * @param executor 处理通道消息的线程池
+     * @param acceptor 对端打开通道的处理，为 null 时拒绝对端打开通道
+     */
+    public MultiplexConnection(String name, FrameSender sender, Executor executor, StreamAcceptor acceptor) {
+        this.name = name;
+        this.sender = sender;
+        this.executor = executor;
+        this.acceptor = acceptor;
+    }
+
+    /**
+     * 打开通道
+     *
+     * @param path       对端的会话地址
+     * @param parameters 会话参数
+     * @param consumer   收到消息的回调
+     * @return 通道
+     * @throws IOException 连接已经关闭
+     */
+    public MultiplexStream open(String path, Map<String, String> parameters, Consumer<String> consumer) throws IOException {
+        if (closed) {
+            throw new IOException(TransportI18nMessageUtil.get("i18n.multiplex_connection_closed.67ae"));
+        }
+        MultiplexStream stream = new MultiplexStream(this, streamId.incrementAndGet());
+        stream.onMessage(consumer);
+        streams.put(stream.getId(), stream);
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("path", path);
+        jsonObject.put("parameters", parameters);
+        try {
+            this.sendFrame(OPEN, stream.getId(), jsonObject.toString());
+        } catch (IOException e) {
+            stream.closed(e.getMessage());
+            throw e;
+        }
+        return stream;
+    }
+
+    /**
+     * 收到对端的消息帧，需要在连接的读取线程中按顺序调用
+     *
+     * @param frame 消息帧
+     */
+    public void onFrame(String frame) {
+        lastActive = System.currentTimeMillis();
+        int index = frame.indexOf('\n');
+        long id;
+        try {
+            id = index > 1 ? Long.parseLong(frame.substring(1, index)) : -1;
+        } catch (NumberFormatException e) {
+            id = -1;
+        }
+        if (id < 0) {
+            log.warn(TransportI18nMessageUtil.get("i18n.multiplex_frame_invalid.7476"), name);
+            return;
+        }
+        char type = frame.charAt(0);
+        String payload = frame.substring(index + 1);
+        if (type == OPEN) {
+            this.accept(id, payload);
+            return;
+        }
+        MultiplexStream stream = streams.get(id);
+        if (stream == null) {
+            // 通道已经关闭
+            return;
+        }
+        switch (type) {
+            case DATA:
+                stream.receive(payload);
+                break;
+            case WINDOW:
+                stream.grant(Long.parseLong(payload));
+                break;
+            case CLOSE:
+                stream.closed(payload.isEmpty() ? null : payload);
+                break;
+            default:
+                log.warn(TransportI18nMessageUtil.get("i18n.multiplex_frame_invalid.7476"), name);
+        }
+    }
+
+    private void accept(long id, String payload) {
+        MultiplexStream stream = new MultiplexStream(this, id);
+        JSONObject jsonObject = JSONObject.parseObject(payload);
+        String path = jsonObject.getString("path");
+        if (acceptor == null || closed) {
+            stream.close(path);
+            return;
+        }
+        streams.put(id, stream);
+        Map<String, String> parameters = new LinkedHashMap<>();
+        JSONObject parametersJson = jsonObject.getJSONObject("parameters");
+        if (parametersJson != null) {
+            parametersJson.forEach((key, value) -> parameters.put(key, value == null ? null : value.toString()));
+        }
+        acceptor.accept(stream, path, parameters);
+    }
+
+    void sendFrame(char type, long id, String payload) throws IOException {
+        lastActive = System.currentTimeMillis();
+        String frame = new StringBuilder(payload.length() + 24).append(type).append(id).append('\n').append(payload).toString();
+        sender.send(frame);
+    }
+
+    void remove(MultiplexStream stream) {
+        streams.remove(stream.getId(), stream);
+        lastActive = System.currentTimeMillis();
+    }
+
+    Executor getExecutor() {
+        return executor;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStreamCount() {
+        return streams.size();
+    }
+
+    /**
+     * 最后一次收发消息或者通道变化的时间
+     *
+     * @return 时间戳
+     */
+    public long getLastActive() {
+        return lastActive;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 关闭连接，所有通道随之关闭
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        String reason = TransportI18nMessageUtil.get("i18n.multiplex_connection_closed.67ae");
+        for (MultiplexStream stream : new ArrayList<>(streams.values())) {
+            stream.closed(reason);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.transport;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.transport.i18n.TransportI18nMessageUtil;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 多路复用连接中的一个逻辑通道
+ * <p>
+ * 每个通道单独流控：发送方最多有一个窗口大小的字符未被对端消费，对端消费后通过窗口消息归还额度。
+ * 收到的消息在线程池中按顺序逐个处理，一个通道处理慢不会阻塞同一连接中的其他通道
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class MultiplexStream implements Closeable {
+
+    private final MultiplexConnection connection;
+    private final long id;
+    /**
+     * 保证同一个通道的消息按调用顺序发送
+     */
+    private final Object sendLock = new Object();
+    private final Object creditLock = new Object();
+    private long credit = MultiplexConnection.WINDOW_SIZE;
+    /**
+     * 已经消费还未归还的额度，只在处理线程中访问
+     */
+    private long consumed;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean open = new AtomicBoolean(true);
+    private volatile Consumer<String> messageConsumer;
+    private volatile Consumer<String> closeConsumer;
+    private volatile String closeReason;
+
+    MultiplexStream(MultiplexConnection connection, long id) {
+        this.connection = connection;
+        this.id = id;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * 收到消息
+     *
+     * @param consumer 回调，在处理线程中按顺序执行
+     */
+    public void onMessage(Consumer<String> consumer) {
+        this.messageConsumer = consumer;
+    }
+
+    /**
+     * 通道关闭，本端和对端关闭都会回调一次
+     *
+     * @param consumer 回调，参数为关闭原因
+     */
+    public void onClose(Consumer<String> consumer) {
+        this.closeConsumer = consumer;
+    }
+
+    public boolean isOpen() {
+        return open.get();
+    }
+
+    public String getCloseReason() {
+        return closeReason;
+    }
+
+    /**
+     * 发送消息，对端未及时消费时等待额度归还
+     *
+     * @param msg 消息
+     * @throws IOException 通道已经关闭或者等待超时
+     */
+    public void send(String msg) throws IOException {
+        synchronized (sendLock) {
+            this.acquire(msg.length());
+            connection.sendFrame(MultiplexConnection.DATA, id, msg);
+        }
+    }
+
+    private void acquire(int length) throws IOException {
+        // 超过窗口的单条消息在额度全部归还后允许发送
+        long need = Math.min(length, MultiplexConnection.WINDOW_SIZE);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MultiplexConnection.SEND_TIMEOUT);
+        synchronized (creditLock) {
+            while (credit < need && open.get()) {
+                long wait = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (wait <= 0) {
+                    String reason = TransportI18nMessageUtil.get("i18n.multiplex_send_timeout.a223");
+                    this.close(reason);
+                    throw new IOException(reason);
+                }
+                try {
+                    creditLock.wait(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+            if (!open.get()) {
+                throw new IOException(TransportI18nMessageUtil.get("i18n.multiplex_connection_closed.67ae"));
+            }
+            credit -= length;
+        }
+    }
+
+    /**
+     * 对端归还额度
+     *
+     * @param size 额度
+     */
+    void grant(long size) {
+        synchronized (creditLock) {
+            credit += size;
+            creditLock.notifyAll();
+        }
+    }
+
+    /**
+     * 收到对端的消息
+     *
+     * @param msg 消息
+     */
+    void receive(String msg) {
+        this.execute(() -> {
+            Consumer<String> consumer = this.messageConsumer;
+            if (consumer != null && open.get()) {
+                consumer.accept(msg);
+            }
+            consumed += msg.length();
+            if (consumed >= MultiplexConnection.WINDOW_SIZE / 2 && open.get()) {
+                long size = consumed;
+                consumed = 0;
+                try {
+                    connection.sendFrame(MultiplexConnection.WINDOW, id, String.valueOf(size));
+                } catch (IOException e) {
+                    log.warn(TransportI18nMessageUtil.get("i18n.multiplex_message_error.82d1"), e);
+                }
+            }
+        });
+    }
+
+    /**
+     * 在当前通道的处理线程中按顺序执行任务
+     *
+     * @param task 任务
+     */
+    public void execute(Runnable task) {
+        tasks.add(task);
+        this.schedule();
+    }
+
+    private void schedule() {
+        if (running.compareAndSet(false, true)) {
+            try {
+                connection.getExecutor().execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // 线程池拒绝时不在调用方（连接的读取线程）中执行，丢弃未处理的消息并关闭通道
+                running.set(false);
+                tasks.clear();
+                String reason = TransportI18nMessageUtil.get("i18n.multiplex_executor_busy.5d37");
+                log.warn("{} {}", reason, id);
+                this.close(reason);
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.error(TransportI18nMessageUtil.get("i18n.multiplex_message_error.82d1"), e);
+                }
+            }
+        } finally {
+            running.set(false);
+            if (!tasks.isEmpty()) {
+                this.schedule();
+            }
+        }
+    }
+
+    /**
+     * 关闭通道，并通知对端
+     *
+     * @param reason 原因
+     */
+    public void close(String reason) {
+        if (this.closed(reason)) {
+            try {
+                connection.sendFrame(MultiplexConnection.CLOSE, id, reason == null ? "" : reason);
+            } catch (IOException e) {
+                log.debug("send close frame", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        this.close(null);
+    }
+
+    /**
+     * 标记关闭，不通知对端
+     *
+     * @param reason 原因
+     * @return 是否为本次关闭
+     */
+    boolean closed(String reason) {
+        if (!open.compareAndSet(true, false)) {
+            return false;
+        }
+        this.closeReason = reason;
+        synchronized (creditLock) {
+            creditLock.notifyAll();
+        }
+        connection.remove(this);
+        this.execute(() -> {
+            Consumer<String> consumer = this.closeConsumer;
+            if (consumer != null) {
+                consumer.accept(reason);
+            }
+        });
+        return true;
+    }
+}
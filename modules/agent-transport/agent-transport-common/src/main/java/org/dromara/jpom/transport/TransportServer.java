@@ -89,4 +89,16 @@ public interface TransportServer {
      * @return websocket
      */
     IProxyWebSocket websocket(INodeInfo nodeInfo, IUrlItem urlItem, Object... parameters);
+
+    /**
+     * 在节点共享的多路复用连接中打开通道，只支持文本消息。不支持多路复用时使用独立的 websocket 连接
+     *
+     * @param nodeInfo   节点信息
+     * @param urlItem    请求 item
+     * @param parameters 参数
+     * @return websocket
+     */
+    default IProxyWebSocket multiplexWebsocket(INodeInfo nodeInfo, IUrlItem urlItem, Object... parameters) {
+        return this.websocket(nodeInfo, urlItem, parameters);
+    }
 }
@@ -11,6 +11,8 @@ package org.dromara.jpom.transport;
 
 import cn.hutool.core.lang.Singleton;
 import cn.hutool.core.util.ServiceLoaderUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.core.util.SystemPropsUtil;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -20,6 +22,12 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class TransportServerFactory {
 
+    /**
+     * 指定使用的传输服务，值为实现类名去掉 TransportServer 后缀（忽略大小写和中划线），如：http、pooled-http。
+     * 未配置时使用第一个可用的实现
+     */
+    public static final String TRANSPORT_SERVER_PROPERTY = "JPOM_NODE_TRANSPORT_SERVER";
+
     /**
      * 获得单例的 TransportServer
      *
@@ -49,6 +57,14 @@ public class TransportServerFactory {
      * @return {@code EngineFactory}
      */
     private static TransportServer doCreate() {
+        String name = SystemPropsUtil.get(TRANSPORT_SERVER_PROPERTY);
+        if (StrUtil.isNotEmpty(name)) {
+            TransportServer transportServer = of(name);
+            if (transportServer != null) {
+                return transportServer;
+            }
+            log.warn("No jpom agent transport named [{}] found, use default.", name);
+        }
         final TransportServer engine = ServiceLoaderUtil.loadFirstAvailable(TransportServer.class);
         if (null != engine) {
             return engine;
@@ -56,4 +72,21 @@ public class TransportServerFactory {
 
         throw new RuntimeException("No jpom agent transport jar found ! Please add one of it to your project !");
     }
+
+    /**
+     * 根据名称创建传输服务
+     *
+     * @param name 名称，如：http、pooled-http
+     * @return 没有对应实现返回 null
+     */
+    public static TransportServer of(String name) {
+        String target = StrUtil.removeAll(name, '-', '_');
+        for (TransportServer transportServer : ServiceLoaderUtil.loadList(TransportServer.class)) {
+            String simpleName = StrUtil.removeSuffix(transportServer.getClass().getSimpleName(), TransportServer.class.getSimpleName());
+            if (StrUtil.equalsIgnoreCase(simpleName, target) || StrUtil.equals(transportServer.getClass().getName(), name)) {
+                return transportServer;
+            }
+        }
+        return null;
+    }
 }
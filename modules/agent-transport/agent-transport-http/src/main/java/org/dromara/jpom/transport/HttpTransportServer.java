@@ -22,6 +22,7 @@ import org.dromara.jpom.encrypt.Encryptor;
 import org.dromara.jpom.transport.i18n.TransportI18nMessageUtil;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
@@ -35,6 +36,10 @@ import java.util.function.Consumer;
 @Slf4j
 public class HttpTransportServer implements TransportServer {
 
+    /**
+     * 流式上传文件时的分块大小
+     */
+    private static final int STREAMING_BLOCK_SIZE = 64 * 1024;
 
     private HttpRequest createRequest(INodeInfo nodeInfo, IUrlItem urlItem, Method method) {
         String url = StrUtil.format("{}://{}/", nodeInfo.scheme(), nodeInfo.url());
@@ -81,6 +86,10 @@ public class HttpTransportServer implements TransportServer {
                                     valueStr[i] = encryptor.encrypt(valueStr[i]);
                                 }
                                 newValue = valueStr;
+                            } else if (value instanceof FileRegionResource || value instanceof FileBundleResource) {
+                                // 分块传输，避免 HttpURLConnection 在内存中缓存整个请求体
+                                httpRequest.setChunkedStreamingMode(STREAMING_BLOCK_SIZE);
+                                newValue = value;
                             } else if (value instanceof Resource) {
                                 newValue = value;
                             } else {
@@ -152,29 +161,47 @@ public class HttpTransportServer implements TransportServer {
 
     @Override
     public IProxyWebSocket websocket(INodeInfo nodeInfo, IUrlItem urlItem, Object... parameters) {
+        String uriTemplate = this.createWebSocketUri(nodeInfo, urlItem.path(), urlBuilder -> {
+            urlBuilder.addQuery(WORKSPACE_ID_REQ_HEADER, urlItem.workspaceId());
+            for (int i = 0; i < parameters.length; i += 2) {
+                Object parameter = parameters[i + 1];
+                String value = Convert.toStr(parameter, StrUtil.EMPTY);
+                urlBuilder.addQuery(parameters[i].toString(), value);
+            }
+        });
+        //
+        if (log.isDebugEnabled()) {
+            log.debug("{}[{}] -> {}", nodeInfo.name(), uriTemplate, urlItem.workspaceId());
+        }
+        Integer timeout = urlItem.timeout();
+        return new ServletWebSocketClientHandler(uriTemplate, timeout);
+    }
+
+    @Override
+    public IProxyWebSocket multiplexWebsocket(INodeInfo nodeInfo, IUrlItem urlItem, Object... parameters) {
+        String uriTemplate = this.createWebSocketUri(nodeInfo, MultiplexConnection.PATH, null);
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put(WORKSPACE_ID_REQ_HEADER, StrUtil.emptyToDefault(urlItem.workspaceId(), StrUtil.EMPTY));
+        for (int i = 0; i < parameters.length; i += 2) {
+            map.put(parameters[i].toString(), Convert.toStr(parameters[i + 1], StrUtil.EMPTY));
+        }
+        return new MultiplexProxyWebSocket(uriTemplate, nodeInfo.name(), urlItem.timeout(), urlItem.path(), map,
+            () -> this.websocket(nodeInfo, urlItem, parameters));
+    }
+
+    private String createWebSocketUri(INodeInfo nodeInfo, String path, Consumer<UrlBuilder> consumer) {
         String url = StrUtil.format("{}://{}/", nodeInfo.scheme(), nodeInfo.url());
-        UrlBuilder urlBuilder = UrlBuilder.of(url).addPath(urlItem.path());
+        UrlBuilder urlBuilder = UrlBuilder.of(url).addPath(path);
         //
         urlBuilder.addQuery(JPOM_AGENT_AUTHORIZE, nodeInfo.authorize());
         //
-        urlBuilder.addQuery(WORKSPACE_ID_REQ_HEADER, urlItem.workspaceId());
-        for (int i = 0; i < parameters.length; i += 2) {
-            Object parameter = parameters[i + 1];
-            String value = Convert.toStr(parameter, StrUtil.EMPTY);
-            urlBuilder.addQuery(parameters[i].toString(), value);
-        }
+        Optional.ofNullable(consumer).ifPresent(builderConsumer -> builderConsumer.accept(urlBuilder));
         urlBuilder.setWithEndTag(false);
         String uriTemplate = urlBuilder.build();
         uriTemplate = StrUtil.removePrefixIgnoreCase(uriTemplate, nodeInfo.scheme());
         String wss = "wss";
         String ws = "ws";
         String protocol = "https".equalsIgnoreCase(nodeInfo.scheme()) ? wss : ws;
-        uriTemplate = StrUtil.format("{}{}", protocol, uriTemplate);
-        //
-        if (log.isDebugEnabled()) {
-            log.debug("{}[{}] -> {}", nodeInfo.name(), uriTemplate, urlItem.workspaceId());
-        }
-        Integer timeout = urlItem.timeout();
-        return new ServletWebSocketClientHandler(uriTemplate, timeout);
+        return StrUtil.format("{}{}", protocol, uriTemplate);
     }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.transport;
+
+import org.dromara.jpom.transport.i18n.TransportI18nMessageUtil;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 多路复用连接中的会话，节点不支持多路复用时使用独立的 websocket 连接
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class MultiplexProxyWebSocket implements IProxyWebSocket {
+
+    private final String uri;
+    private final String name;
+    private final Integer timeout;
+    private final String path;
+    private final Map<String, String> parameters;
+    private final Supplier<IProxyWebSocket> fallback;
+    private Consumer<String> consumerText;
+    private volatile MultiplexStream stream;
+    private volatile IProxyWebSocket delegate;
+
+    public MultiplexProxyWebSocket(String uri, String name, Integer timeout, String path, Map<String, String> parameters, Supplier<IProxyWebSocket> fallback) {
+        this.uri = uri;
+        this.name = name;
+        this.timeout = timeout;
+        this.path = path;
+        this.parameters = parameters;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public void close() throws IOException {
+        MultiplexStream multiplexStream = this.stream;
+        if (multiplexStream != null) {
+            multiplexStream.close();
+            this.stream = null;
+        }
+        IProxyWebSocket proxyWebSocket = this.delegate;
+        if (proxyWebSocket != null) {
+            proxyWebSocket.close();
+            this.delegate = null;
+        }
+    }
+
+    @Override
+    public boolean connect() {
+        return this.connectBlocking(5);
+    }
+
+    @Override
+    public boolean connectBlocking() {
+        return this.connectBlocking(Optional.ofNullable(this.timeout).orElse(60));
+    }
+
+    @Override
+    public boolean connectBlocking(int seconds) {
+        Assert.state(this.stream == null && this.delegate == null, "The connection has been established, do not repeat the connection");
+        try {
+            this.stream = MultiplexWebSocketClient.open(uri, name, seconds, path, parameters, this::onText);
+        } catch (IOException e) {
+            return false;
+        }
+        if (this.stream != null) {
+            return true;
+        }
+        IProxyWebSocket proxyWebSocket = fallback.get();
+        proxyWebSocket.onMessage(this::onText);
+        this.delegate = proxyWebSocket;
+        return proxyWebSocket.connectBlocking(seconds);
+    }
+
+    private void onText(String msg) {
+        Optional.ofNullable(this.consumerText).ifPresent(consumer -> consumer.accept(msg));
+    }
+
+    @Override
+    public void send(String msg) throws IOException {
+        IProxyWebSocket proxyWebSocket = this.delegate;
+        if (proxyWebSocket != null) {
+            proxyWebSocket.send(msg);
+            return;
+        }
+        MultiplexStream multiplexStream = this.stream;
+        Assert.notNull(multiplexStream, TransportI18nMessageUtil.get("i18n.not_connected.fa55"));
+        multiplexStream.send(msg);
+    }
+
+    @Override
+    public void send(ByteBuffer bytes) throws IOException {
+        IProxyWebSocket proxyWebSocket = this.delegate;
+        Assert.notNull(proxyWebSocket, TransportI18nMessageUtil.get("i18n.multiplex_binary_unsupported.6275"));
+        proxyWebSocket.send(bytes);
+    }
+
+    @Override
+    public void onMessage(Consumer<String> consumer) {
+        this.consumerText = consumer;
+    }
+
+    @Override
+    public boolean isConnected() {
+        IProxyWebSocket proxyWebSocket = this.delegate;
+        if (proxyWebSocket != null) {
+            return proxyWebSocket.isConnected();
+        }
+        MultiplexStream multiplexStream = this.stream;
+        return multiplexStream != null && multiplexStream.isOpen();
+    }
+
+    @Override
+    public String getCloseStatusMsg() {
+        IProxyWebSocket proxyWebSocket = this.delegate;
+        if (proxyWebSocket != null) {
+            return proxyWebSocket.getCloseStatusMsg();
+        }
+        return Optional.ofNullable(this.stream).map(MultiplexStream::getCloseReason).orElse("");
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.transport;
+
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.transport.i18n.TransportI18nMessageUtil;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * 服务端到插件端的多路复用连接，同一个节点（地址和授权信息相同）共用一个连接
+ * <p>
+ * 连接在第一次打开通道时建立，没有通道一段时间后自动关闭
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class MultiplexWebSocketClient {
+
+    /**
+     * 没有通道后保持连接的时间
+     */
+    private static final long IDLE_TIMEOUT = 60 * 1000L;
+    /**
+     * 节点不支持多路复用时，间隔多久后再次尝试
+     */
+    private static final long UNSUPPORTED_RETRY = 5 * 60 * 1000L;
+
+    private static final Map<String, MultiplexWebSocketClient> CLIENTS = new ConcurrentHashMap<>();
+    private static final Map<String, Long> UNSUPPORTED = new ConcurrentHashMap<>();
+    private static volatile ExecutorService executor;
+    private static final int MAX_POOL_SIZE = 200;
+
+    private final String uri;
+    private final ServletWebSocketClientHandler handler;
+    private final MultiplexConnection connection;
+
+    private MultiplexWebSocketClient(String uri, String name) {
+        this.uri = uri;
+        this.handler = new ServletWebSocketClientHandler(uri, null);
+        this.connection = new MultiplexConnection(name, handler::send, executor(), null);
+        this.handler.onMessage(connection::onFrame);
+        this.handler.onClose(s -> this.close());
+    }
+
+    /**
+     * 在节点的多路复用连接中打开通道
+     *
+     * @param uri        多路复用连接地址
+     * @param name       节点名称
+     * @param timeout    连接超时时间（秒）
+     * @param path       会话地址
+     * @param parameters 会话参数
+     * @param consumer   收到消息的回调
+     * @return 节点不支持多路复用或者连接失败返回 null
+     * @throws IOException 打开通道失败
+     */
+    public static MultiplexStream open(String uri, String name, int timeout, String path, Map<String, String> parameters, Consumer<String> consumer) throws IOException {
+        Long unsupported = UNSUPPORTED.get(uri);
+        if (unsupported != null) {
+            if (System.currentTimeMillis() - unsupported < UNSUPPORTED_RETRY) {
+                return null;
+            }
+            UNSUPPORTED.remove(uri, unsupported);
+        }
+        MultiplexWebSocketClient client = CLIENTS.computeIfAbsent(uri, key -> new MultiplexWebSocketClient(key, name));
+        if (!client.connect(timeout)) {
+            client.close();
+            UNSUPPORTED.put(uri, System.currentTimeMillis());
+            log.warn(TransportI18nMessageUtil.get("i18n.multiplex_connect_failed.349d"), name);
+            return null;
+        }
+        return client.connection.open(path, parameters, consumer);
+    }
+
+    private synchronized boolean connect(int timeout) {
+        if (handler.isConnected()) {
+            return true;
+        }
+        if (connection.isClosed()) {
+            return false;
+        }
+        return handler.connectBlocking(timeout);
+    }
+
+    private void close() {
+        CLIENTS.remove(uri, this);
+        connection.close();
+        try {
+            handler.close();
+        } catch (IOException e) {
+            log.debug("close multiplex connection", e);
+        }
+    }
+
+    /**
+     * 关闭空闲的连接
+     */
+    private static void closeIdle() {
+        long now = System.currentTimeMillis();
+        for (MultiplexWebSocketClient client : new ArrayList<>(CLIENTS.values())) {
+            MultiplexConnection connection = client.connection;
+            if (connection.getStreamCount() == 0 && now - connection.getLastActive() > IDLE_TIMEOUT) {
+                client.close();
+            }
+        }
+    }
+
+    private static ExecutorService executor() {
+        if (executor == null) {
+            synchronized (MultiplexWebSocketClient.class) {
+                if (executor == null) {
+                    executor = ExecutorBuilder.create()
+                        .setCorePoolSize(MAX_POOL_SIZE)
+                        .setMaxPoolSize(MAX_POOL_SIZE)
+                        .setAllowCoreThreadTimeOut(true)
+                        // 线程数达到上限后通道排队等待空闲线程（通道中的消息仍在各自的队列中按顺序处理），
+                        // 处理器不能在连接的读取线程中执行，否则一个耗时的处理器会阻塞整个连接
+                        .setWorkQueue(new LinkedBlockingQueue<>())
+                        .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("jpom-multiplex-").setDaemon(true).build())
+                        .build();
+                    ScheduledExecutorService scheduled = Executors.newSingleThreadScheduledExecutor(
+                        ThreadFactoryBuilder.create().setNamePrefix("jpom-multiplex-idle-").setDaemon(true).build());
+                    scheduled.scheduleWithFixedDelay(MultiplexWebSocketClient::closeIdle, 30, 30, TimeUnit.SECONDS);
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 运行指标
+     *
+     * @return map
+     */
+    public static Map<String, Object> getMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("connections", CLIENTS.size());
+        map.put("streams", CLIENTS.values().stream().mapToInt(client -> client.connection.getStreamCount()).sum());
+        map.put("unsupported", UNSUPPORTED.size());
+        return map;
+    }
+}
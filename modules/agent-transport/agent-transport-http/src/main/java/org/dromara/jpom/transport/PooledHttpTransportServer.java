@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.transport;
+
+import cn.hutool.core.io.resource.Resource;
+import cn.hutool.core.net.url.UrlBuilder;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.core.util.SystemPropsUtil;
+import com.alibaba.fastjson2.JSONObject;
+import lombok.Lombok;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.entity.UrlEncodedFormEntity;
+import org.apache.hc.client5.http.entity.mime.AbstractContentBody;
+import org.apache.hc.client5.http.entity.mime.HttpMultipartMode;
+import org.apache.hc.client5.http.entity.mime.MultipartEntityBuilder;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.client5.http.ssl.TrustAllStrategy;
+import org.apache.hc.core5.http.*;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http.message.BasicNameValuePair;
+import org.apache.hc.core5.net.URIBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.dromara.jpom.encrypt.EncryptFactory;
+import org.dromara.jpom.encrypt.Encryptor;
+import org.dromara.jpom.transport.i18n.TransportI18nMessageUtil;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 使用连接池的插件端消息传输服务
+ * <p>
+ * 所有节点共用一个有上限的连接池（按节点限制连接数），请求完成后连接保持存活复用，不再每次请求重新建立 TCP/TLS 连接。
+ * 仅支持 HTTP/1.1，使用 socks 代理的节点和 websocket 仍然由 {@link HttpTransportServer} 处理
+ * <p>
+ * 通过系统属性 JPOM_NODE_TRANSPORT_SERVER=pooled-http 启用
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class PooledHttpTransportServer implements TransportServer {
+
+    /**
+     * 从连接池获取连接的最长等待时间
+     */
+    private static final Timeout POOL_WAIT_TIMEOUT = Timeout.ofSeconds(30);
+
+    private final HttpTransportServer fallback = new HttpTransportServer();
+    private volatile PoolingHttpClientConnectionManager connectionManager;
+    private volatile CloseableHttpClient httpClient;
+
+    /**
+     * 延迟创建连接池，服务加载时不占用资源
+     *
+     * @return client
+     */
+    private CloseableHttpClient client() {
+        if (httpClient == null) {
+            synchronized (this) {
+                if (httpClient == null) {
+                    int maxPerNode = Math.max(SystemPropsUtil.getInt("JPOM_NODE_TRANSPORT_POOL_MAX_PER_NODE", 20), 1);
+                    int maxTotal = Math.max(SystemPropsUtil.getInt("JPOM_NODE_TRANSPORT_POOL_MAX_TOTAL", 200), maxPerNode);
+                    TimeValue keepAlive = TimeValue.ofSeconds(Math.max(SystemPropsUtil.getLong("JPOM_NODE_TRANSPORT_KEEP_ALIVE", 60L), 1));
+                    SSLConnectionSocketFactory sslSocketFactory;
+                    try {
+                        // 和 HttpTransportServer 保持一致，插件端一般使用自签名证书
+                        sslSocketFactory = new SSLConnectionSocketFactory(SSLContexts.custom().loadTrustMaterial(TrustAllStrategy.INSTANCE).build(),
+                            NoopHostnameVerifier.INSTANCE);
+                    } catch (Exception e) {
+                        throw Lombok.sneakyThrow(e);
+                    }
+                    PoolingHttpClientConnectionManager manager = PoolingHttpClientConnectionManagerBuilder.create()
+                        .setSSLSocketFactory(sslSocketFactory)
+                        .setMaxConnPerRoute(maxPerNode)
+                        .setMaxConnTotal(maxTotal)
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build();
+                    httpClient = HttpClients.custom()
+                        .setConnectionManager(manager)
+                        .setKeepAliveStrategy((response, context) -> {
+                            TimeValue duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                            return TimeValue.isPositive(duration) && duration.compareTo(keepAlive) < 0 ? duration : keepAlive;
+                        })
+                        .evictExpiredConnections()
+                        .evictIdleConnections(keepAlive)
+                        .disableCookieManagement()
+                        .disableAuthCaching()
+                        .setDefaultRequestConfig(RequestConfig.custom()
+                            .setConnectionRequestTimeout(POOL_WAIT_TIMEOUT)
+                            .setRedirectsEnabled(false)
+                            .build())
+                        .build();
+                    connectionManager = manager;
+                    log.debug("create transport connection pool {} {} {}", maxPerNode, maxTotal, keepAlive);
+                }
+            }
+        }
+        return httpClient;
+    }
+
+    /**
+     * 连接池状态
+     *
+     * @return 未创建连接池时返回 null
+     */
+    public PoolStats getPoolStats() {
+        return Optional.ofNullable(connectionManager).map(PoolingHttpClientConnectionManager::getTotalStats).orElse(null);
+    }
+
+    private boolean useFallback(INodeInfo nodeInfo) {
+        Proxy proxy = nodeInfo.proxy();
+        return proxy != null && proxy.type() == Proxy.Type.SOCKS;
+    }
+
+    private HttpUriRequestBase createRequest(INodeInfo nodeInfo, IUrlItem urlItem, Method method, Object data, boolean followRedirects) throws Exception {
+        String url = StrUtil.format("{}://{}/", nodeInfo.scheme(), nodeInfo.url());
+        URIBuilder uriBuilder = new URIBuilder(UrlBuilder.of(url).addPath(urlItem.path()).build());
+        Encryptor encryptor = EncryptFactory.createEncryptor(nodeInfo.transportEncryption());
+        HttpEntity entity = null;
+        if (data != null) {
+            try {
+                entity = this.createEntity(uriBuilder, urlItem, data, encryptor, method == Method.GET);
+            } catch (Exception e) {
+                log.error(TransportI18nMessageUtil.get("i18n.encoding_error.b685"), e);
+                throw new TransportAgentException(TransportI18nMessageUtil.get("i18n.node_transfer_info_encoding_exception.12c8") + e.getMessage());
+            }
+        }
+        HttpUriRequestBase request = new HttpUriRequestBase(method.name(), uriBuilder.build());
+        request.setEntity(entity);
+        // 添加请求头
+        Optional.ofNullable(urlItem.header()).ifPresent(map -> map.forEach(request::setHeader));
+        request.setHeader(TRANSPORT_ENCRYPTION, nodeInfo.transportEncryption() + "");
+        request.setHeader(JPOM_AGENT_AUTHORIZE, nodeInfo.authorize());
+        request.setHeader(WORKSPACE_ID_REQ_HEADER, urlItem.workspaceId());
+        //
+        RequestConfig.Builder configBuilder = RequestConfig.custom()
+            .setConnectionRequestTimeout(POOL_WAIT_TIMEOUT)
+            .setRedirectsEnabled(followRedirects);
+        Optional.ofNullable(urlItem.timeout()).ifPresent(integer -> {
+            configBuilder.setConnectTimeout(Timeout.ofSeconds(integer));
+            configBuilder.setResponseTimeout(Timeout.ofSeconds(integer));
+        });
+        Optional.ofNullable(nodeInfo.proxy())
+            .filter(proxy -> proxy.type() == Proxy.Type.HTTP)
+            .map(proxy -> (InetSocketAddress) proxy.address())
+            .ifPresent(address -> configBuilder.setProxy(new HttpHost(address.getHostString(), address.getPort())));
+        request.setConfig(configBuilder.build());
+        return request;
+    }
+
+    @SuppressWarnings("unchecked")
+    private HttpEntity createEntity(URIBuilder uriBuilder, IUrlItem urlItem, Object data, Encryptor encryptor, boolean get) throws Exception {
+        DataContentType dataContentType = urlItem.contentType();
+        if (dataContentType == DataContentType.JSON) {
+            return new StringEntity(encryptor.encrypt(JSONObject.toJSONString(data)), ContentType.APPLICATION_JSON);
+        }
+        if (dataContentType != DataContentType.FORM_URLENCODED) {
+            throw new IllegalArgumentException(TransportI18nMessageUtil.get("i18n.content_type_not_supported.81a9"));
+        }
+        if (!(data instanceof Map)) {
+            throw new IllegalArgumentException(TransportI18nMessageUtil.get("i18n.unsupported_type_with_colon.1050") + data.getClass());
+        }
+        Map<String, Object> map = (Map<String, Object>) data;
+        List<NameValuePair> parameters = new ArrayList<>();
+        Map<String, Resource> resources = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            String encryptedKey = encryptor.encrypt(entry.getKey());
+            Object value = entry.getValue();
+            if (value instanceof String[]) {
+                // 数组参数使用同名参数传递，插件端逐个解密
+                for (String item : (String[]) value) {
+                    parameters.add(new BasicNameValuePair(encryptedKey, encryptor.encrypt(item)));
+                }
+            } else if (value instanceof Resource) {
+                resources.put(encryptedKey, (Resource) value);
+            } else {
+                parameters.add(new BasicNameValuePair(encryptedKey, encryptor.encrypt(StrUtil.toStringOrNull(value))));
+            }
+        }
+        if (resources.isEmpty()) {
+            if (get) {
+                uriBuilder.addParameters(parameters);
+                return null;
+            }
+            return new UrlEncodedFormEntity(parameters, StandardCharsets.UTF_8);
+        }
+        MultipartEntityBuilder builder = MultipartEntityBuilder.create()
+            .setMode(HttpMultipartMode.LEGACY)
+            .setCharset(StandardCharsets.UTF_8);
+        ContentType textType = ContentType.TEXT_PLAIN.withCharset(StandardCharsets.UTF_8);
+        for (NameValuePair parameter : parameters) {
+            builder.addTextBody(parameter.getName(), StrUtil.nullToEmpty(parameter.getValue()), textType);
+        }
+        for (Map.Entry<String, Resource> entry : resources.entrySet()) {
+            builder.addPart(entry.getKey(), new ResourceContentBody(entry.getValue()));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String execute(INodeInfo nodeInfo, IUrlItem urlItem, Object data) {
+        if (this.useFallback(nodeInfo)) {
+            return fallback.execute(nodeInfo, urlItem, data);
+        }
+        try {
+            HttpUriRequestBase request = this.createRequest(nodeInfo, urlItem, Method.POST, data, false);
+            if (log.isDebugEnabled()) {
+                log.debug("{}[{}] -> {} {}", nodeInfo.name(), request.getRequestUri(), urlItem.workspaceId(), Optional.ofNullable(data).orElse("-"));
+            }
+            return this.client().execute(request, response -> {
+                int status = response.getCode();
+                String body = Optional.ofNullable(response.getEntity()).map(entity -> {
+                    try {
+                        return EntityUtils.toString(entity, StandardCharsets.UTF_8);
+                    } catch (Exception e) {
+                        throw Lombok.sneakyThrow(e);
+                    }
+                }).orElse(StrUtil.EMPTY);
+                log.debug("Completed {}", body);
+                if (status != HttpStatus.SC_OK) {
+                    log.warn(TransportI18nMessageUtil.get("i18n.response_exception_status_code.cbca"), nodeInfo.name(), status, body);
+                    throw new TransportAgentException(nodeInfo.name() + TransportI18nMessageUtil.get("i18n.node_response_error.efc6") + status);
+                }
+                return body;
+            });
+        } catch (Exception e) {
+            throw Lombok.sneakyThrow(TransformServerFactory.get().transformException(e, nodeInfo));
+        }
+    }
+
+    @Override
+    public void download(INodeInfo nodeInfo, IUrlItem urlItem, Object data, Consumer<DownloadCallback> consumer) {
+        if (this.useFallback(nodeInfo)) {
+            fallback.download(nodeInfo, urlItem, data, consumer);
+            return;
+        }
+        try {
+            HttpUriRequestBase request = this.createRequest(nodeInfo, urlItem, Method.GET, data, true);
+            try (CloseableHttpResponse response = this.client().execute(request)) {
+                HttpEntity entity = response.getEntity();
+                DownloadCallback build = DownloadCallback.builder()
+                    .contentDisposition(Optional.ofNullable(response.getFirstHeader(HttpHeaders.CONTENT_DISPOSITION)).map(Header::getValue).orElse(null))
+                    .contentType(Optional.ofNullable(response.getFirstHeader(HttpHeaders.CONTENT_TYPE)).map(Header::getValue).orElse(null))
+                    .inputStream(entity == null ? null : entity.getContent())
+                    .build();
+                consumer.accept(build);
+                // 读取剩余内容，连接放回连接池
+                EntityUtils.consume(entity);
+            }
+        } catch (Exception e) {
+            throw Lombok.sneakyThrow(TransformServerFactory.get().transformException(e, nodeInfo));
+        }
+    }
+
+    @Override
+    public IProxyWebSocket websocket(INodeInfo nodeInfo, IUrlItem urlItem, Object... parameters) {
+        return fallback.websocket(nodeInfo, urlItem, parameters);
+    }
+
+    @Override
+    public IProxyWebSocket multiplexWebsocket(INodeInfo nodeInfo, IUrlItem urlItem, Object... parameters) {
+        return fallback.multiplexWebsocket(nodeInfo, urlItem, parameters);
+    }
+
+    /**
+     * 上传的文件内容，直接写入请求体
+     */
+    private static class ResourceContentBody extends AbstractContentBody {
+
+        private final Resource resource;
+
+        ResourceContentBody(Resource resource) {
+            super(ContentType.APPLICATION_OCTET_STREAM);
+            this.resource = resource;
+        }
+
+        @Override
+        public String getFilename() {
+            return resource.getName();
+        }
+
+        @Override
+        public long getContentLength() {
+            return resource instanceof FileRegionResource ? ((FileRegionResource) resource).size() : -1;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) {
+            resource.writeTo(out);
+        }
+    }
+}
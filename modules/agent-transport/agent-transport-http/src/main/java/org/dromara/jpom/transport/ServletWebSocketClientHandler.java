@@ -44,6 +44,7 @@ public class ServletWebSocketClientHandler extends AbstractWebSocketHandler impl
     private final Integer timeout;
     private final String uriTemplate;
     private Consumer<String> consumerText;
+    private Consumer<String> consumerClose;
     private WebSocketConnectionManager manager;
     private CloseStatus closeStatus;
 
@@ -57,6 +58,15 @@ public class ServletWebSocketClientHandler extends AbstractWebSocketHandler impl
         this.consumerText = consumer;
     }
 
+    /**
+     * 连接关闭
+     *
+     * @param consumer 回调，参数为关闭状态描述
+     */
+    public void onClose(Consumer<String> consumer) {
+        this.consumerClose = consumer;
+    }
+
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
         Optional.ofNullable(this.consumerText).ifPresent(consumer -> consumer.accept(message.getPayload()));
@@ -146,6 +156,7 @@ public class ServletWebSocketClientHandler extends AbstractWebSocketHandler impl
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         this.closeStatus = status;
         log.warn(TransportI18nMessageUtil.get("i18n.connection_closed.6d4e"), status.getCode(), status.getReason());
+        Optional.ofNullable(this.consumerClose).ifPresent(consumer -> consumer.accept(this.getCloseStatusMsg()));
     }
 
     @Override
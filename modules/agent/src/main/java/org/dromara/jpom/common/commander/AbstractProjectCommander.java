@@ -44,6 +44,7 @@ import org.dromara.jpom.socket.AgentFileTailWatcher;
 import org.dromara.jpom.socket.ConsoleCommandOp;
 import org.dromara.jpom.util.CommandUtil;
 import org.dromara.jpom.util.JvmUtil;
+import org.dromara.jpom.util.LogArchiveUtil;
 import org.dromara.jpom.webhook.DefaultWebhookPluginImpl;
 import org.springframework.util.Assert;
 
@@ -522,9 +523,21 @@ public abstract class AbstractProjectCommander implements ProjectCommander {
         if (openLogBack) {
             // 开启日志备份才移动文件
             File backPath = projectInfoService.resolveLogBack(nodeProjectInfoModel, originalModel);
-            String pathId = DateTime.now().toString(DatePattern.PURE_DATETIME_FORMAT) + ".log";
-            backPath = new File(backPath, pathId);
-            FileUtil.copy(file, backPath, true);
+            String pathId = DateTime.now().toString(DatePattern.PURE_DATETIME_FORMAT);
+            if (projectLogConfig.isCompressBackup()) {
+                File archive = new File(backPath, pathId + LogArchiveUtil.ARCHIVE_SUFFIX);
+                try {
+                    // 压缩归档后已经截断原文件
+                    LogArchiveUtil.rotate(file, archive);
+                    AgentFileTailWatcher.reWatcher(file);
+                    return "ok";
+                } catch (IOException e) {
+                    log.warn(I18nMessageUtil.get("i18n.compress_log_backup_failed.8894"), e);
+                    FileUtil.del(archive);
+                    FileUtil.del(LogArchiveUtil.indexFile(archive));
+                }
+            }
+            FileUtil.copy(file, new File(backPath, pathId + ".log"), true);
         }
         // 清空日志
         String r = systemCommander.emptyLogFile(file);
@@ -586,8 +599,8 @@ public abstract class AbstractProjectCommander implements ProjectCommander {
             String tag = nodeProjectInfoModel.getId();
             String statusResult = this.status(tag);
             CommandOpResult of = CommandOpResult.of(statusResult);
-            if (!of.isSuccess()) {
-                // 只有 java 项目才判断 jps
+            if (!of.isSuccess() && !ProcessTableSnapshot.isProcSupported()) {
+                // 只有 java 项目才判断 jps（支持 /proc 的系统不依赖 jps）
                 Assert.state(JvmUtil.jpsNormal, JvmUtil.JPS_ERROR_MSG);
             }
             return of;
@@ -631,36 +644,36 @@ public abstract class AbstractProjectCommander implements ProjectCommander {
      * @return 查询结果
      */
     protected String status(String tag) {
-        String jpsStatus = this.getJpsStatus(tag);
-        if (StrUtil.equals(AbstractProjectCommander.STOP_TAG, jpsStatus)) {
-            // 通过系统命令查询
-            return this.bySystemPs(tag);
+        ProcessTableSnapshot snapshot = this.getProcessTableSnapshot();
+        Integer pid = snapshot.getPid(tag);
+        if (pid != null && pid > 0) {
+            return StrUtil.format("{}:{}", AbstractProjectCommander.RUNNING_TAG, pid);
+        }
+        if (snapshot.isFromProc()) {
+            // 已经扫描了系统全部进程，不需要再通过系统命令查询
+            return AbstractProjectCommander.STOP_TAG;
         }
-        return jpsStatus;
+        // 通过系统命令查询
+        return this.bySystemPs(tag);
     }
 
     /**
-     * 通过系统命令查询进程是否存在
+     * 获取进程表快照
      *
-     * @param tag 进程标识
-     * @return 是否存在
+     * @return 快照
      */
-    protected String bySystemPs(String tag) {
-        return AbstractProjectCommander.STOP_TAG;
+    protected ProcessTableSnapshot getProcessTableSnapshot() {
+        return ProcessTableSnapshot.get(projectConfig.getStatusSnapshotTtl());
     }
 
     /**
-     * 尝试jps 中查看进程id
+     * 通过系统命令查询进程是否存在
      *
      * @param tag 进程标识
-     * @return 运行标识
+     * @return 是否存在
      */
-    private String getJpsStatus(String tag) {
-        Integer pid = JvmUtil.getPidByTag(tag);
-        if (pid == null || pid <= 0) {
-            return AbstractProjectCommander.STOP_TAG;
-        }
-        return StrUtil.format("{}:{}", AbstractProjectCommander.RUNNING_TAG, pid);
+    protected String bySystemPs(String tag) {
+        return AbstractProjectCommander.STOP_TAG;
     }
 
 //---------------------------------------------------- 基本操作----end
@@ -675,6 +688,12 @@ public abstract class AbstractProjectCommander implements ProjectCommander {
         if (pid == null || pid <= 0) {
             return StrUtil.DASHED;
         }
+        Boolean alive = this.getProcessTableSnapshot().isAlive(pid);
+        if (alive != null && !alive) {
+            // 进程已经不存在
+            PID_PORT.remove(pid);
+            return StrUtil.DASHED;
+        }
         String cachePort = CacheObject.get(PID_PORT, pid);
         if (cachePort != null) {
             return cachePort;
@@ -778,6 +797,8 @@ public abstract class AbstractProjectCommander implements ProjectCommander {
         int loopCount = (int) (TimeUnit.SECONDS.toMillis(waitTime) / 500);
         int count = 0;
         do {
+            // 状态在变化中，每次检查都需要重新扫描进程
+            ProcessTableSnapshot.invalidate();
             if (this.isRun(nodeProjectInfoModel, originalModel) == status) {
                 // 是期望的结果
                 return true;
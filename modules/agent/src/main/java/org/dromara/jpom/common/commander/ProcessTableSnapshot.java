@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.common.commander;
+
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.date.SystemClock;
+import cn.hutool.core.text.StrSplitter;
+import cn.hutool.core.util.NumberUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.system.SystemUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.util.CommandUtil;
+import org.dromara.jpom.util.JvmUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * 进程表快照
+ * <p>
+ * 一次扫描解析出所有 jpom 项目标识对应的进程id，在有效期内的项目状态查询共用同一份快照，避免每个项目都执行一次 jps
+ * <p>
+ * linux 直接读取 /proc/[pid]/cmdline，其他系统或者读取失败时使用 jps -mv
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class ProcessTableSnapshot {
+
+    private static final File PROC_DIR = new File("/proc");
+
+    private static volatile ProcessTableSnapshot current;
+
+    /**
+     * 项目标识(小写) -> 进程id
+     */
+    private final Map<String, Integer> tagPid;
+    /**
+     * 当前系统所有进程id，仅 proc 模式下有值
+     */
+    private final Set<Integer> pids;
+    /**
+     * 是否通过 /proc 全量扫描得到
+     */
+    private final boolean fromProc;
+    private final long createTime;
+
+    private ProcessTableSnapshot(Map<String, Integer> tagPid, Set<Integer> pids, boolean fromProc) {
+        this.tagPid = tagPid;
+        this.pids = pids;
+        this.fromProc = fromProc;
+        this.createTime = SystemClock.now();
+    }
+
+    /**
+     * 获取进程表快照，超过有效期重新扫描
+     *
+     * @param ttl 有效期 单位毫秒
+     * @return 快照
+     */
+    public static ProcessTableSnapshot get(long ttl) {
+        ProcessTableSnapshot snapshot = current;
+        if (snapshot != null && !snapshot.isExpired(ttl)) {
+            return snapshot;
+        }
+        synchronized (ProcessTableSnapshot.class) {
+            snapshot = current;
+            if (snapshot != null && !snapshot.isExpired(ttl)) {
+                // 并发查询时只扫描一次
+                return snapshot;
+            }
+            snapshot = load();
+            current = snapshot;
+            return snapshot;
+        }
+    }
+
+    /**
+     * 使当前快照失效，下次查询重新扫描
+     */
+    public static void invalidate() {
+        current = null;
+    }
+
+    /**
+     * 当前系统是否支持读取 /proc
+     *
+     * @return true 支持
+     */
+    public static boolean isProcSupported() {
+        return SystemUtil.getOsInfo().isLinux() && PROC_DIR.isDirectory();
+    }
+
+    private boolean isExpired(long ttl) {
+        return SystemClock.now() - this.createTime > Math.max(ttl, 0);
+    }
+
+    /**
+     * 根据项目标识获取进程id
+     *
+     * @param tag 项目标识
+     * @return 进程id，未运行返回 null
+     */
+    public Integer getPid(String tag) {
+        if (StrUtil.isEmpty(tag)) {
+            return null;
+        }
+        return tagPid.get(tag.toLowerCase());
+    }
+
+    /**
+     * 进程是否存活
+     *
+     * @param pid 进程id
+     * @return null 无法判断（非 proc 模式）
+     */
+    public Boolean isAlive(int pid) {
+        if (!fromProc) {
+            return null;
+        }
+        return pids.contains(pid);
+    }
+
+    /**
+     * 快照是否为系统全量进程，全量时不需要再通过 ps 等系统命令兜底查询
+     *
+     * @return true 全量
+     */
+    public boolean isFromProc() {
+        return fromProc;
+    }
+
+    /**
+     * 扫描进程表
+     *
+     * @return 快照
+     */
+    static ProcessTableSnapshot load() {
+        if (isProcSupported()) {
+            try {
+                return loadByProc(PROC_DIR);
+            } catch (Exception e) {
+                log.warn(I18nMessageUtil.get("i18n.read_proc_process_table_failed.3a47"), e.getMessage());
+            }
+        }
+        return loadByJps();
+    }
+
+    /**
+     * 读取 /proc/[pid]/cmdline，参数之间使用 \0 分隔
+     *
+     * @param procDir proc 目录
+     * @return 快照
+     */
+    static ProcessTableSnapshot loadByProc(File procDir) throws IOException {
+        File[] files = procDir.listFiles();
+        if (files == null) {
+            throw new IOException("can't list " + procDir.getAbsolutePath());
+        }
+        Map<String, Integer> tagPid = new HashMap<>(16);
+        Set<Integer> pids = new HashSet<>(files.length);
+        for (File file : files) {
+            String name = file.getName();
+            if (!NumberUtil.isInteger(name)) {
+                continue;
+            }
+            int pid = Integer.parseInt(name);
+            pids.add(pid);
+            byte[] bytes;
+            try {
+                bytes = Files.readAllBytes(new File(file, "cmdline").toPath());
+            } catch (IOException e) {
+                // 进程已经退出或者没有权限
+                continue;
+            }
+            int start = 0;
+            for (int i = 0; i <= bytes.length; i++) {
+                if (i < bytes.length && bytes[i] != 0) {
+                    continue;
+                }
+                if (i > start) {
+                    String tag = JvmUtil.parseJpomPidTag(new String(bytes, start, i - start));
+                    if (tag != null) {
+                        tagPid.putIfAbsent(tag.toLowerCase(), pid);
+                        break;
+                    }
+                }
+                start = i + 1;
+            }
+        }
+        return new ProcessTableSnapshot(tagPid, pids, true);
+    }
+
+    /**
+     * 执行一次 jps -mv 解析所有项目
+     *
+     * @return 快照
+     */
+    static ProcessTableSnapshot loadByJps() {
+        String execSystemCommand = CommandUtil.execSystemCommand("jps -mv");
+        List<String> list = StrSplitter.splitTrim(execSystemCommand, StrUtil.LF, true);
+        Map<String, Integer> tagPid = new HashMap<>(list.size());
+        for (String line : list) {
+            String[] split = StrUtil.splitToArray(line, StrUtil.SPACE);
+            Integer pid = Convert.toInt(split[0], null);
+            if (pid == null) {
+                continue;
+            }
+            for (String item : split) {
+                String tag = JvmUtil.parseJpomPidTag(item);
+                if (tag != null) {
+                    tagPid.putIfAbsent(tag.toLowerCase(), pid);
+                    break;
+                }
+            }
+        }
+        return new ProcessTableSnapshot(tagPid, Collections.emptySet(), false);
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.common.commander;
+
+import cn.hutool.core.date.SystemClock;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.core.util.StrUtil;
+import org.dromara.jpom.model.system.NetstatModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 系统网络连接表快照（linux）
+ * <p>
+ * 一次读取 /proc/net/tcp、tcp6、udp、udp6 建立 socket inode 索引，再通过 /proc/[pid]/fd 关联进程，
+ * 不依赖 netstat 命令，有效期内的所有项目端口查询共用同一份快照
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class SocketTableSnapshot {
+
+    private static final String[] PROTOCOLS = new String[]{"tcp", "tcp6", "udp", "udp6"};
+
+    /**
+     * /proc/net/tcp 中 st 字段对应的状态
+     */
+    private static final String[] TCP_STATES = new String[]{
+        StrUtil.DASHED, "ESTABLISHED", "SYN_SENT", "SYN_RECV", "FIN_WAIT1", "FIN_WAIT2",
+        "TIME_WAIT", "CLOSE", "CLOSE_WAIT", "LAST_ACK", "LISTEN", "CLOSING"};
+
+    private static final String SOCKET_LINK_PREFIX = "socket:[";
+
+    private static volatile SocketTableSnapshot current;
+
+    private final File procDir;
+    /**
+     * socket inode -> 连接信息
+     */
+    private final Map<Long, NetstatModel> inodeSocket;
+    /**
+     * 进程id -> 进程的所有连接，按需加载
+     */
+    private final Map<Integer, List<NetstatModel>> pidSocket = new ConcurrentHashMap<>();
+    private final long createTime;
+
+    private SocketTableSnapshot(File procDir, Map<Long, NetstatModel> inodeSocket) {
+        this.procDir = procDir;
+        this.inodeSocket = inodeSocket;
+        this.createTime = SystemClock.now();
+    }
+
+    /**
+     * 获取网络连接表快照，超过有效期重新读取
+     *
+     * @param ttl 有效期 单位毫秒
+     * @return 快照
+     * @throws IOException 读取 /proc/net 失败
+     */
+    public static SocketTableSnapshot get(long ttl) throws IOException {
+        SocketTableSnapshot snapshot = current;
+        if (snapshot != null && !snapshot.isExpired(ttl)) {
+            return snapshot;
+        }
+        synchronized (SocketTableSnapshot.class) {
+            snapshot = current;
+            if (snapshot != null && !snapshot.isExpired(ttl)) {
+                return snapshot;
+            }
+            snapshot = load(new File("/proc"));
+            current = snapshot;
+            return snapshot;
+        }
+    }
+
+    /**
+     * 使当前快照失效，下次查询重新读取
+     */
+    public static void invalidate() {
+        current = null;
+    }
+
+    private boolean isExpired(long ttl) {
+        return SystemClock.now() - this.createTime > Math.max(ttl, 0);
+    }
+
+    /**
+     * 查询进程的网络连接
+     *
+     * @param pid       进程id
+     * @param listening 是否只获取监听中的 tcp 端口
+     * @return list
+     */
+    public List<NetstatModel> list(int pid, boolean listening) {
+        List<NetstatModel> list = pidSocket.computeIfAbsent(pid, this::loadByPid);
+        return list.stream()
+            .filter(netstatModel -> {
+                String status = netstatModel.getStatus();
+                if (listening) {
+                    return StrUtil.equals(status, "LISTEN");
+                }
+                return !StrUtil.equals(status, "CLOSE_WAIT");
+            })
+            .collect(Collectors.toList());
+    }
+
+    private List<NetstatModel> loadByPid(int pid) {
+        File fdDir = FileUtil.file(procDir, String.valueOf(pid), "fd");
+        List<NetstatModel> list = new ArrayList<>();
+        String name = this.readProcessName(pid);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(fdDir.toPath())) {
+            for (Path path : stream) {
+                String link;
+                try {
+                    link = Files.readSymbolicLink(path).toString();
+                } catch (IOException e) {
+                    // fd 已经关闭
+                    continue;
+                }
+                if (!StrUtil.startWith(link, SOCKET_LINK_PREFIX)) {
+                    continue;
+                }
+                long inode = Long.parseLong(link.substring(SOCKET_LINK_PREFIX.length(), link.length() - 1));
+                NetstatModel socket = inodeSocket.get(inode);
+                if (socket == null) {
+                    continue;
+                }
+                NetstatModel netstatModel = new NetstatModel();
+                netstatModel.setProtocol(socket.getProtocol());
+                netstatModel.setReceive(socket.getReceive());
+                netstatModel.setSend(socket.getSend());
+                netstatModel.setLocal(socket.getLocal());
+                netstatModel.setForeign(socket.getForeign());
+                netstatModel.setStatus(socket.getStatus());
+                netstatModel.setName(StrUtil.format("{}/{}", pid, name));
+                list.add(netstatModel);
+            }
+        } catch (IOException e) {
+            // 进程不存在或者没有权限
+            return Collections.emptyList();
+        }
+        return list;
+    }
+
+    private String readProcessName(int pid) {
+        File file = FileUtil.file(procDir, String.valueOf(pid), "comm");
+        try {
+            return StrUtil.trim(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            return StrUtil.DASHED;
+        }
+    }
+
+    /**
+     * 读取 /proc/net 下的连接表
+     *
+     * @param procDir proc 目录
+     * @return 快照
+     * @throws IOException 一个连接表都读取不到
+     */
+    static SocketTableSnapshot load(File procDir) throws IOException {
+        Map<Long, NetstatModel> inodeSocket = new HashMap<>(256);
+        int readCount = 0;
+        for (String protocol : PROTOCOLS) {
+            File file = FileUtil.file(procDir, "net", protocol);
+            if (!file.exists()) {
+                // 未开启 ipv6
+                continue;
+            }
+            List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.US_ASCII);
+            parseNetFile(protocol, lines, inodeSocket);
+            readCount++;
+        }
+        if (readCount == 0) {
+            throw new IOException("can't read " + FileUtil.file(procDir, "net").getAbsolutePath());
+        }
+        return new SocketTableSnapshot(procDir, inodeSocket);
+    }
+
+    /**
+     * 解析连接表
+     * <pre>
+     *   sl  local_address rem_address   st tx_queue rx_queue tr tm->when retrnsmt   uid  timeout inode
+     *    0: 00000000:1F90 00000000:0000 0A 00000000:00000000 00:00000000 00000000  1000        0 39115 ...
+     * </pre>
+     *
+     * @param protocol    协议
+     * @param lines       文件内容
+     * @param inodeSocket 解析结果
+     */
+    static void parseNetFile(String protocol, List<String> lines, Map<Long, NetstatModel> inodeSocket) {
+        boolean tcp = StrUtil.startWith(protocol, "tcp");
+        // 第一行为表头
+        for (int i = 1; i < lines.size(); i++) {
+            String[] split = StrUtil.splitToArray(lines.get(i), StrUtil.C_SPACE, -1);
+            // 去除空白
+            List<String> list = Arrays.stream(split).filter(StrUtil::isNotEmpty).collect(Collectors.toList());
+            if (list.size() < 10) {
+                continue;
+            }
+            long inode = Long.parseLong(list.get(9));
+            if (inode == 0) {
+                // 已经关闭的连接
+                continue;
+            }
+            String[] queue = StrUtil.splitToArray(list.get(4), StrUtil.C_COLON);
+            NetstatModel netstatModel = new NetstatModel();
+            netstatModel.setProtocol(protocol);
+            netstatModel.setSend(String.valueOf(Long.parseLong(queue[0], 16)));
+            netstatModel.setReceive(String.valueOf(Long.parseLong(queue[1], 16)));
+            netstatModel.setLocal(parseAddress(list.get(1)));
+            netstatModel.setForeign(parseAddress(list.get(2)));
+            if (tcp) {
+                int state = Integer.parseInt(list.get(3), 16);
+                netstatModel.setStatus(state < TCP_STATES.length ? TCP_STATES[state] : StrUtil.DASHED);
+            } else {
+                netstatModel.setStatus(StrUtil.DASHED);
+            }
+            inodeSocket.put(inode, netstatModel);
+        }
+    }
+
+    /**
+     * 解析地址，格式和 netstat 保持一致：0.0.0.0:8080、:::8080
+     *
+     * @param hex 十六进制地址，ip 部分按 4 字节小端存储
+     * @return ip:port
+     */
+    static String parseAddress(String hex) {
+        int index = hex.indexOf(StrUtil.C_COLON);
+        int port = Integer.parseInt(hex.substring(index + 1), 16);
+        byte[] bytes = HexUtil.decodeHex(hex.substring(0, index));
+        // 每 4 个字节为主机字节序（小端）
+        for (int i = 0; i + 3 < bytes.length; i += 4) {
+            byte b0 = bytes[i];
+            byte b1 = bytes[i + 1];
+            bytes[i] = bytes[i + 3];
+            bytes[i + 1] = bytes[i + 2];
+            bytes[i + 2] = b1;
+            bytes[i + 3] = b0;
+        }
+        String ip;
+        if (bytes.length == 16 && isZero(bytes)) {
+            ip = "::";
+        } else {
+            try {
+                ip = InetAddress.getByAddress(bytes).getHostAddress();
+            } catch (UnknownHostException e) {
+                ip = hex.substring(0, index);
+            }
+        }
+        return StrUtil.format("{}:{}", ip, port);
+    }
+
+    private static boolean isZero(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
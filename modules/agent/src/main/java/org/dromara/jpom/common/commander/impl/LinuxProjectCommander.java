@@ -15,7 +15,10 @@ import cn.hutool.core.util.StrUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.jpom.common.commander.BaseUnixProjectCommander;
 import org.dromara.jpom.common.commander.Commander;
+import org.dromara.jpom.common.commander.ProcessTableSnapshot;
+import org.dromara.jpom.common.commander.SocketTableSnapshot;
 import org.dromara.jpom.common.commander.SystemCommander;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
 import org.dromara.jpom.configuration.AgentConfig;
 import org.dromara.jpom.model.system.NetstatModel;
 import org.dromara.jpom.service.manage.ProjectInfoService;
@@ -49,6 +52,15 @@ public class LinuxProjectCommander extends BaseUnixProjectCommander {
 
     @Override
     public List<NetstatModel> listNetstat(int pId, boolean listening) {
+        if (ProcessTableSnapshot.isProcSupported()) {
+            try {
+                SocketTableSnapshot snapshot = SocketTableSnapshot.get(projectConfig.getStatusSnapshotTtl());
+                List<NetstatModel> list = snapshot.list(pId, listening);
+                return CollUtil.isEmpty(list) ? null : CollUtil.sub(list, 0, 20);
+            } catch (Exception e) {
+                log.warn(I18nMessageUtil.get("i18n.read_proc_net_failed.6e5c"), e.getMessage());
+            }
+        }
         String cmd;
         if (listening) {
             cmd = "netstat -antup | grep " + pId + " |grep \"LISTEN\" | head -20";
@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.common.i18n;
+
+import org.dromara.jpom.transport.i18n.II18nMessageUtil;
+
+/**
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class TransportI18nMessageImpl implements II18nMessageUtil {
+
+    @Override
+    public String get(String key) {
+        return I18nMessageUtil.get(key);
+    }
+}
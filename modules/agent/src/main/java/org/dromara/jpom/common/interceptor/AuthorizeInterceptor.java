@@ -16,6 +16,7 @@ import org.dromara.jpom.common.Const;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
 import org.dromara.jpom.configuration.AgentAuthorize;
 import org.dromara.jpom.configuration.AgentConfig;
+import org.dromara.jpom.service.FileRelayService;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
 import org.springframework.web.method.HandlerMethod;
@@ -33,15 +34,21 @@ import javax.servlet.http.HttpServletResponse;
 public class AuthorizeInterceptor implements HandlerMethodInterceptor {
 
     private final AgentAuthorize agentAuthorize;
+    private final FileRelayService fileRelayService;
 
-    public AuthorizeInterceptor(AgentConfig agentConfig) {
+    public AuthorizeInterceptor(AgentConfig agentConfig,
+                                FileRelayService fileRelayService) {
         this.agentAuthorize = agentConfig.getAuthorize();
+        this.fileRelayService = fileRelayService;
     }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, HandlerMethod handlerMethod) throws Exception {
         NotAuthorize notAuthorize = handlerMethod.getMethodAnnotation(NotAuthorize.class);
         if (notAuthorize == null) {
+            if (this.checkRelayToken(request, handlerMethod)) {
+                return true;
+            }
             String authorize = ServletUtil.getHeaderIgnoreCase(request, Const.JPOM_AGENT_AUTHORIZE);
             if (StrUtil.isEmpty(authorize)) {
                 this.error(response);
@@ -55,6 +62,24 @@ public class AuthorizeInterceptor implements HandlerMethodInterceptor {
         return true;
     }
 
+    /**
+     * 上级节点转发中继分片时只携带服务端下发的中继令牌
+     *
+     * @param request       请求
+     * @param handlerMethod 接口
+     * @return true 令牌有效
+     */
+    private boolean checkRelayToken(HttpServletRequest request, HandlerMethod handlerMethod) {
+        if (!handlerMethod.hasMethodAnnotation(RelayAuthorize.class)) {
+            return false;
+        }
+        String token = ServletUtil.getHeaderIgnoreCase(request, Const.JPOM_RELAY_TOKEN);
+        if (StrUtil.isEmpty(token)) {
+            return false;
+        }
+        return fileRelayService.checkToken(request.getParameter("relayId"), token);
+    }
+
     private void error(HttpServletResponse response) {
         ServletUtil.write(response, JsonMessage.getString(Const.AUTHORIZE_ERROR, I18nMessageUtil.get("i18n.auth_info_error.c184")), MediaType.APPLICATION_JSON_VALUE);
     }
@@ -21,6 +21,14 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class MonitorConfig {
 
     private NetworkConfig network;
+    /**
+     * 系统指标采样间隔，单位秒
+     */
+    private int sampleInterval = 10;
+    /**
+     * 内存中保留的采样数量
+     */
+    private int sampleCapacity = 360;
 
     @Data
     @ConfigurationProperties("jpom.monitor.network")
@@ -35,6 +35,11 @@ public class ProjectConfig {
      */
     private int statusDetectionInterval = 500;
 
+    /**
+     * 项目进程表快照有效期 单位毫秒，有效期内的项目状态查询共用同一次进程扫描结果
+     */
+    private int statusSnapshotTtl = 2000;
+
     /**
      * 项目文件备份保留个数,大于 1 才会备份
      */
@@ -39,6 +39,10 @@ public class ProjectLogConfig {
      * 是否自动将控制台日志文件备份
      */
     private boolean autoBackupToFile = true;
+    /**
+     * 备份时是否压缩归档（流式压缩并截断原文件，不再完整复制一份）
+     */
+    private boolean compressBackup = true;
 
     /**
      * 控制台日志保存时长单位天
@@ -25,13 +25,12 @@ import org.dromara.jpom.common.commander.SystemCommander;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
 import org.dromara.jpom.common.interceptor.NotAuthorize;
 import org.dromara.jpom.configuration.AgentConfig;
-import org.dromara.jpom.configuration.MonitorConfig;
 import org.dromara.jpom.model.data.NodeProjectInfoModel;
 import org.dromara.jpom.model.data.NodeScriptModel;
 import org.dromara.jpom.plugin.PluginFactory;
 import org.dromara.jpom.service.manage.ProjectInfoService;
 import org.dromara.jpom.service.script.NodeScriptServer;
-import org.dromara.jpom.util.JvmUtil;
+import org.dromara.jpom.system.SystemMetricsSampler;
 import org.springframework.http.MediaType;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -42,7 +41,6 @@ import org.springframework.web.bind.annotation.RestController;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -60,17 +58,20 @@ public class IndexController extends BaseAgentController {
     private final SystemCommander systemCommander;
     private final ProjectCommander projectCommander;
     private final AgentConfig agentConfig;
+    private final SystemMetricsSampler systemMetricsSampler;
 
     public IndexController(ProjectInfoService projectInfoService,
                            NodeScriptServer nodeScriptServer,
                            SystemCommander systemCommander,
                            ProjectCommander projectCommander,
-                           AgentConfig agentConfig) {
+                           AgentConfig agentConfig,
+                           SystemMetricsSampler systemMetricsSampler) {
         this.projectInfoService = projectInfoService;
         this.nodeScriptServer = nodeScriptServer;
         this.systemCommander = systemCommander;
         this.projectCommander = projectCommander;
         this.agentConfig = agentConfig;
+        this.systemMetricsSampler = systemMetricsSampler;
     }
 
     @RequestMapping(value = {"index", "", "index.html", "/"}, produces = MediaType.TEXT_PLAIN_VALUE)
@@ -95,24 +96,27 @@ public class IndexController extends BaseAgentController {
     }
 
     /**
-     * 获取节点统计信息
+     * 获取节点统计信息，直接返回后台最近一次的采样
      *
+     * @param since 返回此时间之后的历史采样，不传不返回
      * @return json
      */
     @PostMapping(value = "get-stat-info", produces = MediaType.APPLICATION_JSON_VALUE)
-    public IJsonMessage<JSONObject> getDirectTop() {
+    public IJsonMessage<JSONObject> getDirectTop(Long since) {
         JSONObject jsonObject = new JSONObject();
         try {
-            Optional<MonitorConfig> monitorConfig = Optional.ofNullable(agentConfig).map(AgentConfig::getMonitor);
-
-            JSONObject topInfo = org.dromara.jpom.util.OshiUtils.getSimpleInfo(monitorConfig.orElse(null));
+            JSONObject topInfo = systemMetricsSampler.getLatest();
             jsonObject.put("simpleStatus", topInfo);
-            // 系统固定休眠时间
-            jsonObject.put("systemSleep", org.dromara.jpom.util.OshiUtils.NET_STAT_SLEEP + org.dromara.jpom.util.OshiUtils.CPU_STAT_SLEEP);
-
-            JSONObject systemInfo = org.dromara.jpom.util.OshiUtils.getSystemInfo();
-            jsonObject.put("systemInfo", systemInfo);
-            //jsonObject.put("oshiError", "测试异常");
+            // 后台采样不再休眠，兼容旧版本服务端计算网络延迟
+            jsonObject.put("systemSleep", 0);
+            jsonObject.put("systemInfo", systemMetricsSampler.getSystemInfo());
+            if (since != null) {
+                jsonObject.put("samples", systemMetricsSampler.getSamples(since));
+            }
+            String error = systemMetricsSampler.getError();
+            if (error != null) {
+                jsonObject.put("oshiError", error);
+            }
         } catch (Throwable e) {
             log.error(I18nMessageUtil.get("i18n.oshi_system_monitoring_exception.5c1c"), e);
             jsonObject.put("oshiError", e.getMessage());
@@ -127,7 +131,7 @@ public class IndexController extends BaseAgentController {
         List<NodeProjectInfoModel> nodeProjectInfoModels = projectInfoService.list();
         List<NodeScriptModel> list = nodeScriptServer.list();
         JSONObject jsonObject = new JSONObject();
-        jsonObject.put("javaVirtualCount", JvmUtil.getJavaVirtualCount());
+        jsonObject.put("javaVirtualCount", systemMetricsSampler.getJavaVirtualCount());
         JpomManifest instance = JpomManifest.getInstance();
         jsonObject.put("jpomManifest", instance);
         jsonObject.put("javaVersion", SystemUtil.getJavaRuntimeInfo().getVersion());
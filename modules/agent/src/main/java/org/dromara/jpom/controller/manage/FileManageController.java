@@ -11,22 +11,29 @@ package org.dromara.jpom.controller.manage;
 
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
 import cn.keepbx.jpom.IJsonMessage;
 import cn.keepbx.jpom.model.JsonMessage;
+import com.alibaba.fastjson2.JSONObject;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.jpom.common.BaseAgentController;
 import org.dromara.jpom.common.commander.CommandOpResult;
+import org.dromara.jpom.common.interceptor.RelayAuthorize;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
 import org.dromara.jpom.common.validator.ValidatorItem;
 import org.dromara.jpom.configuration.AgentConfig;
+import org.dromara.jpom.service.ArtifactStoreService;
+import org.dromara.jpom.service.FileRelayService;
 import org.dromara.jpom.util.CompressionFileUtil;
 import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
+import java.util.List;
 
 /**
  * @author bwcx_jzy
@@ -38,9 +45,15 @@ import java.io.File;
 public class FileManageController extends BaseAgentController {
 
     private final AgentConfig agentConfig;
+    private final FileRelayService fileRelayService;
+    private final ArtifactStoreService artifactStoreService;
 
-    public FileManageController(AgentConfig agentConfig) {
+    public FileManageController(AgentConfig agentConfig,
+                                FileRelayService fileRelayService,
+                                ArtifactStoreService artifactStoreService) {
         this.agentConfig = agentConfig;
+        this.fileRelayService = fileRelayService;
+        this.artifactStoreService = artifactStoreService;
     }
 
     @RequestMapping(value = "upload-sharding", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -54,6 +67,115 @@ public class FileManageController extends BaseAgentController {
         return JsonMessage.success(I18nMessageUtil.get("i18n.upload_success.a769"));
     }
 
+    /**
+     * 查询已经上传的分片，用于断点续传（所有分片上传接口共用同一个临时目录）
+     *
+     * @param sliceId 分片id
+     * @return 已经存在的分片序号
+     */
+    @RequestMapping(value = "sharding-status", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public IJsonMessage<List<Integer>> shardingStatus(String sliceId) {
+        String tempPathName = agentConfig.getFixedTempPathName();
+        return JsonMessage.success("", this.shardingExists(tempPathName, sliceId));
+    }
+
+    /**
+     * 中继分发接收分片，保存后继续转发给子节点
+     *
+     * @param file       分片
+     * @param relayId    中继id
+     * @param totalSlice 分片总数
+     * @param nowSlice   当前分片
+     * @param sliceMd5   分片签名
+     * @param children   需要转发的子节点
+     * @return json
+     */
+    @RequestMapping(value = "relay-sharding", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    @RelayAuthorize
+    public IJsonMessage<String> relaySharding(MultipartFile file,
+                                              @ValidatorItem String relayId,
+                                              Integer totalSlice,
+                                              Integer nowSlice,
+                                              @ValidatorItem String sliceMd5,
+                                              String children) throws Exception {
+        Assert.state(totalSlice != null && nowSlice != null && nowSlice > -1 && nowSlice < totalSlice, I18nMessageUtil.get("i18n.current_upload_chunk_info_incorrect.900e"));
+        fileRelayService.saveSlice(file, relayId, sliceMd5);
+        String fileName = StrUtil.subBefore(file.getOriginalFilename(), StrUtil.DOT, true);
+        fileRelayService.onSlice(relayId, totalSlice, nowSlice, sliceMd5, fileName, children);
+        return JsonMessage.success(I18nMessageUtil.get("i18n.upload_success.a769"));
+    }
+
+    /**
+     * 登记中继令牌，上级节点转发分片时使用
+     *
+     * @param relayId 中继id
+     * @param token   令牌
+     * @param expire  有效期（单位秒）
+     * @return json
+     */
+    @RequestMapping(value = "relay-register", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public IJsonMessage<String> relayRegister(@ValidatorItem String relayId, @ValidatorItem String token, Integer expire) {
+        fileRelayService.register(relayId, token, Convert.toInt(expire, 0));
+        return JsonMessage.success("");
+    }
+
+    /**
+     * 中继分发状态
+     *
+     * @param relayId 中继id
+     * @return json
+     */
+    @RequestMapping(value = "relay-status", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public IJsonMessage<JSONObject> relayStatus(@ValidatorItem String relayId) {
+        return JsonMessage.success("", fileRelayService.status(relayId));
+    }
+
+    /**
+     * 删除中继分发数据
+     *
+     * @param relayId 中继id
+     * @return json
+     */
+    @RequestMapping(value = "relay-clear", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public IJsonMessage<String> relayClear(@ValidatorItem String relayId) {
+        fileRelayService.clear(relayId);
+        return JsonMessage.success("");
+    }
+
+    /**
+     * 查询分发文件仓库中已经存在的文件
+     *
+     * @param digests 文件签名，多个使用逗号分隔
+     * @return 已经存在的文件签名
+     */
+    @RequestMapping(value = "artifact-exists", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public IJsonMessage<List<String>> artifactExists(@ValidatorItem String digests) {
+        return JsonMessage.success("", artifactStoreService.exists(StrUtil.splitTrim(digests, StrUtil.COMMA)));
+    }
+
+    /**
+     * 合并分片后保存到分发文件仓库
+     *
+     * @param sliceId    分片id
+     * @param totalSlice 分片总数
+     * @param fileSumMd5 文件签名
+     * @return json
+     * @throws Exception 异常
+     */
+    @RequestMapping(value = "artifact-merge", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public IJsonMessage<String> artifactMerge(String sliceId,
+                                              Integer totalSlice,
+                                              @ValidatorItem String fileSumMd5) throws Exception {
+        String tempPathName = agentConfig.getFixedTempPathName();
+        File successFile = this.shardingTryMerge(tempPathName, sliceId, totalSlice, fileSumMd5);
+        try {
+            artifactStoreService.put(fileSumMd5, successFile);
+        } finally {
+            FileUtil.del(successFile.getParentFile());
+        }
+        return JsonMessage.success(I18nMessageUtil.get("i18n.upload_success.a769"));
+    }
+
     @RequestMapping(value = "sharding-merge", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
     public IJsonMessage<CommandOpResult> shardingMerge(String type,
                                                       @ValidatorItem String path,
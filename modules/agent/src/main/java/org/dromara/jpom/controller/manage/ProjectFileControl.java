@@ -15,6 +15,7 @@ import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.lang.Opt;
 import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.core.util.BooleanUtil;
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.crypto.SecureUtil;
 import cn.hutool.extra.compress.CompressUtil;
@@ -25,6 +26,7 @@ import cn.keepbx.jpom.IJsonMessage;
 import cn.keepbx.jpom.model.JsonMessage;
 import com.alibaba.fastjson2.JSONObject;
 import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.JpomApplication;
 import org.dromara.jpom.common.BaseAgentController;
 import org.dromara.jpom.common.commander.CommandOpResult;
 import org.dromara.jpom.common.commander.ProjectCommander;
@@ -36,13 +38,15 @@ import org.dromara.jpom.model.AfterOpt;
 import org.dromara.jpom.model.BaseEnum;
 import org.dromara.jpom.model.data.AgentWhitelist;
 import org.dromara.jpom.model.data.NodeProjectInfoModel;
+import org.dromara.jpom.service.ArtifactStoreService;
+import org.dromara.jpom.service.FileRelayService;
 import org.dromara.jpom.service.ProjectFileBackupService;
 import org.dromara.jpom.service.WhitelistDirectoryService;
 import org.dromara.jpom.socket.ConsoleCommandOp;
 import org.dromara.jpom.util.CommandUtil;
 import org.dromara.jpom.util.CompressionFileUtil;
+import org.dromara.jpom.util.FileHashManifest;
 import org.dromara.jpom.util.FileUtils;
-import org.dromara.jpom.util.StringUtil;
 import org.springframework.http.MediaType;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.*;
@@ -50,7 +54,12 @@ import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.File;
+import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -71,15 +80,21 @@ public class ProjectFileControl extends BaseAgentController {
     private final AgentConfig agentConfig;
     private final ProjectFileBackupService projectFileBackupService;
     private final ProjectCommander projectCommander;
+    private final FileRelayService fileRelayService;
+    private final ArtifactStoreService artifactStoreService;
 
     public ProjectFileControl(WhitelistDirectoryService whitelistDirectoryService,
                               AgentConfig agentConfig,
                               ProjectFileBackupService projectFileBackupService,
-                              ProjectCommander projectCommander) {
+                              ProjectCommander projectCommander,
+                              FileRelayService fileRelayService,
+                              ArtifactStoreService artifactStoreService) {
         this.whitelistDirectoryService = whitelistDirectoryService;
         this.agentConfig = agentConfig;
         this.projectFileBackupService = projectFileBackupService;
         this.projectCommander = projectCommander;
+        this.fileRelayService = fileRelayService;
+        this.artifactStoreService = artifactStoreService;
     }
 
     @RequestMapping(value = "getFileList", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -117,27 +132,21 @@ public class ProjectFileControl extends BaseAgentController {
     public IJsonMessage<JSONObject> diffFile(@RequestBody DiffFileVo diffFileVo) {
         String id = diffFileVo.getId();
         NodeProjectInfoModel projectInfoModel = super.getProjectInfoModel(id);
-        //
-        List<DiffFileVo.DiffItem> data = diffFileVo.getData();
-        Assert.notEmpty(data, I18nMessageUtil.get("i18n.comparison_data_not_found.413e"));
-        // 扫描项目目录下面的所有文件
+        // 将需要对应的信息转为 map
+        Map<String, String> tryMap;
+        String manifest = diffFileVo.getManifest();
+        if (StrUtil.isNotEmpty(manifest)) {
+            tryMap = FileHashManifest.decode(manifest);
+        } else {
+            tryMap = CollStreamUtil.toMap(diffFileVo.getData(), DiffFileVo.DiffItem::getName, DiffFileVo.DiffItem::getSha1);
+        }
+        Assert.notEmpty(tryMap, I18nMessageUtil.get("i18n.comparison_data_not_found.413e"));
+        // 扫描项目目录下面的所有文件，使用清单记录的签名，只重新计算有变化的文件
         File lib = projectInfoService.resolveLibFile(projectInfoModel);
         String path = FileUtil.file(lib, Opt.ofBlankAble(diffFileVo.getDir()).orElse(StrUtil.SLASH)).getAbsolutePath();
-        List<File> files = FileUtil.loopFiles(path);
-        // 将所有的文件信息组装并签名
-        List<JSONObject> collect = files.stream().map(file -> {
-            //
-            JSONObject item = new JSONObject();
-            item.put("name", StringUtil.delStartPath(file, path, true));
-            item.put("sha1", SecureUtil.sha1(file));
-            return item;
-        }).collect(Collectors.toList());
+        File manifestFile = FileUtil.file(JpomApplication.getInstance().getDataPath(), "project_file_manifest", projectInfoModel.getId() + "-" + SecureUtil.md5(path));
         // 得到 当前下面文件夹下面所有的文件信息 map
-        Map<String, String> nowMap = CollStreamUtil.toMap(collect,
-            jsonObject12 -> jsonObject12.getString("name"),
-            jsonObject1 -> jsonObject1.getString("sha1"));
-        // 将需要对应的信息转为 map
-        Map<String, String> tryMap = CollStreamUtil.toMap(data, DiffFileVo.DiffItem::getName, DiffFileVo.DiffItem::getSha1);
+        Map<String, String> nowMap = new FileHashManifest(manifestFile).scan(FileUtil.file(path), path);
         // 对应需要 当前项目文件夹下没有的和文件内容有变化的
         List<JSONObject> canSync = tryMap.entrySet()
             .stream()
@@ -212,13 +221,76 @@ public class ProjectFileControl extends BaseAgentController {
                                                        String sliceId,
                                                        Integer totalSlice,
                                                        String fileSumMd5,
-                                                       String after) throws Exception {
-        String tempPathName = agentConfig.getFixedTempPathName();
-        File successFile = this.shardingTryMerge(tempPathName, sliceId, totalSlice, fileSumMd5);
+                                                       String after,
+                                                       String relayId,
+                                                       String artifactDigest) throws Exception {
+        File successFile;
+        if (StrUtil.isNotEmpty(artifactDigest)) {
+            // 从分发文件仓库中安装，解压的文件使用后会删除可以直接链接
+            String tempPathName = agentConfig.getFixedTempPathName();
+            successFile = artifactStoreService.checkout(artifactDigest, tempPathName, "unzip".equals(type));
+            try {
+                return this.upload(successFile, type, levelName, stripComponents, after);
+            } finally {
+                FileUtil.del(successFile.getParentFile());
+            }
+        }
+        if (StrUtil.isNotEmpty(relayId)) {
+            // 中继分发的文件，分片需要保留
+            successFile = fileRelayService.merge(relayId, totalSlice, fileSumMd5);
+        } else {
+            String tempPathName = agentConfig.getFixedTempPathName();
+            successFile = this.shardingTryMerge(tempPathName, sliceId, totalSlice, fileSumMd5);
+        }
         // 处理上传文件
         return this.upload(successFile, type, levelName, stripComponents, after);
     }
 
+    /**
+     * 一次上传多个小文件（zip 包），全部解压成功后再放到项目目录
+     *
+     * @param file      zip 包
+     * @param levelName 文件夹
+     * @param after     上传之后
+     * @return 结果
+     * @throws Exception 异常
+     */
+    @RequestMapping(value = "upload-bundle", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public IJsonMessage<CommandOpResult> uploadBundle(MultipartFile file, String levelName, String after) throws Exception {
+        String tempPathName = agentConfig.getFixedTempPathName();
+        File bundleFile = FileUtil.file(tempPathName, "bundle", IdUtil.fastSimpleUUID() + ".zip");
+        FileUtil.mkParentDirs(bundleFile);
+        file.transferTo(bundleFile);
+        return this.upload(bundleFile, "bundle", levelName, 0, after);
+    }
+
+    /**
+     * 解压文件包到临时目录，再逐个移动到项目目录。解压失败时项目目录不会有任何变化
+     *
+     * @param file 文件包
+     * @param lib  项目目录
+     */
+    private void placeBundle(File file, File lib) throws IOException {
+        // 解压到插件端的临时目录，不在项目目录旁边创建文件。和项目目录不在同一个磁盘时移动会退化为复制
+        File staging = FileUtil.file(file.getParentFile(), FileUtil.mainName(file));
+        FileUtil.mkdir(staging);
+        try {
+            CompressionFileUtil.unCompress(file, staging);
+            Path stagingPath = staging.toPath();
+            for (File item : FileUtil.loopFiles(staging)) {
+                Path target = lib.toPath().resolve(stagingPath.relativize(item.toPath()));
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(item.toPath(), target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(item.toPath(), target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        } finally {
+            FileUtil.del(staging);
+        }
+    }
+
     /**
      * 处理上传文件
      *
@@ -239,7 +311,15 @@ public class ProjectFileControl extends BaseAgentController {
         try {
             //
             this.saveProjectFileBefore(lib, pim);
-            if ("unzip".equals(type)) {
+            if ("bundle".equals(type)) {
+                try {
+                    this.placeBundle(file, lib);
+                } finally {
+                    if (!FileUtil.del(file)) {
+                        log.error(I18nMessageUtil.get("i18n.delete_file_failure_with_full_stop.6c96") + file.getPath());
+                    }
+                }
+            } else if ("unzip".equals(type)) {
                 // 解压
                 try {
                     int stripComponentsValue = Convert.toInt(stripComponents, 0);
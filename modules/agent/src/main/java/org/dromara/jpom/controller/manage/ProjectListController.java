@@ -21,6 +21,7 @@ import org.dromara.jpom.model.data.DslYmlDto;
 import org.dromara.jpom.model.data.NodeProjectInfoModel;
 import org.dromara.jpom.service.script.DslScriptServer;
 import org.dromara.jpom.socket.ConsoleCommandOp;
+import org.dromara.jpom.util.JsonFileStore;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
@@ -98,4 +99,15 @@ public class ProjectListController extends BaseAgentController {
         List<NodeProjectInfoModel> nodeProjectInfoModels = projectInfoService.list();
         return JsonMessage.success("", nodeProjectInfoModels);
     }
+
+    /**
+     * 查询指定版本之后变更的项目
+     *
+     * @param since 版本，为空时返回全部项目
+     * @return json
+     */
+    @RequestMapping(value = "getProjectChanges", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public IJsonMessage<JsonFileStore.Changes<NodeProjectInfoModel>> getProjectChanges(Long since) {
+        return JsonMessage.success("", projectInfoService.changes(since));
+    }
 }
@@ -9,7 +9,9 @@
  */
 package org.dromara.jpom.controller.manage;
 
+import cn.hutool.core.convert.Convert;
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
 import cn.hutool.extra.servlet.ServletUtil;
 import cn.keepbx.jpom.IJsonMessage;
 import cn.keepbx.jpom.model.JsonMessage;
@@ -18,8 +20,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.dromara.jpom.common.BaseAgentController;
 import org.dromara.jpom.common.commander.ProjectCommander;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.configuration.AgentConfig;
 import org.dromara.jpom.model.data.NodeProjectInfoModel;
 import org.dromara.jpom.util.FileUtils;
+import org.dromara.jpom.util.LogArchiveUtil;
 import org.springframework.http.MediaType;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -29,7 +33,10 @@ import org.springframework.web.bind.annotation.RestController;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * @author bwcx_jzy
@@ -41,9 +48,12 @@ import java.util.List;
 public class ProjectLogBackController extends BaseAgentController {
 
     private final ProjectCommander projectCommander;
+    private final AgentConfig agentConfig;
 
-    public ProjectLogBackController(ProjectCommander projectCommander) {
+    public ProjectLogBackController(ProjectCommander projectCommander,
+                                    AgentConfig agentConfig) {
         this.projectCommander = projectCommander;
+        this.agentConfig = agentConfig;
     }
 
     @RequestMapping(value = "logSize", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -105,6 +115,7 @@ public class ProjectLogBackController extends BaseAgentController {
             logBack = FileUtil.file(logBack, name);
             if (logBack.exists()) {
                 FileUtil.del(logBack);
+                FileUtil.del(LogArchiveUtil.indexFile(logBack));
                 return JsonMessage.success(I18nMessageUtil.get("i18n.delete_success.0007"));
             }
             return new JsonMessage<>(500, I18nMessageUtil.get("i18n.no_corresponding_file.97b5"));
@@ -131,6 +142,34 @@ public class ProjectLogBackController extends BaseAgentController {
         }
     }
 
+    /**
+     * 读取日志备份的指定行，压缩的备份根据索引只解压对应的分段
+     *
+     * @param key   文件名
+     * @param line  开始行号
+     * @param limit 读取行数
+     * @return json
+     */
+    @RequestMapping(value = "logBack_read", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public IJsonMessage<JSONObject> read(String key, Long line, Integer limit) {
+        Assert.hasText(key, I18nMessageUtil.get("i18n.corresponding_file_required.57b3"));
+        NodeProjectInfoModel pim = getProjectInfoModel();
+        File logBack = projectInfoService.resolveLogBack(pim);
+        File file = FileUtil.file(logBack, key);
+        Assert.state(FileUtil.isFile(file), I18nMessageUtil.get("i18n.no_corresponding_file.97b5"));
+        try {
+            int readLimit = Math.min(Convert.toInt(limit, 100), 1000);
+            Charset charset = agentConfig.getProject().getLog().getFileCharset();
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put("lines", LogArchiveUtil.readLines(file, charset, Convert.toLong(line, 1L), readLimit));
+            Optional.ofNullable(LogArchiveUtil.readIndex(file)).ifPresent(index -> jsonObject.put("total", index.getLines()));
+            return JsonMessage.success("", jsonObject);
+        } catch (IOException e) {
+            log.error(I18nMessageUtil.get("i18n.log_backup_read_failed.3a3d"), e);
+            return new JsonMessage<>(500, I18nMessageUtil.get("i18n.log_backup_read_failed.3a3d") + e.getMessage());
+        }
+    }
+
     @RequestMapping(value = "logBack", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
     public IJsonMessage<JSONObject> console() {
         // 查询项目路径
@@ -140,7 +179,7 @@ public class ProjectLogBackController extends BaseAgentController {
         NodeProjectInfoModel infoModel = projectInfoService.resolveModel(pim);
         File logBack = projectInfoService.resolveLogBack(pim, infoModel);
         if (logBack.exists() && logBack.isDirectory()) {
-            File[] filesAll = logBack.listFiles();
+            File[] filesAll = logBack.listFiles(pathname -> !StrUtil.endWith(pathname.getName(), LogArchiveUtil.INDEX_SUFFIX));
             if (filesAll != null) {
                 List<JSONObject> jsonArray = FileUtils.parseInfo(filesAll, true, null, pim.isDisableScanDir());
                 jsonObject.put("array", jsonArray);
@@ -22,9 +22,11 @@ import org.dromara.jpom.common.commander.ProjectCommander;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
 import org.dromara.jpom.common.validator.ValidatorItem;
 import org.dromara.jpom.common.validator.ValidatorRule;
+import org.dromara.jpom.model.RunMode;
 import org.dromara.jpom.model.data.NodeProjectInfoModel;
 import org.dromara.jpom.socket.ConsoleCommandOp;
 import org.dromara.jpom.util.CommandUtil;
+import org.dromara.jpom.util.ReadinessProbe;
 import org.springframework.http.MediaType;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -74,6 +76,44 @@ public class ProjectStatusController extends BaseAgentController {
         return JsonMessage.success("", jsonObject);
     }
 
+    /**
+     * 批量获取项目的进程id，一次请求返回所有项目的状态
+     *
+     * @param ids 项目id json 数组
+     * @return 项目id -> 状态信息
+     */
+    @RequestMapping(value = "getProjectStatusBatch", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public IJsonMessage<JSONObject> getProjectStatusBatch(String ids) {
+        Assert.hasText(ids, I18nMessageUtil.get("i18n.info_to_retrieve_not_found.96d7"));
+        JSONArray jsonArray = JSONArray.parseArray(ids);
+        JSONObject jsonObject = new JSONObject();
+        try {
+            CommandUtil.openCache();
+            for (Object object : jsonArray) {
+                String item = object.toString();
+                JSONObject itemObj = new JSONObject();
+                NodeProjectInfoModel nodeProjectInfoModel = projectInfoService.getItem(item);
+                if (nodeProjectInfoModel == null) {
+                    itemObj.put("error", I18nMessageUtil.get("i18n.project_id_does_not_exist.6b9b"));
+                } else {
+                    // 和单个查询保持一致，获取失败时返回空状态（未运行）
+                    try {
+                        CommandOpResult status = projectCommander.execCommand(ConsoleCommandOp.status, nodeProjectInfoModel);
+                        itemObj.put("pId", status.getPid());
+                        itemObj.put("pIds", status.getPids());
+                        itemObj.put("statusMsg", status.getStatusMsg());
+                    } catch (Exception e) {
+                        log.error(I18nMessageUtil.get("i18n.get_project_pid_failure.17b0"), e);
+                    }
+                }
+                jsonObject.put(item, itemObj);
+            }
+        } finally {
+            CommandUtil.closeCache();
+        }
+        return JsonMessage.success("", jsonObject);
+    }
+
     /**
      * 获取项目的运行端口
      *
@@ -117,6 +157,42 @@ public class ProjectStatusController extends BaseAgentController {
         return JsonMessage.success("", jsonObject);
     }
 
+    /**
+     * 项目是否已经就绪，用于顺序分发时判断是否可以发布下一批
+     *
+     * @param id    项目id
+     * @param probe 就绪探测配置
+     * @return ready 是否就绪，msg 未就绪原因
+     */
+    @RequestMapping(value = "getProjectReadiness", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public IJsonMessage<JSONObject> getProjectReadiness(@ValidatorItem(value = ValidatorRule.NOT_BLANK, msg = "i18n.incorrect_project_id.5f70") String id, String probe) {
+        NodeProjectInfoModel nodeProjectInfoModel = projectInfoService.getItem(id);
+        Assert.notNull(nodeProjectInfoModel, I18nMessageUtil.get("i18n.project_id_does_not_exist.6b9b"));
+        ReadinessProbe.check(probe);
+        JSONObject jsonObject = new JSONObject();
+        String msg = null;
+        if (nodeProjectInfoModel.getRunMode() != RunMode.File) {
+            try {
+                CommandUtil.openCache();
+                CommandOpResult status = projectCommander.execCommand(ConsoleCommandOp.status, nodeProjectInfoModel);
+                Integer pid = status.getPid();
+                if (pid == null || pid <= 0) {
+                    msg = I18nMessageUtil.get("i18n.readiness_project_not_running.1657");
+                } else if (StrUtil.equals(probe, ReadinessProbe.PORT)
+                    && !ReadinessProbe.isListening(status.getPorts(), projectCommander.getMainPort(pid))) {
+                    msg = I18nMessageUtil.get("i18n.readiness_port_not_listening.e5d1");
+                }
+            } finally {
+                CommandUtil.closeCache();
+            }
+        }
+        if (msg == null) {
+            msg = ReadinessProbe.probe(probe);
+        }
+        jsonObject.put("ready", msg == null);
+        jsonObject.put("msg", msg);
+        return JsonMessage.success("", jsonObject);
+    }
 
     @RequestMapping(value = "operate", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
     public IJsonMessage<CommandOpResult> operate(@ValidatorItem(value = ValidatorRule.NOT_BLANK, msg = "i18n.incorrect_project_id.5f70") String id,
@@ -28,6 +28,12 @@ public class DiffFileVo {
      * 需要对比的数据
      */
     private List<DiffItem> data;
+    /**
+     * 压缩后的文件签名清单，优先于 data 使用
+     *
+     * @see org.dromara.jpom.util.FileHashManifest#encode(java.util.Map)
+     */
+    private String manifest;
     /**
      * 需要对比的目录
      */
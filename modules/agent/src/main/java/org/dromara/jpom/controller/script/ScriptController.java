@@ -31,6 +31,7 @@ import org.dromara.jpom.service.script.NodeScriptExecLogServer;
 import org.dromara.jpom.service.script.NodeScriptServer;
 import org.dromara.jpom.util.CommandUtil;
 import org.dromara.jpom.util.FileUtils;
+import org.dromara.jpom.util.JsonFileStore;
 import org.dromara.jpom.util.StringUtil;
 import org.springframework.http.MediaType;
 import org.springframework.util.Assert;
@@ -69,6 +70,11 @@ public class ScriptController extends BaseAgentController {
         return JsonMessage.success("", nodeScriptServer.list());
     }
 
+    @RequestMapping(value = "changes.json", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public IJsonMessage<JsonFileStore.Changes<NodeScriptModel>> changes(Long since) {
+        return JsonMessage.success("", nodeScriptServer.changes(since));
+    }
+
     @RequestMapping(value = "item.json", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
     public IJsonMessage<NodeScriptModel> item(String id) {
         return JsonMessage.success("", nodeScriptServer.getItem(id));
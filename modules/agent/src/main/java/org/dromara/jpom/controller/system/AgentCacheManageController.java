@@ -19,6 +19,8 @@ import org.dromara.jpom.JpomApplication;
 import org.dromara.jpom.common.BaseAgentController;
 import org.dromara.jpom.common.JpomManifest;
 import org.dromara.jpom.common.commander.AbstractProjectCommander;
+import org.dromara.jpom.common.commander.ProcessTableSnapshot;
+import org.dromara.jpom.common.commander.SocketTableSnapshot;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
 import org.dromara.jpom.common.validator.ValidatorItem;
 import org.dromara.jpom.common.validator.ValidatorRule;
@@ -94,6 +96,7 @@ public class AgentCacheManageController extends BaseAgentController implements I
 
         int oneLineCount = AgentFileTailWatcher.getOneLineCount();
         jsonObject.put("readFileOnLineCount", oneLineCount);
+        jsonObject.put("readFileMetrics", AgentFileTailWatcher.listMetrics());
         jsonObject.put("taskList", CronUtils.list());
         jsonObject.put("pluginSize", PluginFactory.size());
         //
@@ -131,6 +134,8 @@ public class AgentCacheManageController extends BaseAgentController implements I
         switch (type) {
             case "pidPort":
                 AbstractProjectCommander.PID_PORT.clear();
+                ProcessTableSnapshot.invalidate();
+                SocketTableSnapshot.invalidate();
                 break;
             case "oldJarsSize": {
                 File oldJarsPath = JpomManifest.getOldJarsPath();
@@ -31,10 +31,10 @@ import org.dromara.jpom.socket.ConsoleCommandOp;
 import org.dromara.jpom.system.ExtConfigBean;
 import org.dromara.jpom.util.CommandUtil;
 import org.dromara.jpom.util.SocketSessionUtil;
+import org.dromara.jpom.util.TerminalOutput;
 
 import javax.websocket.Session;
 import java.io.File;
-import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -52,7 +52,10 @@ public class NodeScriptProcessBuilder extends BaseRunScript implements Runnable
     private static final ConcurrentHashMap<String, NodeScriptProcessBuilder> FILE_SCRIPT_PROCESS_BUILDER_CONCURRENT_HASH_MAP = new SafeConcurrentHashMap<>();
 
     private final ProcessBuilder processBuilder;
-    private final Set<Session> sessions = new HashSet<>();
+    /**
+     * 会话id -> 会话的终端输出
+     */
+    private final Map<String, TerminalOutput> sessions = new ConcurrentHashMap<>();
     private final String executeId;
     private final File scriptFile;
     private final EnvironmentMapBuilder environmentMapBuilder;
@@ -112,17 +115,14 @@ public class NodeScriptProcessBuilder extends BaseRunScript implements Runnable
     public static void addWatcher(NodeScriptModel nodeScriptModel, String executeId, String args, Session session) {
         NodeScriptProcessBuilder nodeScriptProcessBuilder = create(nodeScriptModel, executeId, args, null);
         //
-        if (nodeScriptProcessBuilder.sessions.add(session)) {
+        TerminalOutput output = new TerminalOutput(session.getId(), CharsetUtil.CHARSET_UTF_8, msg -> SocketSessionUtil.send(session, msg));
+        if (nodeScriptProcessBuilder.sessions.putIfAbsent(session.getId(), output) == null) {
             if (FileUtil.exist(nodeScriptProcessBuilder.logFile)) {
                 // 读取之前的信息并发送
-                FileUtil.readLines(nodeScriptProcessBuilder.logFile, CharsetUtil.CHARSET_UTF_8, (LineHandler) line -> {
-                    try {
-                        SocketSessionUtil.send(session, line);
-                    } catch (IOException e) {
-                        log.error(I18nMessageUtil.get("i18n.send_message_failure.9621"), e);
-                    }
-                });
+                FileUtil.readLines(nodeScriptProcessBuilder.logFile, CharsetUtil.CHARSET_UTF_8, (LineHandler) output::writeLine);
             }
+        } else {
+            output.closeNow();
         }
     }
 
@@ -144,8 +144,7 @@ public class NodeScriptProcessBuilder extends BaseRunScript implements Runnable
     public static void stopWatcher(Session session) {
         Collection<NodeScriptProcessBuilder> nodeScriptProcessBuilders = FILE_SCRIPT_PROCESS_BUILDER_CONCURRENT_HASH_MAP.values();
         for (NodeScriptProcessBuilder nodeScriptProcessBuilder : nodeScriptProcessBuilders) {
-            Set<Session> sessions = nodeScriptProcessBuilder.sessions;
-            sessions.removeIf(session1 -> session1.getId().equals(session.getId()));
+            Optional.ofNullable(nodeScriptProcessBuilder.sessions.remove(session.getId())).ifPresent(TerminalOutput::closeNow);
         }
     }
 
@@ -168,7 +167,7 @@ public class NodeScriptProcessBuilder extends BaseRunScript implements Runnable
             environmentMapBuilder.eachStr(this::info);
             process = processBuilder.start();
             inputStream = process.getInputStream();
-            IoUtil.readLines(inputStream, ExtConfigBean.getConsoleLogCharset(), (LineHandler) NodeScriptProcessBuilder.this::info);
+            IoUtil.readLines(inputStream, ExtConfigBean.getConsoleLogCharset(), (LineHandler) NodeScriptProcessBuilder.this::appendLine);
             int waitFor = process.waitFor();
             this.system(I18nMessageUtil.get("i18n.execution_ended.b793"), waitFor);
             JsonMessage<String> jsonMessage = new JsonMessage<>(200, I18nMessageUtil.get("i18n.execution_completed.24a1") + waitFor);
@@ -192,14 +191,12 @@ public class NodeScriptProcessBuilder extends BaseRunScript implements Runnable
      */
     @Override
     protected void end(String msg) {
-        Iterator<Session> iterator = sessions.iterator();
+        Iterator<TerminalOutput> iterator = sessions.values().iterator();
         while (iterator.hasNext()) {
-            Session session = iterator.next();
-            try {
-                SocketSessionUtil.send(session, msg);
-            } catch (IOException e) {
-                log.error(I18nMessageUtil.get("i18n.send_message_failure.9621"), e);
-            }
+            TerminalOutput output = iterator.next();
+            // 在之前的输出发送完成后单独发送
+            output.writeMessage(msg);
+            output.close();
             iterator.remove();
         }
         NodeScriptProcessBuilder nodeScriptProcessBuilder = FILE_SCRIPT_PROCESS_BUILDER_CONCURRENT_HASH_MAP.remove(this.executeId);
@@ -217,15 +214,19 @@ public class NodeScriptProcessBuilder extends BaseRunScript implements Runnable
 
     @Override
     protected void msgCallback(String info) {
-        //
-        Iterator<Session> iterator = sessions.iterator();
+        // 多行合并发送，会话接收过慢时阻塞读取脚本输出
+        Iterator<TerminalOutput> iterator = sessions.values().iterator();
         while (iterator.hasNext()) {
-            Session session = iterator.next();
+            TerminalOutput output = iterator.next();
+            output.writeLine(info);
             try {
-                SocketSessionUtil.send(session, info);
-            } catch (IOException e) {
-                log.error(I18nMessageUtil.get("i18n.send_message_failure.9621"), e);
-                iterator.remove();
+                if (!output.awaitWritable()) {
+                    output.closeNow();
+                    iterator.remove();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
             }
         }
     }
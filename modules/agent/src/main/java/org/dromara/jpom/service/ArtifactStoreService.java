@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.service;
+
+import cn.hutool.core.date.DateUnit;
+import cn.hutool.core.date.SystemClock;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.ReUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.JpomApplication;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 分发文件仓库，按照文件签名保存服务端上传的文件
+ * <p>
+ * 同一次分发中同一台机器上的多个项目只需要上传一次文件，各个项目再从仓库中安装。超过一天没有使用的文件自动删除
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Service
+@Slf4j
+public class ArtifactStoreService {
+
+    private static final String DIGEST_REGEX = "^[0-9a-f]{32}$";
+
+    /**
+     * 仓库目录，在临时目录中，清理临时文件时一并清理
+     *
+     * @return 文件夹
+     */
+    public File getStorePath() {
+        return FileUtil.file(JpomApplication.getInstance().getTempPath(), "artifact");
+    }
+
+    private File digestPath(String digest) {
+        Assert.state(ReUtil.isMatch(DIGEST_REGEX, digest), I18nMessageUtil.get("i18n.artifact_digest_invalid.fadd"));
+        return FileUtil.file(this.getStorePath(), digest);
+    }
+
+    /**
+     * 仓库中的文件
+     *
+     * @param digest 文件签名
+     * @return 不存在返回 null
+     */
+    private File storeFile(String digest) {
+        File[] files = this.digestPath(digest).listFiles(File::isFile);
+        return ArrayUtil.isEmpty(files) ? null : files[0];
+    }
+
+    /**
+     * 查询仓库中已经存在的文件
+     *
+     * @param digests 文件签名
+     * @return 已经存在的文件签名
+     */
+    public List<String> exists(Collection<String> digests) {
+        this.clearExpired();
+        return digests.stream()
+            .filter(digest -> this.storeFile(digest) != null)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * 保存文件到仓库，文件签名需要调用方已经校验
+     *
+     * @param digest 文件签名
+     * @param file   文件，保存后文件会被移动
+     * @throws IOException io
+     */
+    public synchronized void put(String digest, File file) throws IOException {
+        File digestPath = this.digestPath(digest);
+        if (this.storeFile(digest) != null) {
+            // 已经存在
+            FileUtil.del(file);
+            digestPath.setLastModified(SystemClock.now());
+            return;
+        }
+        File target = FileUtil.file(digestPath, file.getName());
+        FileUtil.mkdir(digestPath);
+        try {
+            Files.move(file.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // 先复制到临时文件，避免其他线程读取到不完整的文件
+            File temp = FileUtil.file(this.getStorePath(), IdUtil.fastSimpleUUID());
+            FileUtil.move(file, temp, true);
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * 从仓库中取出文件用于安装到项目
+     *
+     * @param digest   文件签名
+     * @param tempPath 临时目录
+     * @param readOnly 取出的文件不会被修改（解压后删除），可以使用硬链接
+     * @return 取出的文件，在一个单独的文件夹中，文件名和上传时一致
+     * @throws IOException io
+     */
+    public File checkout(String digest, String tempPath, boolean readOnly) throws IOException {
+        File storeFile = this.storeFile(digest);
+        Assert.notNull(storeFile, I18nMessageUtil.get("i18n.artifact_not_exist.05f2"));
+        // 记录最后使用时间
+        if (!storeFile.getParentFile().setLastModified(SystemClock.now())) {
+            log.debug("artifact touch {}", storeFile);
+        }
+        File target = FileUtil.file(tempPath, "artifact", IdUtil.fastSimpleUUID(), storeFile.getName());
+        FileUtil.mkParentDirs(target);
+        if (readOnly) {
+            try {
+                Files.createLink(target.toPath(), storeFile.toPath());
+                return target;
+            } catch (IOException | UnsupportedOperationException e) {
+                log.debug("artifact link {} {}", storeFile, e.getMessage());
+            }
+        }
+        FileUtil.copy(storeFile, target, true);
+        return target;
+    }
+
+    /**
+     * 删除超过一天没有使用的文件
+     */
+    private void clearExpired() {
+        File[] files = this.getStorePath().listFiles(File::isDirectory);
+        if (files == null) {
+            return;
+        }
+        long now = SystemClock.now();
+        for (File file : files) {
+            if (now - file.lastModified() > DateUnit.DAY.getMillis()) {
+                FileUtil.del(file);
+            }
+        }
+    }
+}
@@ -11,25 +11,23 @@ package org.dromara.jpom.service;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.bean.copier.CopyOptions;
-import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.io.FileUtil;
-import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.thread.lock.LockUtil;
 import cn.hutool.core.util.ClassUtil;
 import cn.hutool.core.util.StrUtil;
-import com.alibaba.fastjson2.JSONArray;
+import cn.keepbx.jpom.event.ICacheTask;
 import com.alibaba.fastjson2.JSONObject;
 import org.dromara.jpom.JpomApplication;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
 import org.dromara.jpom.model.BaseModel;
 import org.dromara.jpom.system.JpomRuntimeException;
-import org.dromara.jpom.util.JsonFileUtil;
+import org.dromara.jpom.util.JsonFileStore;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.util.Assert;
 
-import java.io.FileNotFoundException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.locks.Lock;
 
 /**
@@ -38,7 +36,7 @@ import java.util.concurrent.locks.Lock;
  * @author bwcx_jzy
  * @since 2019/3/14
  */
-public abstract class BaseOperService<T extends BaseModel> {
+public abstract class BaseOperService<T extends BaseModel> implements ICacheTask, DisposableBean {
 
     private final String fileName;
     private final Class<T> typeArgument;
@@ -59,17 +57,24 @@ public abstract class BaseOperService<T extends BaseModel> {
     }
 
     public int size() {
-        List<T> list = this.list();
-        return CollUtil.size(list);
+        Objects.requireNonNull(fileName, I18nMessageUtil.get("i18n.file_name_not_configured.39fa"));
+        return getStore(fileName).size();
     }
 
     public <E> List<E> list(Class<E> cls) {
-        JSONObject jsonObject = getJSONObject();
-        if (jsonObject == null) {
-            return new ArrayList<>();
-        }
-        JSONArray jsonArray = JsonFileUtil.formatToArray(jsonObject);
-        return jsonArray.toJavaList(cls);
+        Objects.requireNonNull(fileName, I18nMessageUtil.get("i18n.file_name_not_configured.39fa"));
+        return getStore(fileName).list(cls);
+    }
+
+    /**
+     * 查询指定版本之后变更的数据
+     *
+     * @param since 版本，为空时返回全部数据
+     * @return 变更的数据
+     */
+    public JsonFileStore.Changes<T> changes(Long since) {
+        Objects.requireNonNull(fileName, I18nMessageUtil.get("i18n.file_name_not_configured.39fa"));
+        return getStore(fileName).changes(since, typeArgument);
     }
 
     public JSONObject getJSONObject() {
@@ -144,10 +149,12 @@ public abstract class BaseOperService<T extends BaseModel> {
         Objects.requireNonNull(fileName, I18nMessageUtil.get("i18n.file_name_not_configured.39fa"));
         try {
             lock.lock();
-            T item = getItem(id);
-            Assert.notNull(item, I18nMessageUtil.get("i18n.data_does_not_exist.b201"));
-            BeanUtil.copyProperties(updateData, item, CopyOptions.create().ignoreNullValue());
-            updateJson(fileName, item);
+            boolean update = getStore(fileName).update(id, jsonObject -> {
+                T item = jsonObject.toJavaObject(typeArgument);
+                BeanUtil.copyProperties(updateData, item, CopyOptions.create().ignoreNullValue());
+                return item.toJson();
+            });
+            Assert.state(update, I18nMessageUtil.get("i18n.data_does_not_exist.b201"));
         } finally {
             lock.unlock();
         }
@@ -163,6 +170,29 @@ public abstract class BaseOperService<T extends BaseModel> {
         return FileUtil.normalize(JpomApplication.getInstance().getDataPath() + StrUtil.SLASH + filename);
     }
 
+    /**
+     * 获取数据文件对应的存储
+     *
+     * @param filename 文件名
+     * @return store
+     */
+    protected JsonFileStore getStore(String filename) {
+        return JsonFileStore.of(getDataFilePath(filename));
+    }
+
+    /**
+     * 合并数据文件的追加日志
+     */
+    @Override
+    public void refreshCache() {
+        Optional.ofNullable(fileName).ifPresent(s -> getStore(s).compact());
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        this.refreshCache();
+    }
+
     /**
      * 保存json对象
      *
@@ -171,18 +201,11 @@ public abstract class BaseOperService<T extends BaseModel> {
      */
     protected void saveJson(String filename, BaseModel json) {
         String key = json.getId();
-        // 读取文件，如果存在记录，则抛出异常
-        JSONObject allData = getJSONObject(filename);
-        if (allData != null) {
-            // 判断是否存在数据
-            if (allData.containsKey(key)) {
-                throw new JpomRuntimeException(StrUtil.format(I18nMessageUtil.get("i18n.data_id_already_exists.28b6"), filename, key));
-            }
-        } else {
-            allData = new JSONObject();
+        // 如果存在记录，则抛出异常
+        boolean insert = getStore(filename).insert(key, json.toJson());
+        if (!insert) {
+            throw new JpomRuntimeException(StrUtil.format(I18nMessageUtil.get("i18n.data_id_already_exists.28b6"), filename, key));
         }
-        allData.put(key, json.toJson());
-        JsonFileUtil.saveJson(getDataFilePath(filename), allData);
     }
 
     /**
@@ -193,16 +216,10 @@ public abstract class BaseOperService<T extends BaseModel> {
      */
     protected void updateJson(String filename, BaseModel json) {
         String key = json.getId();
-        // 读取文件，如果不存在记录，则抛出异常
-        JSONObject allData = getJSONObject(filename);
-        JSONObject data = allData.getJSONObject(key);
-
-        // 判断是否存在数据
-        if (MapUtil.isEmpty(data)) {
+        // 如果不存在记录，则抛出异常
+        boolean update = getStore(filename).update(key, jsonObject -> json.toJson());
+        if (!update) {
             throw new JpomRuntimeException(I18nMessageUtil.get("i18n.data_does_not_exist_with_details.d9b5") + key);
-        } else {
-            allData.put(key, json.toJson());
-            JsonFileUtil.saveJson(getDataFilePath(filename), allData);
         }
     }
 
@@ -213,16 +230,7 @@ public abstract class BaseOperService<T extends BaseModel> {
      * @param key      key
      */
     protected void deleteJson(String filename, String key) {
-        // 读取文件，如果存在记录，则抛出异常
-        JSONObject allData = getJSONObject(filename);
-        if (allData == null) {
-            return;
-        }
-        //Assert.notNull(allData, "没有任何数据");
-        //JSONObject data = allData.getJSONObject(key);
-        allData.remove(key);
-        JsonFileUtil.saveJson(getDataFilePath(filename), allData);
-
+        getStore(filename).delete(key);
     }
 
     /**
@@ -232,25 +240,17 @@ public abstract class BaseOperService<T extends BaseModel> {
      * @return json
      */
     protected JSONObject getJSONObject(String filename) {
-        try {
-            return (JSONObject) JsonFileUtil.readJson(getDataFilePath(filename));
-        } catch (FileNotFoundException e) {
+        JsonFileStore store = getStore(filename);
+        if (!store.exists()) {
             return null;
         }
+        return store.toJson();
     }
 
     protected T getJsonObjectById(String file, String id, Class<T> cls) {
         if (StrUtil.isEmpty(id)) {
             return null;
         }
-        JSONObject jsonObject = getJSONObject(file);
-        if (jsonObject == null) {
-            return null;
-        }
-        jsonObject = jsonObject.getJSONObject(id);
-        if (jsonObject == null) {
-            return null;
-        }
-        return jsonObject.toJavaObject(cls);
+        return getStore(file).get(id, cls);
     }
 }
@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.service;
+
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.date.DateUnit;
+import cn.hutool.core.date.SystemClock;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.resource.FileResource;
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.RuntimeUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import cn.hutool.http.HttpRequest;
+import cn.keepbx.jpom.model.JsonMessage;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.JpomApplication;
+import org.dromara.jpom.common.Const;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.configuration.AgentConfig;
+import org.dromara.jpom.model.RelayNode;
+import org.dromara.jpom.transport.TransportServer;
+import org.dromara.jpom.util.FileUtils;
+import org.dromara.jpom.util.RelayForwarder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * 中继分发，保存服务端或者上级节点转发的分片，同时转发给子节点
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Service
+@Slf4j
+public class FileRelayService {
+
+    /**
+     * 子节点接收分片的接口
+     */
+    public static final String RELAY_SHARDING_PATH = "/manage/file2/relay-sharding";
+    /**
+     * 转发一个分片的超时时间（单位秒）
+     */
+    private static final int FORWARD_TIMEOUT = 120;
+
+    private final AgentConfig agentConfig;
+    private final Map<String, Relay> relayMap = new ConcurrentHashMap<>();
+    /**
+     * 中继id -> 令牌
+     */
+    private final Map<String, RelayToken> tokenMap = new ConcurrentHashMap<>();
+    private volatile ExecutorService forwardExecutor;
+
+    public FileRelayService(AgentConfig agentConfig) {
+        this.agentConfig = agentConfig;
+    }
+
+    /**
+     * 中继分片保存的临时目录
+     *
+     * @return 路径
+     */
+    public String getTempPath() {
+        return FileUtil.getAbsolutePath(FileUtil.file(agentConfig.getTempPath(), "relay"));
+    }
+
+    /**
+     * 登记服务端下发的中继令牌，上级节点转发分片时使用该令牌授权
+     *
+     * @param relayId 中继id
+     * @param token   令牌
+     * @param expire  有效期（单位秒），每次使用后重新计算
+     */
+    public void register(String relayId, String token, int expire) {
+        Assert.state(expire > 0, I18nMessageUtil.get("i18n.relay_token_invalid.45a6"));
+        this.clearExpired();
+        tokenMap.put(relayId, new RelayToken(token, TimeUnit.SECONDS.toMillis(expire)));
+    }
+
+    /**
+     * 校验中继令牌
+     *
+     * @param relayId 中继id
+     * @param token   令牌
+     * @return true 令牌有效
+     */
+    public boolean checkToken(String relayId, String token) {
+        if (StrUtil.hasEmpty(relayId, token)) {
+            return false;
+        }
+        RelayToken relayToken = tokenMap.get(relayId);
+        if (relayToken == null || relayToken.isExpired()) {
+            return false;
+        }
+        if (!StrUtil.equals(relayToken.token, token)) {
+            return false;
+        }
+        relayToken.lastActive = SystemClock.now();
+        return true;
+    }
+
+    /**
+     * 保存中继分片，分片需要原样转发给子节点，所以单独保存每个分片
+     *
+     * @param file     分片
+     * @param relayId  中继id
+     * @param sliceMd5 分片签名
+     * @throws IOException io
+     */
+    public void saveSlice(MultipartFile file, String relayId, String sliceMd5) throws IOException {
+        Assert.notNull(file, I18nMessageUtil.get("i18n.no_uploaded_file.07ef"));
+        String originalFilename = file.getOriginalFilename();
+        Assert.hasText(originalFilename, I18nMessageUtil.get("i18n.no_uploaded_file.07ef"));
+        File slicePath = FileUtil.file(this.getTempPath(), "slice", relayId);
+        // 先写入临时目录，校验通过后再移动，分片目录中只保留完整的分片
+        File sliceTemp = FileUtil.file(slicePath, "temp", originalFilename);
+        FileUtil.mkParentDirs(sliceTemp);
+        file.transferTo(sliceTemp);
+        boolean checked = StrUtil.equals(SecureUtil.md5(sliceTemp), sliceMd5);
+        if (!checked) {
+            FileUtil.del(sliceTemp);
+        }
+        Assert.state(checked, () -> StrUtil.format(I18nMessageUtil.get("i18n.slice_checksum_mismatch.20f3"), originalFilename));
+        File slice = FileUtil.file(slicePath, "items", originalFilename);
+        FileUtil.mkParentDirs(slice);
+        FileUtil.move(sliceTemp, slice, true);
+    }
+
+    /**
+     * 分片已经保存到本地，转发给子节点
+     *
+     * @param relayId    中继id
+     * @param totalSlice 分片总数
+     * @param nowSlice   当前分片
+     * @param sliceMd5   分片签名
+     * @param fileName   文件名
+     * @param children   子节点 json
+     */
+    public void onSlice(String relayId, int totalSlice, int nowSlice, String sliceMd5, String fileName, String children) {
+        if (!relayMap.containsKey(relayId)) {
+            this.clearExpired();
+        }
+        Relay relay = relayMap.computeIfAbsent(relayId, s -> {
+            List<RelayNode> nodes = StrUtil.isEmpty(children) ? null : JSONArray.parseArray(children, RelayNode.class);
+            return new Relay(relayId, totalSlice, fileName, nodes);
+        });
+        relay.sliceMd5.put(nowSlice, sliceMd5);
+        relay.onSlice(nowSlice);
+    }
+
+    /**
+     * 中继状态
+     *
+     * @param relayId 中继id
+     * @return 已经收到的分片数、等待转发的分片数、转发失败的节点
+     */
+    public JSONObject status(String relayId) {
+        JSONObject jsonObject = new JSONObject();
+        Relay relay = relayMap.get(relayId);
+        if (relay == null) {
+            jsonObject.put("received", 0);
+            jsonObject.put("pending", 0);
+            return jsonObject;
+        }
+        jsonObject.put("total", relay.totalSlice);
+        jsonObject.put("received", relay.receivedCount());
+        jsonObject.put("pending", relay.pendingCount());
+        jsonObject.put("failed", relay.failedNodes());
+        return jsonObject;
+    }
+
+    /**
+     * 合并分片到新的文件，分片保留用于继续转发和其他项目使用
+     *
+     * @param relayId    中继id
+     * @param totalSlice 分片总数
+     * @param fileSumMd5 文件签名
+     * @return 合并后的文件
+     * @throws IOException io
+     */
+    public File merge(String relayId, Integer totalSlice, String fileSumMd5) throws IOException {
+        Assert.hasText(fileSumMd5, I18nMessageUtil.get("i18n.file_signature_info_not_found.83bf"));
+        Relay relay = relayMap.get(relayId);
+        Assert.notNull(relay, I18nMessageUtil.get("i18n.relay_not_exist.8d5c"));
+        int received = relay.receivedCount();
+        Assert.state(received == relay.totalSlice && received == Convert.toInt(totalSlice, 0),
+            StrUtil.format(I18nMessageUtil.get("i18n.file_upload_failure_due_to_missing_chunks.1865"), received, totalSlice));
+        File successFile = FileUtil.file(this.getTempPath(), "slice", relayId, "merge", IdUtil.fastSimpleUUID(), relay.fileName);
+        FileUtil.mkParentDirs(successFile);
+        try (FileOutputStream fileOutputStream = new FileOutputStream(successFile)) {
+            try (FileChannel channel = fileOutputStream.getChannel()) {
+                for (int i = 0; i < relay.totalSlice; i++) {
+                    FileUtils.appendChannel(relay.sliceFile(i), channel);
+                }
+            }
+        }
+        String newMd5 = SecureUtil.md5(successFile);
+        if (!StrUtil.equals(newMd5, fileSumMd5)) {
+            log.warn(I18nMessageUtil.get("i18n.file_merge_exception_details.e9d0"), FileUtil.getAbsolutePath(successFile), newMd5, fileSumMd5);
+            FileUtil.del(successFile.getParentFile());
+            throw new IllegalStateException(I18nMessageUtil.get("i18n.file_merge_error.f32f"));
+        }
+        return successFile;
+    }
+
+    /**
+     * 分发结束，删除中继数据
+     *
+     * @param relayId 中继id
+     */
+    public void clear(String relayId) {
+        relayMap.remove(relayId);
+        tokenMap.remove(relayId);
+        FileUtil.del(FileUtil.file(this.getTempPath(), "slice", relayId));
+    }
+
+    /**
+     * 删除服务端没有正常结束的中继数据（超过一天）
+     */
+    private void clearExpired() {
+        tokenMap.values().removeIf(RelayToken::isExpired);
+        long now = SystemClock.now();
+        relayMap.values().removeIf(relay -> {
+            if (now - relay.createTime < DateUnit.DAY.getMillis()) {
+                return false;
+            }
+            FileUtil.del(FileUtil.file(this.getTempPath(), "slice", relay.relayId));
+            return true;
+        });
+    }
+
+    private ExecutorService forwardExecutor() {
+        if (forwardExecutor == null) {
+            synchronized (this) {
+                if (forwardExecutor == null) {
+                    int poolSize = Math.max(RuntimeUtil.getProcessorCount(), 4);
+                    ThreadPoolExecutor executor = ExecutorBuilder.create()
+                        .setCorePoolSize(poolSize)
+                        .setMaxPoolSize(poolSize)
+                        .setAllowCoreThreadTimeOut(true)
+                        .setWorkQueue(new LinkedBlockingQueue<>())
+                        .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("jpom-relay-forward-").setDaemon(true).build())
+                        .build();
+                    JpomApplication.register("relay-forward", executor);
+                    forwardExecutor = executor;
+                }
+            }
+        }
+        return forwardExecutor;
+    }
+
+    private class Relay extends RelayForwarder {
+        private final String relayId;
+        private final int totalSlice;
+        private final String fileName;
+        private final Map<Integer, String> sliceMd5 = new ConcurrentHashMap<>();
+        private final long createTime = SystemClock.now();
+
+        private Relay(String relayId, int totalSlice, String fileName, List<RelayNode> children) {
+            super(children);
+            this.relayId = relayId;
+            this.totalSlice = totalSlice;
+            this.fileName = fileName;
+        }
+
+        private File sliceFile(int slice) {
+            return FileUtil.file(getTempPath(), "slice", relayId, "items", fileName + StrUtil.DOT + slice);
+        }
+
+        @Override
+        protected void send(RelayNode node, int slice) {
+            RelayToken relayToken = tokenMap.get(relayId);
+            Assert.state(relayToken != null && !relayToken.isExpired(), I18nMessageUtil.get("i18n.relay_token_invalid.45a6"));
+            // 节点之间直接请求，不经过服务端配置的节点代理和传输方式，只携带本次中继的令牌
+            String url = StrUtil.format("{}://{}{}", node.getScheme(), node.getUrl(), RELAY_SHARDING_PATH);
+            HttpRequest httpRequest = HttpRequest.post(url)
+                .header(Const.JPOM_RELAY_TOKEN, relayToken.token)
+                .header(TransportServer.TRANSPORT_ENCRYPTION, "0")
+                .timeout(FORWARD_TIMEOUT * 1000)
+                .form("file", new FileResource(this.sliceFile(slice), fileName + StrUtil.DOT + slice))
+                .form("relayId", relayId)
+                .form("totalSlice", totalSlice)
+                .form("nowSlice", slice)
+                .form("sliceMd5", sliceMd5.get(slice))
+                .form("children", JSONArray.toJSONString(node.getChildren()));
+            String body = httpRequest.execute().body();
+            JsonMessage<?> message = JSONObject.parseObject(body, JsonMessage.class);
+            Assert.state(message != null && message.success(), () -> StrUtil.format(I18nMessageUtil.get("i18n.relay_forward_response_error.86f7"), body));
+        }
+
+        @Override
+        protected Executor executor() {
+            return forwardExecutor();
+        }
+    }
+
+    private static class RelayToken {
+        private final String token;
+        private final long expire;
+        private volatile long lastActive = SystemClock.now();
+
+        private RelayToken(String token, long expire) {
+            this.token = token;
+            this.expire = expire;
+        }
+
+        private boolean isExpired() {
+            return SystemClock.now() - lastActive > expire;
+        }
+    }
+}
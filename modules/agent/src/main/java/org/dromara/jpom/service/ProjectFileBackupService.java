@@ -113,10 +113,17 @@ public class ProjectFileBackupService {
         if (!FileUtil.exist(file)) {
             return null;
         }
-        String backupId = DateTime.now().toString(DatePattern.PURE_DATETIME_MS_FORMAT);
-        log.debug(I18nMessageUtil.get("i18n.prepare_backup.7970"), projectInfoModel.getId(), backupId);
+        String time = DateTime.now().toString(DatePattern.PURE_DATETIME_MS_FORMAT);
+        String backupId = time;
         File projectFileBackup = this.pathProjectBackup(infoModel, backupId);
-        Assert.state(!FileUtil.exist(projectFileBackup), I18nMessageUtil.get("i18n.backup_directory_conflict.c13e") + projectFileBackup.getName());
+        FileUtil.mkParentDirs(projectFileBackup);
+        // 并发上传文件时同一毫秒内可能有多个备份
+        for (int i = 1; !projectFileBackup.mkdir(); i++) {
+            Assert.state(i < 100, I18nMessageUtil.get("i18n.backup_directory_conflict.c13e") + projectFileBackup.getName());
+            backupId = time + "-" + i;
+            projectFileBackup = this.pathProjectBackup(infoModel, backupId);
+        }
+        log.debug(I18nMessageUtil.get("i18n.prepare_backup.7970"), projectInfoModel.getId(), backupId);
         FileUtil.copyContent(file, projectFileBackup, true);
         //
         return backupId;
@@ -20,8 +20,10 @@ import javax.websocket.Session;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Set;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -43,6 +45,19 @@ public class AgentFileTailWatcher<T extends AutoCloseable> extends BaseFileTailW
         return CONCURRENT_HASH_MAP.size();
     }
 
+    /**
+     * 所有跟随文件的统计信息
+     *
+     * @return list
+     */
+    public static List<Map<String, Object>> listMetrics() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (AgentFileTailWatcher<Session> watcher : CONCURRENT_HASH_MAP.values()) {
+            list.add(watcher.getMetrics());
+        }
+        return list;
+    }
+
     /**
      * 添加文件监听
      *
@@ -81,10 +96,7 @@ public class AgentFileTailWatcher<T extends AutoCloseable> extends BaseFileTailW
     public static void offline(Session session) {
         Collection<AgentFileTailWatcher<Session>> collection = CONCURRENT_HASH_MAP.values();
         for (AgentFileTailWatcher<Session> agentFileTailWatcher : collection) {
-            agentFileTailWatcher.socketSessions.removeIf(session::equals);
-            if (agentFileTailWatcher.socketSessions.isEmpty()) {
-                agentFileTailWatcher.close();
-            }
+            agentFileTailWatcher.remove(session);
         }
     }
 
@@ -98,9 +110,8 @@ public class AgentFileTailWatcher<T extends AutoCloseable> extends BaseFileTailW
         if (null == agentFileTailWatcher) {
             return;
         }
-        Set<Session> socketSessions = agentFileTailWatcher.socketSessions;
-        for (Session socketSession : socketSessions) {
-            offline(socketSession);
+        for (Session socketSession : agentFileTailWatcher.sessions()) {
+            agentFileTailWatcher.remove(socketSession);
         }
         agentFileTailWatcher.close();
     }
@@ -128,17 +139,7 @@ public class AgentFileTailWatcher<T extends AutoCloseable> extends BaseFileTailW
         if (null == agentFileTailWatcher) {
             return;
         }
-        Set<Session> socketSessions = agentFileTailWatcher.socketSessions;
-        for (Session socketSession : socketSessions) {
-            if (socketSession.equals(session)) {
-                offline(socketSession);
-                break;
-            }
-        }
-        if (agentFileTailWatcher.socketSessions.isEmpty()) {
-            agentFileTailWatcher.close();
-        }
-
+        agentFileTailWatcher.remove(session);
     }
 
     @Override
@@ -151,6 +152,11 @@ public class AgentFileTailWatcher<T extends AutoCloseable> extends BaseFileTailW
         return true;
     }
 
+    @Override
+    protected String getId(T session) {
+        return ((Session) session).getId();
+    }
+
     /**
      * 关闭
      */
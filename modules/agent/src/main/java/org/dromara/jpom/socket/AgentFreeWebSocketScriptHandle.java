@@ -60,6 +60,7 @@ public class AgentFreeWebSocketScriptHandle extends BaseAgentWebSocketHandle {
         setAgentAuthorize(agentConfig.getAuthorize());
     }
 
+    @Override
     @OnOpen
     public void onOpen(Session session) {
         try {
@@ -87,6 +88,7 @@ public class AgentFreeWebSocketScriptHandle extends BaseAgentWebSocketHandle {
      * @throws Exception 异常
      * @see Constants#DEFAULT_BUFFER_SIZE
      */
+    @Override
     @OnMessage(maxMessageSize = 5 * 1024 * 1024)
     public void onMessage(String message, Session session) throws Exception {
         try {
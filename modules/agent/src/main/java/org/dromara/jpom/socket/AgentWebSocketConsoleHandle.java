@@ -63,6 +63,7 @@ public class AgentWebSocketConsoleHandle extends BaseAgentWebSocketHandle {
         setAgentAuthorize(agentConfig.getAuthorize());
     }
 
+    @Override
     @OnOpen
     public void onOpen(Session session) {
         try {
@@ -121,6 +122,7 @@ public class AgentWebSocketConsoleHandle extends BaseAgentWebSocketHandle {
         return nodeProjectInfoModel;
     }
 
+    @Override
     @OnMessage
     public void onMessage(String message, Session session) throws Exception {
         try {
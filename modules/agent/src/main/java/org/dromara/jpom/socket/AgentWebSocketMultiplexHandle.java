@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.socket;
+
+import cn.hutool.core.map.SafeConcurrentHashMap;
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.extra.spring.SpringUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.JpomApplication;
+import org.dromara.jpom.common.Const;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.configuration.AgentConfig;
+import org.dromara.jpom.transport.MultiplexConnection;
+import org.dromara.jpom.transport.MultiplexStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+
+import javax.websocket.*;
+import javax.websocket.server.ServerEndpoint;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * 多路复用连接，服务端每个节点只建立一个连接，控制台、脚本、日志等会话作为连接中的通道交给对应的处理器
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@ServerEndpoint(value = MultiplexConnection.PATH)
+@Component
+@Slf4j
+public class AgentWebSocketMultiplexHandle extends BaseAgentWebSocketHandle {
+
+    private static final Map<String, MultiplexConnection> CONNECTIONS = new SafeConcurrentHashMap<>();
+    private static volatile Map<String, BaseAgentWebSocketHandle> handles;
+    private static volatile ExecutorService executor;
+    private static final int MAX_POOL_SIZE = 200;
+
+    @Autowired
+    public void init(AgentConfig agentConfig) {
+        setAgentAuthorize(agentConfig.getAuthorize());
+    }
+
+    @Override
+    @OnOpen
+    public void onOpen(Session session) {
+        try {
+            setLanguage(session);
+            if (super.checkAuthorize(session)) {
+                return;
+            }
+            String authorize = this.getParameters(session, Const.JPOM_AGENT_AUTHORIZE);
+            MultiplexConnection connection = new MultiplexConnection(session.getId(),
+                frame -> this.send(session, frame),
+                executor(),
+                (stream, path, parameters) -> this.accept(session, authorize, stream, path, parameters));
+            CONNECTIONS.put(session.getId(), connection);
+        } finally {
+            clearLanguage();
+        }
+    }
+
+    private void send(Session session, String frame) throws IOException {
+        // 同一个连接的通道在不同线程中发送消息
+        synchronized (session) {
+            session.getBasicRemote().sendText(frame);
+        }
+    }
+
+    private void accept(Session session, String authorize, MultiplexStream stream, String path, Map<String, String> parameters) {
+        BaseAgentWebSocketHandle handle = getHandles().get(path);
+        if (handle == null) {
+            stream.close(StrUtil.format(I18nMessageUtil.get("i18n.multiplex_path_not_found.a5ee"), path));
+            return;
+        }
+        // 连接已经校验过授权信息
+        parameters.put(Const.JPOM_AGENT_AUTHORIZE, authorize);
+        MultiplexStreamSession streamSession = new MultiplexStreamSession(session, stream, parameters);
+        stream.onMessage(message -> {
+            try {
+                handle.onMessage(message, streamSession);
+            } catch (Exception e) {
+                handle.onError(streamSession, e);
+            }
+        });
+        stream.onClose(reason -> handle.onClose(streamSession, new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, reason)));
+        stream.execute(() -> handle.onOpen(streamSession));
+    }
+
+    @Override
+    @OnMessage(maxMessageSize = 5 * 1024 * 1024)
+    public void onMessage(String message, Session session) {
+        MultiplexConnection connection = CONNECTIONS.get(session.getId());
+        if (connection != null) {
+            connection.onFrame(message);
+        }
+    }
+
+    @Override
+    @OnClose
+    public void onClose(Session session, CloseReason closeReason) {
+        super.onClose(session, closeReason);
+        MultiplexConnection connection = CONNECTIONS.remove(session.getId());
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @OnError
+    @Override
+    public void onError(Session session, Throwable thr) {
+        // 连接中只能发送消息帧
+        log.error("{}{}", session.getId(), I18nMessageUtil.get("i18n.socket_exception.d836"), thr);
+    }
+
+    private static Map<String, BaseAgentWebSocketHandle> getHandles() {
+        if (handles == null) {
+            Map<String, BaseAgentWebSocketHandle> map = new HashMap<>(8);
+            for (BaseAgentWebSocketHandle handle : SpringUtil.getBeansOfType(BaseAgentWebSocketHandle.class).values()) {
+                ServerEndpoint serverEndpoint = AnnotationUtils.findAnnotation(handle.getClass(), ServerEndpoint.class);
+                if (serverEndpoint == null || handle instanceof AgentWebSocketMultiplexHandle) {
+                    continue;
+                }
+                map.put(serverEndpoint.value(), handle);
+            }
+            handles = map;
+        }
+        return handles;
+    }
+
+    private static ExecutorService executor() {
+        if (executor == null) {
+            synchronized (AgentWebSocketMultiplexHandle.class) {
+                if (executor == null) {
+                    ExecutorService executorService = ExecutorBuilder.create()
+                        .setCorePoolSize(MAX_POOL_SIZE)
+                        .setMaxPoolSize(MAX_POOL_SIZE)
+                        .setAllowCoreThreadTimeOut(true)
+                        // 线程数达到上限后通道排队等待空闲线程（通道中的消息仍在各自的队列中按顺序处理），
+                        // 处理器不能在连接的读取线程中执行，否则一个耗时的处理器会阻塞整个连接
+                        .setWorkQueue(new LinkedBlockingQueue<>())
+                        .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("jpom-multiplex-").setDaemon(true).build())
+                        .build();
+                    JpomApplication.register("multiplex", executorService);
+                    executor = executorService;
+                }
+            }
+        }
+        return executor;
+    }
+}
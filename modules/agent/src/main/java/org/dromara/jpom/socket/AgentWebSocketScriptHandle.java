@@ -45,6 +45,7 @@ public class AgentWebSocketScriptHandle extends BaseAgentWebSocketHandle {
         setAgentAuthorize(agentConfig.getAuthorize());
     }
 
+    @Override
     @OnOpen
     public void onOpen(Session session) {
         try {
@@ -78,6 +79,7 @@ public class AgentWebSocketScriptHandle extends BaseAgentWebSocketHandle {
         }
     }
 
+    @Override
     @OnMessage
     public void onMessage(String message, Session session) throws Exception {
         try {
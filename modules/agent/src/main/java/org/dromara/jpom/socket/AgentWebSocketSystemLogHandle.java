@@ -50,6 +50,7 @@ public class AgentWebSocketSystemLogHandle extends BaseAgentWebSocketHandle {
         setAgentAuthorize(agentConfig.getAuthorize());
     }
 
+    @Override
     @OnOpen
     public void onOpen(Session session) {
         try {
@@ -71,6 +72,7 @@ public class AgentWebSocketSystemLogHandle extends BaseAgentWebSocketHandle {
         }
     }
 
+    @Override
     @OnMessage
     public void onMessage(String message, Session session) throws Exception {
         try {
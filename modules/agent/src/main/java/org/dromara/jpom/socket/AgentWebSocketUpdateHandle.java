@@ -58,6 +58,7 @@ public class AgentWebSocketUpdateHandle extends BaseAgentWebSocketHandle {
         setAgentAuthorize(agentConfig.getAuthorize());
     }
 
+    @Override
     @OnOpen
     public void onOpen(Session session) {
         try {
@@ -84,6 +85,7 @@ public class AgentWebSocketUpdateHandle extends BaseAgentWebSocketHandle {
     }
 
 
+    @Override
     @OnMessage
     public void onMessage(String message, Session session) throws Exception {
         try {
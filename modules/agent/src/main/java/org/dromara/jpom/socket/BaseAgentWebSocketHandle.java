@@ -49,6 +49,22 @@ public abstract class BaseAgentWebSocketHandle {
         BaseAgentWebSocketHandle.agentAuthorize = agentAuthorize;
     }
 
+    /**
+     * 会话打开
+     *
+     * @param session 会话
+     */
+    public abstract void onOpen(Session session);
+
+    /**
+     * 收到文本消息
+     *
+     * @param message 消息
+     * @param session 会话
+     * @throws Exception 异常
+     */
+    public abstract void onMessage(String message, Session session) throws Exception;
+
     protected void setLanguage(Session session) {
         Map<String, List<String>> requestParameterMap = session.getRequestParameterMap();
         List<String> lang = requestParameterMap.get("lang");
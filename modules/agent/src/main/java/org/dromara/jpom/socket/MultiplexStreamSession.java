@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.socket;
+
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.transport.MultiplexStream;
+
+import javax.websocket.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.security.Principal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 多路复用连接中的通道，作为独立的 websocket 会话交给各个处理器
+ * <p>
+ * 只支持发送文本消息
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class MultiplexStreamSession implements Session {
+
+    private final Session session;
+    private final MultiplexStream stream;
+    private final String id;
+    private final Map<String, List<String>> requestParameterMap;
+    private final Map<String, Object> userProperties = new ConcurrentHashMap<>();
+    private final Basic basic = new Basic();
+
+    public MultiplexStreamSession(Session session, MultiplexStream stream, Map<String, String> parameters) {
+        this.session = session;
+        this.stream = stream;
+        this.id = session.getId() + "-" + stream.getId();
+        Map<String, List<String>> map = new LinkedHashMap<>();
+        parameters.forEach((key, value) -> map.put(key, Collections.singletonList(value)));
+        this.requestParameterMap = Collections.unmodifiableMap(map);
+    }
+
+    @Override
+    public WebSocketContainer getContainer() {
+        return session.getContainer();
+    }
+
+    @Override
+    public void addMessageHandler(MessageHandler handler) throws IllegalStateException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T> void addMessageHandler(Class<T> clazz, MessageHandler.Partial<T> handler) throws IllegalStateException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T> void addMessageHandler(Class<T> clazz, MessageHandler.Whole<T> handler) throws IllegalStateException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<MessageHandler> getMessageHandlers() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public void removeMessageHandler(MessageHandler handler) {
+    }
+
+    @Override
+    public String getProtocolVersion() {
+        return session.getProtocolVersion();
+    }
+
+    @Override
+    public String getNegotiatedSubprotocol() {
+        return session.getNegotiatedSubprotocol();
+    }
+
+    @Override
+    public List<Extension> getNegotiatedExtensions() {
+        return session.getNegotiatedExtensions();
+    }
+
+    @Override
+    public boolean isSecure() {
+        return session.isSecure();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return stream.isOpen() && session.isOpen();
+    }
+
+    @Override
+    public long getMaxIdleTimeout() {
+        return session.getMaxIdleTimeout();
+    }
+
+    @Override
+    public void setMaxIdleTimeout(long milliseconds) {
+    }
+
+    @Override
+    public void setMaxBinaryMessageBufferSize(int length) {
+    }
+
+    @Override
+    public int getMaxBinaryMessageBufferSize() {
+        return session.getMaxBinaryMessageBufferSize();
+    }
+
+    @Override
+    public void setMaxTextMessageBufferSize(int length) {
+    }
+
+    @Override
+    public int getMaxTextMessageBufferSize() {
+        return session.getMaxTextMessageBufferSize();
+    }
+
+    @Override
+    public RemoteEndpoint.Async getAsyncRemote() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public RemoteEndpoint.Basic getBasicRemote() {
+        return basic;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    @Override
+    public void close(CloseReason closeReason) {
+        stream.close(closeReason == null ? null : closeReason.getReasonPhrase());
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return session.getRequestURI();
+    }
+
+    @Override
+    public Map<String, List<String>> getRequestParameterMap() {
+        return requestParameterMap;
+    }
+
+    @Override
+    public String getQueryString() {
+        return null;
+    }
+
+    @Override
+    public Map<String, String> getPathParameters() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public Map<String, Object> getUserProperties() {
+        return userProperties;
+    }
+
+    @Override
+    public Principal getUserPrincipal() {
+        return session.getUserPrincipal();
+    }
+
+    @Override
+    public Set<Session> getOpenSessions() {
+        return Collections.singleton(this);
+    }
+
+    private class Basic implements RemoteEndpoint.Basic {
+
+        private final StringBuilder partial = new StringBuilder();
+
+        @Override
+        public void sendText(String text) throws IOException {
+            if (!stream.isOpen()) {
+                // 和 websocket 会话关闭后的行为一致，避免发送方重试
+                throw new IllegalStateException(I18nMessageUtil.get("i18n.multiplex_connection_closed.67ae"));
+            }
+            stream.send(text);
+        }
+
+        @Override
+        public void sendText(String partialMessage, boolean isLast) throws IOException {
+            synchronized (partial) {
+                partial.append(partialMessage);
+                if (!isLast) {
+                    return;
+                }
+                String text = partial.toString();
+                partial.setLength(0);
+                this.sendText(text);
+            }
+        }
+
+        @Override
+        public void sendBinary(ByteBuffer data) {
+            throw new UnsupportedOperationException(I18nMessageUtil.get("i18n.multiplex_binary_unsupported.6275"));
+        }
+
+        @Override
+        public void sendBinary(ByteBuffer partialByte, boolean isLast) {
+            throw new UnsupportedOperationException(I18nMessageUtil.get("i18n.multiplex_binary_unsupported.6275"));
+        }
+
+        @Override
+        public OutputStream getSendStream() {
+            throw new UnsupportedOperationException(I18nMessageUtil.get("i18n.multiplex_binary_unsupported.6275"));
+        }
+
+        @Override
+        public Writer getSendWriter() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sendObject(Object data) throws IOException {
+            this.sendText(String.valueOf(data));
+        }
+
+        @Override
+        public void setBatchingAllowed(boolean allowed) {
+        }
+
+        @Override
+        public boolean getBatchingAllowed() {
+            return false;
+        }
+
+        @Override
+        public void flushBatch() {
+        }
+
+        @Override
+        public void sendPing(ByteBuffer applicationData) {
+        }
+
+        @Override
+        public void sendPong(ByteBuffer applicationData) {
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.system;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.NumberUtil;
+import cn.hutool.system.oshi.OshiUtil;
+import com.alibaba.fastjson2.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.JpomApplication;
+import org.dromara.jpom.common.ILoadEvent;
+import org.dromara.jpom.common.commander.ProcessTableSnapshot;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.configuration.AgentConfig;
+import org.dromara.jpom.configuration.MonitorConfig;
+import org.dromara.jpom.model.data.NodeProjectInfoModel;
+import org.dromara.jpom.service.manage.ProjectInfoService;
+import org.dromara.jpom.util.JvmUtil;
+import org.dromara.jpom.util.OshiUtils;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import oshi.software.os.OSProcess;
+import oshi.software.os.OperatingSystem;
+
+import java.util.*;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 系统指标后台采样
+ * <p>
+ * 按固定间隔采集 cpu、内存、硬盘、网络和项目进程的指标，保存在内存的环形缓冲区中。
+ * 节点心跳直接返回最近一次的采样，不再每次心跳休眠等待计算 cpu 和网络流量
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Component
+@Slf4j
+public class SystemMetricsSampler implements ILoadEvent {
+
+    /**
+     * 每隔多少次采样刷新一次变化较少的信息（系统信息、java 进程数）
+     */
+    private static final int SLOW_SAMPLE_RATE = 6;
+
+    private final AgentConfig agentConfig;
+    private final ProjectInfoService projectInfoService;
+    private final Deque<JSONObject> samples = new ArrayDeque<>();
+    private Map<Integer, OSProcess> prevProcesses = new HashMap<>();
+    private OshiUtils.SampleState sampleState;
+    private long sampleCount;
+    private volatile JSONObject latest;
+    private volatile JSONObject systemInfo;
+    private volatile int javaVirtualCount;
+    private volatile String error;
+
+    public SystemMetricsSampler(AgentConfig agentConfig,
+                                ProjectInfoService projectInfoService) {
+        this.agentConfig = agentConfig;
+        this.projectInfoService = projectInfoService;
+    }
+
+    @Override
+    public void afterPropertiesSet(ApplicationContext applicationContext) throws Exception {
+        int interval = Math.max(this.getMonitorConfig().getSampleInterval(), 1);
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+            ThreadFactoryBuilder.create().setNamePrefix("jpom-metrics-sampler-").setDaemon(true).build());
+        JpomApplication.register("metrics-sampler", executor);
+        // 先记录基准，下一次采样计算差值
+        executor.execute(this::init);
+        executor.scheduleWithFixedDelay(this::sampleQuietly, interval, interval, TimeUnit.SECONDS);
+    }
+
+    private MonitorConfig getMonitorConfig() {
+        return Optional.ofNullable(agentConfig.getMonitor()).orElseGet(MonitorConfig::new);
+    }
+
+    private synchronized void init() {
+        try {
+            if (sampleState == null) {
+                sampleState = OshiUtils.createSampleState(this.getMonitorConfig());
+            }
+        } catch (Throwable e) {
+            log.error(I18nMessageUtil.get("i18n.oshi_system_monitoring_exception.5c1c"), e);
+            error = e.getMessage();
+        }
+    }
+
+    private void sampleQuietly() {
+        try {
+            this.sample();
+        } catch (Throwable e) {
+            log.error(I18nMessageUtil.get("i18n.oshi_system_monitoring_exception.5c1c"), e);
+            error = e.getMessage();
+        }
+    }
+
+    /**
+     * 采样一次
+     *
+     * @return 采样结果
+     */
+    private synchronized JSONObject sample() {
+        MonitorConfig monitorConfig = this.getMonitorConfig();
+        if (sampleState == null) {
+            sampleState = OshiUtils.createSampleState(monitorConfig);
+        }
+        if (sampleCount++ % SLOW_SAMPLE_RATE == 0) {
+            systemInfo = OshiUtils.getSystemInfo();
+            javaVirtualCount = JvmUtil.getJavaVirtualCount();
+        }
+        JSONObject jsonObject = OshiUtils.getSimpleInfo(monitorConfig, sampleState);
+        jsonObject.put("projects", this.sampleProjects());
+        int capacity = Math.max(monitorConfig.getSampleCapacity(), 1);
+        synchronized (samples) {
+            samples.addLast(jsonObject);
+            while (samples.size() > capacity) {
+                samples.removeFirst();
+            }
+        }
+        latest = jsonObject;
+        error = null;
+        return jsonObject;
+    }
+
+    /**
+     * 采集项目进程的 cpu 和内存
+     *
+     * @return 项目id -> 进程指标
+     */
+    private JSONObject sampleProjects() {
+        JSONObject jsonObject = new JSONObject();
+        List<NodeProjectInfoModel> list = projectInfoService.list();
+        Map<Integer, OSProcess> processes = new HashMap<>(CollUtil.size(list));
+        if (CollUtil.isNotEmpty(list)) {
+            ProcessTableSnapshot snapshot = ProcessTableSnapshot.get(agentConfig.getProject().getStatusSnapshotTtl());
+            OperatingSystem operatingSystem = OshiUtil.getOs();
+            for (NodeProjectInfoModel model : list) {
+                Integer pid = snapshot.getPid(model.getId());
+                if (pid == null || pid <= 0) {
+                    continue;
+                }
+                OSProcess process = operatingSystem.getProcess(pid);
+                if (process == null) {
+                    continue;
+                }
+                // 第一次采样为进程启动以来的平均使用率
+                double cpu = process.getProcessCpuLoadBetweenTicks(prevProcesses.get(pid)) * 100;
+                JSONObject item = new JSONObject();
+                item.put("pid", pid);
+                item.put("cpu", NumberUtil.round(cpu, 2).doubleValue());
+                item.put("memory", process.getResidentSetSize());
+                item.put("threads", process.getThreadCount());
+                jsonObject.put(model.getId(), item);
+                processes.put(pid, process);
+            }
+        }
+        prevProcesses = processes;
+        return jsonObject;
+    }
+
+    /**
+     * 最近一次的采样，还没有采样时立即采样
+     *
+     * @return 采样结果
+     */
+    public JSONObject getLatest() {
+        JSONObject jsonObject = latest;
+        if (jsonObject != null) {
+            return jsonObject;
+        }
+        try {
+            return this.sample();
+        } catch (Throwable e) {
+            log.error(I18nMessageUtil.get("i18n.oshi_system_monitoring_exception.5c1c"), e);
+            error = e.getMessage();
+            return null;
+        }
+    }
+
+    /**
+     * 指定时间之后的采样
+     *
+     * @param since 时间戳（不包含）
+     * @return 按时间排序的采样
+     */
+    public List<JSONObject> getSamples(long since) {
+        synchronized (samples) {
+            return samples.stream()
+                .filter(jsonObject -> jsonObject.getLongValue("time") > since)
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * 系统信息
+     *
+     * @return json
+     */
+    public JSONObject getSystemInfo() {
+        JSONObject jsonObject = systemInfo;
+        if (jsonObject == null) {
+            jsonObject = OshiUtils.getSystemInfo();
+            systemInfo = jsonObject;
+        }
+        return jsonObject;
+    }
+
+    public int getJavaVirtualCount() {
+        return javaVirtualCount;
+    }
+
+    /**
+     * 最近一次采样的异常信息
+     *
+     * @return 采样成功返回 null
+     */
+    public String getError() {
+        return error;
+    }
+}
@@ -9,7 +9,6 @@
  */
 package org.dromara.jpom.util;
 
-import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.lang.Tuple;
 import cn.hutool.core.util.ReUtil;
@@ -21,11 +20,11 @@ import java.io.File;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.nio.charset.Charset;
-import java.util.Collection;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.*;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * 文件搜索工具
@@ -36,6 +35,13 @@ import java.util.function.Consumer;
 public class FileSearchUtil {
 
     /**
+     * 单次搜索最多显示的行数
+     */
+    static final int MAX_SHOW_LINE = 10_000;
+
+    /**
+     * 通过行号索引定位读取范围，边读取边匹配输出，不缓存全部内容
+     *
      * @param file             文件
      * @param charset          编码格式
      * @param searchKey        搜索关键词
@@ -55,52 +61,117 @@ public class FileSearchUtil {
                                     boolean first, Consumer<Tuple> consumer) throws IOException {
 
         int[] calculate = FileSearchUtil.calculate(head, tailCount, first);
-        Collection<Tuple> strings;
+        LogLineIndex index = LogLineIndex.get(file);
+        long startLine;
+        long endLine;
+        long offset;
         if (calculate.length == 1) {
-            strings = FileSearchUtil.readLastLine(file, charset, calculate[0]);
+            // 读取最后几行，从文件末尾向前查找开始位置
+            long total = index.getLineCount();
+            long lines = Math.min(Math.max(calculate[0], 0), total);
+            offset = index.tailOffset(lines);
+            startLine = total - lines + 1;
+            endLine = total;
         } else {
-            strings = FileSearchUtil.readRangeLine(file, charset, calculate);
+            startLine = Math.max(calculate[0], 1);
+            endLine = calculate[1];
+            offset = index.offsetOfLine(startLine);
+        }
+        SearchEmitter emitter = new SearchEmitter(compile(searchKey), cacheBeforeCount, afterCount, MAX_SHOW_LINE, consumer);
+        long[] lineNumber = {startLine};
+        index.readLines(offset, charset, line -> {
+            long number = lineNumber[0]++;
+            return number <= endLine && emitter.accept((int) number, line);
+        });
+        if (emitter.shown >= MAX_SHOW_LINE) {
+            return StrUtil.format(I18nMessageUtil.get("i18n.search_result_truncated.d03d"), MAX_SHOW_LINE);
+        }
+        return StrUtil.format(I18nMessageUtil.get("i18n.search_result_display.d2c3"), emitter.read, emitter.shown);
+    }
+
+    /**
+     * 编译搜索关键词，关键词中没有正则表达式的特殊字符时只需要忽略大小写包含匹配
+     *
+     * @param searchKey 关键词
+     * @return 匹配
+     */
+    static Predicate<String> compile(String searchKey) {
+        if (StrUtil.isEmpty(searchKey)) {
+            return s -> true;
+        }
+        if (StrUtil.equals(ReUtil.escape(searchKey), searchKey)) {
+            // 普通文本完整匹配正则时一定也包含关键词
+            return s -> StrUtil.containsIgnoreCase(s, searchKey);
         }
-        int showLine = searchList(strings, searchKey, cacheBeforeCount, afterCount, consumer);
-        return StrUtil.format(I18nMessageUtil.get("i18n.search_result_display.d2c3"), CollUtil.size(strings), showLine);
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(searchKey, Pattern.DOTALL);
+        } catch (PatternSyntaxException e) {
+            return s -> StrUtil.containsIgnoreCase(s, searchKey);
+        }
+        return s -> StrUtil.containsIgnoreCase(s, searchKey) || pattern.matcher(s).matches();
     }
 
-    private static int searchList(Collection<Tuple> strings, String searchKey, int beforeCount, int afterCount, Consumer<Tuple> consumer) {
-        AtomicInteger hitIndex = new AtomicInteger(0);
-        LimitQueue<Tuple> beforeQueue = new LimitQueue<>(beforeCount);
-        List<Integer> cacheLineNum = new LinkedList<>();
-        strings.forEach(tuple -> {
-            String s = tuple.get(1);
-            Integer index = tuple.get(0);
-            // System.out.println(s);
-            if (StrUtil.isEmpty(searchKey) || StrUtil.containsIgnoreCase(s, searchKey) || ReUtil.isMatch(searchKey, s)) {
+    /**
+     * 逐行匹配并输出命中行和前后的行，按行号递增输出，不会重复输出
+     */
+    private static class SearchEmitter {
+        private final Predicate<String> matcher;
+        private final int beforeCount;
+        private final int afterCount;
+        private final int limit;
+        private final Consumer<Tuple> consumer;
+        private final Deque<Tuple> before = new ArrayDeque<>();
+        private int lastShowLine;
+        private int hitLine;
+        private int read;
+        private int shown;
+
+        private SearchEmitter(Predicate<String> matcher, int beforeCount, int afterCount, int limit, Consumer<Tuple> consumer) {
+            this.matcher = matcher;
+            this.beforeCount = Math.max(beforeCount, 0);
+            this.afterCount = Math.max(afterCount, 0);
+            this.limit = limit;
+            this.consumer = consumer;
+        }
+
+        /**
+         * 处理一行
+         *
+         * @param lineNumber 行号
+         * @param line       行内容
+         * @return false 已经达到显示上限
+         */
+        private boolean accept(int lineNumber, String line) {
+            read++;
+            if (matcher.test(line)) {
                 // 先输出之前的
-                for (Tuple before : beforeQueue) {
-                    checkEchoCache(cacheLineNum, before, consumer);
+                for (Tuple tuple : before) {
+                    this.show(tuple);
                 }
-                checkEchoCache(cacheLineNum, tuple, consumer);
-                hitIndex.set(index);
-            }
-            // 是否需要输出后面的内容
-            int i = hitIndex.get();
-            if (i > 0 && index > i && index <= i + afterCount) {
-                checkEchoCache(cacheLineNum, tuple, consumer);
-            }
-            if (beforeCount > 0) {
-                //
-                beforeQueue.offerFirst(tuple);
+                before.clear();
+                this.show(new Tuple(lineNumber, line));
+                hitLine = lineNumber;
+            } else if (hitLine > 0 && lineNumber <= hitLine + afterCount) {
+                this.show(new Tuple(lineNumber, line));
+            } else if (beforeCount > 0) {
+                if (before.size() >= beforeCount) {
+                    before.pollFirst();
+                }
+                before.offerLast(new Tuple(lineNumber, line));
             }
-        });
-        return CollUtil.size(cacheLineNum);
-    }
+            return shown < limit;
+        }
 
-    private static void checkEchoCache(List<Integer> cacheLineNum, Tuple tuple, Consumer<Tuple> consumer) {
-        int index = tuple.get(0);
-        if (cacheLineNum.contains(index)) {
-            return;
+        private void show(Tuple tuple) {
+            int lineNumber = tuple.get(0);
+            if (lineNumber <= lastShowLine || shown >= limit) {
+                return;
+            }
+            consumer.accept(tuple);
+            lastShowLine = lineNumber;
+            shown++;
         }
-        consumer.accept(tuple);
-        cacheLineNum.add(index);
     }
 
     public static Collection<Tuple> readLastLine(File file, Charset charset, int line) throws IOException {
@@ -0,0 +1,572 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.date.SystemClock;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.map.SafeConcurrentHashMap;
+import cn.hutool.core.util.CharsetUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.system.JpomRuntimeException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * 数据文件存储（内存索引 + 追加日志）
+ * <p>
+ * 数据文件仍然为原有的 json 格式（id -> 数据），首次访问时加载到内存，读取直接使用内存数据。
+ * 修改只追加写入 [文件名].journal，日志条数达到阈值或者定时任务执行时合并写回数据文件（先写临时文件再原子替换）。
+ * 日志第一行记录写入时数据文件的修改时间和大小，数据文件被外部修改（还原备份、手动编辑）后日志不再重放。
+ * 每个数据文件单独一把读写锁
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class JsonFileStore {
+
+    private static final Map<String, JsonFileStore> STORE_MAP = new SafeConcurrentHashMap<>();
+
+    /**
+     * 日志达到多少条后合并写回数据文件
+     */
+    private static final int COMPACT_THRESHOLD = 500;
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String DISCARD_SUFFIX = ".discard";
+    /**
+     * 最多保留多少条数据变更记录，更早的版本只能全量同步
+     */
+    private static final int CHANGE_LOG_SIZE = 1000;
+
+    private final File file;
+    private final File journalFile;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * 内存中的数据（id -> 数据的 json 字符串），保持文件中的顺序。
+     * 保存字符串而不是 JSONObject，读取时直接反序列化为新对象，避免调用方修改到内存数据
+     */
+    private LinkedHashMap<String, String> data;
+    /**
+     * 加载时数据文件的修改时间和大小，用于发现外部修改
+     */
+    private long fileLastModified;
+    private long fileLength;
+    private int journalCount;
+    private Writer journalWriter;
+    /**
+     * 数据版本，每次修改递增。重新加载数据时从当前时间开始，保证重启后版本仍然是递增的
+     */
+    private long revision;
+    /**
+     * 变更记录能查询的最早版本
+     */
+    private long changeStartRevision;
+    /**
+     * 变更记录（数据id -> 最后修改的版本），按版本排序
+     */
+    private final LinkedHashMap<String, Long> changeLog = new LinkedHashMap<>();
+
+    private JsonFileStore(File file) {
+        this.file = file;
+        this.journalFile = new File(file.getAbsolutePath() + JOURNAL_SUFFIX);
+    }
+
+    /**
+     * 获取数据文件对应的存储，同一个文件全局只有一个实例
+     *
+     * @param path 数据文件路径
+     * @return store
+     */
+    public static JsonFileStore of(String path) {
+        String normalize = FileUtil.normalize(path);
+        return STORE_MAP.computeIfAbsent(normalize, s -> new JsonFileStore(new File(s)));
+    }
+
+    /**
+     * 合并所有数据文件的追加日志
+     */
+    public static void compactAll() {
+        for (JsonFileStore store : STORE_MAP.values()) {
+            try {
+                store.compact();
+            } catch (Exception e) {
+                log.error(I18nMessageUtil.get("i18n.data_file_compact_failed.a61e") + store.file.getAbsolutePath(), e);
+            }
+        }
+    }
+
+    /**
+     * 数据文件或者追加日志是否存在
+     *
+     * @return true 存在
+     */
+    public boolean exists() {
+        return file.exists() || journalFile.exists();
+    }
+
+    /**
+     * 数据总数
+     *
+     * @return size
+     */
+    public int size() {
+        return this.read(Map::size);
+    }
+
+    /**
+     * 是否包含指定数据
+     *
+     * @param id 数据id
+     * @return true 包含
+     */
+    public boolean contains(String id) {
+        return this.read(map -> map.containsKey(id));
+    }
+
+    /**
+     * 根据 id 获取数据
+     *
+     * @param id  数据id
+     * @param cls 类型
+     * @param <E> 类型
+     * @return 每次都返回新对象
+     */
+    public <E> E get(String id, Class<E> cls) {
+        return this.read(map -> {
+            String value = map.get(id);
+            if (!isObject(value)) {
+                return null;
+            }
+            return JSON.parseObject(value, cls);
+        });
+    }
+
+    /**
+     * 获取所有数据
+     *
+     * @param cls 类型
+     * @param <E> 类型
+     * @return 每次都返回新对象
+     */
+    public <E> List<E> list(Class<E> cls) {
+        return this.read(map -> {
+            List<E> list = new ArrayList<>(map.size());
+            for (String value : map.values()) {
+                if (isObject(value)) {
+                    list.add(JSON.parseObject(value, cls));
+                }
+            }
+            return list;
+        });
+    }
+
+    /**
+     * 获取整个文件的数据（深拷贝）
+     *
+     * @return json
+     */
+    public JSONObject toJson() {
+        String json = this.read(JsonFileStore::toJsonString);
+        return JSONObject.parseObject(json);
+    }
+
+    /**
+     * 查询指定版本之后变更的数据
+     *
+     * @param since 版本，为空或者超出变更记录的范围时返回全部数据
+     * @param cls   类型
+     * @param <E>   类型
+     * @return 变更的数据
+     */
+    public <E> Changes<E> changes(Long since, Class<E> cls) {
+        return this.read(map -> {
+            Changes<E> changes = new Changes<>();
+            changes.setRevision(revision);
+            List<E> list = new ArrayList<>();
+            changes.setList(list);
+            if (since == null || since < changeStartRevision || since > revision) {
+                changes.setFull(true);
+                for (String value : map.values()) {
+                    if (isObject(value)) {
+                        list.add(JSON.parseObject(value, cls));
+                    }
+                }
+                return changes;
+            }
+            List<String> delete = new ArrayList<>();
+            changes.setDelete(delete);
+            for (Map.Entry<String, Long> entry : changeLog.entrySet()) {
+                if (entry.getValue() <= since) {
+                    continue;
+                }
+                String value = map.get(entry.getKey());
+                if (isObject(value)) {
+                    list.add(JSON.parseObject(value, cls));
+                } else {
+                    delete.add(entry.getKey());
+                }
+            }
+            return changes;
+        });
+    }
+
+    /**
+     * 新增数据
+     *
+     * @param id    数据id
+     * @param value 数据
+     * @return false 数据已经存在
+     */
+    public boolean insert(String id, JSONObject value) {
+        return this.write(map -> {
+            if (map.containsKey(id)) {
+                return false;
+            }
+            this.put(map, id, value);
+            return true;
+        });
+    }
+
+    /**
+     * 修改数据
+     *
+     * @param id       数据id
+     * @param function 参数为当前数据，返回新数据
+     * @return false 数据不存在
+     */
+    public boolean update(String id, UnaryOperator<JSONObject> function) {
+        return this.write(map -> {
+            String value = map.get(id);
+            if (!isObject(value)) {
+                return false;
+            }
+            JSONObject jsonObject = JSONObject.parseObject(value);
+            if (jsonObject.isEmpty()) {
+                return false;
+            }
+            JSONObject newValue = function.apply(jsonObject);
+            this.put(map, id, newValue);
+            return true;
+        });
+    }
+
+    /**
+     * 删除数据
+     *
+     * @param id 数据id
+     */
+    public void delete(String id) {
+        this.write(map -> {
+            if (!map.containsKey(id)) {
+                return false;
+            }
+            map.remove(id);
+            this.recordChange(id);
+            JSONObject journal = new JSONObject();
+            journal.put("t", "del");
+            journal.put("id", id);
+            this.appendJournal(journal);
+            return true;
+        });
+    }
+
+    /**
+     * 合并追加日志写回数据文件
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            if (data == null || journalCount <= 0) {
+                return;
+            }
+            this.compact0();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Map<String, String> map, String id, JSONObject value) {
+        map.put(id, value.toJSONString());
+        this.recordChange(id);
+        JSONObject journal = new JSONObject();
+        journal.put("t", "put");
+        journal.put("id", id);
+        journal.put("v", value);
+        this.appendJournal(journal);
+    }
+
+    private void recordChange(String id) {
+        revision++;
+        changeLog.remove(id);
+        changeLog.put(id, revision);
+        if (changeLog.size() > CHANGE_LOG_SIZE) {
+            Iterator<Map.Entry<String, Long>> iterator = changeLog.entrySet().iterator();
+            changeStartRevision = iterator.next().getValue();
+            iterator.remove();
+        }
+    }
+
+    private static boolean isObject(String value) {
+        return value != null && StrUtil.startWith(value, StrUtil.C_DELIM_START);
+    }
+
+    /**
+     * 拼接整个文件的 json 字符串
+     *
+     * @param map 数据
+     * @return json
+     */
+    private static String toJsonString(Map<String, String> map) {
+        StringBuilder builder = new StringBuilder(map.size() * 256);
+        builder.append(StrUtil.C_DELIM_START);
+        boolean first = true;
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            if (!first) {
+                builder.append(StrUtil.C_COMMA);
+            }
+            first = false;
+            builder.append(JSON.toJSONString(entry.getKey())).append(StrUtil.C_COLON).append(entry.getValue());
+        }
+        return builder.append(StrUtil.C_DELIM_END).toString();
+    }
+
+    private <R> R read(Function<Map<String, String>, R> function) {
+        lock.readLock().lock();
+        try {
+            if (this.isLoaded()) {
+                return function.apply(data);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // 需要加载，使用写锁
+        lock.writeLock().lock();
+        try {
+            this.checkLoad();
+            return function.apply(data);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <R> R write(Function<Map<String, String>, R> function) {
+        lock.writeLock().lock();
+        try {
+            this.checkLoad();
+            R r = function.apply(data);
+            if (journalCount >= COMPACT_THRESHOLD) {
+                this.compact0();
+            }
+            return r;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 已经加载并且数据文件没有被外部修改
+     *
+     * @return true 可以直接使用内存数据
+     */
+    private boolean isLoaded() {
+        return data != null && file.lastModified() == fileLastModified && file.length() == fileLength;
+    }
+
+    private void checkLoad() {
+        if (this.isLoaded()) {
+            return;
+        }
+        LinkedHashMap<String, String> map = new LinkedHashMap<>();
+        if (file.exists()) {
+            String json = FileUtil.readString(file, CharsetUtil.CHARSET_UTF_8);
+            if (StrUtil.isNotEmpty(json)) {
+                try {
+                    JSONObject jsonObject = JSONObject.parseObject(json);
+                    for (Map.Entry<String, Object> entry : jsonObject.entrySet()) {
+                        map.put(entry.getKey(), JSON.toJSONString(entry.getValue()));
+                    }
+                } catch (Exception e) {
+                    throw new JpomRuntimeException(I18nMessageUtil.get("i18n.data_file_content_error.e86f") + file.getAbsolutePath(), e);
+                }
+            }
+        }
+        this.closeJournal();
+        int count = 0;
+        if (journalFile.exists() && !this.checkJournalBase()) {
+            // 日志是基于其他版本的数据文件写入的，重放会覆盖数据文件中的修改
+            File discardFile = new File(journalFile.getAbsolutePath() + DISCARD_SUFFIX);
+            FileUtil.move(journalFile, discardFile, true);
+            log.warn(I18nMessageUtil.get("i18n.data_file_journal_stale.88e0"), discardFile.getAbsolutePath());
+        }
+        if (journalFile.exists()) {
+            // 重放追加日志
+            try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (StrUtil.isBlank(line)) {
+                        continue;
+                    }
+                    JSONObject journal;
+                    try {
+                        journal = JSONObject.parseObject(line);
+                    } catch (Exception e) {
+                        // 最后一行可能没有写完整
+                        log.warn(I18nMessageUtil.get("i18n.data_file_journal_line_error.9535"), journalFile.getAbsolutePath(), line);
+                        continue;
+                    }
+                    String id = journal.getString("id");
+                    String type = journal.getString("t");
+                    if (StrUtil.equals(type, "base")) {
+                        continue;
+                    }
+                    if (StrUtil.equals(type, "del")) {
+                        map.remove(id);
+                    } else {
+                        map.put(id, JSON.toJSONString(journal.getJSONObject("v")));
+                    }
+                    count++;
+                }
+            } catch (IOException e) {
+                throw new JpomRuntimeException(I18nMessageUtil.get("i18n.data_file_content_error.e86f") + journalFile.getAbsolutePath(), e);
+            }
+        }
+        this.data = map;
+        this.journalCount = count;
+        // 重新加载后之前的变更记录不再可靠
+        this.revision = Math.max(revision + 1, SystemClock.now());
+        this.changeStartRevision = revision;
+        this.changeLog.clear();
+        this.fileLastModified = file.lastModified();
+        this.fileLength = file.length();
+    }
+
+    /**
+     * 追加日志是否基于当前的数据文件写入
+     *
+     * @return false 数据文件已经变化或者日志没有记录基准
+     */
+    private boolean checkJournalBase() {
+        String first;
+        try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) {
+            first = reader.readLine();
+        } catch (IOException e) {
+            throw new JpomRuntimeException(I18nMessageUtil.get("i18n.data_file_content_error.e86f") + journalFile.getAbsolutePath(), e);
+        }
+        if (StrUtil.isBlank(first)) {
+            // 空日志
+            return true;
+        }
+        JSONObject base;
+        try {
+            base = JSONObject.parseObject(first);
+        } catch (Exception e) {
+            return false;
+        }
+        return StrUtil.equals(base.getString("t"), "base")
+            && base.getLongValue("m") == file.lastModified()
+            && base.getLongValue("l") == file.length();
+    }
+
+    private void appendJournal(JSONObject journal) {
+        try {
+            if (journalWriter == null) {
+                FileUtil.mkParentDirs(journalFile);
+                boolean newJournal = journalFile.length() == 0;
+                journalWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journalFile, true), StandardCharsets.UTF_8));
+                if (newJournal) {
+                    // 记录日志基于的数据文件
+                    JSONObject base = new JSONObject();
+                    base.put("t", "base");
+                    base.put("m", fileLastModified);
+                    base.put("l", fileLength);
+                    journalWriter.write(base.toJSONString());
+                    journalWriter.write(StrUtil.LF);
+                }
+            }
+            journalWriter.write(journal.toJSONString());
+            journalWriter.write(StrUtil.LF);
+            journalWriter.flush();
+            journalCount++;
+        } catch (IOException e) {
+            // 追加失败直接写回整个文件，保证数据不丢失
+            this.closeJournal();
+            this.compact0();
+        }
+    }
+
+    private void compact0() {
+        File tempFile = new File(file.getAbsolutePath() + ".tmp");
+        FileUtil.writeString(toJsonString(data), tempFile, CharsetUtil.CHARSET_UTF_8);
+        try {
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // 部分文件系统不支持原子移动
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new JpomRuntimeException(I18nMessageUtil.get("i18n.data_file_compact_failed.a61e") + file.getAbsolutePath(), e);
+        }
+        // 数据文件写入成功后再删除日志，中途异常重放日志结果一致
+        this.closeJournal();
+        FileUtil.del(journalFile);
+        this.journalCount = 0;
+        this.fileLastModified = file.lastModified();
+        this.fileLength = file.length();
+    }
+
+    private void closeJournal() {
+        if (journalWriter != null) {
+            try {
+                journalWriter.close();
+            } catch (IOException ignored) {
+            }
+            journalWriter = null;
+        }
+    }
+
+    /**
+     * 数据变更
+     *
+     * @param <E> 类型
+     */
+    @Data
+    public static class Changes<E> {
+        /**
+         * 当前版本
+         */
+        private long revision;
+        /**
+         * 是否为全部数据
+         */
+        private boolean full;
+        /**
+         * 新增或者修改的数据，全量时为全部数据
+         */
+        private List<E> list;
+        /**
+         * 删除的数据id
+         */
+        private List<String> delete;
+    }
+}
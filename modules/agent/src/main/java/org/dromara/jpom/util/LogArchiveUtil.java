@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSON;
+import lombok.Data;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 控制台日志压缩归档
+ * <p>
+ * 流式读取日志文件压缩写入归档文件，不再先完整复制一份。复制过程中追加写入的内容会继续复制，追上写入位置后立即截断原文件。
+ * 归档文件由多个 gzip 分段组成，每个分段从一行的开头开始，分段的行号和偏移量保存在 [归档文件名].idx，读取指定行时只需要解压对应的分段
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class LogArchiveUtil {
+
+    public static final String ARCHIVE_SUFFIX = ".log.gz";
+    public static final String INDEX_SUFFIX = ".idx";
+    /**
+     * 每个 gzip 分段的原始字节数
+     */
+    static final long BLOCK_SIZE = 4 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * 最多追赶多少轮追加写入的内容，避免持续高速写入时一直无法截断
+     */
+    private static final int MAX_CATCH_UP = 8;
+
+    /**
+     * 压缩归档日志文件并截断原文件
+     *
+     * @param file    日志文件
+     * @param archive 归档文件
+     * @return 归档索引
+     * @throws IOException io
+     */
+    public static ArchiveIndex rotate(File file, File archive) throws IOException {
+        return rotate(file, archive, BLOCK_SIZE);
+    }
+
+    static ArchiveIndex rotate(File file, File archive, long blockSize) throws IOException {
+        FileUtil.mkParentDirs(archive);
+        ArchiveIndex index;
+        try (FileChannel source = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileOutputStream outputStream = new FileOutputStream(archive)) {
+            ArchiveWriter writer = new ArchiveWriter(outputStream, blockSize);
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long copied = 0;
+            int round = 0;
+            while (true) {
+                long size = source.size();
+                if (size < copied) {
+                    // 已经被其他程序截断
+                    break;
+                }
+                if (size > copied) {
+                    copied = writer.transfer(source, buffer, copied, size);
+                    if (++round < MAX_CATCH_UP) {
+                        continue;
+                    }
+                    // 不再继续追赶，复制最后一次增量
+                    size = source.size();
+                    if (size > copied) {
+                        copied = writer.transfer(source, buffer, copied, size);
+                    }
+                    if (source.size() < copied) {
+                        break;
+                    }
+                }
+                // 已经复制到写入位置，立即截断（读取大小到截断之间追加的内容会丢失，copytruncate 方式无法避免）
+                source.truncate(0);
+                break;
+            }
+            index = writer.finish();
+        }
+        FileUtil.writeString(JSON.toJSONString(index), indexFile(archive), StandardCharsets.UTF_8);
+        return index;
+    }
+
+    /**
+     * 归档文件对应的索引文件
+     *
+     * @param archive 归档文件
+     * @return 索引文件
+     */
+    public static File indexFile(File archive) {
+        return new File(archive.getParentFile(), archive.getName() + INDEX_SUFFIX);
+    }
+
+    /**
+     * 读取归档文件的索引
+     *
+     * @param archive 归档文件
+     * @return 不存在返回 null
+     */
+    public static ArchiveIndex readIndex(File archive) {
+        File file = indexFile(archive);
+        if (!FileUtil.isFile(file)) {
+            return null;
+        }
+        return JSON.parseObject(FileUtil.readString(file, StandardCharsets.UTF_8), ArchiveIndex.class);
+    }
+
+    /**
+     * 读取日志备份的指定行，兼容未压缩的备份
+     *
+     * @param file    备份文件
+     * @param charset 编码格式
+     * @param line    开始行号（从 1 开始）
+     * @param limit   读取行数
+     * @return 行内容
+     * @throws IOException io
+     */
+    public static List<String> readLines(File file, Charset charset, long line, int limit) throws IOException {
+        line = Math.max(line, 1);
+        long skip = line - 1;
+        long position = 0;
+        boolean gzip = StrUtil.endWith(file.getName(), ".gz");
+        if (gzip) {
+            ArchiveIndex index = readIndex(file);
+            if (index != null && index.getBlocks() != null) {
+                for (Block block : index.getBlocks()) {
+                    if (block.getLine() >= line) {
+                        break;
+                    }
+                    position = block.getCompressedOffset();
+                    skip = line - 1 - block.getLine();
+                }
+            }
+        }
+        List<String> list = new ArrayList<>(Math.max(limit, 0));
+        try (FileInputStream fileInputStream = new FileInputStream(file)) {
+            fileInputStream.getChannel().position(position);
+            InputStream inputStream = gzip ? new GZIPInputStream(fileInputStream, BUFFER_SIZE) : fileInputStream;
+            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, charset), BUFFER_SIZE);
+            for (long i = 0; i < skip; i++) {
+                if (reader.readLine() == null) {
+                    return list;
+                }
+            }
+            String str;
+            while (list.size() < limit && (str = reader.readLine()) != null) {
+                list.add(str);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 分段写入 gzip，记录每个分段的开始行号和偏移量
+     */
+    private static class ArchiveWriter {
+
+        private final FileOutputStream outputStream;
+        private final OutputStream shieldStream;
+        private final long blockSize;
+        private final ArchiveIndex index = new ArchiveIndex();
+        private GZIPOutputStream gzip;
+        private long blockBytes;
+        private long offset;
+        private long lines;
+        private byte lastByte = '\n';
+
+        ArchiveWriter(FileOutputStream outputStream, long blockSize) {
+            this.outputStream = outputStream;
+            this.blockSize = blockSize;
+            // 关闭分段时不关闭文件
+            this.shieldStream = new FilterOutputStream(outputStream) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+            index.setBlocks(new ArrayList<>());
+        }
+
+        long transfer(FileChannel source, ByteBuffer buffer, long position, long end) throws IOException {
+            while (position < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                int read = source.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                this.write(buffer.array(), read);
+                position += read;
+            }
+            return position;
+        }
+
+        private void write(byte[] bytes, int len) throws IOException {
+            int start = 0;
+            for (int i = 0; i < len; i++) {
+                if (bytes[i] != '\n') {
+                    continue;
+                }
+                lines++;
+                // 分段只在行尾切换
+                if (blockBytes + i + 1 - start >= blockSize) {
+                    this.writeBlock(bytes, start, i + 1 - start);
+                    this.closeBlock();
+                    start = i + 1;
+                }
+            }
+            if (start < len) {
+                this.writeBlock(bytes, start, len - start);
+            }
+            if (len > 0) {
+                lastByte = bytes[len - 1];
+            }
+        }
+
+        private void writeBlock(byte[] bytes, int off, int len) throws IOException {
+            if (gzip == null) {
+                Block block = new Block();
+                block.setLine(lines - countLines(bytes, off, len));
+                block.setOffset(offset);
+                block.setCompressedOffset(outputStream.getChannel().position());
+                index.getBlocks().add(block);
+                gzip = new GZIPOutputStream(shieldStream, BUFFER_SIZE);
+            }
+            gzip.write(bytes, off, len);
+            blockBytes += len;
+            offset += len;
+        }
+
+        private void closeBlock() throws IOException {
+            if (gzip != null) {
+                gzip.close();
+                gzip = null;
+                blockBytes = 0;
+            }
+        }
+
+        ArchiveIndex finish() throws IOException {
+            this.closeBlock();
+            index.setBytes(offset);
+            index.setLines(lastByte == '\n' ? lines : lines + 1);
+            return index;
+        }
+
+        /**
+         * 写入分段前已经统计了当前数据中的换行，需要减去得到分段开始的行号
+         */
+        private static long countLines(byte[] bytes, int off, int len) {
+            long count = 0;
+            for (int i = off; i < off + len; i++) {
+                if (bytes[i] == '\n') {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * 归档索引
+     */
+    @Data
+    public static class ArchiveIndex {
+        /**
+         * 原始字节数
+         */
+        private long bytes;
+        /**
+         * 总行数
+         */
+        private long lines;
+        /**
+         * 分段
+         */
+        private List<Block> blocks;
+    }
+
+    /**
+     * gzip 分段
+     */
+    @Data
+    public static class Block {
+        /**
+         * 分段之前的行数
+         */
+        private long line;
+        /**
+         * 分段在原始文件中的偏移量
+         */
+        private long offset;
+        /**
+         * 分段在归档文件中的偏移量
+         */
+        private long compressedOffset;
+    }
+}
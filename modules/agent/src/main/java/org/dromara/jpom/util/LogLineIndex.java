@@ -0,0 +1,440 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.io.FileUtil;
+import com.alibaba.fastjson2.JSON;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 日志文件稀疏行号索引
+ * <p>
+ * 每隔固定行数记录一次行首的偏移量，文件增长时只读取新增的内容。较大的日志文件索引保存在 [日志文件名].idx，重启后继续使用。
+ * 文件头内容或者大小和索引不一致（被截断、替换）时重新建立索引
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class LogLineIndex {
+
+    public static final String INDEX_SUFFIX = ".idx";
+    /**
+     * 每多少行记录一次偏移量
+     */
+    static final int INTERVAL = 4096;
+    /**
+     * 计算文件头校验值的字节数
+     */
+    private static final int HEAD_SIZE = 1024;
+    /**
+     * 超过此大小的日志文件才保存索引，小文件重新建立索引的耗时可以忽略
+     */
+    static final long PERSIST_MIN_SIZE = 8 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int CACHE_SIZE = 64;
+    /**
+     * 最近使用的索引
+     */
+    private static final Map<String, LogLineIndex> CACHE = new LinkedHashMap<String, LogLineIndex>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LogLineIndex> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final File file;
+    private IndexData data;
+
+    private LogLineIndex(File file) {
+        this.file = file;
+    }
+
+    /**
+     * 获取日志文件的索引，并索引到文件末尾
+     *
+     * @param file 日志文件
+     * @return 索引
+     * @throws IOException io
+     */
+    public static LogLineIndex get(File file) throws IOException {
+        String key = FileUtil.getAbsolutePath(file);
+        LogLineIndex index;
+        synchronized (CACHE) {
+            index = CACHE.computeIfAbsent(key, s -> new LogLineIndex(file));
+        }
+        index.refresh();
+        return index;
+    }
+
+    /**
+     * 日志文件对应的索引文件
+     *
+     * @param file 日志文件
+     * @return 索引文件
+     */
+    public static File indexFile(File file) {
+        return new File(file.getParentFile(), file.getName() + INDEX_SUFFIX);
+    }
+
+    /**
+     * 读取新增的内容更新索引
+     *
+     * @throws IOException io
+     */
+    public synchronized void refresh() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (data == null) {
+                data = this.load(channel, size);
+            } else if (!this.validate(channel, size, data)) {
+                data = null;
+            }
+            if (data == null) {
+                data = new IndexData();
+                data.setOffsets(new long[]{0});
+                data.setCheckpoints(1);
+            }
+            if (size == data.getIndexedLength()) {
+                data.setFileLength(size);
+                return;
+            }
+            this.scan(channel, size);
+            this.saveHead(channel);
+            this.persist(size);
+        }
+    }
+
+    /**
+     * 从已经索引的位置读取到文件末尾，记录完整的行
+     */
+    private void scan(FileChannel channel, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] bytes = buffer.array();
+        long position = data.getIndexedLength();
+        long lineCount = data.getLineCount();
+        long[] offsets = data.getOffsets();
+        int checkpoints = data.getCheckpoints();
+        long lastLineEnd = position;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (bytes[i] != '\n') {
+                    continue;
+                }
+                lineCount++;
+                lastLineEnd = position + i + 1;
+                if (lineCount % INTERVAL == 0) {
+                    if (checkpoints == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                    }
+                    offsets[checkpoints++] = lastLineEnd;
+                }
+            }
+            position += read;
+        }
+        data.setIndexedLength(lastLineEnd);
+        data.setLineCount(lineCount);
+        data.setOffsets(offsets);
+        data.setCheckpoints(checkpoints);
+        data.setFileLength(size);
+    }
+
+    /**
+     * 记录文件头的校验值，用于判断文件是否被替换
+     */
+    private void saveHead(FileChannel channel) throws IOException {
+        int headLength = (int) Math.min(HEAD_SIZE, data.getIndexedLength());
+        if (data.getHeadLength() == headLength) {
+            return;
+        }
+        data.setHeadLength(headLength);
+        data.setHeadCrc(crc(channel, headLength));
+    }
+
+    private boolean validate(FileChannel channel, long size, IndexData indexData) throws IOException {
+        if (size < indexData.getIndexedLength()) {
+            return false;
+        }
+        return indexData.getHeadLength() == 0 || crc(channel, indexData.getHeadLength()) == indexData.getHeadCrc();
+    }
+
+    private IndexData load(FileChannel channel, long size) {
+        File indexFile = indexFile(file);
+        if (!FileUtil.isFile(indexFile)) {
+            return null;
+        }
+        try {
+            IndexData indexData = JSON.parseObject(FileUtil.readString(indexFile, StandardCharsets.UTF_8), IndexData.class);
+            if (indexData == null || indexData.getInterval() != INTERVAL || indexData.getOffsets() == null
+                || indexData.getCheckpoints() < 1 || indexData.getCheckpoints() > indexData.getOffsets().length) {
+                return null;
+            }
+            return this.validate(channel, size, indexData) ? indexData : null;
+        } catch (Exception e) {
+            log.debug("load log line index {} failed", indexFile, e);
+            return null;
+        }
+    }
+
+    private void persist(long size) {
+        File indexFile = indexFile(file);
+        if (size < PERSIST_MIN_SIZE) {
+            return;
+        }
+        try {
+            IndexData copy = new IndexData();
+            copy.setIndexedLength(data.getIndexedLength());
+            copy.setFileLength(data.getFileLength());
+            copy.setLineCount(data.getLineCount());
+            copy.setHeadLength(data.getHeadLength());
+            copy.setHeadCrc(data.getHeadCrc());
+            copy.setCheckpoints(data.getCheckpoints());
+            copy.setOffsets(Arrays.copyOf(data.getOffsets(), data.getCheckpoints()));
+            FileUtil.writeString(JSON.toJSONString(copy), indexFile, StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            // 日志目录没有写权限等，不影响读取
+            log.debug("save log line index {} failed", indexFile, e);
+        }
+    }
+
+    private static long crc(FileChannel channel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) <= 0) {
+                break;
+            }
+        }
+        CRC32 crc32 = new CRC32();
+        crc32.update(buffer.array(), 0, buffer.position());
+        return crc32.getValue();
+    }
+
+    /**
+     * 文件总行数，最后一行没有换行符也计算在内
+     *
+     * @return 行数
+     */
+    public synchronized long getLineCount() {
+        return data.getLineCount() + (data.getFileLength() > data.getIndexedLength() ? 1 : 0);
+    }
+
+    /**
+     * 已经索引的文件大小
+     *
+     * @return 字节数
+     */
+    public synchronized long getFileLength() {
+        return data.getFileLength();
+    }
+
+    /**
+     * 查找指定行的开始位置，从最近的记录点向后查找
+     *
+     * @param line 行号（从 1 开始）
+     * @return 偏移量，超过总行数返回文件大小
+     * @throws IOException io
+     */
+    public long offsetOfLine(long line) throws IOException {
+        long start;
+        long skip;
+        long fileLength;
+        synchronized (this) {
+            fileLength = data.getFileLength();
+            if (line > this.getLineCount()) {
+                return fileLength;
+            }
+            long zeroLine = Math.max(line, 1) - 1;
+            int checkpoint = (int) Math.min(zeroLine / INTERVAL, data.getCheckpoints() - 1);
+            start = data.getOffsets()[checkpoint];
+            skip = zeroLine - (long) checkpoint * INTERVAL;
+        }
+        if (skip == 0) {
+            return start;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            byte[] bytes = buffer.array();
+            long position = start;
+            while (position < fileLength) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (bytes[i] == '\n' && --skip == 0) {
+                        return position + i + 1;
+                    }
+                }
+                position += read;
+            }
+        }
+        return fileLength;
+    }
+
+    /**
+     * 从文件末尾向前查找最后几行的开始位置，使用内存映射逐段向前读取
+     *
+     * @param lines 行数
+     * @return 偏移量
+     * @throws IOException io
+     */
+    public long tailOffset(long lines) throws IOException {
+        long fileLength = this.getFileLength();
+        if (lines <= 0) {
+            return fileLength;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // 映射的区域不能超过文件当前大小
+            long end = Math.min(fileLength, channel.size());
+            long window = 64 * 1024;
+            long found = 0;
+            // 最后一个字符为换行符时不算新的一行
+            boolean skipLast = true;
+            while (end > 0) {
+                long start = Math.max(0, end - window);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                for (int i = (int) (end - start) - 1; i >= 0; i--) {
+                    if (buffer.get(i) != '\n') {
+                        skipLast = false;
+                        continue;
+                    }
+                    if (skipLast) {
+                        skipLast = false;
+                        continue;
+                    }
+                    if (++found == lines) {
+                        return start + i + 1;
+                    }
+                }
+                end = start;
+                window = Math.min(window * 2, 64 * 1024 * 1024);
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * 从指定位置逐行读取，按照换行符分割，去掉行尾的回车符
+     *
+     * @param offset  开始位置
+     * @param charset 编码格式
+     * @param handler 行回调，返回 false 停止读取
+     * @throws IOException io
+     */
+    public void readLines(long offset, Charset charset, LineHandler handler) throws IOException {
+        long fileLength = this.getFileLength();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            channel.position(offset);
+            InputStream inputStream = Channels.newInputStream(channel);
+            byte[] buffer = new byte[64 * 1024];
+            byte[] line = new byte[1024];
+            int lineLength = 0;
+            long position = offset;
+            while (position < fileLength) {
+                int read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, fileLength - position));
+                if (read <= 0) {
+                    break;
+                }
+                position += read;
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (b == '\n') {
+                        if (!handler.handle(decode(line, lineLength, charset))) {
+                            return;
+                        }
+                        lineLength = 0;
+                        continue;
+                    }
+                    if (lineLength == line.length) {
+                        line = Arrays.copyOf(line, line.length * 2);
+                    }
+                    line[lineLength++] = b;
+                }
+            }
+            if (lineLength > 0) {
+                handler.handle(decode(line, lineLength, charset));
+            }
+        }
+    }
+
+    private static String decode(byte[] line, int length, Charset charset) {
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        return new String(line, 0, length, charset);
+    }
+
+    /**
+     * 行回调
+     */
+    @FunctionalInterface
+    public interface LineHandler {
+
+        /**
+         * 处理一行
+         *
+         * @param line 行内容
+         * @return false 停止读取
+         */
+        boolean handle(String line);
+    }
+
+    /**
+     * 索引数据
+     */
+    @Data
+    public static class IndexData {
+        private int interval = INTERVAL;
+        /**
+         * 完整的行结束的位置
+         */
+        private long indexedLength;
+        /**
+         * 索引时的文件大小
+         */
+        private long fileLength;
+        /**
+         * 完整的行数
+         */
+        private long lineCount;
+        private int headLength;
+        private long headCrc;
+        /**
+         * 有效的记录点数量
+         */
+        private int checkpoints;
+        /**
+         * 第 n * INTERVAL + 1 行的开始位置
+         */
+        private long[] offsets;
+    }
+}
@@ -13,7 +13,6 @@ import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.date.SystemClock;
 import cn.hutool.core.util.NumberUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.system.oshi.CpuInfo;
 import cn.hutool.system.oshi.OshiUtil;
 import com.alibaba.fastjson2.JSONObject;
 import lombok.Data;
@@ -26,7 +25,6 @@ import oshi.software.os.NetworkParams;
 import oshi.software.os.OSFileStore;
 import oshi.software.os.OperatingSystem;
 import oshi.util.GlobalConfig;
-import oshi.util.Util;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -42,9 +40,6 @@ import java.util.stream.Stream;
  */
 public class OshiUtils {
 
-    public static final int NET_STAT_SLEEP = 1000;
-    public static final int CPU_STAT_SLEEP = 1000;
-
     private static final PathMatcher pathMatcher = new AntPathMatcher();
 
     static {
@@ -98,16 +93,35 @@ public class OshiUtils {
         return jsonObject;
     }
 
+    /**
+     * 创建采样状态，作为第一次采样计算 cpu 使用率和网络流量的基准
+     *
+     * @param monitorConfig 监控配置
+     * @return 采样状态
+     */
+    public static SampleState createSampleState(MonitorConfig monitorConfig) {
+        SampleState sampleState = new SampleState();
+        sampleState.setCpuTicks(OshiUtil.getProcessor().getSystemCpuLoadTicks());
+        sampleState.setNetIoInfo(getNetInfo(getNetworkConfig(monitorConfig)));
+        sampleState.setTime(SystemClock.now());
+        return sampleState;
+    }
+
     /**
      * 获取信息简单的基础状态信息
+     * <p>
+     * cpu 使用率和网络流量使用和上一次采样之间的差值，不需要休眠等待。网络流量为每秒的字节数
      *
+     * @param monitorConfig 监控配置
+     * @param sampleState   上一次采样的状态，采样后更新为本次的状态
      * @return json
      */
-    public static JSONObject getSimpleInfo(MonitorConfig monitorConfig) {
+    public static JSONObject getSimpleInfo(MonitorConfig monitorConfig, SampleState sampleState) {
         JSONObject jsonObject = new JSONObject();
-        jsonObject.put("time", SystemClock.now());
-        CpuInfo cpuInfo = OshiUtil.getCpuInfo(CPU_STAT_SLEEP);
-        jsonObject.put("cpu", cpuInfo.getUsed());
+        long now = SystemClock.now();
+        jsonObject.put("time", now);
+        long[] cpuTicks = OshiUtil.getProcessor().getSystemCpuLoadTicks();
+        jsonObject.put("cpu", getCpuUsed(sampleState.getCpuTicks(), cpuTicks));
         //
         GlobalMemory globalMemory = OshiUtil.getMemory();
         // 在不使用交换空间的情况下，启动一个新的应用最大可用内存的大小，
@@ -135,19 +149,43 @@ public class OshiUtils {
         }
         jsonObject.put("disk", NumberUtil.div(used, total, 2) * 100);
         //
-
-        MonitorConfig.NetworkConfig networkConfig1 = Optional.ofNullable(monitorConfig)
-            .map(MonitorConfig::getNetwork).orElse(null);
-        NetIoInfo startNetInfo = getNetInfo(networkConfig1);
-        //暂停1秒
-        Util.sleep(NET_STAT_SLEEP);
-        NetIoInfo endNetInfo = getNetInfo(networkConfig1);
-        jsonObject.put("netTxBytes", endNetInfo.getTxbyt() - startNetInfo.getTxbyt());
-        jsonObject.put("netRxBytes", endNetInfo.getRxbyt() - startNetInfo.getRxbyt());
+        NetIoInfo startNetInfo = sampleState.getNetIoInfo();
+        NetIoInfo endNetInfo = getNetInfo(getNetworkConfig(monitorConfig));
+        long elapsed = Math.max(now - sampleState.getTime(), 1);
+        jsonObject.put("netTxBytes", (endNetInfo.getTxbyt() - startNetInfo.getTxbyt()) * 1000 / elapsed);
+        jsonObject.put("netRxBytes", (endNetInfo.getRxbyt() - startNetInfo.getRxbyt()) * 1000 / elapsed);
         jsonObject.put("monitorIfsNames", endNetInfo.getIfsNames());
+        //
+        sampleState.setCpuTicks(cpuTicks);
+        sampleState.setNetIoInfo(endNetInfo);
+        sampleState.setTime(now);
         return jsonObject;
     }
 
+    /**
+     * 计算两次采样之间的 cpu 使用率
+     *
+     * @param prevTicks 上一次的 cpu ticks
+     * @param ticks     本次的 cpu ticks
+     * @return 使用率（百分比）
+     */
+    private static double getCpuUsed(long[] prevTicks, long[] ticks) {
+        long total = 0;
+        for (int i = 0; i < ticks.length; i++) {
+            total += ticks[i] - prevTicks[i];
+        }
+        if (total <= 0) {
+            return 0;
+        }
+        int idleIndex = CentralProcessor.TickType.IDLE.getIndex();
+        long idle = ticks[idleIndex] - prevTicks[idleIndex];
+        return NumberUtil.round((1 - (double) idle / total) * 100, 2).doubleValue();
+    }
+
+    private static MonitorConfig.NetworkConfig getNetworkConfig(MonitorConfig monitorConfig) {
+        return Optional.ofNullable(monitorConfig).map(MonitorConfig::getNetwork).orElse(null);
+    }
+
     private static NetIoInfo getNetInfo(MonitorConfig.NetworkConfig networkConfig) {
         //
         List<String> statExcludeNames = Optional.ofNullable(networkConfig)
@@ -370,4 +408,14 @@ public class OshiUtils {
          */
         private String ifsNames;
     }
+
+    /**
+     * 采样状态，保存上一次采样的 cpu ticks 和网络流量
+     */
+    @Data
+    public static class SampleState {
+        private long[] cpuTicks;
+        private NetIoInfo netIoInfo;
+        private long time;
+    }
 }
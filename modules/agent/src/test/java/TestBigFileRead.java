@@ -18,8 +18,10 @@ import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.system.SystemUtil;
 import org.dromara.jpom.util.FileSearchUtil;
+import org.dromara.jpom.util.LogLineIndex;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.*;
@@ -204,4 +206,53 @@ public class TestBigFileRead {
         System.out.println(Arrays.toString(FileSearchUtil.calculate(20, 3, false)));
     }
 
+    /**
+     * 多 GB 日志搜索最后 100 行：逐行读取全部内容和行号索引 + 向前查找对比
+     * <p>
+     * 文件大小通过 -Djpom.bigfile.size=4096（MB）指定，默认 2GB
+     *
+     * @throws IOException io
+     */
+    @Test
+    @Ignore("benchmark")
+    public void testBenchmarkSearchTail() throws IOException {
+        long size = Long.getLong("jpom.bigfile.size", 2048) * 1024 * 1024;
+        File file = FileUtil.file(SystemUtil.getUserInfo().getTempDir(), "jpom", "test-big-search.log");
+        if (FileUtil.size(file) < size) {
+            FileUtil.del(file);
+            FileUtil.del(LogLineIndex.indexFile(file));
+            String body = RandomUtil.randomString(180);
+            try (BufferedWriter writer = FileUtil.getWriter(file, CharsetUtil.CHARSET_UTF_8, true)) {
+                long written = 0;
+                for (long line = 1; written < size; line++) {
+                    String text = line + (line % 1000 == 0 ? " ERROR " : " INFO ") + body;
+                    writer.write(text);
+                    writer.newLine();
+                    written += text.length() + 1;
+                }
+            }
+        }
+        System.out.println(FileUtil.readableFileSize(file));
+        int[] count = new int[1];
+        long start = System.currentTimeMillis();
+        FileSearchUtil.readLastLine(file, CharsetUtil.CHARSET_UTF_8, 100).forEach(tuple -> {
+            String line = tuple.get(1);
+            if (StrUtil.containsIgnoreCase(line, "error")) {
+                count[0]++;
+            }
+        });
+        System.out.println(StrUtil.format("LineNumberReader: {} ms, {} hit", System.currentTimeMillis() - start, count[0]));
+        for (String name : new String[]{"index cold", "index warm"}) {
+            count[0] = 0;
+            start = System.currentTimeMillis();
+            String msg = FileSearchUtil.searchList(file, CharsetUtil.CHARSET_UTF_8, "error", 0, 0, 0, 100, false, tuple -> count[0]++);
+            System.out.println(StrUtil.format("{}: {} ms, {} hit, {}", name, System.currentTimeMillis() - start, count[0], msg));
+        }
+        // 追加内容后增量更新索引
+        FileUtil.appendUtf8String("appended ERROR line\n", file);
+        count[0] = 0;
+        start = System.currentTimeMillis();
+        FileSearchUtil.searchList(file, CharsetUtil.CHARSET_UTF_8, "error", 0, 0, 0, 100, false, tuple -> count[0]++);
+        System.out.println(StrUtil.format("index append: {} ms, {} hit", System.currentTimeMillis() - start, count[0]));
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.common.commander;
+
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import org.databene.contiperf.PerfTest;
+import org.databene.contiperf.junit.ContiPerfRule;
+import org.dromara.jpom.util.CommandUtil;
+import org.dromara.jpom.util.JvmUtil;
+import org.junit.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程表快照和逐个项目执行 jps 的性能对比
+ * <p>
+ * 模拟一次状态查询 80 个项目
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class ProcessTableSnapshotTest {
+
+    @Rule
+    public ContiPerfRule i = new ContiPerfRule();
+
+    private static final int PROJECT_COUNT = 80;
+    /**
+     * 其中一个项目为真实运行的进程
+     */
+    private static Process process;
+    private static final Map<String, Integer> JPS_PID = new HashMap<>();
+
+    @BeforeClass
+    public static void startProcess() throws Exception {
+        String javaBin = FileUtil.file(System.getProperty("java.home"), "bin", "java").getAbsolutePath();
+        String tag = JvmUtil.getJpomPidTag("project_0", FileUtil.getTmpDirPath()).split(" ")[0];
+        process = new ProcessBuilder(javaBin, tag, "-cp", System.getProperty("java.class.path"), SleepMain.class.getName()).start();
+        long end = System.currentTimeMillis() + 10_000;
+        while (JvmUtil.getPidByTag("project_0") == null && System.currentTimeMillis() < end) {
+            TimeUnit.MILLISECONDS.sleep(200);
+        }
+        // 和 JvmUtil.getPidByTag 相同的解析方式，只执行一次 jps
+        List<String> list = StrUtil.splitTrim(CommandUtil.execSystemCommand("jps -mv"), StrUtil.LF);
+        for (int j = 0; j < PROJECT_COUNT; j++) {
+            String projectTag = "project_" + j;
+            list.stream()
+                .filter(s -> JvmUtil.checkCommandLineIsJpom(s, projectTag))
+                .findAny()
+                .ifPresent(s -> JPS_PID.put(projectTag, Convert.toInt(StrUtil.subBefore(s, StrUtil.SPACE, false))));
+        }
+        Assert.assertNotNull(JPS_PID.get("project_0"));
+    }
+
+    @AfterClass
+    public static void stopProcess() {
+        if (process != null) {
+            process.destroyForcibly();
+        }
+    }
+
+    @Test
+    @Ignore("benchmark")
+    @PerfTest(invocations = 20, threads = 1)
+    public void testJpsByTag() {
+        for (int j = 0; j < PROJECT_COUNT; j++) {
+            JvmUtil.getPidByTag("project_" + j);
+        }
+    }
+
+    @Test
+    @PerfTest(invocations = 20, threads = 1)
+    public void testSnapshot() {
+        ProcessTableSnapshot.invalidate();
+        for (int j = 0; j < PROJECT_COUNT; j++) {
+            String tag = "project_" + j;
+            Assert.assertEquals(tag, JPS_PID.get(tag), ProcessTableSnapshot.get(2000).getPid(tag));
+        }
+    }
+
+    @Test
+    public void testLoadByProc() throws Exception {
+        File proc = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-proc");
+        FileUtil.del(proc);
+        String cmdline = String.join("\0", "java", "-Xms64m", JvmUtil.getJpomPidTag("Demo1", "/opt/demo").split(" ")[0], "-jar", "demo.jar");
+        FileUtil.writeString(cmdline + "\0", FileUtil.file(proc, "101", "cmdline"), StandardCharsets.UTF_8);
+        // shell 包装的命令行为一个整体参数，不能识别为项目进程
+        FileUtil.writeString(String.join("\0", "sh", "-c", "nohup java -DJpom.application=demo2 -jar demo.jar &"), FileUtil.file(proc, "102", "cmdline"), StandardCharsets.UTF_8);
+        FileUtil.mkdir(FileUtil.file(proc, "self"));
+        try {
+            ProcessTableSnapshot snapshot = ProcessTableSnapshot.loadByProc(proc);
+            Assert.assertEquals(Integer.valueOf(101), snapshot.getPid("demo1"));
+            Assert.assertNull(snapshot.getPid("demo2"));
+            Assert.assertEquals(Boolean.TRUE, snapshot.isAlive(102));
+            Assert.assertEquals(Boolean.FALSE, snapshot.isAlive(103));
+        } finally {
+            FileUtil.del(proc);
+        }
+    }
+
+    /**
+     * 带项目标识运行的进程
+     */
+    public static class SleepMain {
+        public static void main(String[] args) throws InterruptedException {
+            TimeUnit.MINUTES.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.common.commander;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.system.SystemUtil;
+import org.dromara.jpom.common.commander.impl.LinuxProjectCommander;
+import org.dromara.jpom.configuration.AgentConfig;
+import org.dromara.jpom.util.ReadinessProbe;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 就绪检查 port 模式，进程没有监听端口时不能判定为就绪
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class ProjectReadinessTest {
+
+    @Test
+    public void testIsListening() {
+        Assert.assertFalse(ReadinessProbe.isListening(null, StrUtil.DASHED));
+        Assert.assertFalse(ReadinessProbe.isListening(StrUtil.EMPTY, StrUtil.DASHED));
+        Assert.assertFalse(ReadinessProbe.isListening(null, null));
+        Assert.assertTrue(ReadinessProbe.isListening(null, "8080"));
+        Assert.assertTrue(ReadinessProbe.isListening("8080,8081", StrUtil.DASHED));
+    }
+
+    @Test
+    public void testProcessWithoutPort() throws Exception {
+        if (!SystemUtil.getOsInfo().isLinux()) {
+            return;
+        }
+        Process process = new ProcessBuilder("sh", "-c", "echo $$; exec sleep 30").start();
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            int pid = Integer.parseInt(reader.readLine().trim());
+            ProcessTableSnapshot.invalidate();
+            SocketTableSnapshot.invalidate();
+            LinuxProjectCommander commander = new LinuxProjectCommander(new AgentConfig(null), null, null, null);
+            String mainPort = commander.getMainPort(pid);
+            Assert.assertEquals(StrUtil.DASHED, mainPort);
+            Assert.assertFalse(ReadinessProbe.isListening(null, mainPort));
+        } finally {
+            process.destroy();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.common.commander;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.system.SystemUtil;
+import org.dromara.jpom.model.system.NetstatModel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class SocketTableSnapshotTest {
+
+    @Test
+    public void testParseAddress() {
+        Assert.assertEquals("0.0.0.0:8080", SocketTableSnapshot.parseAddress("00000000:1F90"));
+        Assert.assertEquals("127.0.0.1:2123", SocketTableSnapshot.parseAddress("0100007F:084B"));
+        Assert.assertEquals(":::18000", SocketTableSnapshot.parseAddress("00000000000000000000000000000000:4650"));
+    }
+
+    @Test
+    public void testParseNetFile() {
+        List<String> lines = CollUtil.newArrayList(
+            "  sl  local_address rem_address   st tx_queue rx_queue tr tm->when retrnsmt   uid  timeout inode",
+            "   0: 00000000:1F90 00000000:0000 0A 00000000:00000000 00:00000000 00000000  1000        0 39115 1 0000000000000000 100 0 0 10 0",
+            "   1: 0100007F:1F90 0100007F:D2B4 08 00000000:00000001 00:00000000 00000000  1000        0 39116 1 0000000000000000 20 4 30 10 -1",
+            "   2: 0100007F:1F90 0100007F:D2B6 06 00000000:00000000 03:00000000 00000000     0        0 0 3 0000000000000000");
+        Map<Long, NetstatModel> map = new HashMap<>();
+        SocketTableSnapshot.parseNetFile("tcp", lines, map);
+        Assert.assertEquals(2, map.size());
+        Assert.assertEquals("LISTEN", map.get(39115L).getStatus());
+        Assert.assertEquals("CLOSE_WAIT", map.get(39116L).getStatus());
+        Assert.assertEquals("1", map.get(39116L).getReceive());
+    }
+
+    @Test
+    public void testSelf() throws Exception {
+        if (!SystemUtil.getOsInfo().isLinux()) {
+            return;
+        }
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            String port = StrUtil.COLON + serverSocket.getLocalPort();
+            SocketTableSnapshot.invalidate();
+            SocketTableSnapshot snapshot = SocketTableSnapshot.get(2000);
+            int pid = (int) SystemUtil.getCurrentPID();
+            List<NetstatModel> list = snapshot.list(pid, true);
+            Assert.assertTrue(list.stream().anyMatch(netstatModel -> StrUtil.endWith(netstatModel.getLocal(), port)));
+            // 有效期内复用同一个快照
+            Assert.assertSame(snapshot, SocketTableSnapshot.get(2000));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.service;
+
+import cn.hutool.core.date.SystemClock;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.crypto.SecureUtil;
+import org.junit.*;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * 分发文件仓库
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class ArtifactStoreServiceTest {
+
+    private File root;
+    private ArtifactStoreService storeService;
+
+    @Before
+    public void before() {
+        root = FileUtil.file(FileUtil.getTmpDir(), "jpom-test", "artifact-store", String.valueOf(SystemClock.now()));
+        storeService = new ArtifactStoreService() {
+            @Override
+            public File getStorePath() {
+                return FileUtil.file(root, "store");
+            }
+        };
+    }
+
+    @After
+    public void after() {
+        FileUtil.del(root);
+    }
+
+    private File createFile(String name) {
+        File file = FileUtil.file(root, "upload", RandomUtil.randomString(8), name);
+        FileUtil.writeBytes(RandomUtil.randomBytes(64 * 1024), file);
+        return file;
+    }
+
+    @Test
+    public void testPutAndCheckout() throws Exception {
+        File file = this.createFile("app.jar");
+        String digest = SecureUtil.md5(file);
+        String other = SecureUtil.md5("other");
+        Assert.assertTrue(storeService.exists(Arrays.asList(digest, other)).isEmpty());
+        storeService.put(digest, file);
+        Assert.assertFalse(file.exists());
+        Assert.assertEquals(Collections.singletonList(digest), storeService.exists(Arrays.asList(digest, other)));
+        // 重复保存
+        File file2 = this.createFile("app.jar");
+        FileUtil.copy(FileUtil.file(storeService.getStorePath(), digest, "app.jar"), file2, true);
+        storeService.put(digest, file2);
+        Assert.assertFalse(file2.exists());
+        // 每个项目取出一份，文件名和上传时一致
+        String tempPath = FileUtil.getAbsolutePath(FileUtil.file(root, "temp"));
+        File copy = storeService.checkout(digest, tempPath, false);
+        File link = storeService.checkout(digest, tempPath, true);
+        Assert.assertEquals("app.jar", copy.getName());
+        Assert.assertNotEquals(copy.getParentFile(), link.getParentFile());
+        Assert.assertEquals(digest, SecureUtil.md5(copy));
+        Assert.assertEquals(digest, SecureUtil.md5(link));
+        // 修改取出的文件不影响仓库
+        FileUtil.writeUtf8String("changed", copy);
+        FileUtil.del(link);
+        Assert.assertEquals(digest, SecureUtil.md5(FileUtil.file(storeService.getStorePath(), digest, "app.jar")));
+    }
+
+    @Test
+    public void testExpired() throws Exception {
+        File file = this.createFile("app.zip");
+        String digest = SecureUtil.md5(file);
+        storeService.put(digest, file);
+        File digestPath = FileUtil.file(storeService.getStorePath(), digest);
+        Assert.assertTrue(digestPath.setLastModified(SystemClock.now() - 2 * 24 * 60 * 60 * 1000L));
+        Assert.assertTrue(storeService.exists(Collections.singletonList(digest)).isEmpty());
+        Assert.assertFalse(digestPath.exists());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testInvalidDigest() {
+        storeService.exists(Collections.singletonList("../../etc"));
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.CharsetUtil;
+import cn.hutool.core.util.StrUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文件跟随批量发送、慢会话断开
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class BaseFileTailWatcherTest {
+
+    @Test
+    public void testBatch() throws Exception {
+        File file = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-tail", "batch.log");
+        FileUtil.writeUtf8String("history 1\r\nhistory 2\n", file);
+        TestWatcher watcher = new TestWatcher(file);
+        TestSession session = new TestSession("1", null);
+        try {
+            Assert.assertTrue(watcher.add(session, file.getName()));
+            Assert.assertFalse(watcher.add(session, file.getName()));
+            watcher.start();
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                lines.add("line " + i);
+            }
+            // 最后一行没有换行符，等待下次写入
+            FileUtil.appendUtf8String(String.join(StrUtil.LF, lines) + "\nhalf", file);
+            long end = System.currentTimeMillis() + 10_000;
+            while (session.lines().size() < lines.size() + 3 && System.currentTimeMillis() < end) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+            List<String> received = session.lines();
+            // 第一条为欢迎信息
+            Assert.assertEquals("history 1", received.get(1));
+            Assert.assertEquals("history 2", received.get(2));
+            Assert.assertEquals(lines, received.subList(3, received.size()));
+            Assert.assertTrue(session.messages.size() < lines.size() / 10);
+            FileUtil.appendUtf8String(" line\n", file);
+            TimeUnit.MILLISECONDS.sleep(FileTailEngine.POLL_INTERVAL * 3);
+            Assert.assertEquals("half line", session.messages.get(session.messages.size() - 1));
+        } finally {
+            watcher.close();
+            FileUtil.del(file.getParentFile());
+        }
+    }
+
+    @Test
+    public void testSlowSession() throws Exception {
+        File file = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-tail", "slow.log");
+        FileUtil.writeUtf8String("", file);
+        TestWatcher watcher = new TestWatcher(file);
+        CountDownLatch latch = new CountDownLatch(1);
+        TestSession slow = new TestSession("slow", latch);
+        TestSession fast = new TestSession("fast", null);
+        try {
+            watcher.add(slow, file.getName());
+            watcher.add(fast, file.getName());
+            watcher.start();
+            // 每行达到单条消息的上限，一次读取拆分为多条消息
+            int count = FileTailEngine.SUBSCRIBER_QUEUE_SIZE + 10;
+            String line = StrUtil.repeat('a', FileTailEngine.BATCH_MAX_SIZE);
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < count; i++) {
+                builder.append(line).append(StrUtil.LF);
+            }
+            FileUtil.appendUtf8String(builder.toString(), file);
+            long end = System.currentTimeMillis() + 10_000;
+            while (fast.messages.size() < count + 1 && System.currentTimeMillis() < end) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+            Assert.assertEquals(count + 1, fast.messages.size());
+            Assert.assertTrue(slow.closed);
+            Assert.assertFalse(fast.closed);
+            Assert.assertEquals(1, watcher.sessions().size());
+        } finally {
+            latch.countDown();
+            watcher.close();
+            FileUtil.del(file.getParentFile());
+        }
+    }
+
+    @Test
+    public void testStalledSession() throws Exception {
+        File file = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-tail", "stalled.log");
+        FileUtil.writeUtf8String("", file);
+        TestWatcher watcher = new TestWatcher(file);
+        // 一直不返回的会话
+        CountDownLatch latch = new CountDownLatch(1);
+        TestSession stalled = new TestSession("stalled", latch);
+        List<TestSession> fastList = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            fastList.add(new TestSession("fast" + i, null));
+        }
+        long sendTimeout = FileTailEngine.getSendTimeout();
+        FileTailEngine.setSendTimeout(1000);
+        try {
+            watcher.add(stalled, file.getName());
+            for (TestSession fast : fastList) {
+                watcher.add(fast, file.getName());
+            }
+            watcher.start();
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                lines.add("line " + i);
+                FileUtil.appendUtf8String("line " + i + StrUtil.LF, file);
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+            long end = System.currentTimeMillis() + 10_000;
+            while ((!stalled.closed || fastList.stream().anyMatch(fast -> fast.lines().size() < lines.size() + 1)) && System.currentTimeMillis() < end) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+            // 卡住的会话超时后被断开，发送线程被中断释放
+            Assert.assertTrue(stalled.closed);
+            Assert.assertTrue(stalled.interrupted);
+            Assert.assertEquals(fastList.size(), watcher.sessions().size());
+            for (TestSession fast : fastList) {
+                Assert.assertFalse(fast.closed);
+                Assert.assertEquals(lines, fast.lines().subList(1, fast.lines().size()));
+            }
+        } finally {
+            FileTailEngine.setSendTimeout(sendTimeout);
+            latch.countDown();
+            watcher.close();
+            FileUtil.del(file.getParentFile());
+        }
+    }
+
+    private static class TestWatcher extends BaseFileTailWatcher<TestSession> {
+
+        TestWatcher(File logFile) {
+            super(logFile, CharsetUtil.CHARSET_UTF_8);
+        }
+
+        @Override
+        protected boolean send(TestSession session, String msg) throws IOException {
+            if (session.latch != null) {
+                try {
+                    session.latch.await();
+                } catch (InterruptedException e) {
+                    session.interrupted = true;
+                    throw new IOException(e);
+                }
+            }
+            session.messages.add(msg);
+            return true;
+        }
+
+        @Override
+        protected String getId(TestSession session) {
+            return session.id;
+        }
+    }
+
+    private static class TestSession implements AutoCloseable {
+        private final String id;
+        private final CountDownLatch latch;
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private volatile boolean closed;
+        private volatile boolean interrupted;
+
+        TestSession(String id, CountDownLatch latch) {
+            this.id = id;
+            this.latch = latch;
+        }
+
+        List<String> lines() {
+            List<String> list = new ArrayList<>();
+            for (String message : messages) {
+                list.addAll(StrUtil.split(message, StrUtil.CRLF));
+            }
+            return list;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.crypto.SecureUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Map;
+
+/**
+ * 文件签名清单，对比不同文件数量下首次扫描、无变化、修改一个文件的耗时
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class FileHashManifestTest {
+
+    @Test
+    public void testBenchmark() {
+        for (int count : new int[]{1000, 5000, 20000}) {
+            this.benchmark(count);
+        }
+    }
+
+    private void benchmark(int count) {
+        File root = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-manifest", String.valueOf(count));
+        File store = FileUtil.file(root.getParentFile(), count + ".manifest");
+        FileUtil.del(root);
+        FileUtil.del(store);
+        long modified = System.currentTimeMillis() - 60 * 1000;
+        try {
+            for (int i = 0; i < count; i++) {
+                File file = FileUtil.file(root, "dir" + (i % 50), "file" + i + ".bin");
+                FileUtil.writeBytes(RandomUtil.randomBytes(4 * 1024), file);
+                file.setLastModified(modified);
+            }
+            String basePath = root.getAbsolutePath();
+            // 首次扫描，等同于原来每次发布的耗时
+            FileHashManifest manifest = new FileHashManifest(store);
+            long start = System.currentTimeMillis();
+            Map<String, String> first = manifest.scan(root, basePath);
+            long firstTime = System.currentTimeMillis() - start;
+            Assert.assertEquals(count, first.size());
+            Assert.assertEquals(count, manifest.getHashCount());
+            // 没有变化
+            manifest = new FileHashManifest(store);
+            start = System.currentTimeMillis();
+            Map<String, String> second = manifest.scan(root, basePath);
+            long secondTime = System.currentTimeMillis() - start;
+            Assert.assertEquals(first, second);
+            Assert.assertEquals(0, manifest.getHashCount());
+            // 修改一个文件，大小不变
+            File changed = FileUtil.file(root, "dir1", "file1.bin");
+            FileUtil.writeBytes(RandomUtil.randomBytes(4 * 1024), changed);
+            changed.setLastModified(modified + 1000);
+            manifest = new FileHashManifest(store);
+            start = System.currentTimeMillis();
+            Map<String, String> third = manifest.scan(root, basePath);
+            long thirdTime = System.currentTimeMillis() - start;
+            Assert.assertEquals(1, manifest.getHashCount());
+            Assert.assertEquals(SecureUtil.sha1(changed), third.get("dir1/file1.bin"));
+            //
+            String encode = FileHashManifest.encode(third);
+            Assert.assertEquals(third, FileHashManifest.decode(encode));
+            log.info("{} files: first {}ms, unchanged {}ms, one changed {}ms, manifest {}", count, firstTime, secondTime, thirdTime,
+                FileUtil.readableFileSize(encode.length()));
+        } finally {
+            FileUtil.del(root);
+            FileUtil.del(store);
+        }
+    }
+
+    @Test
+    public void testRacy() {
+        File root = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-manifest", "racy");
+        File store = FileUtil.file(root.getParentFile(), "racy.manifest");
+        try {
+            File file = FileUtil.writeUtf8String("a", FileUtil.file(root, "a.txt"));
+            FileHashManifest manifest = new FileHashManifest(store);
+            manifest.scan(root, root.getAbsolutePath());
+            // 刚修改的文件可能在同一个时间刻度内再次被修改，不使用记录的签名
+            FileUtil.writeUtf8String("b", file);
+            file.setLastModified(file.lastModified());
+            manifest = new FileHashManifest(store);
+            Map<String, String> map = manifest.scan(root, root.getAbsolutePath());
+            Assert.assertEquals(1, manifest.getHashCount());
+            Assert.assertEquals(SecureUtil.sha1("b"), map.get("a.txt"));
+        } finally {
+            FileUtil.del(root);
+            FileUtil.del(store);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.io.FileUtil;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import org.databene.contiperf.PerfTest;
+import org.databene.contiperf.junit.ContiPerfRule;
+import org.dromara.jpom.model.RunMode;
+import org.dromara.jpom.model.data.NodeProjectInfoModel;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * 数据文件存储和每次读取整个 json 文件的性能对比（1000 个项目的 ProjectInfoService list、get）
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class JsonFileStoreTest {
+
+    @Rule
+    public ContiPerfRule i = new ContiPerfRule();
+
+    private static final int PROJECT_COUNT = 1000;
+
+    private static File file;
+
+    @BeforeClass
+    public static void init() throws Exception {
+        file = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-store", "project.json");
+        FileUtil.del(file.getParentFile());
+        JSONObject jsonObject = new JSONObject();
+        for (int j = 0; j < PROJECT_COUNT; j++) {
+            NodeProjectInfoModel model = new NodeProjectInfoModel();
+            model.setId("project_" + j);
+            model.setName("project name " + j);
+            model.setRunMode(RunMode.Jar);
+            model.setWhitelistDirectory("/home/jpom/project");
+            model.setLib("project_" + j);
+            model.setJvm("-Xms512m -Xmx1024m");
+            model.setArgs("--server.port=" + (8000 + j));
+            model.setWorkspaceId("DEFAULT");
+            jsonObject.put(model.getId(), model.toJson());
+        }
+        JsonFileUtil.saveJson(file, jsonObject);
+        // 预热
+        for (int j = 0; j < 20; j++) {
+            JsonFileStore.of(file.getAbsolutePath()).list(NodeProjectInfoModel.class);
+            JsonFileUtil.formatToArray(JsonFileUtil.readJson(file)).toJavaList(NodeProjectInfoModel.class);
+        }
+    }
+
+    @Test
+    @PerfTest(invocations = 200, threads = 4)
+    public void testReadJsonList() throws Exception {
+        JSONObject jsonObject = JsonFileUtil.readJson(file);
+        JSONArray jsonArray = JsonFileUtil.formatToArray(jsonObject);
+        List<NodeProjectInfoModel> list = jsonArray.toJavaList(NodeProjectInfoModel.class);
+        Assert.assertEquals(PROJECT_COUNT, list.size());
+    }
+
+    @Test
+    @PerfTest(invocations = 200, threads = 4)
+    public void testStoreList() {
+        List<NodeProjectInfoModel> list = JsonFileStore.of(file.getAbsolutePath()).list(NodeProjectInfoModel.class);
+        Assert.assertEquals(PROJECT_COUNT, list.size());
+    }
+
+    @Test
+    @PerfTest(invocations = 2000, threads = 4)
+    public void testReadJsonGet() throws Exception {
+        JSONObject jsonObject = JsonFileUtil.readJson(file);
+        NodeProjectInfoModel model = jsonObject.getJSONObject("project_500").toJavaObject(NodeProjectInfoModel.class);
+        Assert.assertNotNull(model);
+    }
+
+    @Test
+    @PerfTest(invocations = 2000, threads = 4)
+    public void testStoreGet() {
+        NodeProjectInfoModel model = JsonFileStore.of(file.getAbsolutePath()).get("project_500", NodeProjectInfoModel.class);
+        Assert.assertNotNull(model);
+    }
+
+    @Test
+    public void testJournal() throws Exception {
+        File dataFile = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-store", "journal.json");
+        FileUtil.del(dataFile);
+        FileUtil.del(dataFile.getAbsolutePath() + ".journal");
+        JsonFileStore store = JsonFileStore.of(dataFile.getAbsolutePath());
+        Assert.assertFalse(store.exists());
+        JSONObject value = new JSONObject();
+        value.put("id", "a");
+        value.put("name", "a1");
+        Assert.assertTrue(store.insert("a", value));
+        Assert.assertFalse(store.insert("a", value));
+        Assert.assertTrue(store.update("a", jsonObject -> {
+            jsonObject.put("name", "a2");
+            return jsonObject;
+        }));
+        Assert.assertFalse(store.update("b", jsonObject -> jsonObject));
+        JSONObject valueB = new JSONObject();
+        valueB.put("id", "b");
+        store.insert("b", valueB);
+        store.delete("b");
+        // 只写了追加日志
+        Assert.assertFalse(dataFile.exists());
+        store.compact();
+        Assert.assertTrue(dataFile.exists());
+        JSONObject json = JsonFileUtil.readJson(dataFile);
+        Assert.assertEquals(1, json.size());
+        Assert.assertEquals("a2", json.getJSONObject("a").getString("name"));
+        // 外部修改数据文件
+        json.getJSONObject("a").put("name", "a3-external");
+        JsonFileUtil.saveJson(dataFile, json);
+        Assert.assertEquals("a3-external", store.get("a", JSONObject.class).getString("name"));
+    }
+
+    @Test
+    public void testStaleJournal() throws Exception {
+        File dataFile = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-store", "stale.json");
+        File journalFile = FileUtil.file(dataFile.getAbsolutePath() + ".journal");
+        FileUtil.del(dataFile);
+        FileUtil.del(journalFile);
+        JsonFileStore store = JsonFileStore.of(dataFile.getAbsolutePath());
+        JSONObject value = new JSONObject();
+        value.put("id", "a");
+        store.insert("a", value);
+        store.compact();
+        JSONObject valueB = new JSONObject();
+        valueB.put("id", "b");
+        store.insert("b", valueB);
+        Assert.assertTrue(journalFile.exists());
+        // 还原了一个更早的数据文件，日志中的修改不能覆盖到还原的数据上
+        JSONObject json = new JSONObject();
+        JSONObject valueC = new JSONObject();
+        valueC.put("id", "c");
+        valueC.put("name", "restore");
+        json.put("c", valueC);
+        JsonFileUtil.saveJson(dataFile, json);
+        Assert.assertEquals(1, store.size());
+        Assert.assertNull(store.get("b", JSONObject.class));
+        Assert.assertFalse(journalFile.exists());
+        Assert.assertTrue(FileUtil.exist(journalFile.getAbsolutePath() + ".discard"));
+        // 新的日志基于还原后的数据文件
+        store.insert("d", valueB);
+        store.compact();
+        Assert.assertEquals(2, JsonFileUtil.readJson(dataFile).size());
+    }
+
+    @Test
+    public void testChanges() {
+        File dataFile = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-store", "changes.json");
+        FileUtil.del(dataFile);
+        FileUtil.del(dataFile.getAbsolutePath() + ".journal");
+        JsonFileStore store = JsonFileStore.of(dataFile.getAbsolutePath());
+        JSONObject value = new JSONObject();
+        value.put("id", "a");
+        store.insert("a", value);
+        JsonFileStore.Changes<JSONObject> full = store.changes(null, JSONObject.class);
+        Assert.assertTrue(full.isFull());
+        Assert.assertEquals(1, full.getList().size());
+        long revision = full.getRevision();
+        // 没有变更
+        JsonFileStore.Changes<JSONObject> changes = store.changes(revision, JSONObject.class);
+        Assert.assertFalse(changes.isFull());
+        Assert.assertTrue(changes.getList().isEmpty());
+        Assert.assertTrue(changes.getDelete().isEmpty());
+        JSONObject valueB = new JSONObject();
+        valueB.put("id", "b");
+        store.insert("b", valueB);
+        store.delete("a");
+        changes = store.changes(revision, JSONObject.class);
+        Assert.assertFalse(changes.isFull());
+        Assert.assertEquals("b", changes.getList().get(0).getString("id"));
+        Assert.assertEquals(CollUtil.newArrayList("a"), changes.getDelete());
+        Assert.assertTrue(changes.getRevision() > revision);
+        // 未知的版本返回全部数据
+        Assert.assertTrue(store.changes(changes.getRevision() + 1, JSONObject.class).isFull());
+        Assert.assertTrue(store.changes(revision - 2, JSONObject.class).isFull());
+    }
+}
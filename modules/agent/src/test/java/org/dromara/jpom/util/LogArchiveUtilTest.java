@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 控制台日志压缩归档和按行读取
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class LogArchiveUtilTest {
+
+    @Test
+    public void testRotate() throws Exception {
+        File dir = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-log-archive");
+        FileUtil.del(dir);
+        try {
+            List<String> lines = new ArrayList<>();
+            StringBuilder builder = new StringBuilder();
+            for (int i = 1; i <= 20000; i++) {
+                String line = "line " + i + " 测试日志内容";
+                lines.add(line);
+                builder.append(line).append('\n');
+            }
+            // 最后一行没有换行
+            lines.add("last");
+            builder.append("last");
+            String content = builder.toString();
+            File file = FileUtil.writeUtf8String(content, FileUtil.file(dir, "console.log"));
+            File archive = FileUtil.file(dir, "back", "test" + LogArchiveUtil.ARCHIVE_SUFFIX);
+
+            LogArchiveUtil.ArchiveIndex index = LogArchiveUtil.rotate(file, archive, 16 * 1024);
+            Assert.assertEquals(0, file.length());
+            Assert.assertEquals(content.getBytes(StandardCharsets.UTF_8).length, index.getBytes());
+            Assert.assertEquals(lines.size(), index.getLines());
+            Assert.assertTrue(index.getBlocks().size() > 1);
+            Assert.assertEquals(index, LogArchiveUtil.readIndex(archive));
+            // 多个 gzip 分段可以整体解压
+            try (GZIPInputStream inputStream = new GZIPInputStream(new FileInputStream(archive))) {
+                Assert.assertEquals(content, IoUtil.read(inputStream, StandardCharsets.UTF_8));
+            }
+            // 每个分段都从行首开始
+            for (LogArchiveUtil.Block block : index.getBlocks()) {
+                List<String> read = LogArchiveUtil.readLines(archive, StandardCharsets.UTF_8, block.getLine() + 1, 1);
+                Assert.assertEquals(lines.get((int) block.getLine()), read.get(0));
+            }
+            Assert.assertEquals(lines.subList(9999, 10099), LogArchiveUtil.readLines(archive, StandardCharsets.UTF_8, 10000, 100));
+            Assert.assertEquals(lines.subList(19990, 20001), LogArchiveUtil.readLines(archive, StandardCharsets.UTF_8, 19991, 100));
+            Assert.assertTrue(LogArchiveUtil.readLines(archive, StandardCharsets.UTF_8, 30000, 100).isEmpty());
+        } finally {
+            FileUtil.del(dir);
+        }
+    }
+}
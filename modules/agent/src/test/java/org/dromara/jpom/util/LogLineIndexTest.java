@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.lang.Tuple;
+import cn.hutool.core.util.CharsetUtil;
+import com.alibaba.fastjson2.JSON;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 日志行号索引和搜索
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class LogLineIndexTest {
+
+    private File file;
+
+    @Before
+    public void before() {
+        file = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-line-index", "console.log");
+        FileUtil.del(file.getParentFile());
+    }
+
+    @After
+    public void after() {
+        FileUtil.del(file.getParentFile());
+    }
+
+    private void write(int from, int to, boolean lastNewLine) throws IOException {
+        FileUtil.mkParentDirs(file);
+        try (OutputStream outputStream = new FileOutputStream(file, true)) {
+            StringBuilder builder = new StringBuilder();
+            for (int i = from; i <= to; i++) {
+                builder.append("line-").append(i).append(i % 7 == 0 ? " 错误 ERROR" : " info");
+                if (i < to || lastNewLine) {
+                    builder.append(i % 3 == 0 ? "\r\n" : "\n");
+                }
+            }
+            outputStream.write(builder.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private List<String> read(LogLineIndex index, long line, int limit) throws IOException {
+        List<String> list = new ArrayList<>();
+        index.readLines(index.offsetOfLine(line), StandardCharsets.UTF_8, s -> {
+            list.add(s);
+            return list.size() < limit;
+        });
+        return list;
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        int count = LogLineIndex.INTERVAL * 3 + 100;
+        this.write(1, count, false);
+        LogLineIndex index = LogLineIndex.get(file);
+        Assert.assertEquals(count, index.getLineCount());
+        Assert.assertEquals(0, index.offsetOfLine(1));
+        for (int line : new int[]{1, 2, LogLineIndex.INTERVAL, LogLineIndex.INTERVAL + 1, LogLineIndex.INTERVAL * 2 + 7, count}) {
+            Assert.assertTrue(read(index, line, 1).get(0).startsWith("line-" + line + " "));
+        }
+        Assert.assertEquals(file.length(), index.offsetOfLine(count + 1));
+        // 最后几行
+        List<String> tail = new ArrayList<>();
+        index.readLines(index.tailOffset(3), StandardCharsets.UTF_8, tail::add);
+        Assert.assertEquals(3, tail.size());
+        Assert.assertTrue(tail.get(0).startsWith("line-" + (count - 2) + " "));
+        Assert.assertFalse(tail.get(0).endsWith("\r"));
+        // 追加内容，和没有换行符的最后一行合并为一行
+        this.write(count + 1, count + 10, true);
+        index = LogLineIndex.get(file);
+        Assert.assertEquals(count + 9, index.getLineCount());
+        String joined = read(index, count, 1).get(0);
+        Assert.assertTrue(joined.startsWith("line-" + count + " "));
+        Assert.assertTrue(joined.contains("line-" + (count + 1) + " "));
+        tail.clear();
+        index.readLines(index.tailOffset(1), StandardCharsets.UTF_8, tail::add);
+        Assert.assertEquals(1, tail.size());
+        Assert.assertTrue(tail.get(0).startsWith("line-" + (count + 10) + " "));
+        // 文件被截断后重新写入，重新建立索引
+        FileUtil.writeUtf8String("", file);
+        this.write(1000, 1100, true);
+        index = LogLineIndex.get(file);
+        Assert.assertEquals(101, index.getLineCount());
+        Assert.assertTrue(read(index, 2, 1).get(0).startsWith("line-1001 "));
+    }
+
+    @Test
+    public void testPersist() throws Exception {
+        int count = 0;
+        while (file.length() < LogLineIndex.PERSIST_MIN_SIZE) {
+            this.write(count + 1, count + 50_000, true);
+            count += 50_000;
+        }
+        LogLineIndex index = LogLineIndex.get(file);
+        File indexFile = LogLineIndex.indexFile(file);
+        Assert.assertTrue(indexFile.exists());
+        LogLineIndex.IndexData data = JSON.parseObject(FileUtil.readUtf8String(indexFile), LogLineIndex.IndexData.class);
+        Assert.assertEquals(count, data.getLineCount());
+        Assert.assertEquals(count / LogLineIndex.INTERVAL + 1, data.getCheckpoints());
+        Assert.assertEquals(index.offsetOfLine(LogLineIndex.INTERVAL * 2 + 1), data.getOffsets()[2]);
+    }
+
+    @Test
+    public void testSearchTail() throws Exception {
+        this.write(1, 1000, true);
+        List<Tuple> list = new ArrayList<>();
+        // 最后 100 行中包含 error 的行，以及前 1 行后 2 行
+        String msg = FileSearchUtil.searchList(file, CharsetUtil.CHARSET_UTF_8, "error", 1, 2, 0, 100, false, list::add);
+        List<Integer> lines = list.stream().map(tuple -> (Integer) tuple.get(0)).collect(Collectors.toList());
+        List<Integer> expected = new ArrayList<>();
+        // 第 1000 行是不存在的第 1001 行的前一行
+        for (int i = 901; i < 1000; i++) {
+            int mod = i % 7;
+            if (mod == 0 || mod == 6 || mod == 1 || mod == 2) {
+                expected.add(i);
+            }
+        }
+        Assert.assertEquals(expected, lines);
+        Assert.assertTrue(msg.contains("100"));
+        for (Tuple tuple : list) {
+            Assert.assertTrue(tuple.get(1).toString().startsWith("line-" + tuple.get(0) + " "));
+        }
+        // 正则完整匹配，前后行重叠时不重复输出
+        list.clear();
+        FileSearchUtil.searchList(file, CharsetUtil.CHARSET_UTF_8, "line-99[0-9] .*", 3, 3, 0, 50, false, list::add);
+        lines = list.stream().map(tuple -> (Integer) tuple.get(0)).collect(Collectors.toList());
+        List<Integer> range = new ArrayList<>();
+        for (int i = 987; i <= 1000; i++) {
+            range.add(i);
+        }
+        Assert.assertEquals(range, lines);
+    }
+
+    @Test
+    public void testSearchRange() throws Exception {
+        this.write(1, 1000, true);
+        List<Tuple> list = new ArrayList<>();
+        // 第 10 - 20 行
+        FileSearchUtil.searchList(file, CharsetUtil.CHARSET_UTF_8, null, 0, 0, 20, 10, false, list::add);
+        Assert.assertEquals(11, list.size());
+        Assert.assertEquals(10, (int) list.get(0).get(0));
+        Assert.assertEquals(20, (int) list.get(10).get(0));
+        // 无效的正则表达式按照普通文本匹配
+        list.clear();
+        FileSearchUtil.searchList(file, CharsetUtil.CHARSET_UTF_8, "错误 (", 0, 0, 0, 1000, false, list::add);
+        Assert.assertTrue(list.isEmpty());
+        FileSearchUtil.searchList(file, CharsetUtil.CHARSET_UTF_8, "错误 error", 0, 0, 0, 1000, false, list::add);
+        Assert.assertEquals(1000 / 7, list.size());
+    }
+
+    @Test
+    public void testCompile() {
+        Assert.assertTrue(FileSearchUtil.compile(null).test("any"));
+        Assert.assertTrue(FileSearchUtil.compile("ERROR").test("an error here"));
+        Assert.assertTrue(FileSearchUtil.compile(".*(a|b).*").test("xxbxx"));
+        Assert.assertFalse(FileSearchUtil.compile("^a$").test("ab"));
+        Assert.assertFalse(FileSearchUtil.compile("[").test("abc"));
+        Assert.assertTrue(FileSearchUtil.compile("[").test("a[c"));
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.date.SystemClock;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.file.FileWriter;
+import cn.hutool.core.util.CharsetUtil;
+import cn.hutool.core.util.StrUtil;
+import org.dromara.jpom.exception.LogRecorderCloseException;
+import org.junit.*;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 日志异步写入
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class LogRecorderTest {
+
+    private File file;
+
+    @Before
+    public void before() {
+        file = FileUtil.file(FileUtil.getTmpDir(), "jpom-test", "log-recorder", SystemClock.now() + ".log");
+    }
+
+    @After
+    public void after() {
+        FileUtil.del(file.getParentFile());
+    }
+
+    @Test
+    public void testConcurrentOrder() throws Exception {
+        int threads = 8;
+        int count = 20000;
+        LogRecorder logRecorder = LogRecorder.builder().file(file).build();
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int finalT = t;
+            new Thread(() -> {
+                for (int i = 0; i < count; i++) {
+                    if (i % 2 == 0) {
+                        logRecorder.appendLine(finalT + ":" + i);
+                    } else {
+                        logRecorder.info("{}:{}", finalT, i);
+                    }
+                }
+                latch.countDown();
+            }).start();
+        }
+        latch.await();
+        Assert.assertTrue(logRecorder.size() > 0);
+        Map<String, Object> metrics = logRecorder.getMetrics();
+        Assert.assertEquals((long) threads * count, metrics.get("lines"));
+        Assert.assertEquals(0L, metrics.get("pending"));
+        logRecorder.close();
+        List<String> lines = FileUtil.readUtf8Lines(file);
+        Assert.assertEquals(threads * count, lines.size());
+        // 同一个线程写入的顺序不变
+        int[] next = new int[threads];
+        for (String line : lines) {
+            List<String> split = StrUtil.split(line, ':');
+            int t = Integer.parseInt(split.get(0));
+            Assert.assertEquals(next[t]++, Integer.parseInt(split.get(1)));
+        }
+    }
+
+    @Test
+    public void testFlushAndClose() throws Exception {
+        LogRecorder logRecorder = LogRecorder.builder().file(file).build();
+        logRecorder.system("start {}", 1);
+        logRecorder.append("a");
+        logRecorder.append("b{}", "c");
+        logRecorder.appendLine("{} raw");
+        PrintWriter printWriter = logRecorder.getPrintWriter();
+        printWriter.println("print");
+        logRecorder.flush();
+        List<String> lines = FileUtil.readUtf8Lines(file);
+        Assert.assertEquals("[SYSTEM-INFO] start 1", lines.get(0));
+        Assert.assertEquals("abc{} raw", lines.get(1));
+        Assert.assertEquals("print", lines.get(2));
+        Assert.assertEquals(FileUtil.size(file), logRecorder.size());
+        //
+        logRecorder.error("error", new IllegalStateException("test"));
+        logRecorder.close();
+        String str = FileUtil.readUtf8String(file);
+        Assert.assertTrue(str.contains("java.lang.IllegalStateException: test"));
+        try {
+            logRecorder.info("closed");
+            Assert.fail();
+        } catch (LogRecorderCloseException ignored) {
+        }
+        // system、appendLine、error（标题和堆栈）
+        Assert.assertEquals(4L, logRecorder.getMetrics().get("lines"));
+    }
+
+    @Test
+    public void testFlushByTime() throws Exception {
+        LogRecorder logRecorder = LogRecorder.builder().file(file).build();
+        logRecorder.appendLine("line");
+        // 没有主动刷新，由写入线程按时间刷新
+        long start = SystemClock.now();
+        while (FileUtil.size(file) == 0 && SystemClock.now() - start < 5000) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(StrUtil.format("line{}", System.lineSeparator()), FileUtil.readUtf8String(file));
+        logRecorder.close();
+    }
+
+    /**
+     * 模拟 100 万行输出的构建，对比每行写入并刷新和异步批量写入
+     * <p>
+     * -Djpom.log.lines=1000000
+     */
+    @Test
+    @Ignore("benchmark")
+    public void testBenchmark() throws Exception {
+        int count = Integer.getInteger("jpom.log.lines", 1000000);
+        List<String> lines = new ArrayList<>(1000);
+        for (int i = 0; i < 1000; i++) {
+            lines.add(StrUtil.format("[INFO] Downloaded from central: https://repo.maven.apache.org/maven2/org/example/artifact-{}/1.0.{}/artifact-{}.jar ({} kB at {} kB/s)", i, i, i, i * 3, i * 7));
+        }
+        for (int round = 0; round < 3; round++) {
+            FileUtil.del(file);
+            long start = System.nanoTime();
+            try (PrintWriter writer = FileWriter.create(file, CharsetUtil.CHARSET_UTF_8).getPrintWriter(true)) {
+                for (int i = 0; i < count; i++) {
+                    // 原来的写入方式
+                    writer.println(StrUtil.format(lines.get(i % 1000)));
+                    writer.flush();
+                }
+            }
+            long syncNanos = System.nanoTime() - start;
+            long syncSize = FileUtil.size(file);
+            FileUtil.del(file);
+            start = System.nanoTime();
+            LogRecorder logRecorder = LogRecorder.builder().file(file).build();
+            for (int i = 0; i < count; i++) {
+                logRecorder.appendLine(lines.get(i % 1000));
+            }
+            logRecorder.close();
+            long asyncNanos = System.nanoTime() - start;
+            Assert.assertEquals(syncSize, FileUtil.size(file));
+            System.out.printf("round %d lines %d sync %d ms (%d lines/s) async %d ms (%d lines/s) %s%n", round, count,
+                syncNanos / 1000000, count * 1000000000L / syncNanos,
+                asyncNanos / 1000000, count * 1000000000L / asyncNanos, logRecorder.getMetrics());
+        }
+    }
+}
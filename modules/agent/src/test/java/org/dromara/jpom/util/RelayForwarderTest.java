@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.thread.ThreadUtil;
+import org.dromara.jpom.model.RelayNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 模拟节点树转发分片，中间节点失败后由上级直接转发给其子节点
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class RelayForwarderTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final Map<String, SimNode> nodes = new ConcurrentHashMap<>();
+    private final Set<String> failedUrls = ConcurrentHashMap.newKeySet();
+
+    @Test
+    public void testForward() {
+        int total = 20;
+        // 0 -> (1 -> (3, 4), 2 -> (5, 6))，节点 1 失败
+        List<RelayNode> all = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            RelayNode node = new RelayNode();
+            node.setName("node-" + i);
+            node.setUrl("127.0.0.1:" + (2123 + i));
+            all.add(node);
+        }
+        for (int i = 0; i < all.size(); i++) {
+            int from = 2 * i + 1;
+            if (from < all.size()) {
+                all.get(i).setChildren(new ArrayList<>(all.subList(from, Math.min(from + 2, all.size()))));
+            }
+        }
+        failedUrls.add(all.get(1).getUrl());
+        SimNode root = new SimNode(all.get(0).getChildren());
+        for (int i = 0; i < total; i++) {
+            root.onSlice(i);
+        }
+        long end = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < end && !this.done(all, total)) {
+            ThreadUtil.sleep(20);
+        }
+        executor.shutdownNow();
+        Assert.assertTrue(this.done(all, total));
+        Assert.assertNull(nodes.get(all.get(1).getUrl()));
+        Assert.assertEquals(Collections.singletonList("node-1"), root.failedNodes());
+        Assert.assertEquals(0, root.pendingCount());
+    }
+
+    private boolean done(List<RelayNode> all, int total) {
+        for (RelayNode node : CollUtil.sub(all, 1, all.size())) {
+            if (failedUrls.contains(node.getUrl())) {
+                continue;
+            }
+            SimNode simNode = nodes.get(node.getUrl());
+            if (simNode == null || simNode.receivedCount() != total || simNode.pendingCount() != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private class SimNode extends RelayForwarder {
+
+        private SimNode(List<RelayNode> children) {
+            super(children);
+        }
+
+        @Override
+        protected void send(RelayNode node, int slice) {
+            if (failedUrls.contains(node.getUrl())) {
+                throw new IllegalStateException("connect refused");
+            }
+            nodes.computeIfAbsent(node.getUrl(), s -> new SimNode(node.getChildren())).onSlice(slice);
+        }
+
+        @Override
+        protected ExecutorService executor() {
+            return executor;
+        }
+    }
+}
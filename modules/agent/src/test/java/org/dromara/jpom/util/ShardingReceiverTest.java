@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.date.SystemClock;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.crypto.SecureUtil;
+import com.alibaba.fastjson2.JSONObject;
+import org.junit.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 分片上传接收
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class ShardingReceiverTest {
+
+    private static final int SLICE_SIZE = 16 * 1024;
+
+    private File root;
+    private byte[] bytes;
+
+    @Before
+    public void before() {
+        root = FileUtil.file(FileUtil.getTmpDir(), "jpom-test", "sharding-receiver", String.valueOf(SystemClock.now()));
+        // 最后一个分片不满
+        bytes = RandomUtil.randomBytes(SLICE_SIZE * 5 + 123);
+    }
+
+    @After
+    public void after() {
+        FileUtil.del(root);
+    }
+
+    private int total() {
+        return (bytes.length + SLICE_SIZE - 1) / SLICE_SIZE;
+    }
+
+    private byte[] slice(int index) {
+        int start = index * SLICE_SIZE;
+        return Arrays.copyOfRange(bytes, start, Math.min(bytes.length, start + SLICE_SIZE));
+    }
+
+    private void write(ShardingReceiver receiver, int index, long sliceSize, long fileSize, boolean md5) throws Exception {
+        byte[] slice = this.slice(index);
+        receiver.write(index, sliceSize, fileSize, md5 ? SecureUtil.md5().digestHex(slice) : null, slice.length, new ByteArrayInputStream(slice));
+    }
+
+    @Test
+    public void testOutOfOrder() throws Exception {
+        File slicePath = FileUtil.file(root, "slice", "out-of-order");
+        int total = this.total();
+        ShardingReceiver receiver = ShardingReceiver.open(slicePath, "test.zip", total);
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order);
+        for (Integer index : order) {
+            this.write(receiver, index, SLICE_SIZE, bytes.length, true);
+        }
+        Assert.assertEquals(total, ShardingReceiver.get(slicePath).received().size());
+        // 状态文件记录了已经收到的分片
+        JSONObject state = JSONObject.parseObject(FileUtil.readUtf8String(FileUtil.file(slicePath, "sharding-state.json")));
+        Assert.assertEquals(SLICE_SIZE, state.getLongValue("sliceSize"));
+
+        File file = receiver.finish(null);
+        Assert.assertArrayEquals(bytes, FileUtil.readBytes(file));
+        Assert.assertFalse(FileUtil.file(slicePath, "sharding-state.json").exists());
+    }
+
+    @Test
+    public void testLastSliceFirstWithoutSliceSize() throws Exception {
+        File slicePath = FileUtil.file(root, "slice", "last-first");
+        int total = this.total();
+        ShardingReceiver receiver = ShardingReceiver.open(slicePath, "test.zip", total);
+        // 旧版本客户端没有分片大小，最后一个分片先到达
+        this.write(receiver, total - 1, 0, 0, false);
+        for (int i = total - 2; i >= 0; i--) {
+            this.write(receiver, i, 0, 0, false);
+        }
+        File file = receiver.finish(SecureUtil.md5().digestHex(bytes));
+        Assert.assertArrayEquals(bytes, FileUtil.readBytes(file));
+    }
+
+    @Test
+    public void testFileMd5Mismatch() throws Exception {
+        File slicePath = FileUtil.file(root, "slice", "file-md5");
+        int total = this.total();
+        ShardingReceiver receiver = ShardingReceiver.open(slicePath, "test.zip", total);
+        for (int i = 0; i < total; i++) {
+            this.write(receiver, i, SLICE_SIZE, 0, false);
+        }
+        Assert.assertThrows(IllegalStateException.class, () -> receiver.finish("error"));
+    }
+
+    @Test
+    public void testSliceMd5Mismatch() throws Exception {
+        File slicePath = FileUtil.file(root, "slice", "slice-md5");
+        ShardingReceiver receiver = ShardingReceiver.open(slicePath, "test.zip", this.total());
+        byte[] slice = this.slice(1);
+        Assert.assertThrows(IllegalStateException.class, () -> receiver.write(1, SLICE_SIZE, bytes.length, "error", slice.length, new ByteArrayInputStream(slice)));
+        Assert.assertTrue(receiver.received().isEmpty());
+        // 分片大小不正确
+        Assert.assertThrows(IllegalStateException.class, () -> receiver.write(1, SLICE_SIZE, bytes.length, null, 10, new ByteArrayInputStream(new byte[10])));
+        this.write(receiver, 1, SLICE_SIZE, bytes.length, true);
+        Assert.assertEquals(Collections.singletonList(1), receiver.received());
+        // 分片总数不一致
+        Assert.assertThrows(IllegalStateException.class, () -> ShardingReceiver.open(slicePath, "test.zip", 100));
+    }
+}
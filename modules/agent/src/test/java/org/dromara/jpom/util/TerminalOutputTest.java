@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.util.CharsetUtil;
+import cn.hutool.core.util.StrUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 终端输出解码、合并和背压
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class TerminalOutputTest {
+
+    private static void awaitEmpty(TerminalOutput output) throws InterruptedException {
+        for (int i = 0; i < 500 && output.getBacklog() > 0; i++) {
+            Thread.sleep(10);
+        }
+        // 等待最后一条发送完成
+        Thread.sleep(100);
+    }
+
+    @Test
+    public void testDecodeAndCoalesce() throws Exception {
+        List<String> frames = new CopyOnWriteArrayList<>();
+        TerminalOutput output = new TerminalOutput("test", CharsetUtil.CHARSET_UTF_8, frames::add);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            String str = "中文输出" + i + "\r\n";
+            expected.append(str);
+            byte[] bytes = str.getBytes(CharsetUtil.CHARSET_UTF_8);
+            // 拆分在多字节字符中间
+            output.write(bytes, 0, 1);
+            output.write(bytes, 1, bytes.length - 1);
+        }
+        awaitEmpty(output);
+        output.close();
+        Assert.assertEquals(expected.toString(), String.join(StrUtil.EMPTY, frames));
+        Assert.assertTrue(frames.size() < 100);
+        for (String frame : frames) {
+            Assert.assertTrue(frame.length() <= TerminalEngine.FRAME_MAX_SIZE);
+        }
+    }
+
+    @Test
+    public void testLineAndMessage() throws Exception {
+        List<String> frames = new CopyOnWriteArrayList<>();
+        TerminalOutput output = new TerminalOutput("test", CharsetUtil.CHARSET_UTF_8, frames::add);
+        output.writeLine("a");
+        output.writeLine("b");
+        output.writeMessage("end");
+        output.close();
+        awaitEmpty(output);
+        Assert.assertEquals(2, frames.size());
+        Assert.assertEquals("a\r\nb", frames.get(0));
+        Assert.assertEquals("end", frames.get(1));
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<String> frames = new CopyOnWriteArrayList<>();
+        TerminalOutput output = new TerminalOutput("test", CharsetUtil.CHARSET_UTF_8, msg -> {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            frames.add(msg);
+        });
+        String str = StrUtil.repeat('a', 1024);
+        // 发送线程可能已经取出一帧（阻塞在发送中），多写入一帧的大小
+        for (int i = 0; i < (TerminalEngine.HIGH_WATER + TerminalEngine.FRAME_MAX_SIZE) / 1024 + 10; i++) {
+            output.write(str);
+        }
+        Assert.assertFalse(output.isWritable());
+        latch.countDown();
+        Assert.assertTrue(output.awaitWritable());
+        awaitEmpty(output);
+        Assert.assertTrue(output.isWritable());
+        output.close();
+    }
+
+    @Test
+    public void testPump() throws Exception {
+        byte[] bytes = StrUtil.repeat("输出", 100 * 1024).getBytes(CharsetUtil.CHARSET_UTF_8);
+        List<String> frames = new CopyOnWriteArrayList<>();
+        TerminalOutput output = new TerminalOutput("test", CharsetUtil.CHARSET_UTF_8, frames::add);
+        CountDownLatch end = new CountDownLatch(1);
+        TerminalInputPump pump = new TerminalInputPump(new ByteArrayInputStream(bytes), output, () -> true, e -> {
+            output.close();
+            end.countDown();
+        });
+        pump.start();
+        Assert.assertTrue(end.await(10, TimeUnit.SECONDS));
+        awaitEmpty(output);
+        Assert.assertEquals(new String(bytes, CharsetUtil.CHARSET_UTF_8), String.join(StrUtil.EMPTY, frames));
+    }
+}
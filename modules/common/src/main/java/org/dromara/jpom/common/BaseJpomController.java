@@ -12,13 +12,11 @@ package org.dromara.jpom.common;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.*;
-import cn.hutool.crypto.SecureUtil;
 import cn.hutool.extra.servlet.ServletUtil;
-import lombok.Lombok;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.tomcat.util.http.fileupload.servlet.ServletFileUpload;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
-import org.dromara.jpom.util.FileUtils;
+import org.dromara.jpom.util.ShardingReceiver;
 import org.springframework.util.Assert;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -30,10 +28,10 @@ import org.springframework.web.multipart.support.StandardMultipartHttpServletReq
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.channels.FileChannel;
-import java.util.Arrays;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -56,13 +54,15 @@ public abstract class BaseJpomController {
 
     /**
      * 上传保存分片信息
+     * <p>
+     * 分片直接写入目标文件对应的位置，可以携带 sliceSize（分片大小）、fileSize（文件大小）、sliceMd5（分片签名）参数
      *
      * @param file       上传的文件信息
      * @param tempPath   临时保存目录
      * @param sliceId    分片id
      * @param totalSlice 累积分片
      * @param nowSlice   当前分片
-     * @param fileSumMd5 文件签名信息
+     * @param fileSumMd5 文件签名信息，分片携带校验值（sliceMd5）时可以在合并时再传入
      * @throws IOException 异常
      */
     public void uploadSharding(MultipartFile file,
@@ -72,15 +72,15 @@ public abstract class BaseJpomController {
                                Integer nowSlice,
                                String fileSumMd5,
                                String... extNames) throws IOException {
-        Assert.hasText(fileSumMd5, I18nMessageUtil.get("i18n.file_signature_info_not_found.83bf"));
+        String sliceMd5 = getParameter("sliceMd5");
+        if (StrUtil.isEmpty(sliceMd5)) {
+            Assert.hasText(fileSumMd5, I18nMessageUtil.get("i18n.file_signature_info_not_found.83bf"));
+        }
         Assert.hasText(sliceId, I18nMessageUtil.get("i18n.no_shard_id_info.30f8"));
 
         Assert.notNull(totalSlice, I18nMessageUtil.get("i18n.incomplete_upload_info_total_slice.7e85"));
         Assert.notNull(nowSlice, I18nMessageUtil.get("i18n.incomplete_upload_info_now_slice.34aa"));
         Assert.state(totalSlice > 0 && nowSlice > -1 && totalSlice >= nowSlice, I18nMessageUtil.get("i18n.current_upload_chunk_info_incorrect.900e"));
-        // 保存路径
-        File slicePath = FileUtil.file(tempPath, "slice", sliceId);
-        File sliceItemPath = FileUtil.file(slicePath, "items");
         Assert.notNull(file, I18nMessageUtil.get("i18n.no_uploaded_file.07ef"));
         String originalFilename = file.getOriginalFilename();
         // 截断序号 xxxxx.avi.1
@@ -89,15 +89,34 @@ public abstract class BaseJpomController {
             String extName = FileUtil.extName(realName);
             Assert.state(StrUtil.containsAnyIgnoreCase(extName, extNames), I18nMessageUtil.get("i18n.file_type_not_supported2.d497") + extName);
         }
-        assert originalFilename != null;
-        File slice = FileUtil.file(sliceItemPath, originalFilename);
-        FileUtil.mkParentDirs(slice);
-        // 保存
-        file.transferTo(slice);
+        ShardingReceiver receiver = ShardingReceiver.open(FileUtil.file(tempPath, "slice", sliceId), realName, totalSlice);
+        long sliceSize = Convert.toLong(getParameter("sliceSize"), 0L);
+        long fileSize = Convert.toLong(getParameter("fileSize"), 0L);
+        try (InputStream inputStream = file.getInputStream()) {
+            receiver.write(nowSlice, sliceSize, fileSize, sliceMd5, file.getSize(), inputStream);
+        }
+    }
+
+    /**
+     * 查询已经上传成功的分片，用于断点续传
+     *
+     * @param tempPath 临时保存目录
+     * @param sliceId  分片id
+     * @return 已经存在的分片序号
+     */
+    public List<Integer> shardingExists(String tempPath, String sliceId) {
+        Assert.hasText(sliceId, I18nMessageUtil.get("i18n.no_shard_id_info.30f8"));
+        ShardingReceiver receiver = ShardingReceiver.get(FileUtil.file(tempPath, "slice", sliceId));
+        if (receiver == null) {
+            return Collections.emptyList();
+        }
+        return receiver.received();
     }
 
     /**
      * 合并分片
+     * <p>
+     * 分片已经写入目标文件，只需要截断长度并落盘
      *
      * @param tempPath   临时保存目录
      * @param sliceId    上传id
@@ -115,43 +134,10 @@ public abstract class BaseJpomController {
 
         Assert.notNull(totalSlice, I18nMessageUtil.get("i18n.incomplete_upload_info_total_slice.7e85"));
 
-        // 保存路径
-        File slicePath = FileUtil.file(tempPath, "slice", sliceId);
-        File sliceItemPath = FileUtil.file(slicePath, "items");
-
-        // 准备合并
-        File[] files = sliceItemPath.listFiles();
-        int length = ArrayUtil.length(files);
-        Assert.state(files != null && length == totalSlice, StrUtil.format(I18nMessageUtil.get("i18n.file_upload_failure_due_to_missing_chunks.1865"), length, totalSlice));
-        // 文件真实名称
-        String name = files[0].getName();
-        name = StrUtil.subBefore(name, StrUtil.DOT, true);
-        File successFile = FileUtil.file(slicePath, name);
-        try (FileOutputStream fileOutputStream = new FileOutputStream(successFile)) {
-            try (FileChannel channel = fileOutputStream.getChannel()) {
-                Arrays.stream(files).sorted((o1, o2) -> {
-                    // 排序
-                    Integer o1Int = Convert.toInt(FileUtil.extName(o1), 0);
-                    Integer o2Int = Convert.toInt(FileUtil.extName(o2), 0);
-                    return o1Int.compareTo(o2Int);
-                }).forEach(file12 -> {
-                    try {
-                        FileUtils.appendChannel(file12, channel);
-                    } catch (Exception e) {
-                        throw Lombok.sneakyThrow(e);
-                    }
-                });
-            }
-        }
-        // 删除分片信息
-        FileUtil.del(sliceItemPath);
-        // 对比文件信息
-        String newMd5 = SecureUtil.md5(successFile);
-        Assert.state(StrUtil.equals(newMd5, fileSumMd5), () -> {
-            log.warn(I18nMessageUtil.get("i18n.file_merge_exception_details.e9d0"), FileUtil.getAbsolutePath(successFile), newMd5, fileSumMd5);
-            return I18nMessageUtil.get("i18n.file_merge_error.f32f");
-        });
-        return successFile;
+        ShardingReceiver receiver = ShardingReceiver.get(FileUtil.file(tempPath, "slice", sliceId));
+        int length = receiver == null ? 0 : receiver.received().size();
+        Assert.state(receiver != null && length == totalSlice, StrUtil.format(I18nMessageUtil.get("i18n.file_upload_failure_due_to_missing_chunks.1865"), length, totalSlice));
+        return receiver.finish(fileSumMd5);
     }
 
     protected String getParameter(String name) {
@@ -54,6 +54,10 @@ public class Const {
     public static final String JPOM_SERVER_USER_NAME = "Jpom-Server-UserName";
 
     public static final String JPOM_AGENT_AUTHORIZE = "Jpom-Agent-Authorize";
+    /**
+     * 中继分发令牌，节点之间转发分片时使用（只能访问中继接收分片接口）
+     */
+    public static final String JPOM_RELAY_TOKEN = "Jpom-Relay-Token";
 
     public static final String DATA = "data";
 
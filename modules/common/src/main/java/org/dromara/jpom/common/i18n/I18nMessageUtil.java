@@ -18,6 +18,8 @@ import cn.hutool.system.SystemUtil;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.common.LocaleConfig;
+import org.springframework.beans.BeansException;
 import org.springframework.context.MessageSource;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -211,7 +213,19 @@ public class I18nMessageUtil {
      * 使用懒加载方式实例化messageSource国际化工具
      */
     private static class Lazy {
-        private static final MessageSource MESSAGE_SOURCE = SpringUtil.getBean(MessageSource.class);
+        private static final MessageSource MESSAGE_SOURCE = createMessageSource();
+
+        private static MessageSource createMessageSource() {
+            if (SpringUtil.getApplicationContext() != null) {
+                try {
+                    return SpringUtil.getBean(MessageSource.class);
+                } catch (BeansException e) {
+                    log.debug("get message source error {}", e.getMessage());
+                }
+            }
+            // 没有 spring 上下文（如单元测试）时使用和 LocaleConfig 相同的配置
+            return new LocaleConfig().messageSource();
+        }
     }
 
     private static class LazyZhHk {
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 中继分发的节点，收到分片后继续转发给子节点
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Data
+public class RelayNode {
+    /**
+     * 节点名称
+     */
+    private String name;
+    /**
+     * 节点地址 host:port
+     */
+    private String url;
+    /**
+     * 协议 http/https
+     */
+    private String scheme;
+    /**
+     * 需要由该节点转发的子节点
+     */
+    private List<RelayNode> children;
+}
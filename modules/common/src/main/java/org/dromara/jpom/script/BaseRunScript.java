@@ -59,6 +59,18 @@ public abstract class BaseRunScript implements AutoCloseable, ILogRecorder {
         return msg;
     }
 
+    /**
+     * 记录进程输出的原始行，不格式化
+     *
+     * @param line 行
+     * @return 行
+     */
+    public String appendLine(String line) {
+        String msg = logRecorder.appendLine(line);
+        this.msgCallback(msg);
+        return msg;
+    }
+
     @Override
     public String system(String info, Object... vals) {
         String msg = logRecorder.system(info, vals);
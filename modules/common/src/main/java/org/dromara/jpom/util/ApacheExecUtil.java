@@ -79,7 +79,7 @@ public class ApacheExecUtil {
         final LogOutputStream logOutputStream = new LogOutputStream(1, charset) {
             @Override
             protected void processLine(String line, int logLevel) {
-                logRecorder.info(line);
+                logRecorder.appendLine(line);
             }
         };
         // 重定向stdout和stderr到文件
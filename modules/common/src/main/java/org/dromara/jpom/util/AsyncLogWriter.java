@@ -0,0 +1,417 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.date.SystemClock;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IORuntimeException;
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.JpomApplication;
+import org.dromara.jpom.exception.LogRecorderCloseException;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 日志异步写入
+ * <p>
+ * 写入的内容追加到无锁的环形缓冲区，由一个共享的写入线程批量写入文件，缓冲的字符数或者距离上次刷新的时间超过阈值后刷新到文件，
+ * 不再每一行都写入并刷新一次。{@link #flush()}、{@link #close()} 在调用线程中写完已经追加的内容后才返回
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+class AsyncLogWriter extends Writer {
+
+    /**
+     * 环形缓冲区容量（条），必须是 2 的幂
+     */
+    static final int CAPACITY = 8192;
+    /**
+     * 缓冲的字符数超过后刷新到文件
+     */
+    static final int FLUSH_SIZE = 64 * 1024;
+    /**
+     * 距离上次刷新超过该时间（毫秒）后刷新到文件
+     */
+    static final long FLUSH_INTERVAL = 100;
+
+    private static final long IDLE_PARK = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final Set<AsyncLogWriter> ACTIVE = ConcurrentHashMap.newKeySet();
+    private static volatile ExecutorService writerExecutor;
+    private static volatile Thread writerThread;
+
+    private final File file;
+    private final FileOutputStream outputStream;
+    private final Writer out;
+    private final AtomicReferenceArray<Object> slots = new AtomicReferenceArray<>(CAPACITY);
+    /**
+     * 生产者已经申请的位置
+     */
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * 已经消费的位置，只在持有 drainLock 时修改
+     */
+    private final AtomicLong head = new AtomicLong();
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private volatile boolean closed;
+    private int pendingChars;
+    private long lastFlush = SystemClock.now();
+    private boolean writeError;
+    // 统计信息
+    private final long createTime = SystemClock.now();
+    private volatile long closeTime;
+    private final LongAdder lines = new LongAdder();
+    private final LongAdder chars = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder fullWaits = new LongAdder();
+    private volatile int maxBatch;
+
+    /**
+     * 不换行的文本
+     */
+    private static class Text {
+        private final String value;
+
+        private Text(String value) {
+            this.value = value;
+        }
+    }
+
+    AsyncLogWriter(File file, Charset charset) {
+        this.file = file;
+        try {
+            this.outputStream = new FileOutputStream(FileUtil.touch(file), true);
+        } catch (FileNotFoundException e) {
+            throw new IORuntimeException(e);
+        }
+        // 缓冲区满了之后由 BufferedWriter 写入文件，即按大小刷新
+        this.out = new BufferedWriter(new OutputStreamWriter(outputStream, charset), FLUSH_SIZE);
+        ACTIVE.add(this);
+        startWriter();
+    }
+
+    /**
+     * 写入线程，所有日志共用一个
+     */
+    private static void startWriter() {
+        if (writerExecutor == null) {
+            synchronized (AsyncLogWriter.class) {
+                if (writerExecutor == null) {
+                    ThreadPoolExecutor executor = ExecutorBuilder.create()
+                        .setCorePoolSize(1)
+                        .setMaxPoolSize(1)
+                        .setWorkQueue(new LinkedBlockingQueue<>())
+                        .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("jpom-log-writer-").setDaemon(true).build())
+                        .build();
+                    executor.execute(AsyncLogWriter::writeLoop);
+                    JpomApplication.register("log-writer", executor);
+                    writerExecutor = executor;
+                }
+            }
+        }
+    }
+
+    private static void writeLoop() {
+        writerThread = Thread.currentThread();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                boolean busy = false;
+                for (AsyncLogWriter writer : ACTIVE) {
+                    busy |= writer.drainAsync();
+                }
+                if (!busy) {
+                    LockSupport.parkNanos(IDLE_PARK);
+                }
+            }
+        } finally {
+            writerThread = null;
+            // 线程池关闭时写完所有缓冲的内容
+            for (AsyncLogWriter writer : ACTIVE) {
+                writer.flush();
+            }
+        }
+    }
+
+    private static void wakeup() {
+        Thread thread = writerThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * 追加一行
+     *
+     * @param line 行内容，不包含换行符
+     */
+    void line(String line) {
+        this.offer(line);
+    }
+
+    /**
+     * 追加文本，不自动换行
+     *
+     * @param text 文本
+     */
+    void text(String text) {
+        this.offer(new Text(text));
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        if (len > 0) {
+            this.text(new String(cbuf, off, len));
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        if (len > 0) {
+            this.text(str.substring(off, off + len));
+        }
+    }
+
+    private void offer(Object entry) {
+        if (closed) {
+            throw new LogRecorderCloseException();
+        }
+        long seq;
+        while (true) {
+            seq = tail.get();
+            if (seq - head.get() >= CAPACITY) {
+                // 缓冲区已满
+                fullWaits.increment();
+                this.waitForSpace();
+                continue;
+            }
+            if (tail.compareAndSet(seq, seq + 1)) {
+                break;
+            }
+        }
+        slots.lazySet((int) (seq & (CAPACITY - 1)), entry);
+        if (seq - head.get() == CAPACITY / 2) {
+            // 缓冲区已经过半，提前唤醒写入线程
+            wakeup();
+        }
+    }
+
+    /**
+     * 缓冲区满时当前线程尝试直接写入，写入线程正在写入时等待
+     */
+    private void waitForSpace() {
+        if (drainLock.tryLock()) {
+            try {
+                this.drain();
+            } finally {
+                drainLock.unlock();
+            }
+        } else {
+            wakeup();
+            Thread.yield();
+        }
+    }
+
+    /**
+     * 写入线程调用，写入缓冲区中的内容并按时间阈值刷新
+     *
+     * @return 是否写入了内容
+     */
+    private boolean drainAsync() {
+        if (!drainLock.tryLock()) {
+            return false;
+        }
+        try {
+            if (closeTime > 0) {
+                // 已经关闭
+                return false;
+            }
+            int count = this.drain();
+            if (pendingChars > 0 && SystemClock.now() - lastFlush >= FLUSH_INTERVAL) {
+                this.flushOut();
+            }
+            return count > 0;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * 写入已经发布的内容，需要持有 drainLock
+     *
+     * @return 写入的条数
+     */
+    private int drain() {
+        long h = head.get();
+        int count = 0;
+        while (true) {
+            int index = (int) (h & (CAPACITY - 1));
+            Object entry = slots.get(index);
+            if (entry == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            this.write(entry);
+            head.lazySet(++h);
+            count++;
+        }
+        if (count > 0) {
+            batches.increment();
+            if (count > maxBatch) {
+                maxBatch = count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 写入到指定位置，申请了位置还没有发布的内容需要等待发布，需要持有 drainLock
+     *
+     * @param target 位置
+     */
+    private void drainTo(long target) {
+        while (head.get() < target) {
+            if (this.drain() == 0) {
+                Thread.yield();
+            }
+        }
+    }
+
+    private void write(Object entry) {
+        String value;
+        boolean newLine;
+        if (entry instanceof Text) {
+            value = ((Text) entry).value;
+            newLine = false;
+        } else {
+            value = (String) entry;
+            newLine = true;
+            lines.increment();
+        }
+        int length = value.length() + (newLine ? System.lineSeparator().length() : 0);
+        chars.add(length);
+        if (writeError) {
+            // 已经写入失败，丢弃后续内容避免阻塞生产者
+            return;
+        }
+        try {
+            out.write(value);
+            if (newLine) {
+                out.write(System.lineSeparator());
+            }
+            pendingChars += length;
+            if (pendingChars >= FLUSH_SIZE) {
+                this.flushOut();
+            }
+        } catch (IOException e) {
+            this.writeError(e);
+        }
+    }
+
+    private void flushOut() {
+        pendingChars = 0;
+        lastFlush = SystemClock.now();
+        if (writeError) {
+            return;
+        }
+        try {
+            out.flush();
+            flushes.increment();
+        } catch (IOException e) {
+            this.writeError(e);
+        }
+    }
+
+    private void writeError(IOException e) {
+        writeError = true;
+        log.error(file.getAbsolutePath(), e);
+    }
+
+    /**
+     * 写入当前已经追加的所有内容并刷新到文件
+     */
+    @Override
+    public void flush() {
+        drainLock.lock();
+        try {
+            if (closeTime > 0) {
+                return;
+            }
+            this.drainTo(tail.get());
+            this.flushOut();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * 写入所有内容并同步到磁盘后关闭文件
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        drainLock.lock();
+        try {
+            this.drainTo(tail.get());
+            this.flushOut();
+            if (!writeError) {
+                outputStream.getFD().sync();
+            }
+        } catch (IOException e) {
+            this.writeError(e);
+        } finally {
+            ACTIVE.remove(this);
+            closeTime = SystemClock.now();
+            try {
+                out.close();
+            } catch (IOException e) {
+                log.warn(file.getAbsolutePath(), e);
+            }
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * 统计信息
+     *
+     * @return map
+     */
+    Map<String, Object> getMetrics() {
+        long end = closeTime > 0 ? closeTime : SystemClock.now();
+        long millis = Math.max(end - createTime, 1);
+        long lineCount = lines.sum();
+        Map<String, Object> map = new LinkedHashMap<>(8);
+        map.put("lines", lineCount);
+        map.put("chars", chars.sum());
+        map.put("pending", tail.get() - head.get());
+        map.put("batches", batches.sum());
+        map.put("maxBatch", maxBatch);
+        map.put("flushes", flushes.sum());
+        map.put("fullWaits", fullWaits.sum());
+        map.put("linesPerSecond", lineCount * 1000 / millis);
+        return map;
+    }
+}
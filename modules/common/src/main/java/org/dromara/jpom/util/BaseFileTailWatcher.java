@@ -9,25 +9,32 @@
  */
 package org.dromara.jpom.util;
 
-import cn.hutool.core.date.DateUnit;
 import cn.hutool.core.io.IoUtil;
-import cn.hutool.core.io.file.Tailer;
-import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.core.io.FastByteArrayOutputStream;
 import cn.hutool.core.util.StrUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
-import org.springframework.util.Assert;
 
 import java.io.File;
 import java.io.IOException;
-import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Set;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 文件跟随器工具
+ * <p>
+ * 由 {@link FileTailEngine} 的共享线程定时读取文件新增内容，同一次读取到的行合并为一条消息，
+ * 每个会话有独立的发送队列，消费过慢或者单次发送超时的会话会被断开，不影响其他会话
  *
  * @author bwcx_jzy
  * @since 2019/7/21
@@ -35,6 +42,8 @@ import java.util.Set;
 @Slf4j
 public abstract class BaseFileTailWatcher<T extends AutoCloseable> {
 
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
     private static int initReadLine = 10;
 
     public static void setInitReadLine(int initReadLine) {
@@ -47,12 +56,22 @@ public abstract class BaseFileTailWatcher<T extends AutoCloseable> {
      * 缓存近x条
      */
     private final LimitQueue<String> limitQueue = new LimitQueue<>(initReadLine);
-    private Tailer tailer;
-
     /**
-     * 所有会话
+     * 所有会话 会话id -> 订阅信息
+     */
+    private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+    /**
+     * 未读取到换行符的内容
      */
-    protected final Set<T> socketSessions = new HashSet<>();
+    private final FastByteArrayOutputStream lineBuffer = new FastByteArrayOutputStream();
+    private ScheduledFuture<?> pollFuture;
+    private long position;
+    // 统计信息
+    private final long createTime = System.currentTimeMillis();
+    private final LongAdder readLines = new LongAdder();
+    private final LongAdder readBytes = new LongAdder();
+    private final LongAdder sendFrames = new LongAdder();
+    private final LongAdder dropSessions = new LongAdder();
 
     public BaseFileTailWatcher(File logFile, Charset charset) {
         this.logFile = logFile;
@@ -69,42 +88,75 @@ public abstract class BaseFileTailWatcher<T extends AutoCloseable> {
      */
     protected abstract boolean send(T session, String msg) throws IOException;
 
+    /**
+     * 获取会话id
+     *
+     * @param session 会话
+     * @return id
+     */
+    protected abstract String getId(T session);
+
     /**
      * 有新的日志
      *
      * @param msg 日志
      */
     private void sendAll(String msg) {
-        Iterator<T> iterator = socketSessions.iterator();
-        while (iterator.hasNext()) {
-            T socketSession = iterator.next();
-            try {
-                boolean send = this.send(socketSession, msg);
-                if (!send) {
-                    //
-                    this.errorAutoClose(socketSession);
-                    iterator.remove();
-                }
-            } catch (Exception e) {
-                log.error(I18nMessageUtil.get("i18n.send_message_failure.9621"), e);
-                this.errorAutoClose(socketSession);
-                iterator.remove();
-            }
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.offer(msg);
+        }
+    }
+
+    /**
+     * 移除会话，没有会话后停止跟随
+     *
+     * @param socketSession 会话
+     * @param close         是否关闭会话
+     */
+    private void removeSession(T socketSession, boolean close) {
+        if (subscribers.remove(this.getId(socketSession)) == null) {
+            return;
+        }
+        if (close) {
+            log.warn(I18nMessageUtil.get("i18n.message_send_failed.4dbe"), this.getId(socketSession));
+            IoUtil.close(socketSession);
         }
-        if (this.socketSessions.isEmpty()) {
+        if (this.subscribers.isEmpty()) {
             this.close();
         }
     }
 
-    private void errorAutoClose(T socketSession) {
-        log.warn(I18nMessageUtil.get("i18n.message_send_failed.4dbe"), this.getId(socketSession));
-        IoUtil.close(socketSession);
+    /**
+     * 移除会话
+     *
+     * @param session 会话
+     * @return 是否还有会话
+     */
+    protected boolean remove(T session) {
+        this.removeSession(session, false);
+        return !this.subscribers.isEmpty();
     }
 
-    private String getId(T session) {
-        Method byName = ReflectUtil.getMethodByName(session.getClass(), "getId");
-        Assert.notNull(byName, I18nMessageUtil.get("i18n.no_get_id_method.2a65"));
-        return ReflectUtil.invoke(session, byName);
+    /**
+     * 当前所有会话
+     *
+     * @return 会话
+     */
+    protected Collection<T> sessions() {
+        List<T> list = new ArrayList<>(subscribers.size());
+        for (Subscriber subscriber : subscribers.values()) {
+            list.add(subscriber.session);
+        }
+        return list;
+    }
+
+    /**
+     * 是否没有会话
+     *
+     * @return true 没有会话
+     */
+    protected boolean isEmpty() {
+        return subscribers.isEmpty();
     }
 
     /**
@@ -114,47 +166,315 @@ public abstract class BaseFileTailWatcher<T extends AutoCloseable> {
      * @param session 会话
      */
     protected boolean add(T session, String name) throws IOException {
-        String id = getId(session);
-        Method byName = ReflectUtil.getMethodByName(session.getClass(), "getId");
-        boolean match = this.socketSessions.stream()
-            .anyMatch(t -> {
-                String itemId = ReflectUtil.invoke(t, byName);
-                return StrUtil.equals(id, itemId);
-            });
-        if (match) {
+        Subscriber subscriber = new Subscriber(session);
+        if (subscribers.putIfAbsent(subscriber.id, subscriber) != null) {
             return false;
         }
-        if (this.socketSessions.add(session)) {
-            this.send(session, StrUtil.format(I18nMessageUtil.get("i18n.listen_log_success_currently_sessions_viewing.a74a"), name, this.socketSessions.size()));
-            // 开发发送头信息
-            for (String s : limitQueue) {
-                this.send(session, s);
-            }
+        subscriber.offer(StrUtil.format(I18nMessageUtil.get("i18n.listen_log_success_currently_sessions_viewing.a74a"), name, this.subscribers.size()));
+        // 开发发送头信息
+        if (!limitQueue.isEmpty()) {
+            subscriber.offer(String.join(StrUtil.CRLF, limitQueue));
         }
         return true;
     }
 
-    public void start() {
-        //this.tailWatcherRun = new FileTailWatcherRun(logFile, this::sendAll);
-        this.tailer = new Tailer(logFile, charset, line -> {
-            limitQueue.offer(line);
-            this.sendAll(line);
-        }, initReadLine, DateUnit.SECOND.getMillis());
-        this.tailer.start(true);
+    /**
+     * 开始跟随，已经开始的不重复执行
+     */
+    public synchronized void start() {
+        if (this.pollFuture != null) {
+            return;
+        }
+        this.lineBuffer.reset();
+        this.position = logFile.length();
+        try {
+            List<String> lines = this.readTailLines(initReadLine);
+            this.dispatch(lines);
+        } catch (IOException e) {
+            log.warn(I18nMessageUtil.get("i18n.tail_read_file_failed.f7ae"), logFile.getAbsolutePath(), e.getMessage());
+        }
+        this.pollFuture = FileTailEngine.pollExecutor().scheduleWithFixedDelay(this::poll, FileTailEngine.POLL_INTERVAL, FileTailEngine.POLL_INTERVAL, TimeUnit.MILLISECONDS);
     }
 
-    public void restart() {
-        if (this.tailer != null) {
-            this.tailer.stop();
-        }
+    public synchronized void restart() {
+        this.stop();
         this.sendAll("Relisten to the file............");
         this.start();
     }
 
+    private synchronized void stop() {
+        if (this.pollFuture != null) {
+            this.pollFuture.cancel(false);
+            this.pollFuture = null;
+        }
+    }
+
     /**
      * 关闭
      */
     protected void close() {
-        this.tailer.stop();
+        this.stop();
+    }
+
+    /**
+     * 读取文件新增的内容
+     */
+    private synchronized void poll() {
+        if (this.pollFuture == null) {
+            return;
+        }
+        this.checkSendTimeout();
+        try {
+            long length = logFile.length();
+            if (length < position) {
+                // 文件被清空或者重新创建
+                position = 0;
+                lineBuffer.reset();
+            }
+            if (length == position) {
+                return;
+            }
+            List<String> lines = new ArrayList<>();
+            try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+                int read;
+                while ((read = channel.read(buffer, position)) > 0) {
+                    position += read;
+                    readBytes.add(read);
+                    byte[] array = buffer.array();
+                    int start = 0;
+                    for (int i = 0; i < read; i++) {
+                        if (array[i] != '\n') {
+                            continue;
+                        }
+                        lineBuffer.write(array, start, i - start);
+                        lines.add(this.takeLine());
+                        start = i + 1;
+                    }
+                    lineBuffer.write(array, start, read - start);
+                    buffer.clear();
+                }
+            }
+            this.dispatch(lines);
+        } catch (Exception e) {
+            log.warn(I18nMessageUtil.get("i18n.tail_read_file_failed.f7ae"), logFile.getAbsolutePath(), e.getMessage());
+        }
+    }
+
+    /**
+     * 断开发送超时的会话
+     */
+    private void checkSendTimeout() {
+        long now = System.currentTimeMillis();
+        long timeout = FileTailEngine.getSendTimeout();
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.checkTimeout(now, timeout);
+        }
+    }
+
+    private String takeLine() {
+        byte[] bytes = lineBuffer.toByteArray();
+        lineBuffer.reset();
+        int length = bytes.length;
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+        return new String(bytes, 0, length, charset);
+    }
+
+    /**
+     * 读取文件最后几行
+     *
+     * @param count 行数
+     * @return 行
+     * @throws IOException io
+     */
+    private List<String> readTailLines(int count) throws IOException {
+        if (count <= 0 || position <= 0) {
+            return Collections.emptyList();
+        }
+        try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+            // 从末尾向前查找换行符，最后一个字符为换行时不计数
+            long end = position;
+            long start = end;
+            int found = 0;
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            while (start > 0 && found <= count) {
+                int size = (int) Math.min(READ_BUFFER_SIZE, start);
+                buffer.clear();
+                buffer.limit(size);
+                channel.read(buffer, start - size);
+                byte[] array = buffer.array();
+                int i = size - 1;
+                for (; i >= 0; i--) {
+                    if (array[i] == '\n' && start - size + i != end - 1 && ++found > count) {
+                        break;
+                    }
+                }
+                start = i >= 0 ? start - size + i + 1 : start - size;
+            }
+            ByteBuffer content = ByteBuffer.allocate((int) (end - start));
+            channel.read(content, start);
+            String str = new String(content.array(), 0, content.position(), charset);
+            List<String> lines = StrUtil.split(StrUtil.removeSuffix(str, StrUtil.LF), StrUtil.C_LF);
+            List<String> result = new ArrayList<>(lines.size());
+            for (String line : lines) {
+                result.add(StrUtil.removeSuffix(line, StrUtil.CR));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 合并为批量消息发送
+     *
+     * @param lines 行
+     */
+    private void dispatch(List<String> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        readLines.add(lines.size());
+        StringBuilder builder = new StringBuilder();
+        for (String line : lines) {
+            limitQueue.offer(line);
+            if (builder.length() > 0 && builder.length() + line.length() > FileTailEngine.BATCH_MAX_SIZE) {
+                this.sendAll(builder.toString());
+                builder.setLength(0);
+            }
+            if (builder.length() > 0) {
+                builder.append(StrUtil.CRLF);
+            }
+            builder.append(line);
+        }
+        this.sendAll(builder.toString());
+    }
+
+    /**
+     * 统计信息
+     *
+     * @return map
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>(8);
+        map.put("file", logFile.getAbsolutePath());
+        map.put("sessions", subscribers.size());
+        map.put("readLines", readLines.sum());
+        map.put("readBytes", readBytes.sum());
+        map.put("sendFrames", sendFrames.sum());
+        map.put("dropSessions", dropSessions.sum());
+        long seconds = Math.max((System.currentTimeMillis() - createTime) / 1000, 1);
+        map.put("linesPerSecond", readLines.sum() / seconds);
+        return map;
+    }
+
+    /**
+     * 会话订阅
+     */
+    private class Subscriber {
+        private final T session;
+        private final String id;
+        private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(FileTailEngine.SUBSCRIBER_QUEUE_SIZE);
+        private final AtomicBoolean sending = new AtomicBoolean(false);
+        private volatile boolean dropped;
+        /**
+         * 正在发送消息的线程和开始时间
+         */
+        private Thread sendThread;
+        private long sendStart;
+
+        private Subscriber(T session) {
+            this.session = session;
+            this.id = BaseFileTailWatcher.this.getId(session);
+        }
+
+        private void offer(String msg) {
+            if (dropped) {
+                return;
+            }
+            if (!queue.offer(msg)) {
+                // 消费过慢，断开会话避免阻塞其他会话
+                this.drop();
+                return;
+            }
+            if (sending.compareAndSet(false, true)) {
+                FileTailEngine.sendExecutor().execute(this::drain);
+            }
+        }
+
+        private void drop() {
+            if (dropped) {
+                return;
+            }
+            dropped = true;
+            log.warn(I18nMessageUtil.get("i18n.tail_session_too_slow.d021"), id);
+            dropSessions.increment();
+            queue.clear();
+            removeSession(session, true);
+        }
+
+        /**
+         * 发送超时，断开会话并中断发送线程
+         *
+         * @param now     当前时间
+         * @param timeout 超时时间
+         */
+        private void checkTimeout(long now, long timeout) {
+            synchronized (this) {
+                if (sendThread == null || now - sendStart < timeout) {
+                    return;
+                }
+                sendThread.interrupt();
+            }
+            this.drop();
+        }
+
+        private void drain() {
+            while (true) {
+                if (dropped) {
+                    queue.clear();
+                    sending.set(false);
+                    return;
+                }
+                String msg = queue.poll();
+                if (msg == null) {
+                    sending.set(false);
+                    // 释放标记后可能有新的消息
+                    if (queue.isEmpty() || !sending.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                try {
+                    synchronized (this) {
+                        sendThread = Thread.currentThread();
+                        sendStart = System.currentTimeMillis();
+                    }
+                    boolean send;
+                    try {
+                        send = BaseFileTailWatcher.this.send(session, msg);
+                    } finally {
+                        synchronized (this) {
+                            sendThread = null;
+                        }
+                        // 超时中断后线程归还给线程池，清除中断标记
+                        Thread.interrupted();
+                    }
+                    if (!send) {
+                        queue.clear();
+                        removeSession(session, true);
+                        return;
+                    }
+                    sendFrames.increment();
+                } catch (Exception e) {
+                    if (!dropped) {
+                        log.error(I18nMessageUtil.get("i18n.send_message_failure.9621"), e);
+                    }
+                    queue.clear();
+                    removeSession(session, true);
+                    return;
+                }
+            }
+        }
     }
 }
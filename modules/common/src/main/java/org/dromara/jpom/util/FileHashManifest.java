@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.codec.Base64;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IORuntimeException;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.CharsetUtil;
+import cn.hutool.core.util.RuntimeUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.JpomApplication;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 文件签名清单
+ * <p>
+ * 记录每个文件的大小、修改时间和 sha1，再次扫描时大小和修改时间都没有变化的文件直接使用记录的签名，
+ * 只有变化的文件才会重新读取（并行计算）
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class FileHashManifest {
+
+    private static final String HEADER = "jpom-file-manifest";
+    private static final int VERSION = 1;
+    /**
+     * 修改时间距离上次扫描太近的文件可能在同一个时间刻度内再次被修改，不使用记录的签名
+     */
+    private static final long RACY_MILLIS = 2000;
+
+    private static volatile ForkJoinPool hashPool;
+
+    /**
+     * 清单存储文件，为 null 时不保存
+     */
+    private final File store;
+    /**
+     * 扫描的文件数
+     */
+    @Getter
+    private int fileCount;
+    /**
+     * 重新计算签名的文件数
+     */
+    @Getter
+    private int hashCount;
+
+    public FileHashManifest(File store) {
+        this.store = store;
+    }
+
+    /**
+     * 扫描文件签名，并更新清单
+     *
+     * @param target   需要扫描的文件或者文件夹
+     * @param basePath 文件名称相对的路径
+     * @return 文件名称 -> sha1
+     */
+    public Map<String, String> scan(File target, String basePath) {
+        long scanTime = System.currentTimeMillis();
+        Map<String, Item> old = this.load();
+        List<Item> items = new ArrayList<>();
+        List<Item> changed = new ArrayList<>();
+        Path base = Paths.get(basePath).toAbsolutePath().normalize();
+        try {
+            Files.walkFileTree(target.toPath().toAbsolutePath().normalize(), EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (!attrs.isRegularFile()) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    String name = StrUtil.replace(base.relativize(file).toString(), File.separator, StrUtil.SLASH);
+                    Item item = new Item(name, attrs.size(), attrs.lastModifiedTime().toMillis());
+                    Item oldItem = old.get(name);
+                    if (oldItem != null && oldItem.size == item.size && oldItem.modified == item.modified && oldItem.modified < oldItem.scanTime - RACY_MILLIS) {
+                        item.sha1 = oldItem.sha1;
+                    } else {
+                        item.file = file.toFile();
+                        changed.add(item);
+                    }
+                    item.scanTime = scanTime;
+                    items.add(item);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    // 和 FileUtil.loopFiles 一致，跳过无法读取的文件和循环链接
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (NoSuchFileException e) {
+            // 目录不存在
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+        try {
+            hashPool().submit(() -> changed.parallelStream().forEach(item -> item.sha1 = SecureUtil.sha1(item.file))).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        this.fileCount = items.size();
+        this.hashCount = changed.size();
+        this.save(items);
+        Map<String, String> result = new LinkedHashMap<>(items.size());
+        for (Item item : items) {
+            result.put(item.name, item.sha1);
+        }
+        return result;
+    }
+
+    private Map<String, Item> load() {
+        Map<String, Item> map = new HashMap<>();
+        if (store == null || !store.isFile()) {
+            return map;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(store.toPath())), CharsetUtil.CHARSET_UTF_8))) {
+            String header = reader.readLine();
+            if (!StrUtil.equals(header, HEADER + StrUtil.SPACE + VERSION)) {
+                return map;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                List<String> list = StrUtil.split(line, '\t', 5);
+                if (list.size() != 5) {
+                    continue;
+                }
+                Item item = new Item(list.get(4), Long.parseLong(list.get(0)), Long.parseLong(list.get(1)));
+                item.scanTime = Long.parseLong(list.get(2));
+                item.sha1 = list.get(3);
+                map.put(item.name, item);
+            }
+        } catch (Exception e) {
+            // 清单损坏时全部重新计算
+            log.warn("load file manifest error {} {}", store.getAbsolutePath(), e.getMessage());
+            map.clear();
+        }
+        return map;
+    }
+
+    private void save(List<Item> items) {
+        if (store == null) {
+            return;
+        }
+        File temp = FileUtil.file(store.getParentFile(), store.getName() + ".tmp");
+        FileUtil.mkParentDirs(temp);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(temp.toPath())), CharsetUtil.CHARSET_UTF_8))) {
+            writer.write(HEADER + StrUtil.SPACE + VERSION);
+            writer.write('\n');
+            for (Item item : items) {
+                writer.write(item.size + "\t" + item.modified + "\t" + item.scanTime + "\t" + item.sha1 + "\t" + item.name);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            log.warn("save file manifest error {} {}", store.getAbsolutePath(), e.getMessage());
+            FileUtil.del(temp);
+            return;
+        }
+        try {
+            Files.move(temp.toPath(), store.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            FileUtil.move(temp, store, true);
+        }
+    }
+
+    /**
+     * 压缩签名列表，用于服务端和插件端之间传输
+     * <p>
+     * 每行为 sha1 + 空格 + 文件名称，gzip 后使用 base64 编码
+     *
+     * @param map 文件名称 -> sha1
+     * @return base64
+     */
+    public static String encode(Map<String, String> map) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(outputStream), CharsetUtil.CHARSET_UTF_8)) {
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                writer.write(entry.getValue());
+                writer.write(' ');
+                writer.write(entry.getKey());
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.encode(outputStream.toByteArray());
+    }
+
+    /**
+     * 解压签名列表
+     *
+     * @param data {@link #encode(Map)} 的结果
+     * @return 文件名称 -> sha1
+     */
+    public static Map<String, String> decode(String data) {
+        Map<String, String> map = new LinkedHashMap<>();
+        try (BufferedReader reader = IoUtil.getReader(new GZIPInputStream(new ByteArrayInputStream(Base64.decode(data))), CharsetUtil.CHARSET_UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int index = line.indexOf(' ');
+                if (index <= 0) {
+                    continue;
+                }
+                map.put(line.substring(index + 1), line.substring(0, index));
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return map;
+    }
+
+    private static ForkJoinPool hashPool() {
+        if (hashPool == null) {
+            synchronized (FileHashManifest.class) {
+                if (hashPool == null) {
+                    ForkJoinPool pool = new ForkJoinPool(Math.max(RuntimeUtil.getProcessorCount(), 2));
+                    JpomApplication.register("file-hash", pool);
+                    hashPool = pool;
+                }
+            }
+        }
+        return hashPool;
+    }
+
+    private static class Item {
+        private final String name;
+        private final long size;
+        private final long modified;
+        private long scanTime;
+        private String sha1;
+        private File file;
+
+        private Item(String name, long size, long modified) {
+            this.name = name;
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.RuntimeUtil;
+import org.dromara.jpom.JpomApplication;
+
+import java.util.concurrent.*;
+
+/**
+ * 文件跟随共享线程池
+ * <p>
+ * 所有跟随的文件由少量线程定时轮询读取，会话消息由发送线程池异步发送，不再每个文件一个线程
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class FileTailEngine {
+
+    /**
+     * 轮询文件间隔，同一个间隔内读取到的行合并为一条消息发送
+     */
+    public static final long POLL_INTERVAL = 500;
+    /**
+     * 单条消息最大字符数，超过后拆分为多条
+     */
+    public static final int BATCH_MAX_SIZE = 64 * 1024;
+    /**
+     * 每个会话最多等待发送的消息数，超过后认为会话消费过慢将被关闭
+     */
+    public static final int SUBSCRIBER_QUEUE_SIZE = 256;
+    /**
+     * 单条消息发送超时时间（毫秒），超过后断开会话并中断发送线程，卡住的会话不会一直占用发送线程
+     */
+    private static volatile long sendTimeout = 10_000;
+
+    private static volatile ScheduledExecutorService pollExecutor;
+    private static volatile ExecutorService sendExecutor;
+
+    public static void setSendTimeout(long sendTimeout) {
+        FileTailEngine.sendTimeout = sendTimeout;
+    }
+
+    public static long getSendTimeout() {
+        return sendTimeout;
+    }
+
+    /**
+     * 轮询读取文件的线程池
+     *
+     * @return 定时线程池
+     */
+    static ScheduledExecutorService pollExecutor() {
+        if (pollExecutor == null) {
+            synchronized (FileTailEngine.class) {
+                if (pollExecutor == null) {
+                    int poolSize = Math.max(RuntimeUtil.getProcessorCount() / 2, 2);
+                    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(poolSize,
+                        ThreadFactoryBuilder.create().setNamePrefix("jpom-file-tail-").setDaemon(true).build());
+                    executor.setRemoveOnCancelPolicy(true);
+                    JpomApplication.register("file-tail", executor);
+                    pollExecutor = executor;
+                }
+            }
+        }
+        return pollExecutor;
+    }
+
+    /**
+     * 发送会话消息的线程池，每个会话同一时间最多占用一个线程
+     *
+     * @return 线程池
+     */
+    static ExecutorService sendExecutor() {
+        if (sendExecutor == null) {
+            synchronized (FileTailEngine.class) {
+                if (sendExecutor == null) {
+                    int poolSize = Math.max(RuntimeUtil.getProcessorCount(), 4);
+                    ThreadPoolExecutor executor = ExecutorBuilder.create()
+                        .setCorePoolSize(poolSize)
+                        .setMaxPoolSize(poolSize)
+                        .setAllowCoreThreadTimeOut(true)
+                        .setWorkQueue(new LinkedBlockingQueue<>())
+                        .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("jpom-file-tail-send-").setDaemon(true).build())
+                        .build();
+                    JpomApplication.register("file-tail-send", executor);
+                    sendExecutor = executor;
+                }
+            }
+        }
+        return sendExecutor;
+    }
+}
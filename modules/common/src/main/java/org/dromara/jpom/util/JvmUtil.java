@@ -115,6 +115,25 @@ public class JvmUtil {
             .orElse(null);
     }
 
+    /**
+     * 解析单个启动参数中的 jpom 项目标识
+     *
+     * @param arg 单个启动参数，如：-DJpom.application=xxx
+     * @return 项目id，不是 jpom 标识返回 null
+     */
+    public static String parseJpomPidTag(String arg) {
+        if (StrUtil.isEmpty(arg)) {
+            return null;
+        }
+        for (String tag : JPOM_PID_TAG) {
+            String prefix = String.format("-%s=", tag);
+            if (StrUtil.startWithIgnoreCase(arg, prefix)) {
+                return StrUtil.emptyToNull(arg.substring(prefix.length()));
+            }
+        }
+        return null;
+    }
+
     /**
      * 判断命令行是否为jpom 标识
      *
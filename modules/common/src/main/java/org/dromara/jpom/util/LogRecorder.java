@@ -12,11 +12,11 @@ package org.dromara.jpom.util;
 import cn.hutool.core.exceptions.ExceptionUtil;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.io.IoUtil;
-import cn.hutool.core.io.file.FileWriter;
 import cn.hutool.core.util.CharsetUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.keepbx.jpom.log.ILogRecorder;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
@@ -28,9 +28,12 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.nio.charset.Charset;
+import java.util.Map;
 
 /**
  * 日志记录
+ * <p>
+ * 日志由 {@link AsyncLogWriter} 异步批量写入文件，{@link #flush()}、{@link #size()}、{@link #close()} 会先写完已经记录的内容
  *
  * @author bwcx_jzy
  * @since 2022/1/26
@@ -41,6 +44,8 @@ public class LogRecorder extends OutputStream implements ILogRecorder, AutoClose
 
     private File file;
     private PrintWriter writer;
+    @Getter(AccessLevel.NONE)
+    private AsyncLogWriter asyncWriter;
     private final Charset charset;
 
     private LogRecorder(File file, Charset charset) {
@@ -52,7 +57,8 @@ public class LogRecorder extends OutputStream implements ILogRecorder, AutoClose
         }
         this.file = file;
         this.charset = charset;
-        this.writer = FileWriter.create(file, charset).getPrintWriter(true);
+        this.asyncWriter = new AsyncLogWriter(file, charset);
+        this.writer = new PrintWriter(asyncWriter);
     }
 
     public static Builder builder() {
@@ -98,10 +104,9 @@ public class LogRecorder extends OutputStream implements ILogRecorder, AutoClose
         if (writer == null) {
             throw new LogRecorderCloseException();
         }
-        writer.println(title);
+        asyncWriter.line(title);
         String s = ExceptionUtil.stacktraceToString(throwable);
-        writer.println(s);
-        writer.flush();
+        asyncWriter.line(s);
     }
 
     /**
@@ -114,11 +119,24 @@ public class LogRecorder extends OutputStream implements ILogRecorder, AutoClose
             throw new LogRecorderCloseException();
         }
         String format = StrUtil.format(info, vals);
-        writer.println(format);
-        writer.flush();
+        asyncWriter.line(format);
         return format;
     }
 
+    /**
+     * 记录单行原始日志，不格式化（用于记录进程的输出）
+     *
+     * @param line 日志
+     * @return 日志
+     */
+    public String appendLine(String line) {
+        if (writer == null) {
+            throw new LogRecorderCloseException();
+        }
+        asyncWriter.line(line);
+        return line;
+    }
+
     /**
      * 记录单行日志
      *
@@ -155,9 +173,7 @@ public class LogRecorder extends OutputStream implements ILogRecorder, AutoClose
         if (writer == null) {
             throw new LogRecorderCloseException();
         }
-        writer.append(StrUtil.format(info, vals));
-        writer.flush();
-
+        asyncWriter.text(StrUtil.format(info, vals));
     }
 
     /**
@@ -169,18 +185,39 @@ public class LogRecorder extends OutputStream implements ILogRecorder, AutoClose
         return writer;
     }
 
+    /**
+     * 写入已经记录的日志到文件
+     */
+    @Override
+    public void flush() {
+        if (asyncWriter != null) {
+            asyncWriter.flush();
+        }
+    }
+
     @Override
     public void close() {
-        IoUtil.close(writer);
+        IoUtil.close(asyncWriter);
         this.writer = null;
         this.file = null;
     }
 
     public long size() {
         Assert.notNull(writer, I18nMessageUtil.get("i18n.log_recorder_not_enabled.5a4e"));
+        asyncWriter.flush();
         return FileUtil.size(this.file);
     }
 
+    /**
+     * 写入统计信息（行数、字符数、批次数、刷新次数、缓冲区满等待次数、每秒行数）
+     *
+     * @return map
+     */
+    public Map<String, Object> getMetrics() {
+        Assert.notNull(asyncWriter, I18nMessageUtil.get("i18n.log_recorder_not_enabled.5a4e"));
+        return asyncWriter.getMetrics();
+    }
+
     @Override
     public void write(int b) throws IOException {
         if (writer == null) {
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.net.NetUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.core.util.URLUtil;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.springframework.util.Assert;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+/**
+ * 项目就绪探测
+ * <p>
+ * 为空：只检查项目进程是否存在；port：项目进程监听了端口；tcp://host:port：端口可以连接；http(s)://：请求返回 2xx
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class ReadinessProbe {
+
+    public static final String PORT = "port";
+    private static final String TCP = "tcp://";
+    private static final int TIMEOUT = 5000;
+
+    /**
+     * 检查探测配置
+     *
+     * @param probe 探测配置
+     */
+    public static void check(String probe) {
+        if (StrUtil.isEmpty(probe) || StrUtil.equals(probe, PORT)) {
+            return;
+        }
+        if (StrUtil.startWithIgnoreCase(probe, TCP)) {
+            URI uri = URLUtil.toURI(probe);
+            Assert.state(StrUtil.isNotEmpty(uri.getHost()) && uri.getPort() > 0,
+                StrUtil.format(I18nMessageUtil.get("i18n.readiness_probe_unsupported.cc0e"), probe));
+            return;
+        }
+        boolean http = StrUtil.startWithIgnoreCase(probe, "http://") || StrUtil.startWithIgnoreCase(probe, "https://");
+        Assert.state(http && StrUtil.isNotEmpty(URLUtil.toURI(probe).getHost()),
+            StrUtil.format(I18nMessageUtil.get("i18n.readiness_probe_unsupported.cc0e"), probe));
+    }
+
+    /**
+     * 进程是否监听了端口，未监听时端口查询返回空或者 -
+     *
+     * @param ports 查询到的端口
+     * @return 任意一个有端口则为 true
+     */
+    public static boolean isListening(String... ports) {
+        for (String port : ports) {
+            if (StrUtil.isNotBlank(port) && !StrUtil.equals(port, StrUtil.DASHED)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 执行 tcp、http 探测
+     *
+     * @param probe 探测配置
+     * @return 探测失败的原因，成功或者不需要探测返回 null
+     */
+    public static String probe(String probe) {
+        if (StrUtil.isEmpty(probe) || StrUtil.equals(probe, PORT)) {
+            return null;
+        }
+        try {
+            if (StrUtil.startWithIgnoreCase(probe, TCP)) {
+                URI uri = URLUtil.toURI(probe);
+                boolean open = NetUtil.isOpen(new InetSocketAddress(uri.getHost(), uri.getPort()), TIMEOUT);
+                return open ? null : StrUtil.format(I18nMessageUtil.get("i18n.readiness_probe_failed.0b13"), probe, "connect refused");
+            }
+            try (HttpResponse response = HttpRequest.get(probe).timeout(TIMEOUT).execute()) {
+                return response.isOk() ? null : StrUtil.format(I18nMessageUtil.get("i18n.readiness_probe_failed.0b13"), probe, response.getStatus());
+            }
+        } catch (Exception e) {
+            return StrUtil.format(I18nMessageUtil.get("i18n.readiness_probe_failed.0b13"), probe, e.getMessage());
+        }
+    }
+}
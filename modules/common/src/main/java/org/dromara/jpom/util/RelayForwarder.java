@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.collection.CollUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.model.RelayNode;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 中继分发转发器
+ * <p>
+ * 本地收到的分片依次转发给每个子节点，每个子节点同一时间只有一个分片在发送。子节点转发失败后不再转发给该子节点，
+ * 改为直接转发给该子节点的所有子节点（已经收到的分片全部补发）
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public abstract class RelayForwarder {
+
+    /**
+     * 单个分片转发失败后的重试次数
+     */
+    private static final int RETRY = 2;
+
+    private final Set<Integer> received = new ConcurrentSkipListSet<>();
+    private final Map<String, Target> targets = new ConcurrentHashMap<>();
+
+    protected RelayForwarder(List<RelayNode> children) {
+        for (RelayNode child : CollUtil.emptyIfNull(children)) {
+            this.addTarget(child);
+        }
+    }
+
+    /**
+     * 发送分片到子节点
+     *
+     * @param node  子节点，需要携带子节点的 children
+     * @param slice 分片序号
+     * @throws Exception 发送失败
+     */
+    protected abstract void send(RelayNode node, int slice) throws Exception;
+
+    /**
+     * 转发使用的线程池
+     *
+     * @return 线程池
+     */
+    protected abstract Executor executor();
+
+    /**
+     * 本地已经存在分片，开始转发
+     *
+     * @param slice 分片序号
+     */
+    public void onSlice(int slice) {
+        received.add(slice);
+        for (Target target : targets.values()) {
+            target.offer(slice);
+        }
+    }
+
+    /**
+     * 本地已经存在的分片数
+     *
+     * @return 分片数
+     */
+    public int receivedCount() {
+        return received.size();
+    }
+
+    /**
+     * 等待转发的分片数（包含正在发送的）
+     *
+     * @return 分片数
+     */
+    public int pendingCount() {
+        return targets.values().stream()
+            .filter(target -> !target.failed)
+            .mapToInt(target -> target.pending.size() + (target.running.get() ? 1 : 0))
+            .sum();
+    }
+
+    /**
+     * 转发失败的节点
+     *
+     * @return 节点名称
+     */
+    public List<String> failedNodes() {
+        return targets.values().stream()
+            .filter(target -> target.failed)
+            .map(target -> target.node.getName())
+            .collect(Collectors.toList());
+    }
+
+    private void addTarget(RelayNode node) {
+        Target target = new Target(node);
+        if (targets.putIfAbsent(node.getUrl(), target) != null) {
+            return;
+        }
+        for (Integer slice : received) {
+            target.offer(slice);
+        }
+    }
+
+    private void onFailed(Target target) {
+        target.failed = true;
+        target.pending.clear();
+        List<RelayNode> children = CollUtil.emptyIfNull(target.node.getChildren());
+        log.warn(I18nMessageUtil.get("i18n.relay_node_failed.d73f"), target.node.getName(),
+            children.stream().map(RelayNode::getName).collect(Collectors.joining(",")));
+        for (RelayNode child : children) {
+            this.addTarget(child);
+        }
+    }
+
+    private class Target implements Runnable {
+        private final RelayNode node;
+        private final Set<Integer> accepted = ConcurrentHashMap.newKeySet();
+        private final Queue<Integer> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean running = new AtomicBoolean();
+        private volatile boolean failed;
+
+        private Target(RelayNode node) {
+            this.node = node;
+        }
+
+        private void offer(int slice) {
+            if (failed || !accepted.add(slice)) {
+                return;
+            }
+            pending.offer(slice);
+            this.schedule();
+        }
+
+        private void schedule() {
+            if (running.compareAndSet(false, true)) {
+                executor().execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Integer slice;
+                while (!failed && (slice = pending.poll()) != null) {
+                    if (!this.send(slice)) {
+                        onFailed(this);
+                        return;
+                    }
+                }
+            } finally {
+                running.set(false);
+            }
+            if (!failed && !pending.isEmpty()) {
+                this.schedule();
+            }
+        }
+
+        private boolean send(int slice) {
+            for (int i = 0; i <= RETRY; i++) {
+                try {
+                    RelayForwarder.this.send(node, slice);
+                    return true;
+                } catch (Exception e) {
+                    log.warn(I18nMessageUtil.get("i18n.relay_forward_slice_failed.a40c"), node.getName(), slice, e.getMessage());
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.codec.Base64;
+import cn.hutool.core.date.DateUnit;
+import cn.hutool.core.date.SystemClock;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.map.SafeConcurrentHashMap;
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import com.alibaba.fastjson2.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.springframework.util.Assert;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 分片上传接收
+ * <p>
+ * 分片按照序号直接写入目标文件对应的位置，分片可以乱序到达；携带分片签名时边写边校验。
+ * 全部分片到达后只需要截断长度并落盘，不再合并分片，分片都已经校验时也不再重新计算整个文件的签名。
+ * 已经收到的分片记录在同目录的状态文件中，服务重启后可以继续上传
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class ShardingReceiver {
+
+    private static final String STATE_NAME = "sharding-state.json";
+    /**
+     * 还不知道分片大小时最后一个分片先暂存，知道分片大小后再写入目标文件
+     */
+    private static final String PENDING_LAST_NAME = "last.part";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Map<String, ShardingReceiver> RECEIVERS = new SafeConcurrentHashMap<>();
+
+    private final File slicePath;
+    private final File stateFile;
+    private final File targetFile;
+    private final String fileName;
+    private final int totalSlice;
+    private final BitSet received;
+    /**
+     * 校验过分片签名的分片
+     */
+    private final BitSet verified;
+    private long sliceSize;
+    private long fileSize;
+    private long lastSize = -1;
+    private boolean pendingLast;
+    private volatile long lastActive = SystemClock.now();
+
+    private ShardingReceiver(File slicePath, String fileName, int totalSlice) {
+        this.slicePath = slicePath;
+        this.stateFile = FileUtil.file(slicePath, STATE_NAME);
+        this.fileName = fileName;
+        this.targetFile = FileUtil.file(slicePath, fileName);
+        this.totalSlice = totalSlice;
+        this.received = new BitSet(totalSlice);
+        this.verified = new BitSet(totalSlice);
+    }
+
+    /**
+     * 开始或者继续接收分片
+     *
+     * @param slicePath  分片目录
+     * @param fileName   文件名
+     * @param totalSlice 分片总数
+     * @return 接收器
+     */
+    public static ShardingReceiver open(File slicePath, String fileName, int totalSlice) {
+        ShardingReceiver receiver = get(slicePath);
+        if (receiver == null) {
+            clearExpired();
+            receiver = RECEIVERS.computeIfAbsent(FileUtil.getAbsolutePath(slicePath), s -> new ShardingReceiver(slicePath, fileName, totalSlice));
+        }
+        String name = receiver.fileName;
+        Assert.state(StrUtil.equals(name, fileName), () -> StrUtil.format(I18nMessageUtil.get("i18n.slice_file_name_mismatch.eb55"), fileName, name));
+        Assert.state(receiver.totalSlice == totalSlice, I18nMessageUtil.get("i18n.current_upload_chunk_info_incorrect.900e"));
+        return receiver;
+    }
+
+    /**
+     * 获取正在接收的分片信息，服务重启后从状态文件中恢复
+     *
+     * @param slicePath 分片目录
+     * @return 不存在返回 null
+     */
+    public static ShardingReceiver get(File slicePath) {
+        return RECEIVERS.computeIfAbsent(FileUtil.getAbsolutePath(slicePath), s -> load(slicePath));
+    }
+
+    private static ShardingReceiver load(File slicePath) {
+        File stateFile = FileUtil.file(slicePath, STATE_NAME);
+        if (!FileUtil.isFile(stateFile)) {
+            return null;
+        }
+        try {
+            JSONObject state = JSONObject.parseObject(FileUtil.readUtf8String(stateFile));
+            ShardingReceiver receiver = new ShardingReceiver(slicePath, state.getString("fileName"), state.getIntValue("totalSlice"));
+            receiver.sliceSize = state.getLongValue("sliceSize");
+            receiver.fileSize = state.getLongValue("fileSize");
+            receiver.lastSize = state.getLongValue("lastSize", -1L);
+            receiver.pendingLast = state.getBooleanValue("pendingLast");
+            receiver.received.or(BitSet.valueOf(Base64.decode(state.getString("received"))));
+            receiver.verified.or(BitSet.valueOf(Base64.decode(state.getString("verified"))));
+            return receiver;
+        } catch (Exception e) {
+            // 状态文件损坏，重新上传
+            log.warn("sharding state error {} {}", FileUtil.getAbsolutePath(stateFile), e.getMessage());
+            FileUtil.del(stateFile);
+            return null;
+        }
+    }
+
+    /**
+     * 删除超过一天没有继续上传的接收器，分片文件由临时目录清理
+     */
+    private static void clearExpired() {
+        long now = SystemClock.now();
+        RECEIVERS.values().removeIf(receiver -> now - receiver.lastActive > DateUnit.DAY.getMillis());
+    }
+
+    /**
+     * 已经收到的分片序号
+     *
+     * @return 分片序号
+     */
+    public synchronized List<Integer> received() {
+        return received.stream().boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * 写入一个分片
+     *
+     * @param nowSlice  分片序号
+     * @param sliceSize 分片大小，0 表示未知（由第一个非最后一个分片确定）
+     * @param fileSize  文件大小，0 表示未知
+     * @param sliceMd5  分片签名，为空不校验
+     * @param length    分片长度
+     * @param in        分片内容
+     * @throws IOException io
+     */
+    public void write(int nowSlice, long sliceSize, long fileSize, String sliceMd5, long length, InputStream in) throws IOException {
+        Assert.state(nowSlice >= 0 && nowSlice < totalSlice, I18nMessageUtil.get("i18n.current_upload_chunk_info_incorrect.900e"));
+        boolean last = nowSlice == totalSlice - 1;
+        File file;
+        long position;
+        synchronized (this) {
+            lastActive = SystemClock.now();
+            if (sliceSize <= 0 && !last) {
+                sliceSize = length;
+            }
+            if (sliceSize > 0) {
+                if (this.sliceSize <= 0) {
+                    this.sliceSize = sliceSize;
+                }
+                this.checkSize(nowSlice, this.sliceSize == sliceSize, length);
+            }
+            if (fileSize > 0 && this.fileSize <= 0) {
+                this.fileSize = fileSize;
+            }
+            this.checkSize(nowSlice, last ? (this.sliceSize <= 0 || length <= this.sliceSize) : length == this.sliceSize, length);
+            if (last && this.fileSize > 0 && this.sliceSize > 0) {
+                this.checkSize(nowSlice, this.fileSize - this.sliceSize * (totalSlice - 1) == length, length);
+            }
+            if (last && totalSlice > 1 && this.sliceSize <= 0) {
+                // 只有最后一个分片先到达，还不知道写入的位置
+                file = FileUtil.file(slicePath, PENDING_LAST_NAME);
+                position = 0;
+            } else {
+                file = targetFile;
+                position = nowSlice * this.sliceSize;
+            }
+            if (file == targetFile && !targetFile.exists()) {
+                FileUtil.mkParentDirs(targetFile);
+                if (this.fileSize > 0) {
+                    // 一次性设置文件长度，之后的分片只按位置写入
+                    try (RandomAccessFile randomAccessFile = new RandomAccessFile(targetFile, "rw")) {
+                        randomAccessFile.setLength(this.fileSize);
+                    }
+                }
+            }
+        }
+        MessageDigest digest = StrUtil.isEmpty(sliceMd5) ? null : SecureUtil.md5().getDigest();
+        long count = 0;
+        FileUtil.mkParentDirs(file);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            byte[] bytes = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(bytes)) != -1) {
+                if (digest != null) {
+                    digest.update(bytes, 0, read);
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, read);
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                count += read;
+            }
+        }
+        this.checkSize(nowSlice, count == length, count);
+        if (digest != null) {
+            boolean checked = StrUtil.equalsIgnoreCase(HexUtil.encodeHexStr(digest.digest()), sliceMd5);
+            Assert.state(checked, () -> StrUtil.format(I18nMessageUtil.get("i18n.slice_checksum_mismatch.20f3"), nowSlice));
+        }
+        synchronized (this) {
+            received.set(nowSlice);
+            if (digest != null) {
+                verified.set(nowSlice);
+            } else {
+                verified.clear(nowSlice);
+            }
+            if (last) {
+                lastSize = length;
+                pendingLast = file != targetFile;
+            }
+            if (pendingLast && this.sliceSize > 0) {
+                this.writePendingLast();
+            }
+            this.saveState();
+        }
+    }
+
+    /**
+     * 全部分片已经写入，截断文件长度并落盘
+     *
+     * @param fileSumMd5 文件签名，存在没有校验过的分片时用于校验整个文件
+     * @return 上传完成的文件
+     * @throws IOException io
+     */
+    public synchronized File finish(String fileSumMd5) throws IOException {
+        int count = received.cardinality();
+        Assert.state(count == totalSlice, () -> StrUtil.format(I18nMessageUtil.get("i18n.file_upload_failure_due_to_missing_chunks.1865"), count, totalSlice));
+        if (pendingLast) {
+            this.writePendingLast();
+        }
+        long size = sliceSize * (totalSlice - 1) + lastSize;
+        try (FileChannel channel = FileChannel.open(targetFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            channel.force(true);
+        }
+        RECEIVERS.remove(FileUtil.getAbsolutePath(slicePath));
+        FileUtil.del(stateFile);
+        if (verified.cardinality() != totalSlice) {
+            // 存在没有携带分片签名的分片
+            String newMd5 = SecureUtil.md5(targetFile);
+            if (!StrUtil.equals(newMd5, fileSumMd5)) {
+                log.warn(I18nMessageUtil.get("i18n.file_merge_exception_details.e9d0"), FileUtil.getAbsolutePath(targetFile), newMd5, fileSumMd5);
+                FileUtil.del(targetFile);
+                throw new IllegalStateException(I18nMessageUtil.get("i18n.file_merge_error.f32f"));
+            }
+        }
+        return targetFile;
+    }
+
+    private void checkSize(int nowSlice, boolean expression, long length) {
+        Assert.state(expression, () -> StrUtil.format(I18nMessageUtil.get("i18n.slice_size_mismatch.6873"), nowSlice, length, sliceSize));
+    }
+
+    private void writePendingLast() throws IOException {
+        File pendingFile = FileUtil.file(slicePath, PENDING_LAST_NAME);
+        long position = sliceSize * (totalSlice - 1);
+        this.checkSize(totalSlice - 1, lastSize <= sliceSize, lastSize);
+        FileUtil.mkParentDirs(targetFile);
+        try (FileChannel source = FileChannel.open(pendingFile.toPath(), StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(targetFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long transferred = 0;
+            while (transferred < lastSize) {
+                transferred += target.transferFrom(source.position(transferred), position + transferred, lastSize - transferred);
+            }
+        }
+        FileUtil.del(pendingFile);
+        pendingLast = false;
+    }
+
+    private void saveState() throws IOException {
+        JSONObject state = new JSONObject();
+        state.put("fileName", fileName);
+        state.put("totalSlice", totalSlice);
+        state.put("sliceSize", sliceSize);
+        state.put("fileSize", fileSize);
+        state.put("lastSize", lastSize);
+        state.put("pendingLast", pendingLast);
+        state.put("received", Base64.encode(received.toByteArray()));
+        state.put("verified", Base64.encode(verified.toByteArray()));
+        File temp = FileUtil.file(slicePath, STATE_NAME + ".temp");
+        FileUtil.writeString(state.toString(), temp, StandardCharsets.UTF_8);
+        Files.move(temp.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
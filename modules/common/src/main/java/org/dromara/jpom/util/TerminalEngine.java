@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.RuntimeUtil;
+import org.dromara.jpom.JpomApplication;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 终端输入输出共享线程池
+ * <p>
+ * 终端的输出由少量线程非阻塞轮询读取（{@link TerminalInputPump}），读取到的内容按时间和大小合并后由发送线程池异步发送（{@link TerminalOutput}），
+ * 不再每个终端占用一个阻塞读取的线程
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class TerminalEngine {
+
+    /**
+     * 输出合并的最长等待时间（毫秒），等待时间内的输出合并为一条消息发送
+     */
+    public static final long FRAME_DELAY = 20;
+    /**
+     * 单条消息最大字符数，超过后立即发送
+     */
+    public static final int FRAME_MAX_SIZE = 32 * 1024;
+    /**
+     * 待发送的字符数超过后暂停读取输出（背压）
+     */
+    public static final int HIGH_WATER = 1024 * 1024;
+    /**
+     * 暂停读取后待发送的字符数低于该值恢复读取
+     */
+    public static final int LOW_WATER = 256 * 1024;
+    /**
+     * 阻塞写入的最长等待时间（毫秒），超过认为会话接收过慢
+     */
+    public static final long WRITE_TIMEOUT = 60 * 1000;
+
+    static final AtomicInteger ACTIVE = new AtomicInteger();
+    static final LongAdder FRAMES = new LongAdder();
+    static final LongAdder CHARS = new LongAdder();
+    static final LongAdder PAUSES = new LongAdder();
+
+    private static volatile ScheduledExecutorService pumpExecutor;
+    private static volatile ExecutorService sendExecutor;
+
+    /**
+     * 轮询读取终端输出、合并输出定时的线程池
+     *
+     * @return 定时线程池
+     */
+    static ScheduledExecutorService pumpExecutor() {
+        if (pumpExecutor == null) {
+            synchronized (TerminalEngine.class) {
+                if (pumpExecutor == null) {
+                    int poolSize = Math.max(RuntimeUtil.getProcessorCount() / 2, 2);
+                    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(poolSize,
+                        ThreadFactoryBuilder.create().setNamePrefix("jpom-terminal-pump-").setDaemon(true).build());
+                    executor.setRemoveOnCancelPolicy(true);
+                    JpomApplication.register("terminal-pump", executor);
+                    pumpExecutor = executor;
+                }
+            }
+        }
+        return pumpExecutor;
+    }
+
+    /**
+     * 发送终端输出的线程池，每个终端同一时间最多占用一个线程
+     *
+     * @return 线程池
+     */
+    static ExecutorService sendExecutor() {
+        if (sendExecutor == null) {
+            synchronized (TerminalEngine.class) {
+                if (sendExecutor == null) {
+                    int poolSize = Math.max(RuntimeUtil.getProcessorCount(), 4);
+                    ThreadPoolExecutor executor = ExecutorBuilder.create()
+                        .setCorePoolSize(poolSize)
+                        .setMaxPoolSize(poolSize)
+                        .setAllowCoreThreadTimeOut(true)
+                        .setWorkQueue(new LinkedBlockingQueue<>())
+                        .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("jpom-terminal-send-").setDaemon(true).build())
+                        .build();
+                    JpomApplication.register("terminal-send", executor);
+                    sendExecutor = executor;
+                }
+            }
+        }
+        return sendExecutor;
+    }
+
+    /**
+     * 统计信息
+     *
+     * @return map
+     */
+    public static Map<String, Object> getMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>(4);
+        map.put("active", ACTIVE.get());
+        map.put("sendFrames", FRAMES.sum());
+        map.put("sendChars", CHARS.sum());
+        map.put("backpressurePauses", PAUSES.sum());
+        return map;
+    }
+}
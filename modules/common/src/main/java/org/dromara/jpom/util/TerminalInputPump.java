@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * 终端输出读取
+ * <p>
+ * 在共享线程池中定时读取输入流中已经可用的数据，不阻塞线程。有输出时缩短读取间隔并按读取量扩大缓冲区，
+ * 空闲时逐步拉长间隔、缩小缓冲区。输出待发送的内容过多时暂停读取，数据留在输入流（ssh 通道窗口）中
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class TerminalInputPump implements Runnable {
+
+    private static final int MIN_BUFFER = 1024;
+    private static final int MAX_BUFFER = 64 * 1024;
+    private static final long MIN_DELAY = 5;
+    private static final long MAX_DELAY = 100;
+    /**
+     * 单次最多读取的字节数，避免一个终端占用线程
+     */
+    private static final int MAX_READ_ONCE = 256 * 1024;
+
+    private final InputStream inputStream;
+    private final TerminalOutput output;
+    private final BooleanSupplier closed;
+    private final Consumer<IOException> onEnd;
+    private byte[] buffer = new byte[MIN_BUFFER];
+    private long delay = MIN_DELAY;
+    private boolean paused;
+    private volatile boolean stopped;
+
+    /**
+     * @param inputStream 输入流，需要支持 available
+     * @param output      输出
+     * @param closed      输入是否已经结束，结束后读取完剩余数据回调 onEnd
+     * @param onEnd       读取结束回调，异常结束时参数为异常
+     */
+    public TerminalInputPump(InputStream inputStream, TerminalOutput output, BooleanSupplier closed, Consumer<IOException> onEnd) {
+        this.inputStream = inputStream;
+        this.output = output;
+        this.closed = closed;
+        this.onEnd = onEnd;
+    }
+
+    public void start() {
+        this.schedule(0);
+    }
+
+    public void stop() {
+        this.stopped = true;
+    }
+
+    private void schedule(long delay) {
+        if (stopped) {
+            return;
+        }
+        TerminalEngine.pumpExecutor().schedule(this, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void run() {
+        if (stopped) {
+            return;
+        }
+        try {
+            if (paused) {
+                if (output.getBacklog() > TerminalEngine.LOW_WATER) {
+                    this.schedule(MIN_DELAY);
+                    return;
+                }
+                paused = false;
+            }
+            // 先判断是否结束，避免结束前写入的数据未读取
+            boolean end = closed.getAsBoolean();
+            int total = 0;
+            while (total < MAX_READ_ONCE) {
+                if (!output.isWritable()) {
+                    paused = true;
+                    TerminalEngine.PAUSES.increment();
+                    break;
+                }
+                int available = inputStream.available();
+                if (available <= 0) {
+                    break;
+                }
+                int len = inputStream.read(buffer, 0, Math.min(available, buffer.length));
+                if (len < 0) {
+                    this.end(null);
+                    return;
+                }
+                output.write(buffer, 0, len);
+                total += len;
+                if (len == buffer.length && buffer.length < MAX_BUFFER) {
+                    buffer = new byte[buffer.length * 2];
+                }
+            }
+            if (total > 0 || paused) {
+                delay = MIN_DELAY;
+            } else {
+                if (end) {
+                    this.end(null);
+                    return;
+                }
+                delay = Math.min(delay * 2, MAX_DELAY);
+                if (delay == MAX_DELAY && buffer.length > MIN_BUFFER) {
+                    buffer = new byte[MIN_BUFFER];
+                }
+            }
+            this.schedule(delay);
+        } catch (IOException e) {
+            this.end(e);
+        }
+    }
+
+    private void end(IOException e) {
+        stopped = true;
+        onEnd.accept(e);
+    }
+}
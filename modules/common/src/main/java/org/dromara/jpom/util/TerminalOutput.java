@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 终端输出
+ * <p>
+ * 字节输出使用有状态的解码器解码，不会拆分多字节字符。输出在 {@link TerminalEngine#FRAME_DELAY} 内或者达到
+ * {@link TerminalEngine#FRAME_MAX_SIZE} 时合并为一条消息，由发送线程池按顺序发送。
+ * 待发送的内容过多时 {@link #isWritable()} 返回 false，读取方需要暂停读取
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class TerminalOutput implements Closeable {
+
+    private static final int MAX_CHAR_BUFFER = 64 * 1024;
+
+    /**
+     * 发送消息
+     */
+    @FunctionalInterface
+    public interface Sender {
+        /**
+         * 发送消息
+         *
+         * @param msg 消息
+         * @throws IOException io
+         */
+        void send(String msg) throws IOException;
+    }
+
+    private final String name;
+    private final Sender sender;
+    private final CharsetDecoder decoder;
+    /**
+     * 上次解码剩余的不完整字符
+     */
+    private ByteBuffer remain = ByteBuffer.allocate(8);
+    private CharBuffer charBuffer = CharBuffer.allocate(1024);
+    /**
+     * 待发送的消息，只有最后一条可以继续追加
+     */
+    private final Deque<StringBuilder> frames = new ArrayDeque<>();
+    private boolean lastSealed;
+    /**
+     * 待发送的字符数
+     */
+    private int backlog;
+    private boolean timerScheduled;
+    private boolean sending;
+    private boolean closed;
+    private volatile boolean discard;
+
+    /**
+     * @param name    名称，用于日志
+     * @param charset 字节输出的编码格式
+     * @param sender  发送消息
+     */
+    public TerminalOutput(String name, Charset charset, Sender sender) {
+        this.name = name;
+        this.sender = sender;
+        this.decoder = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        TerminalEngine.ACTIVE.incrementAndGet();
+    }
+
+    /**
+     * 写入字节输出
+     *
+     * @param bytes 字节
+     * @param off   开始位置
+     * @param len   长度
+     */
+    public void write(byte[] bytes, int off, int len) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            ByteBuffer in;
+            if (remain.position() > 0) {
+                remain.flip();
+                in = ByteBuffer.allocate(remain.remaining() + len);
+                in.put(remain).put(bytes, off, len).flip();
+                remain.clear();
+            } else {
+                in = ByteBuffer.wrap(bytes, off, len);
+            }
+            this.decode(in, false);
+            if (in.hasRemaining()) {
+                if (remain.capacity() < in.remaining()) {
+                    remain = ByteBuffer.allocate(in.remaining());
+                }
+                remain.put(in);
+            }
+        }
+        this.afterWrite();
+    }
+
+    /**
+     * 写入文本输出
+     *
+     * @param msg 文本
+     */
+    public void write(String msg) {
+        synchronized (this) {
+            if (closed || msg == null) {
+                return;
+            }
+            this.append(msg);
+        }
+        this.afterWrite();
+    }
+
+    /**
+     * 写入一行，和同一条消息中的上一行使用换行分隔
+     *
+     * @param line 行
+     */
+    public void writeLine(String line) {
+        synchronized (this) {
+            if (closed || line == null) {
+                return;
+            }
+            StringBuilder last = frames.peekLast();
+            if (last == null || lastSealed || last.length() + line.length() + 2 > TerminalEngine.FRAME_MAX_SIZE) {
+                this.addFrame(new StringBuilder(line));
+            } else {
+                if (last.length() > 0) {
+                    last.append("\r\n");
+                    backlog += 2;
+                }
+                last.append(line);
+            }
+            backlog += line.length();
+        }
+        this.afterWrite();
+    }
+
+    /**
+     * 写入单独的一条消息，不和其他输出合并，在之前的输出之后发送
+     *
+     * @param msg 消息
+     */
+    public void writeMessage(String msg) {
+        synchronized (this) {
+            if (closed || msg == null) {
+                return;
+            }
+            this.addFrame(new StringBuilder(msg));
+            backlog += msg.length();
+            lastSealed = true;
+        }
+        this.startSend();
+    }
+
+    /**
+     * 待发送的内容是否未超过上限，超过后需要暂停读取
+     *
+     * @return true 可以继续写入
+     */
+    public synchronized boolean isWritable() {
+        return backlog < TerminalEngine.HIGH_WATER;
+    }
+
+    /**
+     * 待发送的字符数
+     *
+     * @return 字符数
+     */
+    public synchronized int getBacklog() {
+        return backlog;
+    }
+
+    /**
+     * 待发送的内容超过上限时阻塞等待发送，用于不能暂停读取的写入方
+     *
+     * @return false 等待超时，会话接收过慢
+     * @throws InterruptedException 中断
+     */
+    public boolean awaitWritable() throws InterruptedException {
+        synchronized (this) {
+            if (backlog < TerminalEngine.HIGH_WATER) {
+                return true;
+            }
+            TerminalEngine.PAUSES.increment();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TerminalEngine.WRITE_TIMEOUT);
+            while (backlog > TerminalEngine.LOW_WATER && !closed) {
+                long wait = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (wait <= 0) {
+                    log.warn(I18nMessageUtil.get("i18n.terminal_too_slow.c362"), name);
+                    return false;
+                }
+                this.wait(wait);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 关闭，已经写入的内容会继续发送
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            remain.flip();
+            this.decode(remain, true);
+            this.closed = true;
+            this.notifyAll();
+        }
+        TerminalEngine.ACTIVE.decrementAndGet();
+        this.startSend();
+    }
+
+    /**
+     * 立即关闭，丢弃还未发送的内容
+     */
+    public void closeNow() {
+        this.discard = true;
+        synchronized (this) {
+            frames.clear();
+            backlog = 0;
+            this.notifyAll();
+        }
+        this.close();
+    }
+
+    private void decode(ByteBuffer in, boolean endOfInput) {
+        int size = (int) Math.min(MAX_CHAR_BUFFER, Math.ceil(in.remaining() * (double) decoder.maxCharsPerByte()) + 1);
+        if (charBuffer.capacity() < size) {
+            charBuffer = CharBuffer.allocate(size);
+        }
+        while (true) {
+            CoderResult result = decoder.decode(in, charBuffer, endOfInput);
+            if (!result.isOverflow() && endOfInput) {
+                result = decoder.flush(charBuffer);
+            }
+            charBuffer.flip();
+            this.append(charBuffer);
+            charBuffer.clear();
+            if (!result.isOverflow()) {
+                break;
+            }
+        }
+        if (endOfInput) {
+            decoder.reset();
+        }
+    }
+
+    private void append(CharSequence msg) {
+        int length = msg.length();
+        int start = 0;
+        while (start < length) {
+            StringBuilder last = frames.peekLast();
+            if (last == null || lastSealed || last.length() >= TerminalEngine.FRAME_MAX_SIZE) {
+                last = new StringBuilder();
+                this.addFrame(last);
+            }
+            int end = Math.min(length, start + TerminalEngine.FRAME_MAX_SIZE - last.length());
+            last.append(msg, start, end);
+            backlog += end - start;
+            start = end;
+        }
+    }
+
+    private void addFrame(StringBuilder frame) {
+        frames.addLast(frame);
+        lastSealed = false;
+    }
+
+    /**
+     * 有完整的消息时立即发送，否则等待合并时间后发送
+     */
+    private void afterWrite() {
+        boolean now = false;
+        boolean schedule = false;
+        synchronized (this) {
+            if (frames.size() > 1 || lastSealed) {
+                now = true;
+            } else if (!timerScheduled && !frames.isEmpty()) {
+                timerScheduled = true;
+                schedule = true;
+            }
+        }
+        if (now) {
+            this.startSend();
+        } else if (schedule) {
+            TerminalEngine.pumpExecutor().schedule(() -> {
+                synchronized (this) {
+                    timerScheduled = false;
+                }
+                this.startSend();
+            }, TerminalEngine.FRAME_DELAY, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void startSend() {
+        synchronized (this) {
+            if (sending || frames.isEmpty()) {
+                return;
+            }
+            sending = true;
+        }
+        TerminalEngine.sendExecutor().execute(this::drain);
+    }
+
+    private void drain() {
+        while (true) {
+            StringBuilder frame;
+            synchronized (this) {
+                frame = frames.pollFirst();
+                if (frame == null) {
+                    sending = false;
+                    return;
+                }
+                if (frames.isEmpty()) {
+                    lastSealed = false;
+                }
+                backlog -= frame.length();
+                this.notifyAll();
+            }
+            if (discard || frame.length() == 0) {
+                continue;
+            }
+            try {
+                sender.send(frame.toString());
+                TerminalEngine.FRAMES.increment();
+                TerminalEngine.CHARS.add(frame.length());
+            } catch (Exception e) {
+                log.warn(I18nMessageUtil.get("i18n.terminal_send_failed.9fce"), name, e.getMessage());
+                this.closeNow();
+            }
+        }
+    }
+}
@@ -15,12 +15,11 @@ import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.date.SystemClock;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.io.IoUtil;
-import cn.hutool.core.io.file.FileCopier;
 import cn.hutool.core.lang.Opt;
+import cn.hutool.core.lang.Pair;
 import cn.hutool.core.lang.Tuple;
 import cn.hutool.core.map.SafeConcurrentHashMap;
 import cn.hutool.core.net.url.UrlQuery;
-import cn.hutool.core.thread.ThreadUtil;
 import cn.hutool.core.util.*;
 import cn.hutool.extra.spring.SpringUtil;
 import cn.keepbx.jpom.model.BaseIdModel;
@@ -37,6 +36,7 @@ import org.dromara.jpom.configuration.BuildExtConfig;
 import org.dromara.jpom.exception.LogRecorderCloseException;
 import org.dromara.jpom.func.assets.server.MachineDockerServer;
 import org.dromara.jpom.func.files.service.FileStorageService;
+import org.dromara.jpom.model.EnvironmentMapBuilder;
 import org.dromara.jpom.model.data.BuildInfoModel;
 import org.dromara.jpom.model.data.CommandExecLogModel;
 import org.dromara.jpom.model.data.RepositoryModel;
@@ -62,8 +62,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -136,33 +136,62 @@ public class BuildExecuteManage implements Runnable {
         this.loadService();
         submitTaskTime = SystemClock.now();
         language = I18nMessageUtil.getLanguageByRequest();
-        // 创建线程池
-        ThreadPoolExecutor threadPoolExecutor = buildExecutorPoolService.getThreadPoolExecutor();
         //
         BuildInfoModel buildInfoModel = taskData.buildInfoModel;
         File logFile = BuildUtil.getLogFile(buildInfoModel.getId(), buildInfoModel.getBuildId());
         this.logRecorder = LogRecorder.builder().file(logFile).build();
         //
-        int queueSize = threadPoolExecutor.getQueue().size();
-        int size = BUILD_MANAGE_MAP.size();
+        int queueSize = buildExecutorPoolService.queuedSize();
+        int size = buildExecutorPoolService.runningSize();
         logRecorder.system(I18nMessageUtil.get("i18n.build_task_count_and_queue_count.f0b6"), size, queueSize,
-            size > buildExtConfig.getPoolSize() ? I18nMessageUtil.get("i18n.build_task_queue_waiting.5f06") : StrUtil.EMPTY);
-        //BuildInfoManage manage = new BuildInfoManage(taskData);
-        BUILD_MANAGE_MAP.put(buildInfoModel.getId(), this);
-        threadPoolExecutor.execute(this);
+            size >= buildExtConfig.getPoolSize() ? I18nMessageUtil.get("i18n.build_task_queue_waiting.5f06") : StrUtil.EMPTY);
+        // 延迟执行由调度处理，不占用构建线程
+        Integer delay = taskData.delay;
+        long notBefore = 0;
+        if (delay != null && delay > 0) {
+            logRecorder.system(I18nMessageUtil.get("i18n.wait_for_seconds.ff7b"), delay);
+            notBefore = submitTaskTime + TimeUnit.SECONDS.toMillis(delay);
+        }
+        BuildPriority priority = BuildPriority.ofTriggerBuildType(taskData.triggerBuildType);
+        BuildQueueTask task = BuildQueueTask.builder()
+            .key(buildInfoModel.getId())
+            .name(buildInfoModel.getName())
+            .buildNumberId(buildInfoModel.getBuildId())
+            .workspaceId(buildInfoModel.getWorkspaceId())
+            .repositoryId(buildInfoModel.getRepositoryId())
+            .priority(priority)
+            .notBefore(notBefore)
+            .runnable(this)
+            .rejectHandler(this::rejectedExecution)
+            .build();
+        BuildExecuteManage previous = BUILD_MANAGE_MAP.put(buildInfoModel.getId(), this);
+        try {
+            buildExecutorPoolService.submit(task);
+        } catch (RuntimeException e) {
+            // 同一个构建已经在排队或者执行中，恢复为原来的任务
+            if (previous == null) {
+                BUILD_MANAGE_MAP.remove(buildInfoModel.getId(), this);
+            } else {
+                BUILD_MANAGE_MAP.replace(buildInfoModel.getId(), this, previous);
+            }
+            IoUtil.close(logRecorder);
+            throw e;
+        }
+        Optional.ofNullable(buildExecutorPoolService.getQueueInfo(buildInfoModel.getId())).ifPresent(queueInfo -> {
+            long estimatedWait = queueInfo.getLongValue("estimatedWait");
+            logRecorder.system(I18nMessageUtil.get("i18n.build_queue_position.490f"), I18nMessageUtil.get(priority.getDesc()),
+                queueInfo.getIntValue("position"), estimatedWait < 0 ? "-" : DateUtil.formatBetween(estimatedWait));
+        });
     }
 
     /**
      * 取消任务(拒绝执行)
+     *
+     * @param reason 原因
      */
-    public void rejectedExecution() {
-        ThreadPoolExecutor threadPoolExecutor = buildExecutorPoolService.getThreadPoolExecutor();
-        int queueSize = threadPoolExecutor.getQueue().size();
-        int limitPoolSize = threadPoolExecutor.getPoolSize();
-        int corePoolSize = threadPoolExecutor.getCorePoolSize();
-        String format = StrUtil.format(I18nMessageUtil.get("i18n.build_status_message.42a7"), BUILD_MANAGE_MAP.size(), queueSize, limitPoolSize, corePoolSize);
-        logRecorder.system(format);
-        this.cancelTask(format);
+    public void rejectedExecution(String reason) {
+        logRecorder.system(reason);
+        this.cancelTask(reason);
     }
 
     /**
@@ -190,10 +219,12 @@ public class BuildExecuteManage implements Runnable {
             }
         }
         String buildId = taskData.buildInfoModel.getId();
+        buildExecutorPoolService.remove(buildId);
         buildExecuteService.updateStatus(buildId, logId, taskData.buildInfoModel.getBuildId(), BuildStatus.Cancel, desc);
         Optional.ofNullable(currentThread).ifPresent(Thread::interrupt);
         BUILD_MANAGE_MAP.remove(buildId);
         IoUtil.close(logRecorder);
+        buildExecuteService.onFinished(buildId);
     }
 
     /**
@@ -207,17 +238,14 @@ public class BuildExecuteManage implements Runnable {
         boolean releaseHideFile = ObjectUtil.defaultIfNull(this.buildExtraModule.getReleaseHideFile(), false);
         List<String> excludeReleaseAnts = StrUtil.splitTrim(excludeReleaseAnt, StrUtil.COMMA);
         ResultDirFileAction resultDirFileAction = ResultDirFileAction.parse(resultDirFile);
-        final int[] excludeReleaseAntCount = {0};
+        // 过滤表达式预编译为一个匹配器
+        Predicate<String> excludeMatcher = AntPathUtil.compileMatcher(excludeReleaseAnts);
+        AtomicInteger excludeReleaseAntCount = new AtomicInteger();
         Predicate<String> predicate = file -> {
-            if (CollUtil.isEmpty(excludeReleaseAnts)) {
-                return true;
-            }
-            for (String releaseAnt : excludeReleaseAnts) {
-                if (AntPathUtil.ANT_PATH_MATCHER.match(releaseAnt, file)) {
-                    // 过滤
-                    excludeReleaseAntCount[0]++;
-                    return false;
-                }
+            if (excludeMatcher.test(file)) {
+                // 过滤
+                excludeReleaseAntCount.incrementAndGet();
+                return false;
             }
             return true;
         };
@@ -232,6 +260,11 @@ public class BuildExecuteManage implements Runnable {
             logRecorder.system(I18nMessageUtil.get("i18n.backup_product.53c0"), resultDirFileAction.getPath(), buildInfoModel.getBuildId());
             return null;
         }
+        EnvironmentMapBuilder environmentMapBuilder = taskData.environmentMapBuilder;
+        boolean hardLink = environmentMapBuilder.getBool(BuildUtil.USE_PACKAGE_HARD_LINK, false);
+        boolean archive = environmentMapBuilder.getBool(BuildUtil.USE_PACKAGE_ARCHIVE, false);
+        File historyPackageFile = BuildUtil.getHistoryPackageFile(buildInfoModel.getId(), buildInfoModel.getBuildId(), StrUtil.SLASH);
+        BuildResultPackager packager;
         if (resultDirFileAction.getType() == ResultDirFileAction.Type.ANT_PATH) {
             // 通配模式
             List<String> paths = AntPathUtil.antPathMatcher(this.gitFile, resultDirFileAction.getPath());
@@ -245,14 +278,19 @@ public class BuildExecuteManage implements Runnable {
             String antSubMatch = resultDirFileAction.antSubMatch();
             ResultDirFileAction.AntFileUploadMode antFileUploadMode = resultDirFileAction.getAntFileUploadMode();
             Assert.notNull(antFileUploadMode, I18nMessageUtil.get("i18n.file_upload_mode_not_configured.b3b2"));
-            File historyPackageFile = BuildUtil.getHistoryPackageFile(buildInfoModel.getId(), buildInfoModel.getBuildId(), StrUtil.SLASH);
-            int subMatchCount = paths.stream()
+            if (archive) {
+                logRecorder.system(I18nMessageUtil.get("i18n.build_package_archive_unsupported.e820"));
+            }
+            Predicate<String> subMatcher = AntPathUtil.compileMatcher(Collections.singletonList(antSubMatch));
+            // 路径和对应的存放位置
+            Map<String, File> targets = new LinkedHashMap<>();
+            paths.stream()
                 .filter(s -> {
                     // 需要能满足二级匹配
                     return StrUtil.isEmpty(antSubMatch) || AntPathUtil.ANT_PATH_MATCHER.matchStart(antSubMatch + "**", s);
                 })
                 .filter(predicate)
-                .mapToInt(path -> {
+                .forEach(path -> {
                     File toFile;
                     if (antFileUploadMode == ResultDirFileAction.AntFileUploadMode.KEEP_DIR) {
                         // 剔除文件夹层级
@@ -266,14 +304,14 @@ public class BuildExecuteManage implements Runnable {
                             for (int i = pathItemSize - 1; i >= 0; i--) {
                                 String suffix = i == pathItemSize - 1 ? StrUtil.EMPTY : StrUtil.SLASH;
                                 String itemS = StrUtil.SLASH + CollUtil.join(CollUtil.sub(list, 0, i + 1), StrUtil.SLASH) + suffix;
-                                if (AntPathUtil.ANT_PATH_MATCHER.match(antSubMatch, itemS)) {
+                                if (subMatcher.test(itemS)) {
                                     notMathIndex = i + 1;
                                     // 结束本次循环
                                     break;
                                 }
                             }
                             if (notMathIndex == ArrayUtil.INDEX_NOT_FOUND) {
-                                return 0;
+                                return;
                             }
                         }
                         // 保留文件夹层级
@@ -284,28 +322,21 @@ public class BuildExecuteManage implements Runnable {
                     } else {
                         throw new IllegalStateException(I18nMessageUtil.get("i18n.unsupported_mode.a3d3") + antFileUploadMode);
                     }
-                    // 创建文件夹，避免出现文件全部为相关文件名（result）
-                    BuildUtil.mkdirHistoryPackageFile(buildInfoModel.getId(), buildInfoModel.getBuildId());
-                    File srcFile = FileUtil.file(this.gitFile, path);
-                    //
-                    FileCopier.create(srcFile, toFile)
-                        .setCopyContentIfDir(true)
-                        .setOverride(true)
-                        .setCopyAttributes(true)
-                        .setCopyFilter(file -> releaseHideFile || !file.isHidden())
-                        .copy();
-                    return 1;
-                }).sum();
+                    targets.put(path, toFile);
+                });
+            int subMatchCount = targets.size();
             if (subMatchCount <= 0) {
                 String format = StrUtil.format(I18nMessageUtil.get("i18n.no_matching_files.b7a6"), antSubMatch);
                 logRecorder.systemError(format);
                 return format;
             }
+            // 创建文件夹，避免出现文件全部为相关文件名（result）
+            BuildUtil.mkdirHistoryPackageFile(buildInfoModel.getId(), buildInfoModel.getBuildId());
+            packager = new BuildResultPackager(this.gitFile, releaseHideFile, null, hardLink, historyPackageFile);
+            packager.copy(this.removeCoveredPaths(targets, releaseHideFile));
             logRecorder.system(I18nMessageUtil.get("i18n.secondary_directory_match.0aec"), antSubMatch, subMatchCount, antFileUploadMode);
             // 更新产物路径为普通路径
-            dbBuildHistoryLogService.updateResultDirFile(this.logId, StrUtil.SLASH);
-            buildInfoModel.setResultDirFile(StrUtil.SLASH);
-            this.buildExtraModule.setResultDirFile(StrUtil.SLASH);
+            this.updateResultDirFile(StrUtil.SLASH);
         } else if (resultDirFileAction.getType() == ResultDirFileAction.Type.ORIGINAL) {
             File file = FileUtil.file(this.gitFile, resultDirFile);
             if (!file.exists()) {
@@ -316,27 +347,80 @@ public class BuildExecuteManage implements Runnable {
             BuildUtil.mkdirHistoryPackageFile(buildInfoModel.getId(), buildInfoModel.getBuildId());
             File toFile = BuildUtil.getHistoryPackageFile(buildInfoModel.getId(), buildInfoModel.getBuildId(), resultDirFile);
             //
-            String rootDir = FileUtil.getAbsolutePath(gitFile);
-            FileCopier.create(file, toFile)
-                .setCopyContentIfDir(true)
-                .setOverride(true)
-                .setCopyAttributes(true)
-                .setCopyFilter(file12 -> {
-                    if (!releaseHideFile && file12.isHidden()) {
-                        return false;
-                    }
-                    String subPath = FileUtil.subPath(rootDir, file12);
-                    subPath = FileUtil.normalize(StrUtil.SLASH + subPath);
-                    return predicate.test(subPath);
-                })
-                .copy();
+            packager = new BuildResultPackager(this.gitFile, releaseHideFile, predicate, hardLink, historyPackageFile);
+            if (archive && file.isDirectory()) {
+                // 和发布时打包文件夹的文件名一致
+                String name = StrUtil.emptyToDefault(FileUtil.getName(toFile), "result");
+                boolean tarGz = environmentMapBuilder.getBool(BuildUtil.USE_TAR_GZ, false);
+                File archiveParent = FileUtil.equals(toFile, historyPackageFile) ? toFile : toFile.getParentFile();
+                File archiveFile = FileUtil.file(archiveParent, name + BuildUtil.PACKAGE_ARCHIVE_SUFFIX + (tarGz ? ".tar.gz" : ".zip"));
+                packager.archive(file, archiveFile, tarGz, name);
+                String archivePath = FileUtil.normalize(StrUtil.SLASH + FileUtil.subPath(FileUtil.getAbsolutePath(historyPackageFile), archiveFile));
+                logRecorder.system(I18nMessageUtil.get("i18n.build_package_archive.50d0"), archivePath);
+                this.updateResultDirFile(archivePath);
+            } else {
+                if (archive) {
+                    logRecorder.system(I18nMessageUtil.get("i18n.build_package_archive_unsupported.e820"));
+                }
+                packager.copy(file, toFile);
+            }
+        } else {
+            return null;
         }
+        logRecorder.system(I18nMessageUtil.get("i18n.build_package_summary.ac06"), packager.getFileCount(),
+            FileUtil.readableFileSize(packager.getFileSize()), packager.getLinkCount(), DateUtil.formatBetween(packager.getDuration()));
         if (CollUtil.isNotEmpty(excludeReleaseAnts)) {
-            logRecorder.system(I18nMessageUtil.get("i18n.cumulative_filter_files.448d"), excludeReleaseAnt, excludeReleaseAntCount[0]);
+            logRecorder.system(I18nMessageUtil.get("i18n.cumulative_filter_files.448d"), excludeReleaseAnt, excludeReleaseAntCount.get());
         }
         return null;
     }
 
+    /**
+     * 更新产物路径
+     *
+     * @param resultDirFile 新的产物路径
+     */
+    private void updateResultDirFile(String resultDirFile) {
+        dbBuildHistoryLogService.updateResultDirFile(this.logId, resultDirFile);
+        taskData.buildInfoModel.setResultDirFile(resultDirFile);
+        this.buildExtraModule.setResultDirFile(resultDirFile);
+    }
+
+    /**
+     * 通配模式下文件夹和文件夹中的文件可能同时匹配，文件夹整体复制后位置一致的文件不再重复复制
+     *
+     * @param targets         路径和对应的存放位置
+     * @param releaseHideFile 是否包含隐藏文件
+     * @return 需要复制的文件
+     */
+    private List<Pair<File, File>> removeCoveredPaths(Map<String, File> targets, boolean releaseHideFile) {
+        List<Pair<File, File>> list = new ArrayList<>(targets.size());
+        for (Map.Entry<String, File> entry : targets.entrySet()) {
+            String path = entry.getKey();
+            File srcFile = FileUtil.file(this.gitFile, path);
+            String targetPath = FileUtil.getAbsolutePath(entry.getValue());
+            boolean covered = false;
+            String parent = path;
+            int index;
+            while (!covered && (index = parent.lastIndexOf(StrUtil.C_SLASH)) > 0) {
+                String relative = path.substring(index + 1);
+                parent = parent.substring(0, index);
+                if (!releaseHideFile && FileUtil.file(this.gitFile, parent, StrUtil.subBefore(relative, StrUtil.SLASH, false)).isHidden()) {
+                    // 文件夹复制时会跳过隐藏的下级
+                    break;
+                }
+                File parentTarget = targets.get(parent);
+                File parentFile = FileUtil.file(this.gitFile, parent);
+                covered = parentTarget != null && parentFile.isDirectory() && (releaseHideFile || !parentFile.isHidden())
+                    && StrUtil.equals(FileUtil.getAbsolutePath(FileUtil.file(parentTarget, relative)), targetPath);
+            }
+            if (!covered) {
+                list.add(new Pair<>(srcFile, entry.getValue()));
+            }
+        }
+        return list;
+    }
+
     /**
      * 准备构建
      *
@@ -346,13 +430,7 @@ public class BuildExecuteManage implements Runnable {
         BuildInfoModel buildInfoModel = taskData.buildInfoModel;
         this.gitFile = BuildUtil.getSourceById(buildInfoModel.getId());
 
-        Integer delay = taskData.delay;
         logRecorder.system(I18nMessageUtil.get("i18n.start_building_with_number_and_path.c41c"), buildInfoModel.getBuildId(), FileUtil.getAbsolutePath(this.gitFile));
-        if (delay != null && delay > 0) {
-            // 延迟执行
-            logRecorder.system(I18nMessageUtil.get("i18n.wait_for_seconds.ff7b"), delay);
-            ThreadUtil.sleep(delay, TimeUnit.SECONDS);
-        }
         // 删除缓存
         Boolean cacheBuild = this.buildExtraModule.getCacheBuild();
         if (cacheBuild != null && !cacheBuild) {
@@ -411,7 +489,11 @@ public class BuildExecuteManage implements Runnable {
                     // 使用系统
                     map.put("gitProcessType", "SystemGit");
                 }
+                BuildUtil.putGitMirror(map, repositoryModel, buildExtConfig);
+                // 每次构建都从远程刷新一次镜像，后续拉取代码直接使用镜像
+                map.put("mirrorRefresh", true);
                 Tuple tuple = (Tuple) plugin.execute("branchAndTagList", map);
+                map.remove("mirrorRefresh");
                 //GitUtil.getBranchAndTagList(repositoryModel);
                 Assert.notNull(tuple, I18nMessageUtil.get("i18n.get_repository_branch_failure.37cc"));
                 map.put("reduceProgressRatio", buildExtConfig.getLogReduceProgressRatio());
@@ -619,7 +701,7 @@ public class BuildExecuteManage implements Runnable {
                         } else {
                             return CommandUtil.execWaitFor(file, this.gitFile, environment, StrUtil.EMPTY, (s, process) -> {
                                 BuildExecuteManage.this.process = process;
-                                logRecorder.info(s);
+                                logRecorder.appendLine(s);
                             });
                         }
                     } catch (IOException | InterruptedException e) {
@@ -874,6 +956,7 @@ public class BuildExecuteManage implements Runnable {
         } finally {
             BUILD_MANAGE_MAP.remove(buildInfoModel.getId());
             I18nMessageUtil.clearLanguage();
+            buildExecuteService.onFinished(buildInfoModel.getId());
         }
     }
 
@@ -989,8 +1072,8 @@ public class BuildExecuteManage implements Runnable {
                     }, map);
                     //
                     return CommandUtil.execWaitFor(file, null, environment, null, (s, process) -> {
-                        logRecorder.info(s);
-                        scriptLog.info(s);
+                        logRecorder.appendLine(s);
+                        scriptLog.appendLine(s);
                         lastMsg[0] = s;
                     });
                 } catch (IOException | InterruptedException e) {
@@ -11,6 +11,7 @@ package org.dromara.jpom.build;
 
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.date.SystemClock;
+import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.lang.Opt;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
@@ -35,7 +36,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
 import java.io.File;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * @author bwcx_jzy
@@ -51,6 +56,10 @@ public class BuildExecuteService {
     private final RepositoryService repositoryService;
     private final WorkspaceEnvVarService workspaceEnvVarService;
     private final BuildExecutorPoolService buildExecutorPoolService;
+    /**
+     * 构建结束（完成、失败、取消）的监听
+     */
+    private final List<Consumer<String>> finishListeners = new CopyOnWriteArrayList<>();
 
     public BuildExecuteService(BuildInfoService buildService,
                                DbBuildHistoryLogService dbBuildHistoryLogService,
@@ -65,6 +74,30 @@ public class BuildExecuteService {
     }
 
 
+    /**
+     * 添加构建结束的监听，监听参数为构建 ID
+     *
+     * @param listener 监听
+     */
+    public void addFinishListener(Consumer<String> listener) {
+        finishListeners.add(listener);
+    }
+
+    /**
+     * 构建结束（完成、失败、取消）后通知监听，此时构建已经从执行中移除
+     *
+     * @param buildInfoId 构建ID
+     */
+    void onFinished(String buildInfoId) {
+        for (Consumer<String> listener : finishListeners) {
+            try {
+                listener.accept(buildInfoId);
+            } catch (Exception e) {
+                log.error(I18nMessageUtil.get("i18n.build_finish_listener_failed.cf1a"), buildInfoId, e);
+            }
+        }
+    }
+
     /**
      * check status
      *
@@ -118,6 +151,12 @@ public class BuildExecuteService {
                                        int triggerBuildType, String buildRemark, String checkRepositoryDiff,
                                        Object... parametersEnv) {
         synchronized (buildInfoId.intern()) {
+            // 合并到已经在排队的构建
+            long notBefore = (delay == null || delay <= 0) ? 0 : SystemClock.now() + TimeUnit.SECONDS.toMillis(delay);
+            BuildQueueTask queueTask = buildExecutorPoolService.merge(buildInfoId, BuildPriority.ofTriggerBuildType(triggerBuildType), notBefore);
+            if (queueTask != null) {
+                return JsonMessage.success(StrUtil.format(I18nMessageUtil.get("i18n.build_queue_merged.8177"), queueTask.getBuildNumberId()), queueTask.getBuildNumberId());
+            }
             BuildInfoModel buildInfoModel = buildService.getByKey(buildInfoId);
             String e = this.checkStatus(buildInfoModel);
             Assert.isNull(e, () -> e);
@@ -205,7 +244,21 @@ public class BuildExecuteService {
             //
             logRecorder.system(I18nMessageUtil.get("i18n.prepare_rollback.dba6"), fromBuildNumberId, buildId);
             //
-            buildExecutorPoolService.execute(() -> manage.rollback(item));
+            BuildQueueTask queueTask = BuildQueueTask.builder()
+                .key(item.getId())
+                .name(item.getName())
+                .buildNumberId(buildId)
+                .workspaceId(item.getWorkspaceId())
+                .repositoryId(item.getRepositoryId())
+                .priority(BuildPriority.HIGH)
+                .runnable(() -> manage.rollback(item))
+                .rejectHandler(reason -> {
+                    logRecorder.systemError(reason);
+                    this.updateStatus(item.getId(), buildHistoryLog.getId(), buildId, BuildStatus.Cancel, reason);
+                    IoUtil.close(logRecorder);
+                })
+                .build();
+            buildExecutorPoolService.submit(queueTask);
             return buildId;
         }
     }
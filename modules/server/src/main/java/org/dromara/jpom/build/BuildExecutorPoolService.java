@@ -9,65 +9,277 @@
  */
 package org.dromara.jpom.build;
 
+import cn.hutool.core.date.SystemClock;
 import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.RuntimeUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSONObject;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.jpom.JpomApplication;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
 import org.dromara.jpom.configuration.BuildExtConfig;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.ThreadPoolExecutor;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
 
+/**
+ * 构建调度
+ * <p>
+ * 构建任务先进入排队队列（{@link BuildScheduleQueue}），由调度按优先级、工作空间和仓库的并发限制以及系统负载、空闲内存决定何时执行。
+ * 队列已满时挤出优先级更低的任务，被拒绝的任务都会通过回调取消并记录原因
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
 @Service
 @Slf4j
 public class BuildExecutorPoolService {
+
+    /**
+     * 定时调度间隔，等待延迟构建和系统负载下降
+     */
+    private static final long DISPATCH_INTERVAL = 2000;
+
+    private final BuildExtConfig buildExtConfig;
+    private final BuildScheduleQueue queue = new BuildScheduleQueue();
     /**
      * 构建线程池
      */
     private volatile ThreadPoolExecutor threadPoolExecutor;
-    private final BuildExtConfig buildExtConfig;
+    /**
+     * 最近的构建平均耗时，用于估算排队等待时间
+     */
+    private volatile long averageDuration;
 
     public BuildExecutorPoolService(BuildExtConfig buildExtConfig) {
         this.buildExtConfig = buildExtConfig;
     }
 
-    public ThreadPoolExecutor getThreadPoolExecutor() {
-        this.initPool();
-        return threadPoolExecutor;
+    /**
+     * 合并重复触发的构建
+     *
+     * @param key       构建 id
+     * @param priority  新触发的优先级
+     * @param notBefore 新触发的最早开始时间
+     * @return 正在排队的任务，不在排队中返回 null
+     */
+    public BuildQueueTask merge(String key, BuildPriority priority, long notBefore) {
+        BuildQueueTask task = queue.merge(key, priority, notBefore);
+        if (task != null) {
+            this.dispatch();
+        }
+        return task;
     }
 
-    public void execute(Runnable command) {
+    /**
+     * 提交构建任务，可能直接执行也可能进入排队
+     *
+     * @param task 任务
+     */
+    public void submit(BuildQueueTask task) {
         this.initPool();
-        threadPoolExecutor.execute(command);
+        task.setSubmitTime(SystemClock.now());
+        BuildQueueTask rejected = queue.offer(task, Math.max(buildExtConfig.getPoolWaitQueue(), 1));
+        if (rejected == task) {
+            this.reject(task, StrUtil.format(I18nMessageUtil.get("i18n.build_queue_full.370e"), queue.queuedSize()));
+        } else if (rejected != null) {
+            this.reject(rejected, StrUtil.format(I18nMessageUtil.get("i18n.build_queue_evicted.f542"), task.getName()));
+        }
+        this.dispatch();
+    }
+
+    /**
+     * 移除排队中的构建
+     *
+     * @param key 构建 id
+     * @return 是否在排队中
+     */
+    public boolean remove(String key) {
+        return queue.remove(key) != null;
+    }
+
+    /**
+     * 排队中的任务数
+     *
+     * @return 数量
+     */
+    public int queuedSize() {
+        return queue.queuedSize();
+    }
+
+    /**
+     * 执行中的任务数
+     *
+     * @return 数量
+     */
+    public int runningSize() {
+        return queue.runningSize();
+    }
+
+    /**
+     * 获取构建的排队信息
+     *
+     * @param key 构建 id
+     * @return 不在排队中返回 null
+     */
+    public JSONObject getQueueInfo(String key) {
+        List<BuildQueueTask> list = queue.snapshot();
+        for (int i = 0; i < list.size(); i++) {
+            BuildQueueTask task = list.get(i);
+            if (StrUtil.equals(task.getKey(), key)) {
+                return this.toQueueInfo(task, i, list.size());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 工作空间中排队的构建
+     *
+     * @param workspaceId 工作空间 id
+     * @return list
+     */
+    public List<JSONObject> listQueue(String workspaceId) {
+        List<BuildQueueTask> list = queue.snapshot();
+        List<JSONObject> result = new ArrayList<>();
+        for (int i = 0; i < list.size(); i++) {
+            BuildQueueTask task = list.get(i);
+            if (StrUtil.equals(task.getWorkspaceId(), workspaceId)) {
+                result.add(this.toQueueInfo(task, i, list.size()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 估算的排队信息，position 为在所有排队任务中的位置（从 1 开始），estimatedWait 为预计等待毫秒数（-1 为暂时无法估算）
+     */
+    private JSONObject toQueueInfo(BuildQueueTask task, int index, int total) {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("id", task.getKey());
+        jsonObject.put("name", task.getName());
+        jsonObject.put("buildNumberId", task.getBuildNumberId());
+        jsonObject.put("priority", task.getPriority().name());
+        jsonObject.put("position", index + 1);
+        jsonObject.put("total", total);
+        jsonObject.put("submitTime", task.getSubmitTime());
+        long delay = Math.max(task.getNotBefore() - SystemClock.now(), 0);
+        long duration = this.averageDuration;
+        if (duration <= 0) {
+            jsonObject.put("estimatedWait", index == 0 && queue.runningSize() == 0 ? delay : -1);
+        } else {
+            int poolSize = buildExtConfig.getPoolSize();
+            int slots = poolSize > 0 ? poolSize : Math.max(queue.runningSize(), 1);
+            long rounds = (index + queue.runningSize()) / slots;
+            jsonObject.put("estimatedWait", Math.max(rounds * duration, delay));
+        }
+        return jsonObject;
+    }
+
+    /**
+     * 从队列中取出可以执行的任务执行
+     */
+    private synchronized void dispatch() {
+        if (threadPoolExecutor == null) {
+            return;
+        }
+        while (true) {
+            if (queue.runningSize() > 0 && !this.admit()) {
+                // 至少保留一个构建在执行，避免一直等待
+                return;
+            }
+            BuildQueueTask task = queue.poll(SystemClock.now(), buildExtConfig.getPoolSize(), buildExtConfig.getWorkspacePoolSize(), buildExtConfig.getRepositoryPoolSize());
+            if (task == null) {
+                return;
+            }
+            try {
+                threadPoolExecutor.execute(() -> this.run(task));
+            } catch (RejectedExecutionException e) {
+                queue.done(task);
+                this.reject(task, I18nMessageUtil.get("i18n.build_schedule_error.cf90"));
+                return;
+            }
+        }
+    }
+
+    private void run(BuildQueueTask task) {
+        long startTime = SystemClock.now();
+        try {
+            task.getRunnable().run();
+        } finally {
+            queue.done(task);
+            long duration = SystemClock.now() - startTime;
+            long average = this.averageDuration;
+            this.averageDuration = average <= 0 ? duration : (average * 7 + duration) / 8;
+            this.dispatch();
+        }
+    }
+
+    private void reject(BuildQueueTask task, String reason) {
+        try {
+            task.getRejectHandler().accept(reason);
+        } catch (Exception e) {
+            log.error(I18nMessageUtil.get("i18n.build_schedule_error.cf90"), e);
+        }
+    }
+
+    /**
+     * 根据系统负载和空闲内存判断是否可以再开始一个构建
+     *
+     * @return true 可以开始
+     */
+    private boolean admit() {
+        OperatingSystemMXBean operatingSystemMXBean = ManagementFactory.getOperatingSystemMXBean();
+        double admissionMaxLoad = buildExtConfig.getAdmissionMaxLoad();
+        if (admissionMaxLoad > 0) {
+            double loadAverage = operatingSystemMXBean.getSystemLoadAverage();
+            // 部分系统不支持获取负载，返回负数
+            if (loadAverage >= 0 && loadAverage / RuntimeUtil.getProcessorCount() > admissionMaxLoad) {
+                return false;
+            }
+        }
+        long admissionMinFreeMemory = buildExtConfig.getAdmissionMinFreeMemory();
+        if (admissionMinFreeMemory > 0 && operatingSystemMXBean instanceof com.sun.management.OperatingSystemMXBean) {
+            long free = ((com.sun.management.OperatingSystemMXBean) operatingSystemMXBean).getFreePhysicalMemorySize();
+            return free >= admissionMinFreeMemory * 1024 * 1024;
+        }
+        return true;
     }
 
     /**
-     * 创建构建线程池
+     * 创建构建线程池和定时调度
      */
     private void initPool() {
         if (threadPoolExecutor == null) {
             synchronized (BuildExecutorPoolService.class) {
                 if (threadPoolExecutor == null) {
+                    // 执行数量由调度控制，线程池不再排队
                     ExecutorBuilder executorBuilder = ExecutorBuilder.create();
                     int poolSize = buildExtConfig.getPoolSize();
                     if (poolSize > 0) {
-                        executorBuilder.setCorePoolSize(poolSize).setMaxPoolSize(poolSize);
+                        executorBuilder.setCorePoolSize(poolSize).setMaxPoolSize(poolSize).setWorkQueue(new LinkedBlockingQueue<>());
+                    } else {
+                        executorBuilder.setCorePoolSize(0).setMaxPoolSize(Integer.MAX_VALUE).useSynchronousQueue();
                     }
-                    executorBuilder.useArrayBlockingQueue(Math.max(buildExtConfig.getPoolWaitQueue(), 1));
-                    executorBuilder.setHandler(new ThreadPoolExecutor.DiscardPolicy() {
-                        @Override
-                        public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
-                            if (r instanceof BuildExecuteManage) {
-                                // 取消任务
-                                BuildExecuteManage buildExecuteManage = (BuildExecuteManage) r;
-                                buildExecuteManage.rejectedExecution();
-                            } else {
-                                log.warn(I18nMessageUtil.get("i18n.build_thread_pool_rejected_task.3bad"), r.getClass());
-                            }
+                    ThreadPoolExecutor executor = executorBuilder.build();
+                    JpomApplication.register("build", executor);
+                    //
+                    ScheduledThreadPoolExecutor scheduledExecutor = new ScheduledThreadPoolExecutor(1,
+                        ThreadFactoryBuilder.create().setNamePrefix("jpom-build-dispatch-").setDaemon(true).build());
+                    scheduledExecutor.scheduleWithFixedDelay(() -> {
+                        try {
+                            this.dispatch();
+                        } catch (Exception e) {
+                            log.error(I18nMessageUtil.get("i18n.build_schedule_error.cf90"), e);
                         }
-                    });
-                    threadPoolExecutor = executorBuilder.build();
-                    JpomApplication.register("build", threadPoolExecutor);
+                    }, DISPATCH_INTERVAL, DISPATCH_INTERVAL, TimeUnit.MILLISECONDS);
+                    JpomApplication.register("build-dispatch", scheduledExecutor);
+                    threadPoolExecutor = executor;
                 }
             }
         }
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.build;
+
+import lombok.Getter;
+
+/**
+ * 构建排队优先级，优先级高的构建先出队
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Getter
+public enum BuildPriority {
+    /**
+     * 触发器（webhook）
+     */
+    LOW(0, "i18n.build_priority_low.19ac"),
+    /**
+     * 定时构建
+     */
+    NORMAL(1, "i18n.build_priority_normal.3524"),
+    /**
+     * 手动构建、回滚
+     */
+    HIGH(2, "i18n.build_priority_high.4296"),
+    ;
+
+    private final int code;
+    private final String desc;
+
+    BuildPriority(int code, String desc) {
+        this.code = code;
+        this.desc = desc;
+    }
+
+    /**
+     * 根据触发类型获取优先级
+     *
+     * @param triggerBuildType 触发类型 0 手动 1 触发器 2 定时 3 回滚
+     * @return 优先级
+     */
+    public static BuildPriority ofTriggerBuildType(int triggerBuildType) {
+        switch (triggerBuildType) {
+            case 1:
+                return LOW;
+            case 2:
+                return NORMAL;
+            default:
+                return HIGH;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.build;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.function.Consumer;
+
+/**
+ * 构建排队任务
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Builder
+@Getter
+public class BuildQueueTask {
+    /**
+     * 构建 id，同一个构建在队列中只会存在一个任务
+     */
+    private final String key;
+    private final String name;
+    private final int buildNumberId;
+    private final String workspaceId;
+    private final String repositoryId;
+    /**
+     * 优先级，合并重复触发时会提升
+     */
+    @Setter(AccessLevel.PACKAGE)
+    private BuildPriority priority;
+    /**
+     * 最早开始执行的时间，用于延迟构建
+     */
+    @Setter(AccessLevel.PACKAGE)
+    private long notBefore;
+    /**
+     * 执行的任务
+     */
+    private final Runnable runnable;
+    /**
+     * 任务被拒绝执行（队列已满、被挤出队列）时的回调，参数为原因
+     */
+    private final Consumer<String> rejectHandler;
+    /**
+     * 入队顺序
+     */
+    @Setter(AccessLevel.PACKAGE)
+    private long sequence;
+    /**
+     * 入队时间
+     */
+    @Setter(AccessLevel.PACKAGE)
+    private long submitTime;
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.build;
+
+import cn.hutool.core.date.SystemClock;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IORuntimeException;
+import cn.hutool.core.lang.Pair;
+import cn.hutool.core.util.CharsetUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.dromara.jpom.JpomApplication;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 构建产物打包
+ * <p>
+ * 使用 fork/join 并行遍历文件夹，产物目录和构建目录在同一个文件系统时可以使用硬链接代替复制文件内容，也可以直接写入压缩包不再复制一份。
+ * 复制的规则和 FileCopier（覆盖、保留文件属性、过滤条件同时作用于文件夹）一致
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class BuildResultPackager {
+
+    private static volatile ForkJoinPool forkJoinPool;
+
+    /**
+     * 计算相对路径的根目录
+     */
+    private final String rootPath;
+    private final boolean releaseHideFile;
+    /**
+     * 过滤条件，参数为相对根目录的路径（以 / 开头），返回 false 的文件和文件夹不打包
+     */
+    private final Predicate<String> filter;
+    private final AtomicBoolean hardLink;
+    private final AtomicLong fileCount = new AtomicLong();
+    private final AtomicLong fileSize = new AtomicLong();
+    private final AtomicLong linkCount = new AtomicLong();
+    private final long startTime = SystemClock.now();
+
+    /**
+     * @param rootDir         根目录
+     * @param releaseHideFile 是否打包隐藏文件
+     * @param filter          过滤条件，可以为 null
+     * @param hardLink        是否尝试使用硬链接
+     * @param targetDir       产物存放目录，用于判断是否和根目录在同一个文件系统
+     */
+    public BuildResultPackager(File rootDir, boolean releaseHideFile, Predicate<String> filter, boolean hardLink, File targetDir) {
+        this.rootPath = FileUtil.getAbsolutePath(rootDir);
+        this.releaseHideFile = releaseHideFile;
+        this.filter = filter;
+        this.hardLink = new AtomicBoolean(hardLink && sameFileStore(rootDir, targetDir));
+    }
+
+    private static ForkJoinPool pool() {
+        if (forkJoinPool == null) {
+            synchronized (BuildResultPackager.class) {
+                if (forkJoinPool == null) {
+                    ForkJoinPool pool = new ForkJoinPool(Math.max(Runtime.getRuntime().availableProcessors(), 2));
+                    JpomApplication.register("build-package", pool);
+                    forkJoinPool = pool;
+                }
+            }
+        }
+        return forkJoinPool;
+    }
+
+    private static boolean sameFileStore(File rootDir, File targetDir) {
+        File target = targetDir;
+        while (target != null && !target.exists()) {
+            target = target.getParentFile();
+        }
+        if (target == null) {
+            return false;
+        }
+        try {
+            return Files.getFileStore(rootDir.toPath()).equals(Files.getFileStore(target.toPath()));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 复制文件或者文件夹，文件夹只复制内容到目标文件夹
+     *
+     * @param src  源文件
+     * @param dest 目标
+     */
+    public void copy(File src, File dest) {
+        if (!this.accept(src)) {
+            return;
+        }
+        if (src.isDirectory()) {
+            CopyTask copyTask = new CopyTask(src, dest);
+            if (ForkJoinTask.inForkJoinPool()) {
+                copyTask.invoke();
+            } else {
+                pool().invoke(copyTask);
+            }
+            return;
+        }
+        File target = dest.isDirectory() ? FileUtil.file(dest, src.getName()) : dest;
+        FileUtil.mkParentDirs(target);
+        this.transfer(src, target);
+    }
+
+    /**
+     * 并行复制多个文件或者文件夹
+     * <p>
+     * 目标相同的按原有顺序依次复制（同名文件后复制的覆盖前面的），只有目标不同的才并行复制
+     *
+     * @param items 源文件和目标
+     */
+    public void copy(List<Pair<File, File>> items) {
+        Map<String, List<Pair<File, File>>> groups = new LinkedHashMap<>();
+        for (Pair<File, File> item : items) {
+            groups.computeIfAbsent(FileUtil.getAbsolutePath(item.getValue()), s -> new ArrayList<>()).add(item);
+        }
+        pool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<RecursiveAction> tasks = new ArrayList<>(groups.size());
+                for (List<Pair<File, File>> group : groups.values()) {
+                    tasks.add(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            for (Pair<File, File> item : group) {
+                                BuildResultPackager.this.copy(item.getKey(), item.getValue());
+                            }
+                        }
+                    });
+                }
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    /**
+     * 将文件夹直接写入压缩包，压缩包的目录结构和 {@link BuildUtil#loadDirPackage} 打包文件夹一致
+     *
+     * @param src         源文件夹
+     * @param archiveFile 压缩包
+     * @param tarGz       是否为 tar.gz，反之为 zip
+     * @param rootName    tar.gz 中的根目录名称
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void archive(File src, File archiveFile, boolean tarGz, String rootName) {
+        ConcurrentLinkedQueue<File> queue = new ConcurrentLinkedQueue<>();
+        if (this.accept(src)) {
+            pool().invoke(new CollectTask(src, queue));
+        }
+        List<File> files = new ArrayList<>(queue);
+        // 保证压缩包的内容顺序一致
+        files.sort(Comparator.comparing(File::getAbsolutePath));
+        String srcPath = FileUtil.getAbsolutePath(src);
+        String prefix = tarGz ? rootName + StrUtil.SLASH : StrUtil.EMPTY;
+        FileUtil.mkParentDirs(archiveFile);
+        try (ArchiveOutputStream outputStream = this.createArchive(archiveFile, tarGz)) {
+            for (File file : files) {
+                String name = prefix + FileUtil.subPath(srcPath, file);
+                boolean directory = file.isDirectory();
+                ArchiveEntry entry = outputStream.createArchiveEntry(file, directory ? StrUtil.addSuffixIfNot(name, StrUtil.SLASH) : name);
+                outputStream.putArchiveEntry(entry);
+                if (!directory) {
+                    Files.copy(file.toPath(), outputStream);
+                    fileCount.incrementAndGet();
+                    fileSize.addAndGet(file.length());
+                }
+                outputStream.closeArchiveEntry();
+            }
+            outputStream.finish();
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    private ArchiveOutputStream<?> createArchive(File archiveFile, boolean tarGz) throws IOException {
+        OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(archiveFile.toPath()), 64 * 1024);
+        if (tarGz) {
+            TarArchiveOutputStream tarArchiveOutputStream = new TarArchiveOutputStream(new GzipCompressorOutputStream(outputStream), Charset.defaultCharset().name());
+            tarArchiveOutputStream.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            tarArchiveOutputStream.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+            return tarArchiveOutputStream;
+        }
+        ZipArchiveOutputStream zipArchiveOutputStream = new ZipArchiveOutputStream(outputStream);
+        zipArchiveOutputStream.setEncoding(CharsetUtil.UTF_8);
+        return zipArchiveOutputStream;
+    }
+
+    private boolean accept(File file) {
+        if (!releaseHideFile && file.isHidden()) {
+            return false;
+        }
+        if (filter == null) {
+            return true;
+        }
+        String subPath = FileUtil.normalize(StrUtil.SLASH + FileUtil.subPath(rootPath, file));
+        return filter.test(subPath);
+    }
+
+    /**
+     * 优先使用硬链接，链接失败后后续文件都使用复制
+     */
+    private void transfer(File src, File dest) {
+        Path srcPath = src.toPath();
+        Path destPath = dest.toPath();
+        try {
+            if (hardLink.get()) {
+                try {
+                    Files.deleteIfExists(destPath);
+                    Files.createLink(destPath, srcPath);
+                    linkCount.incrementAndGet();
+                    fileCount.incrementAndGet();
+                    fileSize.addAndGet(src.length());
+                    return;
+                } catch (IOException | UnsupportedOperationException e) {
+                    if (hardLink.compareAndSet(true, false)) {
+                        log.debug("hard link fail {}", src, e);
+                    }
+                }
+            }
+            Files.copy(srcPath, destPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            fileCount.incrementAndGet();
+            fileSize.addAndGet(src.length());
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    private List<File> listFiles(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        List<File> list = new ArrayList<>(files.length);
+        for (File file : files) {
+            if (this.accept(file)) {
+                list.add(file);
+            }
+        }
+        return list;
+    }
+
+    public long getFileCount() {
+        return fileCount.get();
+    }
+
+    public long getFileSize() {
+        return fileSize.get();
+    }
+
+    public long getLinkCount() {
+        return linkCount.get();
+    }
+
+    /**
+     * 打包耗时
+     *
+     * @return 毫秒
+     */
+    public long getDuration() {
+        return SystemClock.now() - startTime;
+    }
+
+    /**
+     * 复制文件夹内容
+     */
+    private class CopyTask extends RecursiveAction {
+        private final File src;
+        private final File dest;
+
+        private CopyTask(File src, File dest) {
+            this.src = src;
+            this.dest = dest;
+        }
+
+        @Override
+        protected void compute() {
+            FileUtil.mkdir(dest);
+            List<CopyTask> tasks = new ArrayList<>();
+            for (File file : BuildResultPackager.this.listFiles(src)) {
+                File target = new File(dest, file.getName());
+                if (file.isDirectory()) {
+                    tasks.add(new CopyTask(file, target));
+                } else {
+                    BuildResultPackager.this.transfer(file, target);
+                }
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    /**
+     * 收集需要写入压缩包的文件和文件夹
+     */
+    private class CollectTask extends RecursiveAction {
+        private final File dir;
+        private final ConcurrentLinkedQueue<File> queue;
+
+        private CollectTask(File dir, ConcurrentLinkedQueue<File> queue) {
+            this.dir = dir;
+            this.queue = queue;
+        }
+
+        @Override
+        protected void compute() {
+            List<CollectTask> tasks = new ArrayList<>();
+            for (File file : BuildResultPackager.this.listFiles(dir)) {
+                queue.add(file);
+                if (file.isDirectory()) {
+                    tasks.add(new CollectTask(file, queue));
+                }
+            }
+            invokeAll(tasks);
+        }
+    }
+}
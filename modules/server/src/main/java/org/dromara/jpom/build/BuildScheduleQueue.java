@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.build;
+
+import cn.hutool.core.util.StrUtil;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+
+import java.util.*;
+
+/**
+ * 构建排队队列
+ * <p>
+ * 每个工作空间一个按优先级排序的队列，同一个构建只会排队一次（重复触发合并）。出队时从各个工作空间中选择可以执行的任务，
+ * 优先级高的先执行，优先级相同时轮流从各个工作空间出队，同时限制单个工作空间和单个仓库同时执行的构建数
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+class BuildScheduleQueue {
+
+    /**
+     * 优先级高的在前，优先级相同先入队的在前
+     */
+    static final Comparator<BuildQueueTask> ORDER = Comparator.comparingInt((BuildQueueTask task) -> -task.getPriority().getCode())
+        .thenComparingLong(BuildQueueTask::getSequence);
+
+    private final Map<String, TreeSet<BuildQueueTask>> workspaces = new HashMap<>();
+    private final Map<String, BuildQueueTask> queued = new HashMap<>();
+    private final Map<String, BuildQueueTask> running = new HashMap<>();
+    private final Map<String, Integer> runningWorkspace = new HashMap<>();
+    private final Map<String, Integer> runningRepository = new HashMap<>();
+    /**
+     * 工作空间最后一次出队的顺序，用于相同优先级时轮流出队
+     */
+    private final Map<String, Long> workspaceDispatch = new HashMap<>();
+    private long sequence;
+    private long dispatchSequence;
+
+    /**
+     * 合并重复触发，已经在排队的构建提升优先级、提前开始时间
+     *
+     * @param key       构建 id
+     * @param priority  新触发的优先级
+     * @param notBefore 新触发的最早开始时间
+     * @return 正在排队的任务，不在排队中返回 null
+     */
+    synchronized BuildQueueTask merge(String key, BuildPriority priority, long notBefore) {
+        BuildQueueTask task = queued.get(key);
+        if (task == null) {
+            return null;
+        }
+        TreeSet<BuildQueueTask> set = workspaces.get(this.workspaceKey(task));
+        set.remove(task);
+        if (priority.getCode() > task.getPriority().getCode()) {
+            task.setPriority(priority);
+        }
+        task.setNotBefore(Math.min(task.getNotBefore(), notBefore));
+        set.add(task);
+        return task;
+    }
+
+    /**
+     * 入队，队列已满时挤出优先级更低的任务，没有更低的任务则拒绝当前任务
+     *
+     * @param task     任务
+     * @param capacity 最多排队数，小于 1 不限制
+     * @return 被拒绝的任务（可能是当前任务），全部接受返回 null
+     */
+    synchronized BuildQueueTask offer(BuildQueueTask task, int capacity) {
+        if (queued.containsKey(task.getKey()) || running.containsKey(task.getKey())) {
+            throw new IllegalStateException(I18nMessageUtil.get("i18n.build_in_progress.4d33"));
+        }
+        task.setSequence(++sequence);
+        BuildQueueTask rejected = null;
+        if (capacity > 0 && queued.size() >= capacity) {
+            BuildQueueTask lowest = queued.values().stream().max(ORDER).orElse(null);
+            if (lowest == null || lowest.getPriority().getCode() >= task.getPriority().getCode()) {
+                return task;
+            }
+            this.removeQueued(lowest);
+            rejected = lowest;
+        }
+        queued.put(task.getKey(), task);
+        workspaces.computeIfAbsent(this.workspaceKey(task), s -> new TreeSet<>(ORDER)).add(task);
+        return rejected;
+    }
+
+    /**
+     * 取出下一个可以执行的任务，任务变为执行中
+     *
+     * @param now           当前时间
+     * @param maxRunning    最多同时执行数，小于 1 不限制
+     * @param workspaceMax  单个工作空间最多同时执行数，小于 1 不限制
+     * @param repositoryMax 单个仓库最多同时执行数，小于 1 不限制
+     * @return 没有可执行的任务返回 null
+     */
+    synchronized BuildQueueTask poll(long now, int maxRunning, int workspaceMax, int repositoryMax) {
+        if (maxRunning > 0 && running.size() >= maxRunning) {
+            return null;
+        }
+        BuildQueueTask best = null;
+        for (Map.Entry<String, TreeSet<BuildQueueTask>> entry : workspaces.entrySet()) {
+            if (workspaceMax > 0 && runningWorkspace.getOrDefault(entry.getKey(), 0) >= workspaceMax) {
+                continue;
+            }
+            BuildQueueTask candidate = null;
+            for (BuildQueueTask task : entry.getValue()) {
+                if (task.getNotBefore() > now) {
+                    continue;
+                }
+                String repositoryId = task.getRepositoryId();
+                if (repositoryMax > 0 && repositoryId != null && runningRepository.getOrDefault(repositoryId, 0) >= repositoryMax) {
+                    continue;
+                }
+                candidate = task;
+                break;
+            }
+            if (candidate != null && (best == null || this.compareDispatch(candidate, best) < 0)) {
+                best = candidate;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        this.removeQueued(best);
+        running.put(best.getKey(), best);
+        String workspaceKey = this.workspaceKey(best);
+        runningWorkspace.merge(workspaceKey, 1, Integer::sum);
+        Optional.ofNullable(best.getRepositoryId()).ifPresent(s -> runningRepository.merge(s, 1, Integer::sum));
+        workspaceDispatch.put(workspaceKey, ++dispatchSequence);
+        return best;
+    }
+
+    /**
+     * 任务执行结束
+     *
+     * @param task 任务
+     */
+    synchronized void done(BuildQueueTask task) {
+        if (running.remove(task.getKey(), task)) {
+            runningWorkspace.computeIfPresent(this.workspaceKey(task), (s, count) -> count > 1 ? count - 1 : null);
+            Optional.ofNullable(task.getRepositoryId()).ifPresent(s -> runningRepository.computeIfPresent(s, (s1, count) -> count > 1 ? count - 1 : null));
+        }
+    }
+
+    /**
+     * 移除排队中的任务
+     *
+     * @param key 构建 id
+     * @return 被移除的任务
+     */
+    synchronized BuildQueueTask remove(String key) {
+        BuildQueueTask task = queued.get(key);
+        if (task != null) {
+            this.removeQueued(task);
+        }
+        return task;
+    }
+
+    /**
+     * 排队中的任务，按大致的执行顺序排序
+     *
+     * @return list
+     */
+    synchronized List<BuildQueueTask> snapshot() {
+        List<BuildQueueTask> list = new ArrayList<>(queued.values());
+        list.sort(ORDER);
+        return list;
+    }
+
+    synchronized boolean isRunning(String key) {
+        return running.containsKey(key);
+    }
+
+    synchronized int queuedSize() {
+        return queued.size();
+    }
+
+    synchronized int runningSize() {
+        return running.size();
+    }
+
+    /**
+     * 比较两个工作空间的候选任务，优先级高的先执行，优先级相同较久没有出队的工作空间先执行
+     */
+    private int compareDispatch(BuildQueueTask a, BuildQueueTask b) {
+        int compare = Integer.compare(b.getPriority().getCode(), a.getPriority().getCode());
+        if (compare != 0) {
+            return compare;
+        }
+        long dispatchA = workspaceDispatch.getOrDefault(this.workspaceKey(a), 0L);
+        long dispatchB = workspaceDispatch.getOrDefault(this.workspaceKey(b), 0L);
+        compare = Long.compare(dispatchA, dispatchB);
+        if (compare != 0) {
+            return compare;
+        }
+        return Long.compare(a.getSequence(), b.getSequence());
+    }
+
+    private void removeQueued(BuildQueueTask task) {
+        queued.remove(task.getKey(), task);
+        String workspaceKey = this.workspaceKey(task);
+        TreeSet<BuildQueueTask> set = workspaces.get(workspaceKey);
+        if (set != null) {
+            set.remove(task);
+            if (set.isEmpty()) {
+                workspaces.remove(workspaceKey);
+            }
+        }
+    }
+
+    private String workspaceKey(BuildQueueTask task) {
+        return StrUtil.nullToEmpty(task.getWorkspaceId());
+    }
+}
@@ -19,12 +19,14 @@ import cn.hutool.extra.compress.archiver.Archiver;
 import org.dromara.jpom.JpomApplication;
 import org.dromara.jpom.common.ServerConst;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.configuration.BuildExtConfig;
 import org.dromara.jpom.model.data.BuildInfoModel;
 import org.dromara.jpom.model.data.RepositoryModel;
 import org.springframework.util.Assert;
 
 import java.io.File;
 import java.nio.charset.Charset;
+import java.util.Map;
 import java.util.function.BiFunction;
 
 /**
@@ -38,6 +40,18 @@ public class BuildUtil {
     public static Long buildCacheSize = 0L;
 
     public static final String USE_TAR_GZ = "USE_TAR_GZ";
+    /**
+     * 打包产物时产物目录和构建目录在同一个文件系统则使用硬链接，构建命令会原地修改产物文件时不能开启
+     */
+    public static final String USE_PACKAGE_HARD_LINK = "USE_PACKAGE_HARD_LINK";
+    /**
+     * 打包产物时文件夹直接写入压缩包保存
+     */
+    public static final String USE_PACKAGE_ARCHIVE = "USE_PACKAGE_ARCHIVE";
+    /**
+     * 直接写入压缩包的产物文件名后缀，发布时和文件夹产物一样作为压缩包处理
+     */
+    public static final String PACKAGE_ARCHIVE_SUFFIX = ".jpom-package";
 
     /**
      * 刷新存储文件大小
@@ -156,7 +170,8 @@ public class BuildUtil {
     private static File isDirPackage(String id, int buildNumberId, File file, boolean tarGz) {
         Assert.state(file != null && file.exists(), I18nMessageUtil.get("i18n.product_file_does_not_exist.ee13"));
         if (file.isFile()) {
-            return null;
+            // 构建时已经将文件夹写入压缩包
+            return isPackageArchive(file) ? file : null;
         }
         Assert.state(!FileUtil.isDirEmpty(file), I18nMessageUtil.get("i18n.empty_folder_cannot_be_packed.5a75") + buildNumberId);
         String name = FileUtil.getName(file);
@@ -176,6 +191,17 @@ public class BuildUtil {
         return zipFile;
     }
 
+    /**
+     * 是否为构建时直接写入的产物压缩包
+     *
+     * @param file 文件
+     * @return true 是
+     */
+    public static boolean isPackageArchive(File file) {
+        String name = FileUtil.getName(file);
+        return StrUtil.endWithAny(name, PACKAGE_ARCHIVE_SUFFIX + ".zip", PACKAGE_ARCHIVE_SUFFIX + ".tar.gz");
+    }
+
     /**
      * 如果为文件夹自动打包为zip ,反之返回null
      *
@@ -207,6 +233,31 @@ public class BuildUtil {
         return FileUtil.file(sshDir, path);
     }
 
+    /**
+     * 仓库镜像缓存目录
+     *
+     * @param repositoryId 仓库ID
+     * @return file
+     */
+    public static File getRepositoryMirrorFile(String repositoryId) {
+        return FileUtil.file(JpomApplication.getInstance().getDataPath(), "repository-mirror", repositoryId);
+    }
+
+    /**
+     * 开启镜像缓存时 git 插件参数添加镜像目录
+     *
+     * @param map             插件参数
+     * @param repositoryModel 仓库
+     * @param buildExtConfig  构建配置
+     */
+    public static void putGitMirror(Map<String, Object> map, RepositoryModel repositoryModel, BuildExtConfig buildExtConfig) {
+        if (!buildExtConfig.isGitMirrorCache() || StrUtil.isEmpty(repositoryModel.getId())) {
+            return;
+        }
+        map.put("mirrorPath", BuildUtil.getRepositoryMirrorFile(repositoryModel.getId()));
+        map.put("mirrorTtl", buildExtConfig.getGitMirrorTtl());
+    }
+
     /**
      * get rsa file
      *
@@ -9,6 +9,7 @@
  */
 package org.dromara.jpom.build;
 
+import cn.hutool.core.collection.CollStreamUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.date.DateTime;
@@ -17,11 +18,11 @@ import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.lang.Opt;
 import cn.hutool.core.text.CharPool;
+import cn.hutool.core.thread.ThreadUtil;
 import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.core.util.NumberUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.crypto.SecureUtil;
 import cn.hutool.extra.spring.SpringUtil;
 import cn.hutool.extra.ssh.JschUtil;
 import cn.keepbx.jpom.model.JsonMessage;
@@ -62,11 +63,14 @@ import org.dromara.jpom.service.node.NodeService;
 import org.dromara.jpom.service.node.ssh.SshService;
 import org.dromara.jpom.system.ExtConfigBean;
 import org.dromara.jpom.system.JpomRuntimeException;
+import org.dromara.jpom.transport.FileBundleResource;
 import org.dromara.jpom.util.CommandUtil;
+import org.dromara.jpom.util.FileHashManifest;
 import org.dromara.jpom.util.LogRecorder;
 import org.dromara.jpom.util.MySftp;
 import org.dromara.jpom.util.StringUtil;
 import org.springframework.util.Assert;
+import org.springframework.util.unit.DataSize;
 
 import java.io.File;
 import java.io.IOException;
@@ -75,6 +79,7 @@ import java.nio.charset.Charset;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -304,7 +309,7 @@ public class ReleaseManage {
                     logRecorder.system("start push to repository in({}),{} {}{}", map.get("name"), StrUtil.emptyToDefault((String) map.get("registryUrl"), StrUtil.EMPTY), repositoryItem, System.lineSeparator());
                     //
                     map.put("repository", repositoryItem);
-                    Consumer<String> logConsumer = logRecorder::info;
+                    Consumer<String> logConsumer = logRecorder::appendLine;
                     map.put("logConsumer", logConsumer);
                     IPlugin plugin = PluginFactory.getPlugin(DockerInfoService.DOCKER_PLUGIN_NAME);
                     try {
@@ -388,7 +393,7 @@ public class ReleaseManage {
                 try {
                     return CommandUtil.execWaitFor(file, sourceFile, envFileMap, StrUtil.EMPTY, (s, process) -> {
                         ReleaseManage.this.process = process;
-                        logRecorder.info(s);
+                        logRecorder.appendLine(s);
                     });
                 } catch (IOException | InterruptedException e) {
                     throw Lombok.sneakyThrow(e);
@@ -435,7 +440,7 @@ public class ReleaseManage {
             if (StrUtil.isNotEmpty(this.buildExtraModule.getReleaseBeforeCommand())) {
                 //
                 logRecorder.system(I18nMessageUtil.get("i18n.start_executing_pre_release_command.6c7e"), item.getName());
-                JschUtils.execCallbackLine(session, charset, timeout, this.buildExtraModule.getReleaseBeforeCommand(), StrUtil.EMPTY, envFileMap, logRecorder::info);
+                JschUtils.execCallbackLine(session, charset, timeout, this.buildExtraModule.getReleaseBeforeCommand(), StrUtil.EMPTY, envFileMap, logRecorder::appendLine);
             }
 
             if (StrUtil.isEmpty(releasePath)) {
@@ -443,7 +448,7 @@ public class ReleaseManage {
             } else {
                 logRecorder.system("{} {} start ftp upload{}", DateUtil.now(), item.getName(), System.lineSeparator());
                 MySftp.ProgressMonitor sftpProgressMonitor = sshService.createProgressMonitor(logRecorder);
-                MySftp sftp = new MySftp(session, charset, timeout, sftpProgressMonitor);
+                MySftp sftp = new MySftp(session, charset, timeout, sftpProgressMonitor, buildExtConfig.getSftpUploadConcurrent());
                 channelSftp = sftp.getClient();
                 String prefix = "";
                 if (!StrUtil.startWith(releasePath, StrUtil.SLASH)) {
@@ -471,10 +476,10 @@ public class ReleaseManage {
             }
             //
             logRecorder.system(I18nMessageUtil.get("i18n.start_executing_post_release_command.fd06"), item.getName());
-            JschUtils.execCallbackLine(session, charset, timeout, this.buildExtraModule.getReleaseCommand(), StrUtil.EMPTY, envFileMap, logRecorder::info);
+            JschUtils.execCallbackLine(session, charset, timeout, this.buildExtraModule.getReleaseCommand(), StrUtil.EMPTY, envFileMap, logRecorder::appendLine);
         } finally {
             JschUtil.close(channelSftp);
-            JschUtil.close(session);
+            sshService.closeSession(session);
         }
     }
 
@@ -490,22 +495,33 @@ public class ReleaseManage {
         String resultFileParent = resultFile.isFile() ?
             FileUtil.getAbsolutePath(resultFile.getParent()) : FileUtil.getAbsolutePath(this.resultFile);
         //
-        List<File> files = FileUtil.loopFiles(resultFile);
-        List<JSONObject> collect = files.stream().map(file -> {
-            //
-            JSONObject jsonObject = new JSONObject();
-            jsonObject.put("name", StringUtil.delStartPath(file, resultFileParent, true));
-            jsonObject.put("sha1", SecureUtil.sha1(file));
-            return jsonObject;
-        }).collect(Collectors.toList());
+        // 使用清单记录文件签名，只重新计算有变化的文件
+        long start = System.currentTimeMillis();
+        FileHashManifest manifest = new FileHashManifest(FileUtil.file(BuildUtil.getBuildDataFile(this.buildExtraModule.getId()), "diff-sync.manifest"));
+        Map<String, String> hashMap = manifest.scan(resultFile, resultFileParent);
+        logRecorder.system(I18nMessageUtil.get("i18n.diff_sync_manifest_summary.3add"), manifest.getFileCount(), manifest.getHashCount(),
+            DateUtil.formatBetween(System.currentTimeMillis() - start));
         //
         JSONObject jsonObject = new JSONObject();
         jsonObject.put("id", projectId);
-        jsonObject.put("data", collect);
+        jsonObject.put("manifest", FileHashManifest.encode(hashMap));
         String directory = this.buildExtraModule.getProjectSecondaryDirectory();
         directory = Opt.ofBlankAble(directory).orElse(StrUtil.SLASH);
         jsonObject.put("dir", directory);
         JsonMessage<JSONObject> requestBody = NodeForward.requestBody(nodeModel, NodeUrl.MANAGE_FILE_DIFF_FILE, jsonObject);
+        if (!requestBody.success()) {
+            // 兼容旧版本插件端
+            logRecorder.system(I18nMessageUtil.get("i18n.diff_sync_legacy_retry.37b8"), requestBody);
+            jsonObject.remove("manifest");
+            List<JSONObject> collect = hashMap.entrySet().stream().map(entry -> {
+                JSONObject item = new JSONObject();
+                item.put("name", entry.getKey());
+                item.put("sha1", entry.getValue());
+                return item;
+            }).collect(Collectors.toList());
+            jsonObject.put("data", collect);
+            requestBody = NodeForward.requestBody(nodeModel, NodeUrl.MANAGE_FILE_DIFF_FILE, jsonObject);
+        }
         Assert.state(requestBody.success(), I18nMessageUtil.get("i18n.compare_project_failure.e6ab") + requestBody);
 
         JSONObject data = requestBody.getData();
@@ -514,47 +530,144 @@ public class ReleaseManage {
         int delSize = CollUtil.size(del);
         int diffSize = CollUtil.size(diff);
         if (clearOld) {
-            logRecorder.system(I18nMessageUtil.get("i18n.compare_files_result_with_delete.033d"), CollUtil.size(collect), CollUtil.size(diff), delSize);
+            logRecorder.system(I18nMessageUtil.get("i18n.compare_files_result_with_delete.033d"), hashMap.size(), CollUtil.size(diff), delSize);
         } else {
-            logRecorder.system(I18nMessageUtil.get("i18n.compare_files_result.bec4"), CollUtil.size(collect), CollUtil.size(diff));
+            logRecorder.system(I18nMessageUtil.get("i18n.compare_files_result.bec4"), hashMap.size(), CollUtil.size(diff));
         }
         // 清空发布才先执行删除
         if (delSize > 0 && clearOld) {
+            jsonObject.remove("manifest");
             jsonObject.put("data", del);
             requestBody = NodeForward.requestBody(nodeModel, NodeUrl.MANAGE_FILE_BATCH_DELETE, jsonObject);
             Assert.state(requestBody.success(), I18nMessageUtil.get("i18n.delete_project_file_failure_with_full_stop.85b8") + requestBody);
         }
+        // 小文件打包为一个请求上传，大文件并行分片上传。最后一个请求执行上传后的操作
+        long bundleMaxSize = Optional.ofNullable(buildExtConfig.getDiffSyncBundleMaxSize()).map(DataSize::toBytes).orElse(0L);
+        long bundleFileSize = Math.min(Optional.ofNullable(buildExtConfig.getDiffSyncBundleFileSize()).map(DataSize::toBytes).orElse(0L), bundleMaxSize);
+        List<String> uploadNames = new ArrayList<>();
+        Map<String, File> bundleFiles = new LinkedHashMap<>();
         for (int i = 0; i < diffSize; i++) {
-            boolean last = (i == diffSize - 1);
-            JSONObject diffData = (JSONObject) diff.get(i);
-            String name = diffData.getString("name");
+            String name = diff.getJSONObject(i).getString("name");
             File file = FileUtil.file(resultFileParent, name);
-            //
-            String startPath = StringUtil.delStartPath(file, resultFileParent, false);
-            startPath = FileUtil.normalize(startPath + StrUtil.SLASH + directory);
-            //
-            Set<Integer> progressRangeList = ConcurrentHashMap.newKeySet((int) Math.floor((float) 100 / buildExtConfig.getLogReduceProgressRatio()));
-            int finalI = i;
-            JsonMessage<String> jsonMessage = OutGivingRun.fileUpload(file, startPath,
-                projectId, false, last ? afterOpt : AfterOpt.No, nodeModel, false,
-                this.buildExtraModule.getProjectUploadCloseFirst(), (total, progressSize) -> {
-                    double progressPercentage = Math.floor(((float) progressSize / total) * 100);
-                    int progressRange = (int) Math.floor(progressPercentage / buildExtConfig.getLogReduceProgressRatio());
-                    if (progressRangeList.add(progressRange)) {
-                        //  total, progressSize
-                        String info = I18nMessageUtil.get("i18n.upload_progress_message_format.b91c");
-                        logRecorder.system(info, file.getName(),
-                            (finalI + 1), diffSize,
-                            FileUtil.readableFileSize(progressSize), FileUtil.readableFileSize(total),
-                            NumberUtil.formatPercent(((float) progressSize / total), 0)
-                        );
-                    }
-                });
-            Assert.state(jsonMessage.success(), I18nMessageUtil.get("i18n.synchronize_project_files_failed.6aa4") + jsonMessage);
-            if (last) {
-                // 最后一个
-                logRecorder.system(I18nMessageUtil.get("i18n.publish_project_package_success.b0ce"), jsonMessage);
+            if (bundleFileSize > 0 && file.length() < bundleFileSize) {
+                // 和单个文件上传时的目录一致
+                String levelName = FileUtil.normalize(StringUtil.delStartPath(file, resultFileParent, false) + StrUtil.SLASH + directory);
+                bundleFiles.put(StrUtil.removePrefix(FileUtil.normalize(levelName + StrUtil.SLASH + file.getName()), StrUtil.SLASH), file);
+            } else {
+                uploadNames.add(name);
+            }
+        }
+        if (bundleFiles.size() > 1) {
+            // 按照插件端上传文件大小的限制拆分为多个压缩包
+            List<FileBundleResource> bundles = FileBundleResource.split(bundleFiles, "bundle.zip", bundleMaxSize);
+            List<String> failedNames = new ArrayList<>();
+            for (int i = 0; i < bundles.size(); i++) {
+                FileBundleResource bundle = bundles.get(i);
+                boolean last = i == bundles.size() - 1 && uploadNames.isEmpty() && failedNames.isEmpty();
+                if (!this.diffSyncBundle(nodeModel, projectId, bundle, last ? afterOpt : AfterOpt.No)) {
+                    // 上传失败的压缩包改为逐个文件上传
+                    failedNames.addAll(CollStreamUtil.toList(bundle.getFiles().values(), file -> StringUtil.delStartPath(file, resultFileParent, true)));
+                }
+            }
+            uploadNames.addAll(0, failedNames);
+        } else {
+            uploadNames.addAll(0, CollStreamUtil.toList(bundleFiles.values(), file -> StringUtil.delStartPath(file, resultFileParent, true)));
+        }
+        this.diffSyncUpload(nodeModel, projectId, afterOpt, resultFileParent, directory, uploadNames);
+    }
+
+    /**
+     * 多个小文件打包为一个压缩包上传，边读取边压缩，不生成临时文件
+     *
+     * @param resource 压缩包
+     * @return 插件端不支持或者上传失败时返回 false
+     */
+    private boolean diffSyncBundle(NodeModel nodeModel, String projectId, FileBundleResource resource, AfterOpt afterOpt) {
+        JSONObject data = new JSONObject();
+        data.put("id", projectId);
+        data.put("file", resource);
+        if (afterOpt != AfterOpt.No) {
+            data.put("after", afterOpt.getCode());
+        }
+        data.put("closeFirst", this.buildExtraModule.getProjectUploadCloseFirst());
+        long start = System.currentTimeMillis();
+        JsonMessage<Object> jsonMessage;
+        try {
+            jsonMessage = NodeForward.request(nodeModel, NodeUrl.Manage_File_Upload_Bundle, data);
+        } catch (Exception e) {
+            // 兼容旧版本插件端
+            logRecorder.system(I18nMessageUtil.get("i18n.diff_sync_bundle_unsupported.53e7"), e.getMessage());
+            return false;
+        }
+        if (!jsonMessage.success()) {
+            logRecorder.system(I18nMessageUtil.get("i18n.diff_sync_bundle_unsupported.53e7"), jsonMessage);
+            return false;
+        }
+        long duration = Math.max(System.currentTimeMillis() - start, 1);
+        logRecorder.system(I18nMessageUtil.get("i18n.diff_sync_bundle_summary.8033"), resource.getFileCount(),
+            FileUtil.readableFileSize(resource.getFileSize()), DateUtil.formatBetween(duration),
+            FileUtil.readableFileSize(resource.getFileSize() * 1000 / duration));
+        if (afterOpt != AfterOpt.No) {
+            logRecorder.system(I18nMessageUtil.get("i18n.publish_project_package_success.b0ce"), jsonMessage);
+        }
+        return true;
+    }
+
+    /**
+     * 逐个分片上传文件，除最后一个文件外并行上传
+     */
+    private void diffSyncUpload(NodeModel nodeModel, String projectId, AfterOpt afterOpt, String resultFileParent, String directory, List<String> names) {
+        int size = names.size();
+        if (size == 0) {
+            return;
+        }
+        ExecutorService executorService = ThreadUtil.newExecutor(Math.min(buildExtConfig.getDiffSyncUploadConcurrent(), size));
+        try {
+            List<Future<?>> futures = new ArrayList<>(size);
+            for (int i = 0; i < size - 1; i++) {
+                int index = i;
+                futures.add(executorService.submit(() -> this.diffSyncUploadFile(nodeModel, projectId, AfterOpt.No, resultFileParent, directory, names.get(index), index, size)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Lombok.sneakyThrow(e);
+        } catch (ExecutionException e) {
+            throw Lombok.sneakyThrow(e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+        this.diffSyncUploadFile(nodeModel, projectId, afterOpt, resultFileParent, directory, names.get(size - 1), size - 1, size);
+    }
+
+    private void diffSyncUploadFile(NodeModel nodeModel, String projectId, AfterOpt afterOpt, String resultFileParent, String directory, String name, int index, int size) {
+        File file = FileUtil.file(resultFileParent, name);
+        //
+        String startPath = StringUtil.delStartPath(file, resultFileParent, false);
+        startPath = FileUtil.normalize(startPath + StrUtil.SLASH + directory);
+        //
+        Set<Integer> progressRangeList = ConcurrentHashMap.newKeySet((int) Math.floor((float) 100 / buildExtConfig.getLogReduceProgressRatio()));
+        JsonMessage<String> jsonMessage = OutGivingRun.fileUpload(file, startPath,
+            projectId, false, afterOpt, nodeModel, false,
+            this.buildExtraModule.getProjectUploadCloseFirst(), (total, progressSize) -> {
+                double progressPercentage = Math.floor(((float) progressSize / total) * 100);
+                int progressRange = (int) Math.floor(progressPercentage / buildExtConfig.getLogReduceProgressRatio());
+                if (progressRangeList.add(progressRange)) {
+                    //  total, progressSize
+                    String info = I18nMessageUtil.get("i18n.upload_progress_message_format.b91c");
+                    logRecorder.system(info, file.getName(),
+                        (index + 1), size,
+                        FileUtil.readableFileSize(progressSize), FileUtil.readableFileSize(total),
+                        NumberUtil.formatPercent(((float) progressSize / total), 0)
+                    );
+                }
+            });
+        Assert.state(jsonMessage.success(), I18nMessageUtil.get("i18n.synchronize_project_files_failed.6aa4") + jsonMessage);
+        if (index == size - 1) {
+            // 最后一个
+            logRecorder.system(I18nMessageUtil.get("i18n.publish_project_package_success.b0ce"), jsonMessage);
         }
     }
 
@@ -16,7 +16,6 @@ import cn.hutool.core.io.unit.DataSize;
 import cn.hutool.core.lang.Opt;
 import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.EnumUtil;
-import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.crypto.SecureUtil;
 import cn.hutool.extra.servlet.ServletUtil;
@@ -49,12 +48,11 @@ import org.springframework.web.multipart.MultipartHttpServletRequest;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
-import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicLong;
@@ -300,7 +298,7 @@ public class NodeForward {
      */
     public static <T> JsonMessage<T> requestSharding(NodeModel nodeModel, NodeUrl nodeUrl, JSONObject jsonObject, File file, Function<JSONObject, JsonMessage<T>> doneCallback, BiConsumer<Long, Long> streamProgress) throws IOException {
         INodeInfo nodeInfo = parseNodeInfo(nodeModel);
-        return requestSharding(nodeInfo, nodeModel.getWorkspaceId(), nodeUrl, jsonObject, file, File::getName, doneCallback, streamProgress);
+        return requestSharding(nodeInfo, nodeModel.getWorkspaceId(), nodeUrl, jsonObject, file, File::getName, null, doneCallback, streamProgress);
     }
 
     /**
@@ -313,7 +311,24 @@ public class NodeForward {
      */
     public static <T> JsonMessage<T> requestSharding(NodeModel nodeModel, NodeUrl nodeUrl, JSONObject jsonObject, File file, String fileName, Function<JSONObject, JsonMessage<T>> doneCallback, BiConsumer<Long, Long> streamProgress) throws IOException {
         INodeInfo nodeInfo = parseNodeInfo(nodeModel);
-        return requestSharding(nodeInfo, nodeModel.getWorkspaceId(), nodeUrl, jsonObject, file, file1 -> fileName, doneCallback, streamProgress);
+        return requestSharding(nodeInfo, nodeModel.getWorkspaceId(), nodeUrl, jsonObject, file, file1 -> fileName, null, doneCallback, streamProgress);
+    }
+
+    /**
+     * 分片上传文件，使用已经开始计算的文件签名（同一个文件上传到多个节点时只读取一次文件计算签名）
+     *
+     * @param nodeModel      节点
+     * @param nodeUrl        节点的url
+     * @param jsonObject     数据
+     * @param file           文件
+     * @param fileDigest     文件签名，分片大小需要和节点配置的分片大小一致
+     * @param doneCallback   上传完成回调
+     * @param streamProgress 进度回调
+     * @return JSON
+     */
+    public static <T> JsonMessage<T> requestSharding(NodeModel nodeModel, NodeUrl nodeUrl, JSONObject jsonObject, File file, ShardingFileDigest fileDigest, Function<JSONObject, JsonMessage<T>> doneCallback, BiConsumer<Long, Long> streamProgress) throws IOException {
+        INodeInfo nodeInfo = parseNodeInfo(nodeModel);
+        return requestSharding(nodeInfo, nodeModel.getWorkspaceId(), nodeUrl, jsonObject, file, File::getName, fileDigest, doneCallback, streamProgress);
     }
 
     /**
@@ -326,7 +341,7 @@ public class NodeForward {
      */
     public static <T> JsonMessage<T> requestSharding(MachineNodeModel machineNodeModel, NodeUrl nodeUrl, JSONObject jsonObject, File file, Function<JSONObject, JsonMessage<T>> doneCallback, BiConsumer<Long, Long> streamProgress) throws IOException {
         INodeInfo nodeInfo = coverNodeInfo(machineNodeModel);
-        return requestSharding(nodeInfo, StrUtil.EMPTY, nodeUrl, jsonObject, file, File::getName, doneCallback, streamProgress);
+        return requestSharding(nodeInfo, StrUtil.EMPTY, nodeUrl, jsonObject, file, File::getName, null, doneCallback, streamProgress);
     }
 
     /**
@@ -337,24 +352,35 @@ public class NodeForward {
      * @param streamProgress 进度回调
      * @param nodeUrl        节点的url
      * @param jsonObject     数据
+     * @param digest         已经开始计算的文件签名，为空时边上传边计算
      * @return JSON
      */
-    private static <T> JsonMessage<T> requestSharding(INodeInfo nodeInfo, String workspaceId, NodeUrl nodeUrl, JSONObject jsonObject, File file, Function<File, String> fileNameFn, Function<JSONObject, JsonMessage<T>> doneCallback, BiConsumer<Long, Long> streamProgress) throws IOException {
+    private static <T> JsonMessage<T> requestSharding(INodeInfo nodeInfo, String workspaceId, NodeUrl nodeUrl, JSONObject jsonObject, File file, Function<File, String> fileNameFn, ShardingFileDigest digest, Function<JSONObject, JsonMessage<T>> doneCallback, BiConsumer<Long, Long> streamProgress) throws IOException {
         IUrlItem urlItem = parseUrlItem(nodeInfo, workspaceId, nodeUrl, DataContentType.FORM_URLENCODED);
         ServerConfig serverConfig = SpringUtil.getBean(ServerConfig.class);
         NodeConfig nodeConfig = serverConfig.getNode();
         long length = file.length();
         String fileName = fileNameFn.apply(file);
         Assert.state(length > 0, I18nMessageUtil.get("i18n.empty_file_cannot_upload.88df") + file.getAbsolutePath());
-        String md5 = SecureUtil.md5(file);
         int fileSliceSize = nodeConfig.getUploadFileSliceSize();
         //如果小数点大于1，整数加一 例如4.1 =》5
         long chunkSize = DataSize.ofMegabytes(fileSliceSize).toBytes();
         int total = (int) Math.ceil((double) length / chunkSize);
+        // 同一个文件上传到同一个节点的同一个目标（上传参数相同）分片id保持一致，中断后再次上传可以续传。
+        // 同一个文件同时上传到节点的多个项目时分片id不同，避免共用分片目录
+        String sliceId = SecureUtil.md5(StrUtil.join(StrUtil.COLON, nodeInfo.url(), workspaceId, nodeUrl.getUrl(), file.getAbsolutePath(), fileName, length, file.lastModified(), chunkSize, jsonObject.toString()));
+        Collection<Integer> exists = requestShardingExists(nodeInfo, workspaceId, sliceId);
         Queue<Integer> queueList = new ConcurrentLinkedDeque<>();
         for (int i = 0; i < total; i++) {
+            if (exists != null && exists.contains(i)) {
+                continue;
+            }
             queueList.offer(i);
         }
+        int existsCount = total - queueList.size();
+        if (existsCount > 0) {
+            log.info(I18nMessageUtil.get("i18n.resume_sharding_upload.1065"), fileName, existsCount, total);
+        }
         List<Integer> success = Collections.synchronizedList(new ArrayList<>(total));
         // 并发数
         int concurrent = nodeConfig.getUploadFileConcurrent();
@@ -362,78 +388,112 @@ public class NodeForward {
         AtomicReference<JsonMessage<T>> succeedMessage = new AtomicReference<>();
         AtomicLong atomicProgressSize = new AtomicLong(0);
         JSONObject sliceData = new JSONObject();
-        sliceData.put("sliceId", IdUtil.fastSimpleUUID());
+        sliceData.put("sliceId", sliceId);
         sliceData.put("totalSlice", total);
-        sliceData.put("fileSumMd5", md5);
+        // 插件端按照分片大小计算写入位置
+        sliceData.put("sliceSize", chunkSize);
+        sliceData.put("fileSize", length);
         TransportServer transportServer = TransportServerFactory.get();
         TypeReference<JsonMessage<T>> typeReference = new TypeReference<JsonMessage<T>>() {
         };
-        // 需要计算 并发数和最大任务数，如果任务数小于并发数则使用任务数
-        try (StrictSyncFinisher syncFinisher = new StrictSyncFinisher(Math.min(concurrent, total), total)) {
-            Runnable runnable = () -> {
-                // 取出任务
-                Integer currentChunk = queueList.poll();
-                if (currentChunk == null) {
-                    return;
-                }
-                JSONObject uploadData = jsonObject.clone();
-                try {
-                    try (FileInputStream inputStream = new FileInputStream(file)) {
-                        try (FileChannel inputChannel = inputStream.getChannel()) {
-                            //分配缓冲区，设定每次读的字节数
-                            ByteBuffer byteBuffer = ByteBuffer.allocate((int) chunkSize);
-                            // 移动到指定位置开始读取
-                            inputChannel.position(currentChunk * chunkSize);
-                            inputChannel.read(byteBuffer);
-                            //上面把数据写入到了buffer，所以可知上面的buffer是写模式，调用flip把buffer切换到读模式，读取数据
-                            byteBuffer.flip();
-                            byte[] array = new byte[byteBuffer.remaining()];
-                            byteBuffer.get(array, 0, array.length);
-                            uploadData.put("file", new BytesResource(array, fileName + StrUtil.DOT + currentChunk));
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final ShardingFileDigest fileDigest;
+            if (digest == null) {
+                // 边上传边计算签名
+                fileDigest = new ShardingFileDigest(fileChannel, length, chunkSize, total);
+                fileDigest.start();
+            } else {
+                Assert.state(digest.getChunkSize() == chunkSize, "chunk size mismatch");
+                fileDigest = digest;
+            }
+            if (exists == null) {
+                // 旧版本插件端每个分片都需要携带文件签名
+                sliceData.put("fileSumMd5", fileDigest.getFileMd5());
+            }
+            int workerCount = queueList.size();
+            if (workerCount > 0) {
+                // 需要计算 并发数和最大任务数，如果任务数小于并发数则使用任务数
+                try (StrictSyncFinisher syncFinisher = new StrictSyncFinisher(Math.min(concurrent, workerCount), workerCount)) {
+                    Runnable runnable = () -> {
+                        // 取出任务
+                        Integer currentChunk = queueList.poll();
+                        if (currentChunk == null) {
+                            return;
+                        }
+                        JSONObject uploadData = jsonObject.clone();
+                        try {
+                            long position = currentChunk * chunkSize;
+                            // 直接从文件通道读取分片写入请求体
+                            uploadData.put("file", new FileRegionResource(fileChannel, position, Math.min(chunkSize, length - position), fileName + StrUtil.DOT + currentChunk));
                             uploadData.put("nowSlice", currentChunk);
+                            uploadData.put("sliceMd5", fileDigest.getSliceMd5(currentChunk));
                             uploadData.putAll(sliceData);
+                            // 上传
+                            JsonMessage<T> message = transportServer.executeToType(nodeInfo, urlItem, uploadData, typeReference);
+                            if (message.success()) {
+                                // 使用成功的个数计算
+                                success.add(currentChunk);
+                                long end = Math.min(length, ((existsCount + success.size() - 1) * chunkSize) + chunkSize);
+                                // 保存线程安全顺序回调进度信息
+                                atomicProgressSize.set(Math.max(end, atomicProgressSize.get()));
+                                streamProgress.accept(length, atomicProgressSize.get());
+                                succeedMessage.set(message);
+                            } else {
+                                log.warn(I18nMessageUtil.get("i18n.chunk_upload_exception.87c1"), nodeUrl, message);
+                                // 终止上传
+                                queueList.clear();
+                                failureMessage.set(message);
+                            }
+                        } catch (Exception e) {
+                            log.error(I18nMessageUtil.get("i18n.chunk_upload_file_exception.0dc3"), e);
+                            // 终止上传
+                            queueList.clear();
+                            failureMessage.set(new JsonMessage<>(500, I18nMessageUtil.get("i18n.upload_exception.cd6c") + e.getMessage()));
                         }
+                    };
+                    for (int i = 0; i < workerCount; i++) {
+                        syncFinisher.addWorker(runnable);
                     }
-                    // 上传
-                    JsonMessage<T> message = transportServer.executeToType(nodeInfo, urlItem, uploadData, typeReference);
-                    if (message.success()) {
-                        // 使用成功的个数计算
-                        success.add(currentChunk);
-                        long end = Math.min(length, ((success.size() - 1) * chunkSize) + chunkSize);
-                        // 保存线程安全顺序回调进度信息
-                        atomicProgressSize.set(Math.max(end, atomicProgressSize.get()));
-                        streamProgress.accept(length, atomicProgressSize.get());
-                        succeedMessage.set(message);
-                    } else {
-                        log.warn(I18nMessageUtil.get("i18n.chunk_upload_exception.87c1"), nodeUrl, message);
-                        // 终止上传
-                        queueList.clear();
-                        failureMessage.set(message);
-                    }
-                } catch (Exception e) {
-                    log.error(I18nMessageUtil.get("i18n.chunk_upload_file_exception.0dc3"), e);
-                    // 终止上传
-                    queueList.clear();
-                    failureMessage.set(new JsonMessage<>(500, I18nMessageUtil.get("i18n.upload_exception.cd6c") + e.getMessage()));
+                    syncFinisher.start();
                 }
-            };
-            for (int i = 0; i < total; i++) {
-                syncFinisher.addWorker(runnable);
             }
-            syncFinisher.start();
-        }
-        JsonMessage<T> message = failureMessage.get();
-        if (message != null) {
-            return message;
+            JsonMessage<T> message = failureMessage.get();
+            if (message != null) {
+                return message;
+            }
+            // 判断是否都成功
+            Assert.state(success.size() + existsCount == total, I18nMessageUtil.get("i18n.upload_exception_mismatch.0b25"));
+            sliceData.put("fileSumMd5", fileDigest.getFileMd5());
         }
-        // 判断是否都成功
-        Assert.state(success.size() == total, I18nMessageUtil.get("i18n.upload_exception_mismatch.0b25"));
         //
         return Optional.ofNullable(doneCallback)
             .map(function -> function.apply(sliceData))
             .orElseGet(succeedMessage::get);
     }
 
+    /**
+     * 查询插件端已经存在的分片
+     *
+     * @param nodeInfo    节点
+     * @param workspaceId 工作空间id
+     * @param sliceId     分片id
+     * @return null 插件端不支持续传
+     */
+    private static Collection<Integer> requestShardingExists(INodeInfo nodeInfo, String workspaceId, String sliceId) {
+        IUrlItem urlItem = parseUrlItem(nodeInfo, workspaceId, NodeUrl.Manage_File_Sharding_Status, DataContentType.FORM_URLENCODED);
+        try {
+            JsonMessage<List<Integer>> message = TransportServerFactory.get().executeToType(nodeInfo, urlItem, MapUtil.of("sliceId", sliceId), new TypeReference<JsonMessage<List<Integer>>>() {
+            });
+            if (!message.success()) {
+                return null;
+            }
+            return new HashSet<>(CollUtil.emptyIfNull(message.getData()));
+        } catch (Exception e) {
+            log.debug("sharding status {}", e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * 普通消息转发
      *
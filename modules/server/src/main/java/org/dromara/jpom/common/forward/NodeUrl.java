@@ -70,6 +70,8 @@ public enum NodeUrl {
 
     Manage_GetProjectInfo("/manage/getProjectInfo"),
 
+    Manage_GetProjectChanges("/manage/getProjectChanges"),
+
 //    Manage_Jude_Lib("/manage/judge_lib.json"),
 
 //	Manage_GetProjectGroup("/manage/getProjectGroup"),
@@ -78,10 +80,14 @@ public enum NodeUrl {
 
     Manage_GetProjectStatus("/manage/getProjectStatus"),
 
+    Manage_GetProjectStatusBatch("/manage/getProjectStatusBatch"),
+
     Manage_Operate("/manage/operate"),
 
     Manage_GetProjectPort("/manage/getProjectPort"),
 
+    Manage_GetProjectReadiness("/manage/getProjectReadiness"),
+
 
     Manage_Recover_List_Data("/manage/recover/list_data"),
 
@@ -94,8 +100,34 @@ public enum NodeUrl {
     MANAGE_FILE_BACKUP_RECOVER("/manage/file/backup-recover"),
     Manage_File_Upload_Sharding("/manage/file/upload-sharding", true),
     Manage_File_Sharding_Merge("/manage/file/sharding-merge", true),
+    /**
+     * 多个小文件打包上传
+     */
+    Manage_File_Upload_Bundle("/manage/file/upload-bundle", true),
     Manage_File_Upload_Sharding2("/manage/file2/upload-sharding", true),
     Manage_File_Sharding_Merge2("/manage/file2/sharding-merge", true),
+    /**
+     * 查询已经上传的分片
+     */
+    Manage_File_Sharding_Status("/manage/file2/sharding-status"),
+    /**
+     * 中继分发，节点收到分片后继续转发给子节点
+     */
+    Manage_File_Relay_Sharding("/manage/file2/relay-sharding", true),
+    /**
+     * 中继分发开始前在节点登记令牌，节点之间转发只使用令牌
+     */
+    Manage_File_Relay_Register("/manage/file2/relay-register"),
+    Manage_File_Relay_Status("/manage/file2/relay-status"),
+    Manage_File_Relay_Clear("/manage/file2/relay-clear"),
+    /**
+     * 查询节点分发文件仓库中已经存在的文件
+     */
+    Manage_File_Artifact_Exists("/manage/file2/artifact-exists"),
+    /**
+     * 合并分片后保存到节点的分发文件仓库
+     */
+    Manage_File_Artifact_Merge("/manage/file2/artifact-merge", true),
 
     Manage_File_DeleteFile("/manage/file/deleteFile"),
     /**
@@ -128,12 +160,16 @@ public enum NodeUrl {
 
     Manage_Log_logBack_download("/manage/log/logBack_download", true),
 
+    Manage_Log_logBack_read("/manage/log/logBack_read"),
+
     Manage_Log_logBack("/manage/log/logBack"),
 
     Manage_Log_export("/manage/log/export", true),
 
 
     Script_List("/script/list.json"),
+
+    Script_Changes("/script/changes.json"),
     Script_ChangeWorkspaceId("/script/change-workspace-id"),
     SCRIPT_PULL_EXEC_LOG("/script/pull_exec_log"),
     SCRIPT_DEL_EXEC_LOG("/script/del_exec_log"),
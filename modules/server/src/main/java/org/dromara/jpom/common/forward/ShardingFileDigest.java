@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.common.forward;
+
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.core.util.RuntimeUtil;
+import cn.hutool.crypto.SecureUtil;
+import org.dromara.jpom.JpomApplication;
+
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.concurrent.*;
+
+/**
+ * 分片上传的文件签名
+ * <p>
+ * 按顺序读取一遍文件，同时计算每个分片和整个文件的 md5。分片的签名算出后上传线程即可开始上传该分片，
+ * 不需要等待整个文件的签名计算完成
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class ShardingFileDigest implements Runnable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static volatile ExecutorService digestExecutor;
+
+    private final FileChannel channel;
+    private final long length;
+    private final long chunkSize;
+    private final CompletableFuture<String>[] sliceMd5;
+    private final CompletableFuture<String> fileMd5 = new CompletableFuture<>();
+
+    @SuppressWarnings("unchecked")
+    public ShardingFileDigest(FileChannel channel, long length, long chunkSize, int total) {
+        this.channel = channel;
+        this.length = length;
+        this.chunkSize = chunkSize;
+        this.sliceMd5 = new CompletableFuture[total];
+        for (int i = 0; i < total; i++) {
+            this.sliceMd5[i] = new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * 在签名线程池中开始计算
+     */
+    public void start() {
+        executor().execute(this);
+    }
+
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    private static ExecutorService executor() {
+        if (digestExecutor == null) {
+            synchronized (ShardingFileDigest.class) {
+                if (digestExecutor == null) {
+                    int poolSize = Math.max(RuntimeUtil.getProcessorCount() / 2, 2);
+                    ThreadPoolExecutor executor = ExecutorBuilder.create()
+                        .setCorePoolSize(poolSize)
+                        .setMaxPoolSize(poolSize)
+                        .setAllowCoreThreadTimeOut(true)
+                        .setWorkQueue(new LinkedBlockingQueue<>())
+                        .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("jpom-sharding-digest-").setDaemon(true).build())
+                        .build();
+                    JpomApplication.register("sharding-digest", executor);
+                    digestExecutor = executor;
+                }
+            }
+        }
+        return digestExecutor;
+    }
+
+    @Override
+    public void run() {
+        try {
+            MessageDigest fileDigest = SecureUtil.md5().getDigest();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            long position = 0;
+            for (int i = 0; i < sliceMd5.length; i++) {
+                MessageDigest sliceDigest = SecureUtil.md5().getDigest();
+                long end = Math.min(length, (i + 1) * chunkSize);
+                while (position < end) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(BUFFER_SIZE, end - position));
+                    int read = channel.read(buffer, position);
+                    if (read < 0) {
+                        throw new EOFException();
+                    }
+                    buffer.flip();
+                    sliceDigest.update(buffer.duplicate());
+                    fileDigest.update(buffer);
+                    position += read;
+                }
+                sliceMd5[i].complete(HexUtil.encodeHexStr(sliceDigest.digest()));
+            }
+            fileMd5.complete(HexUtil.encodeHexStr(fileDigest.digest()));
+        } catch (Throwable e) {
+            for (CompletableFuture<String> future : sliceMd5) {
+                future.completeExceptionally(e);
+            }
+            fileMd5.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 获取分片签名，未计算完成时等待
+     *
+     * @param slice 分片序号
+     * @return md5
+     * @throws CompletionException 读取文件失败
+     */
+    public String getSliceMd5(int slice) {
+        return sliceMd5[slice].join();
+    }
+
+    /**
+     * 获取整个文件的签名，未计算完成时等待
+     *
+     * @return md5
+     * @throws CompletionException 读取文件失败
+     */
+    public String getFileMd5() {
+        return fileMd5.join();
+    }
+}
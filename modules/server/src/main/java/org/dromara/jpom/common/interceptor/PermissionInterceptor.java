@@ -17,7 +17,6 @@ import cn.keepbx.jpom.model.JsonMessage;
 import org.dromara.jpom.common.BaseServerController;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
 import org.dromara.jpom.exception.AgentException;
-import org.dromara.jpom.model.BaseNodeModel;
 import org.dromara.jpom.model.data.NodeModel;
 import org.dromara.jpom.model.user.UserBindWorkspaceModel;
 import org.dromara.jpom.model.user.UserModel;
@@ -139,9 +138,9 @@ public class PermissionInterceptor implements HandlerMethodInterceptor {
             BaseNodeService<?> baseNodeService = SpringUtil.getBean(nodeDataPermission.cls());
             String dataId = request.getParameter(parameterName);
             if (StrUtil.isNotEmpty(dataId)) {
-                BaseNodeModel data = baseNodeService.getData(node.getId(), dataId);
-                if (data != null) {
-                    UserBindWorkspaceModel.PermissionResult permissionResult = userBindWorkspaceService.checkPermission(userModel, data.getWorkspaceId());
+                String workspaceId = baseNodeService.getDataWorkspaceId(node.getId(), dataId);
+                if (workspaceId != null) {
+                    UserBindWorkspaceModel.PermissionResult permissionResult = userBindWorkspaceService.checkPermission(userModel, workspaceId);
 
                     if (!permissionResult.isSuccess()) {
                         this.errorMsg(response, permissionResult.errorMsg());
@@ -181,7 +180,7 @@ public class PermissionInterceptor implements HandlerMethodInterceptor {
         String nodeId = request.getParameter("nodeId");
         if (!StrUtil.isBlankOrUndefined(nodeId)) {
             // 节点信息
-            NodeModel nodeModel = nodeService.getByKey(nodeId);
+            NodeModel nodeModel = nodeService.getByKeyWithCache(nodeId);
             if (nodeModel != null && !nodeModel.isOpenStatus()) {
                 throw new AgentException(nodeModel.getName() + I18nMessageUtil.get("i18n.node_not_enabled.a14d"));
             }
@@ -75,7 +75,14 @@ public class AssetsConfig {
          * 禁用监控的分组名 （如果想禁用所有配置 * 即可）
          */
         private List<String> disableMonitorGroupName;
-
+        /**
+         * 会话池中会话空闲多久后断开，单位秒，小于等于 0 不复用会话
+         */
+        private int sessionPoolIdleTimeout = 300;
+        /**
+         * 单个 ssh 资产共享会话同时打开的最大通道数，超过后等待，等待超时使用独立的会话
+         */
+        private int sessionPoolMaxChannels = 8;
     }
 
     /**
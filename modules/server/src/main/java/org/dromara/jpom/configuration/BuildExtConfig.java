@@ -12,6 +12,7 @@ package org.dromara.jpom.configuration;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
 /**
  * 构建相关配置
@@ -42,9 +43,67 @@ public class BuildExtConfig {
     private int poolSize = 5;
 
     /**
-     * 构建任务等待数量，超过此数量将取消构建任务，值最小为 1
+     * 构建任务等待数量，超过此数量将挤出优先级更低的排队任务，没有更低的任务则取消当前构建任务，值最小为 1
      */
     private int poolWaitQueue = 10;
+
+    /**
+     * 单个工作空间同时执行的构建数,小于 1 则为不限制
+     */
+    private int workspacePoolSize = 0;
+
+    /**
+     * 单个仓库同时执行的构建数,小于 1 则为不限制
+     */
+    private int repositoryPoolSize = 2;
+
+    /**
+     * 已有构建在执行时，系统平均负载（除以 CPU 核心数）超过此值的新构建继续排队等待，小于等于 0 不检查
+     */
+    private double admissionMaxLoad = 2.0;
+
+    /**
+     * 已有构建在执行时，系统空闲内存（单位 MB）低于此值的新构建继续排队等待，小于等于 0 不检查
+     */
+    private long admissionMinFreeMemory = 256;
+    /**
+     * 差异发布时小于此大小的文件打包为一个压缩包上传，小于等于 0 不打包
+     */
+    private DataSize diffSyncBundleFileSize = DataSize.ofMegabytes(1);
+
+    /**
+     * 差异发布时单个压缩包的最大大小，超过后拆分为多个压缩包。需要小于插件端的上传文件大小限制（spring.servlet.multipart.max-file-size）
+     */
+    private DataSize diffSyncBundleMaxSize = DataSize.ofMegabytes(4);
+
+    /**
+     * 差异发布时大文件同时上传的数量，最小 1
+     */
+    private int diffSyncUploadConcurrent = 2;
+
+    public int getDiffSyncUploadConcurrent() {
+        return Math.max(this.diffSyncUploadConcurrent, 1);
+    }
+
+    /**
+     * ssh 发布上传文件夹时同时打开的 sftp 通道数，最小 1
+     */
+    private int sftpUploadConcurrent = 4;
+
+    public int getSftpUploadConcurrent() {
+        return Math.max(this.sftpUploadConcurrent, 1);
+    }
+
+    /**
+     * git 仓库是否使用镜像缓存，同一个仓库的构建共用一份对象
+     */
+    private boolean gitMirrorCache = true;
+
+    /**
+     * 仓库镜像刷新间隔（单位秒），间隔内查询分支标签直接读取镜像
+     */
+    private int gitMirrorTtl = 60;
+
     /**
      * 压缩折叠显示进度比例 范围 1-100
      */
@@ -10,6 +10,7 @@
 package org.dromara.jpom.configuration;
 
 import cn.hutool.core.util.RuntimeUtil;
+import cn.hutool.core.util.StrUtil;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.util.unit.DataSize;
@@ -44,11 +45,45 @@ public class NodeConfig {
      * 节点文件分片上传并发数,最小1 最大 服务端 CPU 核心数
      */
     private int uploadFileConcurrent = 2;
+
+    /**
+     * 节点分发中继转发的子节点数，分发的节点数大于此值时服务端只上传到前几个节点，再由节点逐级转发。小于等于 0 不使用中继分发
+     */
+    private int relayFanout = 0;
+
+    /**
+     * 中继分发时节点超过此时间（单位秒）没有收到新的分片，改为由服务端直接上传，最短 10 秒
+     */
+    private int relayStallTimeout = 60;
+
+    public int getRelayStallTimeout() {
+        return Math.max(this.relayStallTimeout, 10);
+    }
     /**
      * web socket 消息最大长度
      */
     private DataSize webSocketMessageSizeLimit = DataSize.ofMegabytes(5);
 
+    /**
+     * 节点通讯方式：http 每次请求使用新的连接，pooled-http 使用连接池复用连接
+     */
+    private String transportServer = "http";
+
+    /**
+     * 连接池中单个节点最大连接数（仅 pooled-http）
+     */
+    private int transportPoolMaxPerNode = 20;
+
+    /**
+     * 连接池最大连接数（仅 pooled-http）
+     */
+    private int transportPoolMaxTotal = 200;
+
+    /**
+     * 连接空闲保持时间 单位秒（仅 pooled-http）
+     */
+    private int transportKeepAlive = 60;
+
     public int getUploadFileTimeout() {
         return Math.max(this.uploadFileTimeout, 5);
     }
@@ -65,4 +100,49 @@ public class NodeConfig {
      * 节点统计日志保留天数，如果小于等于 0 不自动删除
      */
     private int statLogKeepDays = 3;
+
+    /**
+     * 节点统计日志存储方式：db 使用数据库表，file 使用内置的时序文件存储（自动汇总为每分钟、每小时、每天的数据）
+     * <p>
+     * file 数据只保存在当前服务端：集群部署时每个服务端只能查看自己采集的数据，切换后也不会读取数据库中已有的历史数据
+     */
+    private String statLogStore = "db";
+
+    /**
+     * 节点统计日志每分钟汇总数据保留天数，如果小于等于 0 不自动删除（仅 file 存储方式）
+     */
+    private int statLogMinuteKeepDays = 15;
+
+    /**
+     * 节点统计日志每小时汇总数据保留天数，如果小于等于 0 不自动删除（仅 file 存储方式）
+     */
+    private int statLogHourKeepDays = 180;
+
+    /**
+     * 节点统计日志每天汇总数据保留天数，如果小于等于 0 不自动删除（仅 file 存储方式）
+     */
+    private int statLogDayKeepDays = 1095;
+
+    public boolean statLogFileStore() {
+        return StrUtil.equalsIgnoreCase(this.statLogStore, "file");
+    }
+
+    /**
+     * 项目监控线程池大小,小于等于0 为CPU核心数
+     */
+    private int monitorPoolSize = 0;
+
+    /**
+     * 项目监控任务等待数量，超过此数量将放弃本次节点检查，值最小为 1
+     */
+    private int monitorPoolWaitQueue = 500;
+
+    /**
+     * 项目监控单个节点的超时时间 单位秒,最短5秒
+     */
+    private int monitorNodeTimeout = 30;
+
+    public int getMonitorNodeTimeout() {
+        return Math.max(this.monitorNodeTimeout, 5);
+    }
 }
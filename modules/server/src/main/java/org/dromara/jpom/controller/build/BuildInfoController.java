@@ -443,6 +443,7 @@ public class BuildInfoController extends BaseServerController {
         Assert.state(repositoryModel.getRepoType() == 0, I18nMessageUtil.get("i18n.only_git_repositories_have_branch_info.d7f7"));
         IPlugin plugin = PluginFactory.getPlugin("git-clone");
         Map<String, Object> map = repositoryModel.toMap();
+        BuildUtil.putGitMirror(map, repositoryModel, buildExtConfig);
         Tuple branchAndTagList = (Tuple) plugin.execute("branchAndTagList", map);
         Assert.notNull(branchAndTagList, I18nMessageUtil.get("i18n.no_any_branch.d042"));
         JSONObject jsonObject = new JSONObject();
@@ -17,6 +17,7 @@ import cn.keepbx.jpom.model.JsonMessage;
 import com.alibaba.fastjson2.JSONObject;
 import org.dromara.jpom.build.BuildExecuteManage;
 import org.dromara.jpom.build.BuildExecuteService;
+import org.dromara.jpom.build.BuildExecutorPoolService;
 import org.dromara.jpom.build.BuildUtil;
 import org.dromara.jpom.build.ResultDirFileAction;
 import org.dromara.jpom.common.BaseServerController;
@@ -60,13 +61,16 @@ public class BuildInfoManageController extends BaseServerController {
     private final BuildInfoService buildInfoService;
     private final DbBuildHistoryLogService dbBuildHistoryLogService;
     private final BuildExecuteService buildExecuteService;
+    private final BuildExecutorPoolService buildExecutorPoolService;
 
     public BuildInfoManageController(BuildInfoService buildInfoService,
                                      DbBuildHistoryLogService dbBuildHistoryLogService,
-                                     BuildExecuteService buildExecuteService) {
+                                     BuildExecuteService buildExecuteService,
+                                     BuildExecutorPoolService buildExecutorPoolService) {
         this.buildInfoService = buildInfoService;
         this.dbBuildHistoryLogService = dbBuildHistoryLogService;
         this.buildExecuteService = buildExecuteService;
+        this.buildExecutorPoolService = buildExecutorPoolService;
     }
 
     /**
@@ -142,6 +146,22 @@ public class BuildInfoManageController extends BaseServerController {
         return JsonMessage.success(I18nMessageUtil.get("i18n.cancel_success.285f"));
     }
 
+    /**
+     * 当前工作空间排队中的构建
+     *
+     * @return json
+     */
+    @RequestMapping(value = "/build/manage/queue", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Feature(method = MethodFeature.LIST)
+    public IJsonMessage<JSONObject> queue(HttpServletRequest request) {
+        String workspaceId = buildInfoService.getCheckUserWorkspace(request);
+        JSONObject data = new JSONObject();
+        data.put("list", buildExecutorPoolService.listQueue(workspaceId));
+        data.put("queuedSize", buildExecutorPoolService.queuedSize());
+        data.put("runningSize", buildExecutorPoolService.runningSize());
+        return JsonMessage.success("", data);
+    }
+
     /**
      * 重新发布
      *
@@ -201,6 +221,8 @@ public class BuildInfoManageController extends BaseServerController {
         data.put("logId", queryByBean.getId());
         data.put("status", status);
         data.put("statusMsg", queryByBean.getStatusMsg());
+        // 排队中的位置和预计等待时间
+        data.put("queue", buildExecutorPoolService.getQueueInfo(id));
         // 构建中
         //data.put("buildRun", status == BuildStatus.Ing.getCode());
         return JsonMessage.success("", data);
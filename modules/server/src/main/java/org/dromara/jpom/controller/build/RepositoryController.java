@@ -516,6 +516,7 @@ public class RepositoryController extends BaseServerController {
         repositoryService.delByKey(keyAndGlobal.getId());
         File rsaFile = BuildUtil.getRepositoryRsaFile(id + ServerConst.ID_RSA);
         FileUtil.del(rsaFile);
+        FileUtil.del(BuildUtil.getRepositoryMirrorFile(id));
         return JsonMessage.success(I18nMessageUtil.get("i18n.delete_success.0007"));
     }
 
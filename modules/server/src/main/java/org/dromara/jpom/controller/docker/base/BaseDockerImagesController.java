@@ -134,7 +134,7 @@ public abstract class BaseDockerImagesController extends BaseDockerController {
         File file = FileUtil.file(serverConfig.getUserTempPath(), "docker-log", uuid + ".log");
         LogRecorder logRecorder = LogRecorder.builder().file(file).build();
         logRecorder.system("start pull {}", repository);
-        Consumer<String> logConsumer = logRecorder::info;
+        Consumer<String> logConsumer = logRecorder::appendLine;
         parameter.put("logConsumer", logConsumer);
         I18nThreadUtil.execute(() -> {
             try {
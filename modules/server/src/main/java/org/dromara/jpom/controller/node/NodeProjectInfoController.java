@@ -109,7 +109,7 @@ public class NodeProjectInfoController extends BaseServerController {
         NodeModel nodeModel = nodeService.getByKey(nodeId);
         Assert.notNull(nodeModel, I18nMessageUtil.get("i18n.node_not_exist.760e"));
         int count = projectInfoCacheService.delCache(nodeId, request);
-        String msg = projectInfoCacheService.syncExecuteNode(nodeModel);
+        String msg = projectInfoCacheService.syncExecuteNode(nodeModel, true);
         return JsonMessage.success(I18nMessageUtil.get("i18n.active_clearance_colon.96a6") + count + StrUtil.SPACE + msg);
     }
 
@@ -27,6 +27,7 @@ import org.dromara.jpom.configuration.NodeConfig;
 import org.dromara.jpom.func.assets.model.MachineNodeModel;
 import org.dromara.jpom.func.assets.model.MachineNodeStatLogModel;
 import org.dromara.jpom.func.assets.server.MachineNodeStatLogServer;
+import org.dromara.jpom.func.assets.server.MachineNodeStatSeriesServer;
 import org.dromara.jpom.model.BaseMachineModel;
 import org.dromara.jpom.model.data.NodeModel;
 import org.dromara.jpom.permission.SystemPermission;
@@ -48,12 +49,20 @@ import java.util.Optional;
 @RequestMapping(value = "/node")
 public class NodeWelcomeController extends BaseServerController {
 
+    /**
+     * 图表最多展示的数据点数量
+     */
+    private static final int CHART_MAX_POINTS = 1440;
+
     private final MachineNodeStatLogServer machineNodeStatLogServer;
+    private final MachineNodeStatSeriesServer machineNodeStatSeriesServer;
     private final NodeConfig nodeConfig;
 
     public NodeWelcomeController(MachineNodeStatLogServer machineNodeStatLogServer,
+                                 MachineNodeStatSeriesServer machineNodeStatSeriesServer,
                                  ServerConfig serverConfig) {
         this.machineNodeStatLogServer = machineNodeStatLogServer;
+        this.machineNodeStatSeriesServer = machineNodeStatSeriesServer;
         this.nodeConfig = serverConfig.getNode();
     }
 
@@ -69,6 +78,9 @@ public class NodeWelcomeController extends BaseServerController {
         String startDateStr = getParameter("startTime");
         String endDateStr = getParameter("endTime");
         if (StrUtil.hasEmpty(startDateStr, endDateStr)) {
+            if (machineNodeStatSeriesServer.enabled()) {
+                return machineNodeStatSeriesServer.latest(useMachineId, 500);
+            }
             MachineNodeStatLogModel systemMonitorLog = new MachineNodeStatLogModel();
             systemMonitorLog.setMachineId(useMachineId);
             return machineNodeStatLogServer.queryList(systemMonitorLog, 500, new Order("monitorTime", Direction.DESC));
@@ -82,6 +94,10 @@ public class NodeWelcomeController extends BaseServerController {
             endDate = DateUtil.endOfDay(endDate);
         }
         long endTime = endDate.getTime();
+        if (machineNodeStatSeriesServer.enabled()) {
+            // 按时间范围选择汇总精度
+            return machineNodeStatSeriesServer.list(useMachineId, startTime, endTime, CHART_MAX_POINTS);
+        }
         // 开启了节点信息采集
         Page pageObj = new Page(1, 5000);
         pageObj.addOrder(new Order("monitorTime", Direction.DESC));
@@ -76,6 +76,13 @@ public class LogBackController extends BaseServerController {
         NodeForward.requestDownload(getNode(), request, response, NodeUrl.Manage_Log_logBack_download);
     }
 
+    @RequestMapping(value = "logBack_read", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    @Feature(method = MethodFeature.LIST)
+    public IJsonMessage<Object> read(HttpServletRequest request) {
+        return NodeForward.request(getNode(), request, NodeUrl.Manage_Log_logBack_read);
+    }
+
     @RequestMapping(value = "logBack_delete", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
     @Feature(method = MethodFeature.DEL)
@@ -147,7 +147,7 @@ public class NodeScriptController extends BaseServerController {
         //
         NodeModel node = getNode();
         int cache = nodeScriptServer.delCache(node.getId(), request);
-        String msg = nodeScriptServer.syncExecuteNode(node);
+        String msg = nodeScriptServer.syncExecuteNode(node, true);
         return JsonMessage.success(I18nMessageUtil.get("i18n.active_clearance.5870") + cache + StrUtil.SPACE + msg);
     }
 
@@ -33,6 +33,7 @@ import org.dromara.jpom.model.data.NodeModel;
 import org.dromara.jpom.model.enums.BuildReleaseMethod;
 import org.dromara.jpom.model.outgiving.OutGivingModel;
 import org.dromara.jpom.model.outgiving.OutGivingNodeProject;
+import org.dromara.jpom.outgiving.OutGivingRollout;
 import org.dromara.jpom.permission.ClassFeature;
 import org.dromara.jpom.permission.Feature;
 import org.dromara.jpom.permission.MethodFeature;
@@ -195,6 +196,11 @@ public class OutGivingController extends BaseServerController {
         //
         int intervalTime = getParameterInt("intervalTime", 10);
         outGivingModel.setIntervalTime(intervalTime);
+        outGivingModel.setWaveSize(StrUtil.trim(getParameter("waveSize")));
+        outGivingModel.setReadinessProbe(StrUtil.trim(getParameter("readinessProbe")));
+        outGivingModel.setReadinessTimeout(Convert.toInt(getParameter("readinessTimeout"), null));
+        outGivingModel.setFailureRatio(Convert.toInt(getParameter("failureRatio"), null));
+        OutGivingRollout.check(outGivingModel);
         //
         outGivingModel.setClearOld(Convert.toBool(getParameter("clearOld"), false));
         //
@@ -221,10 +221,11 @@ public abstract class BaseSshFileController extends BaseServerController {
      * @param charset         编码格式
      */
     private String readFile(MachineSshModel machineSshModel, String allowPathParent, String nextPath, String name, Charset charset) {
+        Session session = null;
         Sftp sftp = null;
         try {
-            Session session = sshService.getSessionByModel(machineSshModel);
-            sftp = new Sftp(session, machineSshModel.charset(), machineSshModel.timeout());
+            session = sshService.getSessionByModel(machineSshModel);
+            sftp = sshService.openSftp(session, machineSshModel.charset(), machineSshModel.timeout());
             String normalize = FileUtil.normalize(allowPathParent + StrUtil.SLASH + nextPath + StrUtil.SLASH + name);
             ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
             sftp.download(normalize, byteArrayOutputStream);
@@ -232,6 +233,7 @@ public abstract class BaseSshFileController extends BaseServerController {
             return new String(bytes, charset);
         } finally {
             IoUtil.close(sftp);
+            sshService.closeSession(session);
         }
     }
 
@@ -249,14 +251,16 @@ public abstract class BaseSshFileController extends BaseServerController {
                           String nextPath,
                           String name,
                           File file) {
+        Session session = null;
         Sftp sftp = null;
         try {
-            Session session = sshService.getSessionByModel(machineSshModel);
-            sftp = new Sftp(session, machineSshModel.charset(), machineSshModel.timeout());
+            session = sshService.getSessionByModel(machineSshModel);
+            sftp = sshService.openSftp(session, machineSshModel.charset(), machineSshModel.timeout());
             String normalize = FileUtil.normalize(allowPathParent + StrUtil.SLASH + nextPath + StrUtil.SLASH + name);
             sftp.upload(normalize, file);
         } finally {
             IoUtil.close(sftp);
+            sshService.closeSession(session);
         }
     }
 
@@ -284,7 +288,7 @@ public abstract class BaseSshFileController extends BaseServerController {
             channel.get(normalize, response.getOutputStream());
         } finally {
             JschUtil.close(channel);
-            JschUtil.close(session);
+            sshService.closeSession(session);
         }
     }
 
@@ -355,7 +359,7 @@ public abstract class BaseSshFileController extends BaseServerController {
             return jsonArray;
         } finally {
             JschUtil.close(channel);
-            JschUtil.close(session);
+            sshService.closeSession(session);
         }
     }
 
@@ -391,7 +395,7 @@ public abstract class BaseSshFileController extends BaseServerController {
             return jsonArray;
         } finally {
             JschUtil.close(channel);
-            JschUtil.close(session);
+            sshService.closeSession(session);
         }
     }
 
@@ -414,7 +418,7 @@ public abstract class BaseSshFileController extends BaseServerController {
                 String normalize = FileUtil.normalize(allowPathParent + StrUtil.SLASH + nextPath + StrUtil.SLASH + name2);
                 Assert.state(!StrUtil.equals(normalize, StrUtil.SLASH), I18nMessageUtil.get("i18n.cannot_delete_root_dir.fcdc"));
                 session = sshService.getSessionByModel(machineSshModel);
-                sftp = new Sftp(session, machineSshModel.charset(), machineSshModel.timeout());
+                sftp = sshService.openSftp(session, machineSshModel.charset(), machineSshModel.timeout());
                 // 尝试删除
                 boolean dirOrFile = this.tryDelDirOrFile(sftp, normalize);
                 if (dirOrFile) {
@@ -427,7 +431,7 @@ public abstract class BaseSshFileController extends BaseServerController {
                 return new JsonMessage<>(400, I18nMessageUtil.get("i18n.delete_failure_with_colon.b429") + e.getMessage());
             } finally {
                 IoUtil.close(sftp);
-                JschUtil.close(session);
+                sshService.closeSession(session);
             }
         });
     }
@@ -456,7 +460,7 @@ public abstract class BaseSshFileController extends BaseServerController {
                 return new JsonMessage<>(400, I18nMessageUtil.get("i18n.rename_failed.0c76") + e.getMessage());
             } finally {
                 JschUtil.close(channel);
-                JschUtil.close(session);
+                sshService.closeSession(session);
             }
             return JsonMessage.success(I18nMessageUtil.get("i18n.operation_succeeded.3313"));
         });
@@ -534,7 +538,7 @@ public abstract class BaseSshFileController extends BaseServerController {
                 return new JsonMessage<>(400, I18nMessageUtil.get("i18n.upload_failed.b019") + e.getMessage());
             } finally {
                 JschUtil.close(channel);
-                JschUtil.close(session);
+                sshService.closeSession(session);
             }
             return JsonMessage.success(I18nMessageUtil.get("i18n.operation_succeeded.3313"));
         });
@@ -566,7 +570,7 @@ public abstract class BaseSshFileController extends BaseServerController {
                 String remotePath = FileUtil.normalize(allowPathParent + StrUtil.SLASH + nextPath + StrUtil.SLASH + name);
                 Charset charset = machineSshModel.charset();
                 int timeout = machineSshModel.timeout();
-                try (Sftp sftp = new Sftp(session, charset, timeout)) {
+                try (Sftp sftp = sshService.openSftp(session, charset, timeout)) {
                     if (sftp.exist(remotePath)) {
                         return new JsonMessage<>(400, I18nMessageUtil.get("i18n.folder_or_file_exists.c687"));
                     }
@@ -595,7 +599,7 @@ public abstract class BaseSshFileController extends BaseServerController {
                     throw Lombok.sneakyThrow(e);
                 }
             } finally {
-                JschUtil.close(session);
+                sshService.closeSession(session);
             }
         });
     }
@@ -625,7 +629,7 @@ public abstract class BaseSshFileController extends BaseServerController {
         Charset charset = machineSshModel.charset();
         int timeout = machineSshModel.timeout();
         String remotePath = FileUtil.normalize(allowPathParent + StrUtil.SLASH + nextPath + StrUtil.SLASH + fileName);
-        try (Sftp sftp = new Sftp(session, charset, timeout)) {
+        try (Sftp sftp = sshService.openSftp(session, charset, timeout)) {
             ChannelSftp client = sftp.getClient();
             //
             int permissions = Integer.parseInt(permissionValue, 8);
@@ -633,6 +637,8 @@ public abstract class BaseSshFileController extends BaseServerController {
         } catch (SftpException e) {
             log.error(I18nMessageUtil.get("i18n.ssh_modify_permission_error.0cd3"), remotePath, permissionValue, e);
             return new JsonMessage<>(400, I18nMessageUtil.get("i18n.operation_failed.3d94") + e.getMessage());
+        } finally {
+            sshService.closeSession(session);
         }
         return JsonMessage.success(I18nMessageUtil.get("i18n.operation_succeeded.3313"));
     }
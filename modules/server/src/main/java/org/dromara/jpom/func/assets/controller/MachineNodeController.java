@@ -21,6 +21,7 @@ import org.dromara.jpom.common.validator.ValidatorItem;
 import org.dromara.jpom.func.BaseGroupNameController;
 import org.dromara.jpom.func.assets.model.MachineNodeModel;
 import org.dromara.jpom.func.assets.server.MachineNodeServer;
+import org.dromara.jpom.func.assets.server.MachineNodeStatSeriesServer;
 import org.dromara.jpom.model.PageResultDto;
 import org.dromara.jpom.model.data.NodeModel;
 import org.dromara.jpom.model.data.WorkspaceModel;
@@ -60,17 +61,20 @@ public class MachineNodeController extends BaseGroupNameController {
     private final ProjectInfoCacheService projectInfoCacheService;
     private final NodeScriptServer nodeScriptServer;
     private final NodeService nodeService;
+    private final MachineNodeStatSeriesServer machineNodeStatSeriesServer;
 
     public MachineNodeController(WorkspaceService workspaceService,
                                  MachineNodeServer machineNodeServer,
                                  ProjectInfoCacheService projectInfoCacheService,
                                  NodeScriptServer nodeScriptServer,
-                                 NodeService nodeService) {
+                                 NodeService nodeService,
+                                 MachineNodeStatSeriesServer machineNodeStatSeriesServer) {
         super(machineNodeServer);
         this.workspaceService = workspaceService;
         this.projectInfoCacheService = projectInfoCacheService;
         this.nodeScriptServer = nodeScriptServer;
         this.nodeService = nodeService;
+        this.machineNodeStatSeriesServer = machineNodeStatSeriesServer;
     }
 
     @PostMapping(value = "list-data", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -117,6 +121,7 @@ public class MachineNodeController extends BaseGroupNameController {
         long count = nodeService.countByMachine(id);
         Assert.state(count <= 0, StrUtil.format(I18nMessageUtil.get("i18n.associated_nodes_warning.64d8"), count));
         machineNodeServer.delByKey(id);
+        machineNodeStatSeriesServer.delete(id);
         return JsonMessage.success(I18nMessageUtil.get("i18n.operation_succeeded.3313"));
     }
 
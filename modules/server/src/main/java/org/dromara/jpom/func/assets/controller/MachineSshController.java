@@ -214,6 +214,7 @@ public class MachineSshController extends BaseGroupNameController {
         }
         sshModel.setStatus(1);
         int i = add ? machineSshServer.insert(sshModel) : machineSshServer.updateById(sshModel);
+        machineSshServer.invalidateSession(sshModel.getId());
         return JsonMessage.success(I18nMessageUtil.get("i18n.operation_succeeded.3313"));
     }
 
@@ -224,6 +225,7 @@ public class MachineSshController extends BaseGroupNameController {
         long count = sshService.countByMachine(id);
         Assert.state(count <= 0, StrUtil.format(I18nMessageUtil.get("i18n.ssh_connections_warning.1ddb"), count));
         machineSshServer.delByKey(id);
+        machineSshServer.invalidateSession(id);
         return JsonMessage.success(I18nMessageUtil.get("i18n.operation_succeeded.3313"));
     }
 
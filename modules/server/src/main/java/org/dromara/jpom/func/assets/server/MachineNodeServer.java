@@ -55,6 +55,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -70,19 +71,26 @@ public class MachineNodeServer extends BaseDbService<MachineNodeModel> implement
     private final NodeService nodeService;
     private final NodeConfig nodeConfig;
     private final MachineNodeStatLogServer machineNodeStatLogServer;
+    private final MachineNodeStatSeriesServer machineNodeStatSeriesServer;
     private final ClusterInfoService clusterInfoService;
     private final AssetsExecutorPoolService assetsExecutorPoolService;
 
     private static final String TASK_ID = "system_monitor_node";
+    /**
+     * 机器最近一次保存的监控时间，用于拉取节点后台采样的历史数据
+     */
+    private final Map<String, Long> lastMonitorTime = new ConcurrentHashMap<>();
 
     public MachineNodeServer(NodeService nodeService,
                              ServerConfig serverConfig,
                              MachineNodeStatLogServer machineNodeStatLogServer,
+                             MachineNodeStatSeriesServer machineNodeStatSeriesServer,
                              ClusterInfoService clusterInfoService,
                              AssetsExecutorPoolService assetsExecutorPoolService) {
         this.nodeService = nodeService;
         this.nodeConfig = serverConfig.getNode();
         this.machineNodeStatLogServer = machineNodeStatLogServer;
+        this.machineNodeStatSeriesServer = machineNodeStatSeriesServer;
         this.clusterInfoService = clusterInfoService;
         this.assetsExecutorPoolService = assetsExecutorPoolService;
     }
@@ -229,8 +237,10 @@ public class MachineNodeServer extends BaseDbService<MachineNodeModel> implement
             assetsExecutorPoolService.execute(() -> {
                 try {
                     BaseServerController.resetInfo(UserModel.EMPTY);
+                    JSONObject params = new JSONObject();
+                    Optional.ofNullable(lastMonitorTime.get(machineNodeModel.getId())).ifPresent(since -> params.put("since", since));
                     long timeMillis = SystemClock.now();
-                    JsonMessage<JSONObject> message = NodeForward.request(machineNodeModel, NodeUrl.GetStatInfo, new JSONObject());
+                    JsonMessage<JSONObject> message = NodeForward.request(machineNodeModel, NodeUrl.GetStatInfo, params);
                     int networkTime = (int) (System.currentTimeMillis() - timeMillis);
                     JSONObject jsonObject;
                     if (message.success()) {
@@ -298,8 +308,6 @@ public class MachineNodeServer extends BaseDbService<MachineNodeModel> implement
         });
         // 基础状态信息
         MachineNodeStatLogModel machineNodeStatLogModel = new MachineNodeStatLogModel();
-        machineNodeStatLogModel.setMachineId(machineNodeModel.getId());
-        machineNodeStatLogModel.setNetworkDelay(networkDelay);
         //
         JSONObject extendInfo = new JSONObject();
         Optional.ofNullable(data.getJSONObject("simpleStatus")).ifPresent(jsonObject -> {
@@ -307,17 +315,15 @@ public class MachineNodeServer extends BaseDbService<MachineNodeModel> implement
             machineNodeModel.setOsOccupyDisk(ObjectUtil.defaultIfNull(jsonObject.getDouble("disk"), -1D));
             machineNodeModel.setOsOccupyCpu(ObjectUtil.defaultIfNull(jsonObject.getDouble("cpu"), -1D));
             //
+            this.fillStatLog(machineNodeStatLogModel, jsonObject);
             machineNodeStatLogModel.setOccupyCpu(machineNodeModel.getOsOccupyCpu());
             machineNodeStatLogModel.setOccupyMemory(machineNodeModel.getOsOccupyMemory());
             machineNodeStatLogModel.setOccupyDisk(machineNodeModel.getOsOccupyDisk());
-            machineNodeStatLogModel.setOccupySwapMemory(jsonObject.getDouble("swapMemory"));
-            machineNodeStatLogModel.setOccupyVirtualMemory(jsonObject.getDouble("virtualMemory"));
-            machineNodeStatLogModel.setNetTxBytes(jsonObject.getLong("netTxBytes"));
-            machineNodeStatLogModel.setNetRxBytes(jsonObject.getLong("netRxBytes"));
-            machineNodeStatLogModel.setMonitorTime(jsonObject.getLongValue("time"));
             //
             extendInfo.put("monitorIfsNames", jsonObject.getString("monitorIfsNames"));
         });
+        machineNodeStatLogModel.setMachineId(machineNodeModel.getId());
+        machineNodeStatLogModel.setNetworkDelay(networkDelay);
         // 系统信息
         Optional.ofNullable(data.getJSONObject("systemInfo")).ifPresent(jsonObject -> {
             machineNodeModel.setOsSystemUptime(jsonObject.getLong("systemUptime"));
@@ -342,8 +348,10 @@ public class MachineNodeServer extends BaseDbService<MachineNodeModel> implement
         });
         machineNodeModel.setExtendInfo(extendInfo.toString());
         this.updateById(machineNodeModel);
+        this.saveHistoryStatLog(machineNodeModel.getId(), data.getList("samples", JSONObject.class), machineNodeStatLogModel.getMonitorTime());
         if (machineNodeStatLogModel.getMonitorTime() != null) {
-            machineNodeStatLogServer.insert(machineNodeStatLogModel);
+            this.insertStatLog(machineNodeStatLogModel);
+            lastMonitorTime.merge(machineNodeModel.getId(), machineNodeStatLogModel.getMonitorTime(), Math::max);
         }
         //
         Optional.ofNullable(jpomInfo).ifPresent(jsonObject -> {
@@ -367,6 +375,51 @@ public class MachineNodeServer extends BaseDbService<MachineNodeModel> implement
         });
     }
 
+    /**
+     * 保存节点后台采样的历史数据（两次心跳之间的采样）
+     *
+     * @param machineId  机器id
+     * @param samples    采样数据
+     * @param latestTime  本次心跳的监控时间，单独保存
+     */
+    private void saveHistoryStatLog(String machineId, List<JSONObject> samples, Long latestTime) {
+        if (CollUtil.isEmpty(samples)) {
+            return;
+        }
+        long since = ObjectUtil.defaultIfNull(lastMonitorTime.get(machineId), 0L);
+        long maxTime = since;
+        for (JSONObject sample : samples) {
+            long time = sample.getLongValue("time");
+            if (time <= since || ObjectUtil.equals(time, latestTime)) {
+                continue;
+            }
+            MachineNodeStatLogModel statLogModel = new MachineNodeStatLogModel();
+            statLogModel.setMachineId(machineId);
+            this.fillStatLog(statLogModel, sample);
+            statLogModel.setOccupyCpu(sample.getDouble("cpu"));
+            statLogModel.setOccupyMemory(sample.getDouble("memory"));
+            statLogModel.setOccupyDisk(sample.getDouble("disk"));
+            this.insertStatLog(statLogModel);
+            maxTime = Math.max(maxTime, time);
+        }
+        lastMonitorTime.merge(machineId, maxTime, Math::max);
+    }
+
+    private void fillStatLog(MachineNodeStatLogModel statLogModel, JSONObject simpleStatus) {
+        statLogModel.setOccupySwapMemory(simpleStatus.getDouble("swapMemory"));
+        statLogModel.setOccupyVirtualMemory(simpleStatus.getDouble("virtualMemory"));
+        statLogModel.setNetTxBytes(simpleStatus.getLong("netTxBytes"));
+        statLogModel.setNetRxBytes(simpleStatus.getLong("netRxBytes"));
+        statLogModel.setMonitorTime(simpleStatus.getLongValue("time"));
+    }
+
+    private void insertStatLog(MachineNodeStatLogModel statLogModel) {
+        if (!machineNodeStatSeriesServer.append(statLogModel)) {
+            // 未启用时序存储或者写入失败
+            machineNodeStatLogServer.insert(statLogModel);
+        }
+    }
+
     /**
      * 更新机器状态
      *
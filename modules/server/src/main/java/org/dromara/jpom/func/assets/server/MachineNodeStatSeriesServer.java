@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.func.assets.server;
+
+import cn.hutool.core.date.DateTime;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.NumberUtil;
+import cn.keepbx.jpom.event.ISystemTask;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.JpomApplication;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.configuration.NodeConfig;
+import org.dromara.jpom.func.assets.model.MachineNodeStatLogModel;
+import org.dromara.jpom.func.assets.stat.StatPoint;
+import org.dromara.jpom.func.assets.stat.StatResolution;
+import org.dromara.jpom.func.assets.stat.StatSeriesStore;
+import org.dromara.jpom.system.ServerConfig;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 机器节点统计数据的时序存储
+ * <p>
+ * 配置 jpom.node.stat-log-store=file 时启用，替代每次心跳往数据库插入一行统计日志。
+ * 数据只保存在当前服务端，集群部署时每个服务端只能查看自己采集的数据
+ *
+ * @author bwcx_jzy
+ * @see MachineNodeStatLogServer
+ * @since 2026/10/18
+ */
+@Service
+@Slf4j
+public class MachineNodeStatSeriesServer implements ISystemTask {
+
+    /**
+     * 存储的指标，顺序不能调整
+     */
+    private static final String[] COLUMNS = new String[]{"occupyCpu", "occupyMemory", "occupySwapMemory", "occupyVirtualMemory", "occupyDisk", "networkDelay", "netTxBytes", "netRxBytes"};
+
+    private final NodeConfig nodeConfig;
+    private volatile StatSeriesStore store;
+
+    public MachineNodeStatSeriesServer(ServerConfig serverConfig) {
+        this.nodeConfig = serverConfig.getNode();
+    }
+
+    /**
+     * 是否使用时序存储
+     *
+     * @return false 使用数据库表
+     */
+    public boolean enabled() {
+        return nodeConfig.statLogFileStore();
+    }
+
+    private StatSeriesStore getStore() {
+        if (store == null) {
+            synchronized (MachineNodeStatSeriesServer.class) {
+                if (store == null) {
+                    String dataPath = JpomApplication.getInstance().getDataPath();
+                    long rawStep = TimeUnit.SECONDS.toMillis(nodeConfig.getHeartSecond());
+                    store = new StatSeriesStore(FileUtil.file(dataPath, "stat-series", "machine-node"), COLUMNS, rawStep);
+                }
+            }
+        }
+        return store;
+    }
+
+    /**
+     * 写入统计数据
+     *
+     * @param model 统计数据
+     * @return false 未启用或者写入失败，需要写入数据库
+     */
+    public boolean append(MachineNodeStatLogModel model) {
+        if (!this.enabled()) {
+            return false;
+        }
+        double[] values = new double[]{
+            toDouble(model.getOccupyCpu()),
+            toDouble(model.getOccupyMemory()),
+            toDouble(model.getOccupySwapMemory()),
+            toDouble(model.getOccupyVirtualMemory()),
+            toDouble(model.getOccupyDisk()),
+            toDouble(model.getNetworkDelay()),
+            toDouble(model.getNetTxBytes()),
+            toDouble(model.getNetRxBytes()),
+        };
+        try {
+            this.getStore().append(model.getMachineId(), model.getMonitorTime(), values);
+            return true;
+        } catch (Exception e) {
+            log.warn(I18nMessageUtil.get("i18n.stat_series_append_failed.5061"), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 查询时间范围内的统计数据，数据点较多时按时间段平均
+     *
+     * @param machineId 机器id
+     * @param startTime 开始时间
+     * @param endTime   结束时间
+     * @param maxPoints 最多返回的数量
+     * @return 按时间倒序
+     */
+    public List<MachineNodeStatLogModel> list(String machineId, long startTime, long endTime, int maxPoints) {
+        try {
+            return toModels(machineId, this.getStore().query(machineId, startTime, endTime, maxPoints));
+        } catch (IOException e) {
+            throw new IllegalStateException(I18nMessageUtil.get("i18n.stat_series_read_failed.0c92"), e);
+        }
+    }
+
+    /**
+     * 查询最近的统计数据
+     *
+     * @param machineId 机器id
+     * @param limit     数量
+     * @return 按时间倒序
+     */
+    public List<MachineNodeStatLogModel> latest(String machineId, int limit) {
+        try {
+            return toModels(machineId, this.getStore().latest(machineId, limit));
+        } catch (IOException e) {
+            throw new IllegalStateException(I18nMessageUtil.get("i18n.stat_series_read_failed.0c92"), e);
+        }
+    }
+
+    /**
+     * 删除机器的统计数据
+     *
+     * @param machineId 机器id
+     */
+    public void delete(String machineId) {
+        if (this.enabled()) {
+            this.getStore().delete(machineId);
+        }
+    }
+
+    @Override
+    public void executeTask() {
+        if (!this.enabled()) {
+            return;
+        }
+        this.clean(StatResolution.RAW, nodeConfig.getStatLogKeepDays());
+        this.clean(StatResolution.MINUTE, nodeConfig.getStatLogMinuteKeepDays());
+        this.clean(StatResolution.HOUR, nodeConfig.getStatLogHourKeepDays());
+        this.clean(StatResolution.DAY, nodeConfig.getStatLogDayKeepDays());
+    }
+
+    private void clean(StatResolution resolution, int keepDays) {
+        if (keepDays <= 0) {
+            return;
+        }
+        DateTime dateTime = DateUtil.offsetDay(DateUtil.beginOfDay(DateTime.now()), -keepDays);
+        int count = this.getStore().clean(resolution, dateTime.getTime());
+        log.info(I18nMessageUtil.get("i18n.auto_clear_machine_node_stat_series.c94e"), resolution, count);
+    }
+
+    private static double toDouble(Number number) {
+        return number == null ? Double.NaN : number.doubleValue();
+    }
+
+    private static List<MachineNodeStatLogModel> toModels(String machineId, List<StatPoint> points) {
+        List<MachineNodeStatLogModel> list = new ArrayList<>(points.size());
+        for (int i = points.size() - 1; i >= 0; i--) {
+            StatPoint point = points.get(i);
+            double[] values = point.getValues();
+            MachineNodeStatLogModel model = new MachineNodeStatLogModel();
+            model.setMachineId(machineId);
+            model.setMonitorTime(point.getTime());
+            model.setOccupyCpu(toRound(values[0]));
+            model.setOccupyMemory(toRound(values[1]));
+            model.setOccupySwapMemory(toRound(values[2]));
+            model.setOccupyVirtualMemory(toRound(values[3]));
+            model.setOccupyDisk(toRound(values[4]));
+            model.setNetworkDelay(Double.isNaN(values[5]) ? null : (int) Math.round(values[5]));
+            model.setNetTxBytes(Double.isNaN(values[6]) ? null : Math.round(values[6]));
+            model.setNetRxBytes(Double.isNaN(values[7]) ? null : Math.round(values[7]));
+            list.add(model);
+        }
+        return list;
+    }
+
+    private static Double toRound(double value) {
+        // 汇总后的平均值保留两位小数
+        return Double.isNaN(value) ? null : NumberUtil.round(value, 2).doubleValue();
+    }
+}
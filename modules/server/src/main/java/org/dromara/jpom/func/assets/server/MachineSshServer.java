@@ -22,6 +22,7 @@ import cn.hutool.core.lang.Opt;
 import cn.hutool.core.map.CaseInsensitiveMap;
 import cn.hutool.core.util.*;
 import cn.hutool.cron.task.Task;
+import cn.hutool.crypto.SecureUtil;
 import cn.hutool.db.Entity;
 import cn.hutool.extra.ssh.JschUtil;
 import cn.keepbx.jpom.Type;
@@ -78,6 +79,11 @@ public class MachineSshServer extends BaseDbService<MachineSshModel> implements
     private final ClusterInfoService clusterInfoService;
     private final AssetsConfig.SshConfig sshConfig;
     private final AssetsExecutorPoolService assetsExecutorPoolService;
+    private final MachineSshSessionPool sessionPool;
+    /**
+     * 渲染后的监控脚本
+     */
+    private volatile String monitorScript;
 
     public MachineSshServer(JpomApplication jpomApplication,
                             ClusterInfoService clusterInfoService,
@@ -87,6 +93,7 @@ public class MachineSshServer extends BaseDbService<MachineSshModel> implements
         this.clusterInfoService = clusterInfoService;
         this.sshConfig = assetsConfig.getSsh();
         this.assetsExecutorPoolService = assetsExecutorPoolService;
+        this.sessionPool = new MachineSshSessionPool(this.sshConfig);
     }
 
     @Override
@@ -182,6 +189,7 @@ public class MachineSshServer extends BaseDbService<MachineSshModel> implements
 
     @Override
     public void execute() {
+        sessionPool.evictIdle();
         Entity entity = new Entity();
         if (clusterInfoService.isMultiServer()) {
             String linkGroup = clusterInfoService.getCurrent().getLinkGroup();
@@ -221,14 +229,10 @@ public class MachineSshServer extends BaseDbService<MachineSshModel> implements
         }
         Session session = null;
         try {
-            InputStream sshExecTemplateInputStream = ExtConfigBean.getConfigResourceInputStream("/ssh/monitor-script.sh");
-            String sshExecTemplate = IoUtil.readUtf8(sshExecTemplateInputStream);
-            Map<String, String> map = new HashMap<>(10);
-            map.put("JPOM_AGENT_PID_TAG", Type.Agent.getTag());
-            sshExecTemplate = StringUtil.formatStrByMap(sshExecTemplate, map);
+            String sshExecTemplate = this.getMonitorScript();
             Charset charset = machineSshModel.charset();
             //
-            session = this.getSessionByModelNoFill(machineSshModel);
+            session = this.borrowSession(machineSshModel);
             int timeout = machineSshModel.timeout();
             List<String> listStr = new ArrayList<>();
             List<String> error = new ArrayList<>();
@@ -243,8 +247,26 @@ public class MachineSshServer extends BaseDbService<MachineSshModel> implements
             }
             this.updateStatus(machineSshModel.getId(), 0, message);
         } finally {
-            JschUtil.close(session);
+            this.releaseSession(session);
+        }
+    }
+
+    /**
+     * 读取并渲染监控脚本，只需要处理一次
+     *
+     * @return 脚本内容
+     */
+    private String getMonitorScript() {
+        String script = this.monitorScript;
+        if (script == null) {
+            InputStream sshExecTemplateInputStream = ExtConfigBean.getConfigResourceInputStream("/ssh/monitor-script.sh");
+            String sshExecTemplate = IoUtil.readUtf8(sshExecTemplateInputStream);
+            Map<String, String> map = new HashMap<>(10);
+            map.put("JPOM_AGENT_PID_TAG", Type.Agent.getTag());
+            script = StringUtil.formatStrByMap(sshExecTemplate, map);
+            this.monitorScript = script;
         }
+        return script;
     }
 
     /**
@@ -397,6 +419,47 @@ public class MachineSshServer extends BaseDbService<MachineSshModel> implements
      * @return session
      */
     public Session getSessionByModelNoFill(ISshInfo sshModel) {
+        return this.getSession(sshModel, false);
+    }
+
+    /**
+     * 从会话池借出 ssh 会话，多个使用方共享同一个已经登录的会话，使用完成后需要调用 {@link #releaseSession(Session)} 归还
+     *
+     * @param sshModel sshModel
+     * @return session
+     */
+    public Session borrowSession(ISshInfo sshModel) {
+        return this.getSession(sshModel, true);
+    }
+
+    /**
+     * 归还 ssh 会话，不是从会话池借出的会话直接断开
+     *
+     * @param session 会话
+     */
+    public void releaseSession(Session session) {
+        sessionPool.release(session);
+    }
+
+    /**
+     * 断开资产在会话池中的会话
+     *
+     * @param id 资产 ssh id
+     */
+    public void invalidateSession(String id) {
+        sessionPool.invalidate(id);
+    }
+
+    /**
+     * 会话池中的会话数量
+     *
+     * @return 数量
+     */
+    public int sessionPoolSize() {
+        return sessionPool.size();
+    }
+
+    private Session getSession(ISshInfo sshModel, boolean pooled) {
         String workspaceId = ServerConst.WORKSPACE_GLOBAL;
         if (sshModel instanceof MachineSshModel) {
             SshModel sshModel1 = sshService.getByMachineSshId(((MachineSshModel) sshModel).getId());
@@ -405,7 +468,6 @@ public class MachineSshServer extends BaseDbService<MachineSshModel> implements
             }
         }
         Assert.notNull(sshModel, I18nMessageUtil.get("i18n.no_ssh_info.a8ec"));
-        Session session = null;
         int timeout = sshModel.timeout();
         MachineSshModel.ConnectType connectType = sshModel.connectType();
         String user = sshModel.user();
@@ -418,6 +480,19 @@ public class MachineSshServer extends BaseDbService<MachineSshModel> implements
         } catch (Exception e) {
             throw Lombok.sneakyThrow(e);
         }
+        if (pooled) {
+            String fingerprint = SecureUtil.md5(StrUtil.join(StrUtil.LF, sshModel.host(), sshModel.port(), connectType, user, password, sshModel.privateKey()));
+            String finalUser = user;
+            String finalPassword = password;
+            return sessionPool.borrow(sshModel.id(), fingerprint, timeout, () -> this.createSession(sshModel, finalUser, finalPassword));
+        }
+        return this.createSession(sshModel, user, password);
+    }
+
+    private Session createSession(ISshInfo sshModel, String user, String password) {
+        Session session = null;
+        int timeout = sshModel.timeout();
+        MachineSshModel.ConnectType connectType = sshModel.connectType();
         if (connectType == MachineSshModel.ConnectType.PASS) {
             session = JschUtil.openSession(sshModel.host(), sshModel.port(), user, password, timeout);
 
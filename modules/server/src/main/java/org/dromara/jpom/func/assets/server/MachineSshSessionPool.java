@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.func.assets.server;
+
+import cn.hutool.core.date.SystemClock;
+import cn.hutool.core.map.SafeConcurrentHashMap;
+import cn.hutool.extra.ssh.JschUtil;
+import com.jcraft.jsch.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.configuration.AssetsConfig;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * ssh 会话池
+ * <p>
+ * 按资产 ssh id 复用已经登录的会话，使用方在同一个会话上打开自己的通道，用完后归还会话而不是断开。
+ * 单个会话同时借出的数量（即同时打开的通道数）有上限，超过上限等待其他使用方归还，等待超时后使用独立的会话。
+ * 登录信息变更后旧的会话不再借出，归还后断开
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+class MachineSshSessionPool {
+
+    /**
+     * 空闲超过此时间的会话借出前发送心跳检查
+     */
+    private static final long CHECK_IDLE = TimeUnit.SECONDS.toMillis(30);
+
+    private final AssetsConfig.SshConfig sshConfig;
+    private final Map<String, Object> locks = new SafeConcurrentHashMap<>();
+    /**
+     * 资产 ssh id -> 当前可借出的会话
+     */
+    private final Map<String, PooledSession> entries = new SafeConcurrentHashMap<>();
+    /**
+     * 所有由池管理的会话，包含已经淘汰但还未归还的
+     */
+    private final Map<Session, PooledSession> sessions = new SafeConcurrentHashMap<>();
+
+    MachineSshSessionPool(AssetsConfig.SshConfig sshConfig) {
+        this.sshConfig = sshConfig;
+    }
+
+    private Object lock(String key) {
+        return locks.computeIfAbsent(key, s -> new Object());
+    }
+
+    /**
+     * 借出会话
+     *
+     * @param key         资产 ssh id
+     * @param fingerprint 登录信息签名
+     * @param timeout     等待超时时间（毫秒）
+     * @param opener      创建新会话
+     * @return 会话，使用完成后需要调用 {@link #release(Session)}
+     */
+    Session borrow(String key, String fingerprint, int timeout, Supplier<Session> opener) {
+        int maxChannels = sshConfig.getSessionPoolMaxChannels();
+        if (sshConfig.getSessionPoolIdleTimeout() <= 0 || maxChannels <= 0 || key == null) {
+            return opener.get();
+        }
+        long deadline = SystemClock.now() + Math.max(timeout, 1000);
+        Object lock = this.lock(key);
+        synchronized (lock) {
+            while (true) {
+                PooledSession entry = entries.get(key);
+                if (entry != null && (!fingerprint.equals(entry.fingerprint) || !entry.healthy())) {
+                    this.retire(entry);
+                    entry = null;
+                }
+                if (entry == null) {
+                    Session session = opener.get();
+                    try {
+                        // 及时发现已经断开的连接
+                        session.setServerAliveInterval((int) CHECK_IDLE);
+                        session.setServerAliveCountMax(3);
+                    } catch (Exception e) {
+                        log.warn(I18nMessageUtil.get("i18n.ssh_server_alive_interval_config_error.1f11"), e);
+                    }
+                    entry = new PooledSession(key, fingerprint, session);
+                    entries.put(key, entry);
+                    sessions.put(session, entry);
+                }
+                if (entry.leases < maxChannels) {
+                    entry.leases++;
+                    entry.lastUsed = SystemClock.now();
+                    return entry.session;
+                }
+                long wait = deadline - SystemClock.now();
+                if (wait <= 0) {
+                    log.debug(I18nMessageUtil.get("i18n.ssh_session_pool_busy.8844"), key, maxChannels);
+                    return opener.get();
+                }
+                try {
+                    lock.wait(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 归还会话，不是由池管理的会话直接断开
+     *
+     * @param session 会话
+     */
+    void release(Session session) {
+        if (session == null) {
+            return;
+        }
+        PooledSession entry = sessions.get(session);
+        if (entry == null) {
+            JschUtil.close(session);
+            return;
+        }
+        Object lock = this.lock(entry.key);
+        synchronized (lock) {
+            entry.leases = Math.max(entry.leases - 1, 0);
+            entry.lastUsed = SystemClock.now();
+            if (!session.isConnected()) {
+                this.retire(entry);
+            } else if (entry.retired && entry.leases == 0) {
+                this.close(entry);
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * 淘汰资产的会话，登录信息修改或者删除资产后调用
+     *
+     * @param key 资产 ssh id
+     */
+    void invalidate(String key) {
+        synchronized (this.lock(key)) {
+            PooledSession entry = entries.get(key);
+            if (entry != null) {
+                this.retire(entry);
+            }
+        }
+    }
+
+    /**
+     * 断开空闲超时的会话
+     */
+    void evictIdle() {
+        long idleTimeout = TimeUnit.SECONDS.toMillis(sshConfig.getSessionPoolIdleTimeout());
+        for (PooledSession entry : entries.values()) {
+            synchronized (this.lock(entry.key)) {
+                if (entry.leases == 0 && (SystemClock.now() - entry.lastUsed >= idleTimeout || !entry.session.isConnected())) {
+                    this.retire(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * 当前管理的会话数量
+     *
+     * @return 数量
+     */
+    int size() {
+        return sessions.size();
+    }
+
+    private void retire(PooledSession entry) {
+        entries.remove(entry.key, entry);
+        entry.retired = true;
+        if (entry.leases == 0 || !entry.session.isConnected()) {
+            this.close(entry);
+        }
+    }
+
+    private void close(PooledSession entry) {
+        sessions.remove(entry.session);
+        JschUtil.close(entry.session);
+    }
+
+    private static class PooledSession {
+        private final String key;
+        private final String fingerprint;
+        private final Session session;
+        private int leases;
+        private long lastUsed;
+        private boolean retired;
+
+        private PooledSession(String key, String fingerprint, Session session) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.session = session;
+            this.lastUsed = SystemClock.now();
+        }
+
+        /**
+         * 检查会话是否可用，正在使用或者刚使用过的不发送心跳
+         */
+        private boolean healthy() {
+            if (!session.isConnected()) {
+                return false;
+            }
+            if (leases > 0 || SystemClock.now() - lastUsed < CHECK_IDLE) {
+                return true;
+            }
+            try {
+                session.sendKeepAliveMsg();
+                return true;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.func.assets.stat;
+
+import cn.hutool.core.io.FileUtil;
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 统计数据的一个分区
+ * <p>
+ * 每列（时间、各项指标、汇总数量）一个文件，每个值固定 8 字节，只追加写入。文件预先分配空间，
+ * 未写入的部分为 0，时间列为 0 的位置即为数据结尾，所以写入时先写指标列最后写时间列
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+class StatPartition {
+
+    private static final int BYTES = 8;
+    private static final String TIME_COLUMN = "time";
+    private static final String COUNT_COLUMN = "count";
+    private static final String SUFFIX = ".col";
+
+    private final File dir;
+    @Getter
+    private final long start;
+    /**
+     * 列文件，第一列为时间，汇总数据最后一列为数量
+     */
+    private final File[] files;
+    private final boolean rollup;
+    private MappedByteBuffer[] buffers;
+    private int capacity;
+    private int count;
+
+    private StatPartition(File dir, long start, String[] columns, boolean rollup) {
+        this.dir = dir;
+        this.start = start;
+        this.rollup = rollup;
+        this.files = columnFiles(dir, columns, rollup);
+    }
+
+    private static File[] columnFiles(File dir, String[] columns, boolean rollup) {
+        File[] files = new File[columns.length + (rollup ? 2 : 1)];
+        files[0] = FileUtil.file(dir, TIME_COLUMN + SUFFIX);
+        for (int i = 0; i < columns.length; i++) {
+            files[i + 1] = FileUtil.file(dir, columns[i] + SUFFIX);
+        }
+        if (rollup) {
+            files[files.length - 1] = FileUtil.file(dir, COUNT_COLUMN + SUFFIX);
+        }
+        return files;
+    }
+
+    /**
+     * 打开分区用于追加写入，列文件映射到内存
+     *
+     * @param dir      分区目录
+     * @param start    分区开始时间
+     * @param columns  指标列
+     * @param rollup   是否为汇总数据
+     * @param capacity 初始容量
+     * @return 分区
+     * @throws IOException io
+     */
+    static StatPartition open(File dir, long start, String[] columns, boolean rollup, int capacity) throws IOException {
+        FileUtil.mkdir(dir);
+        StatPartition partition = new StatPartition(dir, start, columns, rollup);
+        long exists = partition.files[0].length() / BYTES;
+        partition.map((int) Math.max(capacity, exists));
+        partition.count = partition.findCount();
+        return partition;
+    }
+
+    private void map(int capacity) throws IOException {
+        MappedByteBuffer[] buffers = new MappedByteBuffer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            try (FileChannel channel = FileChannel.open(files[i].toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffers[i] = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * BYTES);
+            }
+        }
+        this.buffers = buffers;
+        this.capacity = capacity;
+    }
+
+    /**
+     * 查找第一个时间为 0 的位置
+     */
+    private int findCount() {
+        int low = 0, high = capacity;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffers[0].getLong(mid * BYTES) == 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 追加数据点
+     *
+     * @param point 数据点
+     * @throws IOException io
+     */
+    void append(StatPoint point) throws IOException {
+        if (count >= capacity) {
+            // 容量不足时扩大映射
+            this.map(capacity * 2);
+        }
+        int offset = count * BYTES;
+        double[] values = point.getValues();
+        for (int i = 0; i < values.length; i++) {
+            buffers[i + 1].putDouble(offset, values[i]);
+        }
+        if (rollup) {
+            buffers[buffers.length - 1].putLong(offset, point.getCount());
+        }
+        buffers[0].putLong(offset, point.getTime());
+        count++;
+    }
+
+    /**
+     * 最后一个数据点的时间
+     *
+     * @return 没有数据返回 -1
+     */
+    long lastTime() {
+        return count == 0 ? -1 : buffers[0].getLong((count - 1) * BYTES);
+    }
+
+    /**
+     * 读取时间范围内的数据
+     *
+     * @param from 开始时间（包含）
+     * @param to   结束时间（包含）
+     * @param out  结果
+     */
+    void read(long from, long to, List<StatPoint> out) {
+        ByteBuffer[] columns = new ByteBuffer[buffers.length];
+        for (int i = 0; i < buffers.length; i++) {
+            columns[i] = buffers[i].duplicate();
+        }
+        read(columns, count, rollup, from, to, out);
+    }
+
+    /**
+     * 从文件读取时间范围内的数据，用于不再写入的分区
+     *
+     * @param dir     分区目录
+     * @param columns 指标列
+     * @param rollup  是否为汇总数据
+     * @param from    开始时间（包含）
+     * @param to      结束时间（包含）
+     * @param out     结果
+     * @throws IOException io
+     */
+    static void readFile(File dir, String[] columns, boolean rollup, long from, long to, List<StatPoint> out) throws IOException {
+        File[] files = columnFiles(dir, columns, rollup);
+        ByteBuffer time = readColumn(files[0], Integer.MAX_VALUE);
+        int count = count(time);
+        if (count == 0) {
+            return;
+        }
+        ByteBuffer[] buffers = new ByteBuffer[files.length];
+        buffers[0] = time;
+        for (int i = 1; i < files.length; i++) {
+            buffers[i] = readColumn(files[i], count);
+        }
+        read(buffers, count, rollup, from, to, out);
+    }
+
+    /**
+     * 读取分区中的第一个和最后一个时间
+     *
+     * @param dir 分区目录
+     * @return 没有数据返回 null
+     * @throws IOException io
+     */
+    static long[] readTimeRange(File dir) throws IOException {
+        ByteBuffer time = readColumn(FileUtil.file(dir, TIME_COLUMN + SUFFIX), Integer.MAX_VALUE);
+        int count = count(time);
+        if (count == 0) {
+            return null;
+        }
+        return new long[]{time.getLong(0), time.getLong((count - 1) * BYTES)};
+    }
+
+    private static ByteBuffer readColumn(File file, int maxCount) throws IOException {
+        if (!file.exists()) {
+            return ByteBuffer.allocate(0);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            int size = (int) Math.min(channel.size() / BYTES, maxCount) * BYTES;
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+                // 读取到缓冲区满
+            }
+            return buffer;
+        }
+    }
+
+    private static int count(ByteBuffer time) {
+        int low = 0, high = time.capacity() / BYTES;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (time.getLong(mid * BYTES) == 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static void read(ByteBuffer[] buffers, int count, boolean rollup, long from, long to, List<StatPoint> out) {
+        ByteBuffer time = buffers[0];
+        // 二分查找开始位置
+        int low = 0, high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (time.getLong(mid * BYTES) < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int width = buffers.length - (rollup ? 2 : 1);
+        for (int i = low; i < count; i++) {
+            int offset = i * BYTES;
+            long pointTime = time.getLong(offset);
+            if (pointTime > to) {
+                break;
+            }
+            double[] values = new double[width];
+            for (int j = 0; j < width; j++) {
+                ByteBuffer buffer = buffers[j + 1];
+                // 列文件可能因为异常退出没有写完整
+                values[j] = buffer.capacity() > offset ? buffer.getDouble(offset) : Double.NaN;
+            }
+            long pointCount = 1;
+            if (rollup && buffers[buffers.length - 1].capacity() > offset) {
+                pointCount = Math.max(buffers[buffers.length - 1].getLong(offset), 1);
+            }
+            out.add(new StatPoint(pointTime, values, pointCount));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return dir.getAbsolutePath();
+    }
+}
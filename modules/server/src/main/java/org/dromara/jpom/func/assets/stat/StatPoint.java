@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.func.assets.stat;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 统计数据点，汇总数据的值为平均值
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Getter
+public class StatPoint {
+    /**
+     * 时间，汇总数据为汇总开始时间
+     */
+    private final long time;
+    /**
+     * 各项指标的值，没有值为 {@link Double#NaN}
+     */
+    private final double[] values;
+    /**
+     * 汇总的原始数据点数量
+     */
+    private final long count;
+
+    public StatPoint(long time, double[] values, long count) {
+        this.time = time;
+        this.values = values;
+        this.count = count;
+    }
+
+    /**
+     * 按数据点数量加权平均合并多个数据点
+     *
+     * @param time   合并后的时间
+     * @param points 数据点
+     * @param from   开始下标（包含）
+     * @param to     结束下标（不包含）
+     * @return 合并后的数据点
+     */
+    static StatPoint merge(long time, List<StatPoint> points, int from, int to) {
+        int width = points.get(from).values.length;
+        double[] sum = new double[width];
+        long[] weight = new long[width];
+        long count = 0;
+        for (int i = from; i < to; i++) {
+            StatPoint point = points.get(i);
+            count += point.count;
+            for (int j = 0; j < width; j++) {
+                double value = point.values[j];
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                sum[j] += value * point.count;
+                weight[j] += point.count;
+            }
+        }
+        double[] values = new double[width];
+        for (int j = 0; j < width; j++) {
+            values[j] = weight[j] == 0 ? Double.NaN : sum[j] / weight[j];
+        }
+        return new StatPoint(time, values, count);
+    }
+}
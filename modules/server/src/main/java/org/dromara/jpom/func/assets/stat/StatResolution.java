@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.func.assets.stat;
+
+import lombok.Getter;
+
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统计数据的存储精度
+ * <p>
+ * 原始数据按天分区，每分钟、每小时、每天的汇总数据由上一级精度的数据计算得到，各精度单独设置保留时间
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Getter
+public enum StatResolution {
+    /**
+     * 原始数据
+     */
+    RAW(0, TimeUnit.DAYS.toMillis(1)),
+    /**
+     * 每分钟汇总
+     */
+    MINUTE(TimeUnit.MINUTES.toMillis(1), TimeUnit.DAYS.toMillis(1)),
+    /**
+     * 每小时汇总
+     */
+    HOUR(TimeUnit.HOURS.toMillis(1), TimeUnit.DAYS.toMillis(30)),
+    /**
+     * 每天汇总
+     */
+    DAY(TimeUnit.DAYS.toMillis(1), TimeUnit.DAYS.toMillis(366)),
+    ;
+
+    /**
+     * 时间间隔，原始数据为 0
+     */
+    private final long step;
+    /**
+     * 分区时间跨度，一个分区一个目录
+     */
+    private final long partitionSpan;
+
+    StatResolution(long step, long partitionSpan) {
+        this.step = step;
+        this.partitionSpan = partitionSpan;
+    }
+
+    /**
+     * 上一级精度
+     *
+     * @return 原始数据返回 null
+     */
+    public StatResolution lower() {
+        return this == RAW ? null : values()[ordinal() - 1];
+    }
+
+    /**
+     * 是否为汇总数据
+     *
+     * @return true 汇总数据
+     */
+    public boolean isRollup() {
+        return this != RAW;
+    }
+
+    /**
+     * 数据点所在的汇总时间
+     *
+     * @param time 时间
+     * @return 汇总开始时间
+     */
+    public long bucket(long time) {
+        return align(time, step);
+    }
+
+    /**
+     * 数据点所在的分区
+     *
+     * @param time 时间
+     * @return 分区开始时间
+     */
+    public long partition(long time) {
+        return align(time, partitionSpan);
+    }
+
+    /**
+     * 按当前时区对齐时间，保证按天汇总的数据和本地的日期一致
+     *
+     * @param time 时间
+     * @param size 间隔
+     * @return 对齐后的时间
+     */
+    static long align(long time, long size) {
+        if (size <= 0) {
+            return time;
+        }
+        long offset = TimeZone.getDefault().getRawOffset();
+        return time - Math.floorMod(time + offset, size);
+    }
+}
@@ -0,0 +1,398 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.func.assets.stat;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.map.SafeConcurrentHashMap;
+import cn.hutool.core.util.NumberUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 内置的统计数据时序存储
+ * <p>
+ * 目录结构为 {@code 根目录/序列id/精度/分区开始时间/列名.col}。原始数据写入后自动汇总为每分钟、每小时、每天的数据，
+ * 查询时根据时间范围选择合适的精度，返回的数据点数量不超过图表需要的数量
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class StatSeriesStore {
+
+    private static final long NONE = -1;
+    private static final long UNKNOWN = Long.MIN_VALUE;
+    /**
+     * 查询时最多读取的数据点数量，数量不超过此值的精度会优先使用（读取后再按时间段平均），保证较短的时间范围能看到最新的数据
+     */
+    private static final int READ_MAX_POINTS = 5000;
+
+    private final File root;
+    private final String[] columns;
+    /**
+     * 原始数据的大致间隔
+     */
+    private final long rawStep;
+    private final int rawCapacity;
+    private final Map<String, Series> seriesMap = new SafeConcurrentHashMap<>();
+
+    /**
+     * @param root    存储目录
+     * @param columns 指标列名
+     * @param rawStep 原始数据的大致间隔（毫秒），用于选择查询精度和预分配空间
+     */
+    public StatSeriesStore(File root, String[] columns, long rawStep) {
+        this.root = root;
+        this.columns = columns;
+        this.rawStep = Math.max(rawStep, 1000);
+        this.rawCapacity = (int) (StatResolution.RAW.getPartitionSpan() / this.rawStep) + 16;
+    }
+
+    /**
+     * 追加原始数据，时间早于已有数据的将被忽略
+     *
+     * @param seriesId 序列id
+     * @param time     时间
+     * @param values   各项指标的值，与列名一一对应
+     * @return 是否写入
+     * @throws IOException io
+     */
+    public boolean append(String seriesId, long time, double[] values) throws IOException {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException("values length " + values.length + " != " + columns.length);
+        }
+        Series series = this.series(seriesId);
+        synchronized (series) {
+            return series.append(time, values);
+        }
+    }
+
+    /**
+     * 查询时间范围内的数据，按时间升序
+     *
+     * @param seriesId  序列id
+     * @param start     开始时间（包含）
+     * @param end       结束时间（包含）
+     * @param maxPoints 最多返回的数据点数量
+     * @return 数据点
+     * @throws IOException io
+     */
+    public List<StatPoint> query(String seriesId, long start, long end, int maxPoints) throws IOException {
+        Series series = this.series(seriesId);
+        List<StatPoint> points;
+        synchronized (series) {
+            StatResolution resolution = series.choose(start, end, maxPoints);
+            points = series.read(resolution, start, end);
+        }
+        return downsample(points, start, end, maxPoints);
+    }
+
+    /**
+     * 查询最近的原始数据，按时间升序
+     *
+     * @param seriesId 序列id
+     * @param limit    数量
+     * @return 数据点
+     * @throws IOException io
+     */
+    public List<StatPoint> latest(String seriesId, int limit) throws IOException {
+        Series series = this.series(seriesId);
+        synchronized (series) {
+            List<Long> partitions = series.partitions(StatResolution.RAW);
+            List<StatPoint> result = new ArrayList<>();
+            for (int i = partitions.size() - 1; i >= 0 && result.size() < limit; i--) {
+                List<StatPoint> points = series.readPartition(StatResolution.RAW, partitions.get(i), Long.MIN_VALUE, Long.MAX_VALUE);
+                points.addAll(result);
+                result = points;
+            }
+            return result.size() > limit ? new ArrayList<>(result.subList(result.size() - limit, result.size())) : result;
+        }
+    }
+
+    /**
+     * 删除指定精度中结束时间早于指定时间的分区
+     *
+     * @param resolution 精度
+     * @param before     时间
+     * @return 删除的分区数量
+     */
+    public int clean(StatResolution resolution, long before) {
+        int count = 0;
+        for (String id : this.listSeries()) {
+            Series series = this.series(id);
+            synchronized (series) {
+                count += series.clean(resolution, before);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 删除序列
+     *
+     * @param seriesId 序列id
+     */
+    public void delete(String seriesId) {
+        Series series = this.series(seriesId);
+        synchronized (series) {
+            seriesMap.remove(seriesId);
+            FileUtil.del(series.dir);
+        }
+    }
+
+    private List<String> listSeries() {
+        File[] files = root.listFiles(File::isDirectory);
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        List<String> list = new ArrayList<>(files.length);
+        for (File file : files) {
+            list.add(file.getName());
+        }
+        return list;
+    }
+
+    private Series series(String seriesId) {
+        return seriesMap.computeIfAbsent(seriesId, s -> new Series(FileUtil.file(root, s)));
+    }
+
+    /**
+     * 按时间平均分段合并数据点
+     */
+    private static List<StatPoint> downsample(List<StatPoint> points, long start, long end, int maxPoints) {
+        if (points.size() <= maxPoints || maxPoints <= 0) {
+            return points;
+        }
+        long size = (end - start) / maxPoints + 1;
+        List<StatPoint> result = new ArrayList<>(maxPoints);
+        int from = 0;
+        for (int i = 1; i <= points.size(); i++) {
+            if (i == points.size() || (points.get(i).getTime() - start) / size != (points.get(from).getTime() - start) / size) {
+                result.add(StatPoint.merge(points.get(from).getTime(), points, from, i));
+                from = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 一个序列，所有方法需要在序列的锁内调用
+     */
+    private class Series {
+        private final File dir;
+        /**
+         * 各精度正在写入的分区
+         */
+        private final StatPartition[] heads = new StatPartition[StatResolution.values().length];
+        private final long[] firstTime = new long[StatResolution.values().length];
+        private final long[] lastTime = new long[StatResolution.values().length];
+        /**
+         * 各精度已经汇总到的时间
+         */
+        private final long[] rolled = new long[StatResolution.values().length];
+
+        private Series(File dir) {
+            this.dir = dir;
+            Arrays.fill(firstTime, UNKNOWN);
+            Arrays.fill(lastTime, UNKNOWN);
+            Arrays.fill(rolled, UNKNOWN);
+        }
+
+        private File partitionDir(StatResolution resolution, long partition) {
+            return FileUtil.file(dir, resolution.name().toLowerCase(), String.valueOf(partition));
+        }
+
+        private List<Long> partitions(StatResolution resolution) {
+            File[] files = FileUtil.file(dir, resolution.name().toLowerCase()).listFiles(File::isDirectory);
+            if (files == null) {
+                return Collections.emptyList();
+            }
+            List<Long> list = new ArrayList<>(files.length);
+            for (File file : files) {
+                if (NumberUtil.isLong(file.getName())) {
+                    list.add(Long.parseLong(file.getName()));
+                }
+            }
+            Collections.sort(list);
+            return list;
+        }
+
+        private long firstTime(StatResolution resolution) throws IOException {
+            int index = resolution.ordinal();
+            if (firstTime[index] == UNKNOWN) {
+                firstTime[index] = NONE;
+                for (Long partition : this.partitions(resolution)) {
+                    long[] range = StatPartition.readTimeRange(this.partitionDir(resolution, partition));
+                    if (range != null) {
+                        firstTime[index] = range[0];
+                        break;
+                    }
+                }
+            }
+            return firstTime[index];
+        }
+
+        private long lastTime(StatResolution resolution) throws IOException {
+            int index = resolution.ordinal();
+            if (lastTime[index] == UNKNOWN) {
+                lastTime[index] = NONE;
+                List<Long> partitions = this.partitions(resolution);
+                for (int i = partitions.size() - 1; i >= 0; i--) {
+                    long[] range = StatPartition.readTimeRange(this.partitionDir(resolution, partitions.get(i)));
+                    if (range != null) {
+                        lastTime[index] = range[1];
+                        break;
+                    }
+                }
+            }
+            return lastTime[index];
+        }
+
+        private boolean append(long time, double[] values) throws IOException {
+            if (time <= this.lastTime(StatResolution.RAW)) {
+                return false;
+            }
+            this.write(StatResolution.RAW, new StatPoint(time, values, 1));
+            for (StatResolution resolution : StatResolution.values()) {
+                if (resolution.isRollup()) {
+                    this.rollUp(resolution, time);
+                }
+            }
+            return true;
+        }
+
+        private void write(StatResolution resolution, StatPoint point) throws IOException {
+            int index = resolution.ordinal();
+            long partition = resolution.partition(point.getTime());
+            StatPartition head = heads[index];
+            if (head == null || head.getStart() != partition) {
+                int capacity = resolution.isRollup() ? (int) (resolution.getPartitionSpan() / resolution.getStep()) + 1 : rawCapacity;
+                head = StatPartition.open(this.partitionDir(resolution, partition), partition, columns, resolution.isRollup(), capacity);
+                heads[index] = head;
+            }
+            head.append(point);
+            lastTime[index] = point.getTime();
+            if (firstTime[index] == NONE) {
+                firstTime[index] = point.getTime();
+            }
+        }
+
+        /**
+         * 将上一级精度中已经结束的时间段汇总写入
+         *
+         * @param resolution 精度
+         * @param time       最新数据的时间
+         * @throws IOException io
+         */
+        private void rollUp(StatResolution resolution, long time) throws IOException {
+            int index = resolution.ordinal();
+            long bucket = resolution.bucket(time);
+            long from = rolled[index];
+            if (from == UNKNOWN) {
+                long last = this.lastTime(resolution);
+                if (last != NONE) {
+                    from = last + resolution.getStep();
+                } else {
+                    long first = this.firstTime(resolution.lower());
+                    if (first == NONE) {
+                        return;
+                    }
+                    from = resolution.bucket(first);
+                }
+            }
+            if (from < bucket) {
+                List<StatPoint> points = this.read(resolution.lower(), from, bucket - 1);
+                int start = 0;
+                for (int i = 1; i <= points.size(); i++) {
+                    long startBucket = resolution.bucket(points.get(start).getTime());
+                    if (i == points.size() || resolution.bucket(points.get(i).getTime()) != startBucket) {
+                        this.write(resolution, StatPoint.merge(startBucket, points, start, i));
+                        start = i;
+                    }
+                }
+            }
+            rolled[index] = Math.max(from, bucket);
+        }
+
+        /**
+         * 选择查询的精度，优先选择数据覆盖开始时间且数据点数量不超过读取限制的最高精度
+         */
+        private StatResolution choose(long start, long end, int maxPoints) throws IOException {
+            StatResolution fallback = null;
+            long fallbackFirst = Long.MAX_VALUE;
+            for (StatResolution resolution : StatResolution.values()) {
+                long step = resolution.isRollup() ? resolution.getStep() : rawStep;
+                if ((end - start) / step > Math.max(maxPoints, READ_MAX_POINTS)) {
+                    continue;
+                }
+                long first = this.firstTime(resolution);
+                if (first == NONE) {
+                    continue;
+                }
+                if (first <= start) {
+                    return resolution;
+                }
+                if (first < fallbackFirst) {
+                    fallback = resolution;
+                    fallbackFirst = first;
+                }
+            }
+            return fallback == null ? StatResolution.DAY : fallback;
+        }
+
+        private List<StatPoint> read(StatResolution resolution, long from, long to) throws IOException {
+            List<StatPoint> result = new ArrayList<>();
+            for (Long partition : this.partitions(resolution)) {
+                if (partition > to || partition + resolution.getPartitionSpan() <= from) {
+                    continue;
+                }
+                result.addAll(this.readPartition(resolution, partition, from, to));
+            }
+            return result;
+        }
+
+        private List<StatPoint> readPartition(StatResolution resolution, long partition, long from, long to) throws IOException {
+            List<StatPoint> result = new ArrayList<>();
+            StatPartition head = heads[resolution.ordinal()];
+            if (head != null && head.getStart() == partition) {
+                head.read(from, to, result);
+            } else {
+                StatPartition.readFile(this.partitionDir(resolution, partition), columns, resolution.isRollup(), from, to, result);
+            }
+            return result;
+        }
+
+        private int clean(StatResolution resolution, long before) {
+            int index = resolution.ordinal();
+            List<Long> partitions = this.partitions(resolution);
+            List<Long> expired = partitions.stream()
+                .filter(partition -> partition + resolution.getPartitionSpan() <= before)
+                .collect(Collectors.toList());
+            for (Long partition : expired) {
+                StatPartition head = heads[index];
+                if (head != null && head.getStart() == partition) {
+                    heads[index] = null;
+                }
+                FileUtil.del(this.partitionDir(resolution, partition));
+            }
+            if (!expired.isEmpty()) {
+                firstTime[index] = UNKNOWN;
+                lastTime[index] = UNKNOWN;
+            }
+            return expired.size();
+        }
+    }
+}
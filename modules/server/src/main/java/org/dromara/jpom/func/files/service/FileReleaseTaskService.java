@@ -439,7 +439,7 @@ public class FileReleaseTaskService extends BaseWorkspaceService<FileReleaseTask
                     }
                     return;
                 }
-                logRecorder.info(s);
+                logRecorder.appendLine(s);
             });
             // 等待链接
             proxySession.connectBlocking();
@@ -506,13 +506,13 @@ public class FileReleaseTaskService extends BaseWorkspaceService<FileReleaseTask
                             beforeScript = keyAndGlobal.getContext();
                             logRecorder.system(I18nMessageUtil.get("i18n.introducing_script_content.a55b"), keyAndGlobal.getName(), scriptId);
                         }
-                        JschUtils.execCallbackLine(session, charset, timeout, beforeScript, StrUtil.EMPTY, environment, logRecorder::info);
+                        JschUtils.execCallbackLine(session, charset, timeout, beforeScript, StrUtil.EMPTY, environment, logRecorder::appendLine);
                     }
                     logRecorder.system("{} start ftp upload", item.getName());
 
                     MySftp.ProgressMonitor sftpProgressMonitor = sshService.createProgressMonitor(logRecorder);
                     // 不需要关闭资源，因为共用会话
-                    MySftp sftp = new MySftp(session, charset, timeout, sftpProgressMonitor);
+                    MySftp sftp = new MySftp(session, charset, timeout, sftpProgressMonitor, buildExtConfig.getSftpUploadConcurrent());
                     channelSftp = sftp.getClient();
                     String releasePath = model.getReleasePath();
                     sftp.syncUpload(storageSaveFile, releasePath);
@@ -528,7 +528,7 @@ public class FileReleaseTaskService extends BaseWorkspaceService<FileReleaseTask
                             afterScript = keyAndGlobal.getContext();
                             logRecorder.system(I18nMessageUtil.get("i18n.introducing_script_content.a55b"), keyAndGlobal.getName(), scriptId);
                         }
-                        JschUtils.execCallbackLine(session, charset, timeout, afterScript, StrUtil.EMPTY, environment, logRecorder::info);
+                        JschUtils.execCallbackLine(session, charset, timeout, afterScript, StrUtil.EMPTY, environment, logRecorder::appendLine);
                     }
                     this.updateStatus(taskId, modelId, 2, I18nMessageUtil.get("i18n.publish_success.2fff"));
                 } catch (Exception e) {
@@ -537,7 +537,7 @@ public class FileReleaseTaskService extends BaseWorkspaceService<FileReleaseTask
                 } finally {
                     IoUtil.close(logRecorder);
                     JschUtil.close(channelSftp);
-                    JschUtil.close(session);
+                    sshService.closeSession(session);
                 }
             });
         }
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.func.files.service;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import lombok.Getter;
+import lombok.Lombok;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.func.files.model.StaticFileStorageModel;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * 静态目录增量扫描
+ * <p>
+ * 多线程遍历目录，和上一次扫描的快照比较大小、修改时间，只批量写入有变化的文件，最后把本次没有找到的文件标记为不存在
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class StaticFileIndexer {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int QUEUE_SIZE = 10_000;
+
+    private final String staticDir;
+    private final StaticFileSnapshot snapshot;
+    private final int parallelism;
+
+    /**
+     * @param staticDir   静态目录
+     * @param snapshot    上一次扫描的快照，扫描后会更新
+     * @param parallelism 遍历目录的线程数
+     */
+    public StaticFileIndexer(String staticDir, StaticFileSnapshot snapshot, int parallelism) {
+        this.staticDir = staticDir;
+        this.snapshot = snapshot;
+        this.parallelism = Math.max(parallelism, 1);
+    }
+
+    /**
+     * 扫描目录
+     *
+     * @param taskId 扫描任务id
+     * @param upsert 批量写入有变化的文件
+     * @param delete 批量标记不存在的文件
+     * @return 扫描结果
+     */
+    public Result scan(long taskId, Consumer<List<StaticFileStorageModel>> upsert, Consumer<List<String>> delete) {
+        long start = System.currentTimeMillis();
+        Result result = new Result();
+        BlockingQueue<StaticFileStorageModel> queue = new LinkedBlockingQueue<>(QUEUE_SIZE);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            File root = FileUtil.file(staticDir);
+            ForkJoinTask<Void> task = pool.submit(new WalkTask(root, 0, queue));
+            List<StaticFileStorageModel> changed = new ArrayList<>(BATCH_SIZE);
+            while (true) {
+                // 先判断是否完成再取队列，完成后队列中已经是全部的文件
+                boolean done = task.isDone();
+                StaticFileStorageModel model = queue.poll(100, TimeUnit.MILLISECONDS);
+                while (model != null) {
+                    result.files++;
+                    if (!snapshot.seen(model.getId(), model.getSize(), model.getLastModified(), model.type() == 0)) {
+                        model.setScanTaskId(taskId);
+                        changed.add(model);
+                        if (changed.size() >= BATCH_SIZE) {
+                            this.flush(changed, upsert, result);
+                        }
+                    }
+                    model = queue.poll();
+                }
+                if (done) {
+                    break;
+                }
+            }
+            // 遍历异常时不处理删除，避免误标记
+            task.get();
+            this.flush(changed, upsert, result);
+            List<String> unseen = snapshot.unseen();
+            for (int i = 0; i < unseen.size(); i += BATCH_SIZE) {
+                List<String> ids = unseen.subList(i, Math.min(i + BATCH_SIZE, unseen.size()));
+                delete.accept(ids);
+                ids.forEach(snapshot::remove);
+            }
+            result.deleted = unseen.size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Lombok.sneakyThrow(e);
+        } catch (ExecutionException e) {
+            // 清除扫描标记
+            snapshot.unseen();
+            throw Lombok.sneakyThrow(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        result.millis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    private void flush(List<StaticFileStorageModel> changed, Consumer<List<StaticFileStorageModel>> upsert, Result result) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        upsert.accept(changed);
+        for (StaticFileStorageModel model : changed) {
+            snapshot.put(model.getId(), model.getSize(), model.getLastModified(), true, model.type() == 0);
+        }
+        result.changed += changed.size();
+        changed.clear();
+    }
+
+    /**
+     * 生成文件信息
+     *
+     * @param file  文件
+     * @param level 层级
+     * @return 不支持的文件返回 null
+     */
+    private StaticFileStorageModel toModel(File file, int level, boolean folder) {
+        String absolutePath = FileUtil.normalize(file.getAbsolutePath());
+        if (StrUtil.length(absolutePath) > 500) {
+            log.warn(I18nMessageUtil.get("i18n.file_directory_too_long.c101"), absolutePath);
+            return null;
+        }
+        StaticFileStorageModel storageModel = new StaticFileStorageModel();
+        storageModel.setId(SecureUtil.md5(absolutePath));
+        storageModel.setName(file.getName());
+        storageModel.setAbsolutePath(absolutePath);
+        File parentFile = file.getAbsoluteFile().getParentFile();
+        storageModel.setParentAbsolutePath(parentFile == null ? absolutePath : FileUtil.normalize(parentFile.getAbsolutePath()));
+        storageModel.setLevel(level);
+        storageModel.setStaticDir(staticDir);
+        storageModel.setStatus(1);
+        storageModel.setType(folder ? 0 : 1);
+        storageModel.setExtName(FileUtil.extName(file));
+        storageModel.setLastModified(file.lastModified());
+        storageModel.setSize(file.length());
+        return storageModel;
+    }
+
+    /**
+     * 遍历一个目录，子目录拆分为新的任务
+     */
+    private class WalkTask extends RecursiveAction {
+        private final File file;
+        private final int level;
+        private final BlockingQueue<StaticFileStorageModel> queue;
+
+        private WalkTask(File file, int level, BlockingQueue<StaticFileStorageModel> queue) {
+            this.file = file;
+            this.level = level;
+            this.queue = queue;
+        }
+
+        @Override
+        protected void compute() {
+            boolean folder = FileUtil.isDirectory(file);
+            if (!folder && !FileUtil.isFile(file)) {
+                log.warn(I18nMessageUtil.get("i18n.file_type_not_supported_with_placeholder.db22"), file.getAbsolutePath());
+                return;
+            }
+            StaticFileStorageModel model = toModel(file, level, folder);
+            if (model != null) {
+                try {
+                    queue.put(model);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    // 遍历不完整，不能继续处理删除
+                    throw Lombok.sneakyThrow(e);
+                }
+            }
+            if (!folder) {
+                return;
+            }
+            File[] files = file.listFiles();
+            if (files == null) {
+                return;
+            }
+            List<WalkTask> tasks = new ArrayList<>(files.length);
+            for (File subFile : files) {
+                tasks.add(new WalkTask(subFile, level + 1, queue));
+            }
+            ForkJoinTask.invokeAll(tasks);
+        }
+    }
+
+    /**
+     * 扫描结果
+     */
+    @Getter
+    public static class Result {
+        /**
+         * 扫描的文件和文件夹数
+         */
+        private long files;
+        /**
+         * 新增或者修改的数量
+         */
+        private long changed;
+        /**
+         * 标记为不存在的数量
+         */
+        private long deleted;
+        /**
+         * 耗时（毫秒）
+         */
+        private long millis;
+
+        /**
+         * 每秒扫描的文件数
+         *
+         * @return 文件数
+         */
+        public long getFilesPerSecond() {
+            return files * 1000 / Math.max(millis, 1);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.func.files.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 上一次扫描的静态文件快照，文件 id（路径 md5）-> 大小、修改时间
+ * <p>
+ * 百万级文件常驻内存，使用开放寻址的基本类型数组，每个文件约 40 字节
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class StaticFileSnapshot {
+
+    private static final byte USED = 1;
+    private static final byte EXIST = 1 << 1;
+    private static final byte FOLDER = 1 << 2;
+    private static final byte SEEN = 1 << 3;
+
+    private long[] high;
+    private long[] low;
+    private long[] size;
+    private long[] lastModified;
+    private byte[] flags;
+    private int count;
+
+    public StaticFileSnapshot() {
+        this.allocate(1024);
+    }
+
+    private void allocate(int capacity) {
+        high = new long[capacity];
+        low = new long[capacity];
+        size = new long[capacity];
+        lastModified = new long[capacity];
+        flags = new byte[capacity];
+        count = 0;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * 记录文件信息
+     *
+     * @param id           文件 id
+     * @param size         文件大小
+     * @param lastModified 修改时间
+     * @param exist        文件是否存在（status = 1）
+     * @param folder       是否为文件夹
+     */
+    public synchronized void put(String id, long size, long lastModified, boolean exist, boolean folder) {
+        int index = this.slot(id);
+        this.size[index] = size;
+        this.lastModified[index] = lastModified;
+        flags[index] = (byte) (USED | (exist ? EXIST : 0) | (folder ? FOLDER : 0) | (flags[index] & SEEN));
+    }
+
+    /**
+     * 查找文件的位置，不存在时新增
+     *
+     * @param id 文件 id
+     * @return 位置
+     */
+    private int slot(String id) {
+        if ((count + 1) * 4L > flags.length * 3L) {
+            this.resize();
+        }
+        long h = parse(id, 0);
+        long l = parse(id, 16);
+        int index = this.index(h, l);
+        if ((flags[index] & USED) == 0) {
+            count++;
+            high[index] = h;
+            low[index] = l;
+            flags[index] = USED;
+        }
+        return index;
+    }
+
+    /**
+     * 比较扫描到的文件并标记为已扫描，新文件先记录为不存在，写入后再更新
+     *
+     * @param id           文件 id
+     * @param size         文件大小
+     * @param lastModified 修改时间
+     * @param folder       是否为文件夹
+     * @return true 和上一次扫描一致
+     */
+    public synchronized boolean seen(String id, long size, long lastModified, boolean folder) {
+        int index = this.slot(id);
+        byte flag = flags[index];
+        flags[index] = (byte) (flag | SEEN);
+        return (flag & EXIST) != 0
+            && ((flag & FOLDER) != 0) == folder
+            && this.size[index] == size
+            && this.lastModified[index] == lastModified;
+    }
+
+    /**
+     * 本次扫描没有找到的文件，同时清除扫描标记
+     *
+     * @return 文件 id
+     */
+    public synchronized List<String> unseen() {
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < flags.length; i++) {
+            byte flag = flags[i];
+            if ((flag & USED) == 0) {
+                continue;
+            }
+            if ((flag & SEEN) == 0 && (flag & EXIST) != 0) {
+                list.add(String.format("%016x%016x", high[i], low[i]));
+            }
+            flags[i] = (byte) (flag & ~SEEN);
+        }
+        return list;
+    }
+
+    /**
+     * 标记文件已经不存在
+     *
+     * @param id 文件 id
+     */
+    public synchronized void remove(String id) {
+        int index = this.index(parse(id, 0), parse(id, 16));
+        if ((flags[index] & USED) != 0) {
+            flags[index] = (byte) (flags[index] & ~EXIST);
+        }
+    }
+
+    private int index(long h, long l) {
+        int mask = flags.length - 1;
+        long mix = h ^ l;
+        int index = (int) (mix ^ (mix >>> 32)) & mask;
+        while ((flags[index] & USED) != 0 && (high[index] != h || low[index] != l)) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void resize() {
+        long[] oldHigh = high;
+        long[] oldLow = low;
+        long[] oldSize = size;
+        long[] oldLastModified = lastModified;
+        byte[] oldFlags = flags;
+        this.allocate(oldFlags.length * 2);
+        for (int i = 0; i < oldFlags.length; i++) {
+            if ((oldFlags[i] & USED) == 0) {
+                continue;
+            }
+            int index = this.index(oldHigh[i], oldLow[i]);
+            high[index] = oldHigh[i];
+            low[index] = oldLow[i];
+            size[index] = oldSize[i];
+            lastModified[index] = oldLastModified[i];
+            flags[index] = oldFlags[i];
+            count++;
+        }
+    }
+
+    private static long parse(String id, int start) {
+        return Long.parseUnsignedLong(id.substring(start, start + 16), 16);
+    }
+}
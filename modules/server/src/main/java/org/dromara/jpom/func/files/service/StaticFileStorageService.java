@@ -19,13 +19,16 @@ import cn.hutool.core.io.watch.watchers.DelayWatcher;
 import cn.hutool.core.lang.Assert;
 import cn.hutool.core.lang.Snowflake;
 import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.thread.ThreadUtil;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.RuntimeUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.cron.task.Task;
 import cn.hutool.crypto.SecureUtil;
 import cn.hutool.db.Entity;
+import cn.hutool.db.handler.RsHandler;
 import cn.hutool.extra.servlet.ServletUtil;
 import cn.keepbx.jpom.event.IAsyncLoad;
 import cn.keepbx.jpom.model.BaseIdModel;
@@ -51,6 +54,7 @@ import java.nio.file.Path;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -69,6 +73,10 @@ public class StaticFileStorageService extends BaseDbService<StaticFileStorageMod
      * 扫描任务进行中
      */
     private volatile boolean scanning = false;
+    /**
+     * 静态目录（绝对路径）-> 上一次扫描的快照，只在扫描时加载
+     */
+    private final Map<String, StaticFileSnapshot> snapshots = new ConcurrentHashMap<>();
 
     public StaticFileStorageService(ServerConfig serverConfig,
                                     WorkspaceService workspaceService,
@@ -188,18 +196,59 @@ public class StaticFileStorageService extends BaseDbService<StaticFileStorageMod
      *
      * @param list 目录
      */
-    private void scanList(List<String> list) {
+    private synchronized void scanList(List<String> list) {
         Snowflake snowflake = IdUtil.getSnowflake();
         long taskId = snowflake.nextId();
+        int parallelism = Math.min(Math.max(RuntimeUtil.getProcessorCount(), 4), 16);
         for (String item : list) {
-            // 开始扫描目录
-            this.scanItem(item, item, 0, taskId);
-            // 更新文件状态
-            String sql = StrUtil.format("update {} set status=0 where staticDir=? and scanTaskId <> ?", this.getTableName());
-            this.execute(sql, item, taskId);
+            File file = FileUtil.file(item);
+            String key = this.absNormalize(file);
+            if (!FileUtil.exist(file)) {
+                // 目录不存在了，自动删除
+                this.delete(file);
+                continue;
+            }
+            StaticFileSnapshot snapshot = snapshots.get(key);
+            if (snapshot == null) {
+                snapshot = this.loadSnapshot(item);
+                snapshots.put(key, snapshot);
+            }
+            // 开始扫描目录，只写入有变化的文件
+            StaticFileIndexer indexer = new StaticFileIndexer(item, snapshot, parallelism);
+            StaticFileIndexer.Result result;
+            try {
+                result = indexer.scan(taskId,
+                    models -> this.upsertAndDel(models, null),
+                    ids -> this.update(Entity.create().set("status", 0), Entity.create().set("id", ids)));
+            } catch (RuntimeException e) {
+                // 快照可能和数据库不一致，下次重新加载
+                snapshots.remove(key);
+                throw e;
+            }
+            log.info(I18nMessageUtil.get("i18n.static_dir_scan_summary.4d6b"), item, result.getFiles(), result.getFilesPerSecond(),
+                result.getChanged(), result.getDeleted(), DateUtil.formatBetween(Math.max(result.getMillis(), 1)));
         }
     }
 
+    /**
+     * 从数据库加载静态目录的快照，逐行读取
+     *
+     * @param staticDir 静态目录
+     * @return 快照
+     */
+    private StaticFileSnapshot loadSnapshot(String staticDir) {
+        StaticFileSnapshot snapshot = new StaticFileSnapshot();
+        String sql = StrUtil.format("select * from {} where staticDir=?", this.getTableName());
+        RsHandler<Void> handler = rs -> {
+            while (rs.next()) {
+                snapshot.put(rs.getString("id"), rs.getLong("size"), rs.getLong("lastModified"), rs.getInt("status") == 1, rs.getInt("type") == 0);
+            }
+            return null;
+        };
+        this.txDb(db -> db.query(sql, handler, staticDir));
+        return snapshot;
+    }
+
     @Override
     public void execute() {
         try {
@@ -331,6 +380,13 @@ public class StaticFileStorageService extends BaseDbService<StaticFileStorageMod
             storageModel.setLastModified(file.lastModified());
             storageModel.setSize(file.length());
             this.upsert(storageModel);
+            StaticFileSnapshot snapshot = snapshots.get(staticStr);
+            if (snapshot != null && storageModel.getType() == 1) {
+                snapshot.put(storageModel.getId(), storageModel.getSize(), storageModel.getLastModified(), true, false);
+            } else {
+                // 文件夹变动会递归扫描，下次全量扫描时重新加载快照
+                snapshots.remove(staticStr);
+            }
             // 判断类型
             if (storageModel.getType() == 0) {
                 // 文件夹类型
@@ -496,6 +552,8 @@ public class StaticFileStorageService extends BaseDbService<StaticFileStorageMod
      * @param absolutePath 文件路径
      */
     private void delete(String md5, String absolutePath) {
+        // 无法确定所属的静态目录，下次全量扫描时重新加载快照
+        snapshots.clear();
         StaticFileStorageModel storageModel = new StaticFileStorageModel();
         storageModel.setId(md5);
         storageModel.setStatus(0);
@@ -10,23 +10,18 @@
 package org.dromara.jpom.func.openapi.controller;
 
 import cn.hutool.core.convert.Convert;
-import cn.hutool.core.date.SystemClock;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.lang.RegexPool;
 import cn.hutool.core.lang.Validator;
-import cn.hutool.core.map.SafeConcurrentHashMap;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.extra.servlet.ServletUtil;
 import cn.hutool.http.ContentType;
 import cn.keepbx.jpom.IJsonMessage;
-import cn.keepbx.jpom.event.IAsyncLoad;
 import cn.keepbx.jpom.model.JsonMessage;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
-import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
-import org.dromara.jpom.JpomApplication;
 import org.dromara.jpom.build.BuildExecuteService;
 import org.dromara.jpom.build.BuildUtil;
 import org.dromara.jpom.build.ResultDirFileAction;
@@ -37,12 +32,12 @@ import org.dromara.jpom.common.i18n.I18nMessageUtil;
 import org.dromara.jpom.common.interceptor.NotLogin;
 import org.dromara.jpom.common.validator.ValidatorItem;
 import org.dromara.jpom.common.validator.ValidatorRule;
-import org.dromara.jpom.cron.CronUtils;
 import org.dromara.jpom.model.BaseEnum;
 import org.dromara.jpom.model.data.BuildInfoModel;
 import org.dromara.jpom.model.enums.BuildStatus;
 import org.dromara.jpom.model.user.UserModel;
 import org.dromara.jpom.service.dblog.BuildInfoService;
+import org.dromara.jpom.service.dblog.BuildTriggerQueueService;
 import org.dromara.jpom.service.user.TriggerTokenLogServer;
 import org.dromara.jpom.system.JpomRuntimeException;
 import org.springframework.http.MediaType;
@@ -54,10 +49,8 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.util.*;
-import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -67,22 +60,21 @@ import java.util.stream.Collectors;
 @RestController
 @NotLogin
 @Slf4j
-public class BuildTriggerApiController extends BaseJpomController implements IAsyncLoad, Runnable {
+public class BuildTriggerApiController extends BaseJpomController {
 
     private final BuildInfoService buildInfoService;
     private final BuildExecuteService buildExecuteService;
     private final TriggerTokenLogServer triggerTokenLogServer;
-    /**
-     * 等待执行构建的队列
-     */
-    private final Map<String, Queue<BuildCache>> waitQueue = new SafeConcurrentHashMap<>();
+    private final BuildTriggerQueueService buildTriggerQueueService;
 
     public BuildTriggerApiController(BuildInfoService buildInfoService,
                                      BuildExecuteService buildExecuteService,
-                                     TriggerTokenLogServer triggerTokenLogServer) {
+                                     TriggerTokenLogServer triggerTokenLogServer,
+                                     BuildTriggerQueueService buildTriggerQueueService) {
         this.buildInfoService = buildInfoService;
         this.buildExecuteService = buildExecuteService;
         this.triggerTokenLogServer = triggerTokenLogServer;
+        this.buildTriggerQueueService = buildTriggerQueueService;
     }
 
 
@@ -127,16 +119,8 @@ public class BuildTriggerApiController extends BaseJpomController implements IAs
         Integer delay1 = Convert.toInt(delay, 0);
         if (Convert.toBool(useQueue, false)) {
             // 提交到队列暂存
-            BuildCache buildCache = new BuildCache();
-            buildCache.setId(id);
-            buildCache.setUserModel(userModel);
-            buildCache.setDelay(delay1);
-            buildCache.setBuildRemark(buildRemark);
-            buildCache.setParametersEnv(parametersEnv);
-            //
-            Queue<BuildCache> buildCaches = waitQueue.computeIfAbsent(id, s -> new ConcurrentLinkedDeque<>());
-            buildCaches.add(buildCache);
-            return JsonMessage.success(I18nMessageUtil.get("i18n.submit_task_queue_success.5f5b") + buildCaches.size());
+            String msg = buildTriggerQueueService.submit(id, userModel, delay1, buildRemark, parametersEnv);
+            return JsonMessage.success(msg);
         }
 
         BaseServerController.resetInfo(userModel);
@@ -209,16 +193,8 @@ public class BuildTriggerApiController extends BaseJpomController implements IAs
                 }
                 if (Convert.toBool(useQueue, false)) {
                     // 提交到队列暂存
-                    BuildCache buildCache = new BuildCache();
-                    buildCache.setId(id);
-                    buildCache.setUserModel(userModel);
-                    buildCache.setDelay(delay);
-                    buildCache.setBuildRemark(buildRemark);
-                    buildCache.setParametersEnv(parametersEnv);
-                    //
-                    Queue<BuildCache> buildCaches = waitQueue.computeIfAbsent(id, s -> new ConcurrentLinkedDeque<>());
-                    buildCaches.add(buildCache);
-                    jsonObject.put("msg", I18nMessageUtil.get("i18n.submit_task_queue_success.5f5b") + buildCaches.size());
+                    String msg = buildTriggerQueueService.submit(id, userModel, delay, buildRemark, parametersEnv);
+                    jsonObject.put("msg", msg);
                 } else {
                     BaseServerController.resetInfo(userModel);
                     //
@@ -378,95 +354,4 @@ public class BuildTriggerApiController extends BaseJpomController implements IAs
         jsonObject.put("buildNumberId", item.getBuildId());
         return jsonObject;
     }
-
-    @Data
-    private static class BuildCache {
-        private UserModel userModel;
-        // 构建外部参数
-        private Object[] parametersEnv;
-
-        private Integer delay;
-
-        private String buildRemark;
-        private String id;
-
-        private Long taskTime;
-
-        public BuildCache() {
-            this.taskTime = SystemClock.now();
-        }
-
-        @Override
-        public String toString() {
-            return JSONObject.toJSONString(this);
-        }
-    }
-
-    @Override
-    public void startLoad() {
-        ScheduledExecutorService scheduler = JpomApplication.getScheduledExecutorService();
-        scheduler.scheduleWithFixedDelay(this, 0, 5, TimeUnit.SECONDS);
-    }
-
-    @Override
-    public void run() {
-        String id = "build_trigger_queue";
-        int heartSecond = 5;
-        try {
-            CronUtils.TaskStat taskStat = CronUtils.getTaskStat(id, StrUtil.format(I18nMessageUtil.get("i18n.execution_frequency.d014"), heartSecond));
-            taskStat.onStart();
-            //
-            this.runQueue();
-            taskStat.onSucceeded();
-        } catch (Throwable throwable) {
-            CronUtils.TaskStat taskStat = CronUtils.getTaskStat(id, StrUtil.format(I18nMessageUtil.get("i18n.execution_frequency.d014"), heartSecond));
-            taskStat.onFailed(id, throwable);
-        }
-    }
-
-    private void runQueue() {
-        // 先删除空队列
-        Set<Map.Entry<String, Queue<BuildCache>>> entries = waitQueue.entrySet();
-        Iterator<Map.Entry<String, Queue<BuildCache>>> entryIterator = entries.iterator();
-        while (entryIterator.hasNext()) {
-            Map.Entry<String, Queue<BuildCache>> next = entryIterator.next();
-            Queue<BuildCache> queue = next.getValue();
-            if (queue.isEmpty()) {
-                entryIterator.remove();
-            }
-        }
-        int size = waitQueue.size();
-        if (size > 0) {
-            log.debug(I18nMessageUtil.get("i18n.need_handle_build_micro_queue_count.3010"), size);
-            // 遍历队列中的数据
-            waitQueue.forEach((buildId, buildCaches) -> {
-                synchronized (buildId.intern()) {
-                    log.debug(I18nMessageUtil.get("i18n.need_handle_build_queue_count.c01e"), buildId, buildCaches.size());
-                    BuildInfoModel item = buildInfoService.getByKey(buildId);
-                    if (item == null) {
-                        log.error(I18nMessageUtil.get("i18n.build_data_not_exist.0225"), buildId, buildCaches.poll());
-                        return;
-                    }
-                    String statusMsg = buildExecuteService.checkStatus(item);
-                    if (statusMsg != null) {
-                        log.debug(I18nMessageUtil.get("i18n.build_task_waiting.e303"), buildId, statusMsg);
-                        return;
-                    }
-                    BuildCache cache = buildCaches.poll();
-                    if (cache == null) {
-                        return;
-                    }
-                    try {
-                        BaseServerController.resetInfo(cache.userModel);
-                        IJsonMessage<Integer> message = buildExecuteService.start(cache.id, cache.userModel, cache.delay, 1, cache.buildRemark, cache.parametersEnv);
-                        log.info(I18nMessageUtil.get("i18n.build_trigger_queue_result.a1fe"), message);
-                    } catch (Exception e) {
-                        log.error(I18nMessageUtil.get("i18n.create_build_task_exception.06f1"), e);
-                        // 重新添加任务
-                        buildCaches.add(cache);
-                    }
-                }
-            });
-        }
-    }
 }
@@ -34,16 +34,21 @@ import org.dromara.jpom.configuration.ClusterConfig;
 import org.dromara.jpom.configuration.SystemConfig;
 import org.dromara.jpom.controller.LoginControl;
 import org.dromara.jpom.cron.CronUtils;
+import org.dromara.jpom.func.assets.server.MachineSshServer;
 import org.dromara.jpom.permission.ClassFeature;
 import org.dromara.jpom.permission.Feature;
 import org.dromara.jpom.permission.MethodFeature;
 import org.dromara.jpom.permission.SystemPermission;
 import org.dromara.jpom.plugin.PluginFactory;
+import org.dromara.jpom.service.h2db.DataRetentionExecutor;
+import org.dromara.jpom.service.h2db.DbDataCache;
 import org.dromara.jpom.socket.ServiceFileTailWatcher;
 import org.dromara.jpom.system.ServerConfig;
 import org.dromara.jpom.system.db.DataInitEvent;
+import org.dromara.jpom.transport.MultiplexWebSocketClient;
 import org.dromara.jpom.util.CommandUtil;
 import org.dromara.jpom.util.SyncFinisherUtil;
+import org.dromara.jpom.util.TerminalEngine;
 import org.springframework.http.MediaType;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.*;
@@ -76,6 +81,7 @@ public class CacheManageController extends BaseServerController implements ICach
     private final DataInitEvent dataInitEvent;
     private final ClusterConfig clusterConfig;
     private final SystemConfig systemConfig;
+    private final MachineSshServer machineSshServer;
     /**
      * 标记是否正在刷新缓存
      */
@@ -83,8 +89,10 @@ public class CacheManageController extends BaseServerController implements ICach
 
     public CacheManageController(JpomApplication jpomApplication,
                                  DataInitEvent dataInitEvent,
-                                 ServerConfig serverConfig) {
+                                 ServerConfig serverConfig,
+                                 MachineSshServer machineSshServer) {
         this.jpomApplication = jpomApplication;
+        this.machineSshServer = machineSshServer;
         this.dataInitEvent = dataInitEvent;
         this.clusterConfig = serverConfig.getCluster();
         this.systemConfig = serverConfig.getSystem();
@@ -111,10 +119,16 @@ public class CacheManageController extends BaseServerController implements ICach
         }
         int oneLineCount = ServiceFileTailWatcher.getOneLineCount();
         map.put("readFileOnLineCount", oneLineCount);
+        map.put("readFileMetrics", ServiceFileTailWatcher.listMetrics());
         map.put("cacheBuildFileSize", BuildUtil.buildCacheSize);
         map.put("taskList", CronUtils.list());
         map.put("pluginSize", PluginFactory.size());
         map.put("shardingSize", BaseServerController.SHARDING_IDS.size());
+        map.put("sshSessionPoolSize", machineSshServer.sessionPoolSize());
+        map.put("dataRetention", DataRetentionExecutor.stats());
+        map.put("dbDataCache", DbDataCache.stats());
+        map.put("terminal", TerminalEngine.getMetrics());
+        map.put("multiplex", MultiplexWebSocketClient.getMetrics());
         map.put("buildKeys", BuildExecuteManage.buildKeys());
         map.put("syncFinisKeys", SyncFinisherUtil.keys());
         map.put("dateTime", DateTime.now().toString());
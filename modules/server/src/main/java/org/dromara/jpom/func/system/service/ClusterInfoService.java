@@ -13,6 +13,7 @@ import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.date.SystemClock;
 import cn.hutool.core.net.NetUtil;
 import cn.hutool.core.net.url.UrlBuilder;
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.db.Entity;
 import cn.hutool.extra.spring.SpringUtil;
@@ -32,8 +33,11 @@ import org.dromara.jpom.func.assets.server.MachineDockerServer;
 import org.dromara.jpom.func.assets.server.MachineNodeServer;
 import org.dromara.jpom.func.assets.server.MachineSshServer;
 import org.dromara.jpom.func.system.model.ClusterInfoModel;
+import org.dromara.jpom.model.data.SystemParametersModel;
 import org.dromara.jpom.model.user.UserModel;
 import org.dromara.jpom.service.h2db.BaseDbService;
+import org.dromara.jpom.service.h2db.DbDataCache;
+import org.dromara.jpom.service.system.SystemParametersServer;
 import org.dromara.jpom.service.system.WorkspaceService;
 import org.dromara.jpom.system.ServerConfig;
 import org.springframework.stereotype.Service;
@@ -41,6 +45,9 @@ import org.springframework.util.Assert;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -56,17 +63,32 @@ public class ClusterInfoService extends BaseDbService<ClusterInfoModel> implemen
 
     private final ClusterConfig clusterConfig;
     private static final String TASK_ID = "system_monitor_cluster";
+    /**
+     * 缓存版本的系统参数前缀，表数据变动后更新，其他服务端心跳时检查
+     */
+    private static final String CACHE_VERSION_PREFIX = "cache_version_";
 
     private final WorkspaceService workspaceService;
+    private final SystemParametersServer systemParametersServer;
+    /**
+     * 已知的缓存版本
+     */
+    private final Map<String, String> cacheVersions = new ConcurrentHashMap<>();
+    /**
+     * 等待发布的缓存变动
+     */
+    private final Set<String> pendingCacheChanges = ConcurrentHashMap.newKeySet();
     /**
      * 是否为多集群
      */
     private boolean multiServer = false;
 
     public ClusterInfoService(ServerConfig serverConfig,
-                              WorkspaceService workspaceService) {
+                              WorkspaceService workspaceService,
+                              SystemParametersServer systemParametersServer) {
         this.clusterConfig = serverConfig.getCluster();
         this.workspaceService = workspaceService;
+        this.systemParametersServer = systemParametersServer;
     }
 
     /**
@@ -97,6 +119,8 @@ public class ClusterInfoService extends BaseDbService<ClusterInfoModel> implemen
         scheduler.scheduleWithFixedDelay(this, 0, heartSecond, TimeUnit.SECONDS);
         // 判断是否为多集群模式
         this.multiServer = this.count() > 1;
+        // 本地缓存变动通知其他服务端
+        DbDataCache.addChangeListener(this::publishCacheChange);
     }
 
     @Override
@@ -107,6 +131,7 @@ public class ClusterInfoService extends BaseDbService<ClusterInfoModel> implemen
             taskStat.onStart();
             // 判断是否为多集群模式
             this.multiServer = this.count() > 1;
+            this.checkCacheChange();
             //
             JpomManifest jpomManifest = JpomManifest.getInstance();
             String installId = jpomManifest.getInstallId();
@@ -159,6 +184,57 @@ public class ClusterInfoService extends BaseDbService<ClusterInfoModel> implemen
         }
     }
 
+    /**
+     * 发布本地表数据变动，短时间内同一个表的多次变动合并为一次
+     *
+     * @param tableName 表名
+     */
+    private void publishCacheChange(String tableName) {
+        if (!multiServer || !pendingCacheChanges.add(tableName)) {
+            return;
+        }
+        ScheduledExecutorService scheduler = JpomApplication.getScheduledExecutorService();
+        scheduler.schedule(() -> {
+            pendingCacheChanges.remove(tableName);
+            String version = JpomManifest.getInstance().getInstallId() + StrUtil.COLON + IdUtil.fastSimpleUUID();
+            cacheVersions.put(tableName, version);
+            SystemParametersModel parametersModel = new SystemParametersModel();
+            parametersModel.setId(CACHE_VERSION_PREFIX + tableName);
+            parametersModel.setValue(version);
+            parametersModel.setDescription(I18nMessageUtil.get("i18n.cache_version_desc.658b"));
+            try {
+                systemParametersServer.upsert(parametersModel);
+            } catch (Exception e) {
+                log.warn(I18nMessageUtil.get("i18n.cache_version_publish_failed.d638"), tableName, e);
+            }
+        }, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 检查其他服务端发布的表数据变动，清空本地关联的缓存
+     */
+    private void checkCacheChange() {
+        if (!multiServer) {
+            return;
+        }
+        List<String> ids = DbDataCache.tableNames()
+            .stream()
+            .map(s -> CACHE_VERSION_PREFIX + s)
+            .collect(Collectors.toList());
+        List<SystemParametersModel> list = systemParametersServer.listById(ids);
+        if (list == null) {
+            return;
+        }
+        for (SystemParametersModel parametersModel : list) {
+            String tableName = StrUtil.removePrefix(parametersModel.getId(), CACHE_VERSION_PREFIX);
+            String old = cacheVersions.put(tableName, parametersModel.getValue());
+            if (!StrUtil.equals(old, parametersModel.getValue())) {
+                DbDataCache.invalidate(tableName);
+                log.debug(I18nMessageUtil.get("i18n.cluster_cache_invalidated.f1fd"), tableName);
+            }
+        }
+    }
+
     private void testUrl(String url) {
         //
         UrlBuilder urlBuilder = UrlBuilder.ofHttp(url);
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.model.data;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.dromara.jpom.db.TableName;
+import org.dromara.jpom.model.BaseDbModel;
+
+/**
+ * 构建触发器暂存的队列，服务重启后可以继续执行
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@TableName(value = "BUILD_TRIGGER_QUEUE",
+    nameKey = "i18n.build_trigger_queue.3e33")
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class BuildTriggerQueueModel extends BaseDbModel {
+    /**
+     * 构建ID
+     *
+     * @see BuildInfoModel#getId()
+     */
+    private String buildInfoId;
+    /**
+     * 触发的用户ID
+     */
+    private String userId;
+    /**
+     * 延迟时间（单位秒）
+     */
+    private Integer delay;
+    /**
+     * 构建备注
+     */
+    private String buildRemark;
+    /**
+     * 外部环境变量，json 数组
+     */
+    private String parametersEnv;
+    /**
+     * 触发参数签名，相同签名的待执行触发合并为一条
+     */
+    private String paramsDigest;
+    /**
+     * 合并的触发次数
+     */
+    private Integer mergeCount;
+}
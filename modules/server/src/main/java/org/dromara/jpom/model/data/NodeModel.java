@@ -86,6 +86,14 @@ public class NodeModel extends BaseMachineModel {
      * jpom 脚本数据
      */
     private Integer jpomScriptCount;
+    /**
+     * 最后同步的节点项目数据版本
+     */
+    private Long projectSyncRevision;
+    /**
+     * 最后同步的节点脚本数据版本
+     */
+    private Long scriptSyncRevision;
 
     public boolean isOpenStatus() {
         return openStatus != null && openStatus == 1;
@@ -79,4 +79,20 @@ public class OutGivingLog extends BaseWorkspaceModel {
      * 数据
      */
     private String modeData;
+    /**
+     * 顺序重启时所在的批次，从 1 开始
+     */
+    private Integer waveIndex;
+    /**
+     * 批次开始时间
+     */
+    private Long waveStartTime;
+    /**
+     * 批次发布完成时间
+     */
+    private Long waveReleaseTime;
+    /**
+     * 批次就绪时间
+     */
+    private Long waveReadyTime;
 }
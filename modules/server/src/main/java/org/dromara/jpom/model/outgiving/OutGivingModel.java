@@ -59,6 +59,24 @@ public class OutGivingModel extends BaseGroupModel {
      * 分发间隔时间
      */
     private Integer intervalTime;
+    /**
+     * 顺序重启时每批发布的项目数，数量或者百分比（如 25%），默认 1
+     */
+    private String waveSize;
+    /**
+     * 就绪探测配置，为空只检查进程，port 检查端口，tcp://host:port、http(s)://url 由节点探测
+     *
+     * @see org.dromara.jpom.util.ReadinessProbe
+     */
+    private String readinessProbe;
+    /**
+     * 等待就绪超时时间（秒）
+     */
+    private Integer readinessTimeout;
+    /**
+     * 失败比例阈值（百分比），超过后取消剩余的分发。为空时顺序重启不取消、完整顺序重启有失败即取消
+     */
+    private Integer failureRatio;
     /**
      * 节点下的项目列表
      */
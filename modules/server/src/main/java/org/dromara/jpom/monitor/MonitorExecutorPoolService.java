@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.monitor;
+
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.util.RuntimeUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.JpomApplication;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.configuration.NodeConfig;
+import org.dromara.jpom.system.ServerConfig;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 项目监控线程池，所有监控共用，按节点并发检查
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Service
+@Slf4j
+public class MonitorExecutorPoolService {
+    /**
+     * 监控线程池
+     */
+    private volatile ThreadPoolExecutor threadPoolExecutor;
+
+    private final ServerConfig serverConfig;
+
+    public MonitorExecutorPoolService(ServerConfig serverConfig) {
+        this.serverConfig = serverConfig;
+    }
+
+    /**
+     * 提交节点检查任务
+     *
+     * @param task 任务
+     * @param <T>  结果类型
+     * @return future
+     * @throws java.util.concurrent.RejectedExecutionException 等待队列已满
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        this.createPool();
+        return threadPoolExecutor.submit(task);
+    }
+
+    private void createPool() {
+        if (threadPoolExecutor == null) {
+            synchronized (MonitorExecutorPoolService.class) {
+                if (threadPoolExecutor == null) {
+                    NodeConfig nodeConfig = serverConfig.getNode();
+                    ExecutorBuilder executorBuilder = ExecutorBuilder.create();
+                    int poolSize = nodeConfig.getMonitorPoolSize();
+                    if (poolSize <= 0) {
+                        // 获取 CPU 核心数
+                        poolSize = RuntimeUtil.getProcessorCount();
+                    }
+                    executorBuilder.setCorePoolSize(poolSize).setMaxPoolSize(poolSize);
+                    executorBuilder.useArrayBlockingQueue(Math.max(nodeConfig.getMonitorPoolWaitQueue(), 1));
+                    executorBuilder.setHandler(new ThreadPoolExecutor.AbortPolicy() {
+                        @Override
+                        public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
+                            log.warn(I18nMessageUtil.get("i18n.monitor_thread_pool_rejected_node.b70b"), r.getClass());
+                            super.rejectedExecution(r, e);
+                        }
+                    });
+                    threadPoolExecutor = executorBuilder.build();
+                    JpomApplication.register("project-monitor", threadPoolExecutor);
+                }
+            }
+        }
+    }
+}
@@ -10,13 +10,12 @@
 package org.dromara.jpom.monitor;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.date.SystemClock;
 import cn.hutool.core.exceptions.ExceptionUtil;
 import cn.hutool.core.thread.ThreadUtil;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.cron.task.Task;
-import cn.hutool.db.sql.Direction;
-import cn.hutool.db.sql.Order;
 import cn.hutool.extra.spring.SpringUtil;
 import cn.keepbx.jpom.model.JsonMessage;
 import cn.keepbx.jpom.plugins.IPlugin;
@@ -37,11 +36,15 @@ import org.dromara.jpom.service.monitor.MonitorService;
 import org.dromara.jpom.service.node.NodeService;
 import org.dromara.jpom.service.node.ProjectInfoCacheService;
 import org.dromara.jpom.service.user.UserService;
+import org.dromara.jpom.system.ServerConfig;
 import org.dromara.jpom.webhook.DefaultWebhookPluginImpl;
+import org.springframework.http.HttpStatus;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
 /**
@@ -59,8 +62,14 @@ public class MonitorItem implements Task {
     private final MonitorService monitorService;
     private final ProjectInfoCacheService projectInfoCacheService;
     private final NodeService nodeService;
+    private final MonitorExecutorPoolService monitorExecutorPoolService;
+    private final ServerConfig serverConfig;
     private final String monitorId;
     private MonitorModel monitorModel;
+    /**
+     * 本次执行中各项目上次的状态 nodeId:projectId -> status
+     */
+    private Map<String, Boolean> preStatus;
 
     public MonitorItem(String id) {
         this.dbMonitorNotifyLogService = SpringUtil.getBean(DbMonitorNotifyLogService.class);
@@ -68,6 +77,8 @@ public class MonitorItem implements Task {
         this.monitorService = SpringUtil.getBean(MonitorService.class);
         this.nodeService = SpringUtil.getBean(NodeService.class);
         this.projectInfoCacheService = SpringUtil.getBean(ProjectInfoCacheService.class);
+        this.monitorExecutorPoolService = SpringUtil.getBean(MonitorExecutorPoolService.class);
+        this.serverConfig = SpringUtil.getBean(ServerConfig.class);
         this.monitorId = id;
     }
 
@@ -76,88 +87,179 @@ public class MonitorItem implements Task {
         // 重新查询
         this.monitorModel = monitorService.getByKey(monitorId);
         List<MonitorModel.NodeProject> nodeProjects = monitorModel.projects();
-        //
-        List<Boolean> collect = nodeProjects.stream().map(nodeProject -> {
-            String nodeId = nodeProject.getNode();
-            NodeModel nodeModel = nodeService.getByKey(nodeId);
-            if (nodeModel == null) {
-                return true;
+        // 一次加载所有项目上次的状态
+        this.preStatus = dbMonitorNotifyLogService.listLastStatus(monitorId);
+        int timeout = serverConfig.getNode().getMonitorNodeTimeout();
+        // 按节点并发查询
+        Map<NodeModel, List<String>> nodeProjectMap = new LinkedHashMap<>();
+        Map<NodeModel, Future<Map<String, JsonMessage<JSONObject>>>> futureMap = new HashMap<>();
+        Map<NodeModel, Exception> exceptionMap = new HashMap<>();
+        for (MonitorModel.NodeProject nodeProject : nodeProjects) {
+            NodeModel nodeModel = nodeService.getByKey(nodeProject.getNode());
+            List<String> projects = nodeProject.getProjects();
+            if (nodeModel == null || CollUtil.isEmpty(projects)) {
+                continue;
             }
-            return this.reqNodeStatus(nodeModel, nodeProject.getProjects());
-        }).filter(aBoolean -> !aBoolean).collect(Collectors.toList());
-        boolean allRun = CollUtil.isEmpty(collect);
+            nodeProjectMap.put(nodeModel, projects);
+            try {
+                futureMap.put(nodeModel, monitorExecutorPoolService.submit(() -> this.reqNodeStatus(nodeModel, projects)));
+            } catch (RejectedExecutionException e) {
+                exceptionMap.put(nodeModel, e);
+            }
+        }
+        long deadline = SystemClock.now() + TimeUnit.SECONDS.toMillis(timeout);
+        boolean allRun = true;
+        for (Map.Entry<NodeModel, List<String>> entry : nodeProjectMap.entrySet()) {
+            NodeModel nodeModel = entry.getKey();
+            Map<String, JsonMessage<JSONObject>> statusMap = null;
+            Exception exception = exceptionMap.get(nodeModel);
+            Future<Map<String, JsonMessage<JSONObject>>> future = futureMap.get(nodeModel);
+            if (future != null) {
+                try {
+                    statusMap = future.get(Math.max(deadline - SystemClock.now(), 0), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    future.cancel(true);
+                    exception = new IllegalStateException(StrUtil.format(I18nMessageUtil.get("i18n.monitor_node_timeout.412d"), nodeModel.getName(), timeout), e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    exception = cause instanceof Exception ? (Exception) cause : e;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    exception = e;
+                }
+            }
+            boolean nodeRun;
+            if (statusMap != null) {
+                nodeRun = this.checkNodeStatus(nodeModel, entry.getValue(), statusMap);
+            } else {
+                nodeRun = this.nodeStatusError(nodeModel, entry.getValue(), exception);
+            }
+            allRun = allRun && nodeRun;
+        }
         // 报警状态
         monitorService.setAlarm(monitorModel.getId(), !allRun);
     }
 
+    /**
+     * 查询节点下项目的运行状态，一个节点只发起一次请求
+     *
+     * @param nodeModel 节点
+     * @param projects  项目
+     * @return 项目id -> 状态
+     */
+    private Map<String, JsonMessage<JSONObject>> reqNodeStatus(NodeModel nodeModel, List<String> projects) {
+        Map<String, JsonMessage<JSONObject>> result = new HashMap<>(projects.size());
+        JsonMessage<JSONObject> jsonMessage = NodeForward.request(nodeModel, NodeUrl.Manage_GetProjectStatusBatch, "ids", JSONArray.toJSONString(projects));
+        if (jsonMessage.getCode() == HttpStatus.NOT_FOUND.value()) {
+            // 旧版本插件端没有批量接口
+            log.debug(I18nMessageUtil.get("i18n.monitor_batch_status_unsupported.c2e0"), nodeModel.getName());
+            for (String id : projects) {
+                result.put(id, NodeForward.request(nodeModel, NodeUrl.Manage_GetProjectStatus, "id", id));
+            }
+            return result;
+        }
+        JSONObject data = jsonMessage.getData();
+        for (String id : projects) {
+            JSONObject item = data == null ? null : data.getJSONObject(id);
+            if (!jsonMessage.success() || item == null) {
+                result.put(id, jsonMessage);
+            } else if (item.containsKey("error")) {
+                // 项目不存在，和单个查询接口的参数异常状态码保持一致
+                result.put(id, new JsonMessage<>(405, item.getString("error")));
+            } else {
+                result.put(id, new JsonMessage<>(200, StrUtil.EMPTY, item));
+            }
+        }
+        return result;
+    }
+
     /**
      * 检查节点节点对信息
      *
      * @param nodeModel 节点
      * @param projects  项目
+     * @param statusMap 项目状态
      * @return true 所有项目都正常
      */
-    private boolean reqNodeStatus(NodeModel nodeModel, List<String> projects) {
-        if (projects == null || projects.isEmpty()) {
-            return true;
-        }
+    private boolean checkNodeStatus(NodeModel nodeModel, List<String> projects, Map<String, JsonMessage<JSONObject>> statusMap) {
         List<Boolean> collect = projects.stream().map(id -> {
-            //
-            String title;
-            String context;
-            try {
-                //查询项目运行状态
-                JsonMessage<JSONObject> jsonMessage = NodeForward.request(nodeModel, NodeUrl.Manage_GetProjectStatus, "id", id);
-                if (jsonMessage.success()) {
-                    JSONObject jsonObject = jsonMessage.getData();
-                    int pid = jsonObject.getIntValue("pId");
-                    String statusMsg = jsonObject.getString("statusMsg");
-                    boolean runStatus = this.checkNotify(monitorModel, nodeModel, id, pid > 0, statusMsg);
-                    // 检查副本
-                    List<Boolean> booleanList = null;
-                    JSONArray copys = jsonObject.getJSONArray("copys");
-                    if (CollUtil.isNotEmpty(copys)) {
-                        booleanList = copys.stream()
-                            .map(o -> {
-                                JSONObject jsonObject1 = (JSONObject) o;
+            JsonMessage<JSONObject> jsonMessage = statusMap.get(id);
+            if (jsonMessage != null && jsonMessage.success()) {
+                JSONObject jsonObject = jsonMessage.getData();
+                int pid = jsonObject.getIntValue("pId");
+                String statusMsg = jsonObject.getString("statusMsg");
+                boolean runStatus = this.checkNotify(monitorModel, nodeModel, id, pid > 0, statusMsg);
+                // 检查副本
+                List<Boolean> booleanList = null;
+                JSONArray copys = jsonObject.getJSONArray("copys");
+                if (CollUtil.isNotEmpty(copys)) {
+                    booleanList = copys.stream()
+                        .map(o -> {
+                            JSONObject jsonObject1 = (JSONObject) o;
 
-                                boolean status = jsonObject1.getBooleanValue("status");
-                                return MonitorItem.this.checkNotify(monitorModel, nodeModel, id, status, StrUtil.EMPTY);
-                            })
-                            .filter(aBoolean -> !aBoolean)
-                            .collect(Collectors.toList());
-                    }
-                    return runStatus && CollUtil.isEmpty(booleanList);
-                } else {
-                    title = StrUtil.format(I18nMessageUtil.get("i18n.node_status_code_abnormal.4d22"), nodeModel.getName(), jsonMessage.getCode());
-                    context = jsonMessage.toString();
+                            boolean status = jsonObject1.getBooleanValue("status");
+                            return MonitorItem.this.checkNotify(monitorModel, nodeModel, id, status, StrUtil.EMPTY);
+                        })
+                        .filter(aBoolean -> !aBoolean)
+                        .collect(Collectors.toList());
                 }
-            } catch (Exception e) {
-                log.error(I18nMessageUtil.get("i18n.monitor_node_exception.6ff1"), nodeModel.getName(), e.getMessage());
-                //
-                title = StrUtil.format(I18nMessageUtil.get("i18n.node_running_status_abnormal.3160"), nodeModel.getName());
-                context = ExceptionUtil.stacktraceToString(e);
+                return runStatus && CollUtil.isEmpty(booleanList);
             }
-            // 获取上次状态
-            boolean pre = this.getPreStatus(monitorModel.getId(), nodeModel.getId(), id);
-            if (pre) {
-                // 上次正常
-                MonitorNotifyLog monitorNotifyLog = new MonitorNotifyLog();
-                monitorNotifyLog.setStatus(false);
-                monitorNotifyLog.setTitle(title);
-                monitorNotifyLog.setContent(context);
-                monitorNotifyLog.setCreateTime(System.currentTimeMillis());
-                monitorNotifyLog.setNodeId(nodeModel.getId());
-                monitorNotifyLog.setProjectId(id);
-                monitorNotifyLog.setMonitorId(monitorModel.getId());
-                //
-                this.notifyMsg(nodeModel, monitorNotifyLog);
-            }
-            return false;
+            int code = jsonMessage == null ? 500 : jsonMessage.getCode();
+            String title = StrUtil.format(I18nMessageUtil.get("i18n.node_status_code_abnormal.4d22"), nodeModel.getName(), code);
+            String context = String.valueOf(jsonMessage);
+            return this.projectStatusError(nodeModel, id, title, context);
         }).filter(aBoolean -> !aBoolean).collect(Collectors.toList());
         return CollUtil.isEmpty(collect);
     }
 
+    /**
+     * 节点请求异常，节点下所有项目都标记为异常
+     *
+     * @param nodeModel 节点
+     * @param projects  项目
+     * @param e         异常
+     * @return false
+     */
+    private boolean nodeStatusError(NodeModel nodeModel, List<String> projects, Exception e) {
+        log.error(I18nMessageUtil.get("i18n.monitor_node_exception.6ff1"), nodeModel.getName(), e.getMessage());
+        //
+        String title = StrUtil.format(I18nMessageUtil.get("i18n.node_running_status_abnormal.3160"), nodeModel.getName());
+        String context = ExceptionUtil.stacktraceToString(e);
+        for (String id : projects) {
+            this.projectStatusError(nodeModel, id, title, context);
+        }
+        return false;
+    }
+
+    /**
+     * 无法获取项目状态
+     *
+     * @param nodeModel 节点
+     * @param id        项目id
+     * @param title     标题
+     * @param context   内容
+     * @return false
+     */
+    private boolean projectStatusError(NodeModel nodeModel, String id, String title, String context) {
+        // 获取上次状态
+        boolean pre = this.getPreStatus(nodeModel.getId(), id);
+        if (pre) {
+            // 上次正常
+            MonitorNotifyLog monitorNotifyLog = new MonitorNotifyLog();
+            monitorNotifyLog.setStatus(false);
+            monitorNotifyLog.setTitle(title);
+            monitorNotifyLog.setContent(context);
+            monitorNotifyLog.setCreateTime(System.currentTimeMillis());
+            monitorNotifyLog.setNodeId(nodeModel.getId());
+            monitorNotifyLog.setProjectId(id);
+            monitorNotifyLog.setMonitorId(monitorModel.getId());
+            //
+            this.notifyMsg(nodeModel, monitorNotifyLog);
+        }
+        return false;
+    }
+
     /**
      * 检查状态
      *
@@ -169,7 +271,7 @@ public class MonitorItem implements Task {
     private boolean checkNotify(MonitorModel monitorModel, NodeModel nodeModel, String id, boolean runStatus, String statusMsg) {
         // 获取上次状态
         String copyMsg = StrUtil.EMPTY;
-        boolean pre = this.getPreStatus(monitorModel.getId(), nodeModel.getId(), id);
+        boolean pre = this.getPreStatus(nodeModel.getId(), id);
         String title = null;
         String context = null;
         //查询项目运行状态
@@ -223,22 +325,14 @@ public class MonitorItem implements Task {
     /**
      * 获取上次是否也为异常状态
      *
-     * @param monitorId 监控id
      * @param nodeId    节点id
      * @param projectId 项目id
      * @return true 为正常状态,false 异常状态
      */
-    private boolean getPreStatus(String monitorId, String nodeId, String projectId) {
+    private boolean getPreStatus(String nodeId, String projectId) {
         // 检查是否已经触发通知
-
-        MonitorNotifyLog monitorNotifyLog = new MonitorNotifyLog();
-        monitorNotifyLog.setNodeId(nodeId);
-        monitorNotifyLog.setProjectId(projectId);
-        monitorNotifyLog.setMonitorId(monitorId);
-
-        List<MonitorNotifyLog> queryList = dbMonitorNotifyLogService.queryList(monitorNotifyLog, 1, new Order("createTime", Direction.DESC));
-        MonitorNotifyLog entity1 = CollUtil.getFirst(queryList);
-        return entity1 == null || entity1.status();
+        Boolean status = preStatus.get(DbMonitorNotifyLogService.lastStatusKey(nodeId, projectId));
+        return status == null || status;
     }
 
     private void notifyMsg(NodeModel nodeModel, MonitorNotifyLog monitorNotifyLog) {
@@ -247,6 +341,10 @@ public class MonitorItem implements Task {
         if (monitorNotifyLog.getTitle() == null) {
             return;
         }
+        if (CollUtil.isNotEmpty(notify) || StrUtil.isNotEmpty(monitorModel.getWebhook())) {
+            // 会写入通知记录，同步更新上次状态
+            preStatus.put(DbMonitorNotifyLogService.lastStatusKey(monitorNotifyLog.getNodeId(), monitorNotifyLog.getProjectId()), monitorNotifyLog.status());
+        }
         ProjectInfoCacheModel projectInfoCacheModel = projectInfoCacheService.getData(nodeModel.getId(), monitorNotifyLog.getProjectId());
         monitorNotifyLog.setWorkspaceId(projectInfoCacheModel.getWorkspaceId());
         //
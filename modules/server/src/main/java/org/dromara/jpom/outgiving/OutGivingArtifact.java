@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.outgiving;
+
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.extra.spring.SpringUtil;
+import cn.keepbx.jpom.model.JsonMessage;
+import com.alibaba.fastjson2.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.common.forward.NodeForward;
+import org.dromara.jpom.common.forward.NodeUrl;
+import org.dromara.jpom.common.forward.ShardingFileDigest;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.model.data.NodeModel;
+import org.dromara.jpom.system.ServerConfig;
+import org.springframework.util.Assert;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+
+/**
+ * 按机器去重分发文件
+ * <p>
+ * 整个文件的签名在一次分发中只计算一次。每台机器（节点地址相同）先查询节点的分发文件仓库中是否已经存在该文件，
+ * 不存在时只上传一次到仓库，该机器上的各个项目再从仓库中安装
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class OutGivingArtifact implements AutoCloseable {
+
+    private final File file;
+    private final FileChannel channel;
+    private final ShardingFileDigest fileDigest;
+    /**
+     * 节点地址 -> 文件是否已经在节点仓库中
+     */
+    private final Map<String, CompletableFuture<Boolean>> machineMap = new ConcurrentHashMap<>();
+    private volatile boolean started;
+
+    private OutGivingArtifact(File file, long chunkSize) throws IOException {
+        this.file = file;
+        long length = file.length();
+        int total = (int) Math.ceil((double) length / chunkSize);
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.fileDigest = new ShardingFileDigest(channel, length, chunkSize, total);
+    }
+
+    /**
+     * 创建分发文件
+     *
+     * @param file 分发的文件
+     * @return 文件不存在时返回 null
+     */
+    public static OutGivingArtifact create(File file) {
+        if (file == null || file.length() <= 0) {
+            return null;
+        }
+        int sliceSize = SpringUtil.getBean(ServerConfig.class).getNode().getUploadFileSliceSize();
+        try {
+            return new OutGivingArtifact(file, DataSize.ofMegabytes(sliceSize).toBytes());
+        } catch (IOException e) {
+            log.error(I18nMessageUtil.get("i18n.relay_read_file_failed.30b1"), e);
+            return null;
+        }
+    }
+
+    /**
+     * 从节点的仓库安装文件到项目，同一台机器只有第一个项目上传文件，其他项目等待上传完成
+     *
+     * @param nodeModel      节点
+     * @param uploadData     上传参数
+     * @param streamProgress 进度回调
+     * @return 返回 null 时需要改为直接上传（节点不支持仓库或者上传到仓库失败）
+     */
+    public JsonMessage<String> install(NodeModel nodeModel, JSONObject uploadData, BiConsumer<Long, Long> streamProgress) {
+        this.start();
+        String url = NodeForward.parseNodeInfo(nodeModel).url();
+        CompletableFuture<Boolean> created = new CompletableFuture<>();
+        CompletableFuture<Boolean> future = machineMap.putIfAbsent(url, created);
+        if (future == null) {
+            future = created;
+            try {
+                created.complete(this.prepare(nodeModel, streamProgress));
+            } catch (Exception e) {
+                log.warn(I18nMessageUtil.get("i18n.artifact_upload_failed.e14d"), nodeModel.getName(), e.getMessage());
+                created.complete(false);
+            }
+        }
+        try {
+            if (!future.get()) {
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+        long length = file.length();
+        streamProgress.accept(length, length);
+        JSONObject data = uploadData.clone();
+        data.put("artifactDigest", fileDigest.getFileMd5());
+        return NodeForward.request(nodeModel, NodeUrl.Manage_File_Sharding_Merge, data);
+    }
+
+    /**
+     * 开始计算文件签名，全部由中继分发完成时不需要计算
+     */
+    private void start() {
+        if (started) {
+            return;
+        }
+        synchronized (this) {
+            if (started) {
+                return;
+            }
+            started = true;
+        }
+        fileDigest.start();
+    }
+
+    /**
+     * 确保节点的仓库中存在该文件
+     *
+     * @param nodeModel      节点
+     * @param streamProgress 进度回调
+     * @return false 节点不支持仓库或者上传失败
+     */
+    private boolean prepare(NodeModel nodeModel, BiConsumer<Long, Long> streamProgress) {
+        String digest = fileDigest.getFileMd5();
+        try {
+            JsonMessage<List<String>> message = NodeForward.request(nodeModel, NodeUrl.Manage_File_Artifact_Exists, "digests", digest);
+            Assert.state(message.success(), message.getMsg());
+            if (message.getData() != null && message.getData().contains(digest)) {
+                return true;
+            }
+        } catch (Exception e) {
+            // 旧版本插件端
+            log.debug("artifact exists {} {}", nodeModel.getName(), e.getMessage());
+            return false;
+        }
+        try {
+            JsonMessage<String> message = NodeForward.requestSharding(nodeModel, NodeUrl.Manage_File_Upload_Sharding2, new JSONObject(), file, fileDigest,
+                sliceData -> NodeForward.request(nodeModel, NodeUrl.Manage_File_Artifact_Merge, sliceData),
+                streamProgress);
+            Assert.state(message.success(), message.getMsg());
+            return true;
+        } catch (Exception e) {
+            log.warn(I18nMessageUtil.get("i18n.artifact_upload_failed.e14d"), nodeModel.getName(), e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        IoUtil.close(channel);
+    }
+}
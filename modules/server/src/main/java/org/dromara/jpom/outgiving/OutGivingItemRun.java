@@ -17,6 +17,7 @@ import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.extra.spring.SpringUtil;
 import cn.keepbx.jpom.model.JsonMessage;
 import com.alibaba.fastjson2.JSONObject;
+import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
@@ -30,6 +31,7 @@ import org.dromara.jpom.service.outgiving.DbOutGivingLogService;
 
 import java.io.File;
 import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
 
 /**
  * @author bwcx_jzy
@@ -41,6 +43,7 @@ public class OutGivingItemRun implements Callable<OutGivingNodeProject.Status> {
 
     private final String outGivingId;
     private final OutGivingNodeProject outGivingNodeProject;
+    @Getter
     private final NodeModel nodeModel;
     private final File file;
     private final AfterOpt afterOpt;
@@ -50,6 +53,14 @@ public class OutGivingItemRun implements Callable<OutGivingNodeProject.Status> {
     private final String secondaryDirectory;
     private final Boolean closeFirst;
     private int stripComponents;
+    /**
+     * 中继分发，为空时直接上传到节点
+     */
+    private OutGivingRelay relay;
+    /**
+     * 按机器去重的分发文件，为空时每个项目单独上传
+     */
+    private OutGivingArtifact artifact;
 
     public OutGivingItemRun(OutGivingModel item,
                             OutGivingNodeProject outGivingNodeProject,
@@ -84,26 +95,42 @@ public class OutGivingItemRun implements Callable<OutGivingNodeProject.Status> {
             }
             this.updateStatus(this.outGivingId, OutGivingNodeProject.Status.Ing, I18nMessageUtil.get("i18n.start_distribution.bce5"));
             //
-            JsonMessage<String> jsonMessage = OutGivingRun.fileUpload(file, this.secondaryDirectory,
-                this.outGivingNodeProject.getProjectId(),
-                unzip,
-                afterOpt,
-                this.nodeModel, this.clearOld,
-                this.sleepTime, this.closeFirst, this.stripComponents, (total, progressSize) -> {
+            BiConsumer<Long, Long> streamProgress = (total, progressSize) -> {
 
-                    String logId = OutGivingRun.getLogId(outGivingId, outGivingNodeProject);
-                    //
-                    OutGivingLog outGivingLog = new OutGivingLog();
-                    outGivingLog.setId(logId);
-                    outGivingLog.setFileSize(total);
-                    outGivingLog.setProgressSize(progressSize);
-                    //
-                    DbOutGivingLogService dbOutGivingLogService = SpringUtil.getBean(DbOutGivingLogService.class);
-                    dbOutGivingLogService.updateById(outGivingLog);
-                });
+                String logId = OutGivingRun.getLogId(outGivingId, outGivingNodeProject);
+                //
+                OutGivingLog outGivingLog = new OutGivingLog();
+                outGivingLog.setId(logId);
+                outGivingLog.setFileSize(total);
+                outGivingLog.setProgressSize(progressSize);
+                //
+                DbOutGivingLogService dbOutGivingLogService = SpringUtil.getBean(DbOutGivingLogService.class);
+                dbOutGivingLogService.updateById(outGivingLog);
+            };
+            JsonMessage<String> jsonMessage = null;
+            JSONObject uploadData = OutGivingRun.createUploadData(this.secondaryDirectory, this.outGivingNodeProject.getProjectId(),
+                unzip, afterOpt, this.clearOld, this.sleepTime, this.closeFirst, this.stripComponents);
+            if (relay != null) {
+                jsonMessage = relay.install(this.nodeModel, uploadData, streamProgress);
+            }
+            boolean useArtifact = false;
+            if (jsonMessage == null && artifact != null) {
+                jsonMessage = artifact.install(this.nodeModel, uploadData, streamProgress);
+                useArtifact = jsonMessage != null;
+            }
+            if (jsonMessage == null) {
+                jsonMessage = OutGivingRun.fileUpload(file, this.secondaryDirectory,
+                    this.outGivingNodeProject.getProjectId(),
+                    unzip,
+                    afterOpt,
+                    this.nodeModel, this.clearOld,
+                    this.sleepTime, this.closeFirst, this.stripComponents, streamProgress);
+            }
             result = jsonMessage.success() ? OutGivingNodeProject.Status.Ok : OutGivingNodeProject.Status.Fail;
 
             JSONObject jsonObject = jsonMessage.toJson();
+            jsonObject.put("upload_relay", relay != null);
+            jsonObject.put("upload_artifact", useArtifact);
             jsonObject.put("upload_duration", new BetweenFormatter(SystemClock.now() - time, BetweenFormatter.Level.MILLISECOND, 2).format());
             jsonObject.put("upload_file_size", fileSize);
             this.updateStatus(this.outGivingId, result, jsonObject.toString());
@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.outgiving;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.date.SystemClock;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.extra.spring.SpringUtil;
+import cn.keepbx.jpom.model.JsonMessage;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.JpomApplication;
+import org.dromara.jpom.common.forward.NodeForward;
+import org.dromara.jpom.common.forward.NodeUrl;
+import org.dromara.jpom.common.forward.ShardingFileDigest;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.configuration.NodeConfig;
+import org.dromara.jpom.model.RelayNode;
+import org.dromara.jpom.model.data.NodeModel;
+import org.dromara.jpom.system.ServerConfig;
+import org.dromara.jpom.transport.FileRegionResource;
+import org.dromara.jpom.transport.INodeInfo;
+import org.dromara.jpom.util.LogRecorder;
+import org.dromara.jpom.util.RelayForwarder;
+import org.springframework.util.Assert;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+/**
+ * 中继分发
+ * <p>
+ * 服务端只把文件分片上传到前几个节点，节点收到分片后立即转发给分配的子节点（树形），服务端的上传量不再随节点数增长。
+ * 转发失败的节点由上级直接转发给其子节点，每一级都会校验分片签名，节点收齐分片后再安装到项目
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class OutGivingRelay extends RelayForwarder implements AutoCloseable {
+
+    private static volatile ExecutorService relayExecutor;
+
+    private final String relayId = IdUtil.fastSimpleUUID();
+    /**
+     * 本次中继的令牌，节点之间转发分片只使用该令牌，不转发节点授权信息
+     */
+    private final String relayToken = RandomUtil.randomString(32);
+    private final File file;
+    private final long length;
+    private final long chunkSize;
+    private final int total;
+    private final int stallTimeout;
+    /**
+     * 节点地址 -> 节点，同一台机器只转发一次
+     */
+    private final Map<String, NodeModel> nodeMap;
+    private final FileChannel channel;
+    private final ShardingFileDigest fileDigest;
+    private volatile boolean started;
+    private volatile Exception error;
+
+    private OutGivingRelay(File file, NodeConfig nodeConfig, Map<String, NodeModel> nodeMap, List<RelayNode> seeds) throws IOException {
+        super(seeds);
+        this.file = file;
+        this.length = file.length();
+        this.chunkSize = DataSize.ofMegabytes(nodeConfig.getUploadFileSliceSize()).toBytes();
+        this.total = (int) Math.ceil((double) length / chunkSize);
+        this.stallTimeout = nodeConfig.getRelayStallTimeout();
+        this.nodeMap = nodeMap;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.fileDigest = new ShardingFileDigest(channel, length, chunkSize, total);
+    }
+
+    /**
+     * 创建中继分发
+     *
+     * @param file        分发的文件
+     * @param nodeModels  分发的节点
+     * @param logRecorder 分发日志
+     * @return 未开启中继分发或者节点数较少时返回 null
+     */
+    public static OutGivingRelay create(File file, Collection<NodeModel> nodeModels, LogRecorder logRecorder) {
+        NodeConfig nodeConfig = SpringUtil.getBean(ServerConfig.class).getNode();
+        int fanout = nodeConfig.getRelayFanout();
+        if (fanout <= 0 || file == null || file.length() <= 0) {
+            return null;
+        }
+        Map<String, NodeModel> nodeMap = new LinkedHashMap<>();
+        List<RelayNode> relayNodes = new ArrayList<>();
+        for (NodeModel nodeModel : nodeModels) {
+            if (nodeModel == null) {
+                continue;
+            }
+            INodeInfo nodeInfo = NodeForward.parseNodeInfo(nodeModel);
+            if (nodeMap.putIfAbsent(nodeInfo.url(), nodeModel) != null) {
+                continue;
+            }
+            RelayNode relayNode = new RelayNode();
+            relayNode.setName(nodeModel.getName());
+            relayNode.setUrl(nodeInfo.url());
+            relayNode.setScheme(nodeInfo.scheme());
+            relayNodes.add(relayNode);
+        }
+        int size = relayNodes.size();
+        if (size <= fanout) {
+            return null;
+        }
+        // 按顺序组成 fanout 叉树，前 fanout 个节点由服务端直接上传
+        for (int i = 0; i < size; i++) {
+            int from = fanout * (i + 1);
+            if (from < size) {
+                relayNodes.get(i).setChildren(new ArrayList<>(relayNodes.subList(from, Math.min(from + fanout, size))));
+            }
+        }
+        try {
+            OutGivingRelay relay = new OutGivingRelay(file, nodeConfig, nodeMap, relayNodes.subList(0, fanout));
+            Optional.ofNullable(logRecorder).ifPresent(logRecorder1 -> logRecorder1.system(I18nMessageUtil.get("i18n.relay_distribute_start.f2b6"), size, fanout));
+            return relay;
+        } catch (IOException e) {
+            log.error(I18nMessageUtil.get("i18n.relay_read_file_failed.30b1"), e);
+            return null;
+        }
+    }
+
+    /**
+     * 开始上传分片，边计算签名边上传
+     */
+    private void start() {
+        if (started) {
+            return;
+        }
+        synchronized (this) {
+            if (started) {
+                return;
+            }
+            started = true;
+        }
+        fileDigest.start();
+        ThreadUtil.execute(() -> {
+            try {
+                this.register();
+                for (int i = 0; i < total; i++) {
+                    fileDigest.getSliceMd5(i);
+                    this.onSlice(i);
+                }
+            } catch (Exception e) {
+                log.error(I18nMessageUtil.get("i18n.relay_read_file_failed.30b1"), e);
+                error = e;
+            }
+        });
+    }
+
+    /**
+     * 在所有节点登记本次中继的令牌，有效期按照无进度超时时间计算（每次使用后重新计算）
+     * <p>
+     * 登记失败的节点在上级转发时会失败，由上级直接转发给其子节点，该节点等待超时后改为直接上传
+     */
+    private void register() {
+        int expire = stallTimeout * 2;
+        for (NodeModel nodeModel : nodeMap.values()) {
+            try {
+                JsonMessage<String> message = NodeForward.request(nodeModel, NodeUrl.Manage_File_Relay_Register, "relayId", relayId, "token", relayToken, "expire", expire);
+                Assert.state(message.success(), message.getMsg());
+            } catch (Exception e) {
+                log.warn(I18nMessageUtil.get("i18n.relay_register_failed.2c2f"), nodeModel.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 等待节点收齐分片后安装到项目
+     *
+     * @param nodeModel      节点
+     * @param uploadData     上传参数
+     * @param streamProgress 进度回调
+     * @return 返回 null 时需要改为直接上传
+     */
+    public JsonMessage<String> install(NodeModel nodeModel, JSONObject uploadData, BiConsumer<Long, Long> streamProgress) {
+        this.start();
+        int lastReceived = -1;
+        long lastChange = SystemClock.now();
+        while (true) {
+            if (error != null || Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            int received;
+            try {
+                JsonMessage<JSONObject> message = NodeForward.request(nodeModel, NodeUrl.Manage_File_Relay_Status, "relayId", relayId);
+                Assert.state(message.success(), message.getMsg());
+                received = message.getData().getIntValue("received");
+            } catch (Exception e) {
+                log.warn(I18nMessageUtil.get("i18n.relay_status_failed.33cc"), nodeModel.getName(), e.getMessage());
+                return null;
+            }
+            if (received != lastReceived) {
+                lastReceived = received;
+                lastChange = SystemClock.now();
+                streamProgress.accept(length, Math.min(length, received * chunkSize));
+            }
+            if (received >= total) {
+                break;
+            }
+            if (SystemClock.now() - lastChange > TimeUnit.SECONDS.toMillis(stallTimeout)) {
+                log.warn(I18nMessageUtil.get("i18n.relay_stall_fallback.864f"), nodeModel.getName(), stallTimeout);
+                return null;
+            }
+            if (!ThreadUtil.sleep(1000)) {
+                return null;
+            }
+        }
+        JSONObject data = uploadData.clone();
+        data.put("relayId", relayId);
+        data.put("totalSlice", total);
+        data.put("fileSumMd5", fileDigest.getFileMd5());
+        return NodeForward.request(nodeModel, NodeUrl.Manage_File_Sharding_Merge, data);
+    }
+
+    @Override
+    protected void send(RelayNode node, int slice) {
+        NodeModel nodeModel = nodeMap.get(node.getUrl());
+        long position = slice * chunkSize;
+        JSONObject data = new JSONObject();
+        data.put("file", new FileRegionResource(channel, position, Math.min(chunkSize, length - position), file.getName() + StrUtil.DOT + slice));
+        data.put("relayId", relayId);
+        data.put("totalSlice", total);
+        data.put("nowSlice", slice);
+        data.put("sliceMd5", fileDigest.getSliceMd5(slice));
+        data.put("children", JSONArray.toJSONString(CollUtil.emptyIfNull(node.getChildren())));
+        JsonMessage<String> message = NodeForward.request(nodeModel, NodeUrl.Manage_File_Relay_Sharding, data);
+        Assert.state(message.success(), message.getMsg());
+    }
+
+    @Override
+    protected Executor executor() {
+        if (relayExecutor == null) {
+            synchronized (OutGivingRelay.class) {
+                if (relayExecutor == null) {
+                    NodeConfig nodeConfig = SpringUtil.getBean(ServerConfig.class).getNode();
+                    int poolSize = Math.max(nodeConfig.getUploadFileConcurrent(), nodeConfig.getRelayFanout());
+                    ThreadPoolExecutor executor = ExecutorBuilder.create()
+                        .setCorePoolSize(poolSize)
+                        .setMaxPoolSize(poolSize)
+                        .setAllowCoreThreadTimeOut(true)
+                        .setWorkQueue(new LinkedBlockingQueue<>())
+                        .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("jpom-outgiving-relay-").setDaemon(true).build())
+                        .build();
+                    JpomApplication.register("outgiving-relay", executor);
+                    relayExecutor = executor;
+                }
+            }
+        }
+        return relayExecutor;
+    }
+
+    /**
+     * 分发结束，删除节点中的中继数据
+     *
+     * @param logRecorder 分发日志
+     */
+    public void close(LogRecorder logRecorder) {
+        List<String> failedNodes = this.failedNodes();
+        if (logRecorder != null && !failedNodes.isEmpty()) {
+            logRecorder.system(I18nMessageUtil.get("i18n.relay_failed_nodes.6d80"), CollUtil.join(failedNodes, StrUtil.COMMA));
+        }
+        this.close();
+    }
+
+    @Override
+    public void close() {
+        for (NodeModel nodeModel : nodeMap.values()) {
+            try {
+                NodeForward.request(nodeModel, NodeUrl.Manage_File_Relay_Clear, "relayId", relayId);
+            } catch (Exception e) {
+                log.debug("relay clear {} {}", nodeModel.getName(), e.getMessage());
+            }
+        }
+        IoUtil.close(channel);
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.outgiving;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.date.BetweenFormatter;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.date.SystemClock;
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.util.NumberUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.extra.spring.SpringUtil;
+import cn.keepbx.jpom.model.JsonMessage;
+import com.alibaba.fastjson2.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.common.forward.NodeForward;
+import org.dromara.jpom.common.forward.NodeUrl;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.model.AfterOpt;
+import org.dromara.jpom.model.data.NodeModel;
+import org.dromara.jpom.model.log.OutGivingLog;
+import org.dromara.jpom.model.outgiving.OutGivingModel;
+import org.dromara.jpom.model.outgiving.OutGivingNodeProject;
+import org.dromara.jpom.service.node.NodeService;
+import org.dromara.jpom.service.outgiving.DbOutGivingLogService;
+import org.dromara.jpom.util.LogRecorder;
+import org.dromara.jpom.util.ReadinessProbe;
+import org.springframework.util.Assert;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 顺序重启分批发布
+ * <p>
+ * 项目按批次发布，同一批次并行发布，上一批次全部就绪后立即发布下一批次，不再固定休眠。
+ * 就绪状态由节点检查项目进程、端口或者执行 tcp、http 探测，按退避间隔轮询。失败比例超过阈值后取消剩余的分发
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class OutGivingRollout {
+
+    /**
+     * 默认等待就绪超时时间（秒）
+     */
+    public static final int DEFAULT_READINESS_TIMEOUT = 120;
+    private static final long MIN_BACKOFF = TimeUnit.SECONDS.toMillis(1);
+    private static final long MAX_BACKOFF = TimeUnit.SECONDS.toMillis(10);
+
+    private final String outGivingId;
+    private final String waveSize;
+    private final String readinessProbe;
+    private final int readinessTimeout;
+    private final int failureRatio;
+    private final int intervalTime;
+    private final LogRecorder logRecorder;
+
+    public OutGivingRollout(OutGivingModel item, AfterOpt afterOpt, LogRecorder logRecorder) {
+        this.outGivingId = item.getId();
+        this.waveSize = item.getWaveSize();
+        this.readinessProbe = item.getReadinessProbe();
+        this.readinessTimeout = ObjectUtil.defaultIfNull(item.getReadinessTimeout(), DEFAULT_READINESS_TIMEOUT);
+        // 未配置时保持原有逻辑：完整顺序重启有失败即取消，顺序重启继续发布
+        this.failureRatio = ObjectUtil.defaultIfNull(item.getFailureRatio(), afterOpt == AfterOpt.Order_Must_Restart ? 0 : 100);
+        this.intervalTime = ObjectUtil.defaultIfNull(item.getIntervalTime(), 10);
+        this.logRecorder = logRecorder;
+    }
+
+    /**
+     * 检查分批发布配置
+     *
+     * @param item 分发
+     */
+    public static void check(OutGivingModel item) {
+        waveCount(item.getWaveSize(), 1);
+        ReadinessProbe.check(item.getReadinessProbe());
+        Integer timeout = item.getReadinessTimeout();
+        Assert.state(timeout == null || timeout > 0, I18nMessageUtil.get("i18n.rollout_readiness_timeout_error.cd4a"));
+        Integer ratio = item.getFailureRatio();
+        Assert.state(ratio == null || (ratio >= 0 && ratio <= 100), I18nMessageUtil.get("i18n.rollout_failure_ratio_error.7013"));
+    }
+
+    /**
+     * 计算每批发布的项目数
+     *
+     * @param waveSize 数量或者百分比
+     * @param total    项目总数
+     * @return 每批数量，至少为 1
+     */
+    public static int waveCount(String waveSize, int total) {
+        if (StrUtil.isBlank(waveSize)) {
+            return 1;
+        }
+        String value = StrUtil.trim(waveSize);
+        boolean percent = StrUtil.endWith(value, '%');
+        value = StrUtil.removeSuffix(value, "%").trim();
+        Assert.state(NumberUtil.isInteger(value), I18nMessageUtil.get("i18n.rollout_wave_size_error.709a"));
+        int size = Integer.parseInt(value);
+        Assert.state(size > 0 && (!percent || size <= 100), I18nMessageUtil.get("i18n.rollout_wave_size_error.709a"));
+        if (percent) {
+            size = (int) Math.ceil(total * size / 100D);
+        }
+        return Math.max(1, size);
+    }
+
+    /**
+     * 拆分批次
+     *
+     * @param list 要分发的项目
+     * @return 批次
+     */
+    public List<List<OutGivingNodeProject>> split(List<OutGivingNodeProject> list) {
+        return CollUtil.split(list, waveCount(waveSize, list.size()));
+    }
+
+    /**
+     * 批次开始
+     *
+     * @param waveIndex 批次，从 1 开始
+     * @param waveTotal 批次总数
+     * @param wave      批次中的项目
+     */
+    public void waveStart(int waveIndex, int waveTotal, List<OutGivingNodeProject> wave) {
+        Optional.ofNullable(logRecorder).ifPresent(logRecorder1 -> logRecorder1.system(I18nMessageUtil.get("i18n.rollout_wave_start.1560"), waveIndex, waveTotal, wave.size()));
+    }
+
+    /**
+     * 等待批次中发布成功的项目就绪，超时未就绪的项目标记为失败
+     * <p>
+     * 未配置就绪探测时只能判断进程已经启动，保留间隔时间作为进程启动后的最少等待时间（预热）
+     *
+     * @param wave     批次中的项目
+     * @param statuses 发布结果，和项目一一对应
+     * @throws InterruptedException 取消分发
+     */
+    public void awaitReady(List<OutGivingNodeProject> wave, List<OutGivingNodeProject.Status> statuses) throws InterruptedException {
+        Map<Integer, String> pending = new LinkedHashMap<>();
+        for (int i = 0; i < wave.size(); i++) {
+            if (statuses.get(i) == OutGivingNodeProject.Status.Ok) {
+                pending.put(i, null);
+            }
+        }
+        NodeService nodeService = SpringUtil.getBean(NodeService.class);
+        boolean released = !pending.isEmpty();
+        long startTime = SystemClock.now();
+        long deadline = startTime + TimeUnit.SECONDS.toMillis(readinessTimeout);
+        long backoff = MIN_BACKOFF;
+        boolean fallback = false;
+        while (!pending.isEmpty()) {
+            Iterator<Map.Entry<Integer, String>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Integer, String> entry = iterator.next();
+                OutGivingNodeProject nodeProject = wave.get(entry.getKey());
+                NodeModel nodeModel = nodeService.getByKey(nodeProject.getNodeId());
+                try {
+                    JsonMessage<JSONObject> message = NodeForward.request(nodeModel, NodeUrl.Manage_GetProjectReadiness,
+                        "id", nodeProject.getProjectId(), "probe", readinessProbe);
+                    Assert.state(message.success(), message.getMsg());
+                    JSONObject data = message.getData();
+                    if (data.getBooleanValue("ready")) {
+                        iterator.remove();
+                    } else {
+                        entry.setValue(data.getString("msg"));
+                    }
+                } catch (Exception e) {
+                    // 节点版本较低等原因无法检查就绪状态，改为固定等待
+                    log.warn(I18nMessageUtil.get("i18n.rollout_readiness_fallback.4ddd"), intervalTime, nodeProject.getNodeId(), e.getMessage());
+                    iterator.remove();
+                    fallback = true;
+                }
+            }
+            if (pending.isEmpty()) {
+                break;
+            }
+            long now = SystemClock.now();
+            if (now >= deadline) {
+                break;
+            }
+            if (!ThreadUtil.sleep(Math.min(backoff, deadline - now))) {
+                throw new InterruptedException();
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF);
+        }
+        if (fallback) {
+            if (!ThreadUtil.sleep(intervalTime, TimeUnit.SECONDS)) {
+                throw new InterruptedException();
+            }
+        } else if (released && StrUtil.isEmpty(readinessProbe)) {
+            long wait = startTime + TimeUnit.SECONDS.toMillis(intervalTime) - SystemClock.now();
+            if (wait > 0 && !ThreadUtil.sleep(wait)) {
+                throw new InterruptedException();
+            }
+        }
+        // 超时未就绪
+        DbOutGivingLogService dbOutGivingLogService = SpringUtil.getBean(DbOutGivingLogService.class);
+        for (Map.Entry<Integer, String> entry : pending.entrySet()) {
+            statuses.set(entry.getKey(), OutGivingNodeProject.Status.Fail);
+            String logId = OutGivingRun.getLogId(outGivingId, wave.get(entry.getKey()));
+            String msg = StrUtil.format(I18nMessageUtil.get("i18n.rollout_not_ready.c028"), readinessTimeout, StrUtil.emptyIfNull(entry.getValue()));
+            JSONObject jsonObject = JsonMessage.toJson(500, msg);
+            Optional.ofNullable(dbOutGivingLogService.getByKey(logId)).ifPresent(outGivingLog -> jsonObject.put("upload_result", outGivingLog.getResult()));
+            OutGivingLog outGivingLog = new OutGivingLog();
+            outGivingLog.setId(logId);
+            outGivingLog.setStatus(OutGivingNodeProject.Status.Fail.getCode());
+            outGivingLog.setResult(jsonObject.toString());
+            dbOutGivingLogService.updateById(outGivingLog);
+            Optional.ofNullable(logRecorder).ifPresent(logRecorder1 -> logRecorder1.systemWarning(msg));
+        }
+    }
+
+    /**
+     * 记录批次耗时
+     *
+     * @param waveIndex   批次，从 1 开始
+     * @param wave        批次中的项目
+     * @param startTime   开始时间
+     * @param releaseTime 发布完成时间
+     * @param readyTime   就绪时间
+     */
+    public void waveDone(int waveIndex, List<OutGivingNodeProject> wave, long startTime, long releaseTime, long readyTime) {
+        DbOutGivingLogService dbOutGivingLogService = SpringUtil.getBean(DbOutGivingLogService.class);
+        for (OutGivingNodeProject nodeProject : wave) {
+            OutGivingLog outGivingLog = new OutGivingLog();
+            outGivingLog.setId(OutGivingRun.getLogId(outGivingId, nodeProject));
+            outGivingLog.setWaveIndex(waveIndex);
+            outGivingLog.setWaveStartTime(startTime);
+            outGivingLog.setWaveReleaseTime(releaseTime);
+            outGivingLog.setWaveReadyTime(readyTime);
+            dbOutGivingLogService.updateById(outGivingLog);
+        }
+        Optional.ofNullable(logRecorder).ifPresent(logRecorder1 -> logRecorder1.system(I18nMessageUtil.get("i18n.rollout_wave_done.b3be"), waveIndex,
+            DateUtil.formatBetween(releaseTime - startTime, BetweenFormatter.Level.MILLISECOND),
+            DateUtil.formatBetween(readyTime - releaseTime, BetweenFormatter.Level.MILLISECOND)));
+    }
+
+    /**
+     * 失败比例是否超过阈值
+     *
+     * @param statuses 已经发布的项目结果
+     * @return true 取消剩余的分发
+     */
+    public boolean abort(List<OutGivingNodeProject.Status> statuses) {
+        if (statuses.isEmpty()) {
+            return false;
+        }
+        long failed = statuses.stream().filter(status -> status != OutGivingNodeProject.Status.Ok).count();
+        if (failed * 100 <= (long) failureRatio * statuses.size()) {
+            return false;
+        }
+        int ratio = (int) (failed * 100 / statuses.size());
+        Optional.ofNullable(logRecorder).ifPresent(logRecorder1 -> logRecorder1.systemWarning(I18nMessageUtil.get("i18n.rollout_abort.7137"), ratio, failureRatio));
+        return true;
+    }
+}
@@ -13,9 +13,9 @@ import cn.hutool.core.collection.CollStreamUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.date.SystemClock;
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.lang.Opt;
 import cn.hutool.core.map.SafeConcurrentHashMap;
-import cn.hutool.core.thread.ThreadUtil;
 import cn.hutool.core.util.EnumUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
@@ -52,7 +52,6 @@ import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
@@ -176,6 +175,9 @@ public class OutGivingRun {
         //
         AfterOpt afterOpt = ObjectUtil.defaultIfNull(EnumUtil.likeValueOf(AfterOpt.class, item.getAfterOpt()), AfterOpt.No);
         StrictSyncFinisher syncFinisher;
+        OutGivingRelay relay = null;
+        // 同一台机器上的多个项目只上传一次文件
+        OutGivingArtifact artifact = OutGivingArtifact.create(file);
         //
         List<OutGivingNodeProject> outGivingNodeProjects = item.outGivingNodeProjectList(select);
         Assert.notEmpty(outGivingNodeProjects, I18nMessageUtil.get("i18n.no_distribution_project.d4d1"));
@@ -189,27 +191,49 @@ public class OutGivingRun {
                 try {
                     // 截取睡眠时间
                     int sleepTime = ObjectUtil.defaultIfNull(item.getIntervalTime(), 10);
-                    //
-                    int nowIndex;
-                    for (nowIndex = 0; nowIndex < outGivingNodeProjects.size(); nowIndex++) {
-                        final OutGivingNodeProject outGivingNodeProject = outGivingNodeProjects.get(nowIndex);
-                        final OutGivingItemRun outGivingRun = new OutGivingItemRun(item, outGivingNodeProject, file, unzip, sleepTime);
-                        outGivingRun.setStripComponents(stripComponents);
-                        OutGivingNodeProject.Status status = outGivingRun.call();
-                        if (status != OutGivingNodeProject.Status.Ok) {
-                            if (afterOpt == AfterOpt.Order_Must_Restart) {
-                                // 完整重启，不再继续剩余的节点项目
-                                break;
+                    OutGivingRollout rollout = new OutGivingRollout(item, afterOpt, logRecorder);
+                    List<List<OutGivingNodeProject>> waves = rollout.split(outGivingNodeProjects);
+                    int nowIndex = 0;
+                    for (int waveIndex = 1; waveIndex <= waves.size(); waveIndex++) {
+                        List<OutGivingNodeProject> wave = waves.get(waveIndex - 1);
+                        rollout.waveStart(waveIndex, waves.size(), wave);
+                        long startTime = SystemClock.now();
+                        // 同一批次并行发布
+                        List<Future<OutGivingNodeProject.Status>> futures = wave.stream()
+                            .map(outGivingNodeProject -> {
+                                OutGivingItemRun outGivingRun = new OutGivingItemRun(item, outGivingNodeProject, file, unzip, sleepTime);
+                                outGivingRun.setStripComponents(stripComponents);
+                                outGivingRun.setArtifact(artifact);
+                                return I18nThreadUtil.execAsync(outGivingRun);
+                            })
+                            .collect(Collectors.toList());
+                        List<OutGivingNodeProject.Status> waveStatus = new ArrayList<>(wave.size());
+                        try {
+                            for (Future<OutGivingNodeProject.Status> future : futures) {
+                                waveStatus.add(future.get());
                             }
+                        } catch (InterruptedException e) {
+                            futures.forEach(future -> future.cancel(true));
+                            return;
+                        }
+                        long releaseTime = SystemClock.now();
+                        // 等待之前项目正常启动
+                        try {
+                            rollout.awaitReady(wave, waveStatus);
+                        } catch (InterruptedException e) {
+                            return;
                         }
-                        statusList.add(status);
+                        rollout.waveDone(waveIndex, wave, startTime, releaseTime, SystemClock.now());
+                        statusList.addAll(waveStatus);
                         // 删除标记 log
-                        removeLogId(id, outGivingNodeProject);
-                        // 休眠x秒 等待之前项目正常启动
-                        ThreadUtil.sleep(sleepTime, TimeUnit.SECONDS);
+                        wave.forEach(outGivingNodeProject -> removeLogId(id, outGivingNodeProject));
+                        nowIndex += wave.size();
+                        if (rollout.abort(statusList)) {
+                            break;
+                        }
                     }
                     // 取消后面的分发
-                    List<OutGivingNodeProject> cancelList = CollUtil.sub(outGivingNodeProjects, nowIndex + 1, outGivingNodeProjects.size());
+                    List<OutGivingNodeProject> cancelList = CollUtil.sub(outGivingNodeProjects, nowIndex, outGivingNodeProjects.size());
                     systemCancel(id, cancelList);
                 } catch (Exception e) {
                     log.error(I18nMessageUtil.get("i18n.distribute_exception_with_detail.28fe"), id, e);
@@ -217,10 +241,17 @@ public class OutGivingRun {
             });
         } else if (afterOpt == AfterOpt.Restart || afterOpt == AfterOpt.No) {
             syncFinisher = SyncFinisherUtil.create("outgiving:" + id, projectSize);
-
-            for (final OutGivingNodeProject outGivingNodeProject : outGivingNodeProjects) {
-                final OutGivingItemRun outGivingItemRun = new OutGivingItemRun(item, outGivingNodeProject, file, unzip, null);
+            List<OutGivingItemRun> itemRuns = outGivingNodeProjects.stream()
+                .map(outGivingNodeProject -> new OutGivingItemRun(item, outGivingNodeProject, file, unzip, null))
+                .collect(Collectors.toList());
+            // 节点较多时由节点逐级转发文件
+            relay = OutGivingRelay.create(file, itemRuns.stream().map(OutGivingItemRun::getNodeModel).collect(Collectors.toList()), logRecorder);
+            for (int i = 0; i < projectSize; i++) {
+                final OutGivingNodeProject outGivingNodeProject = outGivingNodeProjects.get(i);
+                final OutGivingItemRun outGivingItemRun = itemRuns.get(i);
                 outGivingItemRun.setStripComponents(stripComponents);
+                outGivingItemRun.setRelay(relay);
+                outGivingItemRun.setArtifact(artifact);
                 syncFinisher.addWorker(() -> {
                     try {
                         statusList.add(outGivingItemRun.call());
@@ -232,18 +263,20 @@ public class OutGivingRun {
                 });
             }
         } else {
-            //
+            IoUtil.close(artifact);
             throw new IllegalArgumentException("Not implemented " + afterOpt.getDesc());
         }
         String userId = Optional.ofNullable(userModel).map(BaseIdModel::getId).orElse(Const.SYSTEM_ID);
         // 更新维准备中
         allPrepare(userId, item, outGivingNodeProjects);
         // 异步执行
-        Callable<OutGivingModel.Status> callable = createRunnable(syncFinisher, statusList, projectSize);
+        Callable<OutGivingModel.Status> callable = createRunnable(syncFinisher, relay, artifact, statusList, projectSize);
         return I18nThreadUtil.execAsync(callable);
     }
 
     private Callable<OutGivingModel.Status> createRunnable(StrictSyncFinisher syncFinisher,
+                                                           OutGivingRelay relay,
+                                                           OutGivingArtifact artifact,
                                                            List<OutGivingNodeProject.Status> statusList, int projectSize) {
         return () -> {
             OutGivingModel.Status status = null;
@@ -273,6 +306,8 @@ public class OutGivingRun {
                 log.error(I18nMessageUtil.get("i18n.distribute_thread_exception.9725"), e);
                 updateStatus(id, OutGivingModel.Status.FAIL, e.getMessage(), userModel);
             } finally {
+                Optional.ofNullable(relay).ifPresent(relay1 -> relay1.close(logRecorder));
+                IoUtil.close(artifact);
                 if (doneDeleteFile) {
                     // 删除分发的文件
                     FileUtil.del(file);
@@ -435,6 +470,40 @@ public class OutGivingRun {
                                                  Integer sleepTime,
                                                  Boolean closeFirst, int stripComponents,
                                                  BiConsumer<Long, Long> streamProgress) {
+        JSONObject data = createUploadData(levelName, projectId, unzip, afterOpt, clearOld, sleepTime, closeFirst, stripComponents);
+        try {
+            return NodeForward.requestSharding(nodeModel, NodeUrl.Manage_File_Upload_Sharding, data, file,
+                sliceData -> {
+                    sliceData.putAll(data);
+                    return NodeForward.request(nodeModel, NodeUrl.Manage_File_Sharding_Merge, sliceData);
+                },
+                streamProgress);
+        } catch (IOException e) {
+            throw Lombok.sneakyThrow(e);
+        }
+
+        //return NodeForward.request(nodeModel, NodeUrl.Manage_File_Upload, data);
+    }
+
+    /**
+     * 上传项目文件的参数
+     *
+     * @param projectId       项目id
+     * @param unzip           是否需要解压
+     * @param afterOpt        是否需要重启
+     * @param clearOld        清空发布
+     * @param levelName       文件夹层级
+     * @param sleepTime       休眠时间
+     * @param closeFirst      保存项目文件前先关闭项目
+     * @param stripComponents 剔除文件夹
+     * @return 参数
+     */
+    public static JSONObject createUploadData(String levelName, String projectId,
+                                              boolean unzip,
+                                              AfterOpt afterOpt,
+                                              boolean clearOld,
+                                              Integer sleepTime,
+                                              Boolean closeFirst, int stripComponents) {
         JSONObject data = new JSONObject();
         //  data.put("file", file);
         data.put("id", projectId);
@@ -455,17 +524,6 @@ public class OutGivingRun {
             data.put("after", afterOpt.getCode());
         }
         data.put("closeFirst", closeFirst);
-        try {
-            return NodeForward.requestSharding(nodeModel, NodeUrl.Manage_File_Upload_Sharding, data, file,
-                sliceData -> {
-                    sliceData.putAll(data);
-                    return NodeForward.request(nodeModel, NodeUrl.Manage_File_Sharding_Merge, sliceData);
-                },
-                streamProgress);
-        } catch (IOException e) {
-            throw Lombok.sneakyThrow(e);
-        }
-
-        //return NodeForward.request(nodeModel, NodeUrl.Manage_File_Upload, data);
+        return data;
     }
 }
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.service.dblog;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import cn.hutool.db.Entity;
+import cn.hutool.db.sql.Direction;
+import cn.hutool.db.sql.Order;
+import cn.keepbx.jpom.IJsonMessage;
+import cn.keepbx.jpom.event.IAsyncLoad;
+import com.alibaba.fastjson2.JSONArray;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.JpomApplication;
+import org.dromara.jpom.build.BuildExecuteService;
+import org.dromara.jpom.common.BaseServerController;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.cron.CronUtils;
+import org.dromara.jpom.model.data.BuildInfoModel;
+import org.dromara.jpom.model.data.BuildTriggerQueueModel;
+import org.dromara.jpom.model.user.UserModel;
+import org.dromara.jpom.service.h2db.BaseDbService;
+import org.dromara.jpom.service.user.UserService;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * 构建触发器队列
+ * <p>
+ * 暂存的触发保存在数据库中，构建结束后立即执行该构建的下一个触发。相同参数的待执行触发合并为一条
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Service
+@Slf4j
+public class BuildTriggerQueueService extends BaseDbService<BuildTriggerQueueModel> implements IAsyncLoad, Runnable {
+
+    private static final String TASK_ID = "build_trigger_queue";
+    /**
+     * 兜底检查的间隔（单位秒），正常情况由构建结束事件驱动执行
+     */
+    private static final int CHECK_INTERVAL = 60;
+
+    private final BuildInfoService buildInfoService;
+    private final BuildExecuteService buildExecuteService;
+    private final UserService userService;
+    /**
+     * 已经提交等待执行的构建，同一个构建同一时间只排队一次
+     */
+    private final Set<String> pendingDispatch = ConcurrentHashMap.newKeySet();
+    private volatile ExecutorService dispatchExecutor;
+
+    public BuildTriggerQueueService(BuildInfoService buildInfoService,
+                                    BuildExecuteService buildExecuteService,
+                                    UserService userService) {
+        this.buildInfoService = buildInfoService;
+        this.buildExecuteService = buildExecuteService;
+        this.userService = userService;
+        buildExecuteService.addFinishListener(this::dispatch);
+    }
+
+    /**
+     * 提交触发到队列
+     *
+     * @param buildInfoId   构建ID
+     * @param userModel     触发的用户
+     * @param delay         延迟时间（单位秒）
+     * @param buildRemark   构建备注
+     * @param parametersEnv 外部环境变量
+     * @return 提示消息
+     */
+    public String submit(String buildInfoId, UserModel userModel, Integer delay, String buildRemark, Object[] parametersEnv) {
+        String env = JSONArray.toJSONString(parametersEnv);
+        String paramsDigest = SecureUtil.sha1(StrUtil.join(StrUtil.LF, userModel.getId(), delay, buildRemark, env));
+        String msg;
+        synchronized (buildInfoId.intern()) {
+            BuildTriggerQueueModel where = new BuildTriggerQueueModel();
+            where.setBuildInfoId(buildInfoId);
+            where.setParamsDigest(paramsDigest);
+            BuildTriggerQueueModel exists = this.queryByBean(where);
+            if (exists != null) {
+                BuildTriggerQueueModel update = new BuildTriggerQueueModel();
+                update.setId(exists.getId());
+                update.setMergeCount(ObjectUtil.defaultIfNull(exists.getMergeCount(), 0) + 1);
+                this.updateById(update);
+                msg = I18nMessageUtil.get("i18n.build_trigger_queue_merged.23af");
+            } else {
+                BuildTriggerQueueModel queueModel = new BuildTriggerQueueModel();
+                queueModel.setBuildInfoId(buildInfoId);
+                queueModel.setUserId(userModel.getId());
+                queueModel.setDelay(delay);
+                queueModel.setBuildRemark(buildRemark);
+                queueModel.setParametersEnv(env);
+                queueModel.setParamsDigest(paramsDigest);
+                queueModel.setMergeCount(0);
+                this.insert(queueModel);
+                msg = I18nMessageUtil.get("i18n.submit_task_queue_success.5f5b");
+            }
+            where.setParamsDigest(null);
+            msg += this.count(where);
+        }
+        this.dispatch(buildInfoId);
+        return msg;
+    }
+
+    /**
+     * 异步执行构建的下一个触发
+     *
+     * @param buildInfoId 构建ID
+     */
+    public void dispatch(String buildInfoId) {
+        if (!pendingDispatch.add(buildInfoId)) {
+            return;
+        }
+        this.dispatchExecutor().execute(() -> {
+            pendingDispatch.remove(buildInfoId);
+            try {
+                this.dispatchNext(buildInfoId);
+            } catch (Exception e) {
+                log.error(I18nMessageUtil.get("i18n.create_build_task_exception.06f1"), e);
+            }
+        });
+    }
+
+    private void dispatchNext(String buildInfoId) {
+        synchronized (buildInfoId.intern()) {
+            BuildTriggerQueueModel where = new BuildTriggerQueueModel();
+            where.setBuildInfoId(buildInfoId);
+            List<BuildTriggerQueueModel> list = this.queryList(where, 1, new Order("createTimeMillis", Direction.ASC));
+            BuildTriggerQueueModel queueModel = CollUtil.getFirst(list);
+            if (queueModel == null) {
+                return;
+            }
+            BuildInfoModel item = buildInfoService.getByKey(buildInfoId);
+            if (item == null) {
+                log.error(I18nMessageUtil.get("i18n.build_data_not_exist.0225"), buildInfoId, queueModel);
+                this.del(Entity.create().set("buildInfoId", buildInfoId));
+                return;
+            }
+            String statusMsg = buildExecuteService.checkStatus(item);
+            if (statusMsg != null) {
+                // 等待构建结束事件
+                log.debug(I18nMessageUtil.get("i18n.build_task_waiting.e303"), buildInfoId, statusMsg);
+                return;
+            }
+            UserModel userModel = userService.getByKey(queueModel.getUserId());
+            if (userModel == null) {
+                log.warn(I18nMessageUtil.get("i18n.build_trigger_queue_user_missing.af25"), queueModel.getUserId(), queueModel);
+                this.delByKey(queueModel.getId());
+                this.dispatch(buildInfoId);
+                return;
+            }
+            try {
+                BaseServerController.resetInfo(userModel);
+                Object[] parametersEnv = JSONArray.parseArray(queueModel.getParametersEnv()).toArray();
+                IJsonMessage<Integer> message = buildExecuteService.start(buildInfoId, userModel, queueModel.getDelay(), 1, queueModel.getBuildRemark(), parametersEnv);
+                this.delByKey(queueModel.getId());
+                log.info(I18nMessageUtil.get("i18n.build_trigger_queue_result.a1fe"), message);
+            } catch (Exception e) {
+                // 保留在队列中，等待下次构建结束或者兜底检查时重试
+                log.error(I18nMessageUtil.get("i18n.create_build_task_exception.06f1"), e);
+            } finally {
+                BaseServerController.removeAll();
+            }
+        }
+    }
+
+    /**
+     * 执行队列中所有构建的下一个触发
+     *
+     * @return 队列中的构建数
+     */
+    private int dispatchAll() {
+        List<Entity> query = this.query("select distinct buildInfoId from " + this.tableName);
+        for (Entity entity : query) {
+            this.dispatch(entity.getStr("buildInfoId"));
+        }
+        return query.size();
+    }
+
+    private ExecutorService dispatchExecutor() {
+        if (dispatchExecutor == null) {
+            synchronized (this) {
+                if (dispatchExecutor == null) {
+                    ThreadPoolExecutor executor = ExecutorBuilder.create()
+                        .setCorePoolSize(2)
+                        .setMaxPoolSize(2)
+                        .setAllowCoreThreadTimeOut(true)
+                        .setWorkQueue(new LinkedBlockingQueue<>())
+                        .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("jpom-build-trigger-").setDaemon(true).build())
+                        .build();
+                    JpomApplication.register("build-trigger", executor);
+                    dispatchExecutor = executor;
+                }
+            }
+        }
+        return dispatchExecutor;
+    }
+
+    @Override
+    public void startLoad() {
+        // 恢复重启前暂存的触发
+        int size = this.dispatchAll();
+        if (size > 0) {
+            log.info(I18nMessageUtil.get("i18n.build_trigger_queue_restore.8589"), size);
+        }
+        ScheduledExecutorService scheduler = JpomApplication.getScheduledExecutorService();
+        scheduler.scheduleWithFixedDelay(this, CHECK_INTERVAL, CHECK_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void run() {
+        CronUtils.TaskStat taskStat = CronUtils.getTaskStat(TASK_ID, StrUtil.format(I18nMessageUtil.get("i18n.execution_frequency.d014"), CHECK_INTERVAL));
+        try {
+            taskStat.onStart();
+            this.dispatchAll();
+            taskStat.onSucceeded();
+        } catch (Throwable throwable) {
+            taskStat.onFailed(TASK_ID, throwable);
+        }
+    }
+}
@@ -9,12 +9,17 @@
  */
 package org.dromara.jpom.service.dblog;
 
+import cn.hutool.core.util.StrUtil;
 import org.dromara.jpom.common.BaseServerController;
 import org.dromara.jpom.model.log.MonitorNotifyLog;
 import org.dromara.jpom.model.user.UserModel;
 import org.dromara.jpom.service.h2db.BaseWorkspaceService;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 监控消息
  *
@@ -42,6 +47,37 @@ public class DbMonitorNotifyLogService extends BaseWorkspaceService<MonitorNotif
         return new String[]{"createTime", "createTimeMillis"};
     }
 
+    /**
+     * 一次查询监控下所有节点项目最后一次通知的状态
+     *
+     * @param monitorId 监控id
+     * @return nodeId:projectId -> 最后一次状态，没有通知记录的不包含
+     */
+    public Map<String, Boolean> listLastStatus(String monitorId) {
+        String tableName = super.getTableName();
+        String sql = "select t.nodeId,t.projectId,t.status,t.createTime from " + tableName + " t inner join " +
+            "(select nodeId,projectId,max(createTime) as createTime from " + tableName + " where monitorId=? group by nodeId,projectId) m " +
+            "on t.nodeId=m.nodeId and t.projectId=m.projectId and t.createTime=m.createTime where t.monitorId=?";
+        List<MonitorNotifyLog> list = super.queryList(sql, monitorId, monitorId);
+        Map<String, Boolean> map = new HashMap<>(list.size());
+        for (MonitorNotifyLog notifyLog : list) {
+            // 同一时间写入的多条通知记录状态一致
+            map.put(lastStatusKey(notifyLog.getNodeId(), notifyLog.getProjectId()), notifyLog.status());
+        }
+        return map;
+    }
+
+    /**
+     * 最后一次状态的缓存 key
+     *
+     * @param nodeId    节点id
+     * @param projectId 项目id
+     * @return key
+     */
+    public static String lastStatusKey(String nodeId, String projectId) {
+        return nodeId + StrUtil.COLON + projectId;
+    }
+
     /**
      * 修改执行结果
      *
@@ -16,7 +16,6 @@ import cn.hutool.core.date.DateTime;
 import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.date.SystemClock;
 import cn.hutool.core.map.MapUtil;
-import cn.hutool.core.thread.ThreadUtil;
 import cn.hutool.core.util.*;
 import cn.hutool.db.Entity;
 import cn.hutool.db.Page;
@@ -40,8 +39,10 @@ import org.springframework.util.Assert;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -142,6 +143,11 @@ public abstract class BaseDbService<T extends BaseDbModel> extends BaseDbCommonS
         super.execute(sql, Const.DEFAULT_GROUP_NAME.get());
     }
 
+    @Override
+    protected void onDataChange() {
+        DbDataCache.onChange(this.tableName);
+    }
+
     public int insert(T t) {
         this.fillInsert(t);
         int count = super.insertDb(t);
@@ -168,6 +174,56 @@ public abstract class BaseDbService<T extends BaseDbModel> extends BaseDbCommonS
         this.executeClear();
     }
 
+    /**
+     * 批量修改（不存在时插入）和删除数据，在同一个事务中执行
+     *
+     * @param list   需要修改或者插入的数据
+     * @param delIds 需要删除的数据id
+     * @return 删除的条数
+     */
+    public int upsertAndDel(Collection<T> list, Collection<String> delIds) {
+        if (CollUtil.isEmpty(list) && CollUtil.isEmpty(delIds)) {
+            return 0;
+        }
+        int[] delCount = {0};
+        List<Entity> inserts = new ArrayList<>();
+        super.txDb(db -> {
+            if (CollUtil.isNotEmpty(list)) {
+                Entity where = new Entity(tableName);
+                where.set(ID_STR, list.stream().map(BaseDbModel::getId).collect(Collectors.toSet()));
+                Set<String> existsIds = db.find(CollUtil.newArrayList(ID_STR), where)
+                    .stream()
+                    .map(entity -> entity.getStr(ID_STR))
+                    .collect(Collectors.toSet());
+                for (T t : list) {
+                    if (existsIds.contains(t.getId())) {
+                        t.setModifyTimeMillis(ObjectUtil.defaultIfNull(t.getModifyTimeMillis(), SystemClock.now()));
+                        Entity entity = this.dataBeanToEntity(t);
+                        this.removeUpdate(entity);
+                        Entity updateWhere = new Entity(tableName);
+                        updateWhere.set(ID_STR, t.getId());
+                        db.update(entity, updateWhere);
+                    } else {
+                        this.fillInsert(t);
+                        inserts.add(this.dataBeanToEntity(t));
+                    }
+                }
+                if (!inserts.isEmpty()) {
+                    db.insert(inserts);
+                }
+            }
+            if (CollUtil.isNotEmpty(delIds)) {
+                Entity where = new Entity(tableName);
+                where.set(ID_STR, delIds);
+                delCount[0] = db.del(where);
+            }
+        });
+        if (!inserts.isEmpty()) {
+            this.executeClear();
+        }
+        return delCount[0];
+    }
+
     /**
      * 插入数据填充
      *
@@ -388,8 +444,7 @@ public abstract class BaseDbService<T extends BaseDbModel> extends BaseDbCommonS
      * @return data
      */
     public List<T> listByEntity(Entity where) {
-        List<Entity> entity = this.queryList(where);
-        return this.entityToBeanList(entity);
+        return this.queryBeanList(where, true);
     }
 
     /**
@@ -400,8 +455,7 @@ public abstract class BaseDbService<T extends BaseDbModel> extends BaseDbCommonS
      * @return data
      */
     public List<T> listByEntity(Entity where, boolean fill) {
-        List<Entity> entity = this.queryList(where);
-        return this.entityToBeanList(entity, fill);
+        return this.queryBeanList(where, fill);
     }
 
     /**
@@ -486,8 +540,7 @@ public abstract class BaseDbService<T extends BaseDbModel> extends BaseDbCommonS
      */
     public List<T> listByBean(T data, boolean fill) {
         Entity where = this.dataBeanToEntity(data);
-        List<Entity> entitys = this.queryList(where);
-        return this.entityToBeanList(entitys, fill);
+        return this.queryBeanList(where, fill);
     }
 
     /**
@@ -706,8 +759,7 @@ public abstract class BaseDbService<T extends BaseDbModel> extends BaseDbCommonS
         if (consumer != null) {
             consumer.accept(entity);
         }
-        List<Entity> entities = super.queryList(entity);
-        return this.entityToBeanList(entities, fill);
+        return super.queryBeanList(entity, fill);
     }
 
     /**
@@ -729,14 +781,38 @@ public abstract class BaseDbService<T extends BaseDbModel> extends BaseDbCommonS
     protected void executeClearImpl(int h2DbLogStorageCount) {
         String[] strings = this.clearTimeColumns();
         for (String timeColumn : strings) {
-            this.autoClear(timeColumn, h2DbLogStorageCount, time -> {
-                Entity entity = Entity.create(super.getTableName());
-                entity.set(timeColumn, "< " + time);
-                int count = super.del(entity);
-                if (count > 0) {
-                    log.debug(I18nMessageUtil.get("i18n.cleaned_data.0e9d"), super.getTableName(), count);
-                }
-            });
+            this.autoClear(timeColumn, h2DbLogStorageCount, time -> this.batchDelByTime(timeColumn, time));
+        }
+    }
+
+    /**
+     * 分批删除指定时间之前的数据，每批按主键删除，避免一次删除大量数据长时间锁表
+     *
+     * @param timeColumn 时间字段
+     * @param time       时间
+     * @return 删除的条数
+     */
+    private int batchDelByTime(String timeColumn, long time) {
+        int total = 0;
+        while (true) {
+            Entity entity = Entity.create();
+            entity.setFieldNames(ID_STR);
+            entity.set(timeColumn, "< " + time);
+            Page page = new Page(PageUtil.getFirstPageNo(), DataRetentionExecutor.BATCH_SIZE);
+            page.addOrder(new Order(timeColumn, Direction.ASC));
+            List<Object> ids = super.listPageOnlyDb(entity, page)
+                .stream()
+                .map(entity1 -> CollUtil.getFirst(entity1.values()))
+                .collect(Collectors.toList());
+            if (ids.isEmpty()) {
+                return total;
+            }
+            Entity where = Entity.create();
+            where.set(ID_STR, ids);
+            total += super.del(where);
+            if (ids.size() < DataRetentionExecutor.BATCH_SIZE) {
+                return total;
+            }
         }
     }
 
@@ -749,28 +825,40 @@ public abstract class BaseDbService<T extends BaseDbModel> extends BaseDbCommonS
         return new String[]{};
     }
 
+    /**
+     * 自动清理间隔，单位毫秒
+     *
+     * @return 间隔
+     */
+    private long clearInterval() {
+        return TimeUnit.SECONDS.toMillis(Math.max(extConfig.getLogClearInterval(), 0));
+    }
+
     /**
      * 自动清理数据接口
      *
      * @param timeColumn 时间字段
      * @param maxCount   最大数量
-     * @param consumer   查询出超过范围的时间回调
+     * @param consumer   查询出超过范围的时间回调，返回清理的条数
      */
-    protected void autoClear(String timeColumn, int maxCount, Consumer<Long> consumer) {
+    protected void autoClear(String timeColumn, int maxCount, ToIntFunction<Long> consumer) {
         if (maxCount <= 0) {
             return;
         }
-        ThreadUtil.execute(() -> {
+        String tableName = super.getTableName();
+        DataRetentionExecutor.submit(tableName, StrUtil.format("{}:{}", tableName, timeColumn), this.clearInterval(), () -> {
             long timeValue = this.getLastTimeValue(timeColumn, maxCount, null);
             if (timeValue <= 0) {
-                return;
+                return 0;
             }
-            consumer.accept(timeValue);
+            return consumer.applyAsInt(timeValue);
         });
     }
 
     /**
      * 查询指定字段降序 指定条数对最后一个值
+     * <p>
+     * 只查询时间字段且不查询总数，时间字段有索引时只需要扫描索引
      *
      * @param timeColumn 时间字段
      * @param maxCount   最大数量
@@ -779,31 +867,33 @@ public abstract class BaseDbService<T extends BaseDbModel> extends BaseDbCommonS
      */
     protected long getLastTimeValue(String timeColumn, int maxCount, Consumer<Entity> whereCon) {
         Entity entity = Entity.create(super.getTableName());
+        entity.setFieldNames(timeColumn);
         if (whereCon != null) {
             // 条件
             whereCon.accept(entity);
         }
         Page page = new Page(maxCount, 1);
         page.addOrder(new Order(timeColumn, Direction.DESC));
-        PageResultDto<T> pageResult;
+        List<Entity> list;
         try {
-            pageResult = this.listPage(entity, page);
+            list = super.listPageOnlyDb(entity, page);
         } catch (java.lang.IllegalStateException illegalStateException) {
             return 0L;
         } catch (Exception e) {
             log.error(I18nMessageUtil.get("i18n.query_data_error.45e7"), e);
             return 0L;
         }
-        if (pageResult.isEmpty()) {
+        Entity first = CollUtil.getFirst(list);
+        if (first == null) {
             return 0L;
         }
-        T entity1 = pageResult.get(0);
-        Object fieldValue = ReflectUtil.getFieldValue(entity1, timeColumn);
-        return Convert.toLong(fieldValue, 0L);
+        return Convert.toLong(CollUtil.getFirst(first.values()), 0L);
     }
 
     /**
      * 自动清理数据接口
+     * <p>
+     * 从最早的数据开始分批查询，回调返回 false 的数据不删除，一批数据都不能删除时结束本次清理
      *
      * @param timeClo   时间字段
      * @param maxCount  最大数量
@@ -813,27 +903,37 @@ public abstract class BaseDbService<T extends BaseDbModel> extends BaseDbCommonS
         if (maxCount <= 0) {
             return;
         }
-        ThreadUtil.execute(() -> {
-            Entity entity = Entity.create(super.getTableName());
+        String tableName = super.getTableName();
+        String key = StrUtil.format("{}:{}", tableName, timeClo);
+        if (whereCon != null) {
+            Entity whereKey = Entity.create();
+            whereCon.accept(whereKey);
+            key = StrUtil.format("{}:{}", key, whereKey);
+        }
+        DataRetentionExecutor.submit(tableName, key, this.clearInterval(), () -> {
             long timeValue = this.getLastTimeValue(timeClo, maxCount, whereCon);
             if (timeValue <= 0) {
-                return;
-            }
-            if (whereCon != null) {
-                // 条件
-                whereCon.accept(entity);
+                return 0;
             }
-            entity.set(timeClo, "< " + timeValue);
+            int total = 0;
             while (true) {
-                Page page = new Page(1, 50);
-                page.addOrder(new Order(timeClo, Direction.DESC));
-                PageResultDto<T> pageResult = this.listPage(entity, page);
-                if (pageResult.isEmpty()) {
-                    return;
+                Entity entity = Entity.create();
+                if (whereCon != null) {
+                    // 条件
+                    whereCon.accept(entity);
+                }
+                entity.set(timeClo, "< " + timeValue);
+                Page page = new Page(PageUtil.getFirstPageNo(), DataRetentionExecutor.BATCH_SIZE / 10);
+                page.addOrder(new Order(timeClo, Direction.ASC));
+                List<T> list = super.listPageOnlyBean(entity, page, true);
+                if (CollUtil.isEmpty(list)) {
+                    return total;
+                }
+                List<String> ids = list.stream().filter(predicate).map(BaseDbModel::getId).collect(Collectors.toList());
+                if (ids.isEmpty()) {
+                    return total;
                 }
-//                pageResult.each(consumer);
-                List<String> ids = pageResult.getResult().stream().filter(predicate).map(BaseDbModel::getId).collect(Collectors.toList());
-                this.delByKey(ids, null);
+                total += this.delByKey(ids, null);
             }
         });
     }
@@ -9,18 +9,24 @@
  */
 package org.dromara.jpom.service.h2db;
 
+import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.convert.Convert;
 import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.lang.Opt;
-import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.core.util.RuntimeUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.db.Entity;
 import cn.hutool.extra.servlet.ServletUtil;
+import cn.keepbx.jpom.model.JsonMessage;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.JpomApplication;
 import org.dromara.jpom.common.BaseServerController;
 import org.dromara.jpom.common.Const;
 import org.dromara.jpom.common.ServerConst;
@@ -34,9 +40,14 @@ import org.dromara.jpom.model.data.WorkspaceModel;
 import org.dromara.jpom.model.user.UserModel;
 import org.dromara.jpom.service.node.NodeService;
 import org.dromara.jpom.service.system.WorkspaceService;
+import org.springframework.http.HttpStatus;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -51,6 +62,15 @@ public abstract class BaseNodeService<T extends BaseNodeModel> extends BaseGloba
     protected final NodeService nodeService;
     protected final WorkspaceService workspaceService;
     private final String dataName;
+    /**
+     * 不支持增量同步的节点（旧版本），服务端运行期间只尝试一次
+     */
+    private static final Set<String> UNSUPPORTED_CHANGES_NODE = ConcurrentHashMap.newKeySet();
+    private static volatile ExecutorService syncExecutor;
+    /**
+     * 数据所属工作空间的缓存，用于请求拦截中的数据权限判断。首次使用时创建，避免没有数据权限判断的表也清空缓存
+     */
+    private volatile DbDataCache<String> dataWorkspaceCache;
 
     protected BaseNodeService(NodeService nodeService,
                               WorkspaceService workspaceService,
@@ -60,6 +80,25 @@ public abstract class BaseNodeService<T extends BaseNodeModel> extends BaseGloba
         this.dataName = dataName;
     }
 
+    /**
+     * 查询节点数据所属的工作空间，优先读取缓存
+     *
+     * @param nodeId 节点ID
+     * @param dataId 数据ID
+     * @return 工作空间ID，数据不存在返回 null
+     */
+    public String getDataWorkspaceId(String nodeId, String dataId) {
+        if (dataWorkspaceCache == null) {
+            synchronized (this) {
+                if (dataWorkspaceCache == null) {
+                    dataWorkspaceCache = DbDataCache.create("nodeData-" + this.tableName, this.tableName);
+                }
+            }
+        }
+        return dataWorkspaceCache.get(nodeId + StrUtil.COLON + dataId,
+            () -> Opt.ofNullable(this.getData(nodeId, dataId)).map(BaseNodeModel::getWorkspaceId).orElse(null));
+    }
+
     @Override
     public List<T> listByWorkspace(HttpServletRequest request) {
         String workspaceId = this.getCheckUserWorkspace(request);
@@ -76,7 +115,7 @@ public abstract class BaseNodeService<T extends BaseNodeModel> extends BaseGloba
      * 同步所有节点的项目
      */
     public void syncAllNode() {
-        ThreadUtil.execute(() -> {
+        syncExecutor().execute(() -> {
             List<NodeModel> list = nodeService.list();
             if (CollUtil.isEmpty(list)) {
                 log.debug(I18nMessageUtil.get("i18n.no_nodes.17b4"));
@@ -105,7 +144,32 @@ public abstract class BaseNodeService<T extends BaseNodeModel> extends BaseGloba
      * @param nodeModel 节点
      */
     public void syncNode(final NodeModel nodeModel) {
-        ThreadUtil.execute(() -> this.syncExecuteNode(nodeModel));
+        syncExecutor().execute(() -> this.syncExecuteNode(nodeModel));
+    }
+
+    /**
+     * 同步节点数据的线程池，线程数有上限，多个节点并行同步
+     *
+     * @return 线程池
+     */
+    private static ExecutorService syncExecutor() {
+        if (syncExecutor == null) {
+            synchronized (BaseNodeService.class) {
+                if (syncExecutor == null) {
+                    int poolSize = Math.max(RuntimeUtil.getProcessorCount(), 4);
+                    ThreadPoolExecutor executor = ExecutorBuilder.create()
+                        .setCorePoolSize(poolSize)
+                        .setMaxPoolSize(poolSize)
+                        .setAllowCoreThreadTimeOut(true)
+                        .setWorkQueue(new LinkedBlockingQueue<>())
+                        .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("jpom-node-sync-").setDaemon(true).build())
+                        .build();
+                    JpomApplication.register("node-sync", executor);
+                    syncExecutor = executor;
+                }
+            }
+        }
+        return syncExecutor;
     }
 
     /**
@@ -190,17 +254,33 @@ public abstract class BaseNodeService<T extends BaseNodeModel> extends BaseGloba
      * @return json
      */
     public String syncExecuteNode(NodeModel nodeModel) {
+        return this.syncExecuteNode(nodeModel, false);
+    }
+
+    /**
+     * 同步执行 同步节点信息
+     *
+     * @param nodeModel 节点信息
+     * @param full      是否拉取全部数据，为 false 时只拉取上次同步之后变更的数据
+     * @return json
+     */
+    public String syncExecuteNode(NodeModel nodeModel, boolean full) {
         String nodeModelName = nodeModel.getName();
         if (!nodeModel.isOpenStatus()) {
             log.debug(I18nMessageUtil.get("i18n.node_not_enabled.10ef"), nodeModelName);
             return I18nMessageUtil.get("i18n.node_not_enabled.a14d");
         }
         try {
-            JSONArray jsonArray = this.getLitDataArray(nodeModel);
+            JSONObject changes = this.getChanges(nodeModel, full);
+            if (changes != null && !changes.getBooleanValue("full")) {
+                return this.syncChanges(nodeModel, changes);
+            }
+            JSONArray jsonArray = changes == null ? this.getLitDataArray(nodeModel) : changes.getJSONArray("list");
             if (CollUtil.isEmpty(jsonArray)) {
                 Entity entity = Entity.create();
                 entity.set("nodeId", nodeModel.getId());
                 int del = super.del(entity);
+                this.saveSyncRevision(nodeModel, changes);
                 //
                 log.debug(I18nMessageUtil.get("i18n.node_no_data_pulled.0dae"), nodeModelName, dataName, del);
                 return I18nMessageUtil.get("i18n.node_did_not_pull_anything.8af5") + dataName;
@@ -215,70 +295,9 @@ public abstract class BaseNodeService<T extends BaseNodeModel> extends BaseGloba
             Set<String> cacheIds = cacheAll.stream()
                 .map(BaseNodeModel::dataId)
                 .collect(Collectors.toSet());
-            // 转换数据修改时间
-            List<T> projectInfoModels = jsonArray.stream()
-                .map(o -> {
-                    // modifyTime,createTime
-                    JSONObject jsonObject = (JSONObject) o;
-                    T t = jsonObject.to(tClass);
-                    Opt.ofBlankAble(jsonObject.getString("createTime"))
-                        .map(s -> {
-                            try {
-                                return DateUtil.parse(s);
-                            } catch (Exception e) {
-                                log.warn(I18nMessageUtil.get("i18n.data_creation_time_format_incorrect.7772"), s, jsonObject);
-                                return null;
-                            }
-                        }).ifPresent(s -> t.setCreateTimeMillis(s.getTime()));
-                    //
-                    Opt.ofBlankAble(jsonObject.getString("modifyTime"))
-                        .map(s -> {
-                            try {
-                                return DateUtil.parse(s);
-                            } catch (Exception e) {
-                                log.warn(I18nMessageUtil.get("i18n.data_modification_time_format_incorrect.7ffe"), s, jsonObject);
-                                return null;
-                            }
-                        })
-                        .ifPresent(s -> t.setModifyTimeMillis(s.getTime()));
-                    return t;
-                })
-                .peek(item -> this.fullData(item, nodeModel))
-                // 只保留自己节点的数据
-                .filter(t -> StrUtil.equals(t.getNodeId(), nodeModel.getId()))
-                .filter(item -> {
-                    if (StrUtil.equals(item.getWorkspaceId(), ServerConst.WORKSPACE_GLOBAL)) {
-                        return true;
-                    }
-                    // 检查对应的工作空间 是否存在
-                    return workspaceService.exists(new WorkspaceModel(item.getWorkspaceId()));
-                })
-                .filter(item -> {
-                    if (StrUtil.equals(item.getWorkspaceId(), ServerConst.WORKSPACE_GLOBAL)) {
-                        return true;
-                    }
-                    // 避免重复同步
-                    return StrUtil.equals(nodeModel.getWorkspaceId(), item.getWorkspaceId());
-                })
-                .peek(item -> {
-                    item.setNodeName(nodeModel.getName());
-                    WorkspaceModel workspaceModel = workspaceService.getByKey(nodeModel.getWorkspaceId());
-                    item.setWorkspaceName(Optional.ofNullable(workspaceModel).map(WorkspaceModel::getName).orElse(I18nMessageUtil.get("i18n.data_does_not_exist.b201")));
-                    cacheIds.remove(item.dataId());
-                    // 需要删除相反的工作空间的数据（避免出现一个脚本同步出2条数据的问题）
-                    if (StrUtil.equals(item.getWorkspaceId(), ServerConst.WORKSPACE_GLOBAL)) {
-                        needDelete.add(BaseNodeModel.fullId(nodeModel.getWorkspaceId(), nodeModel.getId(), item.dataId()));
-                    } else {
-                        needDelete.add(BaseNodeModel.fullId(ServerConst.WORKSPACE_GLOBAL, nodeModel.getId(), item.dataId()));
-                    }
-                })
-                .collect(Collectors.toList());
-            // 设置 临时缓存，便于放行检查
-            BaseServerController.resetInfo(UserModel.EMPTY);
-            //
-            projectInfoModels.forEach(BaseNodeService.super::upsert);
+            List<T> projectInfoModels = this.convertSyncData(nodeModel, jsonArray, needDelete);
+            projectInfoModels.forEach(item -> cacheIds.remove(item.dataId()));
             // 删除项目
-            int delCount = 0;
             Set<String> strings = cacheIds.stream()
                 .flatMap((Function<String, Stream<String>>) s -> Stream.of(
                     BaseNodeModel.fullId(nodeModel.getWorkspaceId(), nodeModel.getId(), s),
@@ -286,9 +305,10 @@ public abstract class BaseNodeService<T extends BaseNodeModel> extends BaseGloba
                 .collect(Collectors.toSet());
             //
             needDelete.addAll(strings);
-            if (CollUtil.isNotEmpty(needDelete)) {
-                delCount = super.delByKey(needDelete, null);
-            }
+            // 设置 临时缓存，便于放行检查
+            BaseServerController.resetInfo(UserModel.EMPTY);
+            int delCount = super.upsertAndDel(projectInfoModels, needDelete);
+            this.saveSyncRevision(nodeModel, changes);
             int size = CollUtil.size(projectInfoModels);
             String template = I18nMessageUtil.get("i18n.physical_node_pull.874e");
             String format = StrUtil.format(
@@ -307,6 +327,205 @@ public abstract class BaseNodeService<T extends BaseNodeModel> extends BaseGloba
         }
     }
 
+    /**
+     * 同步节点上次同步版本之后变更的数据
+     *
+     * @param nodeModel 节点信息
+     * @param changes   变更的数据
+     * @return 结果描述
+     */
+    private String syncChanges(NodeModel nodeModel, JSONObject changes) {
+        JSONArray jsonArray = changes.getJSONArray("list");
+        Set<String> needDelete = new HashSet<>();
+        List<T> list = this.convertSyncData(nodeModel, jsonArray, needDelete);
+        List<String> delete = changes.getList("delete", String.class);
+        if (delete != null) {
+            for (String s : delete) {
+                needDelete.add(BaseNodeModel.fullId(nodeModel.getWorkspaceId(), nodeModel.getId(), s));
+                needDelete.add(BaseNodeModel.fullId(ServerConst.WORKSPACE_GLOBAL, nodeModel.getId(), s));
+            }
+        }
+        // 设置 临时缓存，便于放行检查
+        BaseServerController.resetInfo(UserModel.EMPTY);
+        int delCount = super.upsertAndDel(list, needDelete);
+        this.saveSyncRevision(nodeModel, changes);
+        if (CollUtil.isNotEmpty(list) || delCount > 0) {
+            Entity entity = Entity.create();
+            entity.set("nodeId", nodeModel.getId());
+            this.refreshCacheStat(nodeModel.getId(), (int) super.count(entity));
+        }
+        String format = StrUtil.format(I18nMessageUtil.get("i18n.node_incremental_sync.24bd"),
+            nodeModel.getName(), CollUtil.size(list), dataName, delCount);
+        log.debug(format);
+        return format;
+    }
+
+    /**
+     * 转换节点拉取到的数据
+     *
+     * @param nodeModel  节点信息
+     * @param jsonArray  节点数据
+     * @param needDelete 需要删除的相反工作空间的数据
+     * @return 需要保存的数据
+     */
+    private List<T> convertSyncData(NodeModel nodeModel, JSONArray jsonArray, Set<String> needDelete) {
+        if (CollUtil.isEmpty(jsonArray)) {
+            return Collections.emptyList();
+        }
+        // 同一次同步中工作空间只查询一次
+        Map<String, Boolean> workspaceExists = new HashMap<>(4);
+        String workspaceName = Optional.ofNullable(workspaceService.getByKey(nodeModel.getWorkspaceId()))
+            .map(WorkspaceModel::getName)
+            .orElse(I18nMessageUtil.get("i18n.data_does_not_exist.b201"));
+        // 转换数据修改时间
+        return jsonArray.stream()
+            .map(o -> {
+                // modifyTime,createTime
+                JSONObject jsonObject = (JSONObject) o;
+                T t = jsonObject.to(tClass);
+                Opt.ofBlankAble(jsonObject.getString("createTime"))
+                    .map(s -> {
+                        try {
+                            return DateUtil.parse(s);
+                        } catch (Exception e) {
+                            log.warn(I18nMessageUtil.get("i18n.data_creation_time_format_incorrect.7772"), s, jsonObject);
+                            return null;
+                        }
+                    }).ifPresent(s -> t.setCreateTimeMillis(s.getTime()));
+                //
+                Opt.ofBlankAble(jsonObject.getString("modifyTime"))
+                    .map(s -> {
+                        try {
+                            return DateUtil.parse(s);
+                        } catch (Exception e) {
+                            log.warn(I18nMessageUtil.get("i18n.data_modification_time_format_incorrect.7ffe"), s, jsonObject);
+                            return null;
+                        }
+                    })
+                    .ifPresent(s -> t.setModifyTimeMillis(s.getTime()));
+                return t;
+            })
+            .peek(item -> this.fullData(item, nodeModel))
+            // 只保留自己节点的数据
+            .filter(t -> StrUtil.equals(t.getNodeId(), nodeModel.getId()))
+            .filter(item -> {
+                if (StrUtil.equals(item.getWorkspaceId(), ServerConst.WORKSPACE_GLOBAL)) {
+                    return true;
+                }
+                // 检查对应的工作空间 是否存在
+                return workspaceExists.computeIfAbsent(item.getWorkspaceId(), s -> workspaceService.exists(new WorkspaceModel(s)));
+            })
+            .filter(item -> {
+                if (StrUtil.equals(item.getWorkspaceId(), ServerConst.WORKSPACE_GLOBAL)) {
+                    return true;
+                }
+                // 避免重复同步
+                return StrUtil.equals(nodeModel.getWorkspaceId(), item.getWorkspaceId());
+            })
+            .peek(item -> {
+                item.setNodeName(nodeModel.getName());
+                item.setWorkspaceName(workspaceName);
+                // 需要删除相反的工作空间的数据（避免出现一个脚本同步出2条数据的问题）
+                if (StrUtil.equals(item.getWorkspaceId(), ServerConst.WORKSPACE_GLOBAL)) {
+                    needDelete.add(BaseNodeModel.fullId(nodeModel.getWorkspaceId(), nodeModel.getId(), item.dataId()));
+                } else {
+                    needDelete.add(BaseNodeModel.fullId(ServerConst.WORKSPACE_GLOBAL, nodeModel.getId(), item.dataId()));
+                }
+            })
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * 查询节点上次同步版本之后变更的数据，节点不支持或者查询失败时返回 null
+     *
+     * @param nodeModel 节点信息
+     * @param full      是否拉取全部数据
+     * @return json
+     */
+    private JSONObject getChanges(NodeModel nodeModel, boolean full) {
+        String column = this.syncRevisionColumn();
+        if (column == null || UNSUPPORTED_CHANGES_NODE.contains(nodeModel.getId())) {
+            return null;
+        }
+        Long since = full ? null : Convert.toLong(BeanUtil.getFieldValue(nodeModel, column));
+        JsonMessage<JSONObject> jsonMessage;
+        try {
+            jsonMessage = this.getChangeData(nodeModel, since);
+        } catch (AgentAuthorizeException e) {
+            throw e;
+        } catch (Exception e) {
+            // 网络异常等，本次改为拉取全部数据
+            log.warn(I18nMessageUtil.get("i18n.node_incremental_sync_unsupported.0e6a"), nodeModel.getName(), e.getMessage());
+            return null;
+        }
+        if (jsonMessage.getCode() == HttpStatus.NOT_FOUND.value()) {
+            // 旧版本节点没有增量同步接口
+            log.debug(I18nMessageUtil.get("i18n.node_incremental_sync_unsupported.0e6a"), nodeModel.getName(), jsonMessage.getMsg());
+            UNSUPPORTED_CHANGES_NODE.add(nodeModel.getId());
+            return null;
+        }
+        if (!jsonMessage.success()) {
+            log.warn(I18nMessageUtil.get("i18n.node_incremental_sync_unsupported.0e6a"), nodeModel.getName(), jsonMessage.getMsg());
+            return null;
+        }
+        return jsonMessage.getData(JSONObject.class);
+    }
+
+    /**
+     * 保存节点本次同步的数据版本
+     *
+     * @param nodeModel 节点信息
+     * @param changes   变更的数据
+     */
+    private void saveSyncRevision(NodeModel nodeModel, JSONObject changes) {
+        String column = this.syncRevisionColumn();
+        if (column == null || changes == null) {
+            return;
+        }
+        Entity entity = Entity.create();
+        entity.set(column, changes.getLong("revision"));
+        Entity where = Entity.create();
+        where.set(ID_STR, nodeModel.getId());
+        nodeService.update(entity, where);
+    }
+
+    /**
+     * 删除节点缓存数据后清空同步版本，下次同步拉取全部数据
+     *
+     * @param nodeId 节点id
+     */
+    private void resetSyncRevision(String nodeId) {
+        String column = this.syncRevisionColumn();
+        if (column == null) {
+            return;
+        }
+        Entity entity = Entity.create();
+        entity.set(column, null);
+        Entity where = Entity.create();
+        where.set(ID_STR, nodeId);
+        nodeService.update(entity, where);
+    }
+
+    /**
+     * 节点表中保存同步版本的字段，返回 null 不支持增量同步
+     *
+     * @return 字段名
+     */
+    protected String syncRevisionColumn() {
+        return null;
+    }
+
+    /**
+     * 查询节点指定版本之后变更的数据
+     *
+     * @param nodeModel 节点
+     * @param since     版本，为空时节点返回全部数据
+     * @return 节点响应
+     */
+    protected JsonMessage<JSONObject> getChangeData(NodeModel nodeModel, Long since) {
+        return null;
+    }
+
     /**
      * 刷新缓存统计
      *
@@ -347,7 +566,7 @@ public abstract class BaseNodeService<T extends BaseNodeModel> extends BaseGloba
             log.debug(I18nMessageUtil.get("i18n.node_not_enabled.10ef"), nodeModelName);
             return;
         }
-        ThreadUtil.execute(() -> {
+        syncExecutor().execute(() -> {
             try {
                 JSONObject data = this.getItem(nodeModel, id);
                 if (data == null) {
@@ -399,7 +618,9 @@ public abstract class BaseNodeService<T extends BaseNodeModel> extends BaseGloba
         Entity entity = Entity.create();
         entity.set("nodeId", nodeId);
         entity.set("workspaceId", checkUserWorkspace);
-        return super.del(entity);
+        int count = super.del(entity);
+        this.resetSyncRevision(nodeId);
+        return count;
     }
 
     /**
@@ -411,13 +632,15 @@ public abstract class BaseNodeService<T extends BaseNodeModel> extends BaseGloba
      * @return 影响行数
      */
     public int delCache(String dataId, String nodeId, HttpServletRequest request) {
-        return this.delByWorkspace(request, entity -> {
+        int count = this.delByWorkspace(request, entity -> {
             T data = ReflectUtil.newInstance(this.tClass);
             data.setNodeId(nodeId);
             data.dataId(dataId);
             Entity entity1 = dataBeanToEntity(data);
             entity.putAll(entity1);
         });
+        this.resetSyncRevision(nodeId);
+        return count;
 
 
     }
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.service.h2db;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.JpomApplication;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * 数据自动清理执行器
+ * <p>
+ * 插入数据后提交清理任务，同一个清理任务在间隔内最多执行一次，间隔内重复提交的只保留一个延迟执行。
+ * 清理任务在独立的小线程池中执行，不占用公共线程池
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class DataRetentionExecutor {
+
+    /**
+     * 每批删除的数据条数
+     */
+    public static final int BATCH_SIZE = 500;
+
+    private static final Map<String, Task> TASKS = new ConcurrentHashMap<>();
+    private static final Map<String, Stat> STATS = new ConcurrentHashMap<>();
+    private static volatile ScheduledExecutorService executor;
+
+    private static ScheduledExecutorService executor() {
+        if (executor == null) {
+            synchronized (DataRetentionExecutor.class) {
+                if (executor == null) {
+                    ScheduledThreadPoolExecutor scheduledExecutor = new ScheduledThreadPoolExecutor(2,
+                        ThreadFactoryBuilder.create().setNamePrefix("jpom-data-retention-").setDaemon(true).build());
+                    scheduledExecutor.setRemoveOnCancelPolicy(true);
+                    JpomApplication.register("data-retention", scheduledExecutor);
+                    executor = scheduledExecutor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 提交清理任务
+     *
+     * @param tableName 表名，用于统计
+     * @param key       任务唯一标识，相同标识的任务合并执行
+     * @param interval  最小执行间隔，单位毫秒
+     * @param job       清理任务，返回清理的条数
+     */
+    public static void submit(String tableName, String key, long interval, IntSupplier job) {
+        Task task = TASKS.computeIfAbsent(key, s -> new Task());
+        if (!task.scheduled.compareAndSet(false, true)) {
+            // 已经有待执行的任务
+            return;
+        }
+        long delay = Math.max(task.lastRunTime + interval - System.currentTimeMillis(), 0);
+        try {
+            executor().schedule(() -> run(tableName, task, job), delay, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            task.scheduled.set(false);
+            throw e;
+        }
+    }
+
+    private static void run(String tableName, Task task, IntSupplier job) {
+        long start = System.currentTimeMillis();
+        Stat stat = STATS.computeIfAbsent(tableName, Stat::new);
+        try {
+            int count = job.getAsInt();
+            stat.purgeCount.add(count);
+            stat.lastPurgeCount = count;
+            if (count > 0) {
+                log.debug(I18nMessageUtil.get("i18n.data_retention_purged.98fa"), tableName, count, System.currentTimeMillis() - start);
+            }
+        } catch (Exception e) {
+            stat.errorCount.increment();
+            log.error(I18nMessageUtil.get("i18n.data_retention_failed.481a"), tableName, e);
+        } finally {
+            long end = System.currentTimeMillis();
+            stat.runCount.increment();
+            stat.costTime.add(end - start);
+            stat.lastRunTime = end;
+            task.lastRunTime = end;
+            task.scheduled.set(false);
+        }
+    }
+
+    /**
+     * 清理统计
+     *
+     * @return 每个表的清理统计
+     */
+    public static List<Stat> stats() {
+        return new ArrayList<>(STATS.values());
+    }
+
+    private static class Task {
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long lastRunTime;
+    }
+
+    /**
+     * 单个表的清理统计
+     */
+    public static class Stat {
+        @Getter
+        private final String tableName;
+        private final LongAdder runCount = new LongAdder();
+        private final LongAdder purgeCount = new LongAdder();
+        private final LongAdder costTime = new LongAdder();
+        private final LongAdder errorCount = new LongAdder();
+        /**
+         * 最后一次清理的条数
+         */
+        @Getter
+        private volatile int lastPurgeCount;
+        /**
+         * 最后一次执行时间
+         */
+        @Getter
+        private volatile long lastRunTime;
+
+        private Stat(String tableName) {
+            this.tableName = tableName;
+        }
+
+        /**
+         * @return 执行次数
+         */
+        public long getRunCount() {
+            return runCount.sum();
+        }
+
+        /**
+         * @return 清理的总条数
+         */
+        public long getPurgeCount() {
+            return purgeCount.sum();
+        }
+
+        /**
+         * @return 执行总耗时，单位毫秒
+         */
+        public long getCostTime() {
+            return costTime.sum();
+        }
+
+        /**
+         * @return 执行异常次数
+         */
+        public long getErrorCount() {
+            return errorCount.sum();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.service.h2db;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.extra.spring.SpringUtil;
+import lombok.Getter;
+import org.dromara.jpom.db.DbExtConfig;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 请求链路上高频查询的数据缓存（登录用户、工作空间权限、节点）
+ * <p>
+ * 按条数和时间淘汰，关联的表通过 {@link BaseDbService} 写入数据后立即清空本地缓存，
+ * 并通知监听者（集群模式下由 {@link org.dromara.jpom.func.system.service.ClusterInfoService} 同步给其他服务端）
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class DbDataCache<V> {
+
+    private static final List<DbDataCache<?>> CACHES = new CopyOnWriteArrayList<>();
+    private static final List<Consumer<String>> CHANGE_LISTENERS = new CopyOnWriteArrayList<>();
+
+    @Getter
+    private final String name;
+    private final Set<String> tableNames;
+    private final int capacity;
+    private final LRUCache<String, V> cache;
+    /**
+     * 清空缓存时递增，避免清空前开始的查询把旧数据写回缓存
+     */
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder clearCount = new LongAdder();
+
+    private DbDataCache(String name, int capacity, long timeout, Collection<String> tableNames) {
+        this.name = name;
+        this.capacity = capacity;
+        this.tableNames = new HashSet<>(tableNames);
+        this.cache = capacity > 0 ? CacheUtil.newLRUCache(capacity, timeout) : null;
+    }
+
+    /**
+     * 创建缓存，缓存条数和时间读取数据库配置
+     *
+     * @param name       缓存名称
+     * @param tableNames 关联的表名
+     * @param <V>        数据类型
+     * @return 缓存
+     */
+    public static <V> DbDataCache<V> create(String name, String... tableNames) {
+        DbExtConfig dbExtConfig = SpringUtil.getBean(DbExtConfig.class);
+        return create(name, dbExtConfig.getDataCacheSize(), TimeUnit.SECONDS.toMillis(dbExtConfig.getDataCacheTtl()), tableNames);
+    }
+
+    /**
+     * 创建缓存
+     *
+     * @param name       缓存名称
+     * @param capacity   最大条数，小于等于零则不缓存
+     * @param timeout    缓存时间，单位毫秒
+     * @param tableNames 关联的表名
+     * @param <V>        数据类型
+     * @return 缓存
+     */
+    public static <V> DbDataCache<V> create(String name, int capacity, long timeout, String... tableNames) {
+        DbDataCache<V> dataCache = new DbDataCache<>(name, capacity, timeout, Arrays.asList(tableNames));
+        CACHES.add(dataCache);
+        return dataCache;
+    }
+
+    /**
+     * 查询缓存，不存在时查询数据库并缓存。查询结果为 null 时不缓存
+     *
+     * @param key    缓存 key
+     * @param loader 查询数据库
+     * @return 数据
+     */
+    public V get(String key, Supplier<V> loader) {
+        if (cache == null) {
+            return loader.get();
+        }
+        V value = cache.get(key);
+        if (value != null) {
+            return value;
+        }
+        long current = generation.get();
+        value = loader.get();
+        if (value != null) {
+            cache.put(key, value);
+            if (current != generation.get()) {
+                // 查询期间数据已经变动
+                cache.remove(key);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        clearCount.increment();
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * 本地表数据变动，清空关联的缓存并通知监听者
+     *
+     * @param tableName 表名
+     */
+    public static void onChange(String tableName) {
+        if (!invalidate(tableName)) {
+            return;
+        }
+        for (Consumer<String> listener : CHANGE_LISTENERS) {
+            listener.accept(tableName);
+        }
+    }
+
+    /**
+     * 清空关联表的缓存，不通知监听者
+     *
+     * @param tableName 表名
+     * @return 是否有缓存关联该表
+     */
+    public static boolean invalidate(String tableName) {
+        boolean match = false;
+        for (DbDataCache<?> dataCache : CACHES) {
+            if (dataCache.tableNames.contains(tableName)) {
+                dataCache.clear();
+                match = true;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * 添加表数据变动监听
+     *
+     * @param listener 监听，参数为表名
+     */
+    public static void addChangeListener(Consumer<String> listener) {
+        CHANGE_LISTENERS.add(listener);
+    }
+
+    /**
+     * 所有缓存关联的表名
+     *
+     * @return 表名
+     */
+    public static Set<String> tableNames() {
+        Set<String> set = new TreeSet<>();
+        for (DbDataCache<?> dataCache : CACHES) {
+            set.addAll(dataCache.tableNames);
+        }
+        return set;
+    }
+
+    /**
+     * 缓存统计
+     *
+     * @return 每个缓存的统计
+     */
+    public static List<Map<String, Object>> stats() {
+        List<Map<String, Object>> list = new ArrayList<>(CACHES.size());
+        for (DbDataCache<?> dataCache : CACHES) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("name", dataCache.name);
+            map.put("tableNames", CollUtil.join(dataCache.tableNames, ","));
+            map.put("capacity", dataCache.capacity);
+            map.put("size", dataCache.size());
+            map.put("hitCount", dataCache.getHitCount());
+            map.put("missCount", dataCache.getMissCount());
+            map.put("clearCount", dataCache.clearCount.sum());
+            list.add(map);
+        }
+        return list;
+    }
+
+    public int size() {
+        return cache == null ? 0 : cache.size();
+    }
+
+    /**
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return cache == null ? 0 : cache.getHitCount();
+    }
+
+    /**
+     * @return 未命中次数（包含过期）
+     */
+    public long getMissCount() {
+        return cache == null ? 0 : cache.getMissCount();
+    }
+}
@@ -9,6 +9,7 @@
  */
 package org.dromara.jpom.service.node;
 
+import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.lang.Opt;
 import cn.hutool.core.lang.Validator;
 import cn.hutool.core.util.StrUtil;
@@ -20,6 +21,7 @@ import org.dromara.jpom.common.i18n.I18nMessageUtil;
 import org.dromara.jpom.model.data.NodeModel;
 import org.dromara.jpom.model.data.SshModel;
 import org.dromara.jpom.service.h2db.BaseWorkspaceService;
+import org.dromara.jpom.service.h2db.DbDataCache;
 import org.dromara.jpom.service.node.ssh.SshService;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
@@ -42,11 +44,26 @@ public class NodeService extends BaseWorkspaceService<NodeModel> {
     @Resource
     @Lazy
     private ProjectInfoCacheService projectInfoCacheService;
+    /**
+     * 请求拦截中查询节点的缓存
+     */
+    private final DbDataCache<NodeModel> nodeCache = DbDataCache.create("node", this.tableName);
 
     public NodeService(SshService sshService) {
         this.sshService = sshService;
     }
 
+    /**
+     * 根据主键查询节点，优先读取缓存
+     *
+     * @param id 节点ID
+     * @return 节点（副本）
+     */
+    public NodeModel getByKeyWithCache(String id) {
+        NodeModel nodeModel = nodeCache.get(id, () -> super.getByKey(id));
+        return nodeModel == null ? null : BeanUtil.copyProperties(nodeModel, NodeModel.class);
+    }
+
     @Override
     protected void fillSelectResult(NodeModel data) {
         if (data != null) {
@@ -107,6 +107,18 @@ public class ProjectInfoCacheService extends BaseNodeService<ProjectInfoCacheMod
         return this.checkLonelyDataArray(tJsonMessage.getData(), machineNodeModel.getId());
     }
 
+    @Override
+    protected String syncRevisionColumn() {
+        return "projectSyncRevision";
+    }
+
+    @Override
+    protected JsonMessage<JSONObject> getChangeData(NodeModel nodeModel, Long since) {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("since", since);
+        return NodeForward.request(nodeModel, NodeUrl.Manage_GetProjectChanges, jsonObject);
+    }
+
     @Override
     public String typeName() {
         return getTableName();
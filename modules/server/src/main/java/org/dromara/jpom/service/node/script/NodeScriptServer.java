@@ -10,6 +10,7 @@
 package org.dromara.jpom.service.node.script;
 
 import cn.hutool.db.Entity;
+import cn.keepbx.jpom.model.JsonMessage;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import org.dromara.jpom.common.forward.NodeForward;
@@ -70,6 +71,18 @@ public class NodeScriptServer extends BaseNodeService<NodeScriptCacheModel> impl
         return this.checkLonelyDataArray(jsonArray, machineNodeModel.getId());
     }
 
+    @Override
+    protected String syncRevisionColumn() {
+        return "scriptSyncRevision";
+    }
+
+    @Override
+    protected JsonMessage<JSONObject> getChangeData(NodeModel nodeModel, Long since) {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("since", since);
+        return NodeForward.request(nodeModel, NodeUrl.Script_Changes, jsonObject);
+    }
+
     @Override
     public String typeName() {
         return getTableName();
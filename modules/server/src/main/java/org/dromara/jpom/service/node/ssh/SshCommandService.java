@@ -286,7 +286,7 @@ public class SshCommandService extends BaseWorkspaceService<CommandModel> implem
                 int timeout = machineSshModel.timeout();
                 //
                 session = sshService.getSessionByModel(machineSshModel);
-                int exitCode = JschUtils.execCallbackLine(session, charset, timeout, commands, commandParamsLine, logRecorder::info);
+                int exitCode = JschUtils.execCallbackLine(session, charset, timeout, commands, commandParamsLine, logRecorder::appendLine);
                 logRecorder.system(I18nMessageUtil.get("i18n.exit_code.ea65"), exitCode);
                 // 更新状态
                 this.updateStatus(commandExecLogModel.getId(), CommandExecLogModel.Status.DONE, exitCode);
@@ -297,7 +297,7 @@ public class SshCommandService extends BaseWorkspaceService<CommandModel> implem
                 // 记录错误日志
                 logRecorder.error(I18nMessageUtil.get("i18n.command_error.d0b4"), e);
             } finally {
-                JschUtil.close(session);
+                sshService.closeSession(session);
             }
         }
     }
@@ -9,6 +9,8 @@
  */
 package org.dromara.jpom.service.node.ssh;
 
+import cn.hutool.core.date.BetweenFormatter;
+import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.util.NumberUtil;
@@ -39,6 +41,7 @@ import javax.annotation.Resource;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -83,24 +86,45 @@ public class SshService extends BaseWorkspaceService<SshModel> {
     }
 
     /**
-     * 获取 ssh 回话
+     * 获取 ssh 回话，会话为共享的会话，使用完成后需要调用 {@link #closeSession(Session)} 归还
      *
      * @param sshModel sshModel
      * @return session
      */
     public Session getSessionByModel(SshModel sshModel) {
         MachineSshModel machineSshModel = this.getMachineSshModel(sshModel);
-        return machineSshServer.getSessionByModelNoFill(machineSshModel);
+        return machineSshServer.borrowSession(machineSshModel);
     }
 
     /**
-     * 获取 ssh 回话
+     * 获取 ssh 回话，会话为共享的会话，使用完成后需要调用 {@link #closeSession(Session)} 归还
      *
      * @param sshModel sshModel
      * @return session
      */
     public Session getSessionByModel(MachineSshModel sshModel) {
-        return machineSshServer.getSessionByModelNoFill(sshModel);
+        return machineSshServer.borrowSession(sshModel);
+    }
+
+    /**
+     * 归还 ssh 会话，只关闭自己打开的通道，不能直接断开会话
+     *
+     * @param session 会话
+     */
+    public void closeSession(Session session) {
+        machineSshServer.releaseSession(session);
+    }
+
+    /**
+     * 在共享的会话上打开 sftp，关闭 sftp 时只关闭通道不断开会话
+     *
+     * @param session 会话
+     * @param charset 编码格式
+     * @param timeout 超时时间
+     * @return sftp
+     */
+    public Sftp openSftp(Session session, Charset charset, int timeout) {
+        return new Sftp(JschUtil.openSftp(session, timeout), charset, timeout);
     }
 
 
@@ -137,7 +161,7 @@ public class SshService extends BaseWorkspaceService<SshModel> {
             //uploadDir(channel, remotePath, desc, sshModel.getCharsetT());
         } finally {
             JschUtil.close(channel);
-            JschUtil.close(session);
+            this.closeSession(session);
         }
     }
 
@@ -162,7 +186,7 @@ public class SshService extends BaseWorkspaceService<SshModel> {
         } finally {
             IoUtil.close(output);
             JschUtil.close(channel);
-            JschUtil.close(session);
+            this.closeSession(session);
         }
     }
 
@@ -260,6 +284,13 @@ public class SshService extends BaseWorkspaceService<SshModel> {
                     );
                 }
             }
+
+            @Override
+            public void done(String desc, int count, int skip, long size, long millis) {
+                long speed = size * 1000 / Math.max(millis, 1);
+                logRecorder.system(I18nMessageUtil.get("i18n.sftp_sync_upload_done.d072"), desc, count, skip,
+                    FileUtil.readableFileSize(size), DateUtil.formatBetween(millis, BetweenFormatter.Level.MILLISECOND), FileUtil.readableFileSize(speed));
+            }
         };
     }
 
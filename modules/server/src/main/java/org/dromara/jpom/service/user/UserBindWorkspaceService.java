@@ -26,6 +26,7 @@ import org.dromara.jpom.model.user.UserModel;
 import org.dromara.jpom.model.user.UserPermissionGroupBean;
 import org.dromara.jpom.permission.MethodFeature;
 import org.dromara.jpom.service.h2db.BaseDbService;
+import org.dromara.jpom.service.h2db.DbDataCache;
 import org.dromara.jpom.service.system.WorkspaceService;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
@@ -43,6 +44,14 @@ public class UserBindWorkspaceService extends BaseDbService<UserBindWorkspaceMod
 
     private final WorkspaceService workspaceService;
     private final UserPermissionGroupServer userPermissionGroupServer;
+    /**
+     * 用户在工作空间的权限绑定缓存
+     */
+    private final DbDataCache<List<UserBindWorkspaceModel>> bindCache;
+    /**
+     * 权限组缓存
+     */
+    private final DbDataCache<List<UserPermissionGroupBean>> permissionGroupCache;
 
     /**
      * ssh 终端没有任何限制
@@ -53,6 +62,8 @@ public class UserBindWorkspaceService extends BaseDbService<UserBindWorkspaceMod
                                     UserPermissionGroupServer userPermissionGroupServer) {
         this.workspaceService = workspaceService;
         this.userPermissionGroupServer = userPermissionGroupServer;
+        this.bindCache = DbDataCache.create("userBindWorkspace", this.tableName);
+        this.permissionGroupCache = DbDataCache.create("userPermissionGroup", userPermissionGroupServer.getTableName());
     }
 
     /**
@@ -158,13 +169,14 @@ public class UserBindWorkspaceService extends BaseDbService<UserBindWorkspaceMod
      */
     private List<UserBindWorkspaceModel> existsList(UserModel userModel, String workspaceId) {
         String permissionGroup = userModel.getPermissionGroup();
-        List<String> list = StrUtil.splitTrim(permissionGroup, StrUtil.AT);
-        list = list.stream()
+        List<String> list = StrUtil.splitTrim(permissionGroup, StrUtil.AT)
+            .stream()
             .map(s -> UserBindWorkspaceModel.getId(s, workspaceId))
             .collect(Collectors.toList());
         // 兼容旧数据
         list.add(UserBindWorkspaceModel.getId(userModel.getId(), workspaceId));
-        return this.listById(list);
+        String key = CollUtil.join(list, StrUtil.COMMA);
+        return bindCache.get(key, () -> this.listById(list));
     }
 
     /**
@@ -197,7 +209,7 @@ public class UserBindWorkspaceService extends BaseDbService<UserBindWorkspaceMod
         List<String> permissionGroupIds = workspaceModels.stream()
             .map(UserBindWorkspaceModel::getUserId)
             .collect(Collectors.toList());
-        List<UserPermissionGroupBean> permissionGroups = userPermissionGroupServer.listById(permissionGroupIds);
+        List<UserPermissionGroupBean> permissionGroups = permissionGroupCache.get(CollUtil.join(permissionGroupIds, StrUtil.COMMA), () -> userPermissionGroupServer.listById(permissionGroupIds));
         if (CollUtil.isEmpty(permissionGroups)) {
             return UserBindWorkspaceModel.PermissionResult.builder()
                 .state(UserBindWorkspaceModel.PermissionResultEnum.FAIL)
@@ -9,6 +9,7 @@
  */
 package org.dromara.jpom.service.user;
 
+import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.comparator.CompareUtil;
 import cn.hutool.core.date.SystemClock;
@@ -25,6 +26,7 @@ import org.dromara.jpom.model.data.WorkspaceModel;
 import org.dromara.jpom.model.dto.UserLoginDto;
 import org.dromara.jpom.model.user.UserModel;
 import org.dromara.jpom.service.h2db.BaseDbService;
+import org.dromara.jpom.service.h2db.DbDataCache;
 import org.dromara.jpom.service.system.SystemParametersServer;
 import org.dromara.jpom.util.JwtUtil;
 import org.dromara.jpom.util.TwoFactorAuthUtils;
@@ -42,6 +44,10 @@ import java.util.stream.Collectors;
 public class UserService extends BaseDbService<UserModel> {
     private final SystemParametersServer systemParametersServer;
     private final UserBindWorkspaceService userBindWorkspaceService;
+    /**
+     * 登录信息校验缓存，key 为用户 md5
+     */
+    private final DbDataCache<UserModel> checkUserCache = DbDataCache.create("checkUser", this.tableName);
 
     public UserService(SystemParametersServer systemParametersServer,
                        UserBindWorkspaceService userBindWorkspaceService) {
@@ -95,9 +101,16 @@ public class UserService extends BaseDbService<UserModel> {
      * @return userModel 用户对象
      */
     public UserModel checkUser(String userMd5) {
-        UserModel userModel = new UserModel();
-        userModel.setPassword(userMd5);
-        return super.queryByBean(userModel);
+        if (StrUtil.isEmpty(userMd5)) {
+            return null;
+        }
+        UserModel cacheUser = checkUserCache.get(userMd5, () -> {
+            UserModel userModel = new UserModel();
+            userModel.setPassword(userMd5);
+            return super.queryByBean(userModel);
+        });
+        // 返回副本，避免调用方修改缓存数据
+        return cacheUser == null ? null : BeanUtil.copyProperties(cacheUser, UserModel.class);
     }
 
     /**
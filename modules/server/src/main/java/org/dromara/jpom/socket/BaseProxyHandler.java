@@ -92,7 +92,8 @@ public abstract class BaseProxyHandler extends BaseHandler {
         String workspaceId = Optional.ofNullable(nodeModel).map(BaseWorkspaceModel::getWorkspaceId).orElse(StrUtil.EMPTY);
         IUrlItem urlItem = NodeForward.parseUrlItem(nodeInfo, workspaceId, this.nodeUrl, DataContentType.FORM_URLENCODED);
 
-        IProxyWebSocket proxySession = TransportServerFactory.get().websocket(nodeInfo, urlItem, parameters);
+        // 同一个节点的会话共用一个多路复用连接
+        IProxyWebSocket proxySession = TransportServerFactory.get().multiplexWebsocket(nodeInfo, urlItem, parameters);
         proxySession.onMessage(s -> onProxyMessage(session, s));
         if (!proxySession.connectBlocking()) {
             this.sendMsg(session, I18nMessageUtil.get("i18n.plugin_connection_failed.02a1"));
@@ -182,7 +182,7 @@ public class ServerScriptProcessBuilder extends BaseRunScript implements Runnabl
             this.environmentMapBuilder.eachStr(this::info);
             process = processBuilder.start();
             inputStream = process.getInputStream();
-            IoUtil.readLines(inputStream, ExtConfigBean.getConsoleLogCharset(), (LineHandler) ServerScriptProcessBuilder.this::info);
+            IoUtil.readLines(inputStream, ExtConfigBean.getConsoleLogCharset(), (LineHandler) ServerScriptProcessBuilder.this::appendLine);
             int waitFor = process.waitFor();
             this.system(I18nMessageUtil.get("i18n.execution_ended.b793"), waitFor);
             scriptExecuteLogServer.updateStatus(executeId, CommandExecLogModel.Status.DONE, waitFor);
@@ -20,8 +20,10 @@ import org.springframework.web.socket.WebSocketSession;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Set;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -48,6 +50,19 @@ public class ServiceFileTailWatcher<T extends AutoCloseable> extends BaseFileTai
         return CONCURRENT_HASH_MAP.size();
     }
 
+    /**
+     * 所有跟随文件的统计信息
+     *
+     * @return list
+     */
+    public static List<Map<String, Object>> listMetrics() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (ServiceFileTailWatcher<WebSocketSession> watcher : CONCURRENT_HASH_MAP.values()) {
+            list.add(watcher.getMetrics());
+        }
+        return list;
+    }
+
     /**
      * 添加文件监听
      *
@@ -83,10 +98,7 @@ public class ServiceFileTailWatcher<T extends AutoCloseable> extends BaseFileTai
     public static void offline(WebSocketSession session) {
         Collection<ServiceFileTailWatcher<WebSocketSession>> collection = CONCURRENT_HASH_MAP.values();
         for (ServiceFileTailWatcher<WebSocketSession> agentFileTailWatcher : collection) {
-            agentFileTailWatcher.socketSessions.removeIf(session::equals);
-            if (agentFileTailWatcher.socketSessions.isEmpty()) {
-                agentFileTailWatcher.close();
-            }
+            agentFileTailWatcher.remove(session);
         }
     }
 
@@ -100,9 +112,8 @@ public class ServiceFileTailWatcher<T extends AutoCloseable> extends BaseFileTai
         if (null == agentFileTailWatcher) {
             return;
         }
-        Set<WebSocketSession> socketSessions = agentFileTailWatcher.socketSessions;
-        for (WebSocketSession socketSession : socketSessions) {
-            offline(socketSession);
+        for (WebSocketSession socketSession : agentFileTailWatcher.sessions()) {
+            agentFileTailWatcher.remove(socketSession);
         }
         agentFileTailWatcher.close();
     }
@@ -118,16 +129,7 @@ public class ServiceFileTailWatcher<T extends AutoCloseable> extends BaseFileTai
         if (null == serviceFileTailWatcher) {
             return;
         }
-        Set<WebSocketSession> socketSessions = serviceFileTailWatcher.socketSessions;
-        for (WebSocketSession socketSession : socketSessions) {
-            if (socketSession.equals(session)) {
-                offline(socketSession);
-                break;
-            }
-        }
-        if (serviceFileTailWatcher.socketSessions.isEmpty()) {
-            serviceFileTailWatcher.close();
-        }
+        serviceFileTailWatcher.remove(session);
     }
 
     @Override
@@ -135,6 +137,11 @@ public class ServiceFileTailWatcher<T extends AutoCloseable> extends BaseFileTai
         return SocketSessionUtil.send((WebSocketSession) session, msg);
     }
 
+    @Override
+    protected String getId(T session) {
+        return ((WebSocketSession) session).getId();
+    }
+
     /**
      * 关闭
      */
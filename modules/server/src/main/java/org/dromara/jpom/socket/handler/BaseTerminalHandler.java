@@ -13,10 +13,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
 import org.dromara.jpom.socket.BaseHandler;
 import org.dromara.jpom.util.SocketSessionUtil;
+import org.dromara.jpom.util.TerminalOutput;
 import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
 
 /**
  * @author bwcx_jzy
@@ -36,4 +38,15 @@ public abstract class BaseTerminalHandler extends BaseHandler {
             log.error(I18nMessageUtil.get("i18n.send_message_failure_prefix.6f8c") + msg, e);
         }
     }
+
+    /**
+     * 创建终端输出，输出合并后以二进制消息发送
+     *
+     * @param session 会话
+     * @param charset 终端输出的编码格式
+     * @return 终端输出
+     */
+    protected TerminalOutput createOutput(WebSocketSession session, Charset charset) {
+        return new TerminalOutput(session.getId(), charset, msg -> SocketSessionUtil.send(session, new BinaryMessage(msg.getBytes())));
+    }
 }
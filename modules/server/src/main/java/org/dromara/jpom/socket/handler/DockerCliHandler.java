@@ -32,6 +32,7 @@ import org.dromara.jpom.plugin.PluginFactory;
 import org.dromara.jpom.service.docker.DockerInfoService;
 import org.dromara.jpom.util.SocketSessionUtil;
 import org.dromara.jpom.util.StringUtil;
+import org.dromara.jpom.util.TerminalOutput;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
@@ -124,12 +125,14 @@ public class DockerCliHandler extends BaseTerminalHandler {
         private PipedOutputStream outputStream = new PipedOutputStream(inputStream);
         private String containerId;
         private Thread thread;
+        private final TerminalOutput output;
 
         HandlerItem(WebSocketSession session, MachineDockerModel dockerInfoModel, Map<String, Object> map, String containerId) throws IOException {
             this.session = session;
             this.dockerInfoModel = dockerInfoModel;
             this.containerId = containerId;
             this.map = map;
+            this.output = createOutput(session, CharsetUtil.CHARSET_UTF_8);
         }
 
         void startRead() {
@@ -177,13 +180,13 @@ public class DockerCliHandler extends BaseTerminalHandler {
                     map.put("execId", execId);
                     return;
                 }
-                sendBinary(session, s);
+                this.write(s);
             };
             map.put("charset", CharsetUtil.CHARSET_UTF_8);
             map.put("stdin", inputStream);
             map.put("logConsumer", logConsumer);
             Consumer<String> errorConsumer = s -> {
-                sendBinary(session, s);
+                this.write(s);
                 if (StrUtil.equals(s, "exit")) {
                     // 退出
                     destroy(session);
@@ -200,6 +203,23 @@ public class DockerCliHandler extends BaseTerminalHandler {
             log.debug(I18nMessageUtil.get("i18n.docker_exec_terminal_process_ended.c734"), dockerInfoModel.getName());
             // 标记自动结束
             this.containerId = null;
+            this.output.close();
+        }
+
+        /**
+         * 输出合并发送，发送不及时阻塞容器输出的回调
+         *
+         * @param s 输出
+         */
+        private void write(String s) {
+            output.write(s);
+            try {
+                if (!output.awaitWritable()) {
+                    destroy(session);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
 
         private void tryExit() throws Exception {
@@ -241,6 +261,7 @@ public class DockerCliHandler extends BaseTerminalHandler {
                 log.error(I18nMessageUtil.get("i18n.container_command_execution_exception.a14a"), e);
             }
             log.debug(I18nMessageUtil.get("i18n.close_docker_exec_terminal.fec3"), dockerInfoModel.getName(), execId);
+            this.output.closeNow();
             IoUtil.close(this.inputStream);
             IoUtil.close(this.outputStream);
             this.inputStream = null;
@@ -12,7 +12,6 @@ package org.dromara.jpom.socket.handler;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.io.IoUtil;
-import cn.hutool.core.io.NioUtil;
 import cn.hutool.core.map.SafeConcurrentHashMap;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.extra.spring.SpringUtil;
@@ -25,7 +24,6 @@ import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
-import org.dromara.jpom.common.i18n.I18nThreadUtil;
 import org.dromara.jpom.func.assets.model.MachineSshModel;
 import org.dromara.jpom.model.data.SshModel;
 import org.dromara.jpom.model.user.UserModel;
@@ -37,6 +35,8 @@ import org.dromara.jpom.service.node.ssh.SshService;
 import org.dromara.jpom.service.user.UserBindWorkspaceService;
 import org.dromara.jpom.util.SocketSessionUtil;
 import org.dromara.jpom.util.StringUtil;
+import org.dromara.jpom.util.TerminalInputPump;
+import org.dromara.jpom.util.TerminalOutput;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
@@ -44,10 +44,10 @@ import org.springframework.web.socket.WebSocketSession;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * ssh 处理2
@@ -186,7 +186,7 @@ public class SshHandler extends BaseTerminalHandler {
         sshTerminalExecuteLogService.batch(userInfo, machineSshModel, sshItem, ip, userAgent, refuse, split);
     }
 
-    private class HandlerItem implements Runnable, AutoCloseable {
+    private class HandlerItem implements AutoCloseable {
         private final WebSocketSession session;
         private final InputStream inputStream;
         private final OutputStream outputStream;
@@ -195,6 +195,9 @@ public class SshHandler extends BaseTerminalHandler {
         private final SshModel sshItem;
         private final MachineSshModel machineSshModel;
         private final StringBuilder nowLineInput = new StringBuilder();
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private final TerminalOutput output;
+        private final TerminalInputPump pump;
 
         HandlerItem(WebSocketSession session, MachineSshModel machineSshModel, SshModel sshModel) throws IOException {
             this.session = session;
@@ -204,11 +207,13 @@ public class SshHandler extends BaseTerminalHandler {
             this.channel = (ChannelShell) JschUtil.createChannel(openSession, ChannelType.SHELL);
             this.inputStream = channel.getInputStream();
             this.outputStream = channel.getOutputStream();
+            this.output = createOutput(session, machineSshModel.charset());
+            this.pump = new TerminalInputPump(inputStream, output, channel::isClosed, this::readEnd);
         }
 
         void startRead() throws JSchException {
             this.channel.connect(machineSshModel.timeout());
-            I18nThreadUtil.execute(this);
+            this.pump.start();
         }
 
         /**
@@ -274,31 +279,35 @@ public class SshHandler extends BaseTerminalHandler {
         }
 
 
-        @Override
-        public void run() {
-            try {
-                byte[] buffer = new byte[1024];
-                int i;
-                //如果没有数据来，线程会一直阻塞在这个地方等待数据。
-                while ((i = inputStream.read(buffer)) != NioUtil.EOF) {
-                    sendBinary(session, new String(Arrays.copyOfRange(buffer, 0, i), machineSshModel.charset()));
-                }
-            } catch (Exception e) {
-                if (!this.openSession.isConnected()) {
-                    log.error(I18nMessageUtil.get("i18n.ssh_error_string.6bdb"), e.getMessage());
-                    return;
-                }
-                log.error(I18nMessageUtil.get("i18n.read_error.7fa5"), e);
-                SshHandler.this.destroy(this.session);
+        /**
+         * 终端输出读取结束
+         *
+         * @param e 异常
+         */
+        private void readEnd(IOException e) {
+            this.output.close();
+            if (e == null) {
+                return;
             }
+            if (!this.openSession.isConnected()) {
+                log.error(I18nMessageUtil.get("i18n.ssh_error_string.6bdb"), e.getMessage());
+                return;
+            }
+            log.error(I18nMessageUtil.get("i18n.read_error.7fa5"), e);
+            SshHandler.this.destroy(this.session);
         }
 
         @Override
         public void close() throws Exception {
+            this.pump.stop();
+            this.output.closeNow();
             IoUtil.close(this.inputStream);
             IoUtil.close(this.outputStream);
             JschUtil.close(this.channel);
-            JschUtil.close(this.openSession);
+            // 共享的会话只归还，重复关闭时不重复归还
+            if (this.closed.compareAndSet(false, true)) {
+                sshService.closeSession(this.openSession);
+            }
         }
     }
 
@@ -21,6 +21,7 @@ import org.dromara.jpom.common.i18n.I18nMessageUtil;
 import org.dromara.jpom.configuration.*;
 import org.dromara.jpom.model.AgentFileModel;
 import org.dromara.jpom.model.user.UserModel;
+import org.dromara.jpom.transport.TransportServerFactory;
 import org.dromara.jpom.util.BaseFileTailWatcher;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -195,6 +196,10 @@ public class ServerConfig implements InitializingBean {
         DataSize messageSizeLimit = nodeConfig.getWebSocketMessageSizeLimit();
         messageSizeLimit = ObjectUtil.defaultIfNull(messageSizeLimit, DataSize.ofMegabytes(5));
         SystemUtil.set("JPOM_NODE_WEB_SOCKET_MESSAGE_SIZE_LIMIT", messageSizeLimit.toBytes() + "");
+        SystemUtil.set(TransportServerFactory.TRANSPORT_SERVER_PROPERTY, StrUtil.nullToEmpty(nodeConfig.getTransportServer()));
+        SystemUtil.set("JPOM_NODE_TRANSPORT_POOL_MAX_PER_NODE", nodeConfig.getTransportPoolMaxPerNode() + "");
+        SystemUtil.set("JPOM_NODE_TRANSPORT_POOL_MAX_TOTAL", nodeConfig.getTransportPoolMaxTotal() + "");
+        SystemUtil.set("JPOM_NODE_TRANSPORT_KEEP_ALIVE", nodeConfig.getTransportKeepAlive() + "");
     }
 
 
@@ -9,6 +9,7 @@
  */
 package org.dromara.jpom.util;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.StrUtil;
 import org.springframework.util.AntPathMatcher;
@@ -20,7 +21,10 @@ import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 /**
  * @author bwcx_jzy
@@ -59,4 +63,100 @@ public class AntPathUtil {
         });
         return paths;
     }
+
+    /**
+     * 将多个表达式预编译为一个匹配器，匹配其中任意一个表达式即返回 true，结果与 {@link #ANT_PATH_MATCHER} 的 match 一致
+     * <p>
+     * 以 / 开头且不包含 {} 变量的表达式合并为一个正则，其他表达式仍然使用 {@link #ANT_PATH_MATCHER} 匹配
+     *
+     * @param patterns 表达式
+     * @return 匹配器，表达式为空时始终返回 false
+     */
+    public static Predicate<String> compileMatcher(Collection<String> patterns) {
+        List<String> regexList = new ArrayList<>();
+        List<String> others = new ArrayList<>();
+        if (patterns != null) {
+            for (String pattern : patterns) {
+                if (StrUtil.isEmpty(pattern)) {
+                    continue;
+                }
+                if (StrUtil.startWith(pattern, StrUtil.SLASH) && !StrUtil.containsAny(pattern, "{", "}")) {
+                    regexList.add(toRegex(pattern));
+                } else {
+                    others.add(pattern);
+                }
+            }
+        }
+        Pattern regex = regexList.isEmpty() ? null : Pattern.compile(CollUtil.join(regexList, "|", "(?:", ")"));
+        return path -> {
+            if (path == null) {
+                return false;
+            }
+            if (regex != null && regex.matcher(path).matches()) {
+                return true;
+            }
+            for (String other : others) {
+                if (ANT_PATH_MATCHER.match(other, path)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * 将以 / 开头的 ant 表达式转换为正则
+     * <p>
+     * 与 AntPathMatcher 一致：按 / 拆分后忽略空的层级，** 匹配任意层级。不包含 ** 时路径和表达式结尾的 / 需要一致
+     * （表达式最后一级为 * 时还可以匹配以 / 结尾的上一级路径），包含 ** 时忽略路径结尾的 /
+     *
+     * @param pattern 表达式
+     * @return 正则
+     */
+    private static String toRegex(String pattern) {
+        List<String> tokens = StrUtil.split(pattern, StrUtil.C_SLASH, true, true);
+        boolean anyDir = tokens.contains("**");
+        StringBuilder builder = new StringBuilder();
+        int lastStart = 0;
+        for (String token : tokens) {
+            lastStart = builder.length();
+            if ("**".equals(token)) {
+                builder.append("(?:/[^/]+)*");
+                continue;
+            }
+            builder.append(StrUtil.SLASH);
+            if (anyDir) {
+                // 层级不能为空
+                builder.append("(?=[^/])");
+            }
+            StringBuilder literal = new StringBuilder();
+            for (char c : token.toCharArray()) {
+                if (c == '*' || c == '?') {
+                    if (literal.length() > 0) {
+                        builder.append(Pattern.quote(literal.toString()));
+                        literal.setLength(0);
+                    }
+                    builder.append(c == '*' ? "[^/]*" : "[^/]");
+                } else {
+                    literal.append(c);
+                }
+            }
+            if (literal.length() > 0) {
+                builder.append(Pattern.quote(literal.toString()));
+            }
+        }
+        if (anyDir) {
+            builder.append("/?");
+            return builder.toString();
+        }
+        String prefix = builder.substring(0, lastStart);
+        if (tokens.isEmpty() || StrUtil.endWith(pattern, StrUtil.SLASH)) {
+            builder.append(StrUtil.SLASH);
+        }
+        if (!tokens.isEmpty() && "*".equals(CollUtil.getLast(tokens))) {
+            // 最后一级为 * 时匹配以 / 结尾的上一级路径
+            return builder + "|" + prefix + StrUtil.SLASH;
+        }
+        return builder.toString();
+    }
 }
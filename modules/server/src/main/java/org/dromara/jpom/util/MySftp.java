@@ -9,21 +9,46 @@
  */
 package org.dromara.jpom.util;
 
+import cn.hutool.core.date.SystemClock;
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.RuntimeUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.extra.ssh.JschRuntimeException;
+import cn.hutool.extra.ssh.JschUtil;
 import cn.hutool.extra.ssh.Sftp;
-import com.jcraft.jsch.Session;
-import com.jcraft.jsch.SftpProgressMonitor;
+import com.jcraft.jsch.*;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.JpomApplication;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
 
 import java.io.File;
 import java.nio.charset.Charset;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author bwcx_jzy
  * @since 2023/3/16
  */
+@Slf4j
 public class MySftp extends Sftp {
 
+    /**
+     * 单个通道上传时同时发送的写请求数量（jsch 默认 16），高延迟的网络需要更多的未确认请求才能跑满带宽
+     */
+    private static final int BULK_REQUESTS = 64;
+
+    private static volatile ExecutorService uploadExecutor;
+
     private final ProgressMonitor progressMonitor;
+    private final Session session;
+    /**
+     * 同步上传文件夹时同时打开的通道数
+     */
+    private final int concurrent;
 
     public interface ProgressMonitor {
 
@@ -40,11 +65,29 @@ public class MySftp extends Sftp {
          * 重置
          */
         void rest();
+
+        /**
+         * 同步上传文件夹完成
+         *
+         * @param desc   远程目录
+         * @param count  上传的文件数
+         * @param skip   跳过的文件数（远程文件大小和修改时间一致）
+         * @param size   上传的总大小
+         * @param millis 耗时（毫秒）
+         */
+        default void done(String desc, int count, int skip, long size, long millis) {
+        }
     }
 
     public MySftp(Session session, Charset charset, long timeOut, ProgressMonitor monitor) {
+        this(session, charset, timeOut, monitor, 1);
+    }
+
+    public MySftp(Session session, Charset charset, long timeOut, ProgressMonitor monitor, int concurrent) {
         super(session, charset, timeOut);
+        this.session = session;
         this.progressMonitor = monitor;
+        this.concurrent = Math.max(concurrent, 1);
     }
 
     @Override
@@ -76,4 +119,226 @@ public class MySftp extends Sftp {
         super.put(FileUtil.getAbsolutePath(file), destPath, sftpProgressMonitor, Mode.OVERWRITE);
         return true;
     }
+
+    /**
+     * 同步上传文件夹
+     * <p>
+     * 先一次性创建远程目录，跳过远程大小和修改时间一致的文件，剩余文件在同一个会话上打开多个通道并行上传，进度按照总大小回调
+     *
+     * @param file       文件或者文件夹
+     * @param remotePath 远程目录
+     */
+    @Override
+    public void syncUpload(File file, String remotePath) {
+        if (!FileUtil.isDirectory(file)) {
+            super.syncUpload(file, remotePath);
+            return;
+        }
+        new SyncUpload(file, FileUtil.normalize(remotePath)).run();
+    }
+
+    private static ExecutorService executor() {
+        if (uploadExecutor == null) {
+            synchronized (MySftp.class) {
+                if (uploadExecutor == null) {
+                    int poolSize = Math.max(RuntimeUtil.getProcessorCount() * 2, 8);
+                    ThreadPoolExecutor executor = ExecutorBuilder.create()
+                        .setCorePoolSize(poolSize)
+                        .setMaxPoolSize(poolSize)
+                        .setAllowCoreThreadTimeOut(true)
+                        .setWorkQueue(new LinkedBlockingQueue<>())
+                        .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("jpom-sftp-upload-").setDaemon(true).build())
+                        .build();
+                    JpomApplication.register("sftp-upload", executor);
+                    uploadExecutor = executor;
+                }
+            }
+        }
+        return uploadExecutor;
+    }
+
+    private static String remoteParent(String path) {
+        return StrUtil.subBefore(path, StrUtil.SLASH, true);
+    }
+
+    private class SyncUpload {
+        private final File dir;
+        private final String remotePath;
+        private final Queue<UploadItem> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicLong transferred = new AtomicLong();
+        private long total;
+        private volatile Exception error;
+
+        private SyncUpload(File dir, String remotePath) {
+            this.dir = dir;
+            this.remotePath = remotePath;
+        }
+
+        private void run() {
+            long startTime = SystemClock.now();
+            // 远程目录 -> 目录中需要上传的文件
+            Map<String, List<File>> dirFiles = new TreeMap<>();
+            dirFiles.put(remotePath, new ArrayList<>());
+            for (File item : FileUtil.loopFiles(dir)) {
+                String subPath = FileUtil.normalize(FileUtil.subPath(FileUtil.getAbsolutePath(dir), item.getParentFile()));
+                String remoteDir = StrUtil.equals(remotePath, StrUtil.SLASH) ? StrUtil.EMPTY : remotePath;
+                for (String name : StrUtil.splitTrim(subPath, StrUtil.SLASH)) {
+                    remoteDir = remoteDir + StrUtil.SLASH + name;
+                    dirFiles.computeIfAbsent(remoteDir, s -> new ArrayList<>());
+                }
+                dirFiles.get(StrUtil.emptyToDefault(remoteDir, remotePath)).add(item);
+            }
+            ChannelSftp client = getClient();
+            int skip = this.prepare(client, dirFiles);
+            int count = queue.size();
+            progressMonitor.rest();
+            // 当前线程也参与上传
+            List<Future<?>> futures = new ArrayList<>();
+            int workers = Math.min(concurrent, count);
+            for (int i = 1; i < workers; i++) {
+                futures.add(executor().submit(this::uploadByNewChannel));
+            }
+            try {
+                this.upload(client);
+            } catch (Exception e) {
+                this.error(e);
+            }
+            for (Future<?> future : futures) {
+                // 还没有开始执行的说明文件已经上传完成
+                if (future.cancel(false)) {
+                    continue;
+                }
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    this.error(e);
+                } catch (CancellationException | ExecutionException e) {
+                    this.error(e);
+                }
+            }
+            if (error != null) {
+                throw error instanceof JschRuntimeException ? (JschRuntimeException) error : new JschRuntimeException(error);
+            }
+            progressMonitor.done(remotePath, count, skip, total, SystemClock.now() - startTime);
+        }
+
+        /**
+         * 创建远程目录，读取远程已经存在的文件
+         *
+         * @param client   通道
+         * @param dirFiles 远程目录 -> 目录中需要上传的文件
+         * @return 跳过的文件数
+         */
+        private int prepare(ChannelSftp client, Map<String, List<File>> dirFiles) {
+            mkDirs(remotePath);
+            Set<String> created = new HashSet<>();
+            int skip = 0;
+            for (Map.Entry<String, List<File>> entry : dirFiles.entrySet()) {
+                String remoteDir = entry.getKey();
+                Map<String, SftpATTRS> exists = new HashMap<>();
+                if (created.contains(remoteParent(remoteDir)) || !this.existDir(client, remoteDir)) {
+                    try {
+                        client.mkdir(remoteDir);
+                    } catch (SftpException e) {
+                        throw new JschRuntimeException(e);
+                    }
+                    created.add(remoteDir);
+                } else if (!entry.getValue().isEmpty()) {
+                    for (ChannelSftp.LsEntry lsEntry : lsEntries(remoteDir)) {
+                        exists.put(lsEntry.getFilename(), lsEntry.getAttrs());
+                    }
+                }
+                for (File item : entry.getValue()) {
+                    SftpATTRS attrs = exists.get(item.getName());
+                    if (attrs != null && !attrs.isDir() && attrs.getSize() == item.length() && attrs.getMTime() == mtime(item)) {
+                        skip++;
+                        continue;
+                    }
+                    total += item.length();
+                    queue.add(new UploadItem(item, StrUtil.removeSuffix(remoteDir, StrUtil.SLASH) + StrUtil.SLASH + item.getName()));
+                }
+            }
+            return skip;
+        }
+
+        private boolean existDir(ChannelSftp client, String remoteDir) {
+            if (StrUtil.equals(remoteDir, remotePath)) {
+                // 已经创建
+                return true;
+            }
+            try {
+                return client.stat(remoteDir).isDir();
+            } catch (SftpException e) {
+                if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                    return false;
+                }
+                throw new JschRuntimeException(e);
+            }
+        }
+
+        private void uploadByNewChannel() {
+            ChannelSftp channel;
+            try {
+                channel = JschUtil.openSftp(session, (int) ftpConfig.getConnectionTimeout());
+                channel.setFilenameEncoding(ftpConfig.getCharset());
+            } catch (Exception e) {
+                // 服务端限制了单个连接的通道数，由其他通道继续上传
+                log.warn(I18nMessageUtil.get("i18n.sftp_channel_open_failed.6d42"), concurrent, e.getMessage());
+                return;
+            }
+            try {
+                this.upload(channel);
+            } catch (Exception e) {
+                this.error(e);
+            } finally {
+                JschUtil.close(channel);
+            }
+        }
+
+        private void upload(ChannelSftp channel) throws JSchException, SftpException {
+            channel.setBulkRequests(BULK_REQUESTS);
+            SftpProgressMonitor monitor = new SftpProgressMonitor() {
+                @Override
+                public void init(int op, String src, String dest, long max) {
+                }
+
+                @Override
+                public boolean count(long count) {
+                    progressMonitor.progress(remotePath, total, transferred.addAndGet(count));
+                    return error == null;
+                }
+
+                @Override
+                public void end() {
+                }
+            };
+            UploadItem item;
+            while (error == null && (item = queue.poll()) != null) {
+                channel.put(FileUtil.getAbsolutePath(item.file), item.remote, monitor, ChannelSftp.OVERWRITE);
+                // 保持和本地一致的修改时间，下次同步时跳过未变化的文件
+                channel.setMtime(item.remote, mtime(item.file));
+            }
+        }
+
+        private void error(Exception e) {
+            if (error == null) {
+                error = e;
+            }
+        }
+    }
+
+    private static int mtime(File file) {
+        return (int) TimeUnit.MILLISECONDS.toSeconds(file.lastModified());
+    }
+
+    private static class UploadItem {
+        private final File file;
+        private final String remote;
+
+        private UploadItem(File file, String remote) {
+            this.file = file;
+            this.remote = remote;
+        }
+    }
 }
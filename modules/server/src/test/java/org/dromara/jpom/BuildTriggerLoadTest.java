@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom;
+
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpUtil;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.common.ServerOpenApi;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 构建触发器队列压测，统计每秒可以接收的触发数和队列执行构建的速度
+ * <p>
+ * 需要运行中的服务端和一个构建（构建命令尽量简单），通过参数指定：
+ * -Djpom.url=http://127.0.0.1:2122 -Djpom.trigger.id=构建ID -Djpom.trigger.token=触发器token
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class BuildTriggerLoadTest {
+
+    private static final int THREADS = 16;
+    private static final int REQUESTS = 50;
+    /**
+     * 不同参数的触发数，相同参数的触发在队列中合并
+     */
+    private static final int DISTINCT = 10;
+
+    private String url;
+    private String id;
+    private String token;
+
+    @BeforeEach
+    public void before() {
+        url = System.getProperty("jpom.url", "http://127.0.0.1:2122");
+        id = System.getProperty("jpom.trigger.id");
+        token = System.getProperty("jpom.trigger.token");
+        Assumptions.assumeTrue(StrUtil.isAllNotEmpty(id, token), "jpom.trigger.id jpom.trigger.token");
+    }
+
+    @Test
+    public void testTrigger() throws Exception {
+        this.load("trigger", index -> {
+            String path = StrUtil.replace(ServerOpenApi.BUILD_TRIGGER_BUILD2, "{id}", id);
+            path = StrUtil.replace(path, "{token}", token);
+            HttpRequest request = HttpUtil.createPost(url + path)
+                .form("useQueue", true)
+                .form("buildRemark", "load-" + index % DISTINCT);
+            return request.execute().body();
+        });
+    }
+
+    @Test
+    public void testTriggerBatch() throws Exception {
+        this.load("triggerBatch", index -> {
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put("id", id);
+            jsonObject.put("token", token);
+            jsonObject.put("useQueue", true);
+            jsonObject.put("buildRemark", "load-batch-" + index % DISTINCT);
+            JSONArray jsonArray = new JSONArray();
+            jsonArray.add(jsonObject);
+            HttpRequest post = HttpUtil.createPost(url + ServerOpenApi.BUILD_TRIGGER_BUILD_BATCH);
+            post.body(jsonArray.toString(), MediaType.APPLICATION_JSON_VALUE);
+            return post.execute().body();
+        });
+    }
+
+    private void load(String name, Request request) throws Exception {
+        int startBuildId = this.status().getIntValue("buildNumberId");
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger index = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(THREADS);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                executorService.execute(() -> {
+                    try {
+                        for (int j = 0; j < REQUESTS; j++) {
+                            String body = request.execute(index.getAndIncrement());
+                            if (JSONObject.parseObject(body).getIntValue("code") != 200) {
+                                failed.incrementAndGet();
+                            }
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+            }
+            Assertions.assertTrue(latch.await(5, TimeUnit.MINUTES));
+        } finally {
+            executorService.shutdownNow();
+        }
+        long ingest = System.nanoTime() - start;
+        log.info("{} ingest {} triggers, {} failed, {} triggers/s", name, index.get(), failed.get(), index.get() * TimeUnit.SECONDS.toNanos(1) / ingest);
+        // 等待队列执行完成，构建序号连续两次不变化并且不在构建中
+        int lastBuildId = -1;
+        while (true) {
+            JSONObject status = this.status();
+            int buildId = status.getIntValue("buildNumberId");
+            if (buildId == lastBuildId && !StrUtil.equalsAny(status.getString("status"), "Ing", "PubIng", "WaitExec")) {
+                break;
+            }
+            lastBuildId = buildId;
+            ThreadUtil.sleep(2, TimeUnit.SECONDS);
+        }
+        long total = System.nanoTime() - start;
+        int builds = lastBuildId - startBuildId;
+        log.info("{} dispatch {} builds in {}ms, {} builds/min", name, builds, TimeUnit.NANOSECONDS.toMillis(total), builds * TimeUnit.MINUTES.toNanos(1) / total);
+        Assertions.assertEquals(0, failed.get());
+        // 相同参数合并，执行的构建数不会超过触发数
+        Assertions.assertTrue(builds > 0 && builds <= index.get());
+    }
+
+    private JSONObject status() {
+        String body = HttpUtil.createGet(url + ServerOpenApi.BUILD_TRIGGER_STATUS)
+            .form("id", id)
+            .form("token", token)
+            .execute().body();
+        return JSONObject.parseObject(body).getJSONObject("data");
+    }
+
+    private interface Request {
+        String execute(int index);
+    }
+}
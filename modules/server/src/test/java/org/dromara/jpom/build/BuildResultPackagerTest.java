@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.build;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.lang.Pair;
+import cn.hutool.core.util.CharsetUtil;
+import cn.hutool.core.util.ZipUtil;
+import org.dromara.jpom.util.AntPathUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 构建产物打包
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class BuildResultPackagerTest {
+
+    private File root;
+    private File source;
+    private File history;
+
+    @BeforeEach
+    public void before() {
+        root = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-package");
+        FileUtil.del(root);
+        source = FileUtil.file(root, "source");
+        history = FileUtil.file(root, "history");
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < 10; j++) {
+                FileUtil.writeUtf8String("file" + i + j, FileUtil.file(source, "dist", "dir" + i, "f" + j + ".js"));
+            }
+            FileUtil.writeUtf8String("map" + i, FileUtil.file(source, "dist", "dir" + i, "f.js.map"));
+        }
+        FileUtil.writeUtf8String("hide", FileUtil.file(source, "dist", ".hide"));
+        FileUtil.mkdir(history);
+    }
+
+    @AfterEach
+    public void after() {
+        FileUtil.del(root);
+    }
+
+    private Predicate<String> exclude() {
+        Predicate<String> matcher = AntPathUtil.compileMatcher(Collections.singletonList("/**/*.map"));
+        return path -> !matcher.test(path);
+    }
+
+    @Test
+    public void testCopy() throws Exception {
+        BuildResultPackager packager = new BuildResultPackager(source, false, this.exclude(), false, history);
+        File dest = FileUtil.file(history, "dist");
+        packager.copy(FileUtil.file(source, "dist"), dest);
+        Assertions.assertEquals(200, packager.getFileCount());
+        Assertions.assertEquals(0, packager.getLinkCount());
+        Assertions.assertEquals(200, FileUtil.loopFiles(dest).size());
+        Assertions.assertFalse(FileUtil.exist(FileUtil.file(dest, ".hide")));
+        Assertions.assertEquals("file35", FileUtil.readUtf8String(FileUtil.file(dest, "dir3", "f5.js")));
+        Assertions.assertFalse(Files.isSameFile(FileUtil.file(dest, "dir3", "f5.js").toPath(), FileUtil.file(source, "dist", "dir3", "f5.js").toPath()));
+    }
+
+    @Test
+    public void testCopySameDir() {
+        // 同名文件复制到同一个目录，按顺序后复制的覆盖前面的
+        for (boolean hardLink : new boolean[]{false, true}) {
+            File dest = FileUtil.file(history, "same-" + hardLink);
+            FileUtil.mkdir(dest);
+            List<Pair<File, File>> items = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                items.add(new Pair<>(FileUtil.file(source, "dist", "dir" + i, "f5.js"), dest));
+            }
+            BuildResultPackager packager = new BuildResultPackager(source, false, null, hardLink, history);
+            packager.copy(items);
+            Assertions.assertEquals(20, packager.getFileCount());
+            Assertions.assertEquals("file195", FileUtil.readUtf8String(FileUtil.file(dest, "f5.js")));
+        }
+    }
+
+    @Test
+    public void testHardLink() throws Exception {
+        BuildResultPackager packager = new BuildResultPackager(source, true, null, true, history);
+        File dest = FileUtil.file(history, "dist");
+        packager.copy(FileUtil.file(source, "dist"), dest);
+        Assertions.assertEquals(221, packager.getFileCount());
+        Assertions.assertEquals(221, packager.getLinkCount());
+        Assertions.assertTrue(Files.isSameFile(FileUtil.file(dest, "dir3", "f5.js").toPath(), FileUtil.file(source, "dist", "dir3", "f5.js").toPath()));
+        // 再次打包覆盖
+        new BuildResultPackager(source, true, null, true, history).copy(FileUtil.file(source, "dist"), dest);
+        Assertions.assertEquals(221, FileUtil.loopFiles(dest).size());
+    }
+
+    @Test
+    public void testArchive() throws Exception {
+        BuildResultPackager packager = new BuildResultPackager(source, false, this.exclude(), false, history);
+        File archiveFile = FileUtil.file(history, "dist" + BuildUtil.PACKAGE_ARCHIVE_SUFFIX + ".zip");
+        packager.archive(FileUtil.file(source, "dist"), archiveFile, false, "dist");
+        Assertions.assertEquals(200, packager.getFileCount());
+        Assertions.assertTrue(BuildUtil.isPackageArchive(archiveFile));
+        try (ZipFile zipFile = new ZipFile(archiveFile)) {
+            List<String> names = Collections.list(zipFile.entries()).stream()
+                .filter(zipEntry -> !zipEntry.isDirectory())
+                .map(ZipEntry::getName)
+                .collect(Collectors.toList());
+            Assertions.assertEquals(200, names.size());
+            Assertions.assertTrue(names.contains("dir3/f5.js"));
+        }
+        File unzip = ZipUtil.unzip(archiveFile, FileUtil.file(root, "unzip"), CharsetUtil.CHARSET_UTF_8);
+        Assertions.assertEquals("file35", FileUtil.readUtf8String(FileUtil.file(unzip, "dir3", "f5.js")));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.build;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 构建排队队列
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class BuildScheduleQueueTest {
+
+    private static BuildQueueTask task(String key, String workspaceId, String repositoryId, BuildPriority priority) {
+        return BuildQueueTask.builder()
+            .key(key)
+            .name(key)
+            .workspaceId(workspaceId)
+            .repositoryId(repositoryId)
+            .priority(priority)
+            .runnable(() -> {
+            })
+            .rejectHandler(s -> {
+            })
+            .build();
+    }
+
+    @Test
+    public void testPriority() {
+        BuildScheduleQueue queue = new BuildScheduleQueue();
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertNull(queue.offer(task("hook-" + i, "w1", "r" + i, BuildPriority.LOW), 0));
+        }
+        Assertions.assertNull(queue.offer(task("manual", "w1", "r9", BuildPriority.HIGH), 0));
+        Assertions.assertEquals("manual", queue.poll(0, 0, 0, 0).getKey());
+        Assertions.assertEquals("hook-0", queue.poll(0, 0, 0, 0).getKey());
+    }
+
+    @Test
+    public void testMerge() {
+        BuildScheduleQueue queue = new BuildScheduleQueue();
+        queue.offer(task("a", "w1", "r1", BuildPriority.LOW), 0);
+        queue.offer(task("b", "w1", "r2", BuildPriority.NORMAL), 0);
+        Assertions.assertNull(queue.merge("c", BuildPriority.HIGH, 0));
+        BuildQueueTask merged = queue.merge("a", BuildPriority.HIGH, 0);
+        Assertions.assertNotNull(merged);
+        Assertions.assertEquals(BuildPriority.HIGH, merged.getPriority());
+        Assertions.assertEquals(2, queue.queuedSize());
+        Assertions.assertEquals("a", queue.poll(0, 0, 0, 0).getKey());
+        // 已经执行的不合并
+        Assertions.assertNull(queue.merge("a", BuildPriority.HIGH, 0));
+    }
+
+    @Test
+    public void testLimit() {
+        BuildScheduleQueue queue = new BuildScheduleQueue();
+        queue.offer(task("a", "w1", "r1", BuildPriority.NORMAL), 0);
+        queue.offer(task("b", "w1", "r1", BuildPriority.NORMAL), 0);
+        queue.offer(task("c", "w1", "r2", BuildPriority.NORMAL), 0);
+        queue.offer(task("d", "w1", "r3", BuildPriority.NORMAL), 0);
+        // 同一个仓库只能执行一个
+        BuildQueueTask a = queue.poll(0, 0, 2, 1);
+        Assertions.assertEquals("a", a.getKey());
+        Assertions.assertEquals("c", queue.poll(0, 0, 2, 1).getKey());
+        // 工作空间已满
+        Assertions.assertNull(queue.poll(0, 0, 2, 1));
+        queue.done(a);
+        Assertions.assertEquals("b", queue.poll(0, 0, 2, 1).getKey());
+        // 总数已满
+        Assertions.assertNull(queue.poll(0, 2, 0, 0));
+    }
+
+    @Test
+    public void testFair() {
+        BuildScheduleQueue queue = new BuildScheduleQueue();
+        for (int i = 0; i < 3; i++) {
+            queue.offer(task("w1-" + i, "w1", null, BuildPriority.LOW), 0);
+        }
+        queue.offer(task("w2-0", "w2", null, BuildPriority.LOW), 0);
+        Assertions.assertEquals("w1-0", queue.poll(0, 0, 0, 0).getKey());
+        Assertions.assertEquals("w2-0", queue.poll(0, 0, 0, 0).getKey());
+        Assertions.assertEquals("w1-1", queue.poll(0, 0, 0, 0).getKey());
+    }
+
+    @Test
+    public void testDelay() {
+        BuildScheduleQueue queue = new BuildScheduleQueue();
+        BuildQueueTask task = task("a", "w1", null, BuildPriority.HIGH);
+        task.setNotBefore(100);
+        queue.offer(task, 0);
+        queue.offer(task("b", "w1", null, BuildPriority.LOW), 0);
+        Assertions.assertEquals("b", queue.poll(50, 0, 0, 0).getKey());
+        Assertions.assertNull(queue.poll(50, 0, 0, 0));
+        Assertions.assertEquals("a", queue.poll(100, 0, 0, 0).getKey());
+    }
+
+    @Test
+    public void testCapacity() {
+        BuildScheduleQueue queue = new BuildScheduleQueue();
+        queue.offer(task("a", "w1", null, BuildPriority.LOW), 2);
+        queue.offer(task("b", "w1", null, BuildPriority.LOW), 2);
+        BuildQueueTask c = task("c", "w1", null, BuildPriority.LOW);
+        Assertions.assertSame(c, queue.offer(c, 2));
+        // 挤出最后入队的低优先级任务
+        BuildQueueTask rejected = queue.offer(task("d", "w1", null, BuildPriority.HIGH), 2);
+        Assertions.assertEquals("b", rejected.getKey());
+        Assertions.assertEquals(2, queue.queuedSize());
+        Assertions.assertEquals("d", queue.snapshot().get(0).getKey());
+    }
+}
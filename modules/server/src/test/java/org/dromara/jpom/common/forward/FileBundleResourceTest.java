@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.common.forward;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.crypto.SecureUtil;
+import org.dromara.jpom.transport.FileBundleResource;
+import org.dromara.jpom.util.CompressionFileUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * 小文件打包上传，流式生成的压缩包可以被插件端正常解压
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class FileBundleResourceTest {
+
+    @Test
+    public void testWriteTo() throws Exception {
+        File root = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-bundle");
+        FileUtil.del(root);
+        try {
+            Map<String, File> files = new LinkedHashMap<>();
+            long size = 0;
+            for (int i = 0; i < 200; i++) {
+                byte[] bytes = RandomUtil.randomBytes(RandomUtil.randomInt(1, 8 * 1024));
+                size += bytes.length;
+                File file = FileUtil.writeBytes(bytes, FileUtil.file(root, "src", "static" + (i % 5), "file" + i + ".js"));
+                files.put("static" + (i % 5) + "/file" + i + ".js", file);
+            }
+            FileBundleResource resource = new FileBundleResource(files, "bundle.zip");
+            File bundle = FileUtil.file(root, "bundle.zip");
+            try (OutputStream outputStream = new FileOutputStream(bundle)) {
+                resource.writeTo(outputStream);
+                // 写入后不关闭外部的输出流
+                outputStream.write(new byte[0]);
+            }
+            Assertions.assertEquals(200, resource.getFileCount());
+            Assertions.assertEquals(size, resource.getFileSize());
+            //
+            File dest = FileUtil.file(root, "dest");
+            CompressionFileUtil.unCompress(bundle, dest);
+            for (Map.Entry<String, File> entry : files.entrySet()) {
+                File file = FileUtil.file(dest, entry.getKey());
+                Assertions.assertTrue(file.exists(), entry.getKey());
+                Assertions.assertEquals(SecureUtil.sha1(entry.getValue()), SecureUtil.sha1(file));
+            }
+        } finally {
+            FileUtil.del(root);
+        }
+    }
+
+    @Test
+    public void testSplit() throws Exception {
+        File root = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-bundle-split");
+        FileUtil.del(root);
+        try {
+            long maxSize = 1024 * 1024;
+            Map<String, File> files = new LinkedHashMap<>();
+            long size = 0;
+            for (int i = 0; i < 100; i++) {
+                // 随机内容无法压缩，压缩包会略大于原文件
+                byte[] bytes = RandomUtil.randomBytes(RandomUtil.randomInt(16 * 1024, 64 * 1024));
+                size += bytes.length;
+                File file = FileUtil.writeBytes(bytes, FileUtil.file(root, "src", "file" + i + ".bin"));
+                files.put("file" + i + ".bin", file);
+            }
+            // 所有文件超过单个压缩包的限制
+            Assertions.assertTrue(size > maxSize * 2);
+            List<FileBundleResource> bundles = FileBundleResource.split(files, "bundle.zip", maxSize);
+            Assertions.assertTrue(bundles.size() > 2);
+            Set<String> names = new HashSet<>();
+            for (FileBundleResource bundle : bundles) {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                bundle.writeTo(outputStream);
+                Assertions.assertTrue(outputStream.size() <= maxSize, String.valueOf(outputStream.size()));
+                Assertions.assertEquals(bundle.getTotalSize(), bundle.getFileSize());
+                for (String name : bundle.getFiles().keySet()) {
+                    Assertions.assertTrue(names.add(name), name);
+                }
+            }
+            Assertions.assertEquals(files.keySet(), names);
+            // 单个文件超过限制时单独成为一个压缩包
+            File big = FileUtil.writeBytes(RandomUtil.randomBytes((int) maxSize + 1), FileUtil.file(root, "src", "big.bin"));
+            Map<String, File> bigFiles = new LinkedHashMap<>();
+            bigFiles.put("a.bin", files.get("file0.bin"));
+            bigFiles.put("big.bin", big);
+            bigFiles.put("b.bin", files.get("file1.bin"));
+            bundles = FileBundleResource.split(bigFiles, "bundle.zip", maxSize);
+            Assertions.assertEquals(3, bundles.size());
+            Assertions.assertEquals(Collections.singleton("big.bin"), bundles.get(1).getFiles().keySet());
+        } finally {
+            FileUtil.del(root);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.common.forward;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.crypto.SecureUtil;
+import org.dromara.jpom.transport.FileRegionResource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 分片签名和文件区域读取
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class ShardingFileDigestTest {
+
+    @Test
+    public void testDigest() throws Exception {
+        byte[] bytes = RandomUtil.randomBytes(300 * 1024 + 17);
+        File file = FileUtil.writeBytes(bytes, FileUtil.file(FileUtil.getTmpDir(), "jpom-test-sharding.bin"));
+        long chunkSize = 100 * 1024;
+        int total = 4;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ShardingFileDigest digest = new ShardingFileDigest(channel, bytes.length, chunkSize, total);
+            ThreadUtil.execute(digest);
+            // 分片可以乱序读取
+            for (int i = total - 1; i >= 0; i--) {
+                int start = (int) (i * chunkSize);
+                int end = (int) Math.min(bytes.length, start + chunkSize);
+                byte[] slice = ArrayUtil.sub(bytes, start, end);
+                Assertions.assertEquals(SecureUtil.md5().digestHex(slice), digest.getSliceMd5(i));
+
+                FileRegionResource resource = new FileRegionResource(channel, start, end - start, "test." + i);
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                resource.writeTo(outputStream);
+                Assertions.assertArrayEquals(slice, outputStream.toByteArray());
+                Assertions.assertArrayEquals(slice, IoUtil.readBytes(resource.getStream()));
+            }
+            Assertions.assertEquals(SecureUtil.md5(file), digest.getFileMd5());
+        } finally {
+            FileUtil.del(file);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.common.forward;
+
+import cn.hutool.core.collection.ConcurrentHashSet;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.map.MapUtil;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.core5.pool.PoolStats;
+import org.dromara.jpom.transport.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 节点通讯压测，使用本地模拟的插件端对比不同传输方式的每秒请求数和 p99 耗时
+ * <p>
+ * 可以调整 THREADS、REQUESTS 加大压测量
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class TransportServerLoadTest {
+
+    private static final int THREADS = 16;
+    private static final int REQUESTS = 200;
+
+    private HttpServer server;
+    private final Set<InetSocketAddress> connections = new ConcurrentHashSet<>();
+
+    @BeforeEach
+    public void start() throws Exception {
+        // 和插件端 tomcat 一致，关闭 Nagle 算法
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            connections.add(exchange.getRemoteAddress());
+            IoUtil.readBytes(exchange.getRequestBody());
+            byte[] bytes = "{\"code\":200,\"msg\":\"ok\",\"data\":\"pong\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json;charset=UTF-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newFixedThreadPool(THREADS));
+        server.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdownNow();
+    }
+
+    @Test
+    public void testCompare() throws Exception {
+        System.setProperty("JPOM_NODE_TRANSPORT_POOL_MAX_PER_NODE", String.valueOf(THREADS / 2));
+        for (String name : new String[]{"http", "pooled-http"}) {
+            TransportServer transportServer = TransportServerFactory.of(name);
+            Assertions.assertNotNull(transportServer, name);
+            // 预热
+            this.run(transportServer, 2, 20);
+            connections.clear();
+            long[] result = this.run(transportServer, THREADS, REQUESTS);
+            log.info("{} {} requests, {} req/s, p50 {}us, p99 {}us, {} connections", name, result[0], result[1], result[2], result[3], connections.size());
+            if (transportServer instanceof PooledHttpTransportServer) {
+                PoolStats poolStats = ((PooledHttpTransportServer) transportServer).getPoolStats();
+                log.info("pool {}", poolStats);
+                // 连接复用，连接数不会超过单个节点的连接池上限
+                Assertions.assertTrue(connections.size() <= THREADS / 2, connections.toString());
+            }
+        }
+    }
+
+    /**
+     * 并发请求
+     *
+     * @return 请求数、每秒请求数、p50、p99（微秒）
+     */
+    private long[] run(TransportServer transportServer, int threads, int requests) throws Exception {
+        INodeInfo nodeInfo = this.nodeInfo();
+        IUrlItem urlItem = this.urlItem();
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        long[] costs = new long[threads * requests];
+        AtomicInteger index = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < threads; i++) {
+                executorService.execute(() -> {
+                    try {
+                        for (int j = 0; j < requests; j++) {
+                            long begin = System.nanoTime();
+                            Map<String, Object> data = MapUtil.of("id", j);
+                            String body = transportServer.execute(nodeInfo, urlItem, data);
+                            costs[index.getAndIncrement()] = System.nanoTime() - begin;
+                            Assertions.assertTrue(body.contains("pong"));
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+            }
+            Assertions.assertTrue(latch.await(2, TimeUnit.MINUTES));
+        } finally {
+            executorService.shutdownNow();
+        }
+        long duration = System.nanoTime() - start;
+        Assertions.assertEquals(costs.length, index.get());
+        Arrays.sort(costs);
+        return new long[]{costs.length,
+            costs.length * TimeUnit.SECONDS.toNanos(1) / duration,
+            TimeUnit.NANOSECONDS.toMicros(costs[costs.length / 2]),
+            TimeUnit.NANOSECONDS.toMicros(costs[(int) (costs.length * 0.99) - 1])};
+    }
+
+    private INodeInfo nodeInfo() {
+        String url = "127.0.0.1:" + server.getAddress().getPort();
+        return new INodeInfo() {
+            @Override
+            public String name() {
+                return "stub";
+            }
+
+            @Override
+            public String url() {
+                return url;
+            }
+
+            @Override
+            public String scheme() {
+                return "http";
+            }
+
+            @Override
+            public String authorize() {
+                return "test";
+            }
+
+            @Override
+            public Proxy proxy() {
+                return null;
+            }
+
+            @Override
+            public Integer timeout() {
+                return 10;
+            }
+
+            @Override
+            public Integer transportEncryption() {
+                return 0;
+            }
+        };
+    }
+
+    private IUrlItem urlItem() {
+        return new IUrlItem() {
+            @Override
+            public String path() {
+                return "/ping";
+            }
+
+            @Override
+            public Integer timeout() {
+                return 10;
+            }
+
+            @Override
+            public String workspaceId() {
+                return "DEFAULT";
+            }
+
+            @Override
+            public DataContentType contentType() {
+                return DataContentType.FORM_URLENCODED;
+            }
+
+            @Override
+            public Map<String, String> header() {
+                return new HashMap<>();
+            }
+        };
+    }
+}
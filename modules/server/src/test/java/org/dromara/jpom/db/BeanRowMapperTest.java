@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.db;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.bean.copier.CopyOptions;
+import cn.hutool.db.Db;
+import cn.hutool.db.Entity;
+import cn.hutool.db.ds.simple.SimpleDataSource;
+import lombok.Data;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 实体和数据库行转换
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class BeanRowMapperTest {
+
+    private static final String CREATE_SQL = "create table `TEST_ROW_MAPPER` (`id` varchar(50) primary key, `name` varchar(50), `status` tinyint, `sortValue` int, " +
+        "`createTimeMillis` bigint, `enabled` tinyint, `rate` decimal(10,2), `description` varchar(100))";
+
+    private static Db createDb(String name, int rows) throws Exception {
+        DataSource dataSource = new SimpleDataSource("jdbc:h2:mem:" + name + ";MODE=MYSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        Db db = Db.use(dataSource);
+        db.execute("drop table if exists `TEST_ROW_MAPPER`");
+        db.execute(CREATE_SQL);
+        List<Entity> list = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Entity entity = Entity.create("TEST_ROW_MAPPER")
+                .set("id", String.format("%06d", i))
+                .set("name", i % 10 == 0 ? null : "name" + i)
+                .set("status", i % 3)
+                .set("sortValue", i % 7 == 0 ? null : i)
+                .set("createTimeMillis", 1700000000000L + i)
+                .set("enabled", i % 2)
+                .set("rate", i / 100D)
+                .set("description", "description" + i);
+            list.add(entity);
+        }
+        db.insert(list);
+        return db;
+    }
+
+    private static List<TestRowModel> beanUtil(List<Entity> entities, Class<? extends TestRowModel> cls) {
+        CopyOptions copyOptions = new CopyOptions();
+        copyOptions.setIgnoreError(true);
+        copyOptions.setIgnoreCase(true);
+        return entities.stream().map(entity -> BeanUtil.toBean(entity, cls, copyOptions)).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testSameAsBeanUtil() throws Exception {
+        Db db = createDb("row_mapper", 500);
+        Entity where = Entity.create("TEST_ROW_MAPPER");
+        List<TestRowModel> expected = beanUtil(db.find(where), TestRowModel.class);
+
+        BeanRowMapper<TestRowModel> mapper = BeanRowMapper.of(TestRowModel.class);
+        Assertions.assertSame(mapper, BeanRowMapper.of(TestRowModel.class));
+        List<TestRowModel> list = db.find(where, mapper.listHandler());
+        Assertions.assertEquals(expected, list);
+        // 使用 entity 转换
+        List<TestRowModel> fromEntity = db.find(where).stream().map(mapper::toBean).collect(Collectors.toList());
+        Assertions.assertEquals(expected, fromEntity);
+        // 第一行
+        TestRowModel first = db.find(Entity.create("TEST_ROW_MAPPER").set("id", "000001"), mapper.oneHandler());
+        Assertions.assertEquals(expected.get(1), first);
+        Assertions.assertNull(db.find(Entity.create("TEST_ROW_MAPPER").set("id", "none"), mapper.oneHandler()));
+
+        TestRowModel model = list.get(0);
+        Assertions.assertNull(model.getName());
+        Assertions.assertNull(model.getSortValue());
+        Assertions.assertEquals(0, model.getStatus());
+        Assertions.assertFalse(model.getEnabled());
+        Assertions.assertEquals("description0", model.getDescription());
+        Assertions.assertTrue(list.get(1).getEnabled());
+    }
+
+    @Test
+    public void testNotPublicModel() throws Exception {
+        Db db = createDb("row_mapper_private", 20);
+        Entity where = Entity.create("TEST_ROW_MAPPER");
+        List<TestRowModel> expected = beanUtil(db.find(where), PrivateRowModel.class);
+        List<PrivateRowModel> list = db.find(where, BeanRowMapper.of(PrivateRowModel.class).listHandler());
+        Assertions.assertEquals(expected, list);
+    }
+
+    /**
+     * 对比 Entity + BeanUtil 和 BeanRowMapper 的查询耗时
+     * <p>
+     * -Djpom.row.mapper.rows=1000,100000
+     */
+    @Test
+    @Disabled("benchmark")
+    public void benchmark() throws Exception {
+        String[] rowsArray = System.getProperty("jpom.row.mapper.rows", "1000,100000").split(",");
+        BeanRowMapper<TestRowModel> mapper = BeanRowMapper.of(TestRowModel.class);
+        for (String rowsStr : rowsArray) {
+            int rows = Integer.parseInt(rowsStr.trim());
+            Db db = createDb("row_mapper_benchmark", rows);
+            Entity where = Entity.create("TEST_ROW_MAPPER");
+            int loop = Math.max(1, 1000000 / rows);
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < loop; i++) {
+                    Assertions.assertEquals(rows, beanUtil(db.find(where), TestRowModel.class).size());
+                }
+                long beanUtil = (System.nanoTime() - start) / loop;
+                start = System.nanoTime();
+                for (int i = 0; i < loop; i++) {
+                    Assertions.assertEquals(rows, db.find(where, mapper.listHandler()).size());
+                }
+                long rowMapper = (System.nanoTime() - start) / loop;
+                System.out.printf("round %d rows %d entity+BeanUtil %.2f ms rowMapper %.2f ms%n", round, rows, beanUtil / 1e6, rowMapper / 1e6);
+            }
+        }
+    }
+
+    @Data
+    public static class TestRowModel {
+        private String id;
+        private String name;
+        private Integer status;
+        private Integer sortValue;
+        private long createTimeMillis;
+        private Boolean enabled;
+        private Double rate;
+        private String description;
+    }
+
+    @Data
+    @lombok.EqualsAndHashCode(callSuper = true)
+    static class PrivateRowModel extends TestRowModel {
+        private String other;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.db;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.db.Db;
+import cn.hutool.db.Entity;
+import cn.hutool.db.ds.simple.SimpleDataSource;
+import com.alibaba.fastjson2.JSONObject;
+import lombok.Data;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * H2 数据迁移
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class StorageMigrateEngineTest {
+
+    private static final String CREATE_SQL = "create table `TEST_MIGRATE` (`id` varchar(50) primary key, `name` varchar(50), `status` tinyint, `createTimeMillis` bigint)";
+
+    @Test
+    public void testMigrate() throws Exception {
+        DataSource source = new SimpleDataSource("jdbc:h2:mem:migrate_source;MODE=MYSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        DataSource target = new SimpleDataSource("jdbc:h2:mem:migrate_target;MODE=MYSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        Db sourceDb = Db.use(source);
+        Db targetDb = Db.use(target);
+        sourceDb.execute(CREATE_SQL);
+        targetDb.execute(CREATE_SQL);
+        int total = 1234;
+        for (int i = 0; i < total; i++) {
+            sourceDb.insert(Entity.create("TEST_MIGRATE")
+                .set("id", String.format("%05d", i))
+                .set("name", "name" + i)
+                .set("status", i % 2)
+                .set("createTimeMillis", (long) i));
+        }
+        File progressFile = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-migrate.progress.json");
+        FileUtil.del(progressFile);
+        // 模拟上次迁移中断：前 100 条已经记录进度，之后的 50 条已经提交但没有记录进度
+        for (int i = 0; i < 150; i++) {
+            targetDb.insert(Entity.create("TEST_MIGRATE").set("id", String.format("%05d", i)).set("name", "old"));
+        }
+        JSONObject progress = new JSONObject();
+        progress.put("target", "test");
+        JSONObject tableProgress = new JSONObject();
+        tableProgress.put("lastId", "00099");
+        tableProgress.put("count", 100);
+        progress.put("TEST_MIGRATE", tableProgress);
+        FileUtil.writeUtf8String(progress.toString(), progressFile);
+
+        StorageMigrateEngine engine = new StorageMigrateEngine(source, target, DbExtConfig.Mode.MYSQL, "test", 100, 2, progressFile);
+        long count = engine.migrate(Collections.singletonList(TestMigrateModel.class));
+        Assertions.assertEquals(total, count);
+        Assertions.assertEquals(total, targetDb.count(Entity.create("TEST_MIGRATE")));
+        List<Entity> list = targetDb.find(Entity.create("TEST_MIGRATE").set("id", "00120"));
+        Assertions.assertEquals("name120", list.get(0).getStr("name"));
+        Assertions.assertFalse(progressFile.exists());
+    }
+
+    @Data
+    @TableName(value = "TEST_MIGRATE", nameKey = "test")
+    public static class TestMigrateModel {
+        private String id;
+        private String name;
+        private Boolean status;
+        private Long createTimeMillis;
+    }
+}
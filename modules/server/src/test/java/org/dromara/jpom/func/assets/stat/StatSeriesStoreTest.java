@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.func.assets.stat;
+
+import cn.hutool.core.io.FileUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统计数据时序存储的写入、汇总、查询
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class StatSeriesStoreTest {
+
+    private static final String[] COLUMNS = new String[]{"cpu", "memory"};
+    private static final long STEP = TimeUnit.SECONDS.toMillis(30);
+
+    private File root;
+    private long begin;
+
+    @BeforeEach
+    public void init() {
+        root = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-stat-series");
+        FileUtil.del(root);
+        begin = StatResolution.DAY.bucket(System.currentTimeMillis()) - TimeUnit.DAYS.toMillis(3);
+    }
+
+    @AfterEach
+    public void clean() {
+        FileUtil.del(root);
+    }
+
+    /**
+     * 第 i 个点的 cpu 为所在小时数，内存缺失
+     */
+    private void write(StatSeriesStore store, int from, int to) throws Exception {
+        for (int i = from; i < to; i++) {
+            long time = begin + i * STEP;
+            double hour = (double) ((time - begin) / TimeUnit.HOURS.toMillis(1));
+            Assertions.assertTrue(store.append("m1", time, new double[]{hour, Double.NaN}));
+        }
+    }
+
+    @Test
+    public void testRollup() throws Exception {
+        StatSeriesStore store = new StatSeriesStore(root, COLUMNS, STEP);
+        int total = (int) (TimeUnit.DAYS.toMillis(3) / STEP);
+        this.write(store, 0, total / 2);
+        // 重新打开后继续写入，汇总从上次的位置继续
+        store = new StatSeriesStore(root, COLUMNS, STEP);
+        this.write(store, total / 2, total);
+        // 重复的时间忽略
+        Assertions.assertFalse(store.append("m1", begin, new double[]{1, 1}));
+
+        long end = begin + TimeUnit.DAYS.toMillis(3) - 1;
+        // 最后一分钟还没有结束，没有汇总
+        List<StatPoint> minutes = store.query("m1", begin, end, 100);
+        Assertions.assertTrue(minutes.size() <= 100);
+        Assertions.assertEquals(total - 2, minutes.stream().mapToLong(StatPoint::getCount).sum());
+        Assertions.assertEquals(0, minutes.get(0).getValues()[0], 0.0001);
+        Assertions.assertTrue(Double.isNaN(minutes.get(0).getValues()[1]));
+        // 时间范围较长时使用每天的汇总数据
+        List<StatPoint> days = store.query("m1", end - TimeUnit.DAYS.toMillis(300), end, 3);
+        Assertions.assertEquals(2, days.size());
+        Assertions.assertEquals(begin + TimeUnit.DAYS.toMillis(1), days.get(1).getTime());
+        Assertions.assertEquals(11.5, days.get(0).getValues()[0], 0.0001);
+        Assertions.assertEquals(35.5, days.get(1).getValues()[0], 0.0001);
+        Assertions.assertEquals(2880, days.get(0).getCount());
+        // 较短的时间范围读取原始数据
+        List<StatPoint> raw = store.query("m1", end - TimeUnit.HOURS.toMillis(1) + 1, end, 500);
+        Assertions.assertEquals(120, raw.size());
+        Assertions.assertEquals(71, raw.get(0).getValues()[0], 0.0001);
+        List<StatPoint> sample = store.query("m1", end - TimeUnit.HOURS.toMillis(1) + 1, end, 10);
+        Assertions.assertTrue(sample.size() <= 10);
+        Assertions.assertEquals(120, sample.stream().mapToLong(StatPoint::getCount).sum());
+
+        List<StatPoint> latest = store.latest("m1", 500);
+        Assertions.assertEquals(500, latest.size());
+        Assertions.assertEquals(begin + (total - 1) * STEP, latest.get(latest.size() - 1).getTime());
+    }
+
+    @Test
+    public void testClean() throws Exception {
+        StatSeriesStore store = new StatSeriesStore(root, COLUMNS, STEP);
+        this.write(store, 0, (int) (TimeUnit.DAYS.toMillis(3) / STEP));
+        int count = store.clean(StatResolution.RAW, begin + TimeUnit.DAYS.toMillis(2));
+        Assertions.assertEquals(2, count);
+        Assertions.assertEquals(2880, store.latest("m1", Integer.MAX_VALUE).size());
+        // 原始数据已经删除，使用汇总数据
+        List<StatPoint> list = store.query("m1", begin, begin + TimeUnit.DAYS.toMillis(1) - 1, 2000);
+        Assertions.assertEquals(1440, list.size());
+        store.delete("m1");
+        Assertions.assertTrue(store.latest("m1", 10).isEmpty());
+    }
+}
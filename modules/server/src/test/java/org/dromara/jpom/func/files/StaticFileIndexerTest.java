@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.func.files;
+
+import cn.hutool.core.io.FileUtil;
+import org.dromara.jpom.func.files.model.StaticFileStorageModel;
+import org.dromara.jpom.func.files.service.StaticFileIndexer;
+import org.dromara.jpom.func.files.service.StaticFileSnapshot;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 静态目录增量扫描，没有变化的文件不写入
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class StaticFileIndexerTest {
+
+    @Test
+    public void testIncrementalScan() {
+        File root = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-static-index");
+        FileUtil.del(root);
+        try {
+            for (int i = 0; i < 10; i++) {
+                for (int j = 0; j < 50; j++) {
+                    FileUtil.writeUtf8String("content" + j, FileUtil.file(root, "dir" + i, "file" + j + ".txt"));
+                }
+            }
+            String staticDir = FileUtil.getAbsolutePath(root);
+            StaticFileSnapshot snapshot = new StaticFileSnapshot();
+            List<StaticFileStorageModel> upserts = new ArrayList<>();
+            List<String> deletes = new ArrayList<>();
+            // 首次扫描全部写入：根目录 + 10 个目录 + 500 个文件
+            StaticFileIndexer.Result result = new StaticFileIndexer(staticDir, snapshot, 4).scan(1, upserts::addAll, deletes::addAll);
+            Assertions.assertEquals(511, result.getFiles());
+            Assertions.assertEquals(511, result.getChanged());
+            Assertions.assertEquals(511, upserts.size());
+            Assertions.assertEquals(511, snapshot.size());
+            Assertions.assertTrue(deletes.isEmpty());
+            StaticFileStorageModel model = upserts.stream().filter(item -> "file1.txt".equals(item.getName())).findFirst().orElse(null);
+            Assertions.assertNotNull(model);
+            Assertions.assertEquals(2, model.getLevel());
+            Assertions.assertEquals(1, model.getType());
+            Assertions.assertEquals(staticDir, model.getStaticDir());
+            // 没有变化
+            upserts.clear();
+            result = new StaticFileIndexer(staticDir, snapshot, 4).scan(2, upserts::addAll, deletes::addAll);
+            Assertions.assertEquals(511, result.getFiles());
+            Assertions.assertEquals(0, result.getChanged());
+            Assertions.assertEquals(0, result.getDeleted());
+            Assertions.assertTrue(upserts.isEmpty());
+            // 修改一个文件，删除一个文件
+            File changed = FileUtil.file(root, "dir3", "file3.txt");
+            FileUtil.writeUtf8String("changed content", changed);
+            File deleted = FileUtil.file(root, "dir4", "file4.txt");
+            FileUtil.del(deleted);
+            // 目录的修改时间可能同时变化
+            result = new StaticFileIndexer(staticDir, snapshot, 4).scan(3, upserts::addAll, deletes::addAll);
+            Assertions.assertEquals(510, result.getFiles());
+            Assertions.assertTrue(upserts.stream().anyMatch(item -> item.getAbsolutePath().endsWith("dir3/file3.txt")));
+            Assertions.assertTrue(upserts.stream().allMatch(item -> item.getScanTaskId() == 3L));
+            Assertions.assertTrue(upserts.size() <= 3, String.valueOf(upserts.size()));
+            Assertions.assertEquals(1, result.getDeleted());
+            Assertions.assertEquals(1, deletes.size());
+            // 删除后的文件重新出现需要写入
+            upserts.clear();
+            FileUtil.writeUtf8String("content4", deleted);
+            new StaticFileIndexer(staticDir, snapshot, 4).scan(4, upserts::addAll, deletes::addAll);
+            Assertions.assertTrue(upserts.stream().anyMatch(item -> item.getAbsolutePath().endsWith("dir4/file4.txt")));
+        } finally {
+            FileUtil.del(root);
+        }
+    }
+
+    @Test
+    public void testSnapshot() {
+        StaticFileSnapshot snapshot = new StaticFileSnapshot();
+        String id = "0123456789abcdef0123456789abcdef";
+        snapshot.put(id, 10, 100, true, false);
+        for (int i = 0; i < 5000; i++) {
+            snapshot.put(String.format("%032x", i), i, i, true, false);
+        }
+        Assertions.assertEquals(5001, snapshot.size());
+        Assertions.assertTrue(snapshot.seen(id, 10, 100, false));
+        Assertions.assertFalse(snapshot.seen(id, 11, 100, false));
+        Assertions.assertFalse(snapshot.seen("ffffffffffffffffffffffffffffffff", 10, 100, false));
+        List<String> unseen = snapshot.unseen();
+        Assertions.assertEquals(5000, unseen.size());
+        Assertions.assertTrue(unseen.contains(String.format("%032x", 42)));
+        snapshot.remove(id);
+        Assertions.assertFalse(snapshot.seen(id, 10, 100, false));
+    }
+}
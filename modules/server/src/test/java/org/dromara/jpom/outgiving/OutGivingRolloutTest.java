@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.outgiving;
+
+import org.dromara.jpom.model.AfterOpt;
+import org.dromara.jpom.model.outgiving.OutGivingModel;
+import org.dromara.jpom.model.outgiving.OutGivingNodeProject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 分批发布的批次拆分和失败比例
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class OutGivingRolloutTest {
+
+    @Test
+    public void testWaveCount() {
+        Assertions.assertEquals(1, OutGivingRollout.waveCount(null, 40));
+        Assertions.assertEquals(5, OutGivingRollout.waveCount("5", 40));
+        Assertions.assertEquals(10, OutGivingRollout.waveCount("25%", 40));
+        Assertions.assertEquals(1, OutGivingRollout.waveCount("10%", 3));
+        Assertions.assertThrows(IllegalStateException.class, () -> OutGivingRollout.waveCount("0", 40));
+        Assertions.assertThrows(IllegalStateException.class, () -> OutGivingRollout.waveCount("120%", 40));
+        Assertions.assertThrows(IllegalStateException.class, () -> OutGivingRollout.waveCount("a", 40));
+
+        OutGivingModel item = new OutGivingModel();
+        item.setWaveSize("25%");
+        List<OutGivingNodeProject> list = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            list.add(new OutGivingNodeProject());
+        }
+        List<List<OutGivingNodeProject>> waves = new OutGivingRollout(item, AfterOpt.Order_Restart, null).split(list);
+        Assertions.assertEquals(4, waves.size());
+        Assertions.assertEquals(3, waves.get(0).size());
+        Assertions.assertEquals(1, waves.get(3).size());
+    }
+
+    @Test
+    public void testAbort() {
+        OutGivingNodeProject.Status ok = OutGivingNodeProject.Status.Ok;
+        OutGivingNodeProject.Status fail = OutGivingNodeProject.Status.Fail;
+        OutGivingModel item = new OutGivingModel();
+        // 默认：顺序重启不取消，完整顺序重启有失败即取消
+        Assertions.assertFalse(new OutGivingRollout(item, AfterOpt.Order_Restart, null).abort(Arrays.asList(fail, fail)));
+        OutGivingRollout mustRestart = new OutGivingRollout(item, AfterOpt.Order_Must_Restart, null);
+        Assertions.assertFalse(mustRestart.abort(Arrays.asList(ok, ok)));
+        Assertions.assertTrue(mustRestart.abort(Arrays.asList(ok, ok, ok, fail)));
+
+        item.setFailureRatio(30);
+        OutGivingRollout rollout = new OutGivingRollout(item, AfterOpt.Order_Restart, null);
+        Assertions.assertFalse(rollout.abort(Arrays.asList(ok, ok, ok, fail)));
+        Assertions.assertTrue(rollout.abort(Arrays.asList(ok, ok, fail, fail)));
+    }
+}
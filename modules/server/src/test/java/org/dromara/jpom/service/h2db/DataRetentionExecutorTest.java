@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.service.h2db;
+
+import cn.hutool.core.thread.ThreadUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 数据自动清理执行器
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class DataRetentionExecutorTest {
+
+    @Test
+    public void testDebounce() {
+        AtomicInteger runCount = new AtomicInteger();
+        String tableName = "TEST_DEBOUNCE";
+        long interval = 500;
+        // 模拟高频插入
+        for (int i = 0; i < 1000; i++) {
+            DataRetentionExecutor.submit(tableName, tableName, interval, () -> {
+                runCount.incrementAndGet();
+                ThreadUtil.sleep(50);
+                return 10;
+            });
+        }
+        ThreadUtil.sleep(200);
+        Assertions.assertEquals(1, runCount.get());
+        // 间隔内再次提交，只保留一个延迟执行
+        for (int i = 0; i < 1000; i++) {
+            DataRetentionExecutor.submit(tableName, tableName, interval, () -> {
+                runCount.incrementAndGet();
+                return 5;
+            });
+        }
+        ThreadUtil.sleep(200);
+        Assertions.assertEquals(1, runCount.get());
+        ThreadUtil.sleep(interval);
+        Assertions.assertEquals(2, runCount.get());
+
+        DataRetentionExecutor.Stat stat = DataRetentionExecutor.stats()
+            .stream()
+            .filter(stat1 -> tableName.equals(stat1.getTableName()))
+            .findFirst()
+            .orElseThrow(IllegalStateException::new);
+        Assertions.assertEquals(2, stat.getRunCount());
+        Assertions.assertEquals(15, stat.getPurgeCount());
+        Assertions.assertEquals(5, stat.getLastPurgeCount());
+        Assertions.assertTrue(stat.getCostTime() >= 50);
+    }
+
+    @Test
+    public void testError() {
+        String tableName = "TEST_ERROR";
+        AtomicInteger runCount = new AtomicInteger();
+        DataRetentionExecutor.submit(tableName, tableName, 0, () -> {
+            runCount.incrementAndGet();
+            throw new IllegalStateException("test");
+        });
+        ThreadUtil.sleep(200);
+        // 异常后可以继续提交
+        DataRetentionExecutor.submit(tableName, tableName, 0, runCount::incrementAndGet);
+        ThreadUtil.sleep(200);
+        Assertions.assertEquals(2, runCount.get());
+        DataRetentionExecutor.Stat stat = DataRetentionExecutor.stats()
+            .stream()
+            .filter(stat1 -> tableName.equals(stat1.getTableName()))
+            .findFirst()
+            .orElseThrow(IllegalStateException::new);
+        Assertions.assertEquals(1, stat.getErrorCount());
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.service.h2db;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 请求链路数据缓存
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class DbDataCacheTest {
+
+    @Test
+    public void testGet() {
+        DbDataCache<String> cache = DbDataCache.create("test-get", 2, 60 * 1000, "TEST_CACHE_GET");
+        AtomicInteger loadCount = new AtomicInteger();
+        Assertions.assertEquals("a", cache.get("a", () -> {
+            loadCount.incrementAndGet();
+            return "a";
+        }));
+        Assertions.assertEquals("a", cache.get("a", () -> "a" + loadCount.incrementAndGet()));
+        Assertions.assertEquals(1, loadCount.get());
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(1, cache.getMissCount());
+        // 查询结果为空不缓存
+        Assertions.assertNull(cache.get("b", () -> null));
+        Assertions.assertEquals(1, cache.size());
+        // 超过条数淘汰
+        cache.get("c", () -> "c");
+        cache.get("d", () -> "d");
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testChange() {
+        DbDataCache<String> cache = DbDataCache.create("test-change", 10, 60 * 1000, "TEST_CACHE_CHANGE");
+        AtomicInteger notify = new AtomicInteger();
+        DbDataCache.addChangeListener(tableName -> {
+            if ("TEST_CACHE_CHANGE".equals(tableName)) {
+                notify.incrementAndGet();
+            }
+        });
+        cache.get("a", () -> "a1");
+        // 其他表变动不影响
+        DbDataCache.onChange("TEST_CACHE_OTHER");
+        Assertions.assertEquals("a1", cache.get("a", () -> "a2"));
+        DbDataCache.onChange("TEST_CACHE_CHANGE");
+        Assertions.assertEquals(1, notify.get());
+        Assertions.assertEquals("a2", cache.get("a", () -> "a2"));
+        // 集群变动只清空缓存
+        Assertions.assertTrue(DbDataCache.invalidate("TEST_CACHE_CHANGE"));
+        Assertions.assertEquals(1, notify.get());
+        // 查询期间数据变动，旧数据不写入缓存
+        Assertions.assertEquals("a3", cache.get("a", () -> {
+            DbDataCache.invalidate("TEST_CACHE_CHANGE");
+            return "a3";
+        }));
+        Assertions.assertEquals(0, cache.size());
+    }
+}
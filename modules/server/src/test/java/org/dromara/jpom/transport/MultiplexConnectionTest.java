@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.transport;
+
+import cn.hutool.core.util.StrUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多路复用连接的通道、流控和关闭
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class MultiplexConnectionTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch slowLatch = new CountDownLatch(1);
+    private final BlockingQueue<String> serverClosed = new LinkedBlockingQueue<>();
+    private MultiplexConnection client;
+    private MultiplexConnection server;
+
+    @BeforeEach
+    public void connect() {
+        // 模拟连接的读取线程，每个方向按顺序处理消息帧
+        ExecutorService toServer = Executors.newSingleThreadExecutor();
+        ExecutorService toClient = Executors.newSingleThreadExecutor();
+        client = new MultiplexConnection("client", frame -> toServer.execute(() -> server.onFrame(frame)), executor, null);
+        server = new MultiplexConnection("server", frame -> toClient.execute(() -> client.onFrame(frame)), executor, (stream, path, parameters) -> {
+            stream.onClose(reason -> serverClosed.add(StrUtil.emptyToDefault(reason, path)));
+            if ("/slow".equals(path)) {
+                stream.onMessage(msg -> {
+                    try {
+                        slowLatch.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                return;
+            }
+            String prefix = parameters.get("prefix");
+            stream.onMessage(msg -> {
+                try {
+                    stream.send(prefix + msg);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        });
+    }
+
+    @Test
+    public void testEchoInOrder() throws Exception {
+        List<String> received = new CopyOnWriteArrayList<>();
+        MultiplexStream stream = client.open("/echo", Collections.singletonMap("prefix", "a-"), received::add);
+        for (int i = 0; i < 1000; i++) {
+            stream.send(String.valueOf(i));
+        }
+        for (int i = 0; i < 500 && received.size() < 1000; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(1000, received.size());
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertEquals("a-" + i, received.get(i));
+        }
+        Assertions.assertEquals(1, server.getStreamCount());
+        stream.close();
+        Assertions.assertEquals("/echo", serverClosed.poll(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, server.getStreamCount());
+        Assertions.assertEquals(0, client.getStreamCount());
+    }
+
+    @Test
+    public void testFlowControlPerStream() throws Exception {
+        MultiplexStream slow = client.open("/slow", Collections.emptyMap(), msg -> {
+        });
+        String chunk = StrUtil.repeat('x', MultiplexConnection.WINDOW_SIZE / 3);
+        AtomicInteger sent = new AtomicInteger();
+        Future<?> future = executor.submit(() -> {
+            for (int i = 0; i < 6; i++) {
+                slow.send(chunk);
+                sent.incrementAndGet();
+            }
+            return null;
+        });
+        Thread.sleep(300);
+        // 对端没有消费，发送到窗口大小后等待
+        Assertions.assertEquals(3, sent.get());
+        Assertions.assertFalse(future.isDone());
+
+        // 其他通道不受影响
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        MultiplexStream echo = client.open("/echo", Collections.singletonMap("prefix", "b-"), received::add);
+        echo.send("ping");
+        Assertions.assertEquals("b-ping", received.poll(5, TimeUnit.SECONDS));
+
+        slowLatch.countDown();
+        future.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(6, sent.get());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        BlockingQueue<String> clientClosed = new LinkedBlockingQueue<>();
+        MultiplexStream stream = client.open("/echo", Collections.singletonMap("prefix", "c-"), msg -> {
+        });
+        stream.onClose(reason -> clientClosed.add(StrUtil.nullToEmpty(reason)));
+        MultiplexStream other = client.open("/echo", Collections.singletonMap("prefix", "d-"), msg -> {
+        });
+        for (int i = 0; i < 50 && server.getStreamCount() < 2; i++) {
+            Thread.sleep(10);
+        }
+        // 对端关闭通道
+        server.close();
+        Assertions.assertNotNull(serverClosed.poll(5, TimeUnit.SECONDS));
+        Assertions.assertNotNull(serverClosed.poll(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(stream.isOpen());
+        client.close();
+        Assertions.assertNotNull(clientClosed.poll(5, TimeUnit.SECONDS));
+        Assertions.assertFalse(stream.isOpen());
+        Assertions.assertFalse(other.isOpen());
+        Assertions.assertThrows(IOException.class, () -> stream.send("x"));
+        Assertions.assertThrows(IOException.class, () -> client.open("/echo", Collections.emptyMap(), msg -> {
+        }));
+    }
+
+    @Test
+    public void testExecutorRejected() throws Exception {
+        // 对端的处理线程池已满，消息不能在连接的读取线程中处理
+        ExecutorService toServer = Executors.newSingleThreadExecutor();
+        ExecutorService toClient = Executors.newSingleThreadExecutor();
+        AtomicInteger handled = new AtomicInteger();
+        MultiplexConnection[] busy = new MultiplexConnection[1];
+        MultiplexConnection busyClient = new MultiplexConnection("client", frame -> toServer.execute(() -> busy[0].onFrame(frame)), executor, null);
+        busy[0] = new MultiplexConnection("server", frame -> toClient.execute(() -> busyClient.onFrame(frame)),
+            command -> {
+                throw new RejectedExecutionException();
+            },
+            (stream, path, parameters) -> stream.onMessage(msg -> handled.incrementAndGet()));
+        BlockingQueue<String> clientClosed = new LinkedBlockingQueue<>();
+        MultiplexStream stream = busyClient.open("/echo", Collections.emptyMap(), msg -> {
+        });
+        stream.onClose(reason -> clientClosed.add(StrUtil.nullToEmpty(reason)));
+        stream.send("ping");
+        // 对端拒绝后关闭通道并告知原因
+        Assertions.assertFalse(StrUtil.isEmpty(clientClosed.poll(5, TimeUnit.SECONDS)));
+        Assertions.assertFalse(stream.isOpen());
+        Assertions.assertEquals(0, handled.get());
+        Assertions.assertEquals(0, busy[0].getStreamCount());
+    }
+}
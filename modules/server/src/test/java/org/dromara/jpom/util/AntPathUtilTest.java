@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.function.Predicate;
+
+/**
+ * 预编译的 ant 表达式需要和 AntPathMatcher 结果一致
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class AntPathUtilTest {
+
+    private static final String[] PATTERNS = {
+        "/", "/**", "/*", "/a", "/a/", "/a/*", "/a/*/", "/a/**", "/**/a", "/**/a/", "/**/*", "/**/*.js",
+        "/a/**/b", "/a/b*", "/a/?", "/a.b/**/*.map", "/**/node_modules/**", "/*/a/**/c?.txt", "/a/**/", "a/**", "/a/{name}.js",
+    };
+
+    private static final String[] PATHS = {
+        "/", "/a", "/a/", "/ab", "/a/b", "/a/b/", "/a/b/c", "/a/x/y/b", "/x/a", "/x/a/", "/x.js", "/x/y/z.js", "/x/y/z.jsx",
+        "/a.b/c/d.map", "/aab/c/d.map", "/web/node_modules/lib/index.js", "/node_modules", "/x/a/y/c1.txt", "/x/a/c12.txt",
+        "/a/b.js", "/a/b/c.js",
+    };
+
+    @Test
+    public void testSameAsAntPathMatcher() {
+        for (String pattern : PATTERNS) {
+            Predicate<String> predicate = AntPathUtil.compileMatcher(Collections.singletonList(pattern));
+            for (String path : PATHS) {
+                boolean expected = AntPathUtil.ANT_PATH_MATCHER.match(pattern, path);
+                Assertions.assertEquals(expected, predicate.test(path), pattern + " " + path);
+            }
+        }
+    }
+
+    @Test
+    public void testMulti() {
+        Predicate<String> predicate = AntPathUtil.compileMatcher(java.util.Arrays.asList("/**/*.map", "/a/**", "/b/{name}.js"));
+        Assertions.assertTrue(predicate.test("/x/y.map"));
+        Assertions.assertTrue(predicate.test("/a/b/c"));
+        Assertions.assertTrue(predicate.test("/b/c.js"));
+        Assertions.assertFalse(predicate.test("/b/c/d.js"));
+        Assertions.assertFalse(AntPathUtil.compileMatcher(null).test("/a"));
+    }
+}
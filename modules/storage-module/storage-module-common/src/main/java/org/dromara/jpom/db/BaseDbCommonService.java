@@ -9,18 +9,17 @@
  */
 package org.dromara.jpom.db;
 
-import cn.hutool.core.bean.BeanUtil;
-import cn.hutool.core.bean.copier.CopyOptions;
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.lang.func.VoidFunc1;
 import cn.hutool.core.util.PageUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.TypeUtil;
 import cn.hutool.db.Db;
 import cn.hutool.db.Entity;
 import cn.hutool.db.Page;
-import cn.hutool.db.PageResult;
 import cn.hutool.db.ds.DSFactory;
 import cn.hutool.db.sql.Condition;
+import cn.hutool.db.sql.Query;
 import cn.hutool.extra.spring.SpringUtil;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -32,9 +31,7 @@ import org.springframework.util.Assert;
 
 import javax.sql.DataSource;
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -64,6 +61,10 @@ public abstract class BaseDbCommonService<T> {
     protected final String tableName;
     protected final Class<T> tClass;
     protected final DbExtConfig.Mode dbMode;
+    /**
+     * 实体和数据库行的转换
+     */
+    protected final BeanRowMapper<T> rowMapper;
 
     @SuppressWarnings("unchecked")
     public BaseDbCommonService() {
@@ -72,6 +73,7 @@ public abstract class BaseDbCommonService<T> {
         Assert.notNull(annotation, I18nMessageUtil.get("i18n.configure_table_name.f6fd"));
         this.tableName = annotation.value();
         this.dbMode = SpringUtil.getBean(DbExtConfig.class).getMode();
+        this.rowMapper = BeanRowMapper.of(tClass);
     }
 
     public String getDataDesc() {
@@ -97,6 +99,8 @@ public abstract class BaseDbCommonService<T> {
             return db.insert(entity);
         } catch (Exception e) {
             throw warpException(e);
+        } finally {
+            this.onDataChange();
         }
     }
 
@@ -115,6 +119,24 @@ public abstract class BaseDbCommonService<T> {
             db.insert(entities);
         } catch (Exception e) {
             throw warpException(e);
+        } finally {
+            this.onDataChange();
+        }
+    }
+
+    /**
+     * 在同一个事务中执行
+     *
+     * @param func 回调
+     */
+    protected final void txDb(VoidFunc1<Db> func) {
+        Db db = Db.use(this.getDataSource(), DialectUtil.getDialectByMode(dbMode));
+        try {
+            db.tx(func);
+        } catch (Exception e) {
+            throw warpException(e);
+        } finally {
+            this.onDataChange();
         }
     }
 
@@ -125,11 +147,7 @@ public abstract class BaseDbCommonService<T> {
      * @return entity
      */
     public Entity dataBeanToEntity(T data) {
-        Entity entity = new Entity(tableName);
-        // 转换为 map
-        Map<String, Object> beanToMap = BeanUtil.beanToMap(data, new LinkedHashMap<>(), true, DialectUtil::wrapField);
-        entity.putAll(beanToMap);
-        return entity;
+        return rowMapper.toEntity(data, tableName);
     }
 
 
@@ -151,6 +169,8 @@ public abstract class BaseDbCommonService<T> {
             return db.update(entity, where);
         } catch (Exception e) {
             throw warpException(e);
+        } finally {
+            this.onDataChange();
         }
     }
 
@@ -168,17 +188,20 @@ public abstract class BaseDbCommonService<T> {
         }
         Entity where = new Entity(tableName);
         where.set(ID_STR, keyValue);
-        Entity entity;
+        T data;
         try {
             Db db = Db.use(this.getDataSource(), DialectUtil.getDialectByMode(dbMode));
             if (consumer != null) {
                 consumer.accept(where);
             }
-            entity = db.get(where);
+            data = db.find(where.getFieldNames(), where, rowMapper.oneHandler());
         } catch (Exception e) {
             throw warpException(e);
         }
-        return this.entityToBean(entity, fill);
+        if (data != null && fill) {
+            this.fillSelectResult(data);
+        }
+        return data;
     }
 
     /**
@@ -195,17 +218,17 @@ public abstract class BaseDbCommonService<T> {
         }
         Entity where = new Entity(tableName);
         where.set(ID_STR, keyValue);
-        List<Entity> entities;
+        List<T> list;
         try {
             Db db = Db.use(this.getDataSource(), DialectUtil.getDialectByMode(dbMode));
             if (consumer != null) {
                 consumer.accept(where);
             }
-            entities = db.find(where);
+            list = db.find(where.getFieldNames(), where, rowMapper.listHandler());
         } catch (Exception e) {
             throw warpException(e);
         }
-        return this.entityToBeanList(entities, fill);
+        return this.fillSelectResult(list, fill);
     }
 
     /**
@@ -224,6 +247,8 @@ public abstract class BaseDbCommonService<T> {
             return db.del(where);
         } catch (Exception e) {
             throw warpException(e);
+        } finally {
+            this.onDataChange();
         }
     }
 
@@ -274,6 +299,25 @@ public abstract class BaseDbCommonService<T> {
         }
     }
 
+    /**
+     * 查询列表
+     *
+     * @param where 条件
+     * @param fill  是否填充
+     * @return List
+     */
+    public final List<T> queryBeanList(Entity where, boolean fill) {
+        where.setTableName(getTableName());
+        Db db = Db.use(this.getDataSource(), DialectUtil.getDialectByMode(dbMode));
+        List<T> list;
+        try {
+            list = db.find(where.getFieldNames(), where, rowMapper.listHandler());
+        } catch (Exception e) {
+            throw warpException(e);
+        }
+        return this.fillSelectResult(list, fill);
+    }
+
     /**
      * 查询列表
      *
@@ -282,12 +326,13 @@ public abstract class BaseDbCommonService<T> {
      */
     public final List<T> findByCondition(Condition... wheres) {
         Db db = Db.use(this.getDataSource(), DialectUtil.getDialectByMode(dbMode));
+        List<T> list;
         try {
-            List<Entity> entities = db.findBy(getTableName(), wheres);
-            return this.entityToBeanList(entities);
+            list = db.find(new Query(wheres, getTableName()), rowMapper.listHandler());
         } catch (Exception e) {
             throw warpException(e);
         }
+        return this.fillSelectResult(list, true);
     }
 
     /**
@@ -301,10 +346,7 @@ public abstract class BaseDbCommonService<T> {
         if (entity == null) {
             return null;
         }
-        CopyOptions copyOptions = new CopyOptions();
-        copyOptions.setIgnoreError(true);
-        copyOptions.setIgnoreCase(true);
-        T toBean = BeanUtil.toBean(entity, this.tClass, copyOptions);
+        T toBean = rowMapper.toBean(entity);
         if (fill) {
             this.fillSelectResult(toBean);
         }
@@ -324,6 +366,13 @@ public abstract class BaseDbCommonService<T> {
             .collect(Collectors.toList());
     }
 
+    private List<T> fillSelectResult(List<T> list, boolean fill) {
+        if (fill) {
+            list.forEach(this::fillSelectResult);
+        }
+        return list;
+    }
+
     /**
      * 分页查询
      *
@@ -332,26 +381,61 @@ public abstract class BaseDbCommonService<T> {
      * @param fill  是否填充
      * @return 结果
      */
-    @SuppressWarnings({"unchecked", "rawtypes"})
     public final PageResultDto<T> listPageDb(Entity where, Page page, boolean fill) {
         where.setTableName(getTableName());
-        PageResult<Entity> pageResult;
+        long total;
+        List<T> list;
         Db db = Db.use(this.getDataSource(), DialectUtil.getDialectByMode(dbMode));
         try {
-            pageResult = db.page(where, page);
+            total = db.count(where);
+            list = db.page(where, page, rowMapper.listHandler());
         } catch (Exception e) {
             throw warpException(e);
         }
-        //
-        List<T> list = this.entityToBeanList(pageResult, fill);
-        PageResultDto<T> pageResultDto = new PageResultDto(pageResult);
-        pageResultDto.setResult(list);
+        PageResultDto<T> pageResultDto = new PageResultDto<>(page.getPageNumber(), page.getPageSize(), (int) total);
+        pageResultDto.setResult(this.fillSelectResult(list, fill));
         if (pageResultDto.isEmpty() && pageResultDto.getPage() > 1) {
             Assert.state(pageResultDto.getTotal() <= 0, I18nMessageUtil.get("i18n.pagination_error.6759"));
         }
         return pageResultDto;
     }
 
+    /**
+     * 分页查询，只查询当前页数据不查询总数
+     *
+     * @param where 条件
+     * @param page  分页
+     * @return List
+     */
+    public final List<Entity> listPageOnlyDb(Entity where, Page page) {
+        where.setTableName(getTableName());
+        Db db = Db.use(this.getDataSource(), DialectUtil.getDialectByMode(dbMode));
+        try {
+            return db.pageForEntityList(where, page);
+        } catch (Exception e) {
+            throw warpException(e);
+        }
+    }
+
+    /**
+     * 分页查询，只查询当前页数据不查询总数
+     *
+     * @param where 条件
+     * @param page  分页
+     * @param fill  是否填充
+     * @return List
+     */
+    public final List<T> listPageOnlyBean(Entity where, Page page, boolean fill) {
+        where.setTableName(getTableName());
+        Db db = Db.use(this.getDataSource(), DialectUtil.getDialectByMode(dbMode));
+        List<T> list;
+        try {
+            list = db.page(where, page, rowMapper.listHandler());
+        } catch (Exception e) {
+            throw warpException(e);
+        }
+        return this.fillSelectResult(list, fill);
+    }
 
     /**
      * sql 查询
@@ -389,9 +473,17 @@ public abstract class BaseDbCommonService<T> {
             return Db.use(this.getDataSource(), DialectUtil.getDialectByMode(dbMode)).execute(sql, params);
         } catch (Exception e) {
             throw warpException(e);
+        } finally {
+            this.onDataChange();
         }
     }
 
+    /**
+     * 表数据发生变动（插入、修改、删除、执行 sql）后回调，执行失败也会回调
+     */
+    protected void onDataChange() {
+    }
+
     /**
      * 查询结果 填充
      *
@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.db;
+
+import cn.hutool.core.bean.BeanDesc;
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.bean.PropDesc;
+import cn.hutool.core.convert.BasicType;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.exceptions.ExceptionUtil;
+import cn.hutool.core.map.SafeConcurrentHashMap;
+import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.core.util.TypeUtil;
+import cn.hutool.db.Entity;
+import cn.hutool.db.handler.RsHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.dialect.DialectUtil;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 数据库行和实体之间的转换
+ * <p>
+ * 每个实体类只在 service 初始化时解析一次属性，读写属性使用 LambdaMetafactory 生成的访问器（类加载器不可见时退回 MethodHandle），
+ * 查询时直接从 ResultSet 读取列写入实体，不再经过 Entity 和 BeanUtil 的反射拷贝。
+ * 转换规则和 BeanUtil.toBean（忽略大小写、忽略错误）、BeanUtil.beanToMap（忽略 null）保持一致
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public final class BeanRowMapper<T> {
+
+    private static final Map<Class<?>, BeanRowMapper<?>> MAPPERS = new SafeConcurrentHashMap<>();
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Supplier<Object> constructor;
+    /**
+     * 可读的属性，按照属性声明顺序
+     */
+    private final Property[] readers;
+    /**
+     * 小写属性名 -> 可写的属性
+     */
+    private final Map<String, Property> writers;
+    /**
+     * 列名 -> 可写的属性，列名对应不到属性时缓存为 empty
+     */
+    private final Map<String, Optional<Property>> labels = new SafeConcurrentHashMap<>();
+    /**
+     * 可读属性在当前数据库方言下的列名
+     */
+    private volatile String[] columns;
+
+    /**
+     * 获取实体类的转换器
+     *
+     * @param beanClass 实体类
+     * @param <T>       实体类型
+     * @return 转换器
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BeanRowMapper<T> of(Class<T> beanClass) {
+        BeanRowMapper<?> mapper = MAPPERS.get(beanClass);
+        if (mapper == null) {
+            mapper = MAPPERS.computeIfAbsent(beanClass, BeanRowMapper::new);
+        }
+        return (BeanRowMapper<T>) mapper;
+    }
+
+    private BeanRowMapper(Class<T> beanClass) {
+        BeanDesc beanDesc = BeanUtil.getBeanDesc(beanClass);
+        List<Property> readers = new ArrayList<>();
+        Map<String, Property> writers = new HashMap<>(16);
+        for (PropDesc prop : beanDesc.getProps()) {
+            Method getter = prop.isReadable(true) ? prop.getGetter() : null;
+            Method setter = prop.isWritable(true) ? prop.getSetter() : null;
+            if (getter == null && setter == null) {
+                continue;
+            }
+            Type type = TypeUtil.getActualType(beanClass, prop.getFieldType());
+            Property property = new Property(prop.getFieldName(), type, prop.getFieldClass(), getter == null ? null : getter(getter), setter == null ? null : setter(setter));
+            if (getter != null) {
+                readers.add(property);
+            }
+            if (setter != null) {
+                writers.put(prop.getFieldName().toLowerCase(Locale.ROOT), property);
+            }
+        }
+        this.readers = readers.toArray(new Property[0]);
+        this.writers = writers;
+        this.constructor = constructor(beanClass);
+    }
+
+    /**
+     * 结果集转实体列表
+     *
+     * @return 结果集处理器
+     */
+    public RsHandler<List<T>> listHandler() {
+        return rs -> {
+            Column[] columns = this.columns(rs.getMetaData());
+            List<T> list = new ArrayList<>();
+            while (rs.next()) {
+                list.add(this.toBean(rs, columns));
+            }
+            return list;
+        };
+    }
+
+    /**
+     * 结果集第一行转实体
+     *
+     * @return 结果集处理器
+     */
+    public RsHandler<T> oneHandler() {
+        return rs -> rs.next() ? this.toBean(rs, this.columns(rs.getMetaData())) : null;
+    }
+
+    /**
+     * entity 转实体
+     *
+     * @param entity entity
+     * @return 实体
+     */
+    public T toBean(Map<String, Object> entity) {
+        if (entity == null) {
+            return null;
+        }
+        T bean = this.newInstance();
+        for (Map.Entry<String, Object> entry : entity.entrySet()) {
+            Property property = this.findProperty(entry.getKey());
+            if (property != null) {
+                property.set(bean, entry.getValue());
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * 实体转 entity，忽略 null 值
+     *
+     * @param bean      实体
+     * @param tableName 表名
+     * @return entity
+     */
+    public Entity toEntity(T bean, String tableName) {
+        String[] columns = this.columns;
+        if (columns == null) {
+            columns = Arrays.stream(readers).map(property -> DialectUtil.wrapField(property.name)).toArray(String[]::new);
+            this.columns = columns;
+        }
+        Entity entity = new Entity(tableName);
+        for (int i = 0; i < readers.length; i++) {
+            Object value = readers[i].getter.apply(bean);
+            if (value != null && columns[i] != null) {
+                entity.set(columns[i], value);
+            }
+        }
+        return entity;
+    }
+
+    private T toBean(ResultSet rs, Column[] columns) throws SQLException {
+        T bean = this.newInstance();
+        for (Column column : columns) {
+            Object value;
+            switch (column.sqlType) {
+                case Types.TIMESTAMP:
+                    value = rs.getTimestamp(column.index);
+                    break;
+                case Types.TIME:
+                    value = rs.getTime(column.index);
+                    break;
+                default:
+                    value = rs.getObject(column.index);
+                    break;
+            }
+            column.property.set(bean, value);
+        }
+        return bean;
+    }
+
+    private Column[] columns(ResultSetMetaData metaData) throws SQLException {
+        int count = metaData.getColumnCount();
+        List<Column> list = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Property property = this.findProperty(metaData.getColumnLabel(i));
+            if (property != null) {
+                list.add(new Column(i, metaData.getColumnType(i), property));
+            }
+        }
+        return list.toArray(new Column[0]);
+    }
+
+    private Property findProperty(String label) {
+        Optional<Property> optional = labels.get(label);
+        if (optional == null) {
+            Property property = writers.get(label.toLowerCase(Locale.ROOT));
+            if (property == null) {
+                // 和 CopyOptions 的 autoTransCamelCase 一致
+                property = writers.get(StrUtil.toCamelCase(label).toLowerCase(Locale.ROOT));
+            }
+            optional = Optional.ofNullable(property);
+            labels.put(label, optional);
+        }
+        return optional.orElse(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T newInstance() {
+        return (T) constructor.get();
+    }
+
+    /**
+     * 生成的访问器类定义在当前类的类加载器中，需要能看到实体类和属性类型
+     *
+     * @param types 类型
+     * @return true 可以使用 LambdaMetafactory
+     */
+    private static boolean canGenerate(Class<?>... types) {
+        for (Class<?> type : types) {
+            if (type.isPrimitive()) {
+                continue;
+            }
+            if (!Modifier.isPublic(type.getModifiers())) {
+                return false;
+            }
+            try {
+                if (Class.forName(type.getName(), false, BeanRowMapper.class.getClassLoader()) != type) {
+                    return false;
+                }
+            } catch (ClassNotFoundException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        Class<?> returnType = BasicType.wrap(method.getReturnType());
+        try {
+            if (Modifier.isPublic(method.getModifiers()) && canGenerate(declaringClass, returnType)) {
+                MethodHandle handle = LOOKUP.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class), handle, MethodType.methodType(returnType, declaringClass));
+                return (Function<Object, Object>) site.getTarget().invokeExact();
+            }
+            MethodHandle handle = LOOKUP.unreflect(ReflectUtil.setAccessible(method)).asType(MethodType.methodType(Object.class, Object.class));
+            return bean -> {
+                try {
+                    return (Object) handle.invokeExact(bean);
+                } catch (Throwable e) {
+                    throw ExceptionUtil.wrapRuntime(e);
+                }
+            };
+        } catch (Throwable e) {
+            throw ExceptionUtil.wrapRuntime(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        Class<?> paramType = BasicType.wrap(method.getParameterTypes()[0]);
+        try {
+            if (Modifier.isPublic(method.getModifiers()) && canGenerate(declaringClass, paramType)) {
+                MethodHandle handle = LOOKUP.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept", MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class), handle, MethodType.methodType(void.class, declaringClass, paramType));
+                return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+            }
+            MethodHandle handle = LOOKUP.unreflect(ReflectUtil.setAccessible(method)).asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (bean, value) -> {
+                try {
+                    handle.invokeExact(bean, value);
+                } catch (Throwable e) {
+                    throw ExceptionUtil.wrapRuntime(e);
+                }
+            };
+        } catch (Throwable e) {
+            throw ExceptionUtil.wrapRuntime(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> constructor(Class<?> beanClass) {
+        try {
+            Constructor<?> constructor = beanClass.getDeclaredConstructor();
+            if (Modifier.isPublic(constructor.getModifiers()) && canGenerate(beanClass)) {
+                MethodHandle handle = LOOKUP.unreflectConstructor(constructor);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class), handle, MethodType.methodType(beanClass));
+                return (Supplier<Object>) site.getTarget().invokeExact();
+            }
+            MethodHandle handle = LOOKUP.unreflectConstructor(ReflectUtil.setAccessible(constructor)).asType(MethodType.methodType(Object.class));
+            return () -> {
+                try {
+                    return (Object) handle.invokeExact();
+                } catch (Throwable e) {
+                    throw ExceptionUtil.wrapRuntime(e);
+                }
+            };
+        } catch (Throwable e) {
+            throw ExceptionUtil.wrapRuntime(e);
+        }
+    }
+
+    private static class Property {
+        private final String name;
+        private final Type type;
+        private final Class<?> wrapType;
+        private final boolean primitive;
+        private final Function<Object, Object> getter;
+        private final BiConsumer<Object, Object> setter;
+
+        private Property(String name, Type type, Class<?> rawType, Function<Object, Object> getter, BiConsumer<Object, Object> setter) {
+            this.name = name;
+            this.type = type;
+            this.wrapType = BasicType.wrap(rawType);
+            this.primitive = rawType.isPrimitive();
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        private void set(Object bean, Object value) {
+            value = this.convert(value);
+            if (value == null && primitive) {
+                return;
+            }
+            try {
+                setter.accept(bean, value);
+            } catch (RuntimeException e) {
+                // 和 BeanUtil.toBean 的 ignoreError 一致
+                log.debug("set {} error", name, e);
+            }
+        }
+
+        private Object convert(Object value) {
+            if (value == null || wrapType.isInstance(value)) {
+                return value;
+            }
+            if (value instanceof Number) {
+                if (wrapType == Integer.class) {
+                    return ((Number) value).intValue();
+                }
+                if (wrapType == Long.class) {
+                    return ((Number) value).longValue();
+                }
+            }
+            return Convert.convertWithCheck(type, value, null, true);
+        }
+    }
+
+    private static class Column {
+        private final int index;
+        private final int sqlType;
+        private final Property property;
+
+        private Column(int index, int sqlType, Property property) {
+            this.index = index;
+            this.sqlType = sqlType;
+            this.property = property;
+        }
+    }
+}
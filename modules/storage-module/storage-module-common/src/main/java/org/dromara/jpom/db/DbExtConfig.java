@@ -48,6 +48,26 @@ public class DbExtConfig implements InitializingBean {
      * 日志记录最大条数
      */
     private Integer logStorageCount = 10000;
+    /**
+     * 日志自动清理间隔（单位秒），同一个表在间隔内最多清理一次
+     */
+    private int logClearInterval = 60;
+    /**
+     * 用户、权限、节点等高频查询数据的缓存条数，配置小于等于零则不缓存
+     */
+    private int dataCacheSize = 1000;
+    /**
+     * 高频查询数据的缓存时间（单位秒）
+     */
+    private int dataCacheTtl = 30;
+    /**
+     * H2 迁移到其他数据库时每次事务提交的条数
+     */
+    private int migrateBatchSize = 2000;
+    /**
+     * H2 迁移到其他数据库时并行迁移的表数
+     */
+    private int migrateThreads = 4;
     /**
      * 数据库默认
      */
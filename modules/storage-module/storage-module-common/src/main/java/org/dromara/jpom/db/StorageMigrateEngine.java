@@ -0,0 +1,372 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.db;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.bean.PropDesc;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.date.SystemClock;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.BooleanUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.db.sql.Wrapper;
+import com.alibaba.fastjson2.JSONObject;
+import lombok.Lombok;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.jpom.common.i18n.I18nMessageUtil;
+import org.dromara.jpom.dialect.DialectUtil;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Collectors;
+
+/**
+ * H2 数据迁移到其他数据库
+ * <p>
+ * 每个表使用只进游标按主键顺序读取，以多行 insert 批量写入目标库，每 batchSize 条提交一次事务并记录迁移进度。
+ * 表之间相互独立，多个表并行迁移。中断后再次迁移会从记录的进度继续
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+@Slf4j
+public class StorageMigrateEngine {
+
+    /**
+     * 单条 insert 语句最多的参数个数
+     */
+    private static final int MAX_STATEMENT_PARAMS = 30000;
+    /**
+     * 单条 insert 语句最多的行数
+     */
+    private static final int MAX_STATEMENT_ROWS = 100;
+    /**
+     * 迁移进度日志间隔
+     */
+    private static final long PROGRESS_LOG_INTERVAL = 10 * 1000;
+
+    private final DataSource source;
+    private final DataSource target;
+    private final DbExtConfig.Mode targetMode;
+    private final int batchSize;
+    private final int threads;
+    private final File progressFile;
+    private final JSONObject progress;
+
+    /**
+     * @param source       H2 数据源
+     * @param target       目标数据源
+     * @param targetMode   目标数据库类型
+     * @param targetKey    目标数据库标识，和迁移进度中的不一致时忽略旧的进度
+     * @param batchSize    每次事务提交的条数
+     * @param threads      并行迁移的表数
+     * @param progressFile 迁移进度文件
+     */
+    public StorageMigrateEngine(DataSource source, DataSource target, DbExtConfig.Mode targetMode, String targetKey,
+                                int batchSize, int threads, File progressFile) {
+        this.source = source;
+        this.target = target;
+        this.targetMode = targetMode;
+        this.batchSize = Math.max(batchSize, 1);
+        this.threads = Math.max(threads, 1);
+        this.progressFile = progressFile;
+        JSONObject jsonObject = null;
+        if (FileUtil.isFile(progressFile)) {
+            jsonObject = JSONObject.parseObject(FileUtil.readUtf8String(progressFile));
+            if (jsonObject != null && !StrUtil.equals(jsonObject.getString("target"), targetKey)) {
+                log.warn(I18nMessageUtil.get("i18n.migrate_progress_reset.8fb4"), jsonObject.getString("target"));
+                jsonObject = null;
+            }
+        }
+        if (jsonObject == null) {
+            jsonObject = new JSONObject();
+            jsonObject.put("target", targetKey);
+        }
+        this.progress = jsonObject;
+    }
+
+    /**
+     * 迁移数据，全部迁移成功后删除迁移进度
+     *
+     * @param classes 数据表实体
+     * @return 迁移的总条数
+     */
+    public long migrate(Collection<Class<?>> classes) {
+        ThreadPoolExecutor executor = ExecutorBuilder.create()
+            .setCorePoolSize(threads)
+            .setMaxPoolSize(threads)
+            .setWorkQueue(new LinkedBlockingQueue<>())
+            .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("jpom-db-migrate-").build())
+            .build();
+        try {
+            List<Future<Long>> futures = classes.stream()
+                .map(aClass -> executor.submit(() -> this.migrateTable(aClass)))
+                .collect(Collectors.toList());
+            long total = 0;
+            for (Future<Long> future : futures) {
+                total += future.get();
+            }
+            FileUtil.del(progressFile);
+            return total;
+        } catch (ExecutionException e) {
+            throw Lombok.sneakyThrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Lombok.sneakyThrow(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long migrateTable(Class<?> aClass) throws SQLException {
+        TableName tableName = aClass.getAnnotation(TableName.class);
+        String table = tableName.value();
+        String tableDesc = I18nMessageUtil.get(tableName.nameKey());
+        JSONObject tableProgress = this.getTableProgress(table);
+        long count = tableProgress.getLongValue("count");
+        if (tableProgress.getBooleanValue("done")) {
+            log.info(I18nMessageUtil.get("i18n.migrate_table_skip.5c6c"), tableDesc);
+            return count;
+        }
+        String lastId = tableProgress.getString("lastId");
+        if (lastId == null) {
+            log.info(I18nMessageUtil.get("i18n.start_migrating.20d6"), tableDesc, table);
+        } else {
+            log.info(I18nMessageUtil.get("i18n.migrate_table_resume.9184"), tableDesc, count);
+        }
+        Wrapper sourceWrapper = DialectUtil.getH2Dialect().getWrapper();
+        String sql = "select * from " + sourceWrapper.wrap(table) +
+            (lastId == null ? StrUtil.EMPTY : " where " + sourceWrapper.wrap(BaseDbCommonService.ID_STR) + " > ?") +
+            " order by " + sourceWrapper.wrap(BaseDbCommonService.ID_STR);
+        long startTime = SystemClock.now();
+        long migrateCount = 0;
+        try (Connection sourceConn = source.getConnection();
+             Connection targetConn = target.getConnection();
+             PreparedStatement statement = sourceConn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(batchSize);
+            if (lastId != null) {
+                statement.setString(1, lastId);
+            }
+            targetConn.setAutoCommit(false);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                TableColumns columns = new TableColumns(aClass, resultSet.getMetaData());
+                TableWriter writer = new TableWriter(targetConn, table, columns);
+                // 断点继续时上次提交的数据可能还没有记录进度
+                boolean resume = lastId != null;
+                List<Object[]> rows = new ArrayList<>(batchSize);
+                long logTime = startTime;
+                while (true) {
+                    boolean next = resultSet.next();
+                    if (next) {
+                        rows.add(columns.readRow(resultSet));
+                        if (rows.size() < batchSize) {
+                            continue;
+                        }
+                    }
+                    if (!rows.isEmpty()) {
+                        writer.write(rows, resume);
+                        resume = false;
+                        count += rows.size();
+                        migrateCount += rows.size();
+                        this.saveTableProgress(table, tableProgress, (String) rows.get(rows.size() - 1)[columns.idIndex], count, false);
+                        rows.clear();
+                        long now = SystemClock.now();
+                        if (now - logTime > PROGRESS_LOG_INTERVAL) {
+                            logTime = now;
+                            log.info(I18nMessageUtil.get("i18n.migrate_table_progress.69ac"), tableDesc, count, rate(migrateCount, now - startTime));
+                        }
+                    }
+                    if (!next) {
+                        break;
+                    }
+                }
+            }
+        }
+        this.saveTableProgress(table, tableProgress, tableProgress.getString("lastId"), count, true);
+        long time = SystemClock.now() - startTime;
+        log.info(I18nMessageUtil.get("i18n.migrate_table_done.cad1"), tableDesc, count, DateUtil.formatBetween(time), rate(migrateCount, time));
+        return count;
+    }
+
+    private static long rate(long count, long time) {
+        return count * 1000 / Math.max(time, 1);
+    }
+
+    private JSONObject getTableProgress(String table) {
+        synchronized (progress) {
+            JSONObject jsonObject = progress.getJSONObject(table);
+            return jsonObject == null ? new JSONObject() : jsonObject.clone();
+        }
+    }
+
+    private void saveTableProgress(String table, JSONObject tableProgress, String lastId, long count, boolean done) {
+        tableProgress.put("lastId", lastId);
+        tableProgress.put("count", count);
+        tableProgress.put("done", done);
+        synchronized (progress) {
+            progress.put(table, tableProgress.clone());
+            File tempFile = FileUtil.file(progressFile.getParentFile(), progressFile.getName() + ".temp");
+            FileUtil.writeUtf8String(progress.toString(), tempFile);
+            FileUtil.move(tempFile, progressFile, true);
+        }
+    }
+
+    /**
+     * 需要迁移的列，实体中存在并且 H2 表中存在
+     */
+    private class TableColumns {
+        private final int[] sourceIndexes;
+        private final String[] names;
+        private final boolean[] boolColumns;
+        private final int idIndex;
+
+        private TableColumns(Class<?> aClass, ResultSetMetaData metaData) throws SQLException {
+            Map<String, PropDesc> propMap = BeanUtil.getBeanDesc(aClass).getProps()
+                .stream()
+                .collect(Collectors.toMap(propDesc -> propDesc.getFieldName().toLowerCase(), propDesc -> propDesc, (o1, o2) -> o1));
+            List<Integer> indexes = new ArrayList<>();
+            List<PropDesc> props = new ArrayList<>();
+            int columnCount = metaData.getColumnCount();
+            for (int i = 1; i <= columnCount; i++) {
+                PropDesc propDesc = propMap.get(metaData.getColumnLabel(i).toLowerCase());
+                if (propDesc != null) {
+                    indexes.add(i);
+                    props.add(propDesc);
+                }
+            }
+            int size = indexes.size();
+            this.sourceIndexes = new int[size];
+            this.names = new String[size];
+            this.boolColumns = new boolean[size];
+            int id = -1;
+            for (int i = 0; i < size; i++) {
+                sourceIndexes[i] = indexes.get(i);
+                PropDesc propDesc = props.get(i);
+                names[i] = propDesc.getFieldName();
+                Class<?> type = propDesc.getFieldClass();
+                // tinyint类型查出来是数字，需转为bool
+                boolColumns[i] = DbExtConfig.Mode.POSTGRESQL.equals(targetMode) && (Boolean.class.equals(type) || boolean.class.equals(type));
+                if (StrUtil.equals(names[i], BaseDbCommonService.ID_STR)) {
+                    id = i;
+                }
+            }
+            if (id < 0) {
+                throw new IllegalStateException("not found id column:" + aClass.getName());
+            }
+            this.idIndex = id;
+        }
+
+        private Object[] readRow(ResultSet resultSet) throws SQLException {
+            Object[] row = new Object[sourceIndexes.length];
+            for (int i = 0; i < sourceIndexes.length; i++) {
+                Object value = resultSet.getObject(sourceIndexes[i]);
+                if (value instanceof Clob) {
+                    value = IoUtil.read(((Clob) value).getCharacterStream());
+                } else if (value instanceof Blob) {
+                    value = IoUtil.readBytes(((Blob) value).getBinaryStream());
+                } else if (boolColumns[i] && value instanceof Number) {
+                    value = BooleanUtil.toBoolean(value.toString());
+                }
+                row[i] = value;
+            }
+            row[idIndex] = StrUtil.toStringOrNull(row[idIndex]);
+            return row;
+        }
+    }
+
+    /**
+     * 多行 insert 写入目标表
+     */
+    private class TableWriter {
+        private final Connection connection;
+        private final TableColumns columns;
+        private final String tableSql;
+        private final String idColumn;
+        private final String valuesSql;
+        private final String insertPrefix;
+        private final int statementRows;
+
+        private TableWriter(Connection connection, String table, TableColumns columns) {
+            this.connection = connection;
+            this.columns = columns;
+            Wrapper wrapper = DialectUtil.getDialectByMode(targetMode).getWrapper();
+            this.tableSql = wrapper.wrap(table);
+            this.idColumn = wrapper.wrap(BaseDbCommonService.ID_STR);
+            this.valuesSql = Arrays.stream(columns.names).map(s -> "?").collect(Collectors.joining(",", "(", ")"));
+            String columnSql = Arrays.stream(columns.names).map(wrapper::wrap).collect(Collectors.joining(","));
+            this.statementRows = Math.max(1, Math.min(MAX_STATEMENT_ROWS, MAX_STATEMENT_PARAMS / columns.names.length));
+            this.insertPrefix = "insert into " + tableSql + " (" + columnSql + ") values ";
+        }
+
+        private void write(List<Object[]> rows, boolean resume) throws SQLException {
+            try {
+                if (resume) {
+                    this.delete(rows);
+                }
+                int size = rows.size();
+                int full = size / statementRows * statementRows;
+                if (full > 0) {
+                    try (PreparedStatement statement = connection.prepareStatement(this.insertSql(statementRows))) {
+                        for (int start = 0; start < full; start += statementRows) {
+                            this.bind(statement, rows, start, statementRows);
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                    }
+                }
+                if (full < size) {
+                    try (PreparedStatement statement = connection.prepareStatement(this.insertSql(size - full))) {
+                        this.bind(statement, rows, full, size - full);
+                        statement.executeUpdate();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+
+        private void delete(List<Object[]> rows) throws SQLException {
+            for (int start = 0; start < rows.size(); start += MAX_STATEMENT_ROWS) {
+                int end = Math.min(rows.size(), start + MAX_STATEMENT_ROWS);
+                String in = StrUtil.repeatAndJoin("?", end - start, ",");
+                try (PreparedStatement statement = connection.prepareStatement("delete from " + tableSql + " where " + idColumn + " in (" + in + ")")) {
+                    for (int i = start; i < end; i++) {
+                        statement.setObject(i - start + 1, rows.get(i)[columns.idIndex]);
+                    }
+                    statement.executeUpdate();
+                }
+            }
+        }
+
+        private String insertSql(int rowCount) {
+            return insertPrefix + StrUtil.repeatAndJoin(valuesSql, rowCount, ",");
+        }
+
+        private void bind(PreparedStatement statement, List<Object[]> rows, int start, int rowCount) throws SQLException {
+            int index = 1;
+            for (int i = start; i < start + rowCount; i++) {
+                for (Object value : rows.get(i)) {
+                    statement.setObject(index++, value);
+                }
+            }
+        }
+    }
+}
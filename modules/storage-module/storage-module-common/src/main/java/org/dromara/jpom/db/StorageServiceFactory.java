@@ -17,23 +17,16 @@ import cn.hutool.core.exceptions.CheckedUtil;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.lang.Singleton;
 import cn.hutool.core.util.*;
-import cn.hutool.db.*;
 import cn.hutool.db.ds.DSFactory;
-import cn.hutool.db.sql.Wrapper;
 import cn.hutool.setting.Setting;
 import lombok.Lombok;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
-import org.dromara.jpom.dialect.DialectUtil;
 import org.dromara.jpom.system.ExtConfigBean;
 import org.dromara.jpom.system.JpomRuntimeException;
 import org.springframework.util.Assert;
 
 import java.io.File;
-import java.lang.reflect.Field;
-import java.sql.Connection;
-import java.sql.SQLException;
-import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -112,10 +105,11 @@ public class StorageServiceFactory {
                 .sorted((o1, o2) -> StrUtil.compare(o1.getSimpleName(), o2.getSimpleName(), false))
                 .collect(Collectors.toCollection(LinkedHashSet::new));
             log.info(I18nMessageUtil.get("i18n.prepare_to_migrate_data.f251"));
-            int total = 0;
-            for (Class<?> aClass : classes) {
-                total += migrateH2ToNowItem(aClass, h2DsFactory, nowDsFactory, targetNode);
-            }
+            String targetKey = dbExtConfig.getMode() + StrUtil.COLON + dbExtConfig.getUrl();
+            File progressFile = FileUtil.file(StorageServiceFactory.dbLocalPath(), "migrate.progress.json");
+            StorageMigrateEngine migrateEngine = new StorageMigrateEngine(h2DsFactory.getDataSource(), nowDsFactory.getDataSource(), targetNode, targetKey,
+                dbExtConfig.getMigrateBatchSize(), dbExtConfig.getMigrateThreads(), progressFile);
+            long total = migrateEngine.migrate(classes);
             long endTime = SystemClock.now();
             log.info(I18nMessageUtil.get("i18n.migration_completed.7a30"), total, DateUtil.formatBetween(endTime - time));
             h2DsFactory.destroy();
@@ -128,77 +122,6 @@ public class StorageServiceFactory {
         }
     }
 
-    private static int migrateH2ToNowItem(Class<?> aClass, DSFactory h2DsFactory, DSFactory targetDsFactory, DbExtConfig.Mode targetNode) throws SQLException {
-        TableName tableName = aClass.getAnnotation(TableName.class);
-        Wrapper targetModeWrapper = DialectUtil.getDialectByMode(targetNode).getWrapper();
-        Set<String> boolFieldSet = Arrays.stream(ReflectUtil.getFields(aClass, field -> Boolean.class.equals(field.getType()) || boolean.class.equals(field.getType())))
-            .map(Field::getName)
-            .collect(Collectors.toSet());
-
-        String tableDesc = I18nMessageUtil.get(tableName.nameKey());
-        log.info(I18nMessageUtil.get("i18n.start_migrating.20d6"), tableDesc, tableName.value());
-        int total = 0;
-        while (true) {
-            Entity where = Entity.create(tableName.value());
-            PageResult<Entity> pageResult;
-            Db db = Db.use(h2DsFactory.getDataSource(), DialectUtil.getH2Dialect());
-            Page page = new Page(1, 200);
-            pageResult = db.page(where, page);
-            if (pageResult.isEmpty()) {
-                break;
-            }
-            // 过滤需要忽略迁移的数据
-            List<Entity> newResult = pageResult.stream()
-                .map(entity -> entity.toBeanIgnoreCase(aClass))
-                .map(o -> {
-                    // 兼容大小写
-                    Entity entity = Entity.create(targetModeWrapper.wrap(tableName.value()));
-                    return entity.parseBean(o, false, true);
-                }).peek(entity -> {
-                    if (DbExtConfig.Mode.POSTGRESQL.equals(targetNode)) {
-                        // tinyint类型查出来是数字，需转为bool
-                        boolFieldSet.forEach(fieldName -> {
-                            Object field = entity.get(fieldName);
-                            if (field instanceof Number) {
-                                entity.set(fieldName, BooleanUtil.toBoolean(field.toString()));
-                            }
-                        });
-                    }
-                }).collect(Collectors.toList());
-            if (newResult.isEmpty()) {
-                if (pageResult.isLast()) {
-                    // 最后一页
-                    break;
-                }
-                // 继续
-                continue;
-            }
-            total += newResult.size();
-            // 插入信息数据
-            Db db2 = Db.use(targetDsFactory.getDataSource(), DialectUtil.getDialectByMode(targetNode));
-
-            Connection connection = db2.getConnection();
-            try {
-                SqlConnRunner runner = db2.getRunner();
-                for (Entity entity : newResult) {
-                    // hutool的批量insert方法有坑，可能导致部分参数被丢弃
-                    runner.insert(connection, entity);
-                }
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            } finally {
-                db2.closeConnection(connection);
-            }
-
-            // 删除数据
-            Entity deleteWhere = Entity.create(tableName.value());
-            deleteWhere.set("id", newResult.stream().map(entity -> entity.getStr("id")).collect(Collectors.toList()));
-            db.del(deleteWhere);
-        }
-        log.info(I18nMessageUtil.get("i18n.migration_success.b20d"), tableDesc, total);
-        return total;
-    }
-
     /**
      * 加载 本地已经执行的记录
      *
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package org.dromara.jpom.plugin;
+
+import cn.hutool.core.comparator.VersionComparator;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.lang.Tuple;
+import cn.hutool.core.util.StrUtil;
+import org.eclipse.jgit.lib.Constants;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 仓库级别的 git 镜像缓存
+ * <p>
+ * 每个仓库在服务端保留一个裸镜像（bare mirror），只做增量 fetch。构建的代码目录通过 alternates 引用镜像中的对象，
+ * 不再每个构建各自完整 clone 一份，分支和标签列表也直接读取镜像的引用
+ * <p>
+ * 镜像中的对象只增不减（关闭自动 gc，fetch 只清理引用），避免引用镜像的代码目录丢失对象
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class GitMirrorCache {
+
+    /**
+     * 默认的镜像刷新间隔，单位秒
+     */
+    private static final int DEFAULT_TTL = 60;
+
+    /**
+     * 镜像最后一次从远程刷新的时间
+     */
+    private static final Map<String, Long> REFRESH_TIME = new ConcurrentHashMap<>();
+
+    /**
+     * 获取镜像目录，没有配置则表示不使用镜像
+     *
+     * @param parameter 参数
+     * @return 镜像目录
+     */
+    public static File getMirrorFile(Map<String, Object> parameter) {
+        return (File) parameter.get("mirrorPath");
+    }
+
+    /**
+     * 镜像是否已经存在
+     *
+     * @param mirror 镜像目录
+     * @return true 存在
+     */
+    public static boolean exists(File mirror) {
+        return mirror != null && FileUtil.isFile(FileUtil.file(mirror, Constants.HEAD)) && FileUtil.isDirectory(FileUtil.file(mirror, Constants.OBJECTS));
+    }
+
+    /**
+     * 镜像同步使用的锁
+     *
+     * @param mirror 镜像目录
+     * @return 锁对象
+     */
+    public static Object getLock(File mirror) {
+        return StrUtil.concat(false, "git-mirror:", FileUtil.getAbsolutePath(mirror)).intern();
+    }
+
+    /**
+     * 是否需要从远程刷新镜像，指定强制刷新（mirrorRefresh）或者超过刷新间隔（mirrorTtl）需要刷新
+     *
+     * @param parameter 参数
+     * @param mirror    镜像目录
+     * @return true 需要刷新
+     */
+    public static boolean needRefresh(Map<String, Object> parameter, File mirror) {
+        if (!exists(mirror)) {
+            return true;
+        }
+        Boolean refresh = (Boolean) parameter.get("mirrorRefresh");
+        if (refresh != null && refresh) {
+            return true;
+        }
+        Integer ttl = (Integer) parameter.getOrDefault("mirrorTtl", DEFAULT_TTL);
+        Long time = REFRESH_TIME.get(FileUtil.getAbsolutePath(mirror));
+        return time == null || System.currentTimeMillis() - time > ttl * 1000L;
+    }
+
+    /**
+     * 标记镜像已经刷新
+     *
+     * @param mirror 镜像目录
+     */
+    public static void refreshed(File mirror) {
+        REFRESH_TIME.put(FileUtil.getAbsolutePath(mirror), System.currentTimeMillis());
+    }
+
+    /**
+     * 代码目录中指向镜像对象的 alternates 文件
+     *
+     * @param file 代码目录
+     * @return alternates 文件
+     */
+    public static File getAlternatesFile(File file) {
+        return FileUtil.file(file, Constants.DOT_GIT, Constants.OBJECTS, "info", "alternates");
+    }
+
+    /**
+     * 代码目录是否已经引用指定镜像
+     *
+     * @param file   代码目录
+     * @param mirror 镜像目录
+     * @return true 已经引用
+     */
+    public static boolean isAlternatesOf(File file, File mirror) {
+        File alternatesFile = getAlternatesFile(file);
+        if (!FileUtil.isFile(alternatesFile)) {
+            return false;
+        }
+        String objects = FileUtil.getAbsolutePath(FileUtil.file(mirror, Constants.OBJECTS));
+        List<String> lines = FileUtil.readLines(alternatesFile, StandardCharsets.UTF_8);
+        return lines.stream().anyMatch(s -> StrUtil.equals(StrUtil.trim(s), objects));
+    }
+
+    /**
+     * 代码目录引用的镜像对象是否已经不存在（镜像被删除），此时代码目录不可用需要重新 clone
+     *
+     * @param file 代码目录
+     * @return true 引用失效
+     */
+    public static boolean isAlternatesBroken(File file) {
+        File alternatesFile = getAlternatesFile(file);
+        if (!FileUtil.isFile(alternatesFile)) {
+            return false;
+        }
+        List<String> lines = FileUtil.readLines(alternatesFile, StandardCharsets.UTF_8);
+        return lines.stream()
+            .map(StrUtil::trim)
+            .filter(StrUtil::isNotEmpty)
+            .anyMatch(s -> !FileUtil.isDirectory(s));
+    }
+
+    /**
+     * 代码目录引用镜像中的对象
+     *
+     * @param file   代码目录
+     * @param mirror 镜像目录
+     */
+    public static void writeAlternates(File file, File mirror) {
+        String objects = FileUtil.getAbsolutePath(FileUtil.file(mirror, Constants.OBJECTS));
+        FileUtil.writeUtf8String(objects + StrUtil.LF, getAlternatesFile(file));
+    }
+
+    /**
+     * 将引用名称转换为分支和标签列表
+     *
+     * @param refNames 引用名称
+     * @return 分支、标签，没有分支返回 null
+     */
+    public static Tuple toBranchAndTagList(Collection<String> refNames) {
+        List<String> branchList = new ArrayList<>();
+        List<String> tagList = new ArrayList<>();
+        for (String refName : refNames) {
+            if (StrUtil.startWith(refName, Constants.R_HEADS)) {
+                branchList.add(StrUtil.removePrefix(refName, Constants.R_HEADS));
+            } else if (StrUtil.startWith(refName, Constants.R_TAGS)) {
+                tagList.add(StrUtil.removePrefix(refName, Constants.R_TAGS));
+            }
+        }
+        if (branchList.isEmpty()) {
+            return null;
+        }
+        branchList.sort((o1, o2) -> VersionComparator.INSTANCE.compare(o2, o1));
+        tagList.sort((o1, o2) -> VersionComparator.INSTANCE.compare(o2, o1));
+        return new Tuple(branchList, tagList);
+    }
+}
@@ -22,6 +22,7 @@ import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
 import lombok.Lombok;
+import lombok.extern.slf4j.Slf4j;
 import org.dromara.jpom.common.i18n.I18nMessageUtil;
 import org.eclipse.jgit.api.*;
 import org.eclipse.jgit.api.errors.CheckoutConflictException;
@@ -32,10 +33,15 @@ import org.eclipse.jgit.errors.NoRemoteRepositoryException;
 import org.eclipse.jgit.errors.NotSupportedException;
 import org.eclipse.jgit.errors.RepositoryNotFoundException;
 import org.eclipse.jgit.internal.JGitText;
+import org.eclipse.jgit.lib.ConfigConstants;
 import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.NullProgressMonitor;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.ProgressMonitor;
 import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefDatabase;
+import org.eclipse.jgit.lib.StoredConfig;
 import org.eclipse.jgit.lib.SubmoduleConfig.FetchRecurseSubmodulesMode;
 import org.eclipse.jgit.merge.MergeStrategy;
 import org.eclipse.jgit.revwalk.RevCommit;
@@ -61,6 +67,7 @@ import java.util.stream.Collectors;
  * add git with ssh key to visit repository
  * @since 2019/7/15
  **/
+@Slf4j
 public class JGitUtil {
 
     /**
@@ -221,7 +228,7 @@ public class JGitUtil {
         String url = (String) parameter.get("url");
         return Optional.of(file).flatMap(file12 -> {
                 // 文件信息
-                if (FileUtil.file(file12, Constants.DOT_GIT).exists()) {
+                if (FileUtil.file(file12, Constants.DOT_GIT).exists() && !GitMirrorCache.isAlternatesBroken(file12)) {
                     return Optional.of(true);
                 }
                 return Optional.empty();
@@ -277,7 +284,16 @@ public class JGitUtil {
      * @throws GitAPIException api
      */
     public static Tuple getBranchAndTagList(Map<String, Object> parameter) throws Exception {
-
+        File mirror = GitMirrorCache.getMirrorFile(parameter);
+        if (GitMirrorCache.exists(mirror)) {
+            // 镜像已经存在，直接读取镜像的引用
+            try {
+                syncMirror(parameter, mirror, null);
+                return getMirrorBranchAndTagList(mirror);
+            } catch (Exception e) {
+                log.warn("git mirror branch list failed {}", e.getMessage());
+            }
+        }
         String url = (String) parameter.get("url");
         try {
             LsRemoteCommand lsRemoteCommand = Git.lsRemoteRepository()
@@ -352,7 +368,16 @@ public class JGitUtil {
     public static String[] checkoutPull(Map<String, Object> parameter, File file, String branchName, PrintWriter printWriter) throws Exception {
         String url = (String) parameter.get("url");
         String path = FileUtil.getAbsolutePath(file);
+        File mirror = syncMirror(parameter, GitMirrorCache.getMirrorFile(parameter), printWriter);
         synchronized (StrUtil.concat(false, url, path).intern()) {
+            if (mirror != null) {
+                try (Git git = initMirrorGit(parameter, mirror, file, printWriter)) {
+                    checkoutMirror(git, parameter, branchName, null, printWriter);
+                    return getLastCommitMsg(file, false, branchName);
+                } catch (Exception t) {
+                    checkTransportException(t, file, printWriter);
+                }
+            }
             try (Git git = initGit(parameter, branchName, null, file, printWriter)) {
                 // 拉取代码
                 PullResult pull = pull(git, parameter, branchName, printWriter);
@@ -434,7 +459,16 @@ public class JGitUtil {
     public static String[] checkoutPullTag(Map<String, Object> parameter, File file, String tagName, PrintWriter printWriter) throws Exception {
         String url = (String) parameter.get("url");
         String path = FileUtil.getAbsolutePath(file);
+        File mirror = syncMirror(parameter, GitMirrorCache.getMirrorFile(parameter), printWriter);
         synchronized (StrUtil.concat(false, url, path).intern()) {
+            if (mirror != null) {
+                try (Git git = initMirrorGit(parameter, mirror, file, printWriter)) {
+                    checkoutMirror(git, parameter, null, tagName, printWriter);
+                    return getLastCommitMsg(file, true, tagName);
+                } catch (Exception t) {
+                    checkTransportException(t, file, printWriter);
+                }
+            }
             try (Git git = initGit(parameter, null, tagName, file, printWriter)) {
                 // 获取最后提交信息
                 return getLastCommitMsg(file, true, tagName);
@@ -445,6 +479,168 @@ public class JGitUtil {
         return new String[]{StrUtil.EMPTY, StrUtil.EMPTY};
     }
 
+    /**
+     * 从远程刷新仓库镜像，镜像不存在时 clone 一个裸镜像，已经存在时增量 fetch
+     *
+     * @param parameter   参数
+     * @param mirror      镜像目录
+     * @param printWriter 日志流
+     * @return 可用的镜像目录，未开启镜像或者刷新失败返回 null
+     */
+    private static File syncMirror(Map<String, Object> parameter, File mirror, PrintWriter printWriter) {
+        if (mirror == null) {
+            return null;
+        }
+        String url = (String) parameter.get("url");
+        synchronized (GitMirrorCache.getLock(mirror)) {
+            if (!GitMirrorCache.needRefresh(parameter, mirror)) {
+                return mirror;
+            }
+            Integer progressRatio = (Integer) parameter.get("reduceProgressRatio");
+            try {
+                if (GitMirrorCache.exists(mirror)) {
+                    try (Git git = Git.open(mirror)) {
+                        StoredConfig config = git.getRepository().getConfig();
+                        config.setString(ConfigConstants.CONFIG_REMOTE_SECTION, Constants.DEFAULT_REMOTE_NAME, ConfigConstants.CONFIG_KEY_URL, url);
+                        config.save();
+                        FetchCommand fetchCommand = git.fetch()
+                            .setRemote(Constants.DEFAULT_REMOTE_NAME)
+                            .setRemoveDeletedRefs(true);
+                        if (printWriter != null) {
+                            fetchCommand.setProgressMonitor(new SmallTextProgressMonitor(printWriter, progressRatio));
+                        }
+                        setCredentials(fetchCommand, parameter);
+                        fetchCommand.call();
+                    }
+                    println(printWriter, "JGit: fetch repository mirror");
+                } else {
+                    println(printWriter, "JGit: create repository mirror");
+                    if (!FileUtil.clean(mirror)) {
+                        FileUtil.del(mirror.toPath());
+                    }
+                    CloneCommand cloneCommand = Git.cloneRepository()
+                        .setURI(url)
+                        .setDirectory(mirror)
+                        .setBare(true)
+                        .setMirror(true);
+                    if (printWriter != null) {
+                        cloneCommand.setProgressMonitor(new SmallTextProgressMonitor(printWriter, progressRatio));
+                    }
+                    setCredentials(cloneCommand, parameter);
+                    try (Git git = cloneCommand.call()) {
+                        // 代码目录引用了镜像中的对象，镜像不能自动清理对象
+                        StoredConfig config = git.getRepository().getConfig();
+                        config.setInt(ConfigConstants.CONFIG_GC_SECTION, null, ConfigConstants.CONFIG_KEY_AUTO, 0);
+                        config.save();
+                    }
+                }
+                GitMirrorCache.refreshed(mirror);
+                return mirror;
+            } catch (Exception e) {
+                log.warn("git mirror sync failed {} {}", url, e.getMessage());
+                println(printWriter, "JGit: repository mirror unavailable {}", e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 读取镜像中的分支和标签
+     *
+     * @param mirror 镜像目录
+     * @return Tuple
+     * @throws IOException io
+     */
+    private static Tuple getMirrorBranchAndTagList(File mirror) throws IOException {
+        try (Git git = Git.open(mirror)) {
+            RefDatabase refDatabase = git.getRepository().getRefDatabase();
+            List<String> refNames = refDatabase.getRefsByPrefix(Constants.R_HEADS, Constants.R_TAGS)
+                .stream()
+                .map(Ref::getName)
+                .collect(Collectors.toList());
+            return GitMirrorCache.toBranchAndTagList(refNames);
+        }
+    }
+
+    /**
+     * 打开引用镜像对象的代码目录，目录不存在或者引用的仓库不一致时重新初始化（不需要 clone，对象都在镜像中）
+     *
+     * @param parameter   参数
+     * @param mirror      镜像目录
+     * @param file        代码目录
+     * @param printWriter 日志流
+     * @return git
+     * @throws Exception 异常
+     */
+    private static Git initMirrorGit(Map<String, Object> parameter, File mirror, File file, PrintWriter printWriter) throws Exception {
+        String url = (String) parameter.get("url");
+        if (FileUtil.file(file, Constants.DOT_GIT).exists() && GitMirrorCache.isAlternatesOf(file, mirror) && checkRemoteUrl(url, file)) {
+            return Git.open(file);
+        }
+        println(printWriter, StrUtil.EMPTY);
+        println(printWriter, "JGit: init repository from mirror");
+        if (!FileUtil.clean(file)) {
+            FileUtil.del(file.toPath());
+        }
+        Git git = Git.init().setDirectory(file).call();
+        GitMirrorCache.writeAlternates(file, mirror);
+        StoredConfig config = git.getRepository().getConfig();
+        config.setString(ConfigConstants.CONFIG_REMOTE_SECTION, Constants.DEFAULT_REMOTE_NAME, ConfigConstants.CONFIG_KEY_URL, url);
+        config.setString(ConfigConstants.CONFIG_REMOTE_SECTION, Constants.DEFAULT_REMOTE_NAME, ConfigConstants.CONFIG_FETCH_SECTION,
+            "+" + Constants.R_HEADS + "*:" + Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/*");
+        config.save();
+        return git;
+    }
+
+    /**
+     * 从镜像更新引用并检出指定分支或者标签，对象已经在镜像中不需要再传输
+     *
+     * @param git         代码仓库
+     * @param parameter   参数
+     * @param branchName  分支
+     * @param tagName     标签
+     * @param printWriter 日志流
+     * @throws Exception 异常
+     */
+    private static void checkoutMirror(Git git, Map<String, Object> parameter, String branchName, String tagName, PrintWriter printWriter) throws Exception {
+        File mirror = GitMirrorCache.getMirrorFile(parameter);
+        Integer progressRatio = (Integer) parameter.get("reduceProgressRatio");
+        ProgressMonitor progressMonitor = printWriter == null ? NullProgressMonitor.INSTANCE : new SmallTextProgressMonitor(printWriter, progressRatio);
+        git.fetch()
+            .setRemote(FileUtil.getAbsolutePath(mirror))
+            .setRefSpecs(new RefSpec("+" + Constants.R_HEADS + "*:" + Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/*"),
+                new RefSpec("+" + Constants.R_TAGS + "*:" + Constants.R_TAGS + "*"))
+            .setRemoveDeletedRefs(true)
+            .setProgressMonitor(progressMonitor)
+            .call();
+        if (tagName != null) {
+            git.checkout().setName(Constants.R_TAGS + tagName).setForced(true).setProgressMonitor(progressMonitor).call();
+        } else {
+            String startPoint = Constants.DEFAULT_REMOTE_NAME + "/" + branchName;
+            boolean exists = git.getRepository().findRef(Constants.R_HEADS + branchName) != null;
+            // 放弃本地修改
+            git.checkout()
+                .setName(branchName)
+                .setCreateBranch(!exists)
+                .setStartPoint(startPoint)
+                .setForced(true)
+                .setProgressMonitor(progressMonitor)
+                .call();
+            git.reset().setMode(ResetCommand.ResetType.HARD).setRef(startPoint).setProgressMonitor(progressMonitor).call();
+        }
+        println(printWriter, "JGit: checkout {} from mirror", StrUtil.emptyToDefault(tagName, branchName));
+        //
+        git.submoduleInit().call();
+        SubmoduleUpdateCommand subUpdate = git.submoduleUpdate();
+        setCredentials(subUpdate, parameter);
+        Collection<String> rst = subUpdate
+            .setProgressMonitor(progressMonitor)
+            .setFetch(true)
+            .setStrategy(MergeStrategy.THEIRS)
+            .call();
+        println(printWriter, String.join("\n", rst));
+    }
+
     /**
      * 检查异常信息
      *
@@ -12,6 +12,7 @@ package org.dromara.jpom.plugin;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.comparator.VersionComparator;
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.LineHandler;
 import cn.hutool.core.lang.Tuple;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.URLUtil;
@@ -104,6 +105,15 @@ public class SystemGitProcess extends AbstractGitProcess {
 
     @Override
     public Tuple branchAndTagList() throws Exception {
+        File mirror = GitMirrorCache.getMirrorFile(parameter);
+        if (GitMirrorCache.exists(mirror) && this.syncMirror(mirror, null)) {
+            // 镜像已经存在，直接读取镜像的引用
+            List<String> refNames = new ArrayList<>();
+            int code = CommandUtil.exec(mirror, null, refNames::add, "git", "for-each-ref", "--format=%(refname)", Constants.R_HEADS, Constants.R_TAGS);
+            if (code == 0) {
+                return GitMirrorCache.toBranchAndTagList(refNames);
+            }
+        }
         String command = StrUtil.format("git ls-remote {}", this.getCovertUrl());
         command = this.warpSsh(command);
         String result = CommandUtil.execSystemCommand(command);
@@ -140,10 +150,15 @@ public class SystemGitProcess extends AbstractGitProcess {
 
     private String[] pull(String branchOrTag) throws IOException {
         PrintWriter printWriter = (PrintWriter) parameter.get("logWriter");
+        // 指定了克隆深度（浅克隆）不使用镜像，避免为浅克隆拉取完整历史
+        File mirror = this.getDepth() == null ? GitMirrorCache.getMirrorFile(parameter) : null;
+        if (mirror != null && !this.syncMirror(mirror, printWriter)) {
+            mirror = null;
+        }
         boolean needClone = this.needClone();
         if (needClone) {
             // clone
-            this.reClone(printWriter, branchOrTag);
+            this.reClone(printWriter, branchOrTag, mirror);
         }
         File saveFile = getSaveFile();
 
@@ -155,10 +170,16 @@ public class SystemGitProcess extends AbstractGitProcess {
                 printWriter.println(line);
                 printWriter.flush();
             }, "git", "pull");*/
+            String[] fetchCommand = mirror == null ?
+                new String[]{"git", "fetch", "--all"} :
+                // 对象已经在镜像中，从镜像更新引用
+                new String[]{"git", "fetch", "--prune", mirror.getAbsolutePath(),
+                    "+" + Constants.R_HEADS + "*:" + Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/*",
+                    "+" + Constants.R_TAGS + "*:" + Constants.R_TAGS + "*"};
             int code = CommandUtil.exec(saveFile, null, line -> {
                 printWriter.println(line);
                 printWriter.flush();
-            }, "git", "fetch", "--all");
+            }, fetchCommand);
             if (code != 0 && strictlyEnforce) {
                 return new String[]{null, null, I18nMessageUtil.get("i18n.git_fetch_failed_status_code.5187") + code};
             }
@@ -192,22 +213,54 @@ public class SystemGitProcess extends AbstractGitProcess {
         return new String[]{commitId[0], StrUtil.EMPTY};
     }
 
-    private void reClone(PrintWriter printWriter, String branchOrTag) throws IOException {
-        printWriter.println("SystemGit: Automatically re-clones repositories");
-        // 先删除本地目录
-        File savePath = getSaveFile();
-        if (!FileUtil.clean(savePath)) {
-            FileUtil.del(savePath.toPath());
-        }
-        String depthStr = Optional.ofNullable((Integer) parameter.get("depth"))
-            .map(integer -> {
-                if (integer > 0) {
-                    return integer;
+    /**
+     * 从远程刷新仓库镜像，镜像不存在时 clone 一个裸镜像，已经存在时增量 fetch
+     *
+     * @param mirror      镜像目录
+     * @param printWriter 日志流
+     * @return false 镜像不可用
+     * @throws IOException io
+     */
+    private boolean syncMirror(File mirror, PrintWriter printWriter) throws IOException {
+        synchronized (GitMirrorCache.getLock(mirror)) {
+            if (!GitMirrorCache.needRefresh(parameter, mirror)) {
+                return true;
+            }
+            Map<String, String> env = this.getTimeoutEnv();
+            LineHandler lineHandler = line -> {
+                if (printWriter != null) {
+                    printWriter.println(line);
+                    printWriter.flush();
                 }
-                return null;
-            })
-            .map(integer -> "--depth=" + integer)
-            .orElse(StrUtil.EMPTY);
+            };
+            String covertUrl = this.getCovertUrl();
+            int code;
+            if (GitMirrorCache.exists(mirror)) {
+                CommandUtil.exec(mirror, null, lineHandler, "git", "remote", "set-url", Constants.DEFAULT_REMOTE_NAME, covertUrl);
+                code = CommandUtil.exec(mirror, env, lineHandler, "git", "fetch", "--prune", Constants.DEFAULT_REMOTE_NAME);
+            } else {
+                lineHandler.handle("SystemGit: create repository mirror");
+                if (!FileUtil.clean(mirror)) {
+                    FileUtil.del(mirror.toPath());
+                }
+                File parentFile = mirror.getParentFile();
+                FileUtil.mkdir(parentFile);
+                code = CommandUtil.exec(parentFile, env, lineHandler, "git", "clone", "--mirror", covertUrl, mirror.getAbsolutePath());
+                if (code == 0) {
+                    // 代码目录引用了镜像中的对象，镜像不能自动清理对象
+                    CommandUtil.exec(mirror, null, lineHandler, "git", "config", "gc.auto", "0");
+                }
+            }
+            if (code != 0 || !GitMirrorCache.exists(mirror)) {
+                lineHandler.handle("SystemGit: repository mirror unavailable " + code);
+                return false;
+            }
+            GitMirrorCache.refreshed(mirror);
+            return true;
+        }
+    }
+
+    private Map<String, String> getTimeoutEnv() {
         Map<String, String> env = new HashMap<>(4);
         Optional.ofNullable((Integer) parameter.get("timeout"))
             .map(integer -> {
@@ -216,8 +269,39 @@ public class SystemGitProcess extends AbstractGitProcess {
                 }
                 return null;
             }).ifPresent(integer -> env.put("GIT_HTTP_TIMEOUT", String.valueOf(integer)));
+        return env;
+    }
+
+    /**
+     * 克隆深度
+     *
+     * @return null 未指定深度
+     */
+    private Integer getDepth() {
+        return Optional.ofNullable((Integer) parameter.get("depth"))
+            .filter(integer -> integer > 0)
+            .orElse(null);
+    }
+
+    private void reClone(PrintWriter printWriter, String branchOrTag, File mirror) throws IOException {
+        printWriter.println("SystemGit: Automatically re-clones repositories");
+        // 先删除本地目录
+        File savePath = getSaveFile();
+        if (!FileUtil.clean(savePath)) {
+            FileUtil.del(savePath.toPath());
+        }
+        String depthStr = Optional.ofNullable(this.getDepth())
+            .map(integer -> "--depth=" + integer)
+            .orElse(StrUtil.EMPTY);
+        Map<String, String> env = this.getTimeoutEnv();
         //
-        String[] command = new String[]{"git", "clone", "--recursive", depthStr, "-b", branchOrTag, this.getCovertUrl(), savePath.getAbsolutePath()};
+        String[] command;
+        if (mirror == null) {
+            command = new String[]{"git", "clone", "--recursive", depthStr, "-b", branchOrTag, this.getCovertUrl(), savePath.getAbsolutePath()};
+        } else {
+            // 引用镜像中的对象（仅未指定深度时使用镜像）
+            command = new String[]{"git", "clone", "--recursive", "--reference-if-able", mirror.getAbsolutePath(), "-b", branchOrTag, this.getCovertUrl(), savePath.getAbsolutePath()};
+        }
         FileUtil.mkdir(savePath);
         CommandUtil.exec(savePath, env, line -> {
             printWriter.println(line);
@@ -231,7 +315,7 @@ public class SystemGitProcess extends AbstractGitProcess {
     private boolean needClone() throws MalformedURLException {
         File savePath = getSaveFile();
         File file = FileUtil.file(savePath, Constants.DOT_GIT);
-        if (!FileUtil.exist(file)) {
+        if (!FileUtil.exist(file) || GitMirrorCache.isAlternatesBroken(savePath)) {
             return true;
         }
         // 判断远程
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2019 Of Him Code Technology Studio
+ * Jpom is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ * 			http://license.coscl.org.cn/MulanPSL2
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND, EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT, MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+package git;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.lang.Tuple;
+import cn.hutool.extra.spring.SpringUtil;
+import org.dromara.jpom.plugin.GitMirrorCache;
+import org.dromara.jpom.plugin.JGitUtil;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.context.MessageSource;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.context.support.StaticMessageSource;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 仓库镜像缓存
+ *
+ * @author bwcx_jzy
+ * @since 2026/10/18
+ */
+public class TestGitMirror {
+
+    private File root;
+    private Git remote;
+
+    @BeforeClass
+    public static void beforeClass() {
+        // 国际化消息需要从 spring 容器中获取
+        GenericApplicationContext context = new GenericApplicationContext();
+        StaticMessageSource messageSource = new StaticMessageSource();
+        messageSource.setUseCodeAsDefaultMessage(true);
+        context.registerBean(AbstractApplicationContext.MESSAGE_SOURCE_BEAN_NAME, MessageSource.class, () -> messageSource);
+        context.refresh();
+        new SpringUtil().setApplicationContext(context);
+    }
+
+    @Before
+    public void before() throws Exception {
+        root = FileUtil.file(FileUtil.getTmpDir(), "jpom-test-git-mirror");
+        FileUtil.del(root);
+        remote = Git.init().setDirectory(FileUtil.file(root, "remote")).setInitialBranch("master").call();
+        this.commit("a.txt", "a");
+        remote.tag().setName("v1.0").call();
+    }
+
+    @After
+    public void after() {
+        remote.close();
+        FileUtil.del(root);
+    }
+
+    private RevCommit commit(String name, String content) throws Exception {
+        FileUtil.writeUtf8String(content, FileUtil.file(remote.getRepository().getWorkTree(), name));
+        remote.add().addFilepattern(name).call();
+        return remote.commit().setMessage(name).call();
+    }
+
+    private Map<String, Object> parameter() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("url", remote.getRepository().getDirectory().getAbsolutePath());
+        map.put("protocol", 0);
+        map.put("username", "");
+        map.put("password", "");
+        map.put("reduceProgressRatio", 5);
+        map.put("mirrorPath", FileUtil.file(root, "mirror"));
+        map.put("mirrorTtl", 60);
+        return map;
+    }
+
+    @Test
+    public void testCheckout() throws Exception {
+        File mirror = FileUtil.file(root, "mirror");
+        File source1 = FileUtil.file(root, "build1");
+        File source2 = FileUtil.file(root, "build2");
+        PrintWriter printWriter = new PrintWriter(System.out);
+        String[] result1 = JGitUtil.checkoutPull(parameter(), source1, "master", printWriter);
+        String[] result2 = JGitUtil.checkoutPull(parameter(), source2, "master", printWriter);
+        Assert.assertTrue(GitMirrorCache.exists(mirror));
+        // 两个构建目录共用镜像中的对象
+        Assert.assertTrue(GitMirrorCache.isAlternatesOf(source1, mirror));
+        Assert.assertTrue(GitMirrorCache.isAlternatesOf(source2, mirror));
+        Assert.assertEquals(result1[0], result2[0]);
+        Assert.assertEquals("a", FileUtil.readUtf8String(FileUtil.file(source2, "a.txt")));
+
+        RevCommit commit = this.commit("b.txt", "b");
+        remote.branchCreate().setName("dev").call();
+        // 刷新间隔内分支列表读取镜像
+        Tuple tuple = JGitUtil.getBranchAndTagList(parameter());
+        List<String> branchList = tuple.get(0);
+        Assert.assertEquals(1, branchList.size());
+        List<String> tagList = tuple.get(1);
+        Assert.assertTrue(tagList.contains("v1.0"));
+        // 强制刷新
+        Map<String, Object> parameter = parameter();
+        parameter.put("mirrorRefresh", true);
+        tuple = JGitUtil.getBranchAndTagList(parameter);
+        branchList = tuple.get(0);
+        Assert.assertTrue(branchList.contains("dev"));
+        parameter.remove("mirrorRefresh");
+        // 构建目录本地修改被丢弃
+        FileUtil.writeUtf8String("changed", FileUtil.file(source1, "a.txt"));
+        result1 = JGitUtil.checkoutPull(parameter, source1, "master", printWriter);
+        Assert.assertEquals(commit.getName(), result1[0]);
+        Assert.assertEquals("a", FileUtil.readUtf8String(FileUtil.file(source1, "a.txt")));
+        Assert.assertEquals("b", FileUtil.readUtf8String(FileUtil.file(source1, "b.txt")));
+        // 标签
+        String[] tagResult = JGitUtil.checkoutPullTag(parameter, source2, "v1.0", printWriter);
+        Assert.assertNotNull(tagResult[0]);
+        Assert.assertEquals("a", FileUtil.readUtf8String(FileUtil.file(source2, "a.txt")));
+        Assert.assertFalse(FileUtil.exist(FileUtil.file(source2, "b.txt")));
+    }
+
+    @Test
+    public void testBrokenAlternates() throws Exception {
+        Map<String, Object> parameter = parameter();
+        File source = FileUtil.file(root, "build");
+        PrintWriter printWriter = new PrintWriter(System.out);
+        JGitUtil.checkoutPull(parameter, source, "master", printWriter);
+        FileUtil.del(FileUtil.file(root, "mirror"));
+        Assert.assertTrue(GitMirrorCache.isAlternatesBroken(source));
+        // 关闭镜像后重新 clone
+        parameter.remove("mirrorPath");
+        String[] result = JGitUtil.checkoutPull(parameter, source, "master", printWriter);
+        Assert.assertNotNull(result[0]);
+        Assert.assertFalse(GitMirrorCache.isAlternatesBroken(source));
+    }
+}
@@ -175,10 +175,10 @@ export const uploadPieces = ({
           chunkCount
         }
 
-        // 构建上传文件的formData
-        const uploadData: FormData = createUploadData(chunkInfo)
-
-        uploadCallback(uploadData)
+        // 构建上传文件的formData，携带分片签名由服务端边写边校验
+        chunk
+          .arrayBuffer()
+          .then((buffer: ArrayBuffer) => uploadCallback(createUploadData(chunkInfo, SparkMD5.ArrayBuffer.hash(buffer))))
           .then(() => {
             uploaded.push(chunkInfo.currentChunk + 1)
             const sd = parseInt(String((uploaded.length / chunkInfo.chunkCount) * 100))
@@ -209,11 +209,14 @@ export const uploadPieces = ({
   /***
    * 创建文件上传参数
    **/
-  const createUploadData = (chunkInfo: IChunkInfo2) => {
+  const createUploadData = (chunkInfo: IChunkInfo2, sliceMd5: string) => {
     const fetchForm: FormData = new FormData()
     const nowSlice = chunkInfo.currentChunk
     fetchForm.append('nowSlice', String(nowSlice))
     fetchForm.append('totalSlice', String(chunkCount))
+    fetchForm.append('sliceSize', String(chunkSize))
+    fetchForm.append('fileSize', String(file.size))
+    fetchForm.append('sliceMd5', sliceMd5)
     fetchForm.append('sliceId', sliceId)
     const chunkfile = new File([chunkInfo.chunk], file.name + '.' + nowSlice)
     fetchForm.append('file', chunkfile) // fetchForm.append('file', chunkInfo.chunk)